@@ -22,6 +22,9 @@ import java.util.*;
 
 /**
  * Implementation of IStorageService backed by HawtDB
+ * <p>
+ * The store is shared by all protocol processors and accessed by delivery threads, hence all operations on the
+ * indexes are synchronized.
  */
 public class HawtDBStorageService implements IStorageService {
 
@@ -148,7 +151,7 @@ public class HawtDBStorageService implements IStorageService {
         }*/
     }
 
-    public Collection<StoredMessage> searchMatching(IMatchingCondition condition) {
+    public synchronized Collection<StoredMessage> searchMatching(IMatchingCondition condition) {
         LOG.debug("searchMatching scanning all retained messages, presents are {}", m_retainedStore.size());
 
         List<StoredMessage> results = new ArrayList<StoredMessage>();
@@ -163,7 +166,7 @@ public class HawtDBStorageService implements IStorageService {
         return results;
     }
 
-    public void storePublishForFuture(PublishEvent evt) {
+    public synchronized void storePublishForFuture(PublishEvent evt) {
         List<StoredPublishEvent> storedEvents;
         String clientID = evt.getClientID();
         if (!m_persistentMessageStore.containsKey(clientID)) {
@@ -177,7 +180,7 @@ public class HawtDBStorageService implements IStorageService {
         LOG.debug("Stored published message for client <{}> on topic <{}>", clientID, evt.getTopic());
     }
 
-    public List<PublishEvent> retrivePersistedPublishes(String clientID) {
+    public synchronized List<PublishEvent> retrivePersistedPublishes(String clientID) {
         List<StoredPublishEvent> storedEvts = m_persistentMessageStore.get(clientID);
         if (storedEvts == null) {
             return null;
@@ -189,7 +192,7 @@ public class HawtDBStorageService implements IStorageService {
         return liveEvts;
     }
     
-    public void cleanPersistedPublishMessage(String clientID, int messageID) {
+    public synchronized void cleanPersistedPublishMessage(String clientID, int messageID) {
         List<StoredPublishEvent> events = m_persistentMessageStore.get(clientID);
         if (events == null) {
             return;
@@ -204,20 +207,20 @@ public class HawtDBStorageService implements IStorageService {
         m_persistentMessageStore.put(clientID, events);
     }
 
-    public void cleanPersistedPublishes(String clientID) {
+    public synchronized void cleanPersistedPublishes(String clientID) {
         m_persistentMessageStore.remove(clientID);
     }
 
-    public void cleanInFlight(String msgID) {
+    public synchronized void cleanInFlight(String msgID) {
         m_inflightStore.remove(msgID);
     }
 
-    public void addInFlight(PublishEvent evt, String publishKey) {
+    public synchronized void addInFlight(PublishEvent evt, String publishKey) {
         StoredPublishEvent storedEvt = convertToStored(evt);
         m_inflightStore.put(publishKey, storedEvt);
     }
 
-    public void addNewSubscription(Subscription newSubscription, String clientID) {
+    public synchronized void addNewSubscription(Subscription newSubscription, String clientID) {
         LOG.debug("addNewSubscription invoked with subscription {} for client {}", newSubscription, clientID);
         if (!m_persistentSubscriptions.containsKey(clientID)) {
             LOG.debug("clientID {} is a newcome, creating it's subscriptions set", clientID);
@@ -244,11 +247,11 @@ public class HawtDBStorageService implements IStorageService {
         }
     }
 
-    public void removeAllSubscriptions(String clientID) {
+    public synchronized void removeAllSubscriptions(String clientID) {
         m_persistentSubscriptions.remove(clientID);
     }
 
-    public List<Subscription> retrieveAllSubscriptions() {
+    public synchronized List<Subscription> retrieveAllSubscriptions() {
         List<Subscription> allSubscriptions = new ArrayList<Subscription>();
         for (Map.Entry<String, Set<Subscription>> entry : m_persistentSubscriptions) {
             allSubscriptions.addAll(entry.getValue());
@@ -257,7 +260,7 @@ public class HawtDBStorageService implements IStorageService {
         return allSubscriptions;
     }
 
-    public void close() {
+    public synchronized void close() {
         LOG.debug("closing disk storage");
         try {
             pageFactory.close();
@@ -267,16 +270,16 @@ public class HawtDBStorageService implements IStorageService {
     }
 
     /*-------- QoS 2  storage management --------------*/
-    public void persistQoS2Message(String publishKey, PublishEvent evt) {
+    public synchronized void persistQoS2Message(String publishKey, PublishEvent evt) {
         LOG.debug("persistQoS2Message store pubKey {}, evt {}", publishKey, evt);
         m_qos2Store.put(publishKey, convertToStored(evt));
     }
 
-    public void removeQoS2Message(String publishKey) {
+    public synchronized void removeQoS2Message(String publishKey) {
         m_qos2Store.remove(publishKey);
     }
 
-    public PublishEvent retrieveQoS2Message(String publishKey) {
+    public synchronized PublishEvent retrieveQoS2Message(String publishKey) {
         StoredPublishEvent storedEvt = m_qos2Store.get(publishKey);
         return convertFromStored(storedEvt);
     }
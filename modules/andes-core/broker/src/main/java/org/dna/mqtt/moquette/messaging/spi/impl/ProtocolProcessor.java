@@ -50,6 +50,7 @@ import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -64,7 +65,11 @@ public class ProtocolProcessor implements EventHandler<ValueEvent>, PubAckHandle
 
     public static final String CARBON_SUPER_TENANT_DOMAIN = "carbon.super";
 
-    private Map<String, ConnectionDescriptor> m_clientIDs = new HashMap<String, ConnectionDescriptor>();
+    /**
+     * Connections of the clients assigned to this processor. Modified by the inbound event thread of the processor and
+     * read by the delivery threads when sending messages and acks.
+     */
+    private Map<String, ConnectionDescriptor> m_clientIDs = new ConcurrentHashMap<String, ConnectionDescriptor>();
     private SubscriptionsStore subscriptions;
     private IStorageService m_storageService;
     private IAuthenticator m_authenticator;
@@ -152,19 +157,21 @@ public class ProtocolProcessor implements EventHandler<ValueEvent>, PubAckHandle
         disruptor.handleEventsWith(m_eventProcessor);
 
         m_ringBuffer = disruptor.start();
-        //Will initialize the bridge
-        //Andes Specific
-        initAndesBridge(subscriptions, storageService);
     }
 
-    /*Will shake hands with the kernel*/
-    /*Andes Specific*/
-    private void initAndesBridge(SubscriptionsStore subscriptions, IStorageService storageService) {
+    /**
+     * Will shake hands with the kernel. Invoked once after all the protocol processors are initialized.
+     * Andes Specific
+     *
+     * @param mqttProcessors the protocol processors, clients are assigned to them by {@link #getProcessorIndex}
+     * @param subscriptions  the subscription store shared by the protocol processors
+     */
+    static void initAndesBridge(ProtocolProcessor[] mqttProcessors, SubscriptionsStore subscriptions) {
         //bridge = new AndesMQTTBridge(this);
         // bridge = AndesMQTTBridge.getBridgeInstance(this);
         //Will create the bridge and initialize the protocol
         try {
-            AndesMQTTBridge.initMQTTProtocolProcessor(this);
+            AndesMQTTBridge.initMQTTProtocolProcessors(mqttProcessors);
         } catch (MQTTException e) {
             final String message = "Error occurred when initializing MQTT connection with Andes ";
             log.error(message + e.getMessage(), e);
@@ -176,6 +183,22 @@ public class ProtocolProcessor implements EventHandler<ValueEvent>, PubAckHandle
 
     }
 
+    /**
+     * Get the index of the protocol processor which handles the events of a client. All the events of a client are
+     * handled by the same processor, hence they are processed in order.
+     *
+     * @param clientID       the id of the client, null if the client is not known yet
+     * @param processorCount the number of protocol processors
+     * @return the index of the protocol processor
+     */
+    public static int getProcessorIndex(String clientID, int processorCount) {
+        if (null == clientID) {
+            return 0;
+        }
+        // Taking the absolute value since hashCode can be a negative value
+        return Math.abs(clientID.hashCode() % processorCount);
+    }
+
     /**
      * Added as an upgrade for 3.1.1 specification, This is adopted by WSO2 from Moquette
      * @param session the server session which has channel information
@@ -756,7 +779,8 @@ public class ProtocolProcessor implements EventHandler<ValueEvent>, PubAckHandle
         }
 
         //If already removed a disconnect message was already processed for this clientID
-        if (!forciblyClosed && m_clientIDs.remove(clientID) != null) {
+        //The clientID is null if the connection was lost before a connect message was processed
+        if (!forciblyClosed && null != clientID && m_clientIDs.remove(clientID) != null) {
             //de-activate the subscriptions for this ClientID
             subscriptions.deactivate(clientID);
             log.info("Lost connection with client " + clientID);
@@ -3,15 +3,17 @@ package org.dna.mqtt.moquette.messaging.spi.impl;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.lmax.disruptor.BatchEventProcessor;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventProcessor;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.SequenceBarrier;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
+import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.dna.mqtt.moquette.messaging.spi.IMessaging;
 import org.dna.mqtt.moquette.messaging.spi.IStorageService;
 import org.dna.mqtt.moquette.messaging.spi.impl.events.DisconnectEvent;
-import org.dna.mqtt.moquette.messaging.spi.impl.events.InitEvent;
 import org.dna.mqtt.moquette.messaging.spi.impl.events.LostConnectionEvent;
 import org.dna.mqtt.moquette.messaging.spi.impl.events.MessagingEvent;
 import org.dna.mqtt.moquette.messaging.spi.impl.events.ProtocolEvent;
@@ -36,6 +38,11 @@ import org.dna.mqtt.wso2.MQTTPingRequest;
 import org.dna.mqtt.wso2.MQTTSubscriptionStore;
 import org.wso2.andes.configuration.AndesConfigurationManager;
 import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.disruptor.HandlerLagGauge;
+import org.wso2.andes.kernel.disruptor.waitStrategy.DisruptorWaitStrategy;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
 
 import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
@@ -44,7 +51,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
-public class SimpleMessaging implements IMessaging, EventHandler<ValueEvent> {
+public class SimpleMessaging implements IMessaging {
 
     private static Log log = LogFactory.getLog(SimpleMessaging.class);
 
@@ -61,7 +68,12 @@ public class SimpleMessaging implements IMessaging, EventHandler<ValueEvent> {
     
     private static SimpleMessaging INSTANCE;
 
-    private ProtocolProcessor mqttProcessor = new ProtocolProcessor();
+    /**
+     * Protocol processors handling the inbound events. Each client is assigned to one of the processors by its
+     * client id, hence events of different clients are processed in parallel while events of a client are processed
+     * in order.
+     */
+    private ProtocolProcessor[] mqttProcessors;
 
     CountDownLatch m_stopLatch;
 
@@ -80,55 +92,93 @@ public class SimpleMessaging implements IMessaging, EventHandler<ValueEvent> {
         //Modified by WSO2 in-order to extend the capability of the existing subscriptions store
         //to be more suitable for the distribution architecture of Andes
         subscriptions = new MQTTSubscriptionStore();
+        int processorCount = Math.max(1, (Integer) AndesConfigurationManager.readValue(
+                AndesConfiguration.TRANSPORTS_MQTT_PARALLEL_PROTOCOL_PROCESSORS));
+        mqttProcessors = new ProtocolProcessor[processorCount];
+        for (int i = 0; i < processorCount; i++) {
+            mqttProcessors[i] = new ProtocolProcessor();
+        }
+        // All the processors should be initialized before any of them processes an event, hence this is not done
+        // through the ring buffer
+        processInit(configProps);
+
         ThreadFactory namedThreadFactory = new ThreadFactoryBuilder()
                 .setNameFormat("Disruptor MQTT Simple Messaging Thread %d").build();
         ExecutorService executor = Executors.newCachedThreadPool(namedThreadFactory);
         Integer ringBufferSize = AndesConfigurationManager.readValue(
                 AndesConfiguration.TRANSPORTS_MQTT_INBOUND_BUFFER_SIZE);
+        DisruptorWaitStrategy waitStrategy = AndesConfigurationManager.readValue(
+                AndesConfiguration.TRANSPORTS_MQTT_INBOUND_WAIT_STRATEGY);
 
-        disruptor = new Disruptor<ValueEvent>( ValueEvent.EVENT_FACTORY, ringBufferSize, executor);
+        disruptor = new Disruptor<ValueEvent>(ValueEvent.EVENT_FACTORY, ringBufferSize, executor, ProducerType.MULTI,
+                waitStrategy.createWaitStrategy());
         //Added by WSO2, we do not want to ignore the exception here
         disruptor.handleExceptionsWith(new MQTTLogExceptionHandler());
         SequenceBarrier barrier = disruptor.getRingBuffer().newBarrier();
-        BatchEventProcessor<ValueEvent> eventProcessor = new BatchEventProcessor<ValueEvent>(
-                disruptor.getRingBuffer(), barrier, this);
-        //Added by WSO2, we need to make sure the exceptions aren't ignored
-        eventProcessor.setExceptionHandler(new MQTTLogExceptionHandler());
-        disruptor.handleEventsWith(eventProcessor);
+        EventProcessor[] eventProcessors = new EventProcessor[processorCount];
+        for (int i = 0; i < processorCount; i++) {
+            BatchEventProcessor<ValueEvent> eventProcessor = new BatchEventProcessor<ValueEvent>(
+                    disruptor.getRingBuffer(), barrier, new ProtocolEventHandler(i, mqttProcessors[i]));
+            //Added by WSO2, we need to make sure the exceptions aren't ignored
+            eventProcessor.setExceptionHandler(new MQTTLogExceptionHandler());
+            eventProcessors[i] = eventProcessor;
+        }
+        EventHandlerGroup<ValueEvent> eventProcessorGroup = disruptor.handleEventsWith(eventProcessors);
         m_ringBuffer = disruptor.start();
-        
-        disruptorPublish(new InitEvent(configProps));
+
+        // Events published but not yet processed by the slowest protocol processor
+        MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_MQTT_INBOUND_RING,
+                new HandlerLagGauge(m_ringBuffer, eventProcessorGroup));
     }
 
 
-    private void disruptorPublish(MessagingEvent msgEvent) {
+    private void disruptorPublish(MessagingEvent msgEvent, int processorIndex) {
         if (log.isDebugEnabled()) {
-            log.debug("disruptorPublish publishing event " + msgEvent);
+            log.debug("disruptorPublish publishing event " + msgEvent + " to processor " + processorIndex);
         }
         long sequence = m_ringBuffer.next();
         ValueEvent event = m_ringBuffer.get(sequence);
 
         event.setEvent(msgEvent);
+        event.setProcessorIndex(processorIndex);
 
         m_ringBuffer.publish(sequence);
     }
 
+    /**
+     * Get the index of the protocol processor assigned to the client of a session. The processor is assigned when the
+     * connect message of the session is published, since the client id attribute is set only after the connect
+     * message is processed.
+     *
+     * @param session the server session of the client
+     * @return the index of the protocol processor, 0 if a connect message was not received through the session
+     */
+    private int getProcessorIndex(ServerChannel session) {
+        Integer processorIndex = (Integer) session.getAttribute(Constants.ATTR_PROCESSOR_INDEX);
+        return (null != processorIndex) ? processorIndex : 0;
+    }
 
     public void disconnect(ServerChannel session) {
-        disruptorPublish(new DisconnectEvent(session));
+        disruptorPublish(new DisconnectEvent(session), getProcessorIndex(session));
     }
 
     public void lostConnection(String clientID) {
-        disruptorPublish(new LostConnectionEvent(clientID));
+        disruptorPublish(new LostConnectionEvent(clientID),
+                ProtocolProcessor.getProcessorIndex(clientID, mqttProcessors.length));
     }
 
     public void handleProtocolMessage(ServerChannel session, AbstractMessage msg) {
-        disruptorPublish(new ProtocolEvent(session, msg));
+        if (msg instanceof ConnectMessage) {
+            String clientID = ((ConnectMessage) msg).getClientID();
+            session.setAttribute(Constants.ATTR_PROCESSOR_INDEX,
+                    ProtocolProcessor.getProcessorIndex(clientID, mqttProcessors.length));
+        }
+        disruptorPublish(new ProtocolEvent(session, msg), getProcessorIndex(session));
     }
 
     public void stop() {
         m_stopLatch = new CountDownLatch(1);
-        disruptorPublish(new StopEvent());
+        disruptorPublish(new StopEvent(), 0);
         try {
             //wait the callback notification from the protocol processor thread
             boolean elapsed = !m_stopLatch.await(10, TimeUnit.SECONDS);
@@ -140,7 +190,14 @@ public class SimpleMessaging implements IMessaging, EventHandler<ValueEvent> {
         }
     }
 
-    public void onEvent(ValueEvent t, long l, boolean bln) throws Exception {
+    /**
+     * Process an inbound event using the protocol processor assigned to the client of the event
+     *
+     * @param t             the event read from the ring buffer
+     * @param mqttProcessor the protocol processor assigned to the client
+     * @throws Exception
+     */
+    private void processEvent(ValueEvent t, ProtocolProcessor mqttProcessor) throws Exception {
         MessagingEvent evt = t.getEvent();
         if (log.isDebugEnabled()) {
             log.debug("onEvent processing messaging event from input ringbuffer " + evt);
@@ -208,8 +265,6 @@ public class SimpleMessaging implements IMessaging, EventHandler<ValueEvent> {
                 throw new RuntimeException("Illegal message received " + message);
             }
 
-        } else if (evt instanceof InitEvent) {
-            processInit(((InitEvent) evt).getConfig());
         } else if (evt instanceof LostConnectionEvent) {
             LostConnectionEvent lostEvt = (LostConnectionEvent) evt;
             mqttProcessor.proccessConnectionLost(lostEvt.getClientID());
@@ -228,8 +283,13 @@ public class SimpleMessaging implements IMessaging, EventHandler<ValueEvent> {
         
         try {
             Class<? extends IAuthenticator> authenticatorClass = Class.forName(authenticatorClassName).asSubclass(IAuthenticator.class);
-            IAuthenticator authenticator = authenticatorClass.newInstance();
-            mqttProcessor.init(subscriptions, m_storageService, authenticator);
+            // Each processor uses its own authenticator, since authenticators are not required to be thread safe
+            for (ProtocolProcessor mqttProcessor : mqttProcessors) {
+                IAuthenticator authenticator = authenticatorClass.newInstance();
+                mqttProcessor.init(subscriptions, m_storageService, authenticator);
+            }
+            //Andes Specific
+            ProtocolProcessor.initAndesBridge(mqttProcessors, subscriptions);
                    
         } catch (ClassNotFoundException e) {
             throw new RuntimeException("unable to find the class authenticator: " +  authenticatorClassName, e);
@@ -255,4 +315,34 @@ public class SimpleMessaging implements IMessaging, EventHandler<ValueEvent> {
         subscriptions = null;
         m_stopLatch.countDown();
     }
+
+    /**
+     * Handles the inbound events of the clients assigned to one protocol processor. All the handlers read the same
+     * ring buffer and skip the events assigned to other processors.
+     */
+    private class ProtocolEventHandler implements EventHandler<ValueEvent> {
+
+        /**
+         * Index of the protocol processor of this handler
+         */
+        private final int processorIndex;
+
+        /**
+         * Protocol processor used to process the events of the clients assigned to this handler
+         */
+        private final ProtocolProcessor mqttProcessor;
+
+        ProtocolEventHandler(int processorIndex, ProtocolProcessor mqttProcessor) {
+            this.processorIndex = processorIndex;
+            this.mqttProcessor = mqttProcessor;
+        }
+
+        @Override
+        public void onEvent(ValueEvent event, long sequence, boolean endOfBatch) throws Exception {
+            // Filter events assigned to this handler
+            if (event.getProcessorIndex() == processorIndex) {
+                processEvent(event, mqttProcessor);
+            }
+        }
+    }
 }
@@ -7,6 +7,11 @@ public final class ValueEvent {
 
     private MessagingEvent m_event;
 
+    /**
+     * Index of the protocol processor which handles the event
+     */
+    private int m_processorIndex;
+
     public MessagingEvent getEvent() {
         return m_event;
     }
@@ -14,6 +19,14 @@ public final class ValueEvent {
     public void setEvent(MessagingEvent event) {
         m_event = event;
     }
+
+    public int getProcessorIndex() {
+        return m_processorIndex;
+    }
+
+    public void setProcessorIndex(int processorIndex) {
+        m_processorIndex = processorIndex;
+    }
     
     public final static EventFactory<ValueEvent> EVENT_FACTORY = new EventFactory<ValueEvent>() {
 
@@ -10,6 +10,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class SubscriptionsStore {
     
@@ -51,6 +53,12 @@ public class SubscriptionsStore {
     }
 
     private TreeNode subscriptions = new TreeNode(null);
+
+    /**
+     * Guards the subscription tree, which is used by all the MQTT protocol processors
+     */
+    private final ReadWriteLock m_lock = new ReentrantReadWriteLock();
+
     private static final Logger LOG = LoggerFactory.getLogger(SubscriptionsStore.class);
 
     private IPersistentSubscriptionStore m_storageService;
@@ -79,10 +87,18 @@ public class SubscriptionsStore {
     }
     
     protected void addDirect(Subscription newSubscription) {
-        TreeNode current = findMatchingNode(newSubscription.topic);
-        current.addSubscription(newSubscription);
+        m_lock.writeLock().lock();
+        try {
+            TreeNode current = findMatchingNode(newSubscription.topic);
+            current.addSubscription(newSubscription);
+        } finally {
+            m_lock.writeLock().unlock();
+        }
     }
-    
+
+    /**
+     * Find the node of the topic, creating missing nodes. Should be called holding the write lock.
+     */
     private TreeNode findMatchingNode(String topic) {
         List<Token> tokens = new ArrayList<Token>();
         try {
@@ -121,19 +137,24 @@ public class SubscriptionsStore {
 
 
     public void removeSubscription(String topic, String clientID) {
-        TreeNode matchNode = findMatchingNode(topic);
-        
-        //search for the subscription to remove
-        Subscription toBeRemoved = null;
-        for (Subscription sub : matchNode.subscriptions()) {
-            if (sub.topic.equals(topic) && sub.getClientId().equals(clientID)) {
-                toBeRemoved = sub;
-                break;
+        m_lock.writeLock().lock();
+        try {
+            TreeNode matchNode = findMatchingNode(topic);
+
+            //search for the subscription to remove
+            Subscription toBeRemoved = null;
+            for (Subscription sub : matchNode.subscriptions()) {
+                if (sub.topic.equals(topic) && sub.getClientId().equals(clientID)) {
+                    toBeRemoved = sub;
+                    break;
+                }
             }
-        }
-        
-        if (toBeRemoved != null) {
-            matchNode.subscriptions().remove(toBeRemoved);
+
+            if (toBeRemoved != null) {
+                matchNode.subscriptions().remove(toBeRemoved);
+            }
+        } finally {
+            m_lock.writeLock().unlock();
         }
     }
 
@@ -143,13 +164,18 @@ public class SubscriptionsStore {
     public Subscription getSubscriptions(String topic,String clientID){
         Subscription subscription = null;
 
-        TreeNode matchNode = findMatchingNode(topic);
+        m_lock.writeLock().lock();
+        try {
+            TreeNode matchNode = findMatchingNode(topic);
 
-        for (Subscription sub : matchNode.subscriptions()) {
-            if (sub.topic.equals(topic) && sub.getClientId().equals(clientID)) {
-                subscription = sub;
-                break;
+            for (Subscription sub : matchNode.subscriptions()) {
+                if (sub.topic.equals(topic) && sub.getClientId().equals(clientID)) {
+                    subscription = sub;
+                    break;
+                }
             }
+        } finally {
+            m_lock.writeLock().unlock();
         }
 
         return subscription;
@@ -159,12 +185,17 @@ public class SubscriptionsStore {
      * TODO implement testing
      */
     public void clearAllSubscriptions() {
-        SubscriptionTreeCollector subsCollector = new SubscriptionTreeCollector();
-        bfsVisit(subscriptions, subsCollector);
-        
-        List<Subscription> allSubscriptions = subsCollector.getResult();
-        for (Subscription subscription : allSubscriptions) {
-            removeSubscription(subscription.getTopic(), subscription.getClientId());
+        m_lock.writeLock().lock();
+        try {
+            SubscriptionTreeCollector subsCollector = new SubscriptionTreeCollector();
+            bfsVisit(subscriptions, subsCollector);
+
+            List<Subscription> allSubscriptions = subsCollector.getResult();
+            for (Subscription subscription : allSubscriptions) {
+                removeSubscription(subscription.getTopic(), subscription.getClientId());
+            }
+        } finally {
+            m_lock.writeLock().unlock();
         }
     }
 
@@ -172,19 +203,34 @@ public class SubscriptionsStore {
      * Visit the topics tree to remove matching subscriptions with clientID
      */
     public void removeForClient(String clientID) {
-        subscriptions.removeClientSubscriptions(clientID);
+        m_lock.writeLock().lock();
+        try {
+            subscriptions.removeClientSubscriptions(clientID);
+        } finally {
+            m_lock.writeLock().unlock();
+        }
 
         //remove from log all subscriptions
         m_storageService.removeAllSubscriptions(clientID);
     }
 
     public void deactivate(String clientID) {
-        subscriptions.deactivate(clientID);
+        m_lock.writeLock().lock();
+        try {
+            subscriptions.deactivate(clientID);
+        } finally {
+            m_lock.writeLock().unlock();
+        }
     }
 
     public void activate(String clientID) {
         LOG.debug("Activating subscriptions for clientID <{}>", clientID);
-        subscriptions.activate(clientID);
+        m_lock.writeLock().lock();
+        try {
+            subscriptions.activate(clientID);
+        } finally {
+            m_lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -204,7 +250,12 @@ public class SubscriptionsStore {
 
         Queue<Token> tokenQueue = new LinkedBlockingDeque<Token>(tokens);
         List<Subscription> matchingSubs = new ArrayList<Subscription>();
-        subscriptions.matches(tokenQueue, matchingSubs);
+        m_lock.readLock().lock();
+        try {
+            subscriptions.matches(tokenQueue, matchingSubs);
+        } finally {
+            m_lock.readLock().unlock();
+        }
         return matchingSubs;
     }
 
@@ -213,12 +264,22 @@ public class SubscriptionsStore {
     }
 
     public int size() {
-        return subscriptions.size();
+        m_lock.readLock().lock();
+        try {
+            return subscriptions.size();
+        } finally {
+            m_lock.readLock().unlock();
+        }
     }
     
     public String dumpTree() {
         DumpTreeVisitor visitor = new DumpTreeVisitor();
-        bfsVisit(subscriptions, visitor);
+        m_lock.readLock().lock();
+        try {
+            bfsVisit(subscriptions, visitor);
+        } finally {
+            m_lock.readLock().unlock();
+        }
         return visitor.getResult();
     }
     
@@ -27,6 +27,8 @@ public class NettyChannel implements ServerChannel {
     private static final AttributeKey<Object> ATTR_KEY_CLEANSESSION = new AttributeKey<Object>(Constants.CLEAN_SESSION);
     private static final AttributeKey<Object> ATTR_KEY_CLIENTID = new AttributeKey<Object>(Constants.ATTR_CLIENTID);
     public static final AttributeKey<Object> ATTR_KEY_USERNAME = AttributeKey.valueOf(ATTR_USERNAME);
+    private static final AttributeKey<Object> ATTR_KEY_PROCESSOR_INDEX =
+            AttributeKey.valueOf(Constants.ATTR_PROCESSOR_INDEX);
     private final UUID uuid = UUID.randomUUID();
 
     NettyChannel(ChannelHandlerContext ctx) {
@@ -35,6 +37,7 @@ public class NettyChannel implements ServerChannel {
         m_attributesKeys.put(Constants.CLEAN_SESSION, ATTR_KEY_CLEANSESSION);
         m_attributesKeys.put(Constants.ATTR_CLIENTID, ATTR_KEY_CLIENTID);
         m_attributesKeys.put(ATTR_USERNAME,ATTR_KEY_USERNAME);
+        m_attributesKeys.put(Constants.ATTR_PROCESSOR_INDEX, ATTR_KEY_PROCESSOR_INDEX);
     }
 
     public Object getAttribute(Object key) {
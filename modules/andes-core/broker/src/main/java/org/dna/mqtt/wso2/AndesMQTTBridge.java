@@ -48,10 +48,10 @@ public final class AndesMQTTBridge {
 
     private static Log log = LogFactory.getLog(AndesMQTTBridge.class);
     /**
-     * The connection between the MQTT library
+     * The connection between the MQTT library, each client is handled by one of the protocol processors
      */
 
-    private static ProtocolProcessor mqttProtocolHandlingEngine = null;
+    private static ProtocolProcessor[] mqttProtocolHandlingEngines = null;
 
     /**
      *  The Andes bridge instance
@@ -78,10 +78,11 @@ public final class AndesMQTTBridge {
     /**
      * Will handle processing the protocol specific details on MQTT
      *
-     * @param mqttProtocolProcessor the reference to the protocol processing object
+     * @param mqttProtocolProcessors the references to the protocol processing objects, a client is assigned to a
+     *                               processor by {@link ProtocolProcessor#getProcessorIndex(String, int)}
      */
-    public static void initMQTTProtocolProcessor(ProtocolProcessor mqttProtocolProcessor) throws MQTTException {
-        mqttProtocolHandlingEngine = mqttProtocolProcessor;
+    public static void initMQTTProtocolProcessors(ProtocolProcessor[] mqttProtocolProcessors) throws MQTTException {
+        mqttProtocolHandlingEngines = mqttProtocolProcessors;
         //Also we initialize the topic manager instance
         MQTTopicManager.getInstance().initProtocolEngine(instance);
     }
@@ -92,7 +93,7 @@ public final class AndesMQTTBridge {
      * @return The bridge instance that will allow connectivity between the kernal and mqtt protocol
      */
     public static AndesMQTTBridge getBridgeInstance() throws MQTTException {
-        if (null != mqttProtocolHandlingEngine) {
+        if (null != mqttProtocolHandlingEngines) {
             return instance;
         } else {
             //Will capture the exception here and will not throw it any further
@@ -212,15 +213,16 @@ public final class AndesMQTTBridge {
      */
     public void distributeMessageToSubscriptions(String subscribeDestination, String messageDestination, int qos, ByteBuffer message,
                                                  boolean retain, int messageID, String channelID) throws MQTTException {
-        if (null != mqttProtocolHandlingEngine) {
+        if (null != mqttProtocolHandlingEngines) {
             //Need to set do a re position of bytes for writing to the buffer
             //Since the buffer needs to be initialized for reading before sending out
             final int bytesPosition = 0;
             message.position(bytesPosition);
             AbstractMessage.QOSType qosType = MQTTUtils.getQOSType(qos);
 
-            mqttProtocolHandlingEngine.publishToSubscriber(subscribeDestination, messageDestination, qosType, message,
-                    retain, messageID, channelID);
+            int processorIndex = ProtocolProcessor.getProcessorIndex(channelID, mqttProtocolHandlingEngines.length);
+            mqttProtocolHandlingEngines[processorIndex].publishToSubscriber(subscribeDestination, messageDestination,
+                    qosType, message, retain, messageID, channelID);
             if (log.isDebugEnabled()) {
                 log.debug("The message with id " + messageID + " for destination " + messageDestination +
                         " was notified to its subscribers");
@@ -32,6 +32,7 @@ import org.wso2.andes.kernel.ProtocolDeliveryFailureException;
 import org.wso2.andes.kernel.ProtocolDeliveryRulesFailureException;
 import org.wso2.andes.kernel.ProtocolMessage;
 import org.wso2.andes.server.AMQChannel;
+import org.wso2.andes.server.filter.FilterManager;
 import org.wso2.andes.server.message.AMQMessage;
 import org.wso2.andes.server.message.MessageMetaData;
 import org.wso2.andes.server.queue.AMQQueue;
@@ -74,13 +75,26 @@ public class AMQPLocalSubscription implements OutboundSubscription {
 
     /*
      * This map works as a cache for queue entries, preventing need to convert
-     * DeliverableAndesMetadata to queue entries two times
+     * DeliverableAndesMetadata to queue entries two times. Null if selectors are
+     * evaluated on Andes metadata, as no queue entry is created for them
      */
     private Map<Long, StoredMessage<MessageMetaData>> storedMessageCache;
 
     //List of Delivery Rules to evaluate
     private List<AMQPDeliveryRule> AMQPDeliveryRulesList = new ArrayList<>();
 
+    //true if selectors of the subscription are evaluated directly against Andes metadata
+    private boolean evaluateSelectorsOnMetadata;
+
+    //selector filters of the subscription. Null if the subscription accepts all messages
+    private FilterManager filters;
+
+    /*
+     * Message last offered to a subscription by the delivery thread. Subscriptions evaluating selectors on the same
+     * message share its parsed headers
+     */
+    private static final ThreadLocal<MetadataFilterable> lastOfferedMessage = new ThreadLocal<>();
+
 
     public AMQPLocalSubscription(AMQQueue amqQueue, Subscription amqpSubscription, boolean isDurable, boolean
             isBoundToTopic) {
@@ -91,14 +105,18 @@ public class AMQPLocalSubscription implements OutboundSubscription {
         if (amqpSubscription != null && amqpSubscription instanceof SubscriptionImpl) {
             channel = ((SubscriptionImpl) amqpSubscription).getChannel();
             initializeDeliveryRules();
+            filters = ((SubscriptionImpl) amqpSubscription).getFilters();
+            evaluateSelectorsOnMetadata = true;
         }
 
         this.isDurable = isDurable;
         this.isBoundToTopic = isBoundToTopic;
 
-        //We leave the default values for initialCapacity and progression factor
-        //We re define concurrencyLevel as 2, since there will be only 2 threads which accesses it concurrently
-        this.storedMessageCache = new ConcurrentHashMap<>(16,0.75f,2);
+        if (!evaluateSelectorsOnMetadata) {
+            //We leave the default values for initialCapacity and progression factor
+            //We re define concurrencyLevel as 2, since there will be only 2 threads which accesses it concurrently
+            this.storedMessageCache = new ConcurrentHashMap<>(16,0.75f,2);
+        }
     }
 
     /**
@@ -144,6 +162,10 @@ public class AMQPLocalSubscription implements OutboundSubscription {
     public boolean isMessageAcceptedBySelector(AndesMessageMetadata messageMetadata)
             throws AndesException {
 
+        if (evaluateSelectorsOnMetadata) {
+            return (null == filters) || filters.allAllow(getFilterableMessage(messageMetadata));
+        }
+
         AMQMessage amqMessage = AMQPUtils.getAMQMessageFromAndesMetaData(messageMetadata);
         QueueEntry message = AMQPUtils.convertAMQMessageToQueueEntry(amqMessage, amqQueue);
 
@@ -155,6 +177,22 @@ public class AMQPLocalSubscription implements OutboundSubscription {
         }
     }
 
+    /**
+     * Get the message to evaluate selectors against. Reuses the message last offered by the calling thread if it is
+     * the same, so that the metadata is parsed once for all subscriptions.
+     *
+     * @param messageMetadata metadata of the message
+     * @return message exposing its headers to selectors
+     */
+    private static MetadataFilterable getFilterableMessage(AndesMessageMetadata messageMetadata) {
+        MetadataFilterable filterableMessage = lastOfferedMessage.get();
+        if (null == filterableMessage || !filterableMessage.isFor(messageMetadata)) {
+            filterableMessage = new MetadataFilterable(messageMetadata);
+            lastOfferedMessage.set(filterableMessage);
+        }
+        return filterableMessage;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -162,13 +200,15 @@ public class AMQPLocalSubscription implements OutboundSubscription {
     public boolean sendMessageToSubscriber(ProtocolMessage messageMetadata, AndesContent content)
             throws AndesException {
 
-        StoredMessage<MessageMetaData> cachedStoredMessage = storedMessageCache.get(messageMetadata.getMessageID());
+        StoredMessage<MessageMetaData> cachedStoredMessage = null;
+        if (null != storedMessageCache) {
+            cachedStoredMessage = storedMessageCache.remove(messageMetadata.getMessageID());
+        }
 
         AMQMessage message;
 
         if(null != cachedStoredMessage) {
             message = AMQPUtils.getQueueEntryFromStoredMessage(cachedStoredMessage, content);
-            storedMessageCache.remove(messageMetadata.getMessageID());
             message.setAndesMetadataReference(messageMetadata);
         } else {
             message = AMQPUtils.getAMQMessageForDelivery(messageMetadata, content);
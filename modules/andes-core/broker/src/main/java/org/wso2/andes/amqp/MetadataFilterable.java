@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.amqp;
+
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.server.message.AMQMessageHeader;
+import org.wso2.andes.server.message.MessageMetaData;
+import org.wso2.andes.server.queue.Filterable;
+
+/**
+ * Exposes the headers of a message to selectors directly from Andes metadata. The metadata bytes are parsed only
+ * when a selector first reads a header, and once for all the subscriptions the message is offered to.
+ */
+class MetadataFilterable implements Filterable {
+
+    private final AndesMessageMetadata metadata;
+
+    private MessageMetaData messageMetaData;
+
+    private AMQMessageHeader messageHeader;
+
+    MetadataFilterable(AndesMessageMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    /**
+     * Check whether this represents the given metadata instance
+     *
+     * @param metadata message metadata
+     * @return true if created for the given metadata
+     */
+    boolean isFor(AndesMessageMetadata metadata) {
+        return this.metadata == metadata;
+    }
+
+    @Override
+    public AMQMessageHeader getMessageHeader() {
+        if (null == messageHeader) {
+            messageHeader = getMessageMetaData().getMessageHeader();
+        }
+        return messageHeader;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return getMessageMetaData().isPersistent();
+    }
+
+    /**
+     * Messages offered to subscriptions are not marked as redelivered when evaluating selectors, same as a newly
+     * created queue entry
+     */
+    @Override
+    public boolean isRedelivered() {
+        return false;
+    }
+
+    private MessageMetaData getMessageMetaData() {
+        if (null == messageMetaData) {
+            messageMetaData = (MessageMetaData) AMQPUtils.convertAndesMetadataToAMQMetadata(metadata);
+        }
+        return messageMetaData;
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataFilterable[" + metadata.getMessageID() + "]";
+    }
+}
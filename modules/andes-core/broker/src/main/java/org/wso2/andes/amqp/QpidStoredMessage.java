@@ -61,4 +61,13 @@ public class QpidStoredMessage<T extends StorableMessageMetaData> extends Forwar
 
         return bytesWrittenToBuffer;
     }
+
+    /**
+     * Get the content of the message. Used to deliver the content without copying it.
+     *
+     * @return content of the message
+     */
+    public AndesContent getAndesContent() {
+        return content;
+    }
 }
@@ -23,6 +23,7 @@ import org.wso2.andes.configuration.util.ConfigurationProperty;
 import org.wso2.andes.configuration.util.ImmutableMetaProperties;
 import org.wso2.andes.configuration.util.MetaProperties;
 import org.wso2.andes.configuration.util.TopicMessageDeliveryStrategy;
+import org.wso2.andes.kernel.disruptor.waitStrategy.DisruptorWaitStrategy;
 
 import java.util.List;
 
@@ -48,6 +49,20 @@ public enum AndesConfiguration implements ConfigurationProperty {
      */
     CLUSTER_EVENT_SYNC_INTERVAL("coordination/clusterEventSyncMode/RDBMS/eventSyncInterval", "1000", Integer.class),
 
+    /**
+     * Push cluster events to other nodes through the slot coordinator when they are stored in the database, so that
+     * nodes read them right away. When enabled, the database is polled at the fallback sync interval only to
+     * reconcile events which were not pushed.
+     */
+    CLUSTER_EVENT_PUSH_ENABLED("coordination/clusterEventSyncMode/RDBMS/eventPush/@enabled", "true", Boolean.class),
+
+    /**
+     * The interval in milliseconds at which cluster events are read from the database when cluster event push is
+     * enabled.
+     */
+    CLUSTER_EVENT_FALLBACK_SYNC_INTERVAL("coordination/clusterEventSyncMode/RDBMS/eventPush/fallbackSyncInterval",
+            "30000", Integer.class),
+
     /**
      * The host IP to be used by the Thrift server. Thrift is used to coordinate message slots between MB nodes.
      */
@@ -84,6 +99,12 @@ public enum AndesConfiguration implements ConfigurationProperty {
      */
     COORDINATOR_THRIFT_RECONNECT_TIMEOUT("coordination/thriftServerReconnectTimeout", "5", Long.class),
 
+    /**
+     * Maximum number of connections a node keeps to the thrift server of the slot coordinator. Calls to the
+     * coordinator made by different threads are sent in parallel up to this limit.
+     */
+    COORDINATION_THRIFT_CLIENT_POOL_SIZE("coordination/thriftClientPoolSize", "4", Integer.class),
+
     /**
      * We use Hazelcast reliable topics to share all notifications across the cluster (e.g. subscription changes).
      * And this property defines the time-to-live for a notification since its creation. (in Seconds)
@@ -221,6 +242,20 @@ public enum AndesConfiguration implements ConfigurationProperty {
      */
     TRANSPORTS_MQTT_DELIVERY_BUFFER_SIZE("transports/mqtt/deliveryBufferSize", "32768", Integer.class),
 
+    /**
+     * Wait strategy of the MQTT inbound event Disruptor processor. See {@link DisruptorWaitStrategy} for the
+     * available strategies.
+     */
+    TRANSPORTS_MQTT_INBOUND_WAIT_STRATEGY("transports/mqtt/inboundWaitStrategy",
+            DisruptorWaitStrategy.BLOCKING.toString(), DisruptorWaitStrategy.class),
+
+    /**
+     * Number of parallel protocol processors handling MQTT inbound events. Clients are assigned to processors by
+     * client id, hence events of a client are processed in order. Increasing this value will speedup handling of
+     * connections, publishes and acks of many clients. But the system load will increase.
+     */
+    TRANSPORTS_MQTT_PARALLEL_PROTOCOL_PROCESSORS("transports/mqtt/parallelProtocolProcessors", "4", Integer.class),
+
     /**
      * This is a temporary list of user elements to enable user-authentication for MQTT.
      */
@@ -342,6 +377,25 @@ public enum AndesConfiguration implements ConfigurationProperty {
      * Indicates weather print cache related statistics in 2 minutes interval in carbon log.
      */
     PERSISTENCE_CACHE_PRINT_STATS("persistence/cache/printStats", "false", Boolean.class),
+
+    /**
+     * Memory used to keep cached message content.
+     *
+     * <p>
+     * <ul>
+     *  <li>heap    - messages are kept as java objects in a Guava cache</li>
+     *  <li>offHeap - content is copied to direct memory slabs outside the java heap. Does not add to garbage
+     *                collection pauses, content is copied back to the heap when read for delivery.
+     *  </li>
+     * </ul>
+     * </p>
+     */
+    PERSISTENCE_CACHE_MEMORY_TYPE("persistence/cache/memoryType", "heap", String.class),
+
+    /**
+     * Size of a direct memory slab of the off heap cache in KBs. Messages larger than a slab are not cached.
+     */
+    PERSISTENCE_CACHE_OFF_HEAP_SLAB_SIZE("persistence/cache/offHeapSlabSize", "4096", Integer.class),
     
     /**
      * The ID generation class that is used to maintain unique IDs for each message that arrives at the server.
@@ -442,6 +496,23 @@ public enum AndesConfiguration implements ConfigurationProperty {
     PERFORMANCE_TUNING_SUBMIT_SLOT_TIMER_PERIOD (
             "performanceTuning/slots/timerPeriod", "3000", Integer.class, PERFORMANCE_TUNING_SUBMIT_SLOT_TIMEOUT),
 
+    /**
+     * Submit slots of queues with subscribers in this node as soon as their messages are committed, and start
+     * delivering them from the metadata kept in memory instead of waiting for the slot window to fill or time out.
+     * Only applies when clustering is disabled.
+     */
+    PERFORMANCE_TUNING_SLOTS_LOW_LATENCY_DELIVERY("performanceTuning/slots/lowLatencyDelivery", "false",
+            Boolean.class),
+
+    /**
+     * Store the submitted slot message ids of a queue as a single encoded value in MB_SLOT_MESSAGE_ID_RANGE instead
+     * of one row per message id in MB_SLOT_MESSAGE_ID. Requires the MB_SLOT_MESSAGE_ID_RANGE table. Rows left in
+     * MB_SLOT_MESSAGE_ID are moved to the new table on startup. With Hazelcast slot coordination, the slot id map
+     * holds the encoded value instead of a set of message ids. All nodes of a cluster must use the same value.
+     */
+    PERFORMANCE_TUNING_SLOTS_COMPACT_MESSAGE_IDS("performanceTuning/slots/compactMessageIds", "false",
+            Boolean.class),
+
     
     /**
      * Maximum number of undelivered messages that can be in memory. Increasing this value could cause out of memory
@@ -456,6 +527,13 @@ public enum AndesConfiguration implements ConfigurationProperty {
      */
     PERFORMANCE_TUNING_DELIVERY_RING_BUFFER_SIZE("performanceTuning/delivery/ringBufferSize", "4096", Integer.class),
 
+    /**
+     * Wait strategy of the delivery disruptor processors. Spinning strategies reduce delivery latency but keep CPU
+     * cores busy while there is nothing to deliver. See {@link DisruptorWaitStrategy} for the available strategies.
+     */
+    PERFORMANCE_TUNING_DELIVERY_WAIT_STRATEGY("performanceTuning/delivery/waitStrategy",
+            DisruptorWaitStrategy.BLOCKING.toString(), DisruptorWaitStrategy.class),
+
     /**
      * Number of parallel readers used to read content from message store. Increasing this value will speedup
      * the message sending mechanism. But the load on the data store will increase.
@@ -511,6 +589,14 @@ public enum AndesConfiguration implements ConfigurationProperty {
     PERFORMANCE_TUNING_PARALLEL_TRANSACTION_MESSAGE_WRITERS(
             "performanceTuning/inboundEvents/transactionMessageWriters", "1", Integer.class),
 
+    /**
+     * Maximum time in microseconds a parallel message writer waits for other message writers to store their message
+     * batches with a single store transaction. The wait is reduced automatically when other writers do not join.
+     * Setting 0 makes each message writer store its batches separately.
+     */
+    PERFORMANCE_TUNING_MESSAGE_WRITER_GROUP_COMMIT_WAIT_TIME(
+            "performanceTuning/inboundEvents/groupCommitWaitTime", "100", Integer.class),
+
     /**
      * Size of the Disruptor ring buffer for inbound event handling. Buffer size should be a value of power of two
      * For publishing at higher rates increasing the buffer size may give some advantage to keep messages in memory and
@@ -518,6 +604,13 @@ public enum AndesConfiguration implements ConfigurationProperty {
      */
     PERFORMANCE_TUNING_PUBLISHING_BUFFER_SIZE("performanceTuning/inboundEvents/bufferSize", "65536", Integer.class),
 
+    /**
+     * Wait strategy of the inbound event Disruptor processors. Spinning strategies reduce publishing latency but keep
+     * CPU cores busy while there is nothing published. See {@link DisruptorWaitStrategy} for the available strategies.
+     */
+    PERFORMANCE_TUNING_INBOUND_WAIT_STRATEGY("performanceTuning/inboundEvents/waitStrategy",
+            DisruptorWaitStrategy.BLOCKING.toString(), DisruptorWaitStrategy.class),
+
     /**
      * Maximum batch size of the batch write operation for inbound messages. Batch write of a message will vary around
      * this number.
@@ -568,6 +661,22 @@ public enum AndesConfiguration implements ConfigurationProperty {
     PERFORMANCE_TUNING_TOPIC_MESSAGE_DELIVERY_TIMEOUT("performanceTuning/delivery/"
             + "topicMessageDeliveryStrategy/deliveryTimeout", "60" , Integer.class),
 
+    /**
+     * Data structure used to match published destinations against wildcard topic subscriptions of the cluster.
+     * "bitmap" keeps subscriptions in bitmaps per destination constituent. "trie" keeps subscriptions in a trie of
+     * destination constituents which is faster when there are many subscriptions.
+     */
+    PERFORMANCE_TUNING_TOPIC_SUBSCRIPTION_MATCHING_STORE("performanceTuning/topicSubscriptions/matchingStore",
+            "bitmap", String.class),
+
+    /**
+     * Store the content of a topic message once when it is routed to several storage queues, instead of once per
+     * storage queue. The content is removed after all copies of the message are removed. Only the RDBMS message
+     * store supports this and it requires the MB_SHARED_CONTENT and MB_SHARED_CONTENT_REF tables.
+     */
+    PERFORMANCE_TUNING_TOPIC_SHARED_CONTENT_ENABLED("performanceTuning/topicSubscriptions/sharedContent/@enabled",
+            "false", Boolean.class),
+
     /**
      * Time interval after which the Virtual host syncing Task can sync host details across the cluster.
      * specified in seconds.
@@ -679,6 +788,37 @@ public enum AndesConfiguration implements ConfigurationProperty {
      */
     RECOVERY_MESSAGES_CONCURRENT_STORAGE_QUEUE_READS("recovery/concurrentStorageQueueReads", "5", Integer.class),
 
+    /**
+     * Store the last message id of each submitted slot in the context store, so that slots can be recovered at
+     * startup without reading all message ids of the storage queues. Only message ids published after the last
+     * stored slot are read.
+     * <p>
+     * default value: true
+     * </p>
+     */
+    RECOVERY_SLOT_CHECKPOINTS("recovery/slotCheckpoints/@enabled", "true", Boolean.class),
+
+    /**
+     * Record changes made to exchanges, queues, bindings and durable subscriptions in the context store, so that
+     * nodes apply only the changes made since their last sync instead of reloading everything. Needs the context
+     * version and context change tables, and is turned off if they do not exist. Should have the same value on all
+     * nodes of the cluster.
+     * <p>
+     * default value: true
+     * </p>
+     */
+    RECOVERY_CONTEXT_CHANGES("recovery/contextChanges/@enabled", "true", Boolean.class),
+
+    /**
+     * Number of syncs of the recovery task after which exchanges, queues, bindings and subscriptions are reloaded
+     * fully even though context changes are recorded. A full reload removes in memory state that no recorded change
+     * accounts for.
+     * <p>
+     * default value: 4
+     * </p>
+     */
+    RECOVERY_CONTEXT_CHANGES_FULL_RELOAD_INTERVAL("recovery/contextChanges/fullReloadInterval", "4", Integer.class),
+
     /**
      * Enable RDBMS slot information store
      */
@@ -506,6 +506,16 @@ public class ServerConfiguration extends ConfigurationPlugin implements SignalHa
         return getIntValue("connector.processors", 4);
     }
 
+    /**
+     * Network transport implementation of the AMQP listener, "mina" or "nio". The MINA transport is used when not
+     * set.
+     *
+     * @return transport implementation name or null if not set
+     */
+    public String getConnectorTransportImplementation() {
+        return getStringValue("connector.transportImplementation");
+    }
+
     /**
      * Retrieve Port from Andes configurations(broker.xml).
      *
@@ -70,4 +70,9 @@ public class ServerNetworkTransportConfiguration implements NetworkTransportConf
     {
         return _serverConfig.getConnectorProcessors();
     }
+
+    public String getTransportImplementation()
+    {
+        return _serverConfig.getConnectorTransportImplementation();
+    }
 }
@@ -19,6 +19,7 @@
 package org.wso2.andes.kernel;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 /**
  * Andes content is used by local subscriptions to retrieve message content.
@@ -37,6 +38,20 @@ public interface AndesContent {
      */
     int putContent(int offset, ByteBuffer destinationBuffer) throws AndesException;
 
+    /**
+     * Add views of a range of the content to the given list. The views share the stored content instead of
+     * copying it.
+     *
+     * @param offset
+     *         Starting byte position
+     * @param length
+     *         Number of bytes in the range
+     * @param slices
+     *         List the views are added to in content order
+     * @throws AndesException
+     */
+    void addContentSlices(int offset, int length, List<ByteBuffer> slices) throws AndesException;
+
     /**
      * Return the content length of the message
      *
@@ -18,7 +18,9 @@
 
 package org.wso2.andes.kernel;
 
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
 import org.wso2.andes.configuration.util.ConfigurationProperties;
+import org.wso2.andes.kernel.slot.MessageIdRanges;
 import org.wso2.andes.kernel.slot.Slot;
 import org.wso2.andes.kernel.slot.SlotState;
 import org.wso2.andes.server.cluster.NodeHeartBeatData;
@@ -255,6 +257,25 @@ public interface AndesContextStore extends HealthAwareStore {
      */
     void deleteBindingInformation(String exchangeName, String boundQueueName) throws AndesException;
 
+    /**
+     * Get the version of the last change made to exchanges, queues, bindings or durable subscriptions
+     *
+     * @return version of the last change, 0 if nothing has changed, or -1 if changes are not recorded
+     * @throws AndesException
+     */
+    long getContextVersion() throws AndesException;
+
+    /**
+     * Get changes made to exchanges, queues, bindings and durable subscriptions after the given version. Older
+     * changes are removed from the store after a while, hence the returned changes may not start right after the
+     * given version.
+     *
+     * @param version version of the last change already read
+     * @return changes in the ascending order of their version
+     * @throws AndesException
+     */
+    List<ContextChange> getContextChanges(long version) throws AndesException;
+
     /**
      * Create a new slot in store.
      *
@@ -403,30 +424,31 @@ public interface AndesContextStore extends HealthAwareStore {
     Slot getOverlappedSlot(String nodeId, String queueName) throws AndesException;
 
     /**
-     * Add message ids to store.
+     * Add message ids to store. Message ids which are already stored are skipped.
      *
-     * @param queueName name of queue
-     * @param messageId id of message
+     * @param queueName  name of queue
+     * @param messageIds ids of messages
      * @throws AndesException
      */
-    void addMessageId(String queueName, long messageId) throws AndesException;
+    void addMessageIds(String queueName, LongArrayList messageIds) throws AndesException;
 
     /**
      * Get message ids for a given queue.
      *
      * @param queueName name of queue
-     * @return set of message ids
+     * @return message ids of the queue
      * @throws AndesException
      */
-    TreeSet<Long> getMessageIds(String queueName) throws AndesException;
+    MessageIdRanges getMessageIds(String queueName) throws AndesException;
 
     /**
      * Delete a message id.
      *
+     * @param queueName name of queue
      * @param messageId id of message
      * @throws AndesException
      */
-    void deleteMessageId(long messageId) throws AndesException;
+    void deleteMessageId(String queueName, long messageId) throws AndesException;
 
     /**
      * Get all assigned slots for give node.
@@ -468,6 +490,34 @@ public interface AndesContextStore extends HealthAwareStore {
      */
     void clearSlotStorage() throws AndesException;
 
+    /**
+     * Store slot checkpoints of storage queues. A checkpoint is the last message id of a slot submitted for the
+     * queue. Checkpoints are kept across restarts to recover slots without reading all message ids of the queue.
+     * Checkpoints which are already stored are skipped, hence a failed call can be retried with the same checkpoints.
+     *
+     * @param slotCheckpoints last message ids of submitted slots by storage queue name
+     * @throws AndesException
+     */
+    void addSlotCheckpoints(Map<String, LongArrayList> slotCheckpoints) throws AndesException;
+
+    /**
+     * Get slot checkpoints of a storage queue
+     *
+     * @param queueName name of the storage queue
+     * @return last message ids of submitted slots in ascending order
+     * @throws AndesException
+     */
+    LongArrayList getSlotCheckpoints(String queueName) throws AndesException;
+
+    /**
+     * Delete slot checkpoints of a storage queue which are lower than the given message id
+     *
+     * @param queueName name of the storage queue
+     * @param messageId checkpoints lower than this message id are deleted
+     * @throws AndesException
+     */
+    void deleteSlotCheckpoints(String queueName, long messageId) throws AndesException;
+
     /**
      * Close the context store
      */
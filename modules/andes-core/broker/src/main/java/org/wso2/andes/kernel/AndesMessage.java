@@ -37,6 +37,17 @@ public class AndesMessage {
      */
     private List<AndesMessagePart> contentChunkList;
 
+    /**
+     * Id the content of this message is stored under when it is shared with other copies of the same topic
+     * message. Zero if the content is not shared.
+     */
+    private long sharedContentID;
+
+    /**
+     * Whether this copy stores the shared content on behalf of all the copies
+     */
+    private boolean sharedContentOwner;
+
     public AndesMessage(AndesMessageMetadata metadata) {
         this.metadata = metadata;
         contentChunkList = new ArrayList<AndesMessagePart>();
@@ -68,6 +79,38 @@ public class AndesMessage {
         contentChunkList.add(messagePart);
     }
 
+    /**
+     * Store the content of this message once for all copies of the same topic message, under the given id
+     *
+     * @param sharedContentID id the content is stored under
+     * @param owner           true if this copy stores the content, false if it only refers to it
+     */
+    public void setSharedContent(long sharedContentID, boolean owner) {
+        this.sharedContentID = sharedContentID;
+        this.sharedContentOwner = owner;
+    }
+
+    /**
+     * Check whether the content of this message is shared with other copies of the same topic message
+     */
+    public boolean isContentShared() {
+        return sharedContentID != 0;
+    }
+
+    /**
+     * Get the id the shared content is stored under
+     */
+    public long getSharedContentID() {
+        return sharedContentID;
+    }
+
+    /**
+     * Check whether this copy stores the shared content
+     */
+    public boolean isSharedContentOwner() {
+        return sharedContentOwner;
+    }
+
     /**
      * Check whether message should be delivered to given subscriber
      * @param subscription message receiver subscription information
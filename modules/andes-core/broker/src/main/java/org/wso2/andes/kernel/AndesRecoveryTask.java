@@ -20,16 +20,21 @@ package org.wso2.andes.kernel;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.server.ClusterResourceHolder;
 import org.wso2.andes.server.cluster.coordination.EventListenerCreator;
 import org.wso2.andes.store.FailureObservingStoreManager;
 import org.wso2.andes.store.HealthAwareStore;
 import org.wso2.andes.store.StoreHealthListener;
+import org.wso2.andes.subscription.BasicSubscription;
 import org.wso2.andes.subscription.SubscriptionEngine;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -37,9 +42,26 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * This task will periodically load exchanges,queues,bindings,subscriptions from database
  * and simulate cluster notifications. This is implemented to bring the node
  * to the current state of cluster in case some hazlecast notifications are missed
+ * <p>
+ * Only the changes recorded in the context store since the last applied context version are loaded. Everything is
+ * reloaded at startup, after a network partition is merged, after the context store becomes operational again, when
+ * the recorded changes do not follow the applied version, and every
+ * {@link AndesConfiguration#RECOVERY_CONTEXT_CHANGES_FULL_RELOAD_INTERVAL} syncs. Subscriptions of this node left in
+ * the context store are removed on each sync.
  */
 public class AndesRecoveryTask implements Runnable, StoreHealthListener {
 
+	/**
+	 * Applied context version when everything has to be reloaded. Also the context version of a store which does
+	 * not record context changes, in which case everything is reloaded on each run.
+	 */
+	private static final long UNKNOWN_CONTEXT_VERSION = -1;
+
+	/**
+	 * Maximum number of context changes applied at once. Everything is reloaded if more changes are pending.
+	 */
+	private static final long MAX_INCREMENTAL_CHANGES = 5000;
+
 	private QueueListener queueListener;
 	private ExchangeListener exchangeListener;
 	private BindingListener bindingListener;
@@ -47,9 +69,25 @@ public class AndesRecoveryTask implements Runnable, StoreHealthListener {
 	private AndesContextStore andesContextStore;
 	private AMQPConstructStore amqpConstructStore;
 	private SubscriptionEngine subscriptionEngine;
+	private AndesSubscriptionManager subscriptionManager;
+
+	/**
+	 * Number of syncs after which everything is reloaded even if the changes could be applied
+	 */
+	private final int fullReloadInterval;
+
+	/**
+	 * Syncs since everything was last reloaded. Only accessed by the running sync.
+	 */
+	private int syncsSinceFullReload = 0;
 
     private AtomicBoolean isRunning;
 
+	/**
+	 * Version of the last context change applied to this node
+	 */
+	private volatile long appliedContextVersion = UNKNOWN_CONTEXT_VERSION;
+
 	// set storeOperational to true since it can be assumed that the store is operational at startup
 	// if it is non-operational, the value will be updated immediately
 	AtomicBoolean isContextStoreOperational = new AtomicBoolean(true);
@@ -57,17 +95,38 @@ public class AndesRecoveryTask implements Runnable, StoreHealthListener {
 	private static final Log log = LogFactory.getLog(AndesRecoveryTask.class);
 
 	public AndesRecoveryTask(EventListenerCreator listenerCreator) {
+		this(listenerCreator, AndesContext.getInstance().getAndesContextStore(),
+		     AndesContext.getInstance().getAMQPConstructStore(), AndesContext.getInstance().getSubscriptionEngine(),
+		     ClusterResourceHolder.getInstance().getSubscriptionManager(),
+		     (Integer) AndesConfigurationManager.readValue(
+				     AndesConfiguration.RECOVERY_CONTEXT_CHANGES_FULL_RELOAD_INTERVAL));
 
 		// Register AndesRecoveryTask class as a StoreHealthListener
 		FailureObservingStoreManager.registerStoreHealthListener(this);
+	}
 
+	/**
+	 * Create a recovery task
+	 *
+	 * @param listenerCreator     creator of the listeners applying changes to this node
+	 * @param andesContextStore   context store to sync with
+	 * @param amqpConstructStore  exchanges, queues and bindings of this node
+	 * @param subscriptionEngine  subscriptions of this node
+	 * @param subscriptionManager manager applying subscription changes
+	 * @param fullReloadInterval  number of syncs after which everything is reloaded
+	 */
+	AndesRecoveryTask(EventListenerCreator listenerCreator, AndesContextStore andesContextStore,
+	                  AMQPConstructStore amqpConstructStore, SubscriptionEngine subscriptionEngine,
+	                  AndesSubscriptionManager subscriptionManager, int fullReloadInterval) {
 		queueListener = listenerCreator.getQueueListener();
 		exchangeListener = listenerCreator.getExchangeListener();
 		bindingListener = listenerCreator.getBindingListener();
 
-		subscriptionEngine = AndesContext.getInstance().getSubscriptionEngine();
-		andesContextStore = AndesContext.getInstance().getAndesContextStore();
-		amqpConstructStore = AndesContext.getInstance().getAMQPConstructStore();
+		this.subscriptionEngine = subscriptionEngine;
+		this.andesContextStore = andesContextStore;
+		this.amqpConstructStore = amqpConstructStore;
+		this.subscriptionManager = subscriptionManager;
+		this.fullReloadInterval = fullReloadInterval;
         isRunning = new AtomicBoolean(false);
 	}
 
@@ -79,13 +138,7 @@ public class AndesRecoveryTask implements Runnable, StoreHealthListener {
         }
         try {
             if (isContextStoreOperational.get()) {
-                log.info("Running DB sync task.");
-
-                reloadExchangesFromDB();
-                reloadQueuesFromDB();
-                reloadBindingsFromDB();
-                reloadSubscriptions();
-
+                syncWithContextStore();
             } else {
                 log.warn("AndesRecoveryTask was paused due to non-operational context store.");
             }
@@ -111,15 +164,219 @@ public class AndesRecoveryTask implements Runnable, StoreHealthListener {
 
 			Set<AndesSubscription> subList = subscriptionEngine.getActiveLocalSubscribersForNode();
 			notifyLocalSubscriptionListToMembers(subList);
-			reloadExchangesFromDB();
-			reloadQueuesFromDB();
-			reloadBindingsFromDB();
-			reloadSubscriptions();
+			reloadAllFromDB(andesContextStore.getContextVersion());
 		} else {
 			log.warn("AndesRecoveryTask was paused due to non-operational context store.");
 		}
 	}
 
+	/**
+	 * Apply changes made to the context store since the last applied version, or reload everything if the changes
+	 * cannot be applied incrementally
+	 *
+	 * @throws AndesException
+	 */
+	void syncWithContextStore() throws AndesException {
+		long contextVersion = andesContextStore.getContextVersion();
+		long lastAppliedVersion = appliedContextVersion;
+
+		if (UNKNOWN_CONTEXT_VERSION == lastAppliedVersion) {
+			reloadAllFromDB(contextVersion);
+		} else if (++syncsSinceFullReload >= fullReloadInterval) {
+			log.info("Reloading from DB after " + syncsSinceFullReload + " syncs.");
+			reloadAllFromDB(contextVersion);
+		} else if (contextVersion < lastAppliedVersion) {
+			log.warn("Context version " + contextVersion + " is behind the applied version " + lastAppliedVersion
+					+ ". Reloading from DB.");
+			reloadAllFromDB(contextVersion);
+		} else if (contextVersion - lastAppliedVersion > MAX_INCREMENTAL_CHANGES) {
+			log.info((contextVersion - lastAppliedVersion) + " context changes pending. Reloading from DB.");
+			reloadAllFromDB(contextVersion);
+		} else if (!syncIncrementally(contextVersion, lastAppliedVersion)) {
+			log.warn("Context changes after version " + lastAppliedVersion + " are not available. Reloading "
+					+ "from DB.");
+			reloadAllFromDB(contextVersion);
+		}
+	}
+
+	/**
+	 * Apply the changes made since the last applied version and remove subscriptions of this node which no longer
+	 * exist from the context store. Changes do not account for those, for instance when this node stopped before
+	 * removing its subscriptions.
+	 *
+	 * @param contextVersion     current context version
+	 * @param lastAppliedVersion version of the last applied change
+	 * @return false if the changes made since the last applied version are not available
+	 * @throws AndesException
+	 */
+	private boolean syncIncrementally(long contextVersion, long lastAppliedVersion) throws AndesException {
+		if (contextVersion > lastAppliedVersion) {
+			List<ContextChange> changes = andesContextStore.getContextChanges(lastAppliedVersion);
+			if (!isContinuous(changes, lastAppliedVersion)) {
+				return false;
+			}
+			applyContextChanges(changes);
+		}
+		subscriptionManager.removeInvalidLocalSubscriptionsFromStorage();
+		return true;
+	}
+
+	/**
+	 * Reload exchanges, queues, bindings and subscriptions
+	 *
+	 * @param contextVersion context version read before reloading. Changes made after it are applied on the next
+	 *                       run.
+	 * @throws AndesException
+	 */
+	private void reloadAllFromDB(long contextVersion) throws AndesException {
+		log.info("Running DB sync task.");
+		appliedContextVersion = UNKNOWN_CONTEXT_VERSION;
+		syncsSinceFullReload = 0;
+
+		reloadExchangesFromDB();
+		reloadQueuesFromDB();
+		reloadBindingsFromDB();
+		reloadSubscriptions();
+
+		appliedContextVersion = contextVersion;
+	}
+
+	/**
+	 * Check whether the changes start right after the given version and have no gaps in between
+	 *
+	 * @param changes changes in the ascending order of their version
+	 * @param version version of the last applied change
+	 * @return true if no change is missing
+	 */
+	static boolean isContinuous(List<ContextChange> changes, long version) {
+		if (changes.isEmpty()) {
+			return false;
+		}
+		long expectedVersion = version + 1;
+		for (ContextChange change : changes) {
+			if (change.getVersion() != expectedVersion) {
+				return false;
+			}
+			expectedVersion++;
+		}
+		return true;
+	}
+
+	/**
+	 * Apply context changes to this node. Only the last change of each entity is applied.
+	 *
+	 * @param changes changes in the ascending order of their version
+	 * @throws AndesException
+	 */
+	private void applyContextChanges(List<ContextChange> changes) throws AndesException {
+		// Reload everything next time if applying fails half way through
+		appliedContextVersion = UNKNOWN_CONTEXT_VERSION;
+
+		List<AndesSubscription> storedSubscriptions = new ArrayList<>();
+		List<AndesSubscription> removedSubscriptions = new ArrayList<>();
+
+		for (ContextChange change : getLastChangePerEntity(changes)) {
+			switch (change.getEntityType()) {
+				case EXCHANGE:
+					applyExchangeChange(change);
+					break;
+				case QUEUE:
+					applyQueueChange(change);
+					break;
+				case BINDING:
+					applyBindingChange(change);
+					break;
+				case SUBSCRIPTION:
+					BasicSubscription subscription = new BasicSubscription(change.getEntityData());
+					if (ContextChange.ChangeType.STORED == change.getChangeType()) {
+						storedSubscriptions.add(subscription);
+					} else {
+						removedSubscriptions.add(subscription);
+					}
+					break;
+			}
+		}
+
+		if (!storedSubscriptions.isEmpty() || !removedSubscriptions.isEmpty()) {
+			subscriptionManager.reloadSubscriptionsFromStorage(storedSubscriptions, removedSubscriptions);
+		}
+
+		appliedContextVersion = changes.get(changes.size() - 1).getVersion();
+		if (log.isDebugEnabled()) {
+			log.debug("Applied " + changes.size() + " context changes up to version " + appliedContextVersion);
+		}
+	}
+
+	/**
+	 * Get the last change of each entity
+	 *
+	 * @param changes changes in the ascending order of their version
+	 * @return last change of each entity, in the order of those changes
+	 */
+	static Collection<ContextChange> getLastChangePerEntity(List<ContextChange> changes) {
+		Map<String, ContextChange> lastChanges = new LinkedHashMap<>();
+		for (ContextChange change : changes) {
+			// Keep entities in the order of their last change
+			lastChanges.remove(change.getEntityKey());
+			lastChanges.put(change.getEntityKey(), change);
+		}
+		return lastChanges.values();
+	}
+
+	private void applyExchangeChange(ContextChange change) throws AndesException {
+		if (ContextChange.ChangeType.STORED == change.getChangeType()) {
+			AndesExchange exchange = new AndesExchange(change.getEntityData());
+			if (!amqpConstructStore.getExchanges().contains(exchange)) {
+				log.warn("Recovering node. Adding exchange " + exchange.toString());
+				exchangeListener.handleClusterExchangesChanged(exchange, ExchangeListener.ExchangeChange.ADDED);
+			}
+		} else {
+			for (AndesExchange exchange : amqpConstructStore.getExchanges()) {
+				if (exchange.exchangeName.equals(change.getEntityName())) {
+					log.warn("Recovering node. Removing exchange " + exchange.toString());
+					exchangeListener.handleClusterExchangesChanged(exchange,
+							ExchangeListener.ExchangeChange.DELETED);
+				}
+			}
+		}
+	}
+
+	private void applyQueueChange(ContextChange change) throws AndesException {
+		if (ContextChange.ChangeType.STORED == change.getChangeType()) {
+			AndesQueue queue = new AndesQueue(change.getEntityData());
+			// Ignoring MQTT queues as in reloadQueuesFromDB
+			if (queue.getProtocolType() != ProtocolType.MQTT && !amqpConstructStore.getQueues().contains(queue)) {
+				log.warn("Recovering node. Adding queue " + queue.toString());
+				queueListener.handleClusterQueuesChanged(queue, QueueListener.QueueEvent.ADDED);
+			}
+		} else {
+			for (AndesQueue queue : amqpConstructStore.getQueues()) {
+				if (queue.queueName.equals(change.getEntityName())) {
+					log.warn("Recovering node. Removing queue " + queue.toString());
+					queueListener.handleClusterQueuesChanged(queue, QueueListener.QueueEvent.DELETED);
+				}
+			}
+		}
+	}
+
+	private void applyBindingChange(ContextChange change) throws AndesException {
+		List<AndesBinding> bindingsForExchange = amqpConstructStore.getBindingsForExchange(change.getEntityName());
+		if (ContextChange.ChangeType.STORED == change.getChangeType()) {
+			AndesBinding binding = new AndesBinding(change.getEntityData());
+			if (!bindingsForExchange.contains(binding)) {
+				log.warn("Recovering node. Adding binding " + binding.toString());
+				bindingListener.handleClusterBindingsChanged(binding, BindingListener.BindingEvent.ADDED);
+			}
+		} else {
+			for (AndesBinding binding : bindingsForExchange) {
+				if (binding.boundQueue.queueName.equals(change.getQueueName())) {
+					log.warn("Recovering node. removing binding " + binding.toString());
+					bindingListener.handleClusterBindingsChanged(binding, BindingListener.BindingEvent.DELETED);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Notify cluster members a merge
 	 *
@@ -210,8 +467,7 @@ public class AndesRecoveryTask implements Runnable, StoreHealthListener {
 
 	private void reloadSubscriptions() throws AndesException {
 		if (isContextStoreOperational.get()) {
-			ClusterResourceHolder.getInstance().getSubscriptionManager()
-			                     .reloadSubscriptionsFromStorage();
+			subscriptionManager.reloadSubscriptionsFromStorage();
 		} else {
 			log.warn("Failed to recover subscriptions from database due to non-operational context store.");
 		}
@@ -239,6 +495,8 @@ public class AndesRecoveryTask implements Runnable, StoreHealthListener {
 	@Override
 	public void storeOperational(HealthAwareStore store) {
 		if (store.getClass().getSuperclass().isInstance(AndesContextStore.class)) {
+			// Changes may have been missed while the store was not reachable
+			appliedContextVersion = UNKNOWN_CONTEXT_VERSION;
 			isContextStoreOperational.set(true);
 			log.info("AndesRecoveryTask became operational.");
 		}
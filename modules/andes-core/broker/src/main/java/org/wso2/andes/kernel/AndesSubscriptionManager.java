@@ -33,6 +33,7 @@ import org.wso2.andes.subscription.LocalSubscription;
 import org.wso2.andes.subscription.SubscriptionEngine;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -466,6 +467,69 @@ public class AndesSubscriptionManager implements NetworkPartitionListener {
         }
     }
 
+    /**
+     * Remove subscriptions of this node which are in DB storage but no longer in memory, and correct the active state
+     * of its durable topic subscriptions in DB storage.
+     */
+    public void removeInvalidLocalSubscriptionsFromStorage() throws AndesException {
+
+        clusterSubscriptionModifyLock.writeLock().lock();
+
+        try {
+            Map<String, List<String>> results = AndesContext.getInstance().getAndesContextStore()
+                    .getAllStoredDurableSubscriptions();
+
+            Set<AndesSubscription> dbSubscriptions = new HashSet<>();
+            for (List<String> subscriptionsAsStr : results.values()) {
+                for (String subscriptionAsStr : subscriptionsAsStr) {
+                    dbSubscriptions.add(new BasicSubscription(subscriptionAsStr));
+                }
+            }
+            removeInvalidLocalSubscriptionsFromDB(dbSubscriptions);
+        } finally {
+            clusterSubscriptionModifyLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Update cluster subscriptions in subscription store with subscriptions changed in DB storage
+     *
+     * @param storedSubscriptions  subscriptions added or updated in DB storage
+     * @param removedSubscriptions subscriptions removed from DB storage
+     */
+    public void reloadSubscriptionsFromStorage(Collection<AndesSubscription> storedSubscriptions,
+                                               Collection<AndesSubscription> removedSubscriptions)
+            throws AndesException {
+
+        clusterSubscriptionModifyLock.writeLock().lock();
+
+        try {
+            for (AndesSubscription subscription : storedSubscriptions) {
+                if (subscriptionEngine.isSubscriptionAvailable(subscription)) {
+                    if (DestinationType.DURABLE_TOPIC == subscription.getDestinationType()) {
+                        subscriptionEngine.updateClusterSubscription(subscription);
+                    }
+                } else {
+                    log.warn("Cluster Subscriptions are not in sync. Subscription not available in subscription "
+                            + "store but exists in DB. Thus adding " + subscription);
+                    subscriptionEngine.createDisconnectOrRemoveClusterSubscription(subscription, SubscriptionListener
+                            .SubscriptionChange.ADDED);
+                }
+            }
+
+            for (AndesSubscription subscription : removedSubscriptions) {
+                if (subscriptionEngine.isSubscriptionAvailable(subscription)) {
+                    log.warn("Cluster Subscriptions are not in sync. Subscription removed from DB exists in "
+                            + "memory. Thus removing from memory " + subscription);
+                    subscriptionEngine.createDisconnectOrRemoveClusterSubscription(subscription, SubscriptionListener
+                            .SubscriptionChange.DELETED);
+                }
+            }
+        } finally {
+            clusterSubscriptionModifyLock.writeLock().unlock();
+        }
+    }
+
     /**
      * Remove the local subscriptions that are not present in the local subscriptions map but are present in the
      * database from the db. If there's a conflict between the active status of a subscription in the DB and in the
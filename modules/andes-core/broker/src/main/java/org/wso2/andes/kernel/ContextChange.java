@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+/**
+ * A change of an exchange, queue, binding or durable subscription recorded in the {@link AndesContextStore}. Changes
+ * are numbered with a version which increases by one with each change, so that a node can read the changes made
+ * since the last version it applied instead of reloading all of them.
+ */
+public class ContextChange {
+
+    /**
+     * Kind of entity changed
+     */
+    public enum EntityType {
+        EXCHANGE, QUEUE, BINDING, SUBSCRIPTION
+    }
+
+    /**
+     * Whether the entity was stored or updated, or deleted
+     */
+    public enum ChangeType {
+        STORED, DELETED
+    }
+
+    private final long version;
+
+    private final EntityType entityType;
+
+    private final ChangeType changeType;
+
+    /**
+     * Exchange name, queue name, exchange name of a binding or subscription id
+     */
+    private final String entityName;
+
+    /**
+     * Bound queue name of a binding, null for other entities
+     */
+    private final String queueName;
+
+    /**
+     * Entity encoded as a string. Null for deleted exchanges, queues and bindings.
+     */
+    private final String entityData;
+
+    /**
+     * Create a context change
+     *
+     * @param version    version of the change
+     * @param entityType kind of entity changed
+     * @param changeType whether the entity was stored or deleted
+     * @param entityName exchange name, queue name, exchange name of a binding or subscription id
+     * @param queueName  bound queue name of a binding, null for other entities
+     * @param entityData entity encoded as a string, null for deleted exchanges, queues and bindings
+     */
+    public ContextChange(long version, EntityType entityType, ChangeType changeType, String entityName,
+                         String queueName, String entityData) {
+        this.version = version;
+        this.entityType = entityType;
+        this.changeType = changeType;
+        this.entityName = entityName;
+        this.queueName = queueName;
+        this.entityData = entityData;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public String getQueueName() {
+        return queueName;
+    }
+
+    public String getEntityData() {
+        return entityData;
+    }
+
+    /**
+     * Get a key identifying the changed entity. Changes of the same entity have the same key.
+     *
+     * @return key of the changed entity
+     */
+    public String getEntityKey() {
+        return entityType + "|" + entityName + "|" + queueName;
+    }
+
+    @Override
+    public String toString() {
+        return "ContextChange [version=" + version + ", entityType=" + entityType + ", changeType=" + changeType
+                + ", entityName=" + entityName + ", queueName=" + queueName + "]";
+    }
+}
@@ -26,27 +26,101 @@ import org.wso2.andes.subscription.LocalSubscription;
 import org.wso2.andes.tools.utils.MessageTracer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * This class represents the message metadata and all the delivery aspects of it to the subscribers (outbound path).
  * The lifecycle of the message is maintained here itself.
+ * <p>
+ * A large number of these objects can be in memory at once, hence delivery state is kept compact. The message state
+ * is encoded into a single int and per channel state is kept in primitive arrays indexed by channel. The history of
+ * state transitions is recorded only when message tracing is enabled.
  */
 public class DeliverableAndesMetadata extends AndesMessageMetadata {
 
     /**
-     * Map to keep message status and delivery information of this message to vivid channels
+     * Bits of the state word holding the code of the latest {@link MessageStatus}
      */
-    private Map<UUID, ChannelInformation> channelDeliveryInfo;
+    private static final int LATEST_STATUS_MASK = 0xF;
+
+    /**
+     * Bit (VISITED_STATUS_SHIFT + status code) of the state word is set once the message has been in that status
+     */
+    private static final int VISITED_STATUS_SHIFT = 4;
+
+    /**
+     * Statuses indexed by their code
+     */
+    private static final MessageStatus[] MESSAGE_STATUSES = new MessageStatus[LATEST_STATUS_MASK + 1];
+
+    /**
+     * Channel statuses indexed by their code
+     */
+    private static final ChannelMessageStatus[] CHANNEL_MESSAGE_STATUSES =
+            new ChannelMessageStatus[LATEST_STATUS_MASK + 1];
+
+    /**
+     * Statuses after which the message is no longer tracked
+     */
+    private static final int DISPOSABLE_STATUSES_MASK = visitedBit(MessageStatus.EXPIRED)
+            | visitedBit(MessageStatus.DLC_MESSAGE) | visitedBit(MessageStatus.PURGED)
+            | visitedBit(MessageStatus.DELETED);
+
+    private static final AtomicIntegerFieldUpdater<DeliverableAndesMetadata> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(DeliverableAndesMetadata.class, "state");
+
+    static {
+        for (MessageStatus status : MessageStatus.values()) {
+            MESSAGE_STATUSES[status.getCode()] = status;
+        }
+        for (ChannelMessageStatus status : ChannelMessageStatus.values()) {
+            CHANNEL_MESSAGE_STATUSES[status.getCode()] = status;
+        }
+    }
+
+    /**
+     * Encoded message state. Holds the latest status and the statuses the message has been in
+     */
+    private volatile int state;
+
+    /**
+     * State transition of the message. Recorded only when message tracing is enabled
+     */
+    private final List<MessageStatus> statusHistory;
+
+    /**
+     * IDs of the channels message is scheduled to deliver. Guarded by this object
+     */
+    private UUID[] channelIDs;
+
+    /**
+     * Code of the latest {@link ChannelMessageStatus} per channel, 0 if there is none yet. Guarded by this object
+     */
+    private byte[] channelStatuses;
+
+    /**
+     * Number of times message is delivered per channel. Guarded by this object
+     */
+    private int[] deliveryCounts;
+
+    /**
+     * Number of channels message is scheduled to deliver. Guarded by this object
+     */
+    private int channelCount;
+
     /**
-     * State transition of the message
+     * State transition of the message per channel. Recorded only when message tracing is enabled
      */
-    private List<MessageStatus> messageStatus;
+    private final Map<UUID, List<ChannelMessageStatus>> channelStatusHistory;
+
     /**
      * Parent slot of message.
      */
@@ -76,9 +150,15 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
         super(messageID, metadata, parse);
         this.slot = slot;
         this.timeMessageIsRead = System.currentTimeMillis();
-        this.channelDeliveryInfo = new ConcurrentHashMap<>();
-        this.messageStatus = Collections.synchronizedList(new ArrayList<MessageStatus>());
-        this.messageStatus.add(MessageStatus.READ);
+        this.state = MessageStatus.READ.getCode() | visitedBit(MessageStatus.READ);
+        if (MessageTracer.isEnabled()) {
+            this.statusHistory = Collections.synchronizedList(new ArrayList<MessageStatus>());
+            this.statusHistory.add(MessageStatus.READ);
+            this.channelStatusHistory = new ConcurrentHashMap<>();
+        } else {
+            this.statusHistory = null;
+            this.channelStatusHistory = null;
+        }
     }
 
     /**
@@ -126,16 +206,17 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
     }
 
     /**
-     * Get Message Status this message passed as a string
+     * Get Message Status this message passed as a string. Only the latest status is available if message tracing
+     * is disabled.
      *
      * @return encoded status history
      */
     public String getStatusHistoryAsString() {
-        String history = "";
-        for (MessageStatus status : messageStatus) {
-            history = history + status + ">>";
+        StringBuilder history = new StringBuilder();
+        for (MessageStatus status : getStatusHistory()) {
+            history.append(status).append(">>");
         }
-        return history;
+        return history.toString();
     }
 
     /**
@@ -144,25 +225,20 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      * @return above information as a string
      */
     public String getMessageStatusWithAllChannelStatus() {
-        String messageStatusHistory = getStatusHistoryAsString();
-        String deliveries = "";
-        for (UUID channelID : getAllDeliveredChannels()) {
-            deliveries = deliveries + channelID + " : " + channelDeliveryInfo.get(channelID)
-                    .getMessageStatusHistoryForChannelAsString() + " | ";
-        }
-
-        String completeInfo = "[" + messageStatusHistory + "]" + deliveries;
-        return completeInfo;
-
+        return "[" + getStatusHistoryAsString() + "]" + getChannelStatusAsString();
     }
 
     /**
-     * Get message status this message went through as a list
+     * Get message status this message went through as a list. Status history is recorded only when message tracing
+     * is enabled. Otherwise the list only contains the latest status.
      *
      * @return list of MessageStatus
      */
     public List<MessageStatus> getStatusHistory() {
-        return messageStatus;
+        if (null != statusHistory) {
+            return statusHistory;
+        }
+        return Collections.singletonList(getLatestState());
     }
 
     /**
@@ -171,11 +247,7 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      * @return message status
      */
     public MessageStatus getLatestState() {
-        MessageStatus latest = null;
-        if (messageStatus.size() > 0) {
-            latest = messageStatus.get(messageStatus.size() - 1);
-        }
-        return latest;
+        return MESSAGE_STATUSES[state & LATEST_STATUS_MASK];
     }
 
     /**
@@ -186,8 +258,7 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      * @return if message is a redelivery
      */
     public boolean isRedelivered(UUID channelID) {
-        Integer numOfDeliveries = channelDeliveryInfo.get(channelID).getDeliveryCount();
-        return numOfDeliveries > 0;
+        return getNumOfDeliveries4Channel(channelID) > 0;
     }
 
     /**
@@ -204,11 +275,9 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      *                           delivery channels
      */
     public void markAsScheduledToDeliver(Collection<LocalSubscription> localSubscriptions) {
-        for (LocalSubscription subscription : localSubscriptions) {
-            ChannelInformation channelInformation = channelDeliveryInfo.get(subscription.getChannelID());
-            if (null == channelInformation) {
-                channelInformation = new ChannelInformation();
-                channelDeliveryInfo.put(subscription.getChannelID(), channelInformation);
+        synchronized (this) {
+            for (LocalSubscription subscription : localSubscriptions) {
+                addChannel(subscription.getChannelID());
             }
         }
         addMessageStatus(MessageStatus.SCHEDULED_TO_SEND);
@@ -220,10 +289,8 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      * @param subscription subscription to deliver message
      */
     public void markAsScheduledToDeliver(LocalSubscription subscription) {
-        ChannelInformation channelInformation = channelDeliveryInfo.get(subscription.getChannelID());
-        if (null == channelInformation) {
-            channelInformation = new ChannelInformation();
-            channelDeliveryInfo.put(subscription.getChannelID(), channelInformation);
+        synchronized (this) {
+            addChannel(subscription.getChannelID());
         }
         addMessageStatus(MessageStatus.SCHEDULED_TO_SEND);
     }
@@ -235,14 +302,16 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      * @param channelID ID of the channel
      */
     public void markAsDispatchedToDeliver(UUID channelID) {
-        ChannelInformation channelInformation = channelDeliveryInfo.get(channelID);
-        channelInformation.addChannelStatus(ChannelMessageStatus.DISPATCHED);
+        synchronized (this) {
+            int channelIndex = getChannelIndex(channelID);
+            addChannelStatus(channelIndex, ChannelMessageStatus.DISPATCHED);
 
-        if (!this.isBeyondLastRollbackedMessage) {
-            channelInformation.incrementDeliveryCount();
-        } else {
-            // No need to increase deliveryCount if this message is beyond the last rollback.
-            MessageTracer.trace(getMessageID(), getDestination(), MessageTracer.MESSAGE_BEYOND_LAST_ROLLBACK);
+            if (!this.isBeyondLastRollbackedMessage) {
+                deliveryCounts[channelIndex]++;
+            } else {
+                // No need to increase deliveryCount if this message is beyond the last rollback.
+                MessageTracer.trace(getMessageID(), getDestination(), MessageTracer.MESSAGE_BEYOND_LAST_ROLLBACK);
+            }
         }
     }
 
@@ -254,13 +323,13 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      */
     public boolean markAsAcknowledgedByChannel(UUID channelID) {
         boolean isAcknowledgedByAll = false;
-        ChannelInformation channelInformation = channelDeliveryInfo.get(channelID);
-        channelInformation.addChannelStatus(ChannelMessageStatus.ACKED);
-        channelDeliveryInfo.put(channelID, channelInformation);
+        synchronized (this) {
+            addChannelStatus(getChannelIndex(channelID), ChannelMessageStatus.ACKED);
 
-        if (isMarkAsAcked()) {
-            addMessageStatus(MessageStatus.ACKED_BY_ALL);
-            isAcknowledgedByAll = true;
+            if (isMarkAsAcked()) {
+                addMessageStatus(MessageStatus.ACKED_BY_ALL);
+                isAcknowledgedByAll = true;
+            }
         }
         return isAcknowledgedByAll;
     }
@@ -270,9 +339,8 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      *
      * @param channelID ID of the channel
      */
-    public void markAsNackedByClient(UUID channelID) {
-        ChannelInformation channelInformation = channelDeliveryInfo.get(channelID);
-        channelInformation.addChannelStatus(ChannelMessageStatus.NACKED);
+    public synchronized void markAsNackedByClient(UUID channelID) {
+        addChannelStatus(getChannelIndex(channelID), ChannelMessageStatus.NACKED);
     }
 
     /**
@@ -281,9 +349,8 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      *
      * @param channelID ID of the channel
      */
-    public void markAsRejectedByClient(UUID channelID) {
-        ChannelInformation channelInformation = channelDeliveryInfo.get(channelID);
-        channelInformation.addChannelStatus(ChannelMessageStatus.CLIENT_REJECTED);
+    public synchronized void markAsRejectedByClient(UUID channelID) {
+        addChannelStatus(getChannelIndex(channelID), ChannelMessageStatus.CLIENT_REJECTED);
     }
 
     /**
@@ -328,7 +395,11 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      * @return true if conditions are met
      */
     public boolean isOKToDispose() {
-        return MessageStatus.isOKToRemove(messageStatus);
+        int currentState = state;
+        MessageStatus latestStatus = MESSAGE_STATUSES[currentState & LATEST_STATUS_MASK];
+        return (currentState & DISPOSABLE_STATUSES_MASK) != 0
+                || latestStatus.equals(MessageStatus.SLOT_REMOVED)
+                || latestStatus.equals(MessageStatus.SLOT_RETURNED);
     }
 
     /**
@@ -382,10 +453,11 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      * @param channelID id of the channel
      * @return current number of times this message is delivered to the given channel
      */
-    public int markDeliveryFailureOfASentMessage(UUID channelID) {
-        channelDeliveryInfo.get(channelID).
-                addChannelStatus(ChannelMessageStatus.SEND_FAILED);
-        return channelDeliveryInfo.get(channelID).decrementDeliveryCount();
+    public synchronized int markDeliveryFailureOfASentMessage(UUID channelID) {
+        int channelIndex = getChannelIndex(channelID);
+        addChannelStatus(channelIndex, ChannelMessageStatus.SEND_FAILED);
+        deliveryCounts[channelIndex]--;
+        return deliveryCounts[channelIndex];
     }
 
     /**
@@ -397,9 +469,8 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      *
      * @param channelID id of the channel message is sent
      */
-    public void markDeliveryFailureByProtocol(UUID channelID) {
-        channelDeliveryInfo.get(channelID).
-                addChannelStatus(ChannelMessageStatus.SEND_FAILED);
+    public synchronized void markDeliveryFailureByProtocol(UUID channelID) {
+        addChannelStatus(getChannelIndex(channelID), ChannelMessageStatus.SEND_FAILED);
     }
 
     /**
@@ -407,7 +478,7 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      * this evaluation should be performed and subsequently try to delete the message
      * if ACKED_BY_ALL evaluation returned success
      */
-    public void evaluateMessageAcknowledgement() {
+    public synchronized void evaluateMessageAcknowledgement() {
         if (isMarkAsAcked()) {
             addMessageStatus(MessageStatus.ACKED_BY_ALL);
         }
@@ -419,9 +490,8 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      *
      * @param channelID ID of the channel
      */
-    public void markDeliveredChannelAsClosed(UUID channelID) {
-        channelDeliveryInfo.get(channelID).
-                addChannelStatus(ChannelMessageStatus.CLOSED);
+    public synchronized void markDeliveredChannelAsClosed(UUID channelID) {
+        addChannelStatus(getChannelIndex(channelID), ChannelMessageStatus.CLOSED);
     }
 
     /**
@@ -429,19 +499,24 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      *
      * @return Set of channel IDs
      */
-    public Set<UUID> getAllDeliveredChannels() {
-        return channelDeliveryInfo.keySet();
+    public synchronized Set<UUID> getAllDeliveredChannels() {
+        Set<UUID> deliveredChannels = new HashSet<>(channelCount);
+        for (int i = 0; i < channelCount; i++) {
+            deliveredChannels.add(channelIDs[i]);
+        }
+        return deliveredChannels;
     }
 
     /**
-     * Check if this message is acknowledged by all the channels it is delivered to
+     * Check if this message is acknowledged by all the channels it is delivered to. Caller must hold the lock of
+     * this object.
      *
      * @return true if message is acknowledged by all the channels
      */
     private boolean isMarkAsAcked() {
         boolean isAcked = true;
-        for (Map.Entry<UUID, ChannelInformation> channelInfoEntry : channelDeliveryInfo.entrySet()) {
-            ChannelMessageStatus messageStatus = channelInfoEntry.getValue().getLatestMessageStatus();
+        for (int i = 0; i < channelCount; i++) {
+            ChannelMessageStatus messageStatus = CHANNEL_MESSAGE_STATUSES[channelStatuses[i]];
 
             //if channel is closed ignore it from considering
             if (null != messageStatus && messageStatus.equals(ChannelMessageStatus.CLOSED)) {
@@ -456,7 +531,7 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
                 break;
             }
         }
-        if (channelDeliveryInfo.isEmpty()) {
+        if (0 == channelCount) {
             isAcked = false;
         }
         return isAcked;
@@ -468,13 +543,14 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      * @param channelID Id of the channel
      * @return number of deliveries
      */
-    public int getNumOfDeliveries4Channel(UUID channelID) {
+    public synchronized int getNumOfDeliveries4Channel(UUID channelID) {
          /* Since sometimes Broker tries to send stored messages when it initialised a subscription
             so then it returns null value for that subscription's channel's amount of deliveries,
             Since we need to the evaluate the rules before we send message, therefore we have to ignore the null value,
             then we have to check the number of deliveries for the particular channel */
-        if (null != channelDeliveryInfo.get(channelID)) {
-            return channelDeliveryInfo.get(channelID).getDeliveryCount();
+        int channelIndex = indexOfChannel(channelID);
+        if (channelIndex >= 0) {
+            return deliveryCounts[channelIndex];
         } else {
             return 0;
         }
@@ -484,45 +560,31 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
      * Check if state going to be added is valid considering it as the next
      * transition compared to current latest state.
      *
-     * @param state state to be transferred
+     * @param status state to be transferred
      */
-    public boolean addMessageStatus(MessageStatus state) {
+    public boolean addMessageStatus(MessageStatus status) {
 
-        boolean isValidTransition = false;
+        while (true) {
+            int currentState = state;
+            MessageStatus latestStatus = MESSAGE_STATUSES[currentState & LATEST_STATUS_MASK];
 
-        if (messageStatus.isEmpty()) {
-            if (MessageStatus.READ.equals(state)) {
-                isValidTransition = true;
-                messageStatus.add(state);
-            } else {
-                log.warn(
-                        "Invalid message state transition suggested: " + state + " Message ID: " + messageID + "slot = "
-                                + slot.getId());
+            if (!latestStatus.isValidNextTransition(status)) {
+                log.warn("Invalid message state transition from " + latestStatus + " suggested: " + status
+                        + " Message ID: " + messageID + " slot = " + slot.getId() + " Message Status History >> "
+                        + getStatusHistory());
+                return false;
             }
-        } else {
-            isValidTransition = messageStatus.get(messageStatus.size() - 1).isValidNextTransition(state);
-            if (isValidTransition) {
-                messageStatus.add(state);
-            } else {
-                log.warn("Invalid message state transition from " + messageStatus.get(messageStatus.size() - 1)
-                        + " suggested: " + state + " Message ID: " + messageID + " slot = " + slot.getId()
-                        + " Message Status History >> " + messageStatus);
+
+            int newState = (currentState & ~LATEST_STATUS_MASK) | status.getCode() | visitedBit(status);
+            if (STATE_UPDATER.compareAndSet(this, currentState, newState)) {
+                if (null != statusHistory) {
+                    statusHistory.add(status);
+                }
+                return true;
             }
         }
-
-        return isValidTransition;
     }
 
-    /**
-     * Check if state going to be added is valid considering it as the next transition compared
-     * to current latest state. This status is for individual delivery channels
-     * @param channelID ID of the channel to record status
-     * @param status state to be transferred
-     */
-/*    public boolean addMessageStatusForChannel(UUID channelID, MessageStatus status) {
-         return channelDeliveryInfo.get(channelID).addChannelStatus(status);
-    }*/
-
     /**
      * Get message status history as a string.
      *
@@ -554,91 +616,135 @@ public class DeliverableAndesMetadata extends AndesMessageMetadata {
         information.append(Long.toString(expirationTime));
         information.append(',');
         information.append("Channels sent ");
-        String deliveries = "";
-        for (UUID channelID : getAllDeliveredChannels()) {
-            deliveries = deliveries + channelID + " : " + channelDeliveryInfo.get(channelID)
-                    .getMessageStatusHistoryForChannelAsString() + " | ";
-        }
-        information.append(deliveries);
+        information.append(getChannelStatusAsString());
         information.append('\n');
 
         return information.toString();
     }
 
     /**
-     * Inner class to hold Message status channel-wise
-     */
-    private class ChannelInformation {
-
-        private Integer channelToNumOfDeliveries = 0;
-        private List<ChannelMessageStatus> messageStatusesForChannel = new ArrayList<>(5);
-
-        private int incrementDeliveryCount() {
-            channelToNumOfDeliveries = channelToNumOfDeliveries + 1;
-            return channelToNumOfDeliveries;
+     * Get status of all the channels as a string. Only the latest status of each channel is available if message
+     * tracing is disabled.
+     *
+     * @return channel status information
+     */
+    private synchronized String getChannelStatusAsString() {
+        StringBuilder deliveries = new StringBuilder();
+        for (int i = 0; i < channelCount; i++) {
+            deliveries.append(channelIDs[i]).append(" : ");
+            if (null != channelStatusHistory) {
+                for (ChannelMessageStatus channelMessageStatus : channelStatusHistory.get(channelIDs[i])) {
+                    deliveries.append(channelMessageStatus).append(">>");
+                }
+            } else if (0 != channelStatuses[i]) {
+                deliveries.append(CHANNEL_MESSAGE_STATUSES[channelStatuses[i]]).append(">>");
+            }
+            deliveries.append(" | ");
         }
+        return deliveries.toString();
+    }
 
-        private int decrementDeliveryCount() {
-            channelToNumOfDeliveries = channelToNumOfDeliveries - 1;
-            return channelToNumOfDeliveries;
+    /**
+     * Start tracking the given channel if it is not tracked already. Caller must hold the lock of this object.
+     *
+     * @param channelID ID of the channel
+     */
+    private void addChannel(UUID channelID) {
+        if (indexOfChannel(channelID) >= 0) {
+            return;
         }
-
-        private int getDeliveryCount() {
-            return channelToNumOfDeliveries;
+        if (null == channelIDs) {
+            // Most messages are delivered to a single channel
+            channelIDs = new UUID[1];
+            channelStatuses = new byte[1];
+            deliveryCounts = new int[1];
+        } else if (channelCount == channelIDs.length) {
+            int newLength = channelCount * 2;
+            channelIDs = Arrays.copyOf(channelIDs, newLength);
+            channelStatuses = Arrays.copyOf(channelStatuses, newLength);
+            deliveryCounts = Arrays.copyOf(deliveryCounts, newLength);
         }
+        channelIDs[channelCount] = channelID;
+        channelCount++;
+        if (null != channelStatusHistory) {
+            channelStatusHistory.put(channelID, new ArrayList<ChannelMessageStatus>(5));
+        }
+    }
 
-        /**
-         * Check if state going to be added is valid considering it as the next transition compared
-         * to current latest state. This status is for individual delivery channels
-         *
-         * @param state state to be transferred
-         */
-        private boolean addChannelStatus(ChannelMessageStatus state) {
-
-            boolean isValidTransition = false;
-
-            if (messageStatusesForChannel.isEmpty()) {
-                if (ChannelMessageStatus.DISPATCHED.equals(state)) {
-                    isValidTransition = true;
-                    messageStatusesForChannel.add(state);
-                } else {
-                    log.warn(
-                            "Invalid channel message state transition suggested: " + state + " Message ID: " + messageID
-                                    + " Slot = " + slot.getId() + " Message Status History >> " + messageStatus);
-                }
-            } else {
-                isValidTransition = messageStatusesForChannel.
-                        get(messageStatusesForChannel.size() - 1).isValidNextTransition(state);
-
-                if (isValidTransition) {
-                    messageStatusesForChannel.add(state);
-                } else {
-                    log.warn("Invalid channel message state transition from " + messageStatusesForChannel
-                            .get(messageStatusesForChannel.size() - 1) + " suggested: " + state + " Message ID: "
-                            + messageID + " Slot = " + slot.getId() + " Channel Status History >> "
-                            + messageStatusesForChannel);
-                }
+    /**
+     * Caller must hold the lock of this object.
+     *
+     * @param channelID ID of the channel
+     * @return index of the channel in channel arrays, -1 if channel is not tracked
+     */
+    private int indexOfChannel(UUID channelID) {
+        for (int i = 0; i < channelCount; i++) {
+            if (channelIDs[i].equals(channelID)) {
+                return i;
             }
+        }
+        return -1;
+    }
 
-            return isValidTransition;
+    /**
+     * Get the index of a channel the message is scheduled to. Caller must hold the lock of this object.
+     *
+     * @param channelID ID of the channel
+     * @return index of the channel in channel arrays
+     */
+    private int getChannelIndex(UUID channelID) {
+        int channelIndex = indexOfChannel(channelID);
+        if (channelIndex < 0) {
+            throw new IllegalStateException("Message " + messageID + " is not scheduled to deliver to channel "
+                    + channelID);
         }
+        return channelIndex;
+    }
 
-        private ChannelMessageStatus getLatestMessageStatus() {
-            if (!messageStatusesForChannel.isEmpty()) {
-                return messageStatusesForChannel.get(messageStatusesForChannel.size() - 1);
+    /**
+     * Check if state going to be added is valid considering it as the next transition compared
+     * to current latest state. This status is for individual delivery channels. Caller must hold the lock of this
+     * object.
+     *
+     * @param channelIndex index of the channel
+     * @param status       state to be transferred
+     */
+    private boolean addChannelStatus(int channelIndex, ChannelMessageStatus status) {
+
+        boolean isValidTransition = false;
+        ChannelMessageStatus latestStatus = CHANNEL_MESSAGE_STATUSES[channelStatuses[channelIndex]];
+
+        if (null == latestStatus) {
+            if (ChannelMessageStatus.DISPATCHED.equals(status)) {
+                isValidTransition = true;
             } else {
-                return null;
+                log.warn("Invalid channel message state transition suggested: " + status + " Message ID: "
+                        + messageID + " Slot = " + slot.getId() + " Message Status History >> " + getStatusHistory());
+            }
+        } else {
+            isValidTransition = latestStatus.isValidNextTransition(status);
+            if (!isValidTransition) {
+                log.warn("Invalid channel message state transition from " + latestStatus + " suggested: " + status
+                        + " Message ID: " + messageID + " Slot = " + slot.getId() + " Channel Status History >> "
+                        + getChannelStatusAsString());
             }
         }
 
-        private String getMessageStatusHistoryForChannelAsString() {
-            StringBuilder channelInfo = new StringBuilder();
-            for (ChannelMessageStatus channelMessageStatus : messageStatusesForChannel) {
-                channelInfo.append(channelMessageStatus).append(">>");
+        if (isValidTransition) {
+            channelStatuses[channelIndex] = (byte) status.getCode();
+            if (null != channelStatusHistory) {
+                channelStatusHistory.get(channelIDs[channelIndex]).add(status);
             }
-            return channelInfo.toString();
         }
+        return isValidTransition;
+    }
 
+    /**
+     * @param status message status
+     * @return bit of the state word marking that the message has been in the given status
+     */
+    private static int visitedBit(MessageStatus status) {
+        return 1 << (VISITED_STATUS_SHIFT + status.getCode());
     }
 
     /**
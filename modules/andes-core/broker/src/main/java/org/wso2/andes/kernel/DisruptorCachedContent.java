@@ -19,6 +19,7 @@
 package org.wso2.andes.kernel;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -100,6 +101,34 @@ public class DisruptorCachedContent implements AndesContent {
         return contentLength;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addContentSlices(int offset, int length, List<ByteBuffer> slices) throws AndesException {
+        int end = Math.min(offset + length, contentLength);
+        int currentBytePosition = offset;
+
+        while (currentBytePosition < end) {
+            // This is an integer division
+            int chunkNumber = currentBytePosition / maxChunkSize;
+            int chunkStartByteIndex = chunkNumber * maxChunkSize;
+            int positionToReadFromChunk = currentBytePosition - chunkStartByteIndex;
+
+            AndesMessagePart messagePart = getMessagePart(chunkStartByteIndex);
+
+            int numOfBytesToRead = Math.min(messagePart.getDataLength() - positionToReadFromChunk,
+                    end - currentBytePosition);
+            if (numOfBytesToRead <= 0) {
+                throw new AndesException("Content chunk at index " + chunkStartByteIndex + " is shorter than "
+                        + "expected");
+            }
+
+            slices.add(ByteBuffer.wrap(messagePart.getData(), positionToReadFromChunk, numOfBytesToRead));
+            currentBytePosition = currentBytePosition + numOfBytesToRead;
+        }
+    }
+
     /**
      * Get Message part for byte index
      *
@@ -140,6 +140,16 @@ public interface MessageStore extends HealthAwareStore {
     List<DeliverableAndesMetadata> getMetadataList(Slot slot, final String storageQueueName, long firstMsgId,
             long lastMsgID) throws AndesException;
 
+    /**
+     * Read metadata of several slots in one go. Each slot is read from its own storage queue within the
+     * slot's message id range.
+     *
+     * @param slots slots to read metadata for
+     * @return map of slot to the list of metadata read for it. Every given slot has an entry
+     * @throws AndesException
+     */
+    Map<Slot, List<DeliverableAndesMetadata>> getMetadataListForSlots(List<Slot> slots) throws AndesException;
+
     /**
      * Get number of messages in the queue within the message id range
      *
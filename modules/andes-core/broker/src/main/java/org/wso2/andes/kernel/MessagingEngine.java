@@ -608,6 +608,18 @@ public class MessagingEngine {
         return messageStore.getMetadataList(slot, queueName, firstMsgId, lastMsgID);
     }
 
+    /**
+     * Get message metadata of several slots using a single store read where the store supports it
+     *
+     * @param slots slots to read metadata for
+     * @return map of slot to the list of metadata read for it
+     * @throws AndesException
+     */
+    public Map<Slot, List<DeliverableAndesMetadata>> getMetaDataListForSlots(List<Slot> slots)
+            throws AndesException {
+        return messageStore.getMetadataListForSlots(slots);
+    }
+
     /**
      * Get message metadata from queue starting from given id up a given
      * message count
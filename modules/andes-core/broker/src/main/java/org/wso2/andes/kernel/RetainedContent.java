@@ -21,6 +21,7 @@ package org.wso2.andes.kernel;
 import org.wso2.andes.amqp.AMQPUtils;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -93,6 +94,34 @@ public class RetainedContent implements AndesContent {
         return written;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addContentSlices(int offset, int length, List<ByteBuffer> slices) throws AndesException {
+        int end = Math.min(offset + length, contentLength);
+        int currentBytePosition = offset;
+
+        while (currentBytePosition < end) {
+            // This is an integer division
+            int chunkNumber = currentBytePosition / AMQPUtils.DEFAULT_CONTENT_CHUNK_SIZE;
+            int chunkStartByteIndex = chunkNumber * AMQPUtils.DEFAULT_CONTENT_CHUNK_SIZE;
+            int positionToReadFromChunk = currentBytePosition - chunkStartByteIndex;
+
+            AndesMessagePart messagePart = getMessagePart(chunkStartByteIndex);
+
+            int numOfBytesToRead = Math.min(messagePart.getDataLength() - positionToReadFromChunk,
+                    end - currentBytePosition);
+            if (numOfBytesToRead <= 0) {
+                throw new AndesException("Content chunk at index " + chunkStartByteIndex + " is shorter than "
+                        + "expected");
+            }
+
+            slices.add(ByteBuffer.wrap(messagePart.getData(), positionToReadFromChunk, numOfBytesToRead));
+            currentBytePosition = currentBytePosition + numOfBytesToRead;
+        }
+    }
+
     /**
      * Get Message part for byte index
      *
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor;
+
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
+import org.wso2.carbon.metrics.manager.Gauge;
+
+/**
+ * Gauge of the number of events published to a ring buffer but not yet processed by the slowest event processor of a
+ * group. Comparing the lag of consecutive handler groups shows which stage holds events back.
+ */
+public class HandlerLagGauge implements Gauge<Long> {
+
+    private final RingBuffer<?> ringBuffer;
+
+    /**
+     * Barrier tracking the minimum sequence processed by the handler group. It is not used to wait, so it does not
+     * gate the ring buffer.
+     */
+    private final SequenceBarrier handlerBarrier;
+
+    /**
+     * Create a lag gauge for a group of handlers
+     *
+     * @param ringBuffer   ring buffer the handlers process
+     * @param handlerGroup handlers of a single stage
+     */
+    public HandlerLagGauge(RingBuffer<?> ringBuffer, EventHandlerGroup<?> handlerGroup) {
+        this.ringBuffer = ringBuffer;
+        this.handlerBarrier = handlerGroup.asSequenceBarrier();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Long getValue() {
+        return Math.max(0L, ringBuffer.getCursor() - handlerBarrier.getCursor());
+    }
+}
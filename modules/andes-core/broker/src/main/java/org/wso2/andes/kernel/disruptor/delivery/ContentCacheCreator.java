@@ -32,7 +32,11 @@ import org.wso2.andes.kernel.AndesMessagePart;
 import org.wso2.andes.kernel.DisruptorCachedContent;
 import org.wso2.andes.kernel.MessagingEngine;
 import org.wso2.andes.kernel.ProtocolMessage;
+import org.wso2.andes.metrics.MetricsConstants;
 import org.wso2.andes.tools.utils.MessageTracer;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+import org.wso2.carbon.metrics.manager.Timer.Context;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -92,6 +96,22 @@ public class ContentCacheCreator {
      * @throws AndesException Thrown when getting content from the message store.
      */
     public void onEvent(List<DeliveryEventData> eventDataList) throws AndesException {
+        Context contentReadContext = MetricManager.timer(Level.INFO, MetricsConstants.DELIVERY_CONTENT_READ).start();
+        try {
+            loadContent(eventDataList);
+        } finally {
+            contentReadContext.stop();
+        }
+    }
+
+    /**
+     * Set content of the given messages from the content cache and read content of the rest from the message store
+     * with a single batched read.
+     *
+     * @param eventDataList List of delivery event data
+     * @throws AndesException Thrown when getting content from the message store.
+     */
+    private void loadContent(List<DeliveryEventData> eventDataList) throws AndesException {
 
         LongHashSet messagesToFetch = new LongHashSet();
         List<DeliveryEventData> messagesWithoutCachedContent = new ArrayList<>();
@@ -126,8 +146,16 @@ public class ContentCacheCreator {
 
         }
 
-        LongArrayList containMessegesToFetch = new LongArrayList();
+        if (messagesToFetch.isEmpty()) {
+            return;
+        }
+
+        LongArrayList containMessegesToFetch = new LongArrayList(messagesToFetch.size());
         containMessegesToFetch.addAll(messagesToFetch);
+        // Sorted ids keep each chunked store read within a narrow id range
+        containMessegesToFetch.sortThis();
+        MetricManager.histogram(Level.INFO, MetricsConstants.DELIVERY_CONTENT_READ_BATCH_SIZE)
+                .update(containMessegesToFetch.size());
 
         LongObjectHashMap<List<AndesMessagePart>> contentListMap = MessagingEngine.getInstance()
                 .getContent(containMessegesToFetch);
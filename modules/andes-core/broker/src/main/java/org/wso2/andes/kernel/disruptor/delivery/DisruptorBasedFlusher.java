@@ -19,18 +19,21 @@
 package org.wso2.andes.kernel.disruptor.delivery;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.SequenceBarrier;
 import com.lmax.disruptor.TimeoutException;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.configuration.AndesConfigurationManager;
 import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.ProtocolMessage;
+import org.wso2.andes.kernel.disruptor.HandlerLagGauge;
+import org.wso2.andes.kernel.disruptor.waitStrategy.DisruptorWaitStrategy;
 import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.store.DedicatedConnectionThreadFactory;
 import org.wso2.andes.subscription.LocalSubscription;
 import org.wso2.andes.tools.utils.MessageTracer;
 import org.wso2.carbon.metrics.manager.Gauge;
@@ -77,14 +80,18 @@ public class DisruptorBasedFlusher {
                 AndesConfiguration.PERFORMANCE_TUNING_DELIVERY_CONTENT_READ_BATCH_SIZE);
         int maxContentChunkSize = AndesConfigurationManager.readValue(
                 AndesConfiguration.PERFORMANCE_TUNING_MAX_CONTENT_CHUNK_SIZE);
+        DisruptorWaitStrategy waitStrategy = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_DELIVERY_WAIT_STRATEGY);
 
-        ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("DisruptorBasedFlusher-%d").build();
+        // Content readers keep a database connection each to avoid waiting on the connection pool
+        ThreadFactory namedThreadFactory = new DedicatedConnectionThreadFactory(
+                new ThreadFactoryBuilder().setNameFormat("DisruptorBasedFlusher-%d").build());
         Executor threadPoolExecutor = Executors.newCachedThreadPool(namedThreadFactory);
 
         disruptor = new Disruptor<>(new DeliveryEventData.DeliveryEventDataFactory(), ringBufferSize,
                                                      threadPoolExecutor,
                                                      ProducerType.MULTI,
-                                                     new BlockingWaitStrategy());
+                                                     waitStrategy.createWaitStrategy());
 
         disruptor.handleExceptionsWith(new DeliveryExceptionHandler());
 
@@ -119,14 +126,24 @@ public class DisruptorBasedFlusher {
             deliveryEventHandlers[i] = new DeliveryEventHandler(i, parallelDeliveryHandlers);
         }
 
-        disruptor.handleEventsWith(contentReadTaskBatchProcessor).then(decompressionEventHandlers)
-                .then(deliveryEventHandlers);
+        EventHandlerGroup<DeliveryEventData> contentReaderGroup =
+                disruptor.handleEventsWith(contentReadTaskBatchProcessor);
+        EventHandlerGroup<DeliveryEventData> decompressionHandlerGroup =
+                contentReaderGroup.then(decompressionEventHandlers);
+        EventHandlerGroup<DeliveryEventData> deliveryHandlerGroup =
+                decompressionHandlerGroup.then(deliveryEventHandlers);
 
         disruptor.start();
         ringBuffer = disruptor.getRingBuffer();
 
         //Will add the gauge listener to periodically calculate the outbound messages in the ring
         MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_OUTBOUND_RING, new OutBoundRingGauge());
+        MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_OUTBOUND_CONTENT_READER_LAG,
+                new HandlerLagGauge(ringBuffer, contentReaderGroup));
+        MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_OUTBOUND_DECOMPRESSION_HANDLER_LAG,
+                new HandlerLagGauge(ringBuffer, decompressionHandlerGroup));
+        MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_OUTBOUND_DELIVERY_HANDLER_LAG,
+                new HandlerLagGauge(ringBuffer, deliveryHandlerGroup));
     }
 
     /**
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.inbound;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.MessagingEngine;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Combines message batches of parallel {@link MessageWriter}s into a single message store transaction.
+ * <p>
+ * The first writer to arrive leads a commit group. It waits for the rest of the writers to add their batches until
+ * all writers joined or the wait time elapsed, and then writes all batches of the group with one store call. Other
+ * writers of the group block until that write completes, hence publisher acknowledgements, which are sent after the
+ * writers, are sent only after the shared commit.
+ * <p>
+ * The wait time adapts to the load. It is halved each time the leader waits alone and doubled up to the configured
+ * maximum each time other writers join, so that a lightly loaded broker does not keep paying the wait.
+ */
+class GroupCommitCoordinator {
+
+    private static Log log = LogFactory.getLog(GroupCommitCoordinator.class);
+
+    /**
+     * The wait time is not reduced below this fraction of the maximum wait time so that it can grow again
+     */
+    private static final int MIN_WAIT_TIME_DIVISOR = 16;
+
+    /**
+     * Reference to messaging engine. This is used to store messages
+     */
+    private final MessagingEngine messagingEngine;
+
+    /**
+     * Number of writers sharing this coordinator
+     */
+    private final int writerCount;
+
+    /**
+     * Maximum time the leader waits for other writers in nanoseconds
+     */
+    private final long maxWaitTimeNanos;
+
+    /**
+     * Minimum time the leader waits for other writers in nanoseconds
+     */
+    private final long minWaitTimeNanos;
+
+    /**
+     * Guards {@link #currentGroup} and {@link #waitTimeNanos}
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled when all writers joined the current group
+     */
+    private final Condition groupFull = lock.newCondition();
+
+    /**
+     * Group writers are currently joining. Null if no writer is waiting.
+     */
+    private CommitGroup currentGroup;
+
+    /**
+     * Current time the leader waits for other writers in nanoseconds
+     */
+    private long waitTimeNanos;
+
+    /**
+     * Create a coordinator for the given number of writers
+     *
+     * @param messagingEngine    messaging engine used to store messages
+     * @param writerCount        number of writers sharing this coordinator
+     * @param maxWaitTimeMicros  maximum time in microseconds to wait for other writers
+     */
+    GroupCommitCoordinator(MessagingEngine messagingEngine, int writerCount, int maxWaitTimeMicros) {
+        this.messagingEngine = messagingEngine;
+        this.writerCount = writerCount;
+        maxWaitTimeNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitTimeMicros);
+        minWaitTimeNanos = maxWaitTimeNanos / MIN_WAIT_TIME_DIVISOR;
+        waitTimeNanos = maxWaitTimeNanos;
+    }
+
+    /**
+     * Store the given messages together with the messages of writers committing at the same time. Returns after the
+     * messages are stored.
+     *
+     * @param messages messages to store
+     * @throws AndesException if storing the group of messages failed
+     */
+    void commit(List<AndesMessage> messages) throws AndesException {
+        CommitGroup group;
+        boolean leader;
+
+        lock.lock();
+        try {
+            leader = (null == currentGroup);
+            if (leader) {
+                currentGroup = new CommitGroup();
+            }
+            group = currentGroup;
+            group.messages.addAll(messages);
+            group.writers++;
+
+            if (leader) {
+                waitForWriters(group);
+                currentGroup = null;
+            } else if (group.writers == writerCount) {
+                groupFull.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leader) {
+            write(group);
+        } else {
+            group.awaitCompletion();
+        }
+
+        if (null != group.error) {
+            throw group.error;
+        }
+    }
+
+    /**
+     * Wait until all writers joined the group or the wait time elapsed and adapt the wait time. Called by the leader
+     * holding the lock.
+     *
+     * @param group group led by the caller
+     */
+    private void waitForWriters(CommitGroup group) {
+        long remainingNanos = waitTimeNanos;
+        try {
+            while (group.writers < writerCount && remainingNanos > 0) {
+                remainingNanos = groupFull.awaitNanos(remainingNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (group.writers == 1) {
+            waitTimeNanos = Math.max(minWaitTimeNanos, waitTimeNanos / 2);
+        } else {
+            waitTimeNanos = Math.min(maxWaitTimeNanos, waitTimeNanos * 2);
+        }
+    }
+
+    /**
+     * Write messages of the group to the message store and release the writers waiting on the group
+     *
+     * @param group group to write
+     */
+    private void write(CommitGroup group) {
+        MetricManager.histogram(Level.INFO, MetricsConstants.GROUP_COMMIT_WRITERS).update(group.writers);
+        try {
+            messagingEngine.messagesReceived(group.messages);
+            if (log.isDebugEnabled()) {
+                log.debug(group.messages.size() + " messages of " + group.writers + " writers stored together.");
+            }
+        } catch (AndesException e) {
+            group.error = e;
+        } catch (RuntimeException e) {
+            group.error = new AndesException("Error occurred while storing messages of " + group.writers
+                    + " writers", e);
+        } finally {
+            group.completionLatch.countDown();
+        }
+    }
+
+    /**
+     * Batches of writers committed with a single store call
+     */
+    private static final class CommitGroup {
+
+        private final List<AndesMessage> messages = new ArrayList<>();
+
+        private final CountDownLatch completionLatch = new CountDownLatch(1);
+
+        private int writers;
+
+        /**
+         * Set before the latch is released and read after it
+         */
+        private AndesException error;
+
+        private void awaitCompletion() throws AndesException {
+            try {
+                completionLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AndesException("Interrupted while waiting for messages to be stored", e);
+            }
+        }
+    }
+}
@@ -19,9 +19,9 @@
 package org.wso2.andes.kernel.disruptor.inbound;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -32,9 +32,12 @@ import org.wso2.andes.kernel.AndesMessage;
 import org.wso2.andes.kernel.DisablePubAckImpl;
 import org.wso2.andes.kernel.MessagingEngine;
 import org.wso2.andes.kernel.disruptor.ConcurrentBatchEventHandler;
+import org.wso2.andes.kernel.disruptor.HandlerLagGauge;
 import org.wso2.andes.kernel.disruptor.LogExceptionHandler;
 import org.wso2.andes.kernel.disruptor.compression.LZ4CompressionHelper;
+import org.wso2.andes.kernel.disruptor.waitStrategy.DisruptorWaitStrategy;
 import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.store.DedicatedConnectionThreadFactory;
 import org.wso2.andes.subscription.SubscriptionEngine;
 import org.wso2.andes.tools.utils.MessageTracer;
 import org.wso2.carbon.metrics.manager.Gauge;
@@ -50,8 +53,10 @@ import static org.wso2.andes.configuration.enums.AndesConfiguration.MAX_TRANSACT
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_ACKNOWLEDGEMENT_HANDLER_BATCH_SIZE;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_ACK_HANDLER_COUNT;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_CONTENT_CHUNK_HANDLER_COUNT;
+import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_INBOUND_WAIT_STRATEGY;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_MAX_CONTENT_CHUNK_SIZE;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_MESSAGE_WRITER_BATCH_SIZE;
+import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_MESSAGE_WRITER_GROUP_COMMIT_WAIT_TIME;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_PARALLEL_MESSAGE_WRITERS;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_PARALLEL_TRANSACTION_MESSAGE_WRITERS;
 import static org.wso2.andes.configuration.enums.AndesConfiguration.PERFORMANCE_TUNING_PUBLISHING_BUFFER_SIZE;
@@ -96,6 +101,10 @@ public class InboundEventManager {
                 PERFORMANCE_TUNING_PARALLEL_TRANSACTION_MESSAGE_WRITERS);
         Integer transactionBatchSize = AndesConfigurationManager.readValue(
                 MAX_TRANSACTION_BATCH_SIZE);
+        Integer groupCommitWaitTime = AndesConfigurationManager.readValue(
+                PERFORMANCE_TUNING_MESSAGE_WRITER_GROUP_COMMIT_WAIT_TIME);
+        DisruptorWaitStrategy waitStrategy = AndesConfigurationManager.readValue(
+                PERFORMANCE_TUNING_INBOUND_WAIT_STRATEGY);
 
         disablePubAck = new DisablePubAckImpl();
         int maxContentChunkSize = AndesConfigurationManager.readValue(
@@ -103,8 +112,9 @@ public class InboundEventManager {
         int contentChunkHandlerCount = AndesConfigurationManager.readValue(
                 PERFORMANCE_TUNING_CONTENT_CHUNK_HANDLER_COUNT);
 
-        ThreadFactory namedThreadFactory = new ThreadFactoryBuilder()
-                .setNameFormat("DisruptorInboundEventThread-%d").build();
+        // Writer threads keep a database connection each to avoid waiting on the connection pool
+        ThreadFactory namedThreadFactory = new DedicatedConnectionThreadFactory(new ThreadFactoryBuilder()
+                .setNameFormat("DisruptorInboundEventThread-%d").build());
         ExecutorService executorPool = Executors.newCachedThreadPool(namedThreadFactory);
 
 
@@ -112,7 +122,7 @@ public class InboundEventManager {
                 bufferSize,
                 executorPool,
                 ProducerType.MULTI,
-                new BlockingWaitStrategy());
+                waitStrategy.createWaitStrategy());
 
         disruptor.handleExceptionsWith(new LogExceptionHandler());
 
@@ -131,11 +141,18 @@ public class InboundEventManager {
             }
         }
 
+        // Parallel message writers store their batches together when group commit is enabled
+        GroupCommitCoordinator groupCommitCoordinator = null;
+        if (writeHandlerCount > 1 && groupCommitWaitTime > 0) {
+            groupCommitCoordinator = new GroupCommitCoordinator(messagingEngine, writeHandlerCount,
+                    groupCommitWaitTime);
+        }
+
         for (int turn = 0; turn < writeHandlerCount; turn++) {
             concurrentBatchEventHandlers[turn] = new ConcurrentBatchEventHandler(turn, writeHandlerCount,
                     writerBatchSize,
                     MESSAGE_EVENT,
-                    new MessageWriter(messagingEngine, writerBatchSize));
+                    new MessageWriter(messagingEngine, writerBatchSize, groupCommitCoordinator));
         }
 
         for (int turn = 0; turn < transactionHandlerCount; turn++) {
@@ -162,18 +179,29 @@ public class InboundEventManager {
         // - MessagePreProcessor
         // - MessageWriters and AckHandlers
         // - StateEventHandler
-        disruptor.handleEventsWith(chunkHandlers).then(preProcessor);
-        disruptor.after(preProcessor).handleEventsWith(concurrentBatchEventHandlers);
+        EventHandlerGroup<InboundEventContainer> chunkHandlerGroup = disruptor.handleEventsWith(chunkHandlers);
+        EventHandlerGroup<InboundEventContainer> preProcessorGroup = chunkHandlerGroup.then(preProcessor);
+        EventHandlerGroup<InboundEventContainer> writerGroup =
+                disruptor.after(preProcessor).handleEventsWith(concurrentBatchEventHandlers);
 
         // State event handler update the state of Andes after other handlers work is done.
         // State event handler will execute last. This handler will clear the event container.
-        disruptor.after(concurrentBatchEventHandlers).handleEventsWith(stateEventHandler);
+        EventHandlerGroup<InboundEventContainer> stateHandlerGroup =
+                disruptor.after(concurrentBatchEventHandlers).handleEventsWith(stateEventHandler);
 
         ringBuffer = disruptor.start();
 
         //Will add the gauge to metrics manager
         MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_INBOUND_RING, new InBoundRingGauge());
         MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_MESSAGE_ACK, new AckedMessageCountGauge());
+        MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_INBOUND_CHUNK_HANDLER_LAG,
+                new HandlerLagGauge(ringBuffer, chunkHandlerGroup));
+        MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_INBOUND_PRE_PROCESSOR_LAG,
+                new HandlerLagGauge(ringBuffer, preProcessorGroup));
+        MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_INBOUND_WRITER_LAG,
+                new HandlerLagGauge(ringBuffer, writerGroup));
+        MetricManager.gauge(Level.INFO, MetricsConstants.DISRUPTOR_INBOUND_STATE_HANDLER_LAG,
+                new HandlerLagGauge(ringBuffer, stateHandlerGroup));
     }
 
     /**
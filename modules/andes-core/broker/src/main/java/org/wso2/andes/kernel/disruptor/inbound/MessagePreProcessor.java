@@ -22,6 +22,8 @@ import com.lmax.disruptor.EventHandler;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.amqp.AMQPUtils;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.AndesChannel;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.AndesMessage;
@@ -32,13 +34,14 @@ import org.wso2.andes.kernel.AndesUtils;
 import org.wso2.andes.kernel.DestinationType;
 import org.wso2.andes.kernel.ProtocolType;
 import org.wso2.andes.metrics.MetricsConstants;
-import org.wso2.andes.server.ClusterResourceHolder;
+import org.wso2.andes.server.cluster.coordination.TimeStampBasedMessageIdGenerator;
 import org.wso2.andes.subscription.SubscriptionEngine;
 import org.wso2.andes.tools.utils.MessageTracer;
 import org.wso2.carbon.metrics.manager.Level;
 import org.wso2.carbon.metrics.manager.Meter;
 import org.wso2.carbon.metrics.manager.MetricManager;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -51,12 +54,30 @@ import java.util.Set;
 public class MessagePreProcessor implements EventHandler<InboundEventContainer> {
 
     private static final Log log = LogFactory.getLog(MessagePreProcessor.class);
+
+    /**
+     * Number of message ids reserved at once from the id generator
+     */
+    private static final int ID_BLOCK_SIZE = 128;
+
     private final SubscriptionEngine subscriptionEngine;
-    private final MessageIDGenerator idGenerator;
+    private final TimeStampBasedMessageIdGenerator idGenerator;
+
+    /**
+     * Ids reserved for this processor. Only accessed by the processor thread.
+     */
+    private TimeStampBasedMessageIdGenerator.IdBlock idBlock;
+
+    /**
+     * Whether content of a topic message routed to several storage queues is stored once for all the copies
+     */
+    private final boolean sharedContentEnabled;
 
     public MessagePreProcessor(SubscriptionEngine subscriptionEngine) {
         this.subscriptionEngine = subscriptionEngine;
-        idGenerator = new MessageIDGenerator();
+        idGenerator = new TimeStampBasedMessageIdGenerator();
+        sharedContentEnabled = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_TOPIC_SHARED_CONTENT_ENABLED);
     }
 
     @Override
@@ -76,7 +97,7 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
                 setSafeZoneLimit(inboundEvent, sequence);
                 break;
             case PUBLISHER_RECOVERY_EVENT:
-                inboundEvent.setRecoveryEventMessageId(idGenerator.getNextId());
+                inboundEvent.setRecoveryEventMessageId(getNextId());
                 break;
             default:
                 if (log.isDebugEnabled()) {
@@ -114,6 +135,8 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
      * @param sequence position of the event at the event ring buffer
      */
     private void setSafeZoneLimit(InboundEventContainer event, long sequence) {
+        // Drop the reserved ids so that all ids generated after this are above the safe zone
+        idBlock = null;
         long safeZoneLimit = idGenerator.getNextId();
         event.setSafeZoneLimit(safeZoneLimit);
         if(log.isDebugEnabled()){
@@ -175,6 +198,7 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
             //We do not consider message selectors here. They will be considered when being delivered
 
             Set<String> alreadyStoredQueueNames = new HashSet<>();
+            List<AndesMessage> clonedMessages = new ArrayList<>();
             for (AndesSubscription subscription : subscriptionList) {
                 if (!alreadyStoredQueueNames.contains(subscription.getStorageQueueName())) {
 
@@ -218,14 +242,29 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
                                 + clonedMessage.getMetadata().getMessageID() + " isTopic");
                     }
 
-                    // add the topic wise cloned message to the events list. Message writers will pick that and
-                    // write it.
-                    event.addMessage(clonedMessage);
+                    clonedMessages.add(clonedMessage);
                     isMessageRouted = true;
                     alreadyStoredQueueNames.add(subscription.getStorageQueueName());
                 }
             }
 
+            // Content of a message routed to several storage queues is stored once under the original message id.
+            // The first copy stores it and the others refer to it.
+            if (sharedContentEnabled && clonedMessages.size() > 1) {
+                long sharedContentID = message.getMetadata().getMessageID();
+                boolean owner = true;
+                for (AndesMessage clonedMessage : clonedMessages) {
+                    clonedMessage.setSharedContent(sharedContentID, owner);
+                    owner = false;
+                }
+            }
+
+            // add the topic wise cloned messages to the events list. Message writers will pick them and
+            // write them.
+            for (AndesMessage clonedMessage : clonedMessages) {
+                event.addMessage(clonedMessage);
+            }
+
             // If retain enabled, need to store the retained message. Set the retained message
             // so the message writer will persist the retained message
             if(message.getMetadata().isRetain()) {
@@ -261,7 +300,7 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
      * @return Cloned reference of AndesMessage
      */
     private AndesMessage cloneAndesMessageMetadataAndContent(AndesMessage message) {
-        long newMessageId = idGenerator.getNextId();
+        long newMessageId = getNextId();
         AndesMessageMetadata clonedMetadata = message.getMetadata().shallowCopy(newMessageId);
         AndesMessage clonedMessage = new AndesMessage(clonedMetadata);
 
@@ -275,12 +314,24 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
 
     }
 
+    /**
+     * Get the next id from the ids reserved for this processor, reserving a new block when needed
+     *
+     * @return message id
+     */
+    private long getNextId() {
+        if (null == idBlock || !idBlock.hasNext()) {
+            idBlock = idGenerator.reserveIdBlock(ID_BLOCK_SIZE);
+        }
+        return idBlock.next();
+    }
+
     /**
      * Set Message ID for AndesMessage.
      * @param message messageID
      */
     private void setMessageID(AndesMessage message) {
-        long messageId = idGenerator.getNextId();
+        long messageId = getNextId();
 
         //Tracing message
         if (MessageTracer.isEnabled()) {
@@ -293,54 +344,4 @@ public class MessagePreProcessor implements EventHandler<InboundEventContainer>
             messagePart.setMessageID(messageId);
         }
     }
-
-    /**
-     * Generates IDs. This id generator cannot be used in a multi threaded environment. Removed any locking behaviour to
-     * improve id generation in single threaded approach
-     */
-    private static class MessageIDGenerator {
-
-        /** REFERENCE_START time set to 2011 */
-        private static final long REFERENCE_START = 41L * 365L * 24L * 60L * 60L * 1000L;
-        private int uniqueIdForNode;
-        private long lastTimestamp;
-        private long lastID;
-        private int offset;
-
-        MessageIDGenerator() {
-            uniqueIdForNode = 0;
-            lastTimestamp = 0;
-            lastID = 0;
-            offset = 0;
-        }
-
-        /**
-         * Out of 64 bits for long, we will use the range as follows
-         * [1 sign bit][45bits for time spent from reference time in milliseconds][8bit node id][10 bit offset for ID
-         * falls within the same timestamp]
-         * This assumes there will not be more than 1024 hits within a given millisecond. Range is sufficient for
-         * 6029925857 years.
-         *
-         * @return Generated ID
-         */
-        public long getNextId() {
-
-            // id might change at runtime. Hence reading the value
-            uniqueIdForNode = ClusterResourceHolder.getInstance().getClusterManager().getUniqueIdForLocalNode();
-            long ts = System.currentTimeMillis();
-
-            if (ts == lastTimestamp) {
-                offset = offset + 1;
-            } else {
-                offset = 0;
-            }
-            lastTimestamp = ts;
-            long id = (ts - REFERENCE_START) * 256 * 1024 + uniqueIdForNode * 1024 + offset;
-            if (lastID == id) {
-                throw new RuntimeException("duplicate ids detected. This should never happen");
-            }
-            lastID = id;
-            return id;
-        }
-    }
 }
@@ -74,8 +74,27 @@ public class MessageWriter implements BatchEventHandler, StoreHealthListener {
      */
     private final MessagingEngine messagingEngine;
 
+    /**
+     * Combines the batch of this writer with batches of other writers into a single store transaction. Null if this
+     * writer stores its batches on its own.
+     */
+    private final GroupCommitCoordinator groupCommitCoordinator;
+
     public MessageWriter(MessagingEngine messagingEngine, int messageBatchSize) {
+        this(messagingEngine, messageBatchSize, null);
+    }
+
+    /**
+     * Create a message writer that stores its batches together with other writers sharing the given coordinator
+     *
+     * @param messagingEngine        messaging engine used to store messages
+     * @param messageBatchSize       maximum batch size of the writer
+     * @param groupCommitCoordinator coordinator shared with other writers, or null to store batches separately
+     */
+    MessageWriter(MessagingEngine messagingEngine, int messageBatchSize,
+                  GroupCommitCoordinator groupCommitCoordinator) {
         this.messagingEngine = messagingEngine;
+        this.groupCommitCoordinator = groupCommitCoordinator;
         /*
          * For topics the size may be more than messageBatchSize since inbound
          * event might contain more than one message
@@ -123,7 +142,7 @@ public class MessageWriter implements BatchEventHandler, StoreHealthListener {
         }
 
         try {
-            messagingEngine.messagesReceived(currentMessageList);
+            storeMessages(currentMessageList);
 
             if (!retainMap.isEmpty()) {
                 messagingEngine.storeRetainedMessages(retainMap);
@@ -183,6 +202,20 @@ public class MessageWriter implements BatchEventHandler, StoreHealthListener {
         }
     }
 
+    /**
+     * Store messages through the group commit coordinator if there is one, else directly in the message store
+     *
+     * @param messages messages to store
+     * @throws AndesException if storing failed
+     */
+    private void storeMessages(List<AndesMessage> messages) throws AndesException {
+        if (null != groupCommitCoordinator && !messages.isEmpty()) {
+            groupCommitCoordinator.commit(messages);
+        } else {
+            messagingEngine.messagesReceived(messages);
+        }
+    }
+
     /**
      * Move the messages to previouslyFailedMessageList and clear currentMessageList and retainMap
      */
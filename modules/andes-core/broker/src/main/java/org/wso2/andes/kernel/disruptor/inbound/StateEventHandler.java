@@ -68,6 +68,12 @@ public class StateEventHandler implements EventHandler<InboundEventContainer> {
                     break;
             }
 
+            if (endOfBatch) {
+                // Messages of all the events handled so far are committed. Slots of queues consumed in this node
+                // need not wait for the slot window to fill.
+                SlotMessageCounter.getInstance().submitSlotsForLocalDelivery();
+            }
+
         } finally {
             // This is the final handler that visits the slot in ring buffer. Hence after processing is done clear the
             // slot so that in next iteration of the first event handler over the same slot won't find garbage from
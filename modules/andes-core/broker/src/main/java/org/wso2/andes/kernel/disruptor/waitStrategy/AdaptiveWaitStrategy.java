@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.waitStrategy;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.WaitStrategy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wait strategy spinning while events keep arriving and blocking once the ring buffer stays empty. A waiting event
+ * processor first busy spins, then yields and finally blocks until a publisher signals. Publishers only take the lock
+ * when a processor is actually blocked, so under load neither side pays for locking while an idle broker does not
+ * burn CPU.
+ */
+public class AdaptiveWaitStrategy implements WaitStrategy {
+
+    /**
+     * Default number of busy spins before yielding
+     */
+    private static final int DEFAULT_SPIN_TRIES = 100;
+
+    /**
+     * Default number of yields before blocking
+     */
+    private static final int DEFAULT_YIELD_TRIES = 100;
+
+    /**
+     * Time parked while waiting for event processors of a previous stage
+     */
+    private static final long DEPENDENT_PARK_NANOS = 1000L;
+
+    private final int yieldTries;
+    private final int retries;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition processorNotifyCondition = lock.newCondition();
+
+    /**
+     * Whether an event processor is blocked and needs to be signalled on publish
+     */
+    private final AtomicBoolean signalNeeded = new AtomicBoolean(false);
+
+    public AdaptiveWaitStrategy() {
+        this(DEFAULT_SPIN_TRIES, DEFAULT_YIELD_TRIES);
+    }
+
+    /**
+     * Create an adaptive wait strategy
+     *
+     * @param spinTries  number of busy spins before yielding
+     * @param yieldTries number of yields before blocking
+     */
+    public AdaptiveWaitStrategy(int spinTries, int yieldTries) {
+        this.yieldTries = yieldTries;
+        this.retries = spinTries + yieldTries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier)
+            throws AlertException, InterruptedException {
+        long availableSequence;
+        int counter = retries;
+
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            barrier.checkAlert();
+
+            if (counter > yieldTries) {
+                --counter;
+            } else if (counter > 0) {
+                --counter;
+                Thread.yield();
+            } else if (cursorSequence.get() < sequence) {
+                block(sequence, cursorSequence, barrier);
+            } else {
+                // The event is published but a previous stage is still processing it
+                LockSupport.parkNanos(DEPENDENT_PARK_NANOS);
+            }
+        }
+
+        return availableSequence;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void signalAllWhenBlocking() {
+        if (signalNeeded.get() && signalNeeded.getAndSet(false)) {
+            lock.lock();
+            try {
+                processorNotifyCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Block until the cursor reaches the given sequence
+     */
+    private void block(long sequence, Sequence cursorSequence, SequenceBarrier barrier)
+            throws AlertException, InterruptedException {
+        lock.lock();
+        try {
+            while (cursorSequence.get() < sequence) {
+                signalNeeded.set(true);
+
+                // Check again since a publish before raising the flag does not signal
+                if (cursorSequence.get() >= sequence) {
+                    break;
+                }
+
+                barrier.checkAlert();
+                processorNotifyCondition.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.waitStrategy;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wait strategies event processors of a Disruptor can use. This is configured at broker.xml under
+ * <inboundEvents>/<waitStrategy>, <delivery>/<waitStrategy> and <mqtt>/<waitStrategy>. Strategies lower in the list
+ * give lower latency at the cost of more CPU while the broker is idle.
+ */
+public enum DisruptorWaitStrategy {
+
+    /**
+     * Event processors block on a lock until events are published. Lowest CPU usage.
+     */
+    BLOCKING {
+        @Override
+        public WaitStrategy createWaitStrategy() {
+            return new BlockingWaitStrategy();
+        }
+    },
+
+    /**
+     * Blocks like {@link #BLOCKING} but parks briefly between checks of processors of a previous stage
+     */
+    SLEEPING_BLOCKING {
+        @Override
+        public WaitStrategy createWaitStrategy() {
+            return new SleepingBlockingWaitStrategy();
+        }
+    },
+
+    /**
+     * Event processors spin, yield and then sleep in short intervals
+     */
+    SLEEPING {
+        @Override
+        public WaitStrategy createWaitStrategy() {
+            return new SleepingWaitStrategy();
+        }
+    },
+
+    /**
+     * Event processors spin for a while, then yield for a while and then block
+     */
+    PHASED_BACKOFF {
+        @Override
+        public WaitStrategy createWaitStrategy() {
+            return PhasedBackoffWaitStrategy.withLock(1, 1000, TimeUnit.MICROSECONDS);
+        }
+    },
+
+    /**
+     * Event processors spin and then block, and publishers only signal when a processor is blocked
+     */
+    ADAPTIVE {
+        @Override
+        public WaitStrategy createWaitStrategy() {
+            return new AdaptiveWaitStrategy();
+        }
+    },
+
+    /**
+     * Event processors keep yielding the CPU. Each event processor keeps a core busy when other threads are idle.
+     */
+    YIELDING {
+        @Override
+        public WaitStrategy createWaitStrategy() {
+            return new YieldingWaitStrategy();
+        }
+    },
+
+    /**
+     * Event processors busy spin. Each event processor needs a dedicated core.
+     */
+    BUSY_SPIN {
+        @Override
+        public WaitStrategy createWaitStrategy() {
+            return new BusySpinWaitStrategy();
+        }
+    };
+
+    /**
+     * Create a new wait strategy instance. Each Disruptor needs its own instance.
+     *
+     * @return wait strategy
+     */
+    public abstract WaitStrategy createWaitStrategy();
+}
@@ -87,12 +87,23 @@ final class MessageDeliveryTask extends Task {
      */
     private Map<String, Slot> slotTrackerMap;
 
+    /**
+     * Reads metadata of the next slot while the current slot is being delivered
+     */
+    private SlotMetadataPrefetcher metadataPrefetcher;
+
+    /**
+     * Read request of the next slot to be delivered. Null if there is no slot read ahead
+     */
+    private SlotMetadataPrefetcher.PrefetchRequest prefetchRequest;
+
     MessageDeliveryTask(String destination,
                         ProtocolType protocolType,
                         String storageQueueName,
                         DestinationType destinationType,
                         SlotCoordinator slotCoordinator,
-                        MessageFlusher messageFlusher) throws AndesException {
+                        MessageFlusher messageFlusher,
+                        SlotMetadataPrefetcher metadataPrefetcher) throws AndesException {
 
         this.destinationName = destination;
         this.destinationType = destinationType;
@@ -100,6 +111,7 @@ final class MessageDeliveryTask extends Task {
         this.storageQueueName = storageQueueName;
         this.slotCoordinator = slotCoordinator;
         this.messageFlusher = messageFlusher;
+        this.metadataPrefetcher = metadataPrefetcher;
         slotTrackerMap = new HashMap<>();
         messageFlusher.updateMessageDeliveryInfo(destination, protocolType, destinationType);
     }
@@ -118,9 +130,16 @@ final class MessageDeliveryTask extends Task {
         // Check in memory buffer in MessageFlusher has room
         if (messageDeliveryInfo.messageBufferHasRoom()) {
 
-            // Get a slot from coordinator.
-            Slot currentSlot = requestSlot(storageQueueName);
-            currentSlot.setDestinationOfMessagesInSlot(destinationName);
+            // Use the slot read ahead if there is one. Otherwise get a slot from coordinator.
+            SlotMetadataPrefetcher.PrefetchRequest currentRequest = prefetchRequest;
+            prefetchRequest = null;
+            Slot currentSlot;
+            if (null != currentRequest) {
+                currentSlot = currentRequest.getSlot();
+            } else {
+                currentSlot = requestSlot(storageQueueName);
+                currentSlot.setDestinationOfMessagesInSlot(destinationName);
+            }
 
             // If the slot is empty
             if (0 == currentSlot.getEndMessageId()) {
@@ -140,7 +159,12 @@ final class MessageDeliveryTask extends Task {
                                       currentSlot.getStartMessageId() + " - " + currentSlot.getEndMessageId() +
                                       "Thread Id:" + Thread.currentThread().getId());
                 }
-                List<DeliverableAndesMetadata> messagesRead = getMetaDataListBySlot(storageQueueName, currentSlot);
+                List<DeliverableAndesMetadata> messagesRead;
+                if (null != currentRequest) {
+                    messagesRead = getPrefetchedMetadataList(currentRequest);
+                } else {
+                    messagesRead = getMetaDataListBySlot(storageQueueName, currentSlot);
+                }
 
                 if (CollectionUtils.isNotEmpty(messagesRead)) {
                     if (log.isDebugEnabled()) {
@@ -161,6 +185,8 @@ final class MessageDeliveryTask extends Task {
 
                     filterOverlappedMessages(trackedSlot, messagesRead);
                     MessageFlusher.getInstance().sendMessageToBuffer(messagesRead, trackedSlot, messageDeliveryInfo);
+                    // Read the next slot from the store while the buffered messages are delivered
+                    prefetchNextSlot(messageDeliveryInfo, messagesRead.size());
                     MessageFlusher.getInstance().sendMessagesInBuffer(messageDeliveryInfo, storageQueueName);
                 } else {
                     currentSlot.setSlotInactive();
@@ -221,6 +247,61 @@ final class MessageDeliveryTask extends Task {
         return currentSlot;
     }
 
+    /**
+     * Request the next slot from the coordinator and submit it to be read in the background. Read ahead is done only
+     * if the buffered messages together with the expected size of the next slot (size of the slot just read) stay
+     * within the read but undelivered message limit of the {@link MessageFlusher}. Hence at most one slot is held
+     * ahead of the buffer per storage queue.
+     *
+     * @param messageDeliveryInfo  delivery information of the destination
+     * @param lastReadMessageCount number of messages read from the current slot
+     * @throws ConnectionException if connectivity to coordinator is lost.
+     */
+    private void prefetchNextSlot(MessageDeliveryInfo messageDeliveryInfo, int lastReadMessageCount)
+            throws ConnectionException {
+
+        if (messageDeliveryInfo.getSizeOfMessageBuffer() + lastReadMessageCount
+                > messageFlusher.getMaxNumberOfReadButUndeliveredMessages()) {
+            return;
+        }
+
+        Slot nextSlot = requestSlot(storageQueueName);
+        if (0 == nextSlot.getEndMessageId()) {
+            return;
+        }
+        nextSlot.setDestinationOfMessagesInSlot(destinationName);
+        List<DeliverableAndesMetadata> handedOffMetadata =
+                SlotMetadataHandoff.getInstance().take(storageQueueName, nextSlot);
+        if (null != handedOffMetadata) {
+            prefetchRequest = SlotMetadataPrefetcher.completedRequest(nextSlot, handedOffMetadata);
+        } else {
+            prefetchRequest = metadataPrefetcher.prefetch(nextSlot);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Reading ahead slot " + nextSlot.getStartMessageId() + " - " + nextSlot.getEndMessageId()
+                              + " for storage queue " + storageQueueName);
+        }
+    }
+
+    /**
+     * Returns the metadata read ahead for a slot. If the read ahead failed the slot is read again from the store.
+     *
+     * @param request read ahead request of the slot
+     * @return a list of {@link DeliverableAndesMetadata}
+     * @throws AndesException an exception if there are errors at message store level.
+     * @throws InterruptedException if interrupted while waiting for the read ahead to complete
+     */
+    private List<DeliverableAndesMetadata> getPrefetchedMetadataList(SlotMetadataPrefetcher.PrefetchRequest request)
+            throws AndesException, InterruptedException {
+        try {
+            return request.awaitResult();
+        } catch (AndesException e) {
+            log.warn("Reading ahead slot " + request.getSlot() + " failed. Hence reading the slot again", e);
+            return getMetaDataListBySlot(storageQueueName, request.getSlot());
+        }
+    }
+
     /**
      * Returns a list of {@link AndesMessageMetadata} in specified slot. This method is recursive.
      *
@@ -280,6 +361,12 @@ final class MessageDeliveryTask extends Task {
      */
     private List<DeliverableAndesMetadata> getMetaDataListBySlot(String storageQueueName, Slot slot)
             throws AndesException {
+        // Metadata of a slot submitted right after its messages were committed is kept in memory
+        List<DeliverableAndesMetadata> handedOffMetadata = SlotMetadataHandoff.getInstance().take(storageQueueName,
+                slot);
+        if (null != handedOffMetadata) {
+            return handedOffMetadata;
+        }
         return getMetadataListBySlot(storageQueueName, slot, 0);
     }
 
@@ -377,6 +464,12 @@ final class MessageDeliveryTask extends Task {
      */
     private void onStopDelivery() {
 
+        // Slot read ahead is not tracked yet. It is returned by the slot manager along with the other slots assigned
+        // to this node for the queue
+        prefetchRequest = null;
+
+        SlotMetadataHandoff.getInstance().clear(storageQueueName);
+
         MessageFlusher.getInstance().clearUpAllBufferedMessagesForDelivery(destinationName, destinationType);
 
         for (Slot slot : slotTrackerMap.values()) {
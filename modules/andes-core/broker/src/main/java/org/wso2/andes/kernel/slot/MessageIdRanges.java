@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Sorted set of message ids submitted to the slot coordinator for a queue. Each id is the end message id of a slot
+ * and the slot starts after the previous id, so the set describes the message id ranges of the slots that are not
+ * yet assigned. Ids are kept as primitive longs and encoded as a compact blob of variable length deltas when stored.
+ * <p/>
+ * This class is not thread safe.
+ */
+public class MessageIdRanges {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] messageIds;
+
+    private int size;
+
+    public MessageIdRanges() {
+        messageIds = new long[INITIAL_CAPACITY];
+    }
+
+    private MessageIdRanges(long[] messageIds, int size) {
+        this.messageIds = messageIds;
+        this.size = size;
+    }
+
+    /**
+     * Add a message id
+     *
+     * @param messageId message id to add
+     * @return false if the id was already present
+     */
+    public boolean add(long messageId) {
+        int index = Arrays.binarySearch(messageIds, 0, size, messageId);
+        if (index >= 0) {
+            return false;
+        }
+        int insertionPoint = -(index + 1);
+        if (size == messageIds.length) {
+            messageIds = Arrays.copyOf(messageIds, size * 2);
+        }
+        System.arraycopy(messageIds, insertionPoint, messageIds, insertionPoint + 1, size - insertionPoint);
+        messageIds[insertionPoint] = messageId;
+        size++;
+        return true;
+    }
+
+    /**
+     * Remove a message id
+     *
+     * @param messageId message id to remove
+     * @return false if the id was not present
+     */
+    public boolean remove(long messageId) {
+        int index = Arrays.binarySearch(messageIds, 0, size, messageId);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(messageIds, index + 1, messageIds, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Get the lowest message id
+     *
+     * @return lowest message id
+     * @throws NoSuchElementException if there are no message ids
+     */
+    public long first() {
+        if (0 == size) {
+            throw new NoSuchElementException();
+        }
+        return messageIds[0];
+    }
+
+    /**
+     * Remove and return the lowest message id
+     *
+     * @return lowest message id
+     * @throws NoSuchElementException if there are no message ids
+     */
+    public long pollFirst() {
+        long firstMessageId = first();
+        remove(firstMessageId);
+        return firstMessageId;
+    }
+
+    /**
+     * Get the message id at the given position in ascending order
+     *
+     * @param index position of the message id
+     * @return message id
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return messageIds[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    /**
+     * Encode message ids as the lowest id followed by the difference to each next id, each written as an unsigned
+     * variable length integer of seven bits per byte
+     *
+     * @return encoded message ids
+     */
+    public byte[] toBytes() {
+        byte[] buffer = new byte[size * 10];
+        int position = 0;
+        long previousMessageId = 0;
+        for (int i = 0; i < size; i++) {
+            long value = messageIds[i] - previousMessageId;
+            previousMessageId = messageIds[i];
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Decode message ids encoded by {@link #toBytes()}
+     *
+     * @param bytes encoded message ids. Null is treated as no message ids.
+     * @return decoded message ids
+     */
+    public static MessageIdRanges fromBytes(byte[] bytes) {
+        if (null == bytes) {
+            return new MessageIdRanges();
+        }
+        long[] messageIds = new long[Math.max(INITIAL_CAPACITY, bytes.length)];
+        int size = 0;
+        long previousMessageId = 0;
+        int position = 0;
+        while (position < bytes.length) {
+            long value = 0;
+            int shift = 0;
+            byte currentByte;
+            do {
+                currentByte = bytes[position++];
+                value |= (long) (currentByte & 0x7F) << shift;
+                shift += 7;
+            } while ((currentByte & 0x80) != 0);
+            previousMessageId += value;
+            messageIds[size++] = previousMessageId;
+        }
+        return new MessageIdRanges(messageIds, size);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(messageIds, size));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.AndesException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Writes the last message id of each slot submitted by this node to the context store, so that {@link SlotCreator}
+ * can recover slots at startup without reading all message ids of a storage queue.
+ * <p>
+ * Checkpoints only split the message id space of a queue into ranges, hence any subset of them gives a valid set of
+ * slots. Checkpoints that fail to be written are kept and written again with the next flush. Slots between
+ * checkpoints which are lost before being written are recovered as one range, which {@link SlotCreator} splits by
+ * reading its message ids.
+ */
+final class SlotCheckpointWriter {
+
+    private static Log log = LogFactory.getLog(SlotCheckpointWriter.class);
+
+    /**
+     * Number of checkpoints written for a queue before checkpoints of already consumed messages are deleted
+     */
+    private static final int CHECKPOINTS_PER_CLEANUP = 100;
+
+    /**
+     * Slots submitted since the last flush
+     */
+    private final ConcurrentLinkedQueue<SlotSubmission> pendingSlots = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Checkpoints written by queue since the last cleanup. Only accessed by the flushing thread.
+     */
+    private final Map<String, Integer> checkpointCounts = new HashMap<>();
+
+    /**
+     * Keep a submitted slot to be written with the next flush
+     *
+     * @param slotSubmission submitted slot
+     */
+    void record(SlotSubmission slotSubmission) {
+        pendingSlots.add(slotSubmission);
+    }
+
+    /**
+     * Write checkpoints of the slots submitted since the last flush. Called periodically from a single thread.
+     */
+    void flush() {
+        Map<String, LongArrayList> slotCheckpoints = new HashMap<>();
+        List<SlotSubmission> flushedSlots = new ArrayList<>();
+        SlotSubmission slotSubmission = pendingSlots.poll();
+        while (null != slotSubmission) {
+            flushedSlots.add(slotSubmission);
+            LongArrayList endMessageIds = slotCheckpoints.get(slotSubmission.getQueueName());
+            if (null == endMessageIds) {
+                endMessageIds = new LongArrayList();
+                slotCheckpoints.put(slotSubmission.getQueueName(), endMessageIds);
+            }
+            endMessageIds.add(slotSubmission.getEndMessageId());
+            slotSubmission = pendingSlots.poll();
+        }
+
+        if (slotCheckpoints.isEmpty()) {
+            return;
+        }
+
+        try {
+            AndesContext.getInstance().getAndesContextStore().addSlotCheckpoints(slotCheckpoints);
+        } catch (AndesException e) {
+            log.warn("Error occurred while writing slot checkpoints of " + slotCheckpoints.size() + " queues. "
+                    + "Checkpoints will be written again with the next flush.", e);
+            // Checkpoints already written are skipped on the next attempt
+            pendingSlots.addAll(flushedSlots);
+            return;
+        }
+
+        for (Map.Entry<String, LongArrayList> queueCheckpoints : slotCheckpoints.entrySet()) {
+            String queueName = queueCheckpoints.getKey();
+            Integer checkpointCount = checkpointCounts.get(queueName);
+            int newCheckpointCount = (null == checkpointCount ? 0 : checkpointCount)
+                    + queueCheckpoints.getValue().size();
+            if (newCheckpointCount >= CHECKPOINTS_PER_CLEANUP) {
+                deleteConsumedCheckpoints(queueName);
+                checkpointCounts.remove(queueName);
+            } else {
+                checkpointCounts.put(queueName, newCheckpointCount);
+            }
+        }
+    }
+
+    /**
+     * Delete checkpoints of a queue lower than the first message id of the queue in the message store. Slots ending
+     * with those message ids have been consumed.
+     *
+     * @param queueName name of the storage queue
+     */
+    private void deleteConsumedCheckpoints(String queueName) {
+        try {
+            LongArrayList firstMessageId = AndesContext.getInstance().getMessageStore()
+                    .getNextNMessageIdsFromQueue(queueName, 0, 1);
+            long lowestLiveMessageId = firstMessageId.isEmpty() ? Long.MAX_VALUE : firstMessageId.get(0);
+            AndesContext.getInstance().getAndesContextStore().deleteSlotCheckpoints(queueName, lowestLiveMessageId);
+        } catch (AndesException e) {
+            log.warn("Error occurred while deleting consumed slot checkpoints of queue " + queueName, e);
+        }
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.wso2.andes.kernel.slot;
 
+import java.util.List;
+
 /**
  * This interface is responsible for coordinating with the SlotManagerClusterMode
  */
@@ -41,6 +43,13 @@ public interface SlotCoordinator {
      */
     public void updateMessageId(String queueName,long startMessageId, long endMessageId, long localSafeZone) throws ConnectionException;
 
+    /**
+     * Record last message IDs of slots of several queues at once
+     * @param slotSubmissions slots to be recorded, in the order they were submitted
+     * @throws ConnectionException
+     */
+    public void updateMessageIds(List<SlotSubmission> slotSubmissions) throws ConnectionException;
+
     /**
      *  Record safe zone to delete slots by node. This ping comes from nodes as messages are not
      *  published by them so that safe zone value keeps moving ahead.
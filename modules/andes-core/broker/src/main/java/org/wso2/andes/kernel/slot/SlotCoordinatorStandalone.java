@@ -18,6 +18,8 @@
 
 package org.wso2.andes.kernel.slot;
 
+import java.util.List;
+
 /**
  * This class is responsible of coordinating with the Standalone Slot Manager
  */
@@ -49,6 +51,16 @@ public class SlotCoordinatorStandalone implements SlotCoordinator {
         slotManagerStandalone.updateMessageID(queueName,endMessageId);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateMessageIds(List<SlotSubmission> slotSubmissions) {
+        for (SlotSubmission slotSubmission : slotSubmissions) {
+            slotManagerStandalone.updateMessageID(slotSubmission.getQueueName(), slotSubmission.getEndMessageId());
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -79,5 +91,6 @@ public class SlotCoordinatorStandalone implements SlotCoordinator {
     @Override
     public void clearAllActiveSlotRelationsToQueue(String queueName) {
         slotManagerStandalone.clearAllActiveSlotRelationsToQueue(queueName);
+        SlotMetadataHandoff.getInstance().clear(queueName);
     }
 }
@@ -24,11 +24,18 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.andes.configuration.AndesConfigurationManager;
 import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.AndesContextStore;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.MessageStore;
 
+import java.util.Collections;
+
 /**
  * SlotCreator is used to recover slots belonging to a storage queue when the cluster is restarted.
+ * <p>
+ * If slot checkpoints are enabled, slots are first recovered from the last message ids of slots submitted before the
+ * restart, which are written by {@link SlotCheckpointWriter}. Only message ids after the last checkpoint are read from
+ * the message store.
  */
 public class SlotCreator implements Runnable {
 
@@ -57,11 +64,39 @@ public class SlotCreator implements Runnable {
      */
     private final MessageStore messageStore;
 
+    /**
+     * Context store instance used to read slot checkpoints and rebuild the queue counter
+     */
+    private final AndesContextStore contextStore;
+
+    /**
+     * True if slots are recovered from slot checkpoints before reading message ids
+     */
+    private final boolean recoverFromCheckpoints;
+
     public SlotCreator(MessageStore messageStore, String queueName) {
+        this(messageStore, AndesContext.getInstance().getAndesContextStore(), queueName,
+                (Integer) AndesConfigurationManager.readValue(
+                        AndesConfiguration.PERFORMANCE_TUNING_SLOTS_SLOT_WINDOW_SIZE),
+                (Boolean) AndesConfigurationManager.readValue(AndesConfiguration.RECOVERY_SLOT_CHECKPOINTS));
+    }
+
+    /**
+     * Create a slot creator
+     *
+     * @param messageStore           message store to read message ids from
+     * @param contextStore           context store to read slot checkpoints from
+     * @param queueName              storage queue to recover
+     * @param slotSize               number of messages in a slot created by reading message ids
+     * @param recoverFromCheckpoints true to recover slots from slot checkpoints before reading message ids
+     */
+    SlotCreator(MessageStore messageStore, AndesContextStore contextStore, String queueName, int slotSize,
+                boolean recoverFromCheckpoints) {
         this.messageStore = messageStore;
+        this.contextStore = contextStore;
         this.queueName = queueName;
-        this.slotSize = AndesConfigurationManager
-                .readValue(AndesConfiguration.PERFORMANCE_TUNING_SLOTS_SLOT_WINDOW_SIZE);
+        this.slotSize = slotSize;
+        this.recoverFromCheckpoints = recoverFromCheckpoints;
     }
 
     @Override
@@ -86,7 +121,14 @@ public class SlotCreator implements Runnable {
         int restoreMessagesCounter = 0;
         long messageCountOfQueue = messageStore.getMessageCountForQueue(queueName);
 
-        LongArrayList messageIdList = messageStore.getNextNMessageIdsFromQueue(queueName, 0, slotSize);
+        long firstMessageIdToRead = 0;
+        LongArrayList slotCheckpoints = new LongArrayList();
+        if (recoverFromCheckpoints) {
+            firstMessageIdToRead = recoverSlotsFromCheckpoints(slotCheckpoints);
+        }
+
+        LongArrayList messageIdList = messageStore.getNextNMessageIdsFromQueue(queueName, firstMessageIdToRead,
+                slotSize);
         int numberOfMessages = messageIdList.size();
 
         databaseReadsCounter++;
@@ -105,13 +147,8 @@ public class SlotCreator implements Runnable {
                 log.debug("Created a slot with " + messageIdList.size() + " messages for queue (" + queueName + ")");
             }
 
-            if (AndesContext.getInstance().isClusteringEnabled()) {
-                SlotManagerClusterMode.getInstance().updateMessageID(queueName,
-                        AndesContext.getInstance().getClusterAgent().getLocalNodeIdentifier(), firstMessageID,
-                        lastMessageID, lastMessageID);
-            } else {
-                SlotManagerStandalone.getInstance().updateMessageID(queueName, lastMessageID);
-            }
+            submitSlot(firstMessageID, lastMessageID);
+            slotCheckpoints.add(lastMessageID);
 
             long currentTimeInMillis = System.currentTimeMillis();
             if (currentTimeInMillis - lastStatPublishTime > STAT_PUBLISHING_INTERVAL) {
@@ -133,5 +170,125 @@ public class SlotCreator implements Runnable {
 
         log.info("Recovered " + restoreMessagesCounter + " messages for queue \"" + queueName + "\" using "
                 + databaseReadsCounter + " database calls");
+
+        if (recoverFromCheckpoints && !slotCheckpoints.isEmpty()) {
+            writeSlotCheckpoints(slotCheckpoints);
+        }
+    }
+
+    /**
+     * Write checkpoints of the slots created by reading message ids, so that they are not read again on the next
+     * restart
+     *
+     * @param slotCheckpoints last message ids of the created slots
+     */
+    private void writeSlotCheckpoints(LongArrayList slotCheckpoints) {
+        try {
+            contextStore.addSlotCheckpoints(Collections.singletonMap(queueName, slotCheckpoints));
+        } catch (AndesException e) {
+            log.warn("Error occurred while writing slot checkpoints of queue " + queueName, e);
+        }
+    }
+
+    /**
+     * Submit slots between the stored slot checkpoints of the queue. Checkpoints of messages which are already
+     * consumed are deleted.
+     *
+     * @param slotCheckpoints list to add the last message ids of slots created by reading message ids
+     * @return message id to start reading message ids from, 0 if the checkpoints could not be read
+     * @throws AndesException
+     */
+    private long recoverSlotsFromCheckpoints(LongArrayList slotCheckpoints) throws AndesException {
+        long firstMessageId;
+        LongArrayList checkpoints;
+        try {
+            LongArrayList firstMessageIdList = messageStore.getNextNMessageIdsFromQueue(queueName, 0, 1);
+            if (firstMessageIdList.isEmpty()) {
+                contextStore.deleteSlotCheckpoints(queueName, Long.MAX_VALUE);
+                return 0;
+            }
+            firstMessageId = firstMessageIdList.get(0);
+            // Checkpoints lower than the first message belong to consumed slots
+            contextStore.deleteSlotCheckpoints(queueName, firstMessageId);
+            checkpoints = contextStore.getSlotCheckpoints(queueName);
+        } catch (AndesException e) {
+            log.warn("Could not read slot checkpoints of queue " + queueName + ". Reading all message ids.", e);
+            return 0;
+        }
+
+        long startMessageId = firstMessageId;
+        int recoveredSlotCount = 0;
+        for (int i = 0; i < checkpoints.size(); i++) {
+            long endMessageId = checkpoints.get(i);
+            if (endMessageId >= startMessageId) {
+                recoveredSlotCount += recoverSlotsInRange(startMessageId, endMessageId, slotCheckpoints);
+                startMessageId = endMessageId + 1;
+            }
+        }
+
+        log.info("Recovered " + recoveredSlotCount + " slots from checkpoints for queue \"" + queueName
+                + "\". Reading message ids from " + startMessageId);
+        return startMessageId;
+    }
+
+    /**
+     * Submit the messages between two consecutive checkpoints as a slot. A range holding more messages than a slot,
+     * which is left when checkpoints failed to be written, is split into slots of the configured size by reading its
+     * message ids.
+     *
+     * @param startMessageId  first message id of the range
+     * @param endMessageId    last message id of the range
+     * @param slotCheckpoints list to add the last message ids of slots created by reading message ids
+     * @return number of slots submitted
+     * @throws AndesException
+     */
+    private int recoverSlotsInRange(long startMessageId, long endMessageId, LongArrayList slotCheckpoints)
+            throws AndesException {
+        long messageCount = messageStore.getMessageCountForQueueInRange(queueName, startMessageId, endMessageId);
+        if (messageCount == 0) {
+            return 0;
+        }
+        if (messageCount <= slotSize) {
+            submitSlot(startMessageId, endMessageId);
+            return 1;
+        }
+
+        int slotCount = 0;
+        long firstMessageIdToRead = startMessageId;
+        while (firstMessageIdToRead <= endMessageId) {
+            LongArrayList messageIdList = messageStore.getNextNMessageIdsFromQueue(queueName, firstMessageIdToRead,
+                    slotSize);
+            if (messageIdList.isEmpty() || messageIdList.get(0) > endMessageId) {
+                break;
+            }
+            long lastMessageId = Math.min(messageIdList.get(messageIdList.size() - 1), endMessageId);
+            submitSlot(messageIdList.get(0), lastMessageId);
+            if (lastMessageId < endMessageId) {
+                slotCheckpoints.add(lastMessageId);
+            }
+            slotCount++;
+            firstMessageIdToRead = lastMessageId + 1;
+        }
+
+        log.info("Split " + messageCount + " messages between checkpoints " + startMessageId + " and "
+                + endMessageId + " into " + slotCount + " slots for queue \"" + queueName + "\"");
+        return slotCount;
+    }
+
+    /**
+     * Submit a recovered slot to the slot manager
+     *
+     * @param firstMessageId first message id of the slot
+     * @param lastMessageId  last message id of the slot
+     * @throws AndesException
+     */
+    void submitSlot(long firstMessageId, long lastMessageId) throws AndesException {
+        if (AndesContext.getInstance().isClusteringEnabled()) {
+            SlotManagerClusterMode.getInstance().updateMessageID(queueName,
+                    AndesContext.getInstance().getClusterAgent().getLocalNodeIdentifier(), firstMessageId,
+                    lastMessageId, lastMessageId);
+        } else {
+            SlotManagerStandalone.getInstance().updateMessageID(queueName, lastMessageId);
+        }
     }
 }
@@ -51,7 +51,7 @@ public final class SlotDeliveryWorkerManager implements StoreHealthListener, Net
     private static Log log = LogFactory.getLog(SlotDeliveryWorkerManager.class);
 
     /**
-     * Delay for waiting for an idle task
+     * Delay for processing an idle task again if it is not signalled before
      */
     private static final long IDLE_TASK_DELAY_MILLIS = 100;
 
@@ -62,6 +62,11 @@ public final class SlotDeliveryWorkerManager implements StoreHealthListener, Net
 
     private final TaskExecutorService<MessageDeliveryTask> taskManager;
 
+    /**
+     * Reads metadata of slots ahead of delivery for the {@link MessageDeliveryTask}s
+     */
+    private final SlotMetadataPrefetcher metadataPrefetcher;
+
     private SlotDeliveryWorkerManager() {
         int numberOfThreads = AndesConfigurationManager
                 .readValue(AndesConfiguration.PERFORMANCE_TUNING_SLOTS_WORKER_THREAD_COUNT);
@@ -69,6 +74,9 @@ public final class SlotDeliveryWorkerManager implements StoreHealthListener, Net
                 .setNameFormat("MessageDeliveryTaskThreadPool-%d").build();
         taskManager = new TaskExecutorService<>(numberOfThreads, IDLE_TASK_DELAY_MILLIS, threadFactory);
         taskManager.setExceptionHandler(new DeliveryTaskExceptionHandler());
+        ThreadFactory prefetcherThreadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("SlotMetadataPrefetcher-%d").setDaemon(true).build();
+        metadataPrefetcher = new SlotMetadataPrefetcher(numberOfThreads, prefetcherThreadFactory);
         AndesContext andesContext = AndesContext.getInstance();
 
         if (andesContext.isClusteringEnabled()) {
@@ -98,9 +106,30 @@ public final class SlotDeliveryWorkerManager implements StoreHealthListener, Net
 
         if (null != messageDeliveryTask) {
             messageDeliveryTask.rescheduleMessagesForDelivery(messages);
+            taskManager.signal(storageQueueName);
         }
     }
 
+    /**
+     * Wake up the {@link MessageDeliveryTask} of the storage queue if it is idle, since there may be messages to
+     * deliver. Has no effect if there is no delivery task for the storage queue on this node.
+     *
+     * @param storageQueueName storage queue name
+     */
+    public void notifyMessagesAvailable(String storageQueueName) {
+        taskManager.signal(storageQueueName);
+    }
+
+    /**
+     * Check whether messages of the storage queue are delivered by a {@link MessageDeliveryTask} of this node
+     *
+     * @param storageQueueName storage queue name
+     * @return true if there is a delivery task for the storage queue
+     */
+    boolean hasDeliveryTask(String storageQueueName) {
+        return null != taskManager.getTask(storageQueueName);
+    }
+
     /**
      * When a subscription is added this method will be called. if this is the first subscriber for the destination
      * a {@link MessageDeliveryTask} will be added to the {@link TaskExecutorService}
@@ -116,7 +145,7 @@ public final class SlotDeliveryWorkerManager implements StoreHealthListener, Net
         MessageDeliveryTask messageDeliveryTask =
                 new MessageDeliveryTask(destination, protocolType, storageQueueName,
                                         destinationType, MessagingEngine.getInstance().getSlotCoordinator(),
-                                        MessageFlusher.getInstance());
+                                        MessageFlusher.getInstance(), metadataPrefetcher);
         taskManager.add(messageDeliveryTask);
     }
 
@@ -18,7 +18,9 @@
 
 package org.wso2.andes.kernel.slot;
 
+import com.google.common.util.concurrent.Striped;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
 import com.gs.collections.impl.map.mutable.ConcurrentHashMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -29,7 +31,11 @@ import org.wso2.andes.server.cluster.coordination.SlotAgent;
 import org.wso2.andes.server.cluster.coordination.hazelcast.HazelcastAgent;
 import org.wso2.andes.server.cluster.coordination.rdbms.DatabaseSlotAgent;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.Executors;
@@ -37,6 +43,8 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Slot Manager Cluster Mode is responsible of slot allocating, slot creating,
@@ -52,11 +60,28 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
 
     private static final int SAFE_ZONE_EVALUATION_INTERVAL = 5 * 1000;
 
+    /**
+     * Number of lock stripes used to guard slot operations of queues and nodes. Operations on different queues
+     * proceed in parallel unless their names map to the same stripe.
+     */
+    private static final int LOCK_STRIPE_COUNT = 1024;
+
     //safe zone calculator
     private final SlotDeleteSafeZoneCalc slotDeleteSafeZoneCalc;
 
     //first message id of fresh slot
-    private long firstMessageId;
+    private final AtomicLong firstMessageId;
+
+    /**
+     * Locks serializing slot operations of a queue (slot assignment, message ID updates and safe zone lower bound
+     * calculation)
+     */
+    private final Striped<Lock> queueLocks = Striped.lock(LOCK_STRIPE_COUNT);
+
+    /**
+     * Locks serializing slot assignment changes of a node. Always acquired after the queue lock when both are needed.
+     */
+    private final Striped<Lock> nodeLocks = Striped.lock(LOCK_STRIPE_COUNT);
 
     /**
      * Denotes whether a slot recovery task is scheduled
@@ -71,6 +96,12 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
 
     private SlotAgent slotAgent;
 
+    /**
+     * Last message ID of the slots submitted by each node for each queue
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Long>> lastSubmittedMessageIds =
+            new ConcurrentHashMap<>();
+
     private SlotManagerClusterMode() {
 
         //start a thread to calculate slot delete safe zone
@@ -88,7 +119,7 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
             throw new RuntimeException("Unknown slot management storage mode \"" + slotMgtMode + "\"");
         }
         log.info("Using " + slotMgtMode + " based slot management mode");
-        firstMessageId = INITIAL_MESSAGE_ID;
+        firstMessageId = new AtomicLong(INITIAL_MESSAGE_ID);
         slotRecoveryScheduled = new AtomicBoolean(false);
 
     }
@@ -115,8 +146,9 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
          *First look in the unassigned slots pool for free slots. These slots are previously own by
          * other nodes
          */
-        String lockKey = queueName + SlotManagerClusterMode.class;
-        synchronized (lockKey.intern()) {
+        Lock queueLock = queueLocks.get(queueName);
+        queueLock.lock();
+        try {
             slotToBeAssigned = getUnassignedSlot(queueName);
 
             if (null == slotToBeAssigned) {
@@ -132,6 +164,8 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
                     log.debug("Assigning slot for node : " + nodeId + " | " + slotToBeAssigned);
                 }
             }
+        } finally {
+            queueLock.unlock();
         }
 
         return slotToBeAssigned;
@@ -149,9 +183,8 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
 
         Slot slotToBeAssigned = null;
         Long endMessageId = null;
-        TreeSet<Long> messageIDSet;
         // Get message id set from database
-        messageIDSet = slotAgent.getSlotBasedMessageIds(queueName);
+        MessageIdRanges messageIDSet = slotAgent.getSlotBasedMessageIds(queueName);
         //start msgID will be last assigned ID + 1 so that slots are created with no
         // message ID gaps in-between
         long lastAssignedId = slotAgent.getQueueToLastAssignedId(queueName);
@@ -159,8 +192,8 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
          * End message id that needs to be allocated to this slot
          * End messageID will be the lowest in published message ID list. Get and remove
          */
-        if(null != messageIDSet){
-            endMessageId = messageIDSet.pollFirst();
+        if (!messageIDSet.isEmpty()) {
+            endMessageId = messageIDSet.first();
         }
         /**
          * Check the current slot allocation not interfere into the range where expiry deletion happens.
@@ -206,23 +239,19 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
     }
 
     /**
-     * Get an unassigned slot (slots dropped by sudden subscription closes)
+     * Get an unassigned slot (slots dropped by sudden subscription closes). Caller must hold the queue lock.
      *
      * @param queueName name of the queue slot is required
      * @return slot or null if cannot find
      */
     private Slot getUnassignedSlot(String queueName) throws AndesException {
-        Slot slotToBeAssigned;
-        String lockKey = queueName + SlotManagerClusterMode.class;
-        synchronized (lockKey.intern()) {
-            //get oldest unassigned slot from database
-            slotToBeAssigned = slotAgent.getUnAssignedSlot(queueName);
+        //get oldest unassigned slot from database
+        Slot slotToBeAssigned = slotAgent.getUnAssignedSlot(queueName);
 
-            if (log.isDebugEnabled()) {
-                if (null != slotToBeAssigned) {
-                    log.debug("Giving a slot from unassigned slots. Slot: " + slotToBeAssigned +
-                            " to queue: " + queueName);
-                }
+        if (log.isDebugEnabled()) {
+            if (null != slotToBeAssigned) {
+                log.debug("Giving a slot from unassigned slots. Slot: " + slotToBeAssigned +
+                        " to queue: " + queueName);
             }
         }
         return slotToBeAssigned;
@@ -230,22 +259,18 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
 
     /**
      * Get an overlapped slot by nodeId and the queue name. These are slots
-     * which are overlapped with some slots that were acquired by given node
+     * which are overlapped with some slots that were acquired by given node. Caller must hold the queue lock.
      *
      * @param nodeId    id of the node
      * @param queueName name of the queue slot is required
      * @return slot or null if not found
      */
     private Slot getOverlappedSlot(String nodeId, String queueName) throws AndesException {
-        Slot slotToBeAssigned;
-        String lockKey = queueName + SlotManagerClusterMode.class;
-        synchronized (lockKey.intern()) {
-            //get oldest overlapped slot from database
-            slotToBeAssigned = slotAgent.getOverlappedSlot(nodeId, queueName);
-            if (log.isDebugEnabled()) {
-                if (null != slotToBeAssigned) {
-                    log.debug(" Giving overlapped slot id=" + slotToBeAssigned.getId() + " queue name= " + queueName);
-                }
+        //get oldest overlapped slot from database
+        Slot slotToBeAssigned = slotAgent.getOverlappedSlot(nodeId, queueName);
+        if (log.isDebugEnabled()) {
+            if (null != slotToBeAssigned) {
+                log.debug(" Giving overlapped slot id=" + slotToBeAssigned.getId() + " queue name= " + queueName);
             }
         }
         return slotToBeAssigned;
@@ -260,10 +285,103 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
      */
     private void updateSlotAssignmentMap(String queueName, Slot allocatedSlot, String nodeId) throws AndesException {
         //Lock is used because this method will be called by multiple nodes at the same time
-        String lockKey = nodeId + SlotManagerClusterMode.class;
-        synchronized (lockKey.intern()) {
+        Lock nodeLock = nodeLocks.get(nodeId);
+        nodeLock.lock();
+        try {
             //Update assigned node, assigned queue and set state to assigned
             slotAgent.updateSlotAssignment(nodeId, queueName, allocatedSlot);
+        } finally {
+            nodeLock.unlock();
+        }
+    }
+
+    /**
+     * Record slots submitted by a node. Message IDs of the slots of a queue are stored together.
+     *
+     * @param nodeId          Node ID of the node that is sending the request.
+     * @param slotSubmissions slots in the order the node submitted them
+     */
+    public void updateSubmittedMessageIDs(String nodeId, List<SlotSubmission> slotSubmissions)
+            throws AndesException {
+        Map<String, List<SlotSubmission>> submissionsByQueue = new LinkedHashMap<>();
+        for (SlotSubmission slotSubmission : slotSubmissions) {
+            List<SlotSubmission> queueSubmissions = submissionsByQueue.get(slotSubmission.getQueueName());
+            if (null == queueSubmissions) {
+                queueSubmissions = new ArrayList<>();
+                submissionsByQueue.put(slotSubmission.getQueueName(), queueSubmissions);
+            }
+            queueSubmissions.add(slotSubmission);
+        }
+
+        for (Map.Entry<String, List<SlotSubmission>> queueSubmissions : submissionsByQueue.entrySet()) {
+            updateSubmittedMessageIDs(queueSubmissions.getKey(), nodeId, queueSubmissions.getValue());
+        }
+    }
+
+    /**
+     * Record a slot submitted by a node.
+     *
+     * @param queueName               name of the queue which this message ID belongs to
+     * @param nodeId                  Node ID of the node that is sending the request.
+     * @param startMessageIdInTheSlot start message ID of the slot
+     * @param lastMessageIdInTheSlot  last message ID of the slot
+     * @param localSafeZone           Local safe zone of the requesting node.
+     */
+    public void updateSubmittedMessageID(String queueName, String nodeId, long startMessageIdInTheSlot,
+                                         long lastMessageIdInTheSlot, long localSafeZone) throws AndesException {
+        updateSubmittedMessageIDs(queueName, nodeId, Collections.singletonList(
+                new SlotSubmission(queueName, startMessageIdInTheSlot, lastMessageIdInTheSlot, localSafeZone)));
+    }
+
+    /**
+     * Record slots of a queue submitted by a node. Slots of a queue are submitted by a node in message ID order,
+     * hence the part of a slot up to the last message ID the node submitted for the queue was recorded by an earlier
+     * attempt of the same submission and is skipped. This keeps a retried submission from creating overlapping
+     * slots.
+     *
+     * @param queueName       name of the queue
+     * @param nodeId          Node ID of the node that is sending the request.
+     * @param slotSubmissions slots of the queue in message ID order
+     */
+    private void updateSubmittedMessageIDs(String queueName, String nodeId, List<SlotSubmission> slotSubmissions)
+            throws AndesException {
+        ConcurrentHashMap<String, Long> lastSubmittedMessageIdsOfNode = lastSubmittedMessageIds.get(nodeId);
+        if (null == lastSubmittedMessageIdsOfNode) {
+            lastSubmittedMessageIds.putIfAbsent(nodeId, new ConcurrentHashMap<String, Long>());
+            lastSubmittedMessageIdsOfNode = lastSubmittedMessageIds.get(nodeId);
+        }
+
+        Lock queueLock = queueLocks.get(queueName);
+        queueLock.lock();
+        try {
+            Long lastSubmittedMessageId = lastSubmittedMessageIdsOfNode.get(queueName);
+            LongArrayList messageIds = new LongArrayList(slotSubmissions.size());
+            SlotSubmission lastRecordedSubmission = null;
+
+            for (SlotSubmission slotSubmission : slotSubmissions) {
+                long startMessageIdInTheSlot = slotSubmission.getStartMessageId();
+                long lastMessageIdInTheSlot = slotSubmission.getEndMessageId();
+                if (null != lastSubmittedMessageId) {
+                    if (lastMessageIdInTheSlot <= lastSubmittedMessageId) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Skipping slot " + startMessageIdInTheSlot + " to " + lastMessageIdInTheSlot
+                                    + " of queue " + queueName + " already submitted by node " + nodeId);
+                        }
+                        continue;
+                    }
+                    startMessageIdInTheSlot = Math.max(startMessageIdInTheSlot, lastSubmittedMessageId + 1);
+                }
+                recordSlot(queueName, nodeId, startMessageIdInTheSlot, lastMessageIdInTheSlot, messageIds);
+                lastSubmittedMessageId = lastMessageIdInTheSlot;
+                lastRecordedSubmission = slotSubmission;
+            }
+
+            if (null != lastRecordedSubmission) {
+                storeSlots(queueName, nodeId, messageIds, lastRecordedSubmission.getLocalSafeZone());
+                lastSubmittedMessageIdsOfNode.put(queueName, lastSubmittedMessageId);
+            }
+        } finally {
+            queueLock.unlock();
         }
     }
 
@@ -278,96 +396,130 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
      */
     public void updateMessageID(String queueName, String nodeId, long startMessageIdInTheSlot,
                                 long lastMessageIdInTheSlot, long localSafeZone) throws AndesException {
+        Lock queueLock = queueLocks.get(queueName);
+        queueLock.lock();
+        try {
+            LongArrayList messageIds = new LongArrayList(1);
+            recordSlot(queueName, nodeId, startMessageIdInTheSlot, lastMessageIdInTheSlot, messageIds);
+            storeSlots(queueName, nodeId, messageIds, localSafeZone);
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Find the message ID to store for a submitted slot, breaking the slot on already assigned slots it overlaps.
+     * Caller must hold the queue lock.
+     *
+     * @param queueName               name of the queue which this message ID belongs to
+     * @param nodeId                  Node ID of the node that is sending the request.
+     * @param startMessageIdInTheSlot start message ID of the slot
+     * @param lastMessageIdInTheSlot  last message ID of the slot
+     * @param messageIds              message IDs to store, the message ID of the slot is added to
+     */
+    private void recordSlot(String queueName, String nodeId, long startMessageIdInTheSlot,
+                            long lastMessageIdInTheSlot, LongArrayList messageIds) throws AndesException {
 
         //setting up first message id of the slot
-        if (firstMessageId > startMessageIdInTheSlot || firstMessageId == -1) {
-            firstMessageId = startMessageIdInTheSlot;
+        long currentFirstMessageId = firstMessageId.get();
+        while (currentFirstMessageId > startMessageIdInTheSlot || currentFirstMessageId == INITIAL_MESSAGE_ID) {
+            if (firstMessageId.compareAndSet(currentFirstMessageId, startMessageIdInTheSlot)) {
+                break;
+            }
+            currentFirstMessageId = firstMessageId.get();
         }
 
         if (slotRecoveryScheduled.get()) {
             queuesToRecover.remove(queueName);
         }
 
-        // Read message Id set for slots from store
-        TreeSet<Long> messageIdSet;
-        messageIdSet = slotAgent.getSlotBasedMessageIds(queueName);
+        //Get last assigned message id from database
+        long lastAssignedMessageId = slotAgent.getQueueToLastAssignedId(queueName);
 
-        String lockKey = queueName + SlotManagerClusterMode.class;
-        synchronized (lockKey.intern()) {
-            //Get last assigned message id from database
-            long lastAssignedMessageId = slotAgent.getQueueToLastAssignedId(queueName);
+        // Check if input slot's start message ID is less than last assigned message ID
+        if (startMessageIdInTheSlot < lastAssignedMessageId) {
+            if (log.isDebugEnabled()) {
+                log.debug("Found overlapping slots during slot submit: " +
+                        startMessageIdInTheSlot + " to : " + lastMessageIdInTheSlot +
+                        ". Comparing to lastAssignedID : " + lastAssignedMessageId);
+            }
+            // Find overlapping slots
+            TreeSet<Slot> overlappingSlots = getOverlappedAssignedSlots(queueName, startMessageIdInTheSlot,
+                    lastMessageIdInTheSlot);
+
+            if (!(overlappingSlots.isEmpty())) {
 
-            // Check if input slot's start message ID is less than last assigned message ID
-            if (startMessageIdInTheSlot < lastAssignedMessageId) {
                 if (log.isDebugEnabled()) {
-                    log.debug("Found overlapping slots during slot submit: " +
-                            startMessageIdInTheSlot + " to : " + lastMessageIdInTheSlot +
-                            ". Comparing to lastAssignedID : " + lastAssignedMessageId);
+                    log.debug("Found " + overlappingSlots.size() + " overlapping slots.");
                 }
-                // Find overlapping slots
-                TreeSet<Slot> overlappingSlots = getOverlappedAssignedSlots(queueName, startMessageIdInTheSlot,
-                        lastMessageIdInTheSlot);
-
-                if (!(overlappingSlots.isEmpty())) {
-
+                // Following means that we have a piece of the slot exceeding the earliest
+                // assigned slot. breaking that piece and adding it as a new,unassigned slot.
+                if (startMessageIdInTheSlot < overlappingSlots.first().getStartMessageId()) {
+                    Slot leftExtraSlot = new Slot(startMessageIdInTheSlot, overlappingSlots.first().
+                            getStartMessageId() - 1, queueName);
                     if (log.isDebugEnabled()) {
-                        log.debug("Found " + overlappingSlots.size() + " overlapping slots.");
-                    }
-                    // Following means that we have a piece of the slot exceeding the earliest
-                    // assigned slot. breaking that piece and adding it as a new,unassigned slot.
-                    if (startMessageIdInTheSlot < overlappingSlots.first().getStartMessageId()) {
-                        Slot leftExtraSlot = new Slot(startMessageIdInTheSlot, overlappingSlots.first().
-                                getStartMessageId() - 1, queueName);
-                        if (log.isDebugEnabled()) {
-                            log.debug("Left Extra Slot in overlapping slots : " + leftExtraSlot);
-                        }
+                        log.debug("Left Extra Slot in overlapping slots : " + leftExtraSlot);
                     }
-                    // This means that we have a piece of the slot exceeding the latest assigned slot.
-                    // breaking that piece and adding it as a new,unassigned slot.
-                    if (lastMessageIdInTheSlot > overlappingSlots.last().getEndMessageId()) {
-                        Slot rightExtraSlot = new Slot(overlappingSlots.last().getEndMessageId() + 1,
-                                lastMessageIdInTheSlot, queueName);
-
-                        if (log.isDebugEnabled()) {
-                            log.debug("RightExtra in overlapping slot : " + rightExtraSlot);
-                        }
-                        //Update last message ID - expand ongoing slot to cater this leftover part.
-                        slotAgent.addMessageId(queueName, lastMessageIdInTheSlot);
+                }
+                // This means that we have a piece of the slot exceeding the latest assigned slot.
+                // breaking that piece and adding it as a new,unassigned slot.
+                if (lastMessageIdInTheSlot > overlappingSlots.last().getEndMessageId()) {
+                    Slot rightExtraSlot = new Slot(overlappingSlots.last().getEndMessageId() + 1,
+                            lastMessageIdInTheSlot, queueName);
 
-                        if (log.isDebugEnabled()) {
-                            log.debug(lastMessageIdInTheSlot + " added to store " +
-                                    "(RightExtraSlot). Current values in " +
-                                    "store " + messageIdSet);
-                        }
-                    }
-                } else {
-                    /*
-                     * The fact that the slot ended up in this condition means that, all previous slots within this
-					 * range have been already processed and deleted. This is a very rare scenario.
-					 */
                     if (log.isDebugEnabled()) {
-                        log.debug("A submit slot request has come from the past after deletion of any " +
-                                "possible overlapping slots. nodeId : " + nodeId + " StartMessageID : " +
-                                startMessageIdInTheSlot + " EndMessageID : " + lastMessageIdInTheSlot);
+                        log.debug("RightExtra in overlapping slot : " + rightExtraSlot);
                     }
+                    //Update last message ID - expand ongoing slot to cater this leftover part.
+                    messageIds.add(lastMessageIdInTheSlot);
 
-                    slotAgent.addMessageId(queueName, lastMessageIdInTheSlot);
+                    if (log.isDebugEnabled()) {
+                        log.debug(lastMessageIdInTheSlot + " added to store (RightExtraSlot)");
+                    }
                 }
             } else {
-                //Update the store only if the last assigned message ID is less than the new start message ID
-                slotAgent.addMessageId(queueName, lastMessageIdInTheSlot);
-
+                /*
+                 * The fact that the slot ended up in this condition means that, all previous slots within this
+                 * range have been already processed and deleted. This is a very rare scenario.
+                 */
                 if (log.isDebugEnabled()) {
-                    log.debug("No overlapping slots found during slot submit " + startMessageIdInTheSlot + " to : " +
-                            lastMessageIdInTheSlot + ". Added msgID " +
-                            lastMessageIdInTheSlot + " to store");
+                    log.debug("A submit slot request has come from the past after deletion of any " +
+                            "possible overlapping slots. nodeId : " + nodeId + " StartMessageID : " +
+                            startMessageIdInTheSlot + " EndMessageID : " + lastMessageIdInTheSlot);
                 }
+
+                messageIds.add(lastMessageIdInTheSlot);
+            }
+        } else {
+            //Update the store only if the last assigned message ID is less than the new start message ID
+            messageIds.add(lastMessageIdInTheSlot);
+
+            if (log.isDebugEnabled()) {
+                log.debug("No overlapping slots found during slot submit " + startMessageIdInTheSlot + " to : " +
+                        lastMessageIdInTheSlot + ". Added msgID " +
+                        lastMessageIdInTheSlot + " to store");
             }
-            //record local safe zone
-            slotAgent.setLocalSafeZoneOfNode(nodeId, localSafeZone);
         }
     }
 
+    /**
+     * Store message IDs of submitted slots of a queue and the local safe zone of the submitting node. Caller must
+     * hold the queue lock.
+     *
+     * @param queueName     name of the queue
+     * @param nodeId        Node ID of the node that submitted the slots
+     * @param messageIds    message IDs of the slots
+     * @param localSafeZone Local safe zone of the node when it submitted the last of the slots
+     */
+    private void storeSlots(String queueName, String nodeId, LongArrayList messageIds, long localSafeZone)
+            throws AndesException {
+        if (!messageIds.isEmpty()) {
+            slotAgent.addMessageIds(queueName, messageIds);
+        }
+        //record local safe zone
+        slotAgent.setLocalSafeZoneOfNode(nodeId, localSafeZone);
+    }
+
     /**
      * This method will reassigned slots which are owned by a node to a free slots pool
      *
@@ -375,6 +527,8 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
      */
     public void reassignSlotsWhenMemberLeaves(String nodeId) throws AndesException {
 
+        lastSubmittedMessageIds.remove(nodeId);
+
         TreeSet<Slot> assignedSlotsSet;
         //Get all assigned nodes by node id
         assignedSlotsSet = slotAgent.getAssignedSlotsByNodeId(nodeId);
@@ -415,13 +569,16 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
             log.debug("Trying to delete slot. safeZone= " + getSlotDeleteSafeZone() + " startMsgID: " + startMsgId);
         }
         if (slotDeleteSafeZone > endMsgId) {
-            String lockKey = nodeId + SlotManagerClusterMode.class;
-            synchronized (lockKey.intern()) {
+            Lock nodeLock = nodeLocks.get(nodeId);
+            nodeLock.lock();
+            try {
                 slotDeleted = slotAgent.deleteSlot(nodeId, storageQueueName, startMsgId, endMsgId);
                 if (log.isDebugEnabled()) {
                     log.debug(" Deleted slot id = " + emptySlot.getId() + " queue name = " + storageQueueName
                             + " deleteSuccess: " + slotDeleted);
                 }
+            } finally {
+                nodeLock.unlock();
             }
         } else {
             if (log.isDebugEnabled()) {
@@ -439,13 +596,16 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
      * @param queueName name of the queue whose slots to be reassigned
      */
     public void reAssignSlotWhenNoSubscribers(String nodeId, String queueName) throws AndesException {
-        String lockKeyForNodeId = nodeId + SlotManagerClusterMode.class;
-        synchronized (lockKeyForNodeId.intern()) {
+        Lock nodeLock = nodeLocks.get(nodeId);
+        nodeLock.lock();
+        try {
             slotAgent.deleteSlotAssignmentByQueueName(nodeId, queueName);
             if (log.isDebugEnabled()) {
                 log.debug("Cleared assigned slots of queue " + queueName + " Assigned to node " +
                         nodeId);
             }
+        } finally {
+            nodeLock.unlock();
         }
     }
 
@@ -515,7 +675,8 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
     }
 
     /**
-     * Get an ordered set of existing, assigned slots that overlap with the input slot range.
+     * Get an ordered set of existing, assigned slots that overlap with the input slot range. Caller must hold the
+     * queue lock.
      *
      * @param queueName  name of destination queue
      * @param startMsgID start message ID of input slot
@@ -528,40 +689,36 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
         TreeSet<Slot> overlappedSlots = new TreeSet<>();
         TreeSet<Slot> assignedOverlappingSlots = new TreeSet<>();
 
-        String lockKey = queueName + SlotManagerClusterMode.class;
+        // Get all slots created for given queue name
+        TreeSet<Slot> slotListForQueue = slotAgent.getAllSlotsByQueueName(queueName);
 
-        synchronized (lockKey.intern()) {
-            // Get all slots created for given queue name
-            TreeSet<Slot> slotListForQueue = slotAgent.getAllSlotsByQueueName(queueName);
-
-            // Check each slot for overlapped slots
-            for (Slot slot : slotListForQueue) {
-                if (endMsgID < slot.getStartMessageId()) {
-                    continue; // skip this one, its below our range
-                }
-                if (startMsgID > slot.getEndMessageId()) {
-                    continue; // skip this one, its above our range
-                }
+        // Check each slot for overlapped slots
+        for (Slot slot : slotListForQueue) {
+            if (endMsgID < slot.getStartMessageId()) {
+                continue; // skip this one, its below our range
+            }
+            if (startMsgID > slot.getEndMessageId()) {
+                continue; // skip this one, its above our range
+            }
 
-                if (SlotState.ASSIGNED == slot.getCurrentState()) {
-                    assignedOverlappingSlots.add(slot);
-                }
+            if (SlotState.ASSIGNED == slot.getCurrentState()) {
+                assignedOverlappingSlots.add(slot);
+            }
 
-                // Set slot as overlapped if not skipped
-                slot.setAnOverlappingSlot(true);
+            // Set slot as overlapped if not skipped
+            slot.setAnOverlappingSlot(true);
 
-                if (log.isDebugEnabled()) {
-                    log.debug("Marked already assigned slot as an overlapping slot. Slot= " + slot.getId());
-                }
+            if (log.isDebugEnabled()) {
+                log.debug("Marked already assigned slot as an overlapping slot. Slot= " + slot.getId());
+            }
 
-                overlappedSlots.add(slot);
+            overlappedSlots.add(slot);
 
-                if (log.isDebugEnabled()) {
-                    log.debug("Found an overlapping slot : " + slot);
-                }
+            if (log.isDebugEnabled()) {
+                log.debug("Found an overlapping slot : " + slot);
             }
-            slotAgent.updateOverlappedSlots(queueName, assignedOverlappingSlots);
         }
+        slotAgent.updateOverlappedSlots(queueName, assignedOverlappingSlots);
         return overlappedSlots;
     }
 
@@ -658,18 +815,21 @@ public class SlotManagerClusterMode extends AbstractSlotManager {
     @Override
     public long getSafeZoneLowerBoundId(String queueName) throws AndesException {
         long lowerBoundId = -1;
-        String lockKey = queueName + SlotManagerClusterMode.class;
-        synchronized (lockKey.intern()) {
+        Lock queueLock = queueLocks.get(queueName);
+        queueLock.lock();
+        try {
             //get the upper bound messageID for each unassigned slots as a set for the specific queue
-            TreeSet<Long> messageIDSet = slotAgent.getSlotBasedMessageIds(queueName);
+            MessageIdRanges messageIDSet = slotAgent.getSlotBasedMessageIds(queueName);
 
             if (messageIDSet.size() >= safetySlotCount) {
-                lowerBoundId = messageIDSet.toArray(new Long[messageIDSet.size()])[safetySlotCount - 1] + 1;
+                lowerBoundId = messageIDSet.get(safetySlotCount - 1) + 1;
                 /**
                  * Inform the slot manager regarding the current expiry deletion range and queue
                  */
                 setDeletionTaskState(queueName, lowerBoundId);
             }
+        } finally {
+            queueLock.unlock();
         }
         return lowerBoundId;
     }
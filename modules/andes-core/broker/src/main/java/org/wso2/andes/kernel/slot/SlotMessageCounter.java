@@ -32,6 +32,7 @@ import org.wso2.andes.kernel.AndesMessageMetadata;
 import org.wso2.andes.kernel.AndesQueue;
 import org.wso2.andes.kernel.MessagingEngine;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +74,18 @@ public class SlotMessageCounter {
 
     private static final int SLOT_SUBMIT_LOOP_SKIP_COUNT_THRESHOLD = 10;
 
+    /**
+     * Whether slots of queues with local delivery tasks are submitted as soon as their messages are committed
+     */
+    private final boolean lowLatencyDelivery;
+
+    private final SlotMetadataHandoff slotMetadataHandoff = SlotMetadataHandoff.getInstance();
+
+    /**
+     * Writes the last message ids of submitted slots for faster recovery, null if slot checkpoints are disabled
+     */
+    private final SlotCheckpointWriter slotCheckpointWriter;
+
     /**
      * Time between successive slot submit scheduled tasks.
      * <p>
@@ -93,6 +106,14 @@ public class SlotMessageCounter {
         timeOutForMessagesInQueue = AndesConfigurationManager
                 .readValue(AndesConfiguration.PERFORMANCE_TUNING_SLOTS_MESSAGE_ACCUMULATION_TIMEOUT);
 
+        Boolean lowLatencyDeliveryEnabled = AndesConfigurationManager
+                .readValue(AndesConfiguration.PERFORMANCE_TUNING_SLOTS_LOW_LATENCY_DELIVERY);
+        lowLatencyDelivery = lowLatencyDeliveryEnabled && !AndesContext.getInstance().isClusteringEnabled();
+
+        Boolean slotCheckpointsEnabled = AndesConfigurationManager
+                .readValue(AndesConfiguration.RECOVERY_SLOT_CHECKPOINTS);
+        slotCheckpointWriter = slotCheckpointsEnabled ? new SlotCheckpointWriter() : null;
+
         slotSubmitLoopSkipCount = 0;
         slotCoordinator = MessagingEngine.getInstance().getSlotCoordinator();
 
@@ -129,9 +150,24 @@ public class SlotMessageCounter {
      */
     private void recordMetadataCountInSlot(AndesMessageMetadata metadata) {
         String storageQueueName = metadata.getStorageQueueName();
-        Slot currentSlot = updateQueueToSlotMap(metadata);
+        Slot currentSlot;
+
+        // Slot timeout task may close the slot at the same time
+        synchronized (this) {
+            currentSlot = updateQueueToSlotMap(metadata);
 
-        if (checkMessageLimitReached(currentSlot)) {
+            if (lowLatencyDelivery) {
+                if (1 == currentSlot.getMessageCount()
+                        && SlotDeliveryWorkerManager.getInstance().hasDeliveryTask(storageQueueName)) {
+                    slotMetadataHandoff.startSlot(storageQueueName);
+                }
+                slotMetadataHandoff.record(metadata);
+            }
+        }
+
+        // Slots grown past the window size by a failed submission are left to the timer task, so that publishing
+        // does not call the coordinator for every message while it is unreachable
+        if (currentSlot.getMessageCount() == slotWindowSize) {
             try {
                 submitSlot(storageQueueName);
             } catch (AndesException e) {
@@ -148,8 +184,8 @@ public class SlotMessageCounter {
     }
 
     /**
-     * Update in-memory queue to slot map. This method is is not synchronized. Single publisher should access this.
-     * Ideally through a disruptor event handler
+     * Update in-memory queue to slot map. Single publisher should access this, ideally through a disruptor event
+     * handler. Caller should hold the lock of the counter since slots are closed by the slot timeout task as well.
      *
      * @param metadata Andes metadata whose ID needs to be reported to SlotManager
      * @return Current slot which this metadata belongs to
@@ -187,20 +223,127 @@ public class SlotMessageCounter {
             // Check if the number of messages in slot is greater than or equal to slot window size or slot timeout
             // has reached. This is to avoid timer task or disruptor creating smaller/overlapping slots.
             if (checkMessageLimitReached(slot) || checkTimeOutReached(lastSlotUpdateTime)) {
-                try {
-                    long localSafeZone = inferLocalSafeZone(storageQueueName);
-                    slotTimeOutMap.remove(storageQueueName);
-                    queueToSlotMap.remove(storageQueueName);
-                    slotCoordinator.updateMessageId(storageQueueName, slot.getStartMessageId(), slot.getEndMessageId(),
-                            localSafeZone);
-                } catch (ConnectionException e) {
-                    // we only log here since this is called again from timer task if previous attempt failed
-                    log.error("Error occurred while connecting to the thrift coordinator.", e);
-                }
+                submitSlot(storageQueueName, slot);
+            }
+        }
+    }
+
+    /**
+     * Submit the current slots of queues which have a delivery task in this node regardless of the slot window size
+     * and timeout, so that committed messages are delivered right away. This should be called after all the messages
+     * recorded so far are committed to the message store.
+     */
+    public synchronized void submitSlotsForLocalDelivery() throws AndesException {
+        if (!lowLatencyDelivery) {
+            return;
+        }
+        SlotDeliveryWorkerManager slotDeliveryWorkerManager = SlotDeliveryWorkerManager.getInstance();
+        for (Map.Entry<String, Slot> queueSlotEntry : queueToSlotMap.entrySet()) {
+            String storageQueueName = queueSlotEntry.getKey();
+            if (slotDeliveryWorkerManager.hasDeliveryTask(storageQueueName)) {
+                submitSlot(storageQueueName, queueSlotEntry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Submit the slot to the coordinator and wake up the local delivery task of the queue
+     *
+     * @param storageQueueName name of the queue which this slot belongs to
+     * @param slot             current slot of the queue
+     */
+    private void submitSlot(String storageQueueName, Slot slot) throws AndesException {
+        SlotSubmission slotSubmission = closeSlot(storageQueueName, slot);
+        try {
+            slotCoordinator.updateMessageId(storageQueueName, slotSubmission.getStartMessageId(),
+                    slotSubmission.getEndMessageId(), slotSubmission.getLocalSafeZone());
+            // The slot can be assigned to the local delivery task right away
+            SlotDeliveryWorkerManager.getInstance().notifyMessagesAvailable(storageQueueName);
+        } catch (ConnectionException e) {
+            // The slot is submitted again by the timer task
+            reopenSlot(storageQueueName, slot);
+            log.error("Error occurred while connecting to the thrift coordinator.", e);
+        }
+    }
+
+    /**
+     * Submit the slots of the given queues which reached the slot window size or timed out, in a single call to the
+     * coordinator
+     *
+     * @param storageQueueNames names of the queues
+     */
+    private synchronized void submitSlots(Collection<String> storageQueueNames) throws AndesException {
+        List<SlotSubmission> slotSubmissions = new ArrayList<>(storageQueueNames.size());
+        List<Slot> submittedSlots = new ArrayList<>(storageQueueNames.size());
+        for (String storageQueueName : storageQueueNames) {
+            Slot slot = queueToSlotMap.get(storageQueueName);
+            Long lastSlotUpdateTime = slotTimeOutMap.get(storageQueueName);
+            // Slot may have been submitted by the disruptor after the timeout was checked
+            if (null != slot && null != lastSlotUpdateTime
+                    && (checkMessageLimitReached(slot) || checkTimeOutReached(lastSlotUpdateTime))) {
+                slotSubmissions.add(closeSlot(storageQueueName, slot));
+                submittedSlots.add(slot);
+            }
+        }
+
+        if (slotSubmissions.isEmpty()) {
+            return;
+        }
+
+        try {
+            slotCoordinator.updateMessageIds(slotSubmissions);
+            for (SlotSubmission slotSubmission : slotSubmissions) {
+                SlotDeliveryWorkerManager.getInstance().notifyMessagesAvailable(slotSubmission.getQueueName());
             }
+        } catch (ConnectionException e) {
+            // Slots are submitted again by the timer task. The coordinator skips the ones it already recorded.
+            for (int i = 0; i < slotSubmissions.size(); i++) {
+                reopenSlot(slotSubmissions.get(i).getQueueName(), submittedSlots.get(i));
+            }
+            log.error("Error occurred while connecting to the thrift coordinator.", e);
+        }
+    }
+
+    /**
+     * Count the messages of a slot which could not be submitted in the current slot of the queue again. Messages
+     * recorded after the slot was closed are kept in the same slot.
+     *
+     * @param storageQueueName name of the queue which this slot belongs to
+     * @param slot             slot which could not be submitted
+     */
+    private synchronized void reopenSlot(String storageQueueName, Slot slot) {
+        Slot currentSlot = queueToSlotMap.get(storageQueueName);
+        if (null == currentSlot) {
+            queueToSlotMap.put(storageQueueName, slot);
+            slotTimeOutMap.put(storageQueueName, System.currentTimeMillis());
+        } else {
+            currentSlot.setStartMessageId(slot.getStartMessageId());
+            currentSlot.setMessageCount(currentSlot.getMessageCount() + slot.getMessageCount());
         }
     }
 
+    /**
+     * Stop counting messages in the current slot of the queue
+     *
+     * @param storageQueueName name of the queue which this slot belongs to
+     * @param slot             current slot of the queue
+     * @return submission of the slot to the coordinator
+     */
+    private SlotSubmission closeSlot(String storageQueueName, Slot slot) {
+        long localSafeZone = inferLocalSafeZone(storageQueueName);
+        slotTimeOutMap.remove(storageQueueName);
+        queueToSlotMap.remove(storageQueueName);
+        if (lowLatencyDelivery) {
+            slotMetadataHandoff.submitSlot(storageQueueName, slot.getEndMessageId(), slot.getMessageCount());
+        }
+        SlotSubmission slotSubmission = new SlotSubmission(storageQueueName, slot.getStartMessageId(),
+                slot.getEndMessageId(), localSafeZone);
+        if (null != slotCheckpointWriter) {
+            slotCheckpointWriter.record(slotSubmission);
+        }
+        return slotSubmission;
+    }
+
     /**
      * Figure out if the currentStorageQueue's endMessageID is larger than startMessageID's of other queues. If yes,
      * set the minimum startMessageID from those queues as the local safe Zone.
@@ -281,14 +424,18 @@ public class SlotMessageCounter {
             log.info("Starting publisher slot recovery event with recovery message id " + recoveryMessageId);
             AndesContextStore contextStore = AndesContext.getInstance().getAndesContextStore();
             List<AndesQueue> queueList = contextStore.getAllQueuesStored();
+            List<SlotSubmission> slotSubmissions = new ArrayList<>(queueList.size());
             for (AndesQueue queue : queueList) {
-                slotCoordinator.updateMessageId(queue.queueName, recoveryMessageId, recoveryMessageId,
-                        currentSlotDeleteSafeZone);
-                // NOTE: Two queues can't have the same message id at the MB_SLOT_MESSAGE_ID table hence incrementing.
-                // Get fresh slot logic deletes the current 'last-queue-to-message-id' mapping with only the message id
+                slotSubmissions.add(new SlotSubmission(queue.queueName, recoveryMessageId, recoveryMessageId,
+                        currentSlotDeleteSafeZone));
+                // NOTE: Incrementing so that the recovery slot of each queue ends at a distinct message id, as
+                // slots of all queues share the same message id space.
                 recoveryMessageId++;
                 log.info("Moving last published message id of queue " + queue.queueName + " to " + recoveryMessageId);
             }
+            if (!slotSubmissions.isEmpty()) {
+                slotCoordinator.updateMessageIds(slotSubmissions);
+            }
             log.info("Publisher slot recovery event completed for " + queueList.size() +
                     " queue(s). Recovery message id " + recoveryMessageId);
 
@@ -314,6 +461,10 @@ public class SlotMessageCounter {
                 } else {
                     updateCoordinatorWithCurrentSafezone();
                 }
+
+                if (null != slotCheckpointWriter) {
+                    slotCheckpointWriter.flush();
+                }
                 // This is to avoid subsequent executions being suppressed
             } catch (Throwable exception) {
                 log.error("Error occurred while executing SlotTimeoutTask", exception);
@@ -326,18 +477,24 @@ public class SlotMessageCounter {
          * @param slotTimeoutEntries Set of slot last update time entries
          */
         private void updateCoordinatorWithTimedOutSlots(Set<Map.Entry<String, Long>> slotTimeoutEntries) {
+            List<String> timedOutQueues = new ArrayList<>();
             for (Map.Entry<String, Long> entry : slotTimeoutEntries) {
 
                 Long lastSlotUpdateTime = entry.getValue();
                 String storageQueueName = entry.getKey();
 
                 if (checkTimeOutReached(lastSlotUpdateTime)) {
-                    try {
-                        submitSlot(storageQueueName);
-                    } catch (AndesException exception) {
-                        // We do not do anything here since this thread will be run periodically
-                        log.error("Error occurred while connecting to the thrift coordinator ", exception);
-                    }
+                    timedOutQueues.add(storageQueueName);
+                }
+            }
+
+            if (!timedOutQueues.isEmpty()) {
+                try {
+                    // Slots of all the timed out queues are submitted in one call to the coordinator
+                    submitSlots(timedOutQueues);
+                } catch (AndesException exception) {
+                    // We do not do anything here since this thread will be run periodically
+                    log.error("Error occurred while connecting to the thrift coordinator ", exception);
                 }
             }
         }
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.DeliverableAndesMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Metadata of committed messages handed from the {@link SlotMessageCounter} to the {@link MessageDeliveryTask} of a
+ * storage queue, so that a slot submitted right after its messages are committed can be delivered without reading
+ * the metadata back from the message store.
+ * <p>
+ * Metadata is collected for a slot only if it is started while the storage queue has a delivery task, so that every
+ * message of the queue recorded since the previous slot submission is known. A slot is served from here only if it
+ * ends with the same message id, otherwise the message store is read as usual.
+ */
+final class SlotMetadataHandoff {
+
+    /**
+     * Maximum number of submitted slots kept for a storage queue. Oldest slots are dropped and read from the store
+     * instead.
+     */
+    private static final int MAX_SLOTS_PER_QUEUE = 100;
+
+    private static final SlotMetadataHandoff instance = new SlotMetadataHandoff();
+
+    /**
+     * Metadata of the slot being filled by storage queue
+     */
+    private final ConcurrentHashMap<String, List<AndesMessageMetadata>> pendingMetadataMap =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Metadata of submitted slots by storage queue and end message id of the slot
+     */
+    private final ConcurrentHashMap<String, ConcurrentNavigableMap<Long, List<AndesMessageMetadata>>>
+            slotMetadataMap = new ConcurrentHashMap<>();
+
+    private SlotMetadataHandoff() {
+    }
+
+    static SlotMetadataHandoff getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start collecting metadata for a new slot of the storage queue
+     *
+     * @param storageQueueName storage queue of the slot
+     */
+    void startSlot(String storageQueueName) {
+        pendingMetadataMap.put(storageQueueName, new ArrayList<AndesMessageMetadata>());
+    }
+
+    /**
+     * Keep metadata of a committed message if metadata is collected for the current slot of its storage queue
+     *
+     * @param metadata metadata of the committed message
+     */
+    void record(AndesMessageMetadata metadata) {
+        List<AndesMessageMetadata> pendingMetadata = pendingMetadataMap.get(metadata.getStorageQueueName());
+        if (null != pendingMetadata) {
+            pendingMetadata.add(metadata);
+        }
+    }
+
+    /**
+     * Keep the metadata collected for the current slot of the storage queue against the end message id the slot is
+     * submitted with. Metadata is dropped if it does not hold every message counted for the slot.
+     *
+     * @param storageQueueName storage queue of the slot
+     * @param endMessageId     last message id of the slot
+     * @param messageCount     number of messages counted for the slot
+     */
+    synchronized void submitSlot(String storageQueueName, long endMessageId, long messageCount) {
+        List<AndesMessageMetadata> pendingMetadata = pendingMetadataMap.remove(storageQueueName);
+        if (null == pendingMetadata) {
+            return;
+        }
+
+        if (pendingMetadata.size() != messageCount) {
+            return;
+        }
+
+        ConcurrentNavigableMap<Long, List<AndesMessageMetadata>> queueSlots = slotMetadataMap.get(storageQueueName);
+        if (null == queueSlots) {
+            queueSlots = new ConcurrentSkipListMap<>();
+            slotMetadataMap.put(storageQueueName, queueSlots);
+        }
+        queueSlots.put(endMessageId, pendingMetadata);
+        while (queueSlots.size() > MAX_SLOTS_PER_QUEUE) {
+            queueSlots.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Take the metadata of a slot. Metadata kept for the slot and for earlier slots of the queue is removed.
+     *
+     * @param storageQueueName storage queue of the slot
+     * @param slot             slot to be delivered
+     * @return metadata of the messages of the slot, or null if the slot has to be read from the message store
+     */
+    List<DeliverableAndesMetadata> take(String storageQueueName, Slot slot) {
+        ConcurrentNavigableMap<Long, List<AndesMessageMetadata>> queueSlots = slotMetadataMap.get(storageQueueName);
+        if (null == queueSlots) {
+            return null;
+        }
+
+        long endMessageId = slot.getEndMessageId();
+        List<AndesMessageMetadata> metadataList = queueSlots.get(endMessageId);
+        queueSlots.headMap(endMessageId, true).clear();
+        if (null == metadataList) {
+            return null;
+        }
+
+        // Message count is not known for slots assigned by the coordinator
+        if (slot.getMessageCount() > 0 && metadataList.size() != slot.getMessageCount()) {
+            return null;
+        }
+
+        List<DeliverableAndesMetadata> slotMessages = new ArrayList<>(metadataList.size());
+        long previousMessageId = slot.getStartMessageId() - 1;
+        for (AndesMessageMetadata metadata : metadataList) {
+            long messageId = metadata.getMessageID();
+            if (messageId <= previousMessageId || messageId > endMessageId) {
+                // Part of the collected messages were given in another slot, or messages were missed
+                return null;
+            }
+            previousMessageId = messageId;
+            DeliverableAndesMetadata deliverableMetadata =
+                    new DeliverableAndesMetadata(slot, messageId, metadata.getMetadata(), true);
+            deliverableMetadata.setStorageQueueName(storageQueueName);
+            slotMessages.add(deliverableMetadata);
+        }
+
+        if (previousMessageId != endMessageId) {
+            // The message the slot ends with was not collected
+            return null;
+        }
+        return slotMessages;
+    }
+
+    /**
+     * Drop metadata kept for a storage queue. Metadata of the slot being filled is not collected any more.
+     *
+     * @param storageQueueName storage queue name
+     */
+    synchronized void clear(String storageQueueName) {
+        pendingMetadataMap.remove(storageQueueName);
+        slotMetadataMap.remove(storageQueueName);
+    }
+}
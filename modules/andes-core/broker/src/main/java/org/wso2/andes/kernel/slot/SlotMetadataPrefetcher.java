@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.DeliverableAndesMetadata;
+import org.wso2.andes.kernel.MessagingEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Reads metadata of slots ahead of delivery. {@link MessageDeliveryTask}s submit the next slot they are going to
+ * deliver while the current slot is being delivered, so that the delivery thread does not wait on the message store
+ * between slots. Requests submitted by different delivery tasks around the same time are grouped and read with a
+ * single store call.
+ */
+class SlotMetadataPrefetcher {
+
+    private static Log log = LogFactory.getLog(SlotMetadataPrefetcher.class);
+
+    /**
+     * Maximum number of slots read with a single store call
+     */
+    private static final int MAX_SLOTS_PER_READ = 20;
+
+    /**
+     * Pending read requests
+     */
+    private final BlockingQueue<PrefetchRequest> requestQueue;
+
+    /**
+     * Reader threads serving the requests
+     */
+    private final ExecutorService readerPool;
+
+    /**
+     * Create a prefetcher with the given number of reader threads
+     *
+     * @param readerCount   number of threads reading from the message store
+     * @param threadFactory thread factory used for the reader threads
+     */
+    SlotMetadataPrefetcher(int readerCount, ThreadFactory threadFactory) {
+        requestQueue = new LinkedBlockingQueue<>();
+        readerPool = Executors.newFixedThreadPool(readerCount, threadFactory);
+        for (int i = 0; i < readerCount; i++) {
+            readerPool.submit(new SlotReader());
+        }
+    }
+
+    /**
+     * Submit a slot to be read in the background
+     *
+     * @param slot slot to read metadata of
+     * @return request to collect the read metadata from
+     */
+    PrefetchRequest prefetch(Slot slot) {
+        PrefetchRequest request = new PrefetchRequest(slot);
+        requestQueue.add(request);
+        return request;
+    }
+
+    /**
+     * Create a request for a slot whose metadata is already known
+     *
+     * @param slot         slot the metadata belongs to
+     * @param metadataList metadata of the slot
+     * @return completed request
+     */
+    static PrefetchRequest completedRequest(Slot slot, List<DeliverableAndesMetadata> metadataList) {
+        PrefetchRequest request = new PrefetchRequest(slot);
+        request.complete(metadataList);
+        return request;
+    }
+
+    /**
+     * Read request for the metadata of a slot
+     */
+    static final class PrefetchRequest {
+
+        private final Slot slot;
+
+        private final CountDownLatch completionLatch;
+
+        private volatile List<DeliverableAndesMetadata> metadataList;
+
+        private volatile AndesException error;
+
+        private PrefetchRequest(Slot slot) {
+            this.slot = slot;
+            completionLatch = new CountDownLatch(1);
+        }
+
+        /**
+         * @return slot this request reads
+         */
+        Slot getSlot() {
+            return slot;
+        }
+
+        /**
+         * Wait until the slot is read and return the metadata
+         *
+         * @return metadata read for the slot
+         * @throws AndesException if the store read failed
+         * @throws InterruptedException if interrupted while waiting
+         */
+        List<DeliverableAndesMetadata> awaitResult() throws AndesException, InterruptedException {
+            completionLatch.await();
+            if (null != error) {
+                throw error;
+            }
+            return metadataList;
+        }
+
+        private void complete(List<DeliverableAndesMetadata> metadataList) {
+            this.metadataList = metadataList;
+            completionLatch.countDown();
+        }
+
+        private void fail(AndesException error) {
+            this.error = error;
+            completionLatch.countDown();
+        }
+    }
+
+    /**
+     * Drains the request queue and reads the slots in groups
+     */
+    private class SlotReader implements Runnable {
+
+        @Override
+        public void run() {
+            List<PrefetchRequest> requests = new ArrayList<>(MAX_SLOTS_PER_READ);
+            List<Slot> slots = new ArrayList<>(MAX_SLOTS_PER_READ);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    requests.add(requestQueue.take());
+                    requestQueue.drainTo(requests, MAX_SLOTS_PER_READ - 1);
+                    for (PrefetchRequest request : requests) {
+                        slots.add(request.getSlot());
+                    }
+                    read(requests, slots);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable e) {
+                    log.error("Error occurred while prefetching slot metadata", e);
+                    for (PrefetchRequest request : requests) {
+                        request.fail(new AndesException("Error occurred while prefetching slot metadata", e));
+                    }
+                } finally {
+                    requests.clear();
+                    slots.clear();
+                }
+            }
+        }
+
+        private void read(List<PrefetchRequest> requests, List<Slot> slots) {
+            try {
+                Map<Slot, List<DeliverableAndesMetadata>> metadataOfSlots =
+                        MessagingEngine.getInstance().getMetaDataListForSlots(slots);
+                for (PrefetchRequest request : requests) {
+                    request.complete(metadataOfSlots.get(request.getSlot()));
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Prefetched metadata of " + slots.size() + " slots");
+                }
+            } catch (AndesException e) {
+                // Delivery tasks fall back to reading the slot themselves
+                log.warn("Error occurred while prefetching metadata of " + slots.size() + " slots", e);
+                for (PrefetchRequest request : requests) {
+                    request.fail(e);
+                }
+            }
+        }
+    }
+}
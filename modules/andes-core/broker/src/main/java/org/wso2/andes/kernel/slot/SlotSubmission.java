@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+/**
+ * Message id range of a slot submitted to the slot coordinator, along with the local safe zone of the node at the
+ * time the slot was submitted. Used to submit slots of several queues at once.
+ */
+public final class SlotSubmission {
+
+    private final String queueName;
+
+    private final long startMessageId;
+
+    private final long endMessageId;
+
+    private final long localSafeZone;
+
+    /**
+     * Create a slot submission
+     *
+     * @param queueName      name of the storage queue of the slot
+     * @param startMessageId start message ID of the slot
+     * @param endMessageId   end message ID of the slot
+     * @param localSafeZone  minimum message ID of the node that is deemed safe
+     */
+    public SlotSubmission(String queueName, long startMessageId, long endMessageId, long localSafeZone) {
+        this.queueName = queueName;
+        this.startMessageId = startMessageId;
+        this.endMessageId = endMessageId;
+        this.localSafeZone = localSafeZone;
+    }
+
+    public String getQueueName() {
+        return queueName;
+    }
+
+    public long getStartMessageId() {
+        return startMessageId;
+    }
+
+    public long getEndMessageId() {
+        return endMessageId;
+    }
+
+    public long getLocalSafeZone() {
+        return localSafeZone;
+    }
+
+    @Override
+    public String toString() {
+        return "SlotSubmission [queueName=" + queueName + ", startMessageId=" + startMessageId + ", endMessageId="
+                + endMessageId + ", localSafeZone=" + localSafeZone + "]";
+    }
+}
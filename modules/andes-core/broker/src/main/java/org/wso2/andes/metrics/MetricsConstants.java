@@ -39,6 +39,21 @@ public class MetricsConstants {
      */
     public static final String DB_READ = PREFIX + "database.read";
 
+    /**
+     * Time spent waiting for a connection from the database connection pool
+     */
+    public static final String DB_CONNECTION_WAIT = PREFIX + "database.connection.wait";
+
+    /**
+     * Number of statements prepared on connections kept by store threads
+     */
+    public static final String DB_STATEMENT_PREPARE = PREFIX + "database.statement.prepare";
+
+    /**
+     * Number of prepared statements reused from the statement cache of connections kept by store threads
+     */
+    public static final String DB_STATEMENT_REUSE = PREFIX + "database.statement.reuse";
+
     /**
      * Add message content to the message store
      */
@@ -68,11 +83,52 @@ public class MetricsConstants {
      */
     public static final String ADD_META_DATA_TO_BATCH = PREFIX + "store.metadataToBatch.add";
 
+    /*MESSAGE CACHE*/
+    /**
+     * Number of message lookups served from the message cache
+     */
+    public static final String CACHE_HIT = PREFIX + "cache.hit";
+
+    /**
+     * Number of message lookups not found in the message cache
+     */
+    public static final String CACHE_MISS = PREFIX + "cache.miss";
+
+    /**
+     * Number of messages evicted from the message cache to make room for new messages
+     */
+    public static final String CACHE_EVICTION = PREFIX + "cache.eviction";
+
+    /**
+     * At a given time number of messages in the off heap message cache
+     */
+    public static final String CACHE_OFF_HEAP_MESSAGES = PREFIX + "cache.offHeap.messages.count";
+
+    /**
+     * Number of message writers which batches are stored with a single group commit
+     */
+    public static final String GROUP_COMMIT_WRITERS = PREFIX + "store.groupCommit.writers";
+
     /**
      * Get message content as batch
      */
     public static final String GET_CONTENT_BATCH = PREFIX + "store.contentBatch.get";
 
+    /**
+     * Number of messages which content is read from the database with a single content batch read
+     */
+    public static final String STORE_CONTENT_BATCH_SIZE = PREFIX + "store.contentBatch.size";
+
+    /**
+     * Time taken to load content of a batch of messages scheduled for delivery
+     */
+    public static final String DELIVERY_CONTENT_READ = PREFIX + "delivery.contentRead";
+
+    /**
+     * Number of messages which content is fetched from the message store by a delivery content read batch
+     */
+    public static final String DELIVERY_CONTENT_READ_BATCH_SIZE = PREFIX + "delivery.contentRead.batchSize";
+
     /**
      * Get message meta data
      */
@@ -138,6 +194,18 @@ public class MetricsConstants {
      */
     public static final String UPDATE_META_DATA_INFORMATION = PREFIX + "store.metadata.update";
 
+    /*CLUSTER EVENTS*/
+    /**
+     * Time in milliseconds from storing cluster notifications at the originating node until a node is woken up to
+     * read them
+     */
+    public static final String CLUSTER_EVENT_PROPAGATION_LAG = PREFIX + "cluster.event.propagationLag";
+
+    /**
+     * Number of cluster notifications read from the database per read
+     */
+    public static final String CLUSTER_EVENT_READ_COUNT = PREFIX + "cluster.event.read.count";
+
     /*Buffer Values*/
 
     /**
@@ -155,6 +223,50 @@ public class MetricsConstants {
      */
     public static final String DISRUPTOR_OUTBOUND_RING = PREFIX + "outbound.disruptor.message.count";
 
+    /**
+     * At a given time the number of events in the inbound ring not yet processed by the content chunk handlers
+     */
+    public static final String DISRUPTOR_INBOUND_CHUNK_HANDLER_LAG = PREFIX + "inbound.disruptor.chunk.handler.lag";
+
+    /**
+     * At a given time the number of events in the inbound ring not yet processed by the message pre processor
+     */
+    public static final String DISRUPTOR_INBOUND_PRE_PROCESSOR_LAG = PREFIX + "inbound.disruptor.pre.processor.lag";
+
+    /**
+     * At a given time the number of events in the inbound ring not yet processed by the message writers and the
+     * acknowledgement handlers
+     */
+    public static final String DISRUPTOR_INBOUND_WRITER_LAG = PREFIX + "inbound.disruptor.writer.lag";
+
+    /**
+     * At a given time the number of events in the inbound ring not yet processed by the state event handler
+     */
+    public static final String DISRUPTOR_INBOUND_STATE_HANDLER_LAG = PREFIX + "inbound.disruptor.state.handler.lag";
+
+    /**
+     * At a given time the number of events in the outbound ring not yet processed by the content readers
+     */
+    public static final String DISRUPTOR_OUTBOUND_CONTENT_READER_LAG = PREFIX
+            + "outbound.disruptor.content.reader.lag";
+
+    /**
+     * At a given time the number of events in the outbound ring not yet processed by the decompression handlers
+     */
+    public static final String DISRUPTOR_OUTBOUND_DECOMPRESSION_HANDLER_LAG = PREFIX
+            + "outbound.disruptor.decompression.handler.lag";
+
+    /**
+     * At a given time the number of events in the outbound ring not yet processed by the delivery handlers
+     */
+    public static final String DISRUPTOR_OUTBOUND_DELIVERY_HANDLER_LAG = PREFIX
+            + "outbound.disruptor.delivery.handler.lag";
+
+    /**
+     * At a given time the number of events in the MQTT inbound ring
+     */
+    public static final String DISRUPTOR_MQTT_INBOUND_RING = PREFIX + "mqtt.inbound.disruptor.event.count";
+
     /**
      * At a given time number of queue subscribers
      */
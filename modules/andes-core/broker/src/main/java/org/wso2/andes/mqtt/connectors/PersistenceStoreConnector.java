@@ -35,12 +35,12 @@ import org.wso2.andes.server.ClusterResourceHolder;
 import org.wso2.andes.subscription.LocalSubscription;
 
 import java.nio.ByteBuffer;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -56,16 +56,16 @@ public class PersistenceStoreConnector implements MQTTConnector {
     /**
      * Will maintain the relation between the publisher client identifiers vs the id generated cluster wide
      * Key of the map would be the mqtt specific client id and the value would be the cluster uuid
+     * Publishers are handled by multiple protocol processors, each owning a distinct set of client ids
      */
-    //TODO state the usage of a hash-map instead of using concurrent hashmap
-    private Map<String, MQTTPublisherChannel> publisherTopicCorrelate = new HashMap<>();
+    private Map<String, MQTTPublisherChannel> publisherTopicCorrelate = new ConcurrentHashMap<>();
 
     /**
      * Will maintain retain message identification (message id + channel id) until ack received
      * by the subscriber.
      * Retain message acks will not handle in andes level.
      */
-    private Set<String> retainMessageIdSet = new HashSet<>();
+    private Set<String> retainMessageIdSet = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     /**
      * {@inheritDoc}
@@ -194,7 +194,7 @@ public class Broker
                                 new ServerNetworkTransportConfiguration(serverConfig, port,
                                                                         bindAddressFromBrokerOptions, Transport.TCP);
 
-                        IncomingNetworkTransport transport = Transport.getIncomingTransportInstance();
+                        IncomingNetworkTransport transport = Transport.getIncomingTransportInstance(settings);
                         MultiVersionProtocolEngineFactory protocolEngineFactory =
                                 new MultiVersionProtocolEngineFactory(hostName, supported);
 
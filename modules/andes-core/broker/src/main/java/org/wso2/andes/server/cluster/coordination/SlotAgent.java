@@ -20,7 +20,9 @@
 
 package org.wso2.andes.server.cluster.coordination;
 
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
 import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.slot.MessageIdRanges;
 import org.wso2.andes.kernel.slot.Slot;
 import org.wso2.andes.kernel.slot.SlotState;
 
@@ -166,15 +168,18 @@ public interface SlotAgent {
 	/**
 	 * Add Message ids to database
 	 * @param queueName name of queue
-	 * @param messageId id of message
+	 * @param messageIds ids of messages
 	 * @throws org.wso2.andes.kernel.AndesException
 	 */
-	void addMessageId(String queueName, long messageId) throws AndesException;
+	void addMessageIds(String queueName, LongArrayList messageIds) throws AndesException;
 
 	/**
 	 * Get message ids from database
+	 * @param queueName name of queue
+	 * @return message ids of the queue
+	 * @throws org.wso2.andes.kernel.AndesException
 	 */
-	TreeSet<Long> getSlotBasedMessageIds(String queueName) throws AndesException;
+	MessageIdRanges getSlotBasedMessageIds(String queueName) throws AndesException;
 
 	/**
 	 * Delete message ids
@@ -19,7 +19,7 @@ package org.wso2.andes.server.cluster.coordination;
 
 import org.wso2.andes.server.ClusterResourceHolder;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -33,44 +33,163 @@ import java.util.concurrent.atomic.AtomicInteger;
  * <time stamp> + <selected unique id for the node> + <seq number>
  * <p/>
  * sequence number is used in a scenario when two or more messages comes with same timestamp
- * (within the same millisecond). So to allow message rages higher than 1000 msg/s we use this sequence number
- * where it will be incremented in case of message comes in same millisecond within the same node. With this approach
- * We can go up to 100,000 msg/s
+ * (within the same millisecond). Up to 1024 ids can be generated within a millisecond. When more ids are requested
+ * ids of the next millisecond are used, hence generated ids may run ahead of the clock under heavy load until the
+ * clock catches up.
+ * <p/>
+ * Time stamp and sequence number of the last id is kept in a single atomic value shared by all generators of the node
+ * and updated with compare and set, hence ids are unique and increasing within the node without locking.
  */
 // TODO class name
 public class TimeStampBasedMessageIdGenerator implements MessageIdGenerator {
-    private int uniqueIdForNode = 0;
-    private long lastTimestamp = 0;
-    private long lastID = 0;
-
-    /** If two instances for the same time stamp comes add offset values to differentiate them */
-    private AtomicInteger offset = new AtomicInteger();
 
     private static final long REFERENCE_START = 41L * 365L * 24L * 60L * 60L * 1000L; //this is 2011
 
+    /**
+     * Number of bits used for the sequence number of ids within the same millisecond
+     */
+    private static final int SEQUENCE_BITS = 10;
+
+    /**
+     * Number of bits used for the unique id of the node
+     */
+    private static final int NODE_ID_BITS = 8;
+
+    /**
+     * Time stamp and sequence number of the last generated id as
+     * [time spent from reference time in milliseconds][10 bit sequence number]
+     */
+    private static final AtomicLong lastSequence = new AtomicLong();
+
+    /**
+     * Whether the unique id of the node should be read from the cluster manager
+     */
+    private final boolean readUniqueIdFromCluster;
+
+    /**
+     * Unique id of the node. Re-read from the cluster manager once per millisecond since the id might change at
+     * runtime.
+     */
+    private volatile int uniqueIdForNode;
+
+    /**
+     * Time stamp of the id generated when the unique id of the node was last read
+     */
+    private volatile long uniqueIdReadTimestamp = -1;
+
+    public TimeStampBasedMessageIdGenerator() {
+        readUniqueIdFromCluster = true;
+    }
+
+    /**
+     * Create a generator with a fixed node id
+     *
+     * @param uniqueIdForNode unique id of the node
+     */
+    TimeStampBasedMessageIdGenerator(int uniqueIdForNode) {
+        readUniqueIdFromCluster = false;
+        this.uniqueIdForNode = uniqueIdForNode;
+    }
+
     /**
      * Out of 64 bits for long, we will use the range as follows
      * [1 sign bit][45bits for time spent from reference time in milliseconds][8bit node id][10 bit offset for ID falls within the same timestamp]
-     * This assumes there will not be more than 1024 hits within a given millisecond. Range is sufficient for 6029925857 years.
+     * Range is sufficient for 6029925857 years.
      *
      * @return Generated ID
      */
-    public synchronized long getNextId() {
-        //TODO review on how we could optimize this code
-        uniqueIdForNode = ClusterResourceHolder.getInstance().getClusterManager().getUniqueIdForLocalNode();
-        long ts = System.currentTimeMillis();
-        int offset = 0;
-        if (ts == lastTimestamp) {
-            offset = this.offset.incrementAndGet();
-        } else {
-            this.offset.set(0);
+    public long getNextId() {
+        return toMessageId(reserveSequences(1));
+    }
+
+    /**
+     * Reserve a block of consecutive ids for the exclusive use of the caller. Ids of the block are only valid until
+     * the clock moves to the next millisecond, so that a block held by an idle thread is not used to generate ids
+     * older than ids generated since.
+     *
+     * @param blockSize number of ids to reserve
+     * @return reserved block of ids
+     */
+    public IdBlock reserveIdBlock(int blockSize) {
+        long currentTime = System.currentTimeMillis();
+        long firstSequence = reserveSequences(blockSize);
+        return new IdBlock(firstSequence, firstSequence + blockSize, currentTime);
+    }
+
+    /**
+     * Move the last sequence forward by the given count and return the first sequence reserved
+     *
+     * @param count number of sequences to reserve
+     * @return first reserved sequence
+     */
+    private long reserveSequences(int count) {
+        while (true) {
+            long previous = lastSequence.get();
+            long clockSequence = (System.currentTimeMillis() - REFERENCE_START) << SEQUENCE_BITS;
+            // Continue from the last sequence if the clock has not passed it, borrowing from next milliseconds
+            long first = Math.max(previous + 1, clockSequence);
+            if (lastSequence.compareAndSet(previous, first + count - 1)) {
+                refreshUniqueIdForNode(first >>> SEQUENCE_BITS);
+                return first;
+            }
+        }
+    }
+
+    /**
+     * Read the unique id of the node if it was not read for the given time stamp
+     *
+     * @param timestamp time stamp of the id being generated
+     */
+    private void refreshUniqueIdForNode(long timestamp) {
+        if (readUniqueIdFromCluster && timestamp != uniqueIdReadTimestamp) {
+            uniqueIdForNode = ClusterResourceHolder.getInstance().getClusterManager().getUniqueIdForLocalNode();
+            uniqueIdReadTimestamp = timestamp;
+        }
+    }
+
+    /**
+     * Build the message id for a sequence by placing the node id between time stamp and sequence number
+     *
+     * @param sequence time stamp and sequence number
+     * @return message id
+     */
+    private long toMessageId(long sequence) {
+        long timestamp = sequence >>> SEQUENCE_BITS;
+        long sequenceNumber = sequence & ((1 << SEQUENCE_BITS) - 1);
+        return (((timestamp << NODE_ID_BITS) + uniqueIdForNode) << SEQUENCE_BITS) + sequenceNumber;
+    }
+
+    /**
+     * Block of ids reserved by a single thread. Not thread safe.
+     */
+    public final class IdBlock {
+
+        private long nextSequence;
+
+        private final long endSequence;
+
+        private final long reservedTime;
+
+        private IdBlock(long firstSequence, long endSequence, long reservedTime) {
+            this.nextSequence = firstSequence;
+            this.endSequence = endSequence;
+            this.reservedTime = reservedTime;
         }
-        lastTimestamp = ts;
-        long id = (ts - REFERENCE_START) * 256 * 1024 + uniqueIdForNode * 1024 + offset;
-        if (lastID == id) {
-            throw new RuntimeException("duplicate ids detected. This should never happen");
+
+        /**
+         * @return true if the block has an id left and the clock is still at the millisecond the block was reserved
+         */
+        public boolean hasNext() {
+            return nextSequence < endSequence && System.currentTimeMillis() == reservedTime;
+        }
+
+        /**
+         * Get the next id of the block. Should be called only if {@link #hasNext()} returned true.
+         *
+         * @return next id
+         */
+        public long next() {
+            return toMessageId(nextSequence++);
         }
-        lastID = id;
-        return id;
     }
 }
@@ -17,7 +17,10 @@
  */
 package org.wso2.andes.server.cluster.coordination.hazelcast;
 
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
 import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.ReliableTopicConfig;
 import com.hazelcast.config.RingbufferConfig;
 import com.hazelcast.core.HazelcastInstance;
@@ -33,6 +36,7 @@ import org.wso2.andes.configuration.AndesConfigurationManager;
 import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.AndesContext;
 import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.slot.MessageIdRanges;
 import org.wso2.andes.kernel.slot.Slot;
 import org.wso2.andes.kernel.slot.SlotState;
 import org.wso2.andes.kernel.slot.SlotUtils;
@@ -41,12 +45,21 @@ import org.wso2.andes.server.cluster.coordination.ClusterNotification;
 import org.wso2.andes.server.cluster.coordination.ClusterNotificationListenerManager;
 import org.wso2.andes.server.cluster.coordination.CoordinationConstants;
 import org.wso2.andes.server.cluster.coordination.SlotAgent;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor.AddQueueSlotsProcessor;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor.AddUnAssignedSlotsProcessor;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor.DeleteQueueSlotProcessor;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor.GetQueueSlotsProcessor;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor.MessageIdUpdateProcessor;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor.PollQueueSlotProcessor;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor.PollUnAssignedSlotProcessor;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor.RemoveQueueSlotsProcessor;
 import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.HashmapStringTreeSetWrapper;
 import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.TreeSetLongWrapper;
 import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.TreeSetSlotWrapper;
 
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -64,6 +77,12 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
      */
     private static final long INIT_SUCCESSFUL = 1L;
 
+    /**
+     * Maps holding slots, updated through entry processors
+     */
+    private static final String[] SLOT_MAP_NAMES = {CoordinationConstants.UNASSIGNED_SLOT_MAP_NAME,
+            CoordinationConstants.SLOT_ASSIGNMENT_MAP_NAME, CoordinationConstants.OVERLAPPED_SLOT_MAP_NAME};
+
     /**
      * Singleton HazelcastAgent Instance.
      */
@@ -104,9 +123,15 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
      */
 
     /**
-     * distributed Map to store message ID list against queue name
+     * distributed Map to store message ID list against queue name. Values are {@link TreeSetLongWrapper}, or message
+     * IDs encoded by {@link MessageIdRanges#toBytes()} when slot message IDs are compact
+     */
+    private IMap<String, Object> slotIdMap;
+
+    /**
+     * Whether slot message IDs are stored encoded by {@link MessageIdRanges#toBytes()}
      */
-    private IMap<String, TreeSetLongWrapper> slotIdMap;
+    private boolean compactSlotMessageIds;
 
     /**
      * to keep track of assigned slots up to now. Key of the map contains nodeID+"_"+queueName
@@ -206,10 +231,16 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
         AndesContext.getInstance().setClusterAgent(clusterAgent);
 
         /**
-         * Initialize hazelcast maps for slots
+         * Initialize hazelcast maps for slots. Slot maps are updated through entry processors on the owning member,
+         * which deserialize whole slot sets for each update unless values are kept as objects.
          */
+        for (String slotMapName : SLOT_MAP_NAMES) {
+            checkObjectInMemoryFormat(slotMapName);
+        }
         unAssignedSlotMap = hazelcastInstance.getMap(CoordinationConstants.UNASSIGNED_SLOT_MAP_NAME);
         slotIdMap = hazelcastInstance.getMap(CoordinationConstants.SLOT_ID_MAP_NAME);
+        compactSlotMessageIds = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_SLOTS_COMPACT_MESSAGE_IDS);
         lastAssignedIDMap = hazelcastInstance.getMap(CoordinationConstants.LAST_ASSIGNED_ID_MAP_NAME);
         safeZoneMap = hazelcastInstance.getMap(CoordinationConstants.LAST_PUBLISHED_ID_MAP_NAME);
         slotAssignmentMap = hazelcastInstance.getMap(CoordinationConstants.SLOT_ASSIGNMENT_MAP_NAME);
@@ -446,107 +477,42 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
     @Override
     public boolean deleteSlot(String nodeId, String queueName, long startMessageId, long endMessageId)
             throws AndesException {
-        boolean slotDeleted = false;
         try {
-            HashMap<String, TreeSet<Slot>> queueToSlotMap = null;
-            HashmapStringTreeSetWrapper wrapper = this.slotAssignmentMap.get(nodeId);
-            if (null != wrapper) {
-                queueToSlotMap = wrapper.getStringListHashMap();
-            }
-            if (null != queueToSlotMap) {
-                TreeSet<Slot> currentSlotList = queueToSlotMap.get(queueName);
-                if (null != currentSlotList) {
-                    // com.google.gson.Gson gson = new GsonBuilder().create();
-                    //get the actual reference of the slot to be removed
-                    Slot matchingSlot = null; //currentSlotList.ceiling(emptySlot);
-                    for (Slot slot : currentSlotList) {
-                        if (slot.getStartMessageId() == startMessageId) {
-                            matchingSlot = slot;
-                        }
-                    }
-                    if (null != matchingSlot) {
-                        if (matchingSlot.addState(SlotState.DELETED)) {
-                            currentSlotList.remove(matchingSlot);
-                            queueToSlotMap.put(queueName, currentSlotList);
-                            wrapper.setStringListHashMap(queueToSlotMap);
-                            slotAssignmentMap.set(nodeId, wrapper);
-                            slotDeleted = true;
-                        }
-                    } else {
-                        // We can say slot deleted since the slot does not exist
-                        slotDeleted = true;
-                    }
-                }
-            }
+            return (Boolean) slotAssignmentMap.executeOnKey(nodeId,
+                    new DeleteQueueSlotProcessor(queueName, startMessageId));
         } catch (HazelcastInstanceNotActiveException ex) {
             throw new AndesException("Failed to delete slot for queue : " +
                     queueName + " from node " + nodeId, ex);
         }
-        return slotDeleted;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @SuppressWarnings("unchecked")
     public void deleteSlotAssignmentByQueueName(String nodeId, String queueName) throws AndesException {
         try {
             TreeSet<Slot> slotListToReturn = new TreeSet<>();
-            //Get assigned slots from Hazelcast, delete all belonging to queue
-            //and set back
-            HashmapStringTreeSetWrapper wrapper = this.slotAssignmentMap.get(nodeId);
-            HashMap<String, TreeSet<Slot>> queueToSlotMap = null;
-            if (null != wrapper) {
-                queueToSlotMap = wrapper.getStringListHashMap();
-            }
-            if (null != queueToSlotMap) {
-                TreeSet<Slot> assignedSlotList = queueToSlotMap.remove(queueName);
-                if (null != assignedSlotList) {
-                    slotListToReturn.addAll(assignedSlotList);
-                }
-                wrapper.setStringListHashMap(queueToSlotMap);
-                this.slotAssignmentMap.set(nodeId, wrapper);
-            }
-
-            //Get overlapped slots from Hazelcast, delete all belonging to queue and
-            //set back
-            HashmapStringTreeSetWrapper overlappedSlotWrapper = this.overlappedSlotMap.get(nodeId);
-            HashMap<String, TreeSet<Slot>> queueToOverlappedSlotMap = null;
-            if (null != overlappedSlotWrapper) {
-                queueToOverlappedSlotMap = overlappedSlotWrapper.getStringListHashMap();
-            }
-            if (null != queueToOverlappedSlotMap) {
-                TreeSet<Slot> assignedOverlappedSlotList = queueToOverlappedSlotMap.remove(queueName);
-                if (null != assignedOverlappedSlotList) {
-                    slotListToReturn.addAll(assignedOverlappedSlotList);
-                }
-                overlappedSlotWrapper.setStringListHashMap(queueToOverlappedSlotMap);
-                this.overlappedSlotMap.set(nodeId, overlappedSlotWrapper);
-            }
+            //Delete assigned and overlapped slots belonging to queue on the member owning the node entry
+            slotListToReturn.addAll((TreeSet<Slot>) slotAssignmentMap.executeOnKey(nodeId,
+                    new RemoveQueueSlotsProcessor(queueName)));
+            slotListToReturn.addAll((TreeSet<Slot>) overlappedSlotMap.executeOnKey(nodeId,
+                    new RemoveQueueSlotsProcessor(queueName)));
 
             //add the deleted slots to un-assigned slot map, so that they can be assigned again.
-            if (!(slotListToReturn.isEmpty())) {
-                TreeSetSlotWrapper treeSetStringWrapper = unAssignedSlotMap.get(queueName);
-                TreeSet<Slot> unAssignedSlotSet = new TreeSet<>();
-                if (null != treeSetStringWrapper) {
-                    unAssignedSlotSet = treeSetStringWrapper.getSlotTreeSet();
-                } else {
-                    treeSetStringWrapper = new TreeSetSlotWrapper();
-                }
-                if (null == unAssignedSlotSet) {
-                    unAssignedSlotSet = new TreeSet<>();
-                }
-                for (Slot returnSlot : slotListToReturn) {
-                    //Reassign only if the slot is not empty
-                    if (!(SlotUtils.checkSlotEmptyFromMessageStore(returnSlot))) {
-                        if (returnSlot.addState(SlotState.RETURNED)) {
-                            unAssignedSlotSet.add(returnSlot);
-                        }
+            TreeSet<Slot> unAssignedSlotSet = new TreeSet<>();
+            for (Slot returnSlot : slotListToReturn) {
+                //Reassign only if the slot is not empty
+                if (!(SlotUtils.checkSlotEmptyFromMessageStore(returnSlot))) {
+                    if (returnSlot.addState(SlotState.RETURNED)) {
+                        unAssignedSlotSet.add(returnSlot);
                     }
-                    treeSetStringWrapper.setSlotTreeSet(unAssignedSlotSet);
-                    unAssignedSlotMap.set(queueName, treeSetStringWrapper);
                 }
             }
+            if (!(unAssignedSlotSet.isEmpty())) {
+                unAssignedSlotMap.executeOnKey(queueName, new AddUnAssignedSlotsProcessor(unAssignedSlotSet));
+            }
         } catch (HazelcastInstanceNotActiveException ex) {
             throw new AndesException("Failed to delete slot assignment for queue : " +
                     queueName + " from node " + nodeId, ex);
@@ -558,23 +524,12 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
      */
     @Override
     public Slot getUnAssignedSlot(String queueName) throws AndesException {
-        Slot slotToBeAssigned = null;
         try {
-            TreeSetSlotWrapper unAssignedSlotWrapper = unAssignedSlotMap.get(queueName);
-            if (null != unAssignedSlotWrapper) {
-                TreeSet<Slot> slotsFromUnassignedSlotMap = unAssignedSlotWrapper.getSlotTreeSet();
-                if (null != slotsFromUnassignedSlotMap && !(slotsFromUnassignedSlotMap.isEmpty())) {
-                    //Get and remove slot and update hazelcast map
-                    slotToBeAssigned = slotsFromUnassignedSlotMap.pollFirst();
-                    unAssignedSlotWrapper.setSlotTreeSet(slotsFromUnassignedSlotMap);
-                    unAssignedSlotMap.set(queueName, unAssignedSlotWrapper);
-                }
-            }
+            return (Slot) unAssignedSlotMap.executeOnKey(queueName, new PollUnAssignedSlotProcessor());
         } catch (HazelcastInstanceNotActiveException ex) {
             throw new AndesException("Failed to get unassigned slot for queue : " +
                     queueName, ex);
         }
-        return slotToBeAssigned;
     }
 
     /**
@@ -582,32 +537,12 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
      */
     @Override
     public void updateSlotAssignment(String nodeId, String queueName, Slot allocatedSlot) throws AndesException {
-        TreeSet<Slot> currentSlotList;
-        HashMap<String, TreeSet<Slot>> queueToSlotMap;
-
         try {
-            HashmapStringTreeSetWrapper wrapper = this.slotAssignmentMap.get(nodeId);
-            if (null == wrapper) {
-                wrapper = new HashmapStringTreeSetWrapper();
-                queueToSlotMap = new HashMap<>();
-                wrapper.setStringListHashMap(queueToSlotMap);
-                this.slotAssignmentMap.putIfAbsent(nodeId, wrapper);
-            }
-            wrapper = this.slotAssignmentMap.get(nodeId);
-            queueToSlotMap = wrapper.getStringListHashMap();
-            currentSlotList = queueToSlotMap.get(queueName);
-            if (null == currentSlotList) {
-                currentSlotList = new TreeSet<>();
-            }
-
             //update slot state
             if (allocatedSlot.addState(SlotState.ASSIGNED)) {
                 //remove any similar slot from hazelcast and add the updated one
-                currentSlotList.remove(allocatedSlot);
-                currentSlotList.add(allocatedSlot);
-                queueToSlotMap.put(queueName, currentSlotList);
-                wrapper.setStringListHashMap(queueToSlotMap);
-                this.slotAssignmentMap.set(nodeId, wrapper);
+                slotAssignmentMap.executeOnKey(nodeId,
+                        new AddQueueSlotsProcessor(queueName, Collections.singleton(allocatedSlot)));
             }
         } catch (HazelcastInstanceNotActiveException ex) {
             throw new AndesException("Failed to update slot assignment for queue : " +
@@ -681,43 +616,24 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
      */
     @Override
     public Slot getOverlappedSlot(String nodeId, String queueName) throws AndesException {
-        Slot slotToBeAssigned = null;
-        TreeSet<Slot> currentSlotList;
-        HashMap<String, TreeSet<Slot>> queueToSlotMap;
         try {
-            HashmapStringTreeSetWrapper wrapper = this.overlappedSlotMap.get(nodeId);
-            if (null != wrapper) {
-                queueToSlotMap = wrapper.getStringListHashMap();
-                currentSlotList = queueToSlotMap.get(queueName);
-                if (null != currentSlotList && !(currentSlotList.isEmpty())) {
-                    //get and remove slot
-                    slotToBeAssigned = currentSlotList.pollFirst();
-                    queueToSlotMap.put(queueName, currentSlotList);
-                    //update hazelcast map
-                    wrapper.setStringListHashMap(queueToSlotMap);
-                    this.overlappedSlotMap.set(nodeId, wrapper);
-                }
-            }
+            return (Slot) overlappedSlotMap.executeOnKey(nodeId, new PollQueueSlotProcessor(queueName));
         } catch (HazelcastInstanceNotActiveException ex) {
             throw new AndesException("Failed to getOverlappedSlot for queue : " +
                     queueName + " from node " + nodeId, ex);
         }
-        return slotToBeAssigned;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void addMessageId(String queueName, long messageId) throws AndesException {
+    public void addMessageIds(String queueName, LongArrayList messageIds) throws AndesException {
         try {
-            TreeSet<Long> messageIdSet = this.getSlotBasedMessageIds(queueName);
-            TreeSetLongWrapper wrapper = this.slotIdMap.get(queueName);
-            messageIdSet.add(messageId);
-            wrapper.setLongTreeSet(messageIdSet);
-            this.slotIdMap.set(queueName, wrapper);
+            this.slotIdMap.executeOnKey(queueName,
+                    new MessageIdUpdateProcessor(messageIds.toArray(), true, compactSlotMessageIds));
         }  catch (HazelcastInstanceNotActiveException ex) {
-            throw new AndesException("Failed to addMessageId for queue : " +
+            throw new AndesException("Failed to addMessageIds for queue : " +
                     queueName, ex);
         }
     }
@@ -726,19 +642,18 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
      * {@inheritDoc}
      */
     @Override
-    public TreeSet<Long> getSlotBasedMessageIds(String queueName) throws AndesException {
-        TreeSetLongWrapper wrapper = null;
+    public MessageIdRanges getSlotBasedMessageIds(String queueName) throws AndesException {
         try {
-            wrapper = this.slotIdMap.get(queueName);
-            if (null == wrapper) {
-                wrapper = new TreeSetLongWrapper();
-                this.slotIdMap.putIfAbsent(queueName, wrapper);
+            Object messageIds = this.slotIdMap.get(queueName);
+            if (null == messageIds) {
+                messageIds = MessageIdUpdateProcessor.toMapValue(new MessageIdRanges(), compactSlotMessageIds);
+                this.slotIdMap.putIfAbsent(queueName, messageIds);
             }
+            return MessageIdUpdateProcessor.toMessageIdRanges(messageIds);
         }  catch (HazelcastInstanceNotActiveException ex) {
             throw new AndesException("Failed to getSlotBasedMessageIds for queue : " +
                     queueName, ex);
         }
-        return wrapper.getLongTreeSet();
     }
 
     /**
@@ -747,15 +662,8 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
     @Override
     public void deleteMessageId(String queueName, long messageId) throws AndesException {
         try {
-            TreeSetLongWrapper wrapper = this.slotIdMap.get(queueName);
-            TreeSet<Long> messageIDSet;
-            messageIDSet = wrapper.getLongTreeSet();
-            if (null != messageIDSet && !(messageIDSet.isEmpty())) {
-                messageIDSet.pollFirst();
-                //set modified published ID map to hazelcast
-                wrapper.setLongTreeSet(messageIDSet);
-                this.slotIdMap.set(queueName, wrapper);
-            }
+            this.slotIdMap.executeOnKey(queueName,
+                    new MessageIdUpdateProcessor(new long[] {messageId}, false, compactSlotMessageIds));
         }  catch (HazelcastInstanceNotActiveException ex) {
             throw new AndesException("Failed to deleteMessageId for queue : " +
                     queueName, ex);
@@ -769,39 +677,17 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
     public void deleteSlotsByQueueName(String queueName) throws AndesException {
         try {
             if (null != this.unAssignedSlotMap) {
-                this.unAssignedSlotMap.remove(queueName);
+                this.unAssignedSlotMap.delete(queueName);
             }
 
             // The requirement here is to clear slot associations for the queue on all nodes.
-            List<String> nodeIDs = AndesContext.getInstance().getClusterAgent().getAllNodeIdentifiers();
-
-            for (String nodeID : nodeIDs) {
-                if (null != nodeID) {
-                    HashmapStringTreeSetWrapper wrapper = slotAssignmentMap.get(nodeID);
-                    HashMap<String, TreeSet<Slot>> queueToSlotMap = null;
-                    if (null != wrapper) {
-                        queueToSlotMap = wrapper.getStringListHashMap();
-                    }
-                    if (null != queueToSlotMap) {
-                        queueToSlotMap.remove(queueName);
-                        wrapper.setStringListHashMap(queueToSlotMap);
-                        slotAssignmentMap.set(nodeID, wrapper);
-                    }
+            Set<String> nodeIDs = new HashSet<>(AndesContext.getInstance().getClusterAgent().getAllNodeIdentifiers());
+            nodeIDs.remove(null);
 
-                    //clear overlapped slot map
-                    HashmapStringTreeSetWrapper overlappedSlotsWrapper = overlappedSlotMap.get(nodeID);
-                    if (null != overlappedSlotsWrapper) {
-                        HashMap<String, TreeSet<Slot>> queueToOverlappedSlotMap = null;
-                        if (null != wrapper) {
-                            queueToOverlappedSlotMap = overlappedSlotsWrapper.getStringListHashMap();
-                        }
-                        if (null != queueToSlotMap) {
-                            queueToOverlappedSlotMap.remove(queueName);
-                            overlappedSlotsWrapper.setStringListHashMap(queueToOverlappedSlotMap);
-                            overlappedSlotMap.set(nodeID, overlappedSlotsWrapper);
-                        }
-                    }
-                }
+            if (!(nodeIDs.isEmpty())) {
+                slotAssignmentMap.executeOnKeys(nodeIDs, new RemoveQueueSlotsProcessor(queueName));
+                //clear overlapped slot map
+                overlappedSlotMap.executeOnKeys(nodeIDs, new RemoveQueueSlotsProcessor(queueName));
             }
         } catch (HazelcastInstanceNotActiveException ex) {
             throw new AndesException("Failed to deleteSlotsByQueueName for queue : " +
@@ -848,38 +734,21 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
      * {@inheritDoc}
      */
     @Override
+    @SuppressWarnings("unchecked")
     public TreeSet<Slot> getAllSlotsByQueueName(String queueName) throws AndesException {
         TreeSet<Slot> resultSet = new TreeSet<>();
         TreeSet<String> messagePublishedNodes = getMessagePublishedNodes();
 
-        for (String nodeId : messagePublishedNodes) {
-            if (!(overlappedSlotMap.containsKey(nodeId))) {
-                overlappedSlotMap.put(nodeId, new HashmapStringTreeSetWrapper());
+        if (!(messagePublishedNodes.isEmpty())) {
+            // Only the slots of the queue are read from the members owning the node entries
+            GetQueueSlotsProcessor queueSlotsProcessor = new GetQueueSlotsProcessor(queueName);
+            for (Object overlappedSlots : overlappedSlotMap.executeOnKeys(messagePublishedNodes,
+                    queueSlotsProcessor).values()) {
+                resultSet.addAll((TreeSet<Slot>) overlappedSlots);
             }
-            HashmapStringTreeSetWrapper olWrapper = overlappedSlotMap.get(nodeId);
-            if (null != olWrapper) {
-                HashMap<String, TreeSet<Slot>> olSlotMap = olWrapper.getStringListHashMap();
-                if (null != olSlotMap) {
-                    if (!(olSlotMap.containsKey(queueName))) {
-                        olSlotMap.put(queueName, new TreeSet<Slot>());
-                        olWrapper.setStringListHashMap(olSlotMap);
-                        overlappedSlotMap.set(nodeId, olWrapper);
-                    } else {
-                        resultSet.addAll(olSlotMap.get(queueName));
-                    }
-                }
-            }
-
-
-            HashmapStringTreeSetWrapper wrapper = slotAssignmentMap.get(nodeId);
-            if (null != wrapper) {
-                HashMap<String, TreeSet<Slot>> queueToSlotMap = wrapper.getStringListHashMap();
-                if (queueToSlotMap != null) {
-                    TreeSet<Slot> slotListForQueueOnNode = queueToSlotMap.get(queueName);
-                    if (null != slotListForQueueOnNode) {
-                        resultSet.addAll(slotListForQueueOnNode);
-                    }
-                }
+            for (Object assignedSlots : slotAssignmentMap.executeOnKeys(messagePublishedNodes,
+                    queueSlotsProcessor).values()) {
+                resultSet.addAll((TreeSet<Slot>) assignedSlots);
             }
         }
 
@@ -902,20 +771,9 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
     @Override
     public void reassignSlot(Slot slotToBeReassigned) throws AndesException {
         try {
-            TreeSet<Slot> freeSlotTreeSet = new TreeSet<>();
-            TreeSetSlotWrapper treeSetStringWrapper = new TreeSetSlotWrapper();
-
-            treeSetStringWrapper.setSlotTreeSet(freeSlotTreeSet);
-
-            this.unAssignedSlotMap.putIfAbsent(slotToBeReassigned.getStorageQueueName(),
-                    treeSetStringWrapper);
-
             if (slotToBeReassigned.addState(SlotState.RETURNED)) {
-                treeSetStringWrapper = this.unAssignedSlotMap.get(slotToBeReassigned.getStorageQueueName());
-                freeSlotTreeSet = treeSetStringWrapper.getSlotTreeSet();
-                freeSlotTreeSet.add(slotToBeReassigned);
-                treeSetStringWrapper.setSlotTreeSet(freeSlotTreeSet);
-                this.unAssignedSlotMap.set(slotToBeReassigned.getStorageQueueName(), treeSetStringWrapper);
+                this.unAssignedSlotMap.executeOnKey(slotToBeReassigned.getStorageQueueName(),
+                        new AddUnAssignedSlotsProcessor(Collections.singleton(slotToBeReassigned)));
             }
         } catch (HazelcastInstanceNotActiveException ex) {
             throw new AndesException("Failed to reassign slot", ex);
@@ -931,40 +789,34 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
     }
 
     /**
-     * TODO Fix with new changes
      * {@inheritDoc}
      */
     @Override
-    public void updateOverlappedSlots( String queueName, TreeSet<Slot> overlappedSlots)
+    @SuppressWarnings("unchecked")
+    public void updateOverlappedSlots(String queueName, TreeSet<Slot> overlappedSlots)
             throws AndesException {
         TreeSet<String> messagePublishedNodes = getMessagePublishedNodes();
+        if (overlappedSlots.isEmpty() || messagePublishedNodes.isEmpty()) {
+            return;
+        }
 
-        for (String nodeId : messagePublishedNodes) {
-            HashmapStringTreeSetWrapper wrapper = slotAssignmentMap.get(nodeId);
-            HashMap<String, TreeSet<Slot>> queueToSlotMap = new HashMap<>();
-            if (null == wrapper) {
-                wrapper = new HashmapStringTreeSetWrapper();
-            } else {
-                queueToSlotMap = wrapper.getStringListHashMap();
+        // Remove the overlapped slots from the assigned slots of each node and keep them as overlapped slots of the
+        // node they were assigned to
+        Map<String, Object> removedSlotsByNode = slotAssignmentMap.executeOnKeys(messagePublishedNodes,
+                new RemoveQueueSlotsProcessor(queueName, overlappedSlots));
+        for (Map.Entry<String, Object> removedSlotsOfNode : removedSlotsByNode.entrySet()) {
+            TreeSet<Slot> removedSlots = (TreeSet<Slot>) removedSlotsOfNode.getValue();
+            if (null == removedSlots || removedSlots.isEmpty()) {
+                continue;
             }
-
-            HashmapStringTreeSetWrapper olWrapper = overlappedSlotMap.get(nodeId);
-            HashMap<String, TreeSet<Slot>> olSlotMap = olWrapper.getStringListHashMap();
+            TreeSet<Slot> slotsForNode = new TreeSet<>();
             for (Slot slot : overlappedSlots) {
-                TreeSet<Slot> slotsForNode = queueToSlotMap.get(queueName);
-                if (slotsForNode.contains(slot)) {
-                    //Add to global overlappedSlotMap
-                    olSlotMap.get(queueName).remove(slot);
-                    olSlotMap.get(queueName).add(slot);
-
-                    slotsForNode.remove(slot);
+                if (removedSlots.contains(slot)) {
+                    slotsForNode.add(slot);
                 }
             }
-            wrapper.setStringListHashMap(queueToSlotMap);
-            slotAssignmentMap.set(nodeId, wrapper);
-            // Add all marked slots collected into the olSlot to global overlappedSlotsMap.
-            olWrapper.setStringListHashMap(olSlotMap);
-            overlappedSlotMap.set(nodeId, olWrapper);
+            overlappedSlotMap.executeOnKey(removedSlotsOfNode.getKey(),
+                    new AddQueueSlotsProcessor(queueName, slotsForNode));
         }
     }
 
@@ -1034,6 +886,34 @@ public class HazelcastAgent implements SlotAgent, ClusterNotificationListenerMan
         config.addRingBufferConfig(ringConfig);
     }
 
+    /**
+     * Keep values of the slot maps as objects. The in-memory format of a map cannot be changed once the Hazelcast
+     * instance is running, hence this should be called on the configuration of each member before the instance is
+     * created.
+     *
+     * @param config configuration the Hazelcast instance will be created with
+     */
+    public static void configureSlotMaps(Config config) {
+        for (String slotMapName : SLOT_MAP_NAMES) {
+            MapConfig mapConfig = config.getMapConfig(slotMapName);
+            mapConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        }
+    }
+
+    /**
+     * Log if values of the given map are not kept as objects. Slots are still updated correctly in that case.
+     *
+     * @param mapName name of the map
+     */
+    private void checkObjectInMemoryFormat(String mapName) {
+        InMemoryFormat inMemoryFormat = hazelcastInstance.getConfig().findMapConfig(mapName).getInMemoryFormat();
+        if (InMemoryFormat.OBJECT != inMemoryFormat) {
+            log.info("Hazelcast map " + mapName + " keeps values in " + inMemoryFormat + " format. Slot updates "
+                    + "will deserialize the stored slots. Configure the map with HazelcastAgent.configureSlotMaps "
+                    + "before the Hazelcast instance is created to avoid this.");
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import com.hazelcast.map.AbstractEntryProcessor;
+import org.wso2.andes.kernel.slot.Slot;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Base class of entry processors updating slots kept in Hazelcast maps. An entry processor runs on the member owning
+ * the entry and only the processor, which carries the change, is sent over the network instead of the whole value.
+ *
+ * @param <V> type of the map value
+ */
+public abstract class AbstractSlotEntryProcessor<V> extends AbstractEntryProcessor<String, V> {
+
+    /**
+     * Create a processor
+     *
+     * @param applyOnBackup true if the processor changes the entry and has to be applied on backups as well
+     */
+    protected AbstractSlotEntryProcessor(boolean applyOnBackup) {
+        super(applyOnBackup);
+    }
+
+    /**
+     * Copy the coordination information of a slot. Messages read by the slot on the local node are not copied so
+     * that the copy can be serialized and stored in the map without sharing state with the caller.
+     *
+     * @param slot slot to copy
+     * @return copy of the slot
+     */
+    protected static Slot copyOf(Slot slot) {
+        Slot copy = new Slot();
+        copy.setMessageCount(slot.getMessageCount());
+        copy.setStartMessageId(slot.getStartMessageId());
+        copy.setEndMessageId(slot.getEndMessageId());
+        copy.setStorageQueueName(slot.getStorageQueueName());
+        copy.setDestinationOfMessagesInSlot(slot.getDestinationOfMessagesInSlot());
+        copy.setAnOverlappingSlot(slot.isAnOverlappingSlot());
+        // States are set after the overlapping flag since setting the flag adds a state
+        copy.decodeAndSetSlotStates(slot.encodeSlotStates());
+        if (!slot.isSlotActive()) {
+            copy.setSlotInactive();
+        }
+        return copy;
+    }
+
+    /**
+     * Copy the coordination information of slots
+     *
+     * @param slots slots to copy
+     * @return copies of the slots
+     */
+    protected static TreeSet<Slot> copyOf(Collection<Slot> slots) {
+        TreeSet<Slot> copies = new TreeSet<>();
+        for (Slot slot : slots) {
+            copies.add(copyOf(slot));
+        }
+        return copies;
+    }
+}
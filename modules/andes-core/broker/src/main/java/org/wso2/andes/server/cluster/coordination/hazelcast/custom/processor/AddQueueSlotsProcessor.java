@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.HashmapStringTreeSetWrapper;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Add slots of a queue to the slots kept for a node. A slot already kept for the node is replaced. The map entry is
+ * keyed by node id.
+ */
+public class AddQueueSlotsProcessor extends AbstractSlotEntryProcessor<HashmapStringTreeSetWrapper> {
+
+    private final String queueName;
+
+    private final TreeSet<Slot> slots;
+
+    /**
+     * Create a processor
+     *
+     * @param queueName name of the queue the slots belong to
+     * @param slots     slots to add
+     */
+    public AddQueueSlotsProcessor(String queueName, Collection<Slot> slots) {
+        super(true);
+        this.queueName = queueName;
+        this.slots = copyOf(slots);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object process(Map.Entry<String, HashmapStringTreeSetWrapper> entry) {
+        HashmapStringTreeSetWrapper wrapper = entry.getValue();
+        if (null == wrapper) {
+            wrapper = new HashmapStringTreeSetWrapper();
+        }
+        HashMap<String, TreeSet<Slot>> queueToSlotMap = wrapper.getStringListHashMap();
+        TreeSet<Slot> queueSlots = queueToSlotMap.get(queueName);
+        if (null == queueSlots) {
+            queueSlots = new TreeSet<>();
+            queueToSlotMap.put(queueName, queueSlots);
+        }
+        for (Slot slot : slots) {
+            queueSlots.remove(slot);
+            queueSlots.add(slot);
+        }
+        entry.setValue(wrapper);
+        return null;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.TreeSetSlotWrapper;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Add slots to the unassigned slots of a queue. The map entry is keyed by queue name.
+ */
+public class AddUnAssignedSlotsProcessor extends AbstractSlotEntryProcessor<TreeSetSlotWrapper> {
+
+    private final TreeSet<Slot> slots;
+
+    /**
+     * Create a processor
+     *
+     * @param slots slots returned to the queue
+     */
+    public AddUnAssignedSlotsProcessor(Collection<Slot> slots) {
+        super(true);
+        this.slots = copyOf(slots);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object process(Map.Entry<String, TreeSetSlotWrapper> entry) {
+        TreeSetSlotWrapper wrapper = entry.getValue();
+        if (null == wrapper) {
+            wrapper = new TreeSetSlotWrapper();
+        }
+        TreeSet<Slot> unAssignedSlots = wrapper.getSlotTreeSet();
+        if (null == unAssignedSlots) {
+            unAssignedSlots = new TreeSet<>();
+            wrapper.setSlotTreeSet(unAssignedSlots);
+        }
+        unAssignedSlots.addAll(slots);
+        entry.setValue(wrapper);
+        return null;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.kernel.slot.SlotState;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.HashmapStringTreeSetWrapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Mark a slot assigned to a node as deleted and remove it. The map entry is keyed by node id.
+ */
+public class DeleteQueueSlotProcessor extends AbstractSlotEntryProcessor<HashmapStringTreeSetWrapper> {
+
+    private final String queueName;
+
+    private final long startMessageId;
+
+    /**
+     * Create a processor
+     *
+     * @param queueName      name of the queue the slot belongs to
+     * @param startMessageId start message id of the slot
+     */
+    public DeleteQueueSlotProcessor(String queueName, long startMessageId) {
+        super(true);
+        this.queueName = queueName;
+        this.startMessageId = startMessageId;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return true if the slot was deleted or is not assigned to the node, false if the node has no slots for the
+     * queue or the slot cannot be deleted in its current state
+     */
+    @Override
+    public Object process(Map.Entry<String, HashmapStringTreeSetWrapper> entry) {
+        HashmapStringTreeSetWrapper wrapper = entry.getValue();
+        if (null == wrapper) {
+            return false;
+        }
+        HashMap<String, TreeSet<Slot>> queueToSlotMap = wrapper.getStringListHashMap();
+        if (null == queueToSlotMap) {
+            return false;
+        }
+        TreeSet<Slot> queueSlots = queueToSlotMap.get(queueName);
+        if (null == queueSlots) {
+            return false;
+        }
+
+        Slot matchingSlot = null;
+        for (Slot slot : queueSlots) {
+            if (slot.getStartMessageId() == startMessageId) {
+                matchingSlot = slot;
+            }
+        }
+        if (null == matchingSlot) {
+            // We can say slot deleted since the slot does not exist
+            return true;
+        }
+        if (matchingSlot.addState(SlotState.DELETED)) {
+            queueSlots.remove(matchingSlot);
+            entry.setValue(wrapper);
+            return true;
+        }
+        return false;
+    }
+}
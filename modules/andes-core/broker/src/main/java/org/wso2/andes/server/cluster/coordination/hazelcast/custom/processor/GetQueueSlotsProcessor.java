@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.HashmapStringTreeSetWrapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Read the slots of a queue kept for a node without the slots of other queues. The map entry is keyed by node id.
+ */
+public class GetQueueSlotsProcessor extends AbstractSlotEntryProcessor<HashmapStringTreeSetWrapper> {
+
+    private final String queueName;
+
+    /**
+     * Create a processor
+     *
+     * @param queueName name of the queue
+     */
+    public GetQueueSlotsProcessor(String queueName) {
+        // Entry is not changed
+        super(false);
+        this.queueName = queueName;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return copies of the slots of the queue
+     */
+    @Override
+    public Object process(Map.Entry<String, HashmapStringTreeSetWrapper> entry) {
+        HashmapStringTreeSetWrapper wrapper = entry.getValue();
+        if (null == wrapper) {
+            return new TreeSet<Slot>();
+        }
+        HashMap<String, TreeSet<Slot>> queueToSlotMap = wrapper.getStringListHashMap();
+        if (null == queueToSlotMap) {
+            return new TreeSet<Slot>();
+        }
+        TreeSet<Slot> queueSlots = queueToSlotMap.get(queueName);
+        if (null == queueSlots) {
+            return new TreeSet<Slot>();
+        }
+        return copyOf(queueSlots);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import com.hazelcast.map.AbstractEntryProcessor;
+import org.wso2.andes.kernel.slot.MessageIdRanges;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.TreeSetLongWrapper;
+
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Add or remove message ids of a queue in the map of submitted message ids. The map entry is keyed by queue name and
+ * the value is a {@link TreeSetLongWrapper}, or message ids encoded by {@link MessageIdRanges#toBytes()} when slot
+ * message ids are compact.
+ */
+public class MessageIdUpdateProcessor extends AbstractEntryProcessor<String, Object> {
+
+    private final long[] messageIds;
+
+    /**
+     * True to add the message ids, false to remove them
+     */
+    private final boolean add;
+
+    /**
+     * True to store the message ids encoded by {@link MessageIdRanges#toBytes()}
+     */
+    private final boolean compact;
+
+    /**
+     * Create a processor
+     *
+     * @param messageIds message ids
+     * @param add        true to add the message ids, false to remove them
+     * @param compact    true to store the message ids encoded by {@link MessageIdRanges#toBytes()}
+     */
+    public MessageIdUpdateProcessor(long[] messageIds, boolean add, boolean compact) {
+        super(true);
+        this.messageIds = messageIds;
+        this.add = add;
+        this.compact = compact;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object process(Map.Entry<String, Object> entry) {
+        Object value = entry.getValue();
+        MessageIdRanges storedMessageIds = toMessageIdRanges(value);
+
+        boolean changed = false;
+        for (long messageId : messageIds) {
+            changed |= add ? storedMessageIds.add(messageId) : storedMessageIds.remove(messageId);
+        }
+        if (changed || null == value) {
+            entry.setValue(toMapValue(storedMessageIds, compact));
+        }
+        return null;
+    }
+
+    /**
+     * Get the message ids held by a value of the map of submitted message ids
+     *
+     * @param value map value, or null if the queue has no entry
+     * @return message ids
+     */
+    public static MessageIdRanges toMessageIdRanges(Object value) {
+        if (value instanceof byte[]) {
+            return MessageIdRanges.fromBytes((byte[]) value);
+        }
+
+        MessageIdRanges messageIds = new MessageIdRanges();
+        if (null != value) {
+            for (Long messageId : ((TreeSetLongWrapper) value).getLongTreeSet()) {
+                messageIds.add(messageId);
+            }
+        }
+        return messageIds;
+    }
+
+    /**
+     * Create a value of the map of submitted message ids
+     *
+     * @param messageIds message ids
+     * @param compact    true to encode the message ids by {@link MessageIdRanges#toBytes()}
+     * @return map value
+     */
+    public static Object toMapValue(MessageIdRanges messageIds, boolean compact) {
+        if (compact) {
+            return messageIds.toBytes();
+        }
+
+        TreeSet<Long> messageIdSet = new TreeSet<>();
+        for (int i = 0; i < messageIds.size(); i++) {
+            messageIdSet.add(messageIds.get(i));
+        }
+        TreeSetLongWrapper wrapper = new TreeSetLongWrapper();
+        wrapper.setLongTreeSet(messageIdSet);
+        return wrapper;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.HashmapStringTreeSetWrapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Remove and return the slot of a queue with the lowest message id from the slots kept for a node. The map entry is
+ * keyed by node id.
+ */
+public class PollQueueSlotProcessor extends AbstractSlotEntryProcessor<HashmapStringTreeSetWrapper> {
+
+    private final String queueName;
+
+    /**
+     * Create a processor
+     *
+     * @param queueName name of the queue
+     */
+    public PollQueueSlotProcessor(String queueName) {
+        super(true);
+        this.queueName = queueName;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return removed slot or null if there are no slots for the queue
+     */
+    @Override
+    public Object process(Map.Entry<String, HashmapStringTreeSetWrapper> entry) {
+        HashmapStringTreeSetWrapper wrapper = entry.getValue();
+        if (null == wrapper) {
+            return null;
+        }
+        HashMap<String, TreeSet<Slot>> queueToSlotMap = wrapper.getStringListHashMap();
+        if (null == queueToSlotMap) {
+            return null;
+        }
+        TreeSet<Slot> queueSlots = queueToSlotMap.get(queueName);
+        if (null == queueSlots || queueSlots.isEmpty()) {
+            return null;
+        }
+        Slot slot = queueSlots.pollFirst();
+        entry.setValue(wrapper);
+        return slot;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.TreeSetSlotWrapper;
+
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Remove and return the unassigned slot of a queue with the lowest message id. The map entry is keyed by queue name.
+ */
+public class PollUnAssignedSlotProcessor extends AbstractSlotEntryProcessor<TreeSetSlotWrapper> {
+
+    public PollUnAssignedSlotProcessor() {
+        super(true);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return removed slot or null if there are no unassigned slots
+     */
+    @Override
+    public Object process(Map.Entry<String, TreeSetSlotWrapper> entry) {
+        TreeSetSlotWrapper wrapper = entry.getValue();
+        if (null == wrapper) {
+            return null;
+        }
+        TreeSet<Slot> unAssignedSlots = wrapper.getSlotTreeSet();
+        if (null == unAssignedSlots || unAssignedSlots.isEmpty()) {
+            return null;
+        }
+        Slot slot = unAssignedSlots.pollFirst();
+        entry.setValue(wrapper);
+        return slot;
+    }
+}
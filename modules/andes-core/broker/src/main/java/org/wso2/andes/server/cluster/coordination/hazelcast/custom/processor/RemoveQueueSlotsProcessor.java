@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.HashmapStringTreeSetWrapper;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Remove slots of a queue from the slots kept for a node. The map entry is keyed by node id.
+ */
+public class RemoveQueueSlotsProcessor extends AbstractSlotEntryProcessor<HashmapStringTreeSetWrapper> {
+
+    private final String queueName;
+
+    /**
+     * Slots to remove, or null to remove all slots of the queue
+     */
+    private final TreeSet<Slot> slots;
+
+    /**
+     * Create a processor removing all slots of a queue
+     *
+     * @param queueName name of the queue
+     */
+    public RemoveQueueSlotsProcessor(String queueName) {
+        super(true);
+        this.queueName = queueName;
+        this.slots = null;
+    }
+
+    /**
+     * Create a processor removing the given slots of a queue
+     *
+     * @param queueName name of the queue
+     * @param slots     slots to remove
+     */
+    public RemoveQueueSlotsProcessor(String queueName, Collection<Slot> slots) {
+        super(true);
+        this.queueName = queueName;
+        this.slots = copyOf(slots);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return removed slots as kept for the node
+     */
+    @Override
+    public Object process(Map.Entry<String, HashmapStringTreeSetWrapper> entry) {
+        TreeSet<Slot> removedSlots = new TreeSet<>();
+        HashmapStringTreeSetWrapper wrapper = entry.getValue();
+        if (null == wrapper) {
+            return removedSlots;
+        }
+        HashMap<String, TreeSet<Slot>> queueToSlotMap = wrapper.getStringListHashMap();
+        if (null == queueToSlotMap || !queueToSlotMap.containsKey(queueName)) {
+            return removedSlots;
+        }
+
+        if (null == slots) {
+            TreeSet<Slot> queueSlots = queueToSlotMap.remove(queueName);
+            if (null != queueSlots) {
+                removedSlots.addAll(queueSlots);
+            }
+        } else {
+            TreeSet<Slot> queueSlots = queueToSlotMap.get(queueName);
+            if (null == queueSlots) {
+                return removedSlots;
+            }
+            for (Slot slot : slots) {
+                Slot removedSlot = queueSlots.ceiling(slot);
+                if (null != removedSlot && removedSlot.equals(slot)) {
+                    queueSlots.remove(removedSlot);
+                    removedSlots.add(removedSlot);
+                }
+            }
+        }
+        entry.setValue(wrapper);
+        return removedSlots;
+    }
+}
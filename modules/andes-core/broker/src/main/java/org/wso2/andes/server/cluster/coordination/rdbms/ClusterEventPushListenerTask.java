@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.rdbms;
+
+import org.apache.log4j.Logger;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.thrift.slot.gen.ClusterNotificationInfo;
+import org.wso2.andes.thrift.slot.gen.SlotManagementService;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits on the slot coordinator for cluster notifications published by any node and triggers the
+ * {@link ClusterEventReaderTask} as soon as they are published. A dedicated thrift connection is used since the wait
+ * blocks the connection.
+ */
+class ClusterEventPushListenerTask implements Runnable {
+
+    private static final Logger log = Logger.getLogger(ClusterEventPushListenerTask.class);
+
+    /**
+     * Maximum time in milliseconds a single wait on the coordinator blocks
+     */
+    private static final long MAX_WAIT_TIME = 10000;
+
+    /**
+     * Task reading cluster notifications from the store
+     */
+    private final Runnable clusterEventReaderTask;
+
+    /**
+     * Executor running the reader task. Shared with the fallback poll so that reads do not overlap.
+     */
+    private final ExecutorService readerExecutor;
+
+    private final String nodeID;
+
+    private volatile boolean running = true;
+
+    private TTransport transport;
+
+    private SlotManagementService.Client client;
+
+    /**
+     * Notification version last seen from the coordinator
+     */
+    private long lastSeenVersion;
+
+    /**
+     * Create the listener
+     *
+     * @param clusterEventReaderTask task reading cluster notifications from the store
+     * @param readerExecutor         executor running the reader task
+     * @param nodeID                 id of this node
+     */
+    ClusterEventPushListenerTask(Runnable clusterEventReaderTask, ExecutorService readerExecutor, String nodeID) {
+        this.clusterEventReaderTask = clusterEventReaderTask;
+        this.readerExecutor = readerExecutor;
+        this.nodeID = nodeID;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                ClusterNotificationInfo notificationInfo = getClient().waitForClusterNotifications(nodeID,
+                        lastSeenVersion, getWaitTime());
+                if (notificationInfo.getVersion() != lastSeenVersion) {
+                    lastSeenVersion = notificationInfo.getVersion();
+                    MetricManager.histogram(Level.INFO, MetricsConstants.CLUSTER_EVENT_PROPAGATION_LAG)
+                            .update(System.currentTimeMillis() - notificationInfo.getLastPublishedTime());
+                    readerExecutor.execute(clusterEventReaderTask);
+                }
+            } catch (TException e) {
+                closeConnection();
+                if (running) {
+                    log.warn("Could not wait for cluster notifications on the coordinator. Cluster events will be "
+                            + "read at the fallback sync interval until reconnected.", e);
+                    waitBeforeReconnecting();
+                }
+            } catch (RejectedExecutionException e) {
+                // Reader executor is shut down when the listener is stopped
+                running = false;
+            } catch (Throwable e) {
+                log.error("Error occurred while listening for cluster notifications.", e);
+                waitBeforeReconnecting();
+            }
+        }
+        closeConnection();
+    }
+
+    /**
+     * Stop waiting for cluster notifications
+     */
+    void stop() {
+        running = false;
+        closeConnection();
+    }
+
+    /**
+     * Returns a client connected to the current coordinator
+     *
+     * @return slot management service client
+     * @throws TException if connecting to the coordinator failed
+     */
+    private synchronized SlotManagementService.Client getClient() throws TException {
+        if (null == client) {
+            InetSocketAddress coordinatorAddress = AndesContext.getInstance().getClusterAgent()
+                    .getThriftAddressOfCoordinator();
+            if (null == coordinatorAddress) {
+                throw new TException("Thrift coordinator details are not updated yet");
+            }
+            int soTimeout = AndesConfigurationManager.readValue(AndesConfiguration.COORDINATION_THRIFT_SO_TIMEOUT);
+            transport = new TSocket(coordinatorAddress.getHostName(), coordinatorAddress.getPort(), soTimeout);
+            transport.open();
+            client = new SlotManagementService.Client(new TBinaryProtocol(transport));
+        }
+        return client;
+    }
+
+    /**
+     * Wait time sent to the coordinator. Kept within the socket timeout so that an idle wait does not time out.
+     *
+     * @return wait time in milliseconds
+     */
+    private long getWaitTime() {
+        int soTimeout = AndesConfigurationManager.readValue(AndesConfiguration.COORDINATION_THRIFT_SO_TIMEOUT);
+        if (soTimeout > 0) {
+            return Math.min(MAX_WAIT_TIME, soTimeout / 2);
+        }
+        return MAX_WAIT_TIME;
+    }
+
+    private synchronized void closeConnection() {
+        client = null;
+        if (null != transport) {
+            transport.close();
+            transport = null;
+        }
+    }
+
+    private void waitBeforeReconnecting() {
+        long reconnectTimeout = AndesConfigurationManager.readValue(
+                AndesConfiguration.COORDINATOR_THRIFT_RECONNECT_TIMEOUT);
+        try {
+            TimeUnit.SECONDS.sleep(reconnectTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
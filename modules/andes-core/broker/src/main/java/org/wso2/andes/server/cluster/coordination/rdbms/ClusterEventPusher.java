@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.rdbms;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.slot.ConnectionException;
+import org.wso2.andes.thrift.ClusterNotificationRelay;
+import org.wso2.andes.thrift.MBThriftClient;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells the slot coordinator that cluster notifications were stored so that the coordinator wakes up the nodes
+ * waiting in {@link ClusterEventPushListenerTask}. Pushes are sent from a separate thread so that publishing a
+ * cluster notification does not wait on the coordinator, and notifications stored while a push is pending are
+ * covered by that push since nodes read all their pending notifications from the store.
+ */
+class ClusterEventPusher {
+
+    private static final Logger log = Logger.getLogger(ClusterEventPusher.class);
+
+    private static final ClusterEventPusher instance = new ClusterEventPusher();
+
+    private final ExecutorService pushExecutor;
+
+    /**
+     * Time the earliest notification not yet pushed was stored. Zero if no push is pending.
+     */
+    private final AtomicLong pendingPublishedTime = new AtomicLong();
+
+    private ClusterEventPusher() {
+        pushExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("ClusterEventPusher-%d").setDaemon(true).build());
+    }
+
+    static ClusterEventPusher getInstance() {
+        return instance;
+    }
+
+    /**
+     * Push the notification stored at the given time unless a push is already pending
+     *
+     * @param nodeID        id of this node
+     * @param publishedTime time the notification was stored
+     */
+    void notificationStored(final String nodeID, long publishedTime) {
+        if (pendingPublishedTime.compareAndSet(0, publishedTime)) {
+            pushExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    push(nodeID, pendingPublishedTime.getAndSet(0));
+                }
+            });
+        }
+    }
+
+    private void push(String nodeID, long publishedTime) {
+        try {
+            if (AndesContext.getInstance().getClusterAgent().isCoordinator()) {
+                ClusterNotificationRelay.getInstance().notificationsPublished(nodeID, publishedTime);
+            } else {
+                MBThriftClient.clusterNotificationsPublished(nodeID, publishedTime);
+            }
+        } catch (ConnectionException e) {
+            log.warn("Could not push cluster notifications to the coordinator. Other nodes will read them at the "
+                    + "fallback sync interval.", e);
+        } catch (Throwable e) {
+            log.error("Error occurred while pushing cluster notifications to the coordinator.", e);
+        }
+    }
+}
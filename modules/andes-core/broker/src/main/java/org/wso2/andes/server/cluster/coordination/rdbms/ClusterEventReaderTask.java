@@ -23,16 +23,20 @@ import org.apache.log4j.Logger;
 import org.wso2.andes.kernel.AndesContext;
 import org.wso2.andes.kernel.AndesContextStore;
 import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.metrics.MetricsConstants;
 import org.wso2.andes.server.ClusterResourceHolder;
 import org.wso2.andes.server.cluster.coordination.ClusterNotificationHandler;
 import org.wso2.andes.server.cluster.coordination.ClusterNotification;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * The ClusterEventReaderTask runs periodically and checks for unread cluster notifications.
+ * The ClusterEventReaderTask runs periodically and checks for unread cluster notifications. It is also run when the
+ * {@link ClusterEventPushListenerTask} is notified of published cluster notifications.
  */
 public class ClusterEventReaderTask implements Runnable {
 
@@ -114,6 +118,7 @@ public class ClusterEventReaderTask implements Runnable {
             if (log.isDebugEnabled()){
                 log.debug("Cluster event reader received " + clusterEvents.size() + " events.");
             }
+            MetricManager.histogram(Level.INFO, MetricsConstants.CLUSTER_EVENT_READ_COUNT).update(clusterEvents.size());
             if (!clusterEvents.isEmpty()) {
                 for (ClusterNotification event : clusterEvents) {
                     //We need to skip processing a cluster notification which was sent by this node since it has
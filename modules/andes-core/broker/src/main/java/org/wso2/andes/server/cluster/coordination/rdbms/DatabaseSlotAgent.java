@@ -19,16 +19,17 @@
 package org.wso2.andes.server.cluster.coordination.rdbms;
 
 import com.google.common.util.concurrent.SettableFuture;
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.wso2.andes.kernel.AndesContext;
 import org.wso2.andes.kernel.AndesContextStore;
 import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.slot.MessageIdRanges;
 import org.wso2.andes.kernel.slot.Slot;
 import org.wso2.andes.kernel.slot.SlotState;
 import org.wso2.andes.server.cluster.coordination.SlotAgent;
-import org.wso2.andes.store.AndesDataIntegrityViolationException;
 import org.wso2.andes.store.AndesStoreUnavailableException;
 import org.wso2.andes.store.HealthAwareStore;
 import org.wso2.andes.store.StoreHealthListener;
@@ -356,19 +357,16 @@ public class DatabaseSlotAgent implements SlotAgent, StoreHealthListener {
      * {@inheritDoc}
      */
     @Override
-    public void addMessageId(String queueName, long messageId) throws AndesException {
+    public void addMessageIds(String queueName, LongArrayList messageIds) throws AndesException {
 
-        String task = "add message id: " + messageId + " for queue: " + queueName;
+        String task = "add message ids: " + messageIds + " for queue: " + queueName;
 
         for (int attemptCount = 1; attemptCount <= MAX_STORE_FAILURE_TOLERANCE_COUNT; attemptCount++) {
             waitUntilStoresBecomeAvailable(task);
             try {
-                andesContextStore.addMessageId(queueName, messageId);
+                // Same message id can be added when slots are overlapped. The store keeps a single entry for it.
+                andesContextStore.addMessageIds(queueName, messageIds);
                 break;
-            } catch (AndesDataIntegrityViolationException ignore) {
-                //Same message id can be added to list when slots are overlapped. In RDBMS slot store
-                //composite primary key of queue name and message id have been used to avoid duplicates.
-                //Therefore primary key violation exception can be ignored.
             } catch (AndesStoreUnavailableException e) {
                 handleFailure(attemptCount, task, e);
             }
@@ -380,11 +378,11 @@ public class DatabaseSlotAgent implements SlotAgent, StoreHealthListener {
      * {@inheritDoc}
      */
     @Override
-    public TreeSet<Long> getSlotBasedMessageIds(String queueName) throws AndesException {
+    public MessageIdRanges getSlotBasedMessageIds(String queueName) throws AndesException {
 
         String task = "get message ids for queue: " + queueName;
 
-        TreeSet<Long> messageIds = new TreeSet<>();
+        MessageIdRanges messageIds = new MessageIdRanges();
         for (int attemptCount = 1; attemptCount <= MAX_STORE_FAILURE_TOLERANCE_COUNT; attemptCount++) {
             waitUntilStoresBecomeAvailable(task);
             try {
@@ -408,7 +406,7 @@ public class DatabaseSlotAgent implements SlotAgent, StoreHealthListener {
         for (int attemptCount = 1; attemptCount <= MAX_STORE_FAILURE_TOLERANCE_COUNT; attemptCount++) {
             waitUntilStoresBecomeAvailable(task);
             try {
-                andesContextStore.deleteMessageId(messageId);
+                andesContextStore.deleteMessageId(queueName, messageId);
                 break;
             } catch (AndesStoreUnavailableException e) {
                 handleFailure(attemptCount, task, e);
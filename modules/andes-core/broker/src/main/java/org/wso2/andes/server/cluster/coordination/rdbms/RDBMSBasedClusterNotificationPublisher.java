@@ -20,6 +20,8 @@
 package org.wso2.andes.server.cluster.coordination.rdbms;
 
 import org.apache.log4j.Logger;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.AndesContext;
 import org.wso2.andes.kernel.AndesContextStore;
 import org.wso2.andes.kernel.AndesException;
@@ -54,6 +56,11 @@ public class RDBMSBasedClusterNotificationPublisher implements ClusterNotificati
      */
     private String nodeID;
 
+    /**
+     * Whether stored notifications are pushed to other nodes through the coordinator.
+     */
+    private boolean pushEnabled;
+
     /**
      * Initialize the handler with a specific prefix.
      *
@@ -63,10 +70,12 @@ public class RDBMSBasedClusterNotificationPublisher implements ClusterNotificati
         this.prefix = prefix;
         contextStore = AndesContext.getInstance().getAndesContextStore();
         nodeID = AndesContext.getInstance().getClusterAgent().getLocalNodeIdentifier();
+        pushEnabled = AndesConfigurationManager.readValue(AndesConfiguration.CLUSTER_EVENT_PUSH_ENABLED);
     }
 
     /**
-     * Stores the received notification in the database.
+     * Stores the received notification in the database and pushes it to other nodes if cluster event push is
+     * enabled.
      * {@inheritDoc}
      */
     @Override
@@ -98,6 +107,9 @@ public class RDBMSBasedClusterNotificationPublisher implements ClusterNotificati
         List<String> clusterNodes = AndesContext.getInstance().getClusterAgent().getAllNodeIdentifiers();
         contextStore.storeClusterNotification(clusterNodes, nodeID, eventType,
                                               clusterNotification.getEncodedObjectAsString());
+        if (pushEnabled) {
+            ClusterEventPusher.getInstance().notificationStored(nodeID, System.currentTimeMillis());
+        }
         if (log.isDebugEnabled()) {
             log.debug("Cluster notification " + clusterNotification.getEncodedObjectAsString() + " stored in Database");
         }
@@ -42,6 +42,13 @@ public class RDBMSClusterNotificationListenerManager implements ClusterNotificat
 
     ScheduledExecutorService scheduledExecutorService;
 
+    /**
+     * Waits for cluster notifications pushed through the coordinator. Null if cluster event push is disabled.
+     */
+    private ClusterEventPushListenerTask pushListenerTask;
+
+    private ExecutorService pushListenerExecutor;
+
     /**
      * {@inheritDoc}
      * <p/>
@@ -57,16 +64,38 @@ public class RDBMSClusterNotificationListenerManager implements ClusterNotificat
     }
 
     /**
-     * Schedules the {@link ClusterEventReaderTask} to run with the configured interval in the broker.xml.
+     * Schedules the {@link ClusterEventReaderTask} to run with the configured interval in the broker.xml. If cluster
+     * event push is enabled, the task is run when other nodes publish cluster notifications and the schedule only
+     * reconciles notifications which were not pushed.
      */
     private void scheduleClusterNotificationReader() {
         ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("ClusterEventReaderTask-%d").build();
-        int clusterEventReaderInterval = AndesConfigurationManager.readValue(AndesConfiguration
-                .CLUSTER_EVENT_SYNC_INTERVAL);
+        boolean pushEnabled = AndesConfigurationManager.readValue(AndesConfiguration.CLUSTER_EVENT_PUSH_ENABLED);
+        int clusterEventReaderInterval;
+        if (pushEnabled) {
+            clusterEventReaderInterval = AndesConfigurationManager.readValue(AndesConfiguration
+                    .CLUSTER_EVENT_FALLBACK_SYNC_INTERVAL);
+        } else {
+            clusterEventReaderInterval = AndesConfigurationManager.readValue(AndesConfiguration
+                    .CLUSTER_EVENT_SYNC_INTERVAL);
+        }
         scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(threadFactory);
-        scheduledExecutorService.scheduleWithFixedDelay(new ClusterEventReaderTask(),
+        ClusterEventReaderTask clusterEventReaderTask = new ClusterEventReaderTask();
+        scheduledExecutorService.scheduleWithFixedDelay(clusterEventReaderTask,
                 clusterEventReaderInterval, clusterEventReaderInterval, TimeUnit.MILLISECONDS);
-        log.info("RDBMS cluster event listener started with an interval of: " + clusterEventReaderInterval + "ms.");
+
+        if (pushEnabled) {
+            pushListenerTask = new ClusterEventPushListenerTask(clusterEventReaderTask, scheduledExecutorService,
+                    AndesContext.getInstance().getClusterAgent().getLocalNodeIdentifier());
+            pushListenerExecutor = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("ClusterEventPushListenerTask-%d").build());
+            pushListenerExecutor.execute(pushListenerTask);
+            log.info("RDBMS cluster event listener started with push enabled and a fallback interval of: "
+                    + clusterEventReaderInterval + "ms.");
+        } else {
+            log.info("RDBMS cluster event listener started with an interval of: " + clusterEventReaderInterval
+                    + "ms.");
+        }
     }
 
     /**
@@ -93,6 +122,10 @@ public class RDBMSClusterNotificationListenerManager implements ClusterNotificat
      */
     @Override
     public void stopListener() throws AndesException {
+        if (null != pushListenerTask) {
+            pushListenerTask.stop();
+            pushListenerExecutor.shutdownNow();
+        }
         scheduledExecutorService.shutdown();
         log.info("RDBMS cluster event listener stopped.");
     }
@@ -48,7 +48,7 @@ public class FilterManagerFactory
                 if (selector != null && !selector.equals(""))
                 {
                     manager = new SimpleFilterManager();
-                    manager.add(new JMSSelectorFilter(selector));
+                    manager.add(JMSSelectorFilter.getSharedFilter(selector));
                 }
 
             }
@@ -17,6 +17,8 @@
  */
 package org.wso2.andes.server.filter;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.log4j.Logger;
 import org.wso2.andes.AMQException;
 import org.wso2.andes.AMQInvalidArgumentException;
@@ -28,6 +30,13 @@ public class JMSSelectorFilter implements MessageFilter
 {
     private final static Logger _logger = org.apache.log4j.Logger.getLogger(JMSSelectorFilter.class);
 
+    /**
+     * Parsed filters by selector. Subscriptions with the same selector share a filter, which is dropped once none of
+     * them refers to it.
+     */
+    private static final Cache<String, JMSSelectorFilter> _sharedFilters =
+            CacheBuilder.newBuilder().weakValues().build();
+
     private String _selector;
     private BooleanExpression _matcher;
 
@@ -37,6 +46,28 @@ public class JMSSelectorFilter implements MessageFilter
         _matcher = new SelectorParser().parse(selector);
     }
 
+    /**
+     * Get a filter for the selector, shared with other subscriptions having the same selector
+     *
+     * @param selector JMS selector
+     * @return filter matching messages against the selector
+     * @throws AMQInvalidArgumentException if the selector is invalid
+     */
+    public static JMSSelectorFilter getSharedFilter(String selector) throws AMQInvalidArgumentException
+    {
+        JMSSelectorFilter filter = _sharedFilters.getIfPresent(selector);
+        if (filter == null)
+        {
+            filter = new JMSSelectorFilter(selector);
+            JMSSelectorFilter existingFilter = _sharedFilters.asMap().putIfAbsent(selector, filter);
+            if (existingFilter != null)
+            {
+                filter = existingFilter;
+            }
+        }
+        return filter;
+    }
+
     public boolean matches(Filterable message)
     {
         boolean match = _matcher.matches(message);
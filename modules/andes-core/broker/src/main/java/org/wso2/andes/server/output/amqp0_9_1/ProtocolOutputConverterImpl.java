@@ -21,10 +21,13 @@ package org.wso2.andes.server.output.amqp0_9_1;
 
 import org.apache.mina.common.ByteBuffer;
 import org.wso2.andes.AMQException;
+import org.wso2.andes.amqp.QpidStoredMessage;
 import org.wso2.andes.framing.*;
 import org.wso2.andes.framing.abstraction.MessagePublishInfo;
 import org.wso2.andes.framing.abstraction.ProtocolVersionMethodConverter;
 import org.wso2.andes.framing.amqp_0_91.BasicGetBodyImpl;
+import org.wso2.andes.kernel.AndesContent;
+import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.protocol.AMQConstant;
 import org.wso2.andes.protocol.AMQVersionAwareProtocolSession;
 import org.wso2.andes.server.message.AMQMessage;
@@ -34,14 +37,23 @@ import org.wso2.andes.server.output.HeaderPropertiesConverter;
 import org.wso2.andes.server.output.ProtocolOutputConverter;
 import org.wso2.andes.server.protocol.AMQProtocolSession;
 import org.wso2.andes.server.queue.QueueEntry;
+import org.wso2.andes.server.store.StoredMessage;
 import org.wso2.andes.transport.DeliveryProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
 {
     private static final MethodRegistry METHOD_REGISTRY = MethodRegistry.getMethodRegistry(ProtocolVersion.v0_91);
     private static final ProtocolVersionMethodConverter
             PROTOCOL_CONVERTER = METHOD_REGISTRY.getProtocolVersionMethodConverter();
 
+    /**
+     * Size of the frame type, channel and size fields preceding a frame body
+     */
+    private static final int FRAME_HEADER_SIZE = 1 + 2 + 4;
+
 
     public static Factory getInstanceFactory()
     {
@@ -106,6 +118,7 @@ public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
 
         String channelIdString =  String.valueOf(channelId).intern();
         int bodySize = (int) message.getSize();
+        AndesContent andesContent = getAndesContent(message);
 
         if(bodySize == 0)
         {
@@ -113,6 +126,10 @@ public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
                                                                              contentHeaderBody);
             writeFrame(compositeBlock);
         }
+        else if (null != andesContent)
+        {
+            writeFrame(createGatheredDelivery(channelId, deliverBody, contentHeaderBody, andesContent, bodySize));
+        }
         else
         {
              /**
@@ -156,6 +173,85 @@ public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
         }
     }
 
+    /**
+     * Get the stored content of a message delivered by Andes
+     *
+     * @param message message to be delivered
+     * @return content of the message or null if the message is not backed by Andes content
+     */
+    private AndesContent getAndesContent(MessageContentSource message)
+    {
+        if (message instanceof AMQMessage)
+        {
+            StoredMessage<?> storedMessage = ((AMQMessage) message).getStoredMessage();
+            if (storedMessage instanceof QpidStoredMessage)
+            {
+                return ((QpidStoredMessage) storedMessage).getAndesContent();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create the frames of a delivery with content body frames referring to the stored content chunks. The method and
+     * content header frames are encoded along with the header of the first content body frame. Each content body frame
+     * is followed by a small buffer holding its frame end and the header of the next frame, so the content itself is
+     * never copied before it is written.
+     */
+    private AMQDataBlock createGatheredDelivery(int channelId, AMQBody deliverBody, ContentHeaderBody contentHeaderBody,
+                                                AndesContent content, int bodySize) throws AMQException
+    {
+        int maxBodySize = (int) getProtocolSession().getMaxFrameSize() - AMQFrame.getFrameOverhead();
+        List<java.nio.ByteBuffer> buffers = new ArrayList<java.nio.ByteBuffer>();
+
+        java.nio.ByteBuffer frameHeader = java.nio.ByteBuffer.allocate(SmallCompositeAMQBodyBlock.OVERHEAD
+                + deliverBody.getSize() + contentHeaderBody.getSize() + FRAME_HEADER_SIZE);
+        AMQFrame.writeFrames(ByteBuffer.wrap(frameHeader), channelId, deliverBody, contentHeaderBody);
+
+        int writtenSize = 0;
+        try
+        {
+            while (true)
+            {
+                int frameBodySize = Math.min(maxBodySize, bodySize - writtenSize);
+                frameHeader.put(ContentBody.TYPE);
+                frameHeader.putShort((short) channelId);
+                frameHeader.putInt(frameBodySize);
+                frameHeader.flip();
+                buffers.add(frameHeader);
+
+                int sliceStart = buffers.size();
+                content.addContentSlices(writtenSize, frameBodySize, buffers);
+                int slicedSize = 0;
+                for (int i = sliceStart; i < buffers.size(); i++)
+                {
+                    slicedSize += buffers.get(i).remaining();
+                }
+                if (slicedSize != frameBodySize)
+                {
+                    throw new AMQException(AMQConstant.MESSAGE_CONTENT_OBSOLETE,
+                            "Unexpected Error while getting message content : got " + slicedSize + " bytes at offset "
+                            + writtenSize + " instead of " + frameBodySize + ". bodySize= " + bodySize);
+                }
+                writtenSize += frameBodySize;
+
+                if (writtenSize >= bodySize)
+                {
+                    break;
+                }
+                frameHeader = java.nio.ByteBuffer.allocate(1 + FRAME_HEADER_SIZE);
+                frameHeader.put(AMQFrame.FRAME_END_BYTE);
+            }
+        }
+        catch (AndesException e)
+        {
+            throw new AMQException(AMQConstant.INTERNAL_ERROR, "Error while getting message content", e);
+        }
+
+        buffers.add(java.nio.ByteBuffer.wrap(new byte[] { AMQFrame.FRAME_END_BYTE }));
+        return new GatheredAMQDataBlock(buffers.toArray(new java.nio.ByteBuffer[buffers.size()]));
+    }
+
     private AMQDataBlock createContentHeaderBlock(final int channelId, final ContentHeaderBody contentHeaderBody)
     {
 
@@ -362,6 +458,50 @@ public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
         }
     }
 
+    /**
+     * Data block made of buffers encoded up front. The buffers are handed to the network as they are when the sender
+     * supports gathering writes.
+     */
+    public static final class GatheredAMQDataBlock extends AMQDataBlock
+    {
+        private final java.nio.ByteBuffer[] _buffers;
+        private final long _size;
+
+        public GatheredAMQDataBlock(java.nio.ByteBuffer[] buffers)
+        {
+            _buffers = buffers;
+            long size = 0;
+            for (java.nio.ByteBuffer buffer : buffers)
+            {
+                size += buffer.remaining();
+            }
+            _size = size;
+        }
+
+        public long getSize()
+        {
+            return _size;
+        }
+
+        public void writePayload(ByteBuffer buffer)
+        {
+            for (java.nio.ByteBuffer source : _buffers)
+            {
+                buffer.put(source.duplicate());
+            }
+        }
+
+        public java.nio.ByteBuffer[] toNioByteBuffers()
+        {
+            java.nio.ByteBuffer[] buffers = new java.nio.ByteBuffer[_buffers.length];
+            for (int i = 0; i < _buffers.length; i++)
+            {
+                buffers[i] = _buffers[i].duplicate();
+            }
+            return buffers;
+        }
+    }
+
     public static final class SmallCompositeAMQBodyBlock extends AMQDataBlock
     {
         public static final int OVERHEAD = 2 * AMQFrame.getFrameOverhead();
@@ -73,6 +73,7 @@ import org.wso2.andes.server.state.AMQStateManager;
 import org.wso2.andes.server.stats.StatisticsCounter;
 import org.wso2.andes.server.virtualhost.VirtualHost;
 import org.wso2.andes.server.virtualhost.VirtualHostRegistry;
+import org.wso2.andes.transport.GatheringSender;
 import org.wso2.andes.transport.Sender;
 import org.wso2.andes.transport.network.NetworkConnection;
 
@@ -494,14 +495,27 @@ public class AMQProtocolEngine implements ProtocolEngine, Managable, AMQProtocol
     public void writeFrame(AMQDataBlock frame)
     {
         _lastSent = frame;
-        final ByteBuffer buf = frame.toNioByteBuffer();
+        // Frames referring to message content are written without copying the content when the sender supports it
+        final ByteBuffer[] bufs = (_sender instanceof GatheringSender)
+                                  ? frame.toNioByteBuffers()
+                                  : new ByteBuffer[] { frame.toNioByteBuffer() };
         _lastIoTime = System.currentTimeMillis();
-        _writtenBytes += buf.remaining();
+        for (ByteBuffer buf : bufs)
+        {
+            _writtenBytes += buf.remaining();
+        }
         Job.fireAsynchEvent(_poolReference.getPool(), _writeJob, new Runnable()
         {
             public void run()
             {
-                _sender.send(buf);
+                if (bufs.length == 1)
+                {
+                    _sender.send(bufs[0]);
+                }
+                else
+                {
+                    ((GatheringSender<ByteBuffer>) _sender).send(bufs);
+                }
             }
         });
     }
@@ -490,6 +490,14 @@ public abstract class SubscriptionImpl implements Subscription, FlowCreditManage
         return _filters != null || _noLocal;
     }
 
+    /**
+     * @return filters of the subscription, null if the subscription has no filters
+     */
+    public FilterManager getFilters()
+    {
+        return _filters;
+    }
+
     public boolean hasInterest(QueueEntry entry)
     {
 
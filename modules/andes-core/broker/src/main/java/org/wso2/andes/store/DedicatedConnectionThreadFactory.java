@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factory marking the threads it creates as heavy store users. Stores may keep a dedicated connection for each
+ * such thread, so that threads on hot paths like the Disruptor message writers never wait for a shared connection
+ * pool. Use it only for a small, fixed number of long running threads since each of them may hold a connection.
+ */
+public class DedicatedConnectionThreadFactory implements ThreadFactory {
+
+    /**
+     * Whether the current thread was created by a dedicated connection thread factory
+     */
+    private static final ThreadLocal<Boolean> dedicatedConnectionThread = new ThreadLocal<Boolean>() {
+        @Override
+        protected Boolean initialValue() {
+            return Boolean.FALSE;
+        }
+    };
+
+    private final ThreadFactory threadFactory;
+
+    /**
+     * Create a factory marking the threads created by the given factory
+     *
+     * @param threadFactory factory creating the threads
+     */
+    public DedicatedConnectionThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Thread newThread(final Runnable runnable) {
+        return threadFactory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                dedicatedConnectionThread.set(Boolean.TRUE);
+                runnable.run();
+            }
+        });
+    }
+
+    /**
+     * Check whether the current thread should be given a dedicated store connection
+     *
+     * @return true if the thread was created by a dedicated connection thread factory
+     */
+    public static boolean isDedicatedConnectionThread() {
+        return dedicatedConnectionThread.get();
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.wso2.andes.store;
 
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
 import org.wso2.andes.configuration.util.ConfigurationProperties;
 import org.wso2.andes.kernel.AndesBinding;
 import org.wso2.andes.kernel.AndesContextStore;
@@ -25,7 +26,9 @@ import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.AndesExchange;
 import org.wso2.andes.kernel.AndesQueue;
 import org.wso2.andes.kernel.AndesSubscription;
+import org.wso2.andes.kernel.ContextChange;
 import org.wso2.andes.kernel.DurableStoreConnection;
+import org.wso2.andes.kernel.slot.MessageIdRanges;
 import org.wso2.andes.kernel.slot.Slot;
 import org.wso2.andes.kernel.slot.SlotState;
 import org.wso2.andes.server.cluster.coordination.rdbms.MembershipEvent;
@@ -425,6 +428,32 @@ public class FailureObservingAndesContextStore implements AndesContextStore {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getContextVersion() throws AndesException {
+        try {
+            return wrappedAndesContextStoreInstance.getContextVersion();
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ContextChange> getContextChanges(long version) throws AndesException {
+        try {
+            return wrappedAndesContextStoreInstance.getContextChanges(version);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -748,14 +777,14 @@ public class FailureObservingAndesContextStore implements AndesContextStore {
     /**
      * Add message ids to store
      *
-     * @param queueName name of queue
-     * @param messageId id of message
+     * @param queueName  name of queue
+     * @param messageIds ids of messages
      * @throws AndesException
      */
     @Override
-    public void addMessageId(String queueName, long messageId) throws AndesException {
+    public void addMessageIds(String queueName, LongArrayList messageIds) throws AndesException {
         try {
-            wrappedAndesContextStoreInstance.addMessageId(queueName, messageId);
+            wrappedAndesContextStoreInstance.addMessageIds(queueName, messageIds);
         } catch (AndesStoreUnavailableException exception) {
             notifyFailures(exception);
             throw exception;
@@ -766,11 +795,11 @@ public class FailureObservingAndesContextStore implements AndesContextStore {
      * Get message ids for a given queue
      *
      * @param queueName name of queue
-     * @return set of message ids
+     * @return message ids of the queue
      * @throws AndesException
      */
     @Override
-    public TreeSet<Long> getMessageIds(String queueName) throws AndesException {
+    public MessageIdRanges getMessageIds(String queueName) throws AndesException {
         try {
             return wrappedAndesContextStoreInstance.getMessageIds(queueName);
         } catch (AndesStoreUnavailableException exception) {
@@ -782,13 +811,14 @@ public class FailureObservingAndesContextStore implements AndesContextStore {
     /**
      * Delete a message id
      *
+     * @param queueName name of queue
      * @param messageId id of message
      * @throws AndesException
      */
     @Override
-    public void deleteMessageId(long messageId) throws AndesException {
+    public void deleteMessageId(String queueName, long messageId) throws AndesException {
         try {
-            wrappedAndesContextStoreInstance.deleteMessageId(messageId);
+            wrappedAndesContextStoreInstance.deleteMessageId(queueName, messageId);
         } catch (AndesStoreUnavailableException exception) {
             notifyFailures(exception);
             throw exception;
@@ -871,6 +901,45 @@ public class FailureObservingAndesContextStore implements AndesContextStore {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addSlotCheckpoints(Map<String, LongArrayList> slotCheckpoints) throws AndesException {
+        try {
+            wrappedAndesContextStoreInstance.addSlotCheckpoints(slotCheckpoints);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LongArrayList getSlotCheckpoints(String queueName) throws AndesException {
+        try {
+            return wrappedAndesContextStoreInstance.getSlotCheckpoints(queueName);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteSlotCheckpoints(String queueName, long messageId) throws AndesException {
+        try {
+            wrappedAndesContextStoreInstance.deleteSlotCheckpoints(queueName, messageId);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
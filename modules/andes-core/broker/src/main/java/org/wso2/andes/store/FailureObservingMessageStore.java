@@ -209,6 +209,20 @@ public class FailureObservingMessageStore implements MessageStore {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Slot, List<DeliverableAndesMetadata>> getMetadataListForSlots(List<Slot> slots)
+            throws AndesException {
+        try {
+            return wrappedInstance.getMetadataListForSlots(slots);
+        } catch (AndesStoreUnavailableException exception) {
+            notifyFailures(exception);
+            throw exception;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
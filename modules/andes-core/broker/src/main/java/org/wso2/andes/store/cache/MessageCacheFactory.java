@@ -28,9 +28,15 @@ import org.wso2.andes.configuration.enums.AndesConfiguration;
 public class MessageCacheFactory {
 
     
+    /**
+     * Memory type value selecting the {@link OffHeapMessageCacheImpl}
+     */
+    private static final String CACHE_MEMORY_TYPE_OFF_HEAP = "offHeap";
+
     /***
      * Create a {@link AndesMessageCache} with the configurations passed.
-     * currently it will either returns a {@link GuavaBasedMessageCacheImpl} or
+     * currently it will either returns a {@link GuavaBasedMessageCacheImpl},
+     * a {@link OffHeapMessageCacheImpl} if memoryType is configured as 'offHeap' or
      * {@link DisabledMessageCacheImpl} if cacheSize is configured as '0' in
      * broker.xml
      * 
@@ -44,8 +50,12 @@ public class MessageCacheFactory {
                                     
         AndesMessageCache cache = null;
         
+        String memoryType = AndesConfigurationManager.readValue(AndesConfiguration.PERSISTENCE_CACHE_MEMORY_TYPE);
+
         if ( cacheSizeInMegaBytes <= 0){
             cache = new DisabledMessageCacheImpl();
+        } else if (CACHE_MEMORY_TYPE_OFF_HEAP.equalsIgnoreCase(memoryType)) {
+            cache = new OffHeapMessageCacheImpl();
         } else {
             cache = new GuavaBasedMessageCacheImpl();
         }
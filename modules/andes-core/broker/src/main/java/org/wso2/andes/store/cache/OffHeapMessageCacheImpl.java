@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.cache;
+
+import com.gs.collections.api.iterator.MutableLongIterator;
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+import com.gs.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.apache.log4j.Logger;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.carbon.metrics.manager.Gauge;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Message cache keeping message content outside the java heap. Content chunks are copied into fixed size direct
+ * memory slabs and only an index entry per message (metadata and chunk locations) stays on the heap. Hence a large
+ * cache does not add to garbage collection pauses. Content is copied back to heap byte arrays only when it is read
+ * for delivery.
+ * <p>
+ * Messages are appended to the current slab. When it is full the next slab is picked with the CLOCK algorithm: a
+ * slab read since the clock hand last passed it gets a second chance, otherwise all messages in it are evicted and
+ * the slab is reused. Removing a message only drops its index entry, the space is reclaimed when the slab is reused.
+ */
+public class OffHeapMessageCacheImpl implements AndesMessageCache {
+
+    private static final Logger log = Logger.getLogger(OffHeapMessageCacheImpl.class);
+
+    /**
+     * Location of the cached messages by message id
+     */
+    private final ConcurrentMap<Long, CacheEntry> index;
+
+    /**
+     * Direct memory slabs holding the content
+     */
+    private final Slab[] slabs;
+
+    /**
+     * Size of a slab in bytes. Messages larger than this are not cached
+     */
+    private final int slabSize;
+
+    /**
+     * Guards appending to slabs and picking slabs to reuse
+     */
+    private final ReentrantLock allocationLock;
+
+    /**
+     * Index of the slab messages are appended to. Guarded by allocationLock
+     */
+    private int currentSlab;
+
+    /**
+     * Position of the clock hand among the slabs. Guarded by allocationLock
+     */
+    private int clockHand;
+
+    /**
+     * Cache statistics
+     */
+    private final AtomicLong hitCount;
+
+    private final AtomicLong missCount;
+
+    private final AtomicLong evictionCount;
+
+    /**
+     * Used to print cache statistics
+     */
+    private ScheduledExecutorService maintenanceExecutor;
+
+    public OffHeapMessageCacheImpl() {
+        this(1024L * 1024L * ((int) AndesConfigurationManager.readValue(AndesConfiguration.PERSISTENCE_CACHE_SIZE)),
+                1024 * ((int) AndesConfigurationManager
+                        .readValue(AndesConfiguration.PERSISTENCE_CACHE_OFF_HEAP_SLAB_SIZE)));
+
+        boolean printStats = AndesConfigurationManager.readValue(AndesConfiguration.PERSISTENCE_CACHE_PRINT_STATS);
+        if (printStats) {
+            maintenanceExecutor = Executors.newSingleThreadScheduledExecutor();
+            maintenanceExecutor.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    log.info("cache stats: hitCount=" + hitCount.get() + ", missCount=" + missCount.get()
+                            + ", evictionCount=" + evictionCount.get() + ", size=" + index.size());
+                }
+            }, 2, 2, TimeUnit.MINUTES);
+        }
+
+        MetricManager.gauge(Level.INFO, MetricsConstants.CACHE_OFF_HEAP_MESSAGES, new CachedMessageCountGauge());
+    }
+
+    /**
+     * Create a cache with the given capacity
+     *
+     * @param cacheSizeInBytes total direct memory used for content
+     * @param slabSizeInBytes  size of a slab
+     */
+    OffHeapMessageCacheImpl(long cacheSizeInBytes, int slabSizeInBytes) {
+        slabSize = slabSizeInBytes;
+        int slabCount = (int) Math.max(1, cacheSizeInBytes / slabSizeInBytes);
+        slabs = new Slab[slabCount];
+        for (int i = 0; i < slabCount; i++) {
+            slabs[i] = new Slab(slabSizeInBytes);
+        }
+        index = new ConcurrentHashMap<>();
+        allocationLock = new ReentrantLock();
+        hitCount = new AtomicLong();
+        missCount = new AtomicLong();
+        evictionCount = new AtomicLong();
+
+        log.info("Off heap message cache created with " + slabCount + " slabs of " + slabSizeInBytes + " bytes");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addToCache(AndesMessage message) {
+        List<AndesMessagePart> parts = message.getContentChunkList();
+        int[] offsets = new int[parts.size()];
+        int[] lengths = new int[parts.size()];
+        int contentSize = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            offsets[i] = parts.get(i).getOffset();
+            lengths[i] = parts.get(i).getData().length;
+            contentSize = contentSize + lengths[i];
+        }
+
+        if (contentSize > slabSize) {
+            if (log.isDebugEnabled()) {
+                log.debug("Message " + message.getMetadata().getMessageID() + " of " + contentSize
+                        + " bytes is larger than the slab size. Hence not cached");
+            }
+            return;
+        }
+
+        long messageId = message.getMetadata().getMessageID();
+        allocationLock.lock();
+        try {
+            Slab slab = slabs[currentSlab];
+            if (slab.writePosition + contentSize > slabSize) {
+                currentSlab = reuseNextSlab();
+                slab = slabs[currentSlab];
+            }
+
+            // Region after the write position is not visible to readers until the entry is added to the index
+            ByteBuffer buffer = slab.buffer.duplicate();
+            buffer.position(slab.writePosition);
+            for (AndesMessagePart part : parts) {
+                buffer.put(part.getData());
+            }
+            CacheEntry entry = new CacheEntry(message.getMetadata(), currentSlab, slab.writePosition, offsets,
+                    lengths);
+            slab.writePosition = slab.writePosition + contentSize;
+            slab.messageIds.add(messageId);
+            index.put(messageId, entry);
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeFromCache(LongArrayList messagesToRemove) {
+        MutableLongIterator iterator = messagesToRemove.longIterator();
+        while (iterator.hasNext()) {
+            index.remove(iterator.next());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeFromCache(long messageToRemove) {
+        index.remove(messageToRemove);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AndesMessage getMessageFromCache(long messageId) {
+        CacheEntry entry = index.get(messageId);
+        List<AndesMessagePart> parts = null;
+        if (null != entry) {
+            parts = readContent(messageId, entry, -1);
+        }
+        recordLookup(null != parts);
+
+        AndesMessage message = null;
+        if (null != parts) {
+            message = new AndesMessage(entry.metadata);
+            message.setChunkList(parts);
+        }
+        return message;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fillContentFromCache(LongArrayList messageIDList,
+            LongObjectHashMap<List<AndesMessagePart>> contentList) {
+
+        MutableLongIterator iterator = messageIDList.longIterator();
+        int hits = 0;
+        int misses = 0;
+
+        while (iterator.hasNext()) {
+            long messageID = iterator.next();
+            CacheEntry entry = index.get(messageID);
+            List<AndesMessagePart> parts = null;
+            if (null != entry) {
+                parts = readContent(messageID, entry, -1);
+            }
+
+            if (null != parts) {
+                contentList.put(messageID, parts);
+                iterator.remove();
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+
+        hitCount.addAndGet(hits);
+        missCount.addAndGet(misses);
+        if (hits > 0) {
+            MetricManager.meter(Level.INFO, MetricsConstants.CACHE_HIT).mark(hits);
+        }
+        if (misses > 0) {
+            MetricManager.meter(Level.INFO, MetricsConstants.CACHE_MISS).mark(misses);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AndesMessagePart getContentFromCache(long messageId, int offsetValue) {
+        CacheEntry entry = index.get(messageId);
+        AndesMessagePart part = null;
+        if (null != entry) {
+            int chunkIndex = -1;
+            for (int i = 0; i < entry.offsets.length && chunkIndex < 0; i++) {
+                if (entry.offsets[i] == offsetValue) {
+                    chunkIndex = i;
+                }
+            }
+            if (chunkIndex >= 0) {
+                List<AndesMessagePart> parts = readContent(messageId, entry, chunkIndex);
+                if (null != parts) {
+                    part = parts.get(0);
+                }
+            }
+        }
+        recordLookup(null != part);
+        return part;
+    }
+
+    /**
+     * Copy content of a cached message to heap. Returns null if the message was evicted meanwhile.
+     *
+     * @param messageId  id of the message
+     * @param entry      index entry of the message
+     * @param chunkIndex index of the chunk to read, -1 to read all chunks
+     * @return content chunks read
+     */
+    private List<AndesMessagePart> readContent(long messageId, CacheEntry entry, int chunkIndex) {
+        Slab slab = slabs[entry.slabIndex];
+        slab.lock.readLock().lock();
+        try {
+            // Slab is reused only after evicting its messages under the write lock
+            if (index.get(messageId) != entry) {
+                return null;
+            }
+            slab.referenced = true;
+
+            ByteBuffer buffer = slab.buffer.duplicate();
+            int position = entry.position;
+            List<AndesMessagePart> parts = new ArrayList<>(chunkIndex < 0 ? entry.offsets.length : 1);
+            for (int i = 0; i < entry.offsets.length; i++) {
+                if (chunkIndex < 0 || chunkIndex == i) {
+                    byte[] data = new byte[entry.lengths[i]];
+                    buffer.position(position);
+                    buffer.get(data);
+
+                    AndesMessagePart part = new AndesMessagePart();
+                    part.setMessageID(messageId);
+                    part.setOffSet(entry.offsets[i]);
+                    part.setData(data);
+                    part.setDataLength(data.length);
+                    parts.add(part);
+                }
+                position = position + entry.lengths[i];
+            }
+            return parts;
+        } finally {
+            slab.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pick the slab to append to next using the CLOCK algorithm and evict the messages in it. Caller must hold the
+     * allocation lock.
+     *
+     * @return index of the slab to append to
+     */
+    private int reuseNextSlab() {
+        int victim = -1;
+        // The current slab is never picked unless it is the only one. Two rounds clear every reference bit.
+        for (int i = 0; i < 2 * slabs.length && victim < 0; i++) {
+            clockHand = (clockHand + 1) % slabs.length;
+            Slab slab = slabs[clockHand];
+            if (clockHand == currentSlab && slabs.length > 1) {
+                continue;
+            }
+            if (slab.referenced) {
+                slab.referenced = false;
+            } else {
+                victim = clockHand;
+            }
+        }
+        if (victim < 0) {
+            victim = clockHand;
+        }
+
+        Slab slab = slabs[victim];
+        int evicted = 0;
+        slab.lock.writeLock().lock();
+        try {
+            MutableLongIterator iterator = slab.messageIds.longIterator();
+            while (iterator.hasNext()) {
+                long messageId = iterator.next();
+                CacheEntry entry = index.get(messageId);
+                // Entries of messages added since the last reuse of the slab
+                if (null != entry && entry.slabIndex == victim && index.remove(messageId, entry)) {
+                    evicted++;
+                }
+            }
+            slab.messageIds.clear();
+            slab.writePosition = 0;
+            slab.referenced = false;
+        } finally {
+            slab.lock.writeLock().unlock();
+        }
+
+        if (evicted > 0) {
+            evictionCount.addAndGet(evicted);
+            MetricManager.meter(Level.INFO, MetricsConstants.CACHE_EVICTION).mark(evicted);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Reusing off heap cache slab " + victim + ". Evicted " + evicted + " messages");
+        }
+        return victim;
+    }
+
+    private void recordLookup(boolean hit) {
+        if (hit) {
+            hitCount.incrementAndGet();
+            MetricManager.meter(Level.INFO, MetricsConstants.CACHE_HIT).mark();
+        } else {
+            missCount.incrementAndGet();
+            MetricManager.meter(Level.INFO, MetricsConstants.CACHE_MISS).mark();
+        }
+    }
+
+    /**
+     * @return number of cache hits since the cache is created
+     */
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of cache misses since the cache is created
+     */
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of messages evicted since the cache is created
+     */
+    long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Direct memory region messages are appended to
+     */
+    private static class Slab {
+
+        private final ByteBuffer buffer;
+
+        /**
+         * Held for reading while content is copied out, and for writing while the slab is reset for reuse
+         */
+        private final ReentrantReadWriteLock lock;
+
+        /**
+         * Ids of the messages written since the slab was last reused. Guarded by allocationLock
+         */
+        private final LongArrayList messageIds;
+
+        /**
+         * Next write position. Guarded by allocationLock
+         */
+        private int writePosition;
+
+        /**
+         * Set when content is read from the slab. Cleared by the clock hand
+         */
+        private volatile boolean referenced;
+
+        private Slab(int size) {
+            buffer = ByteBuffer.allocateDirect(size);
+            lock = new ReentrantReadWriteLock();
+            messageIds = new LongArrayList();
+        }
+    }
+
+    /**
+     * Location of a cached message
+     */
+    private static class CacheEntry {
+
+        private final AndesMessageMetadata metadata;
+
+        private final int slabIndex;
+
+        private final int position;
+
+        /**
+         * Offset of each content chunk in the message
+         */
+        private final int[] offsets;
+
+        /**
+         * Length of each content chunk
+         */
+        private final int[] lengths;
+
+        private CacheEntry(AndesMessageMetadata metadata, int slabIndex, int position, int[] offsets,
+                           int[] lengths) {
+            this.metadata = metadata;
+            this.slabIndex = slabIndex;
+            this.position = position;
+            this.offsets = offsets;
+            this.lengths = lengths;
+        }
+    }
+
+    /**
+     * Gauge for the number of messages in the cache
+     */
+    private class CachedMessageCountGauge implements Gauge<Integer> {
+        @Override
+        public Integer getValue() {
+            return index.size();
+        }
+    }
+}
@@ -0,0 +1,1551 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.file;
+
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+import com.gs.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.configuration.util.ConfigurationProperties;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.kernel.AndesContextStore;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.AndesMessagePart;
+import org.wso2.andes.kernel.DeliverableAndesMetadata;
+import org.wso2.andes.kernel.DurableStoreConnection;
+import org.wso2.andes.kernel.MessageStore;
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.server.queue.DLCQueueUtils;
+import org.wso2.andes.store.cache.AndesMessageCache;
+import org.wso2.andes.store.cache.MessageCacheFactory;
+import org.wso2.andes.tools.utils.MessageTracer;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+import org.wso2.carbon.metrics.manager.Timer.Context;
+import org.wso2.carbon.utils.ServerConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Message store keeping messages in local append only segment files. Intended for standalone deployments where no
+ * external database should be required for message persistence.
+ * <p>
+ * Every change (new message, DLC move, metadata update, deletion) is appended to a {@link SegmentedMessageLog} as a
+ * checksummed record. An in memory index keyed by message id points to the records of each live message, and per
+ * queue indexes ordered by message id answer the range queries used by slot delivery. Records are never rewritten.
+ * Once every message having a record in a segment is deleted, the whole segment file is removed, which is how
+ * acknowledged message ranges are reclaimed. The index is rebuilt by replaying the segments on startup.
+ * <p>
+ * Configure by setting the message store class to this class in broker.xml. Supported properties are
+ * {@link FileStoreConstants#PROP_STORE_DIRECTORY}, {@link FileStoreConstants#PROP_SEGMENT_SIZE} and
+ * {@link FileStoreConstants#PROP_SYNC_ON_COMMIT}.
+ */
+public class FileMessageStoreImpl implements MessageStore {
+
+    private static final Log log = LogFactory.getLog(FileMessageStoreImpl.class);
+
+    /**
+     * Segment files holding all records
+     */
+    private SegmentedMessageLog messageLog;
+
+    /**
+     * the message cache in use ( intension is to optimize reads)
+     */
+    private AndesMessageCache messageCache;
+
+    /**
+     * Index entries of all stored messages keyed by message id
+     */
+    private final ConcurrentHashMap<Long, StoredMessageEntry> messages = new ConcurrentHashMap<>();
+
+    /**
+     * Messages which are not in a dead letter channel, per storage queue
+     */
+    private final ConcurrentHashMap<String, MessageIndex> queueIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Messages in dead letter channels, per DLC queue
+     */
+    private final ConcurrentHashMap<String, MessageIndex> dlcIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Retained message entries keyed by destination
+     */
+    private final ConcurrentHashMap<String, StoredMessageEntry> retainedByDestination = new ConcurrentHashMap<>();
+
+    /**
+     * Retained message entries keyed by message id
+     */
+    private final ConcurrentHashMap<Long, StoredMessageEntry> retainedById = new ConcurrentHashMap<>();
+
+    /**
+     * Serializes log appends together with the index changes they cause, so that the order of records in the log
+     * matches the order in which changes are visible through the index.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DurableStoreConnection initializeMessageStore(AndesContextStore contextStore,
+            ConfigurationProperties connectionProperties) throws AndesException {
+
+        if (null != messageLog && messageLog.isOpen()) {
+            close();
+        }
+        clearIndexes();
+
+        String directoryPath = connectionProperties.getProperty(FileStoreConstants.PROP_STORE_DIRECTORY,
+                System.getProperty(ServerConstants.CARBON_HOME) + FileStoreConstants.DEFAULT_STORE_DIRECTORY);
+        int segmentSize = connectionProperties.getProperty(FileStoreConstants.PROP_SEGMENT_SIZE,
+                FileStoreConstants.DEFAULT_SEGMENT_SIZE);
+        if (segmentSize <= 0 || segmentSize > FileStoreConstants.MAX_SEGMENT_SIZE) {
+            log.warn("Invalid segment size " + segmentSize + "MB configured for the message store. Using "
+                    + FileStoreConstants.DEFAULT_SEGMENT_SIZE + "MB");
+            segmentSize = FileStoreConstants.DEFAULT_SEGMENT_SIZE;
+        }
+        boolean syncOnCommit = connectionProperties.getProperty(FileStoreConstants.PROP_SYNC_ON_COMMIT, true);
+
+        if (AndesContext.getInstance().isClusteringEnabled()) {
+            log.warn("File based message store keeps messages on the local disk and is not shared between nodes. "
+                    + "Use a shared message store when clustering is enabled.");
+        }
+
+        messageLog = new SegmentedMessageLog(new File(directoryPath), segmentSize * 1024L * 1024L, syncOnCommit);
+        try {
+            messageLog.open(new ReplayVisitor());
+            purgeIncompleteMessages();
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while opening message store at " + directoryPath, e);
+        }
+
+        FileStoreConnection connection = new FileStoreConnection(messageLog);
+        connection.initialize(connectionProperties);
+
+        this.messageCache = (new MessageCacheFactory()).create();
+
+        log.info("Message Store initialised with " + messages.size() + " message(s) recovered from " + directoryPath);
+        return connection;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void storeMessagePart(List<AndesMessagePart> partList) throws AndesException {
+        Context messageContentAdditionContext = MetricManager.timer(Level.INFO, MetricsConstants.ADD_MESSAGE_PART)
+                .start();
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+
+        LogBatch batch = new LogBatch();
+        for (AndesMessagePart messagePart : partList) {
+            batch.addContent(messagePart);
+        }
+
+        long sequence;
+        writeLock.lock();
+        try {
+            sequence = messageLog.append(batch);
+            int recordIndex = 0;
+            for (AndesMessagePart messagePart : partList) {
+                StoredMessageEntry entry = getOrCreateEntry(messagePart.getMessageID());
+                RecordPointer pointer = batch.getPointer(recordIndex++);
+                entry.addContent(messagePart.getOffset(), pointer);
+                trackSegment(entry, pointer.getSegmentId());
+            }
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while adding message content to the message store", e);
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            commit(sequence, FileStoreConstants.TASK_STORING_MESSAGES);
+        } finally {
+            messageContentAdditionContext.stop();
+            contextWrite.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AndesMessagePart getContent(long messageId, int offsetValue) throws AndesException {
+        AndesMessagePart messagePart = null;
+        Context messageContentRetrievalContext = MetricManager.timer(Level.INFO, MetricsConstants.GET_CONTENT).start();
+        try {
+            messagePart = messageCache.getContentFromCache(messageId, offsetValue);
+            if (null == messagePart) {
+                StoredMessageEntry entry = messages.get(messageId);
+                if (null != entry) {
+                    RecordPointer pointer = entry.getContentPointer(offsetValue);
+                    if (null != pointer) {
+                        messagePart = readContent(pointer);
+                    }
+                }
+            }
+        } finally {
+            messageContentRetrievalContext.stop();
+        }
+        return messagePart;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LongObjectHashMap<List<AndesMessagePart>> getContent(LongArrayList messageIDList) throws AndesException {
+
+        LongObjectHashMap<List<AndesMessagePart>> contentList = new LongObjectHashMap<>(messageIDList.size());
+        Context messageContentRetrievalContext = MetricManager.timer(Level.INFO, MetricsConstants.GET_CONTENT_BATCH)
+                .start();
+        try {
+            if (messageIDList.isEmpty()) {
+                return contentList;
+            }
+
+            messageCache.fillContentFromCache(messageIDList, contentList);
+
+            for (int i = 0; i < messageIDList.size(); i++) {
+                long messageId = messageIDList.get(i);
+                StoredMessageEntry entry = messages.get(messageId);
+                if (null == entry) {
+                    continue;
+                }
+                RecordPointer[] contentPointers = entry.getContentPointers();
+                if (contentPointers.length == 0) {
+                    continue;
+                }
+                List<AndesMessagePart> partList = new ArrayList<>(contentPointers.length);
+                for (RecordPointer pointer : contentPointers) {
+                    AndesMessagePart messagePart = readContent(pointer);
+                    if (null != messagePart) {
+                        partList.add(messagePart);
+                    }
+                }
+                contentList.put(messageId, partList);
+            }
+        } finally {
+            messageContentRetrievalContext.stop();
+        }
+        return contentList;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void storeMessages(List<AndesMessage> messageList) throws AndesException {
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+
+        // Encode outside the lock. Only the append and the index update need to be serialized
+        LogBatch batch = new LogBatch();
+        for (AndesMessage message : messageList) {
+            AndesMessageMetadata metadata = message.getMetadata();
+            long expirationTime = metadata.isExpirationDefined() ? metadata.getExpirationTime() : 0;
+            batch.addMetadata(metadata.getMessageID(), metadata.getStorageQueueName(), expirationTime,
+                    metadata.getMetadata());
+            for (AndesMessagePart messagePart : message.getContentChunkList()) {
+                batch.addContent(messagePart);
+            }
+        }
+
+        long sequence;
+        writeLock.lock();
+        try {
+            sequence = messageLog.append(batch);
+            int recordIndex = 0;
+            for (AndesMessage message : messageList) {
+                AndesMessageMetadata metadata = message.getMetadata();
+                StoredMessageEntry entry = getOrCreateEntry(metadata.getMessageID());
+                RecordPointer metadataPointer = batch.getPointer(recordIndex++);
+                entry.setMetadataPointer(metadataPointer);
+                entry.setStorageQueueName(metadata.getStorageQueueName());
+                entry.setExpirationTime(metadata.isExpirationDefined() ? metadata.getExpirationTime() : 0);
+                trackSegment(entry, metadataPointer.getSegmentId());
+
+                for (AndesMessagePart messagePart : message.getContentChunkList()) {
+                    entry.addContent(messagePart.getOffset(), batch.getPointer(recordIndex++));
+                }
+                index(entry);
+            }
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while inserting messages to the message store", e);
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            commit(sequence, FileStoreConstants.TASK_STORING_MESSAGES);
+            // Messages are added to the cache only once they are durable
+            for (AndesMessage message : messageList) {
+                messageCache.addToCache(message);
+            }
+        } finally {
+            contextWrite.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void moveMetadataToQueue(long messageId, String currentQueueName, String targetQueueName)
+            throws AndesException {
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+        long sequence = -1;
+        writeLock.lock();
+        try {
+            StoredMessageEntry entry = messages.get(messageId);
+            if (null != entry && entry.hasMetadata() && currentQueueName.equals(entry.getStorageQueueName())) {
+                LogBatch batch = new LogBatch();
+                batch.addUpdate(messageId, targetQueueName, entry.getDlcQueueName(), entry.isExpireInDLC(), null);
+                sequence = messageLog.append(batch);
+
+                unindex(entry);
+                entry.setStorageQueueName(targetQueueName);
+                index(entry);
+                trackSegment(entry, batch.getPointer(0).getSegmentId());
+            }
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while updating message metadata to destination queue "
+                    + targetQueueName, e);
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            commit(sequence, FileStoreConstants.TASK_UPDATING_MESSAGES);
+        } finally {
+            contextWrite.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void moveMetadataToDLC(long messageId, String dlcQueueName, boolean expireMessageInDLC)
+            throws AndesException {
+        AndesMessageMetadata metadata = new AndesMessageMetadata();
+        metadata.setMessageID(messageId);
+        List<AndesMessageMetadata> messageList = new ArrayList<>(1);
+        messageList.add(metadata);
+        moveMetadataToDLC(messageList, dlcQueueName, expireMessageInDLC);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void moveMetadataToDLC(List<AndesMessageMetadata> messages, String dlcQueueName,
+            boolean expireMessageInDLC) throws AndesException {
+        Context moveMetadataToDLCContext = MetricManager.timer(Level.INFO, MetricsConstants.MOVE_METADATA_TO_DLC)
+                .start();
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+
+        LongArrayList messageIDsToRemoveFromCache = new LongArrayList();
+        long sequence = -1;
+        writeLock.lock();
+        try {
+            LogBatch batch = new LogBatch();
+            List<StoredMessageEntry> entriesToMove = new ArrayList<>(messages.size());
+            for (AndesMessageMetadata message : messages) {
+                messageIDsToRemoveFromCache.add(message.getMessageID());
+                StoredMessageEntry entry = this.messages.get(message.getMessageID());
+                if (null != entry && entry.hasMetadata()) {
+                    batch.addUpdate(entry.getMessageId(), entry.getStorageQueueName(), dlcQueueName,
+                            expireMessageInDLC, null);
+                    entriesToMove.add(entry);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                sequence = messageLog.append(batch);
+                int recordIndex = 0;
+                for (StoredMessageEntry entry : entriesToMove) {
+                    unindex(entry);
+                    entry.setDlcQueueName(dlcQueueName);
+                    entry.setExpireInDLC(expireMessageInDLC);
+                    index(entry);
+                    trackSegment(entry, batch.getPointer(recordIndex++).getSegmentId());
+                }
+            }
+            messageCache.removeFromCache(messageIDsToRemoveFromCache);
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while moving message metadata to dead letter channel.", e);
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            commit(sequence, FileStoreConstants.TASK_UPDATING_MESSAGES);
+        } finally {
+            contextWrite.stop();
+            moveMetadataToDLCContext.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateMetadataInformation(String currentQueueName, List<AndesMessageMetadata> metadataList)
+            throws AndesException {
+        Context metaUpdateContext = MetricManager.timer(Level.INFO, MetricsConstants.UPDATE_META_DATA_INFORMATION)
+                .start();
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+
+        LongArrayList messageIDsToRemoveFromCache = new LongArrayList();
+        long sequence = -1;
+        writeLock.lock();
+        try {
+            LogBatch batch = new LogBatch();
+            List<StoredMessageEntry> entriesToUpdate = new ArrayList<>(metadataList.size());
+            List<AndesMessageMetadata> updates = new ArrayList<>(metadataList.size());
+            for (AndesMessageMetadata metadata : metadataList) {
+                StoredMessageEntry entry = messages.get(metadata.getMessageID());
+                if (null != entry && entry.hasMetadata() && currentQueueName.equals(entry.getStorageQueueName())) {
+                    batch.addUpdate(entry.getMessageId(), metadata.getStorageQueueName(), entry.getDlcQueueName(),
+                            entry.isExpireInDLC(), metadata.getMetadata());
+                    entriesToUpdate.add(entry);
+                    updates.add(metadata);
+                    messageIDsToRemoveFromCache.add(metadata.getMessageID());
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                sequence = messageLog.append(batch);
+                for (int i = 0; i < entriesToUpdate.size(); i++) {
+                    StoredMessageEntry entry = entriesToUpdate.get(i);
+                    RecordPointer pointer = batch.getPointer(i);
+                    unindex(entry);
+                    entry.setStorageQueueName(updates.get(i).getStorageQueueName());
+                    entry.setMetadataPointer(pointer);
+                    index(entry);
+                    trackSegment(entry, pointer.getSegmentId());
+                }
+            }
+            messageCache.removeFromCache(messageIDsToRemoveFromCache);
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while updating message metadata list.", e);
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            commit(sequence, FileStoreConstants.TASK_UPDATING_MESSAGES);
+        } finally {
+            metaUpdateContext.stop();
+            contextWrite.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AndesMessageMetadata getMetadata(long messageId) throws AndesException {
+
+        //Check if cache contains this message.
+        AndesMessage cached = messageCache.getMessageFromCache(messageId);
+        if (null != cached) {
+            return cached.getMetadata();
+        }
+
+        AndesMessageMetadata md = null;
+        Context metaRetrievalContext = MetricManager.timer(Level.INFO, MetricsConstants.GET_META_DATA).start();
+        Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+        try {
+            StoredMessageEntry entry = messages.get(messageId);
+            if (null != entry && entry.hasMetadata()) {
+                byte[] metadataBytes = readMetadata(entry.getMetadataPointer());
+                if (null != metadataBytes) {
+                    md = new AndesMessageMetadata(messageId, metadataBytes, true);
+                }
+            }
+        } finally {
+            metaRetrievalContext.stop();
+            contextRead.stop();
+        }
+        return md;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<DeliverableAndesMetadata> getMetadataList(Slot slot, final String storageQueueName, long firstMsgId,
+            long lastMsgID) throws AndesException {
+
+        List<DeliverableAndesMetadata> metadataList = new ArrayList<>();
+        Context metaListRetrievalContext = MetricManager.timer(Level.INFO, MetricsConstants.GET_META_DATA_LIST).start();
+        Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+
+        try {
+            MessageIndex queueIndex = queueIndexes.get(storageQueueName);
+            if (null != queueIndex) {
+                for (StoredMessageEntry entry : queueIndex.range(firstMsgId, lastMsgID)) {
+                    byte[] metadataBytes = readMetadata(entry.getMetadataPointer());
+                    if (null == metadataBytes) {
+                        continue;
+                    }
+                    DeliverableAndesMetadata md = new DeliverableAndesMetadata(slot, entry.getMessageId(),
+                            metadataBytes, true);
+                    md.setStorageQueueName(storageQueueName);
+                    metadataList.add(md);
+                    //Tracing message
+                    MessageTracer.trace(md, MessageTracer.METADATA_READ_FROM_DB + " slot = " + slot.getId());
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("request: metadata range (" + firstMsgId + " , " + lastMsgID + ") in destination queue "
+                        + storageQueueName + ", response: metadata count " + metadataList.size());
+            }
+        } finally {
+            metaListRetrievalContext.stop();
+            contextRead.stop();
+        }
+        return metadataList;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Reads are served from the in memory index and the segment files, hence slots are simply read one after the
+     * other.
+     */
+    @Override
+    public Map<Slot, List<DeliverableAndesMetadata>> getMetadataListForSlots(List<Slot> slots)
+            throws AndesException {
+        Map<Slot, List<DeliverableAndesMetadata>> metadataOfSlots = new HashMap<>(slots.size());
+        for (Slot slot : slots) {
+            metadataOfSlots.put(slot, getMetadataList(slot, slot.getStorageQueueName(), slot.getStartMessageId(),
+                    slot.getEndMessageId()));
+        }
+        return metadataOfSlots;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMessageCountForQueueInRange(final String storageQueueName, long firstMessageId,
+            long lastMessageId) throws AndesException {
+        MessageIndex queueIndex = queueIndexes.get(storageQueueName);
+        if (null == queueIndex) {
+            return 0;
+        }
+        return queueIndex.range(firstMessageId, lastMessageId).size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AndesMessageMetadata> getNextNMessageMetadataFromQueue(final String storageQueueName,
+            long firstMsgId, int count) throws AndesException {
+        Context nextMetaRetrievalContext = MetricManager
+                .timer(Level.INFO, MetricsConstants.GET_NEXT_MESSAGE_METADATA_FROM_QUEUE).start();
+        try {
+            return readMetadata(queueIndexes.get(storageQueueName), null, firstMsgId, count, storageQueueName);
+        } finally {
+            nextMetaRetrievalContext.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LongArrayList getNextNMessageIdsFromQueue(final String storageQueueName, long firstMsgId, int count)
+            throws AndesException {
+        LongArrayList messageIds = new LongArrayList(count);
+        MessageIndex queueIndex = queueIndexes.get(storageQueueName);
+        if (null != queueIndex) {
+            for (StoredMessageEntry entry : queueIndex.from(firstMsgId)) {
+                if (messageIds.size() == count) {
+                    break;
+                }
+                messageIds.add(entry.getMessageId());
+            }
+        }
+        return messageIds;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AndesMessageMetadata> getNextNMessageMetadataForQueueFromDLC(String storageQueueName,
+            String dlcQueueName, long firstMsgId, int count) throws AndesException {
+        Context nextMetaRetrievalContext = MetricManager
+                .timer(Level.INFO, MetricsConstants.GET_NEXT_MESSAGE_METADATA_IN_DLC_FOR_QUEUE).start();
+        try {
+            return readMetadata(dlcIndexes.get(dlcQueueName), storageQueueName, firstMsgId, count,
+                    storageQueueName);
+        } finally {
+            nextMetaRetrievalContext.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AndesMessageMetadata> getNextNMessageMetadataFromDLC(String dlcQueueName, long firstMsgId, int count)
+            throws AndesException {
+        Context nextMetaRetrievalContext = MetricManager
+                .timer(Level.INFO, MetricsConstants.GET_NEXT_MESSAGE_METADATA_IN_DLC).start();
+        try {
+            return readMetadata(dlcIndexes.get(dlcQueueName), null, firstMsgId, count, null);
+        } finally {
+            nextMetaRetrievalContext.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteMessageMetadataFromQueue(final String storageQueueName,
+            List<AndesMessageMetadata> messagesToRemove) throws AndesException {
+        Context metaDeletionContext = MetricManager
+                .timer(Level.INFO, MetricsConstants.DELETE_MESSAGE_META_DATA_FROM_QUEUE).start();
+        try {
+            List<StoredMessageEntry> entries = new ArrayList<>(messagesToRemove.size());
+            for (AndesMessageMetadata message : messagesToRemove) {
+                StoredMessageEntry entry = messages.get(message.getMessageID());
+                if (null != entry && storageQueueName.equals(entry.getStorageQueueName())) {
+                    entries.add(entry);
+                }
+            }
+            deleteEntries(entries);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Metadata removed. " + entries.size() + " metadata from destination " + storageQueueName);
+            }
+        } finally {
+            metaDeletionContext.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteMessages(final String storageQueueName, List<AndesMessageMetadata> messagesToRemove)
+            throws AndesException {
+        List<Long> messageIds = new ArrayList<>(messagesToRemove.size());
+        for (AndesMessageMetadata message : messagesToRemove) {
+            messageIds.add(message.getMessageID());
+        }
+        deleteMessages(messageIds);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Metadata and content removed: " + messagesToRemove.size() + " for destination queue:"
+                    + storageQueueName);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteMessages(List<Long> messagesToRemove) throws AndesException {
+        Context messageDeletionContext = MetricManager
+                .timer(Level.INFO, MetricsConstants.DELETE_MESSAGE_META_DATA_AND_CONTENT).start();
+        try {
+            LongArrayList messageIDsToRemoveFromCache = new LongArrayList(messagesToRemove.size());
+            List<StoredMessageEntry> entries = new ArrayList<>(messagesToRemove.size());
+            for (Long messageId : messagesToRemove) {
+                messageIDsToRemoveFromCache.add(messageId);
+                StoredMessageEntry entry = messages.get(messageId);
+                if (null != entry) {
+                    entries.add(entry);
+                }
+            }
+            messageCache.removeFromCache(messageIDsToRemoveFromCache);
+            deleteEntries(entries);
+        } finally {
+            messageDeletionContext.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteDLCMessages(List<AndesMessageMetadata> messagesToRemove) throws AndesException {
+        Context messageDeletionContext = MetricManager
+                .timer(Level.INFO, MetricsConstants.DELETE_MESSAGE_META_DATA_AND_CONTENT).start();
+        try {
+            List<StoredMessageEntry> entries = new ArrayList<>(messagesToRemove.size());
+            for (AndesMessageMetadata message : messagesToRemove) {
+                StoredMessageEntry entry = messages.get(message.getMessageID());
+                if (null != entry && entry.isInDLC()) {
+                    entries.add(entry);
+                }
+            }
+            deleteEntries(entries);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Messages removed: " + entries.size() + " from DLC");
+            }
+        } finally {
+            messageDeletionContext.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Long> getExpiredMessages(long lowerBoundMessageID, String queueName) throws AndesException {
+        List<Long> expiredMessages = new ArrayList<>();
+        MessageIndex queueIndex = queueIndexes.get(queueName);
+        if (null != queueIndex) {
+            long currentTime = System.currentTimeMillis();
+            for (StoredMessageEntry entry : queueIndex.from(lowerBoundMessageID)) {
+                if (entry.getExpirationTime() > 0 && entry.getExpirationTime() < currentTime) {
+                    expiredMessages.add(entry.getMessageId());
+                }
+            }
+        }
+        return expiredMessages;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Long> getExpiredMessagesFromDLC() throws AndesException {
+        List<Long> expiredMessages = new ArrayList<>();
+        long currentTime = System.currentTimeMillis();
+        for (MessageIndex dlcIndex : dlcIndexes.values()) {
+            for (StoredMessageEntry entry : dlcIndex.from(0)) {
+                if (entry.isExpireInDLC() && entry.getExpirationTime() > 0
+                        && entry.getExpirationTime() < currentTime) {
+                    expiredMessages.add(entry.getMessageId());
+                }
+            }
+        }
+        return expiredMessages;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addMessageToExpiryQueue(Long messageId, Long expirationTime, boolean isMessageForTopic,
+            String destination) throws AndesException {
+        // NOTE: Feature Message Expiration moved to a future release
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int deleteAllMessageMetadata(String storageQueueName) throws AndesException {
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+        try {
+            List<StoredMessageEntry> entries = new ArrayList<>();
+            MessageIndex queueIndex = queueIndexes.get(storageQueueName);
+            if (null != queueIndex) {
+                entries.addAll(queueIndex.from(0));
+            }
+            // Messages of the queue which were moved to a dead letter channel are removed as well
+            for (MessageIndex dlcIndex : dlcIndexes.values()) {
+                for (StoredMessageEntry entry : dlcIndex.from(0)) {
+                    if (storageQueueName.equals(entry.getStorageQueueName())) {
+                        entries.add(entry);
+                    }
+                }
+            }
+            removeFromCache(entries);
+            int deletedMessageCount = deleteEntries(entries);
+
+            if (log.isDebugEnabled()) {
+                log.debug("DELETED all message metadata from " + storageQueueName);
+            }
+            return deletedMessageCount;
+        } finally {
+            contextWrite.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int clearDLCQueue(String dlcQueueName) throws AndesException {
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+        try {
+            List<StoredMessageEntry> entries = new ArrayList<>();
+            MessageIndex dlcIndex = dlcIndexes.get(dlcQueueName);
+            if (null != dlcIndex) {
+                entries.addAll(dlcIndex.from(0));
+            }
+            int deletedMessageCount = deleteEntries(entries);
+
+            if (log.isDebugEnabled()) {
+                log.debug("DELETED all message metadata for dlc queue " + dlcQueueName);
+            }
+            return deletedMessageCount;
+        } finally {
+            contextWrite.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LongArrayList getMessageIDsAddressedToQueue(String storageQueueName, Long startMessageID)
+            throws AndesException {
+        ConcurrentSkipListMap<Long, StoredMessageEntry> queueMessages = new ConcurrentSkipListMap<>();
+        MessageIndex queueIndex = queueIndexes.get(storageQueueName);
+        if (null != queueIndex) {
+            for (StoredMessageEntry entry : queueIndex.from(startMessageID)) {
+                queueMessages.put(entry.getMessageId(), entry);
+            }
+        }
+        for (MessageIndex dlcIndex : dlcIndexes.values()) {
+            for (StoredMessageEntry entry : dlcIndex.from(startMessageID)) {
+                if (storageQueueName.equals(entry.getStorageQueueName())) {
+                    queueMessages.put(entry.getMessageId(), entry);
+                }
+            }
+        }
+
+        LongArrayList messageIDs = new LongArrayList(queueMessages.size());
+        for (Long messageId : queueMessages.keySet()) {
+            messageIDs.add(messageId);
+        }
+        return messageIDs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addQueue(String storageQueueName) throws AndesException {
+        getIndex(queueIndexes, storageQueueName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Integer> getMessageCountForAllQueues(List<String> queueNames) throws AndesException {
+        Map<String, Integer> queueMessageCountForName = new HashMap<>();
+        for (String queueName : queueNames) {
+            // Dead letter channel queues are not counted by the operation
+            if (!DLCQueueUtils.isDeadLetterQueue(queueName)) {
+                MessageIndex queueIndex = queueIndexes.get(queueName);
+                queueMessageCountForName.put(queueName, (null == queueIndex) ? 0 : (int) queueIndex.getCount());
+            }
+        }
+        return queueMessageCountForName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMessageCountForQueue(String storageQueueName) throws AndesException {
+        MessageIndex queueIndex = queueIndexes.get(storageQueueName);
+        return (null == queueIndex) ? 0 : queueIndex.getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMessageCountForQueueInDLC(String storageQueueName, String dlcQueueName) throws AndesException {
+        long messageCount = 0;
+        MessageIndex dlcIndex = dlcIndexes.get(dlcQueueName);
+        if (null != dlcIndex) {
+            for (StoredMessageEntry entry : dlcIndex.from(0)) {
+                if (storageQueueName.equals(entry.getStorageQueueName())) {
+                    messageCount++;
+                }
+            }
+        }
+        return messageCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMessageCountForDLCQueue(String dlcQueueName) throws AndesException {
+        MessageIndex dlcIndex = dlcIndexes.get(dlcQueueName);
+        return (null == dlcIndex) ? 0 : dlcIndex.getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resetMessageCounterForQueue(String storageQueueName) throws AndesException {
+        // Message count is taken from the index itself. No need to implement this
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeQueue(String storageQueueName) throws AndesException {
+        // Messages left in the queue are removed along with the queue
+        deleteAllMessageMetadata(storageQueueName);
+        queueIndexes.remove(storageQueueName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeLocalQueueData(String storageQueueName) {
+        // No queue related data is cached locally
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void incrementMessageCountForQueue(String storageQueueName, long incrementBy) throws AndesException {
+        // Message count is taken from the index itself. No need to implement this
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void decrementMessageCountForQueue(String storageQueueName, long decrementBy) throws AndesException {
+        // Message count is taken from the index itself. No need to implement this
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void storeRetainedMessages(Map<String, AndesMessage> retainMap) throws AndesException {
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+        long sequence = -1;
+        writeLock.lock();
+        try {
+            LogBatch batch = new LogBatch();
+            List<AndesMessage> retainedMessages = new ArrayList<>();
+            List<Boolean> removals = new ArrayList<>();
+            for (AndesMessage message : retainMap.values()) {
+                AndesMessageMetadata metadata = message.getMetadata();
+                String destination = metadata.getDestination();
+
+                // A retained message with an empty payload removes the retained message of the topic. It does not
+                // create a retained entry if the topic has none.
+                boolean emptyPayload = !message.getContentChunkList().isEmpty()
+                        && message.getContentChunkList().get(0).getDataLength() == 0;
+
+                if (retainedByDestination.containsKey(destination)) {
+                    if (emptyPayload) {
+                        batch.addRetainDelete(destination);
+                    } else {
+                        batch.addRetain(destination, metadata.getMessageID(), metadata.getMetadata(),
+                                message.getContentChunkList());
+                    }
+                    retainedMessages.add(message);
+                    removals.add(emptyPayload);
+                } else if (!message.getContentChunkList().isEmpty() && !emptyPayload) {
+                    batch.addRetain(destination, metadata.getMessageID(), metadata.getMetadata(),
+                            message.getContentChunkList());
+                    retainedMessages.add(message);
+                    removals.add(false);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                sequence = messageLog.append(batch);
+                for (int i = 0; i < retainedMessages.size(); i++) {
+                    AndesMessageMetadata metadata = retainedMessages.get(i).getMetadata();
+                    applyRetain(metadata.getDestination(), metadata.getMessageID(), batch.getPointer(i),
+                            removals.get(i));
+                }
+                messageLog.reclaimSegments();
+            }
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while adding retained message content to the message store ",
+                    e);
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            commit(sequence, FileStoreConstants.TASK_STORING_RETAINED_MESSAGES);
+        } finally {
+            contextWrite.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getAllRetainedTopics() throws AndesException {
+        return new ArrayList<>(retainedByDestination.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DeliverableAndesMetadata getRetainedMetadata(String destination) throws AndesException {
+        StoredMessageEntry entry = retainedByDestination.get(destination);
+        if (null == entry) {
+            return null;
+        }
+
+        Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+        try {
+            ByteBuffer body = readRecord(entry.getMetadataPointer());
+            if (null == body) {
+                return null;
+            }
+            LogRecordReader reader = new LogRecordReader(body);
+            reader.readString();
+            long messageId = reader.readLong();
+            return new DeliverableAndesMetadata(null, messageId, reader.readBytes(), true);
+        } catch (IOException e) {
+            throw new AndesException("error occurred while retrieving retained message for destination:"
+                    + destination, e);
+        } finally {
+            contextRead.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Integer, AndesMessagePart> getRetainedContentParts(long messageID) throws AndesException {
+        Map<Integer, AndesMessagePart> contentParts = new HashMap<>();
+        StoredMessageEntry entry = retainedById.get(messageID);
+        if (null == entry) {
+            return contentParts;
+        }
+
+        Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+        try {
+            ByteBuffer body = readRecord(entry.getMetadataPointer());
+            if (null == body) {
+                return contentParts;
+            }
+            LogRecordReader reader = new LogRecordReader(body);
+            reader.readString();
+            reader.readLong();
+            reader.skipBytes();
+            int partCount = reader.readInt();
+            for (int i = 0; i < partCount; i++) {
+                int offset = reader.readInt();
+                byte[] data = reader.readBytes();
+                AndesMessagePart messagePart = new AndesMessagePart();
+                messagePart.setMessageID(messageID);
+                messagePart.setData(data);
+                messagePart.setDataLength(data.length);
+                messagePart.setOffSet(offset);
+                contentParts.put(offset, messagePart);
+            }
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while retrieving retained message content [msg_id="
+                    + messageID + "]", e);
+        } finally {
+            contextRead.stop();
+        }
+        return contentParts;
+    }
+
+    /**
+     * {@inheritDoc} Check if the log is open and the store directory is writable.
+     */
+    @Override
+    public boolean isOperational(String testString, long testTime) {
+        return null != messageLog && messageLog.isOpen() && messageLog.getDirectory().canWrite();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (null != messageLog) {
+            messageLog.close();
+        }
+    }
+
+    /**
+     * Write deletion records for the given messages and remove them from the index. Segments left without live
+     * records are removed afterwards.
+     *
+     * @param entries index entries of the messages to delete
+     * @return number of deleted messages
+     * @throws AndesException on a log write error
+     */
+    private int deleteEntries(List<StoredMessageEntry> entries) throws AndesException {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+        int deletedCount = 0;
+        writeLock.lock();
+        try {
+            LogBatch batch = new LogBatch();
+            List<StoredMessageEntry> entriesToDelete = new ArrayList<>(entries.size());
+            for (StoredMessageEntry entry : entries) {
+                // Skip messages deleted concurrently
+                if (messages.get(entry.getMessageId()) == entry) {
+                    batch.addDelete(entry.getMessageId());
+                    entriesToDelete.add(entry);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                // Deletions are not synced to disk. A deletion lost on a crash only causes a redelivery. The log is
+                // flushed before a segment is reclaimed, hence deletions a reclaimed segment depends on are not lost.
+                messageLog.append(batch);
+                for (int i = 0; i < entriesToDelete.size(); i++) {
+                    StoredMessageEntry entry = entriesToDelete.get(i);
+                    messages.remove(entry.getMessageId());
+                    unindex(entry);
+                    releaseSegments(entry, batch.getPointer(i).getSegmentId());
+                    deletedCount++;
+                }
+                messageLog.reclaimSegments();
+            }
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while deleting messages from the message store", e);
+        } finally {
+            writeLock.unlock();
+            contextWrite.stop();
+        }
+        return deletedCount;
+    }
+
+    /**
+     * Flush the log up to the given sequence
+     *
+     * @param sequence log sequence returned by an append. Nothing is done for a negative sequence.
+     * @param task     task name used in the error message
+     * @throws AndesException on a file sync error
+     */
+    private void commit(long sequence, String task) throws AndesException {
+        if (sequence < 0) {
+            return;
+        }
+        try {
+            messageLog.commit(sequence);
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while flushing message log to disk when " + task, e);
+        }
+    }
+
+    /**
+     * Read metadata of messages from the given index in message id order
+     *
+     * @param index            index to read from. May be null.
+     * @param storageQueueName if not null, only messages stored in this queue are considered
+     * @param firstMsgId       smallest message id to read (inclusive)
+     * @param count            maximum number of messages to read
+     * @param queueNameToSet   storage queue name to set on the returned metadata. Not set if null.
+     * @return metadata list
+     * @throws AndesException on a log read error
+     */
+    private List<AndesMessageMetadata> readMetadata(MessageIndex index, String storageQueueName, long firstMsgId,
+            int count, String queueNameToSet) throws AndesException {
+        List<AndesMessageMetadata> mdList = new ArrayList<>(count);
+        if (null == index) {
+            return mdList;
+        }
+
+        Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+        try {
+            for (StoredMessageEntry entry : index.from(firstMsgId)) {
+                if (mdList.size() == count) {
+                    break;
+                }
+                if (null != storageQueueName && !storageQueueName.equals(entry.getStorageQueueName())) {
+                    continue;
+                }
+                byte[] metadataBytes = readMetadata(entry.getMetadataPointer());
+                if (null == metadataBytes) {
+                    continue;
+                }
+                AndesMessageMetadata md = new AndesMessageMetadata(entry.getMessageId(), metadataBytes, true);
+                if (null != queueNameToSet) {
+                    md.setStorageQueueName(queueNameToSet);
+                }
+                mdList.add(md);
+            }
+        } finally {
+            contextRead.stop();
+        }
+        return mdList;
+    }
+
+    /**
+     * Read metadata bytes from a metadata or update record
+     *
+     * @param pointer location of the record
+     * @return metadata bytes or null if the record no longer exists
+     * @throws AndesException on a log read error
+     */
+    private byte[] readMetadata(RecordPointer pointer) throws AndesException {
+        if (null == pointer) {
+            return null;
+        }
+        try {
+            ByteBuffer body = readRecord(pointer);
+            if (null == body) {
+                return null;
+            }
+            byte recordType = body.get(FileStoreConstants.RECORD_HEADER_SIZE);
+            LogRecordReader reader = new LogRecordReader(body);
+            reader.readLong();
+            if (FileStoreConstants.RECORD_METADATA == recordType) {
+                reader.readLong();
+                reader.readString();
+            } else {
+                reader.readByte();
+                reader.readString();
+                reader.readString();
+            }
+            return reader.readBytes();
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while " + FileStoreConstants.TASK_READING_RECORD + " "
+                    + pointer, e);
+        }
+    }
+
+    /**
+     * Read a content chunk from a content record
+     *
+     * @param pointer location of the record
+     * @return content chunk or null if the record no longer exists
+     * @throws AndesException on a log read error
+     */
+    private AndesMessagePart readContent(RecordPointer pointer) throws AndesException {
+        Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+        try {
+            ByteBuffer body = readRecord(pointer);
+            if (null == body) {
+                return null;
+            }
+            LogRecordReader reader = new LogRecordReader(body);
+            AndesMessagePart messagePart = new AndesMessagePart();
+            messagePart.setMessageID(reader.readLong());
+            messagePart.setOffSet(reader.readInt());
+            byte[] data = reader.readBytes();
+            messagePart.setData(data);
+            messagePart.setDataLength(data.length);
+            return messagePart;
+        } catch (IOException e) {
+            throw new AndesException("Error occurred while " + FileStoreConstants.TASK_READING_RECORD + " "
+                    + pointer, e);
+        } finally {
+            contextRead.stop();
+        }
+    }
+
+    /**
+     * Read the record at the given location. A record of a concurrently deleted message may no longer be readable,
+     * which is reported as a missing record.
+     *
+     * @param pointer location of the record
+     * @return record body positioned after the record type or null if the record no longer exists
+     * @throws IOException on a log read error
+     */
+    private ByteBuffer readRecord(RecordPointer pointer) throws IOException {
+        try {
+            return messageLog.read(pointer);
+        } catch (ClosedChannelException e) {
+            if (null == messageLog.getSegment(pointer.getSegmentId())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Replace or remove the retained message of a destination. Must be called holding the write lock.
+     */
+    private void applyRetain(String destination, long messageId, RecordPointer pointer, boolean remove) {
+        StoredMessageEntry previous = remove ? retainedByDestination.remove(destination)
+                : retainedByDestination.get(destination);
+        if (null != previous) {
+            retainedById.remove(previous.getMessageId());
+            releaseSegments(previous, pointer.getSegmentId());
+        }
+        if (remove) {
+            // The removal record itself holds nothing live
+            return;
+        }
+
+        StoredMessageEntry entry = new StoredMessageEntry(messageId);
+        entry.setStorageQueueName(destination);
+        entry.setMetadataPointer(pointer);
+        trackSegment(entry, pointer.getSegmentId());
+        retainedByDestination.put(destination, entry);
+        retainedById.put(messageId, entry);
+    }
+
+    /**
+     * Remove messages for which only content was found in the log. Their metadata was never stored, hence they can
+     * never be delivered.
+     */
+    private void purgeIncompleteMessages() throws AndesException {
+        List<StoredMessageEntry> incompleteEntries = new ArrayList<>();
+        for (StoredMessageEntry entry : messages.values()) {
+            if (!entry.hasMetadata()) {
+                incompleteEntries.add(entry);
+            }
+        }
+        if (!incompleteEntries.isEmpty()) {
+            log.warn("Removing content of " + incompleteEntries.size() + " message(s) stored without metadata");
+            deleteEntries(incompleteEntries);
+        }
+    }
+
+    /**
+     * Count the entry as live in the given segment if it was not counted already
+     */
+    private void trackSegment(StoredMessageEntry entry, long segmentId) {
+        if (entry.addSegment(segmentId)) {
+            LogSegment segment = messageLog.getSegment(segmentId);
+            if (null != segment) {
+                segment.incrementLiveRecords();
+            }
+        }
+    }
+
+    /**
+     * Remove the entry from the live counts of its segments. The segment holding the deletion record has to outlive
+     * those segments.
+     *
+     * @param entry              removed entry
+     * @param tombstoneSegmentId segment holding the deletion record of the entry
+     */
+    private void releaseSegments(StoredMessageEntry entry, long tombstoneSegmentId) {
+        LogSegment tombstoneSegment = messageLog.getSegment(tombstoneSegmentId);
+        for (long segmentId : entry.getSegmentIds()) {
+            LogSegment segment = messageLog.getSegment(segmentId);
+            if (null != segment) {
+                segment.decrementLiveRecords();
+            }
+            if (null != tombstoneSegment) {
+                tombstoneSegment.addTombstoneTarget(segmentId);
+            }
+        }
+    }
+
+    private StoredMessageEntry getOrCreateEntry(long messageId) {
+        StoredMessageEntry entry = messages.get(messageId);
+        if (null == entry) {
+            entry = new StoredMessageEntry(messageId);
+            messages.put(messageId, entry);
+        }
+        return entry;
+    }
+
+    private void index(StoredMessageEntry entry) {
+        if (entry.isInDLC()) {
+            getIndex(dlcIndexes, entry.getDlcQueueName()).add(entry);
+        } else if (null != entry.getStorageQueueName()) {
+            getIndex(queueIndexes, entry.getStorageQueueName()).add(entry);
+        }
+    }
+
+    private void unindex(StoredMessageEntry entry) {
+        MessageIndex index = null;
+        if (entry.isInDLC()) {
+            index = dlcIndexes.get(entry.getDlcQueueName());
+        } else if (null != entry.getStorageQueueName()) {
+            index = queueIndexes.get(entry.getStorageQueueName());
+        }
+        if (null != index) {
+            index.remove(entry);
+        }
+    }
+
+    private MessageIndex getIndex(ConcurrentHashMap<String, MessageIndex> indexes, String name) {
+        MessageIndex index = indexes.get(name);
+        if (null == index) {
+            MessageIndex newIndex = new MessageIndex();
+            index = indexes.putIfAbsent(name, newIndex);
+            if (null == index) {
+                index = newIndex;
+            }
+        }
+        return index;
+    }
+
+    private void removeFromCache(List<StoredMessageEntry> entries) {
+        LongArrayList messageIds = new LongArrayList(entries.size());
+        for (StoredMessageEntry entry : entries) {
+            messageIds.add(entry.getMessageId());
+        }
+        messageCache.removeFromCache(messageIds);
+    }
+
+    private void clearIndexes() {
+        messages.clear();
+        queueIndexes.clear();
+        dlcIndexes.clear();
+        retainedByDestination.clear();
+        retainedById.clear();
+    }
+
+    /**
+     * Rebuilds the index from the records read while opening the log
+     */
+    private class ReplayVisitor implements SegmentedMessageLog.RecordVisitor {
+
+        @Override
+        public void visit(byte recordType, ByteBuffer body, RecordPointer pointer) throws IOException {
+            LogRecordReader reader = new LogRecordReader(body);
+            switch (recordType) {
+                case FileStoreConstants.RECORD_METADATA: {
+                    StoredMessageEntry entry = getOrCreateEntry(reader.readLong());
+                    entry.setExpirationTime(reader.readLong());
+                    entry.setStorageQueueName(reader.readString());
+                    entry.setMetadataPointer(pointer);
+                    trackSegment(entry, pointer.getSegmentId());
+                    index(entry);
+                    break;
+                }
+                case FileStoreConstants.RECORD_CONTENT: {
+                    StoredMessageEntry entry = getOrCreateEntry(reader.readLong());
+                    entry.addContent(reader.readInt(), pointer);
+                    trackSegment(entry, pointer.getSegmentId());
+                    break;
+                }
+                case FileStoreConstants.RECORD_UPDATE: {
+                    StoredMessageEntry entry = messages.get(reader.readLong());
+                    if (null == entry || !entry.hasMetadata()) {
+                        // Message was deleted and its segments removed
+                        break;
+                    }
+                    byte flags = reader.readByte();
+                    String storageQueueName = reader.readString();
+                    String dlcQueueName = reader.readString();
+                    unindex(entry);
+                    entry.setStorageQueueName(storageQueueName);
+                    entry.setDlcQueueName(dlcQueueName.isEmpty() ? null : dlcQueueName);
+                    entry.setExpireInDLC((flags & FileStoreConstants.UPDATE_FLAG_EXPIRE_IN_DLC) != 0);
+                    if ((flags & FileStoreConstants.UPDATE_FLAG_METADATA) != 0) {
+                        entry.setMetadataPointer(pointer);
+                    }
+                    index(entry);
+                    trackSegment(entry, pointer.getSegmentId());
+                    break;
+                }
+                case FileStoreConstants.RECORD_DELETE: {
+                    StoredMessageEntry entry = messages.remove(reader.readLong());
+                    if (null != entry) {
+                        unindex(entry);
+                        releaseSegments(entry, pointer.getSegmentId());
+                    }
+                    break;
+                }
+                case FileStoreConstants.RECORD_RETAIN: {
+                    String destination = reader.readString();
+                    applyRetain(destination, reader.readLong(), pointer, false);
+                    break;
+                }
+                case FileStoreConstants.RECORD_RETAIN_DELETE: {
+                    applyRetain(reader.readString(), -1, pointer, true);
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown record type " + recordType + " at " + pointer);
+            }
+        }
+    }
+
+    /**
+     * Messages of a queue ordered by message id, with a count maintained alongside so that the message count of a
+     * queue does not require a traversal.
+     */
+    private static class MessageIndex {
+
+        private final ConcurrentSkipListMap<Long, StoredMessageEntry> entries = new ConcurrentSkipListMap<>();
+
+        private final AtomicLong count = new AtomicLong(0);
+
+        void add(StoredMessageEntry entry) {
+            if (null == entries.put(entry.getMessageId(), entry)) {
+                count.incrementAndGet();
+            }
+        }
+
+        void remove(StoredMessageEntry entry) {
+            if (null != entries.remove(entry.getMessageId())) {
+                count.decrementAndGet();
+            }
+        }
+
+        long getCount() {
+            return count.get();
+        }
+
+        /**
+         * Entries with message ids between the given ids, both inclusive
+         */
+        Collection<StoredMessageEntry> range(long firstMessageId, long lastMessageId) {
+            if (firstMessageId > lastMessageId) {
+                return new ArrayList<>();
+            }
+            return entries.subMap(firstMessageId, true, lastMessageId, true).values();
+        }
+
+        /**
+         * Entries with message ids greater than or equal to the given id
+         */
+        Collection<StoredMessageEntry> from(long firstMessageId) {
+            return entries.tailMap(firstMessageId, true).values();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.file;
+
+/**
+ * Constants used by the segment file based message store
+ */
+public class FileStoreConstants {
+
+    /**
+     * Message store property to set the directory in which segment files are kept
+     */
+    public static final String PROP_STORE_DIRECTORY = "storeDirectory";
+
+    /**
+     * Message store property to set the maximum size of a segment file in megabytes
+     */
+    public static final String PROP_SEGMENT_SIZE = "segmentSize";
+
+    /**
+     * Message store property to enable/disable flushing segment files to disk before a write is acknowledged
+     */
+    public static final String PROP_SYNC_ON_COMMIT = "syncOnCommit";
+
+    /**
+     * Default store directory relative to the carbon home
+     */
+    public static final String DEFAULT_STORE_DIRECTORY = "/repository/data/andes/message-store";
+
+    /**
+     * Default maximum segment size in megabytes
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64;
+
+    /**
+     * Upper bound of a segment size in megabytes. Segments are memory mapped, hence should stay addressable by an int.
+     */
+    public static final int MAX_SEGMENT_SIZE = 1024;
+
+    /**
+     * File name extension of segment files
+     */
+    public static final String SEGMENT_FILE_EXTENSION = ".log";
+
+    /**
+     * Size of the record header. Record length (int) followed by the CRC32 checksum (int) of the record body.
+     */
+    static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * Record holding metadata of a newly stored message
+     */
+    static final byte RECORD_METADATA = 1;
+
+    /**
+     * Record holding a content chunk of a message
+     */
+    static final byte RECORD_CONTENT = 2;
+
+    /**
+     * Record holding a change of the queue, dead letter channel state or the metadata of a stored message
+     */
+    static final byte RECORD_UPDATE = 3;
+
+    /**
+     * Record marking a message as deleted
+     */
+    static final byte RECORD_DELETE = 4;
+
+    /**
+     * Record holding a retained message (metadata and content) of a topic
+     */
+    static final byte RECORD_RETAIN = 5;
+
+    /**
+     * Record marking the retained message of a topic as deleted
+     */
+    static final byte RECORD_RETAIN_DELETE = 6;
+
+    /**
+     * Update record flag set when the record carries new metadata bytes
+     */
+    static final byte UPDATE_FLAG_METADATA = 1;
+
+    /**
+     * Update record flag set when expiry should be checked for the message while it is in the dead letter channel
+     */
+    static final byte UPDATE_FLAG_EXPIRE_IN_DLC = 2;
+
+    /**
+     * Task names used in log messages
+     */
+    static final String TASK_STORING_MESSAGES = "storing messages";
+    static final String TASK_DELETING_MESSAGES = "deleting messages";
+    static final String TASK_UPDATING_MESSAGES = "updating messages";
+    static final String TASK_READING_RECORD = "reading record";
+    static final String TASK_STORING_RETAINED_MESSAGES = "storing retained messages";
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.file;
+
+import org.wso2.andes.kernel.AndesMessagePart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A set of records which is appended to the {@link SegmentedMessageLog} with a single write. Every record is framed
+ * with its length and a CRC32 checksum so that a partially written batch can be detected and dropped on recovery.
+ * <p>
+ * Once the batch is appended, {@link #getPointer(int)} gives the location of each record within the log.
+ */
+class LogBatch {
+
+    /**
+     * Buffer holding the encoded records
+     */
+    private final RecordBuffer buffer = new RecordBuffer();
+
+    /**
+     * Stream used to encode records into the buffer
+     */
+    private final DataOutputStream output = new DataOutputStream(buffer);
+
+    /**
+     * Start offset of each record within the batch
+     */
+    private int[] recordOffsets = new int[16];
+
+    /**
+     * Number of records in the batch
+     */
+    private int recordCount = 0;
+
+    /**
+     * Segment the batch was written to. Set after the batch is appended.
+     */
+    private long segmentId = -1;
+
+    /**
+     * Position of the batch within the segment. Set after the batch is appended.
+     */
+    private long basePosition = -1;
+
+    /**
+     * Add a record holding metadata of a new message
+     *
+     * @param messageId        message id
+     * @param storageQueueName queue the message is stored in
+     * @param expirationTime   expiration time of the message. 0 if not defined
+     * @param metadata         metadata bytes
+     * @return index of the record within the batch
+     */
+    int addMetadata(long messageId, String storageQueueName, long expirationTime, byte[] metadata) {
+        int index = beginRecord(FileStoreConstants.RECORD_METADATA);
+        try {
+            output.writeLong(messageId);
+            output.writeLong(expirationTime);
+            output.writeUTF(storageQueueName);
+            writeBytes(metadata, metadata.length);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error encoding metadata record for message " + messageId, e);
+        }
+        endRecord(index);
+        return index;
+    }
+
+    /**
+     * Add a record holding a content chunk
+     *
+     * @param messagePart content chunk
+     * @return index of the record within the batch
+     */
+    int addContent(AndesMessagePart messagePart) {
+        int index = beginRecord(FileStoreConstants.RECORD_CONTENT);
+        try {
+            output.writeLong(messagePart.getMessageID());
+            output.writeInt(messagePart.getOffset());
+            writeBytes(messagePart.getData(), messagePart.getDataLength());
+        } catch (IOException e) {
+            throw new IllegalStateException("Error encoding content record for message "
+                    + messagePart.getMessageID(), e);
+        }
+        endRecord(index);
+        return index;
+    }
+
+    /**
+     * Add a record changing the location or metadata of a stored message
+     *
+     * @param messageId        message id
+     * @param storageQueueName queue the message is stored in
+     * @param dlcQueueName     dead letter channel the message is in, null if the message is not in a DLC
+     * @param expireInDLC      true if expiry should be checked while the message is in the DLC
+     * @param metadata         new metadata bytes, null if unchanged
+     * @return index of the record within the batch
+     */
+    int addUpdate(long messageId, String storageQueueName, String dlcQueueName, boolean expireInDLC,
+                  byte[] metadata) {
+        int index = beginRecord(FileStoreConstants.RECORD_UPDATE);
+        try {
+            byte flags = 0;
+            if (null != metadata) {
+                flags = (byte) (flags | FileStoreConstants.UPDATE_FLAG_METADATA);
+            }
+            if (expireInDLC) {
+                flags = (byte) (flags | FileStoreConstants.UPDATE_FLAG_EXPIRE_IN_DLC);
+            }
+            output.writeLong(messageId);
+            output.writeByte(flags);
+            output.writeUTF(storageQueueName);
+            output.writeUTF(null == dlcQueueName ? "" : dlcQueueName);
+            if (null != metadata) {
+                writeBytes(metadata, metadata.length);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error encoding update record for message " + messageId, e);
+        }
+        endRecord(index);
+        return index;
+    }
+
+    /**
+     * Add a record marking a message as deleted
+     *
+     * @param messageId message id
+     * @return index of the record within the batch
+     */
+    int addDelete(long messageId) {
+        int index = beginRecord(FileStoreConstants.RECORD_DELETE);
+        try {
+            output.writeLong(messageId);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error encoding delete record for message " + messageId, e);
+        }
+        endRecord(index);
+        return index;
+    }
+
+    /**
+     * Add a record holding the retained message of a topic
+     *
+     * @param destination topic name
+     * @param messageId   message id
+     * @param metadata    metadata bytes
+     * @param parts       content chunks
+     * @return index of the record within the batch
+     */
+    int addRetain(String destination, long messageId, byte[] metadata, List<AndesMessagePart> parts) {
+        int index = beginRecord(FileStoreConstants.RECORD_RETAIN);
+        try {
+            output.writeUTF(destination);
+            output.writeLong(messageId);
+            writeBytes(metadata, metadata.length);
+            output.writeInt(parts.size());
+            for (AndesMessagePart part : parts) {
+                output.writeInt(part.getOffset());
+                writeBytes(part.getData(), part.getDataLength());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error encoding retain record for destination " + destination, e);
+        }
+        endRecord(index);
+        return index;
+    }
+
+    /**
+     * Add a record removing the retained message of a topic
+     *
+     * @param destination topic name
+     * @return index of the record within the batch
+     */
+    int addRetainDelete(String destination) {
+        int index = beginRecord(FileStoreConstants.RECORD_RETAIN_DELETE);
+        try {
+            output.writeUTF(destination);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error encoding retain delete record for destination " + destination, e);
+        }
+        endRecord(index);
+        return index;
+    }
+
+    /**
+     * Number of records in the batch
+     */
+    int size() {
+        return recordCount;
+    }
+
+    /**
+     * Number of encoded bytes in the batch
+     */
+    int byteSize() {
+        return buffer.size();
+    }
+
+    boolean isEmpty() {
+        return 0 == recordCount;
+    }
+
+    /**
+     * Encoded content of the batch ready to be written
+     */
+    ByteBuffer toByteBuffer() {
+        return buffer.toByteBuffer();
+    }
+
+    /**
+     * Record where the batch was written in the log
+     *
+     * @param segmentId    segment the batch was appended to
+     * @param basePosition position of the first byte of the batch within the segment
+     */
+    void setWriteLocation(long segmentId, long basePosition) {
+        this.segmentId = segmentId;
+        this.basePosition = basePosition;
+    }
+
+    /**
+     * Location of a record in the log. Only valid after the batch is appended.
+     *
+     * @param recordIndex index of the record returned when the record was added
+     * @return location of the record
+     */
+    RecordPointer getPointer(int recordIndex) {
+        int start = recordOffsets[recordIndex];
+        int end = (recordIndex + 1 < recordCount) ? recordOffsets[recordIndex + 1] : buffer.size();
+        return new RecordPointer(segmentId, (int) (basePosition + start), end - start);
+    }
+
+    private void writeBytes(byte[] data, int length) throws IOException {
+        output.writeInt(length);
+        output.write(data, 0, length);
+    }
+
+    private int beginRecord(byte recordType) {
+        if (recordCount == recordOffsets.length) {
+            int[] newOffsets = new int[recordOffsets.length * 2];
+            System.arraycopy(recordOffsets, 0, newOffsets, 0, recordOffsets.length);
+            recordOffsets = newOffsets;
+        }
+        int index = recordCount;
+        recordOffsets[index] = buffer.size();
+        recordCount++;
+        try {
+            // Placeholders for length and checksum. Filled once the record is complete
+            output.writeInt(0);
+            output.writeInt(0);
+            output.writeByte(recordType);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error encoding record header", e);
+        }
+        return index;
+    }
+
+    private void endRecord(int recordIndex) {
+        int start = recordOffsets[recordIndex];
+        int bodyStart = start + FileStoreConstants.RECORD_HEADER_SIZE;
+        int bodyLength = buffer.size() - bodyStart;
+        buffer.putInt(start, bodyLength);
+        buffer.putInt(start + 4, (int) buffer.checksum(bodyStart, bodyLength));
+    }
+
+    /**
+     * Byte array output stream which allows patching already written bytes
+     */
+    private static class RecordBuffer extends ByteArrayOutputStream {
+
+        private RecordBuffer() {
+            super(4096);
+        }
+
+        private void putInt(int position, int value) {
+            buf[position] = (byte) (value >>> 24);
+            buf[position + 1] = (byte) (value >>> 16);
+            buf[position + 2] = (byte) (value >>> 8);
+            buf[position + 3] = (byte) value;
+        }
+
+        private long checksum(int offset, int length) {
+            CRC32 crc = new CRC32();
+            crc.update(buf, offset, length);
+            return crc.getValue();
+        }
+
+        private ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.file;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes the fields of a record body written by {@link LogBatch}. The reader consumes the given buffer.
+ */
+class LogRecordReader {
+
+    private final DataInputStream input;
+
+    LogRecordReader(final ByteBuffer body) {
+        this.input = new DataInputStream(new InputStream() {
+            @Override
+            public int read() {
+                return body.hasRemaining() ? (body.get() & 0xFF) : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (!body.hasRemaining()) {
+                    return -1;
+                }
+                int readLength = Math.min(length, body.remaining());
+                body.get(bytes, offset, readLength);
+                return readLength;
+            }
+        });
+    }
+
+    long readLong() throws IOException {
+        return input.readLong();
+    }
+
+    int readInt() throws IOException {
+        return input.readInt();
+    }
+
+    byte readByte() throws IOException {
+        return input.readByte();
+    }
+
+    String readString() throws IOException {
+        return input.readUTF();
+    }
+
+    /**
+     * Read a length prefixed byte array
+     */
+    byte[] readBytes() throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Skip a length prefixed byte array
+     */
+    void skipBytes() throws IOException {
+        int length = input.readInt();
+        if (input.skipBytes(length) != length) {
+            throw new IOException("Unexpected end of record");
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single append only file of the {@link SegmentedMessageLog}. Records are only appended to the active segment.
+ * Once a segment is sealed it is memory mapped read only and all further reads are served from the mapping.
+ * <p>
+ * Each segment keeps a count of the live message records it holds. When that count drops to zero the segment
+ * can be removed from disk as a whole, which is how acknowledged message ranges are reclaimed.
+ */
+class LogSegment {
+
+    /**
+     * Identifier of the segment. Segment identifiers increase monotonically, therefore a higher identifier means a
+     * newer segment.
+     */
+    private final long segmentId;
+
+    /**
+     * File backing the segment
+     */
+    private final File file;
+
+    /**
+     * Channel used to append to and read from the segment file
+     */
+    private final FileChannel channel;
+
+    /**
+     * Position at which the next record will be appended
+     */
+    private volatile long writePosition;
+
+    /**
+     * Position up to which the segment is known to be flushed to the storage device
+     */
+    private volatile long syncedPosition;
+
+    /**
+     * Read only mapping of the segment. Only set after the segment is sealed.
+     */
+    private volatile MappedByteBuffer mappedBuffer;
+
+    /**
+     * Number of live messages which have at least one record in this segment
+     */
+    private final AtomicInteger liveRecordCount = new AtomicInteger(0);
+
+    /**
+     * Segments holding records of messages deleted by deletion records written to this segment. This segment can only
+     * be removed once all those segments are removed, otherwise deleted messages would reappear on a replay.
+     */
+    private final Set<Long> tombstoneTargets = new ConcurrentSkipListSet<>();
+
+    LogSegment(long segmentId, File file) throws IOException {
+        this.segmentId = segmentId;
+        this.file = file;
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        this.writePosition = channel.size();
+        this.syncedPosition = writePosition;
+    }
+
+    /**
+     * Append the given record batch at the end of the segment. Callers must serialize appends.
+     *
+     * @param records encoded records
+     * @return position at which the batch was written
+     * @throws IOException on a file write error
+     */
+    long append(ByteBuffer records) throws IOException {
+        long position = writePosition;
+        long nextPosition = position;
+        while (records.hasRemaining()) {
+            nextPosition = nextPosition + channel.write(records, nextPosition);
+        }
+        writePosition = nextPosition;
+        return position;
+    }
+
+    /**
+     * Read the given number of bytes starting from the given position. Sealed segments are read through the memory
+     * mapping and the active segment through positional reads.
+     *
+     * @param position start position
+     * @param length   number of bytes to read
+     * @return buffer containing the requested bytes
+     * @throws IOException on a file read error
+     */
+    ByteBuffer read(long position, int length) throws IOException {
+        MappedByteBuffer mapped = mappedBuffer;
+        if (null != mapped) {
+            ByteBuffer view = mapped.duplicate();
+            view.position((int) position);
+            view.limit((int) position + length);
+            return view.slice();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        long readPosition = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, readPosition);
+            if (read < 0) {
+                throw new IOException("Unexpected end of segment " + file.getName() + " at " + readPosition);
+            }
+            readPosition = readPosition + read;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Map the current content of the segment read only without sealing it. Used to scan the segment on recovery.
+     *
+     * @return read only view of the segment content
+     * @throws IOException on a file mapping error
+     */
+    ByteBuffer mapContent() throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, writePosition);
+    }
+
+    /**
+     * Flush all appended records to the storage device
+     *
+     * @throws IOException on a file sync error
+     */
+    void force() throws IOException {
+        long position = writePosition;
+        channel.force(false);
+        syncedPosition = position;
+    }
+
+    /**
+     * Seal the segment. No more records are appended and reads are served through a read only memory mapping.
+     *
+     * @throws IOException on a file sync or mapping error
+     */
+    void seal() throws IOException {
+        force();
+        mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, writePosition);
+    }
+
+    /**
+     * Discard everything after the given position. Used to drop a partially written batch found on recovery.
+     *
+     * @param position new end of the segment
+     * @throws IOException on a file truncate error
+     */
+    void truncate(long position) throws IOException {
+        channel.truncate(position);
+        writePosition = position;
+        syncedPosition = Math.min(syncedPosition, position);
+    }
+
+    /**
+     * Close the segment file and delete it from disk
+     */
+    boolean delete() {
+        close();
+        return file.delete();
+    }
+
+    /**
+     * Close the segment file. An existing memory mapping stays readable until it is garbage collected.
+     */
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignore) {
+            // Nothing to do. The channel is discarded anyway.
+        }
+    }
+
+    int incrementLiveRecords() {
+        return liveRecordCount.incrementAndGet();
+    }
+
+    int decrementLiveRecords() {
+        return liveRecordCount.decrementAndGet();
+    }
+
+    int getLiveRecordCount() {
+        return liveRecordCount.get();
+    }
+
+    void addTombstoneTarget(long targetSegmentId) {
+        if (targetSegmentId != segmentId) {
+            tombstoneTargets.add(targetSegmentId);
+        }
+    }
+
+    Set<Long> getTombstoneTargets() {
+        return tombstoneTargets;
+    }
+
+    boolean isSealed() {
+        return null != mappedBuffer;
+    }
+
+    long getSegmentId() {
+        return segmentId;
+    }
+
+    long getSize() {
+        return writePosition;
+    }
+
+    long getSyncedSize() {
+        return syncedPosition;
+    }
+
+    File getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.file;
+
+/**
+ * Location of a record within the {@link SegmentedMessageLog}
+ */
+class RecordPointer {
+
+    /**
+     * Segment holding the record
+     */
+    private final long segmentId;
+
+    /**
+     * Start position of the record (including the header) within the segment
+     */
+    private final int position;
+
+    /**
+     * Length of the record including the header
+     */
+    private final int length;
+
+    RecordPointer(long segmentId, int position, int length) {
+        this.segmentId = segmentId;
+        this.position = position;
+        this.length = length;
+    }
+
+    long getSegmentId() {
+        return segmentId;
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "[segment=" + segmentId + ", position=" + position + ", length=" + length + "]";
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.file;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append only log made of a sequence of {@link LogSegment} files. All writes go to the tail of the active segment.
+ * When the active segment grows beyond the configured size it is sealed and a new segment is started.
+ * <p>
+ * Durability is provided through group commit. Writers append their batch and then call {@link #commit(long)} with
+ * the returned sequence. A single sync covers every batch appended before it, so concurrent writers share the cost
+ * of flushing the file to disk.
+ */
+class SegmentedMessageLog {
+
+    private static final Log log = LogFactory.getLog(SegmentedMessageLog.class);
+
+    /**
+     * Callback used to hand over records read while replaying the log on startup
+     */
+    interface RecordVisitor {
+
+        /**
+         * Process a record read from the log
+         *
+         * @param recordType type of the record as defined in {@link FileStoreConstants}
+         * @param body       record body positioned after the record type. Only valid during the call.
+         * @param pointer    location of the record in the log
+         * @throws IOException if the record cannot be decoded
+         */
+        void visit(byte recordType, ByteBuffer body, RecordPointer pointer) throws IOException;
+    }
+
+    /**
+     * Directory containing the segment files
+     */
+    private final File directory;
+
+    /**
+     * Size in bytes after which the active segment is rolled over
+     */
+    private final long maxSegmentSize;
+
+    /**
+     * Whether appended records are flushed to disk on commit
+     */
+    private final boolean syncOnCommit;
+
+    /**
+     * All segments on disk keyed by segment id
+     */
+    private final ConcurrentSkipListMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+
+    /**
+     * Segment new records are appended to
+     */
+    private volatile LogSegment activeSegment;
+
+    /**
+     * Serializes appends and segment roll overs
+     */
+    private final Object appendLock = new Object();
+
+    /**
+     * Serializes file syncs
+     */
+    private final Object syncLock = new Object();
+
+    /**
+     * Total number of bytes appended since the log was opened. Guarded by appendLock.
+     */
+    private long appendedBytes = 0;
+
+    /**
+     * Total number of bytes known to be flushed to disk
+     */
+    private volatile long syncedBytes = 0;
+
+    private volatile boolean open = false;
+
+    SegmentedMessageLog(File directory, long maxSegmentSize, boolean syncOnCommit) {
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+        this.syncOnCommit = syncOnCommit;
+    }
+
+    /**
+     * Open the log and replay every valid record in the order it was written. A partially written batch at the
+     * end of a segment is truncated away.
+     *
+     * @param visitor callback receiving the records
+     * @throws IOException on a file access error
+     */
+    void open(RecordVisitor visitor) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create message store directory " + directory.getAbsolutePath());
+        }
+
+        File[] segmentFiles = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(FileStoreConstants.SEGMENT_FILE_EXTENSION);
+            }
+        });
+        if (null == segmentFiles) {
+            throw new IOException("Unable to list segment files in " + directory.getAbsolutePath());
+        }
+        Arrays.sort(segmentFiles);
+
+        for (File segmentFile : segmentFiles) {
+            String name = segmentFile.getName();
+            long segmentId;
+            try {
+                segmentId = Long.parseLong(name.substring(0,
+                        name.length() - FileStoreConstants.SEGMENT_FILE_EXTENSION.length()));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring unknown file " + segmentFile.getAbsolutePath() + " in message store directory");
+                continue;
+            }
+            LogSegment segment = new LogSegment(segmentId, segmentFile);
+            segments.put(segmentId, segment);
+            replaySegment(segment, visitor);
+        }
+
+        for (LogSegment segment : segments.headMap(segments.isEmpty() ? 0L : segments.lastKey()).values()) {
+            segment.seal();
+        }
+
+        if (segments.isEmpty()) {
+            activeSegment = createSegment(1);
+        } else {
+            activeSegment = segments.lastEntry().getValue();
+        }
+        open = true;
+
+        log.info("Message log opened with " + segments.size() + " segment(s) in " + directory.getAbsolutePath());
+    }
+
+    /**
+     * Read every record of the segment and pass it to the visitor. Stops at the first record which is incomplete
+     * or fails the checksum and truncates the segment at that point.
+     */
+    private void replaySegment(LogSegment segment, RecordVisitor visitor) throws IOException {
+        ByteBuffer content = segment.mapContent();
+        CRC32 crc = new CRC32();
+        int position = 0;
+        int limit = content.limit();
+
+        while (position + FileStoreConstants.RECORD_HEADER_SIZE <= limit) {
+            int bodyLength = content.getInt(position);
+            int checksum = content.getInt(position + 4);
+            int bodyStart = position + FileStoreConstants.RECORD_HEADER_SIZE;
+
+            if (bodyLength <= 0 || bodyStart + bodyLength > limit) {
+                break;
+            }
+
+            ByteBuffer body = content.duplicate();
+            body.position(bodyStart);
+            body.limit(bodyStart + bodyLength);
+            body = body.slice();
+
+            crc.reset();
+            byte[] bodyBytes = new byte[bodyLength];
+            body.duplicate().get(bodyBytes);
+            crc.update(bodyBytes, 0, bodyLength);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            byte recordType = body.get();
+            visitor.visit(recordType, body, new RecordPointer(segment.getSegmentId(), position,
+                    FileStoreConstants.RECORD_HEADER_SIZE + bodyLength));
+            position = bodyStart + bodyLength;
+        }
+
+        if (position < limit) {
+            log.warn("Discarding " + (limit - position) + " bytes of incomplete records at the end of segment "
+                    + segment.getFile().getName());
+            segment.truncate(position);
+        }
+    }
+
+    /**
+     * Append a batch of records to the log. Sets the write location of the batch so that record pointers can be
+     * obtained from it.
+     *
+     * @param batch records to write
+     * @return log sequence to pass to {@link #commit(long)} to make the batch durable
+     * @throws IOException on a file write error
+     */
+    long append(LogBatch batch) throws IOException {
+        synchronized (appendLock) {
+            LogSegment segment = activeSegment;
+            if (segment.getSize() > 0 && segment.getSize() + batch.byteSize() > maxSegmentSize) {
+                segment = rollOver(segment);
+            }
+            long position = segment.append(batch.toByteBuffer());
+            batch.setWriteLocation(segment.getSegmentId(), position);
+            appendedBytes = appendedBytes + batch.byteSize();
+            return appendedBytes;
+        }
+    }
+
+    /**
+     * Make sure everything up to the given log sequence is flushed to disk. Concurrent callers are served by a
+     * single sync where possible.
+     *
+     * @param sequence sequence returned by {@link #append(LogBatch)}
+     * @throws IOException on a file sync error
+     */
+    void commit(long sequence) throws IOException {
+        if (syncOnCommit) {
+            sync(sequence);
+        }
+    }
+
+    /**
+     * Flush everything up to the given log sequence to disk regardless of whether the log syncs on commit
+     *
+     * @param sequence log sequence to flush up to
+     * @throws IOException on a file sync error
+     */
+    private void sync(long sequence) throws IOException {
+        if (syncedBytes >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedBytes >= sequence) {
+                return;
+            }
+            long target;
+            LogSegment segment;
+            synchronized (appendLock) {
+                target = appendedBytes;
+                segment = activeSegment;
+            }
+            // Segments before the active segment are flushed when they are sealed
+            segment.force();
+            syncedBytes = target;
+        }
+    }
+
+    /**
+     * Read the record at the given location
+     *
+     * @param pointer location of the record
+     * @return record body positioned after the record type, or null if the segment no longer exists
+     * @throws IOException on a file read error
+     */
+    ByteBuffer read(RecordPointer pointer) throws IOException {
+        LogSegment segment = segments.get(pointer.getSegmentId());
+        if (null == segment) {
+            return null;
+        }
+        ByteBuffer record = segment.read(pointer.getPosition(), pointer.getLength());
+        record.position(FileStoreConstants.RECORD_HEADER_SIZE + 1);
+        return record;
+    }
+
+    /**
+     * Get the segment with the given id
+     *
+     * @param segmentId segment id
+     * @return segment or null if it was removed
+     */
+    LogSegment getSegment(long segmentId) {
+        return segments.get(segmentId);
+    }
+
+    /**
+     * Remove segments which no longer hold live records. A segment holding deletion records is only removed once
+     * the segments those records refer to are gone. Callers must make sure no record is being added to the live
+     * counts while this runs.
+     * <p>
+     * The deletion records which made a segment removable may not be flushed yet when the log does not sync on
+     * commit. Everything appended so far is therefore flushed before the first segment is removed, otherwise a crash
+     * would lose the deletion records while the segments they refer to are already gone.
+     *
+     * @return number of segments removed
+     * @throws IOException on a file sync error
+     */
+    int reclaimSegments() throws IOException {
+        int removedCount = 0;
+        boolean synced = false;
+        LogSegment active = activeSegment;
+        Iterator<Map.Entry<Long, LogSegment>> iterator = segments.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            LogSegment segment = iterator.next().getValue();
+            if (segment == active || segment.getLiveRecordCount() > 0 || !segment.isSealed()) {
+                continue;
+            }
+
+            boolean tombstonesRequired = false;
+            for (Long targetSegmentId : segment.getTombstoneTargets()) {
+                if (segments.containsKey(targetSegmentId)) {
+                    tombstonesRequired = true;
+                    break;
+                }
+            }
+
+            if (!tombstonesRequired) {
+                if (!synced) {
+                    long sequence;
+                    synchronized (appendLock) {
+                        sequence = appendedBytes;
+                    }
+                    sync(sequence);
+                    synced = true;
+                }
+                iterator.remove();
+                if (segment.delete()) {
+                    removedCount++;
+                } else {
+                    log.warn("Unable to delete segment file " + segment.getFile().getAbsolutePath());
+                }
+            }
+        }
+
+        if (removedCount > 0 && log.isDebugEnabled()) {
+            log.debug(removedCount + " message log segment(s) removed. Remaining segments " + segments.size());
+        }
+        return removedCount;
+    }
+
+    /**
+     * Flush and close all segments
+     */
+    void close() {
+        open = false;
+        synchronized (appendLock) {
+            try {
+                activeSegment.force();
+            } catch (IOException e) {
+                log.error("Error while flushing message log segment on close", e);
+            }
+            for (LogSegment segment : segments.values()) {
+                segment.close();
+            }
+        }
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Seal the given segment and start a new one. Must be called holding the append lock.
+     */
+    private LogSegment rollOver(LogSegment segment) throws IOException {
+        segment.seal();
+        LogSegment newSegment = createSegment(segment.getSegmentId() + 1);
+        activeSegment = newSegment;
+        if (log.isDebugEnabled()) {
+            log.debug("Message log rolled over to segment " + newSegment.getFile().getName());
+        }
+        return newSegment;
+    }
+
+    private LogSegment createSegment(long segmentId) throws IOException {
+        File segmentFile = new File(directory, String.format("%020d", segmentId)
+                + FileStoreConstants.SEGMENT_FILE_EXTENSION);
+        LogSegment segment = new LogSegment(segmentId, segmentFile);
+        segments.put(segmentId, segment);
+        return segment;
+    }
+}
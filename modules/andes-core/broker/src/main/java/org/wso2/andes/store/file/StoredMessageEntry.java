@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.file;
+
+import java.util.Arrays;
+
+/**
+ * In memory index entry of a message stored in the {@link SegmentedMessageLog}. Holds the location of the metadata
+ * and content records of the message along with the queue information needed to answer queries without reading the
+ * log. Entries are only modified while holding the store write lock.
+ */
+class StoredMessageEntry {
+
+    private final long messageId;
+
+    /**
+     * Queue the message is stored in. Null if only content was stored for the message so far.
+     */
+    private volatile String storageQueueName;
+
+    /**
+     * Dead letter channel holding the message, null if the message is not in a DLC
+     */
+    private volatile String dlcQueueName;
+
+    /**
+     * Whether expiry is checked for the message while it is in the DLC
+     */
+    private volatile boolean expireInDLC;
+
+    /**
+     * Expiration time of the message. 0 if not defined.
+     */
+    private long expirationTime;
+
+    /**
+     * Location of the latest record carrying metadata of the message
+     */
+    private volatile RecordPointer metadataPointer;
+
+    /**
+     * Content chunk offsets and the matching record locations, in insertion order
+     */
+    private int[] contentOffsets = new int[0];
+    private RecordPointer[] contentPointers = new RecordPointer[0];
+
+    /**
+     * Ids of segments holding records of this message. Each of those segments counts this message as live.
+     */
+    private long[] segmentIds = new long[0];
+
+    StoredMessageEntry(long messageId) {
+        this.messageId = messageId;
+    }
+
+    long getMessageId() {
+        return messageId;
+    }
+
+    String getStorageQueueName() {
+        return storageQueueName;
+    }
+
+    void setStorageQueueName(String storageQueueName) {
+        this.storageQueueName = storageQueueName;
+    }
+
+    String getDlcQueueName() {
+        return dlcQueueName;
+    }
+
+    void setDlcQueueName(String dlcQueueName) {
+        this.dlcQueueName = dlcQueueName;
+    }
+
+    boolean isInDLC() {
+        return null != dlcQueueName;
+    }
+
+    boolean isExpireInDLC() {
+        return expireInDLC;
+    }
+
+    void setExpireInDLC(boolean expireInDLC) {
+        this.expireInDLC = expireInDLC;
+    }
+
+    long getExpirationTime() {
+        return expirationTime;
+    }
+
+    void setExpirationTime(long expirationTime) {
+        this.expirationTime = expirationTime;
+    }
+
+    boolean hasMetadata() {
+        return null != metadataPointer;
+    }
+
+    RecordPointer getMetadataPointer() {
+        return metadataPointer;
+    }
+
+    void setMetadataPointer(RecordPointer metadataPointer) {
+        this.metadataPointer = metadataPointer;
+    }
+
+    /**
+     * Record the location of a content chunk. A chunk with an already known offset is replaced.
+     *
+     * @param offset  content offset
+     * @param pointer location of the content record
+     */
+    synchronized void addContent(int offset, RecordPointer pointer) {
+        for (int i = 0; i < contentOffsets.length; i++) {
+            if (contentOffsets[i] == offset) {
+                contentPointers[i] = pointer;
+                return;
+            }
+        }
+        int length = contentOffsets.length;
+        contentOffsets = Arrays.copyOf(contentOffsets, length + 1);
+        contentPointers = Arrays.copyOf(contentPointers, length + 1);
+        contentOffsets[length] = offset;
+        contentPointers[length] = pointer;
+    }
+
+    /**
+     * Get the location of the content chunk with the given offset
+     *
+     * @param offset content offset
+     * @return location of the content record or null if no such chunk exists
+     */
+    synchronized RecordPointer getContentPointer(int offset) {
+        for (int i = 0; i < contentOffsets.length; i++) {
+            if (contentOffsets[i] == offset) {
+                return contentPointers[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Locations of all content chunks of the message
+     */
+    synchronized RecordPointer[] getContentPointers() {
+        return contentPointers;
+    }
+
+    /**
+     * Note that a record of this message was written to the given segment
+     *
+     * @param segmentId segment id
+     * @return true if this is the first record of the message in that segment
+     */
+    boolean addSegment(long segmentId) {
+        for (long existingId : segmentIds) {
+            if (existingId == segmentId) {
+                return false;
+            }
+        }
+        segmentIds = Arrays.copyOf(segmentIds, segmentIds.length + 1);
+        segmentIds[segmentIds.length - 1] = segmentId;
+        return true;
+    }
+
+    /**
+     * Ids of the segments holding records of this message
+     */
+    long[] getSegmentIds() {
+        return segmentIds;
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.rdbms;
+
+import org.apache.log4j.Logger;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.carbon.metrics.manager.Counter;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A database connection kept by a single thread across store calls. The connection is handed out as a proxy whose
+ * close releases the lane instead of closing the physical connection, so that prepared statements of the fixed
+ * queries in {@link RDBMSConstants} can be cached with the connection and reused by later calls of the thread.
+ * <p>
+ * A lane is used by its owner thread only. If the owner thread asks for a connection while it still holds the lane
+ * connection, {@link #acquire()} returns null and the caller should use a pooled connection instead.
+ */
+class ConnectionLane {
+
+    private static final Logger logger = Logger.getLogger(ConnectionLane.class);
+
+    /**
+     * SQL state class of connection exceptions. Connection is discarded after such an error.
+     */
+    private static final String CONNECTION_EXCEPTION_SQL_STATE_CLASS = "08";
+
+    /**
+     * Queries whose prepared statements are cached. Queries built at runtime are prepared on each call.
+     */
+    private static final Set<String> CACHEABLE_STATEMENTS = collectCacheableStatements();
+
+    private final RDBMSConnection rdbmsConnection;
+
+    /**
+     * Number of statements prepared on the database
+     */
+    private final Counter statementPrepareCounter;
+
+    /**
+     * Number of statements served from the statement cache
+     */
+    private final Counter statementReuseCounter;
+
+    /**
+     * Prepared statements of the physical connection by query
+     */
+    private final Map<String, CachedStatement> statementCache = new HashMap<>();
+
+    private Connection physicalConnection;
+
+    private Connection connectionProxy;
+
+    /**
+     * Auto commit mode of the physical connection when it was taken from the pool
+     */
+    private boolean initialAutoCommit;
+
+    private boolean inUse;
+
+    /**
+     * Whether a connection error was seen on the physical connection
+     */
+    private boolean broken;
+
+    /**
+     * Whether statements were run after the last commit or rollback. Reads count as well since they open a
+     * transaction which holds its snapshot and locks until it ends.
+     */
+    private boolean pendingTransaction;
+
+    private boolean closed;
+
+    ConnectionLane(RDBMSConnection rdbmsConnection) {
+        this.rdbmsConnection = rdbmsConnection;
+        statementPrepareCounter = MetricManager.counter(Level.INFO, MetricsConstants.DB_STATEMENT_PREPARE);
+        statementReuseCounter = MetricManager.counter(Level.INFO, MetricsConstants.DB_STATEMENT_REUSE);
+    }
+
+    /**
+     * Take the lane connection. The physical connection is taken from the pool on first use and replaced if it
+     * failed.
+     *
+     * @return connection to be closed after use, or null if the lane connection is in use
+     * @throws SQLException if a physical connection could not be taken from the pool
+     */
+    synchronized Connection acquire() throws SQLException {
+        if (inUse || closed) {
+            return null;
+        }
+
+        if (null != physicalConnection && (broken || physicalConnection.isClosed())) {
+            discardConnection();
+        }
+
+        if (null == physicalConnection) {
+            physicalConnection = rdbmsConnection.borrowConnection();
+            initialAutoCommit = physicalConnection.getAutoCommit();
+            broken = false;
+            pendingTransaction = false;
+            connectionProxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new ConnectionHandler());
+        }
+
+        inUse = true;
+        return connectionProxy;
+    }
+
+    /**
+     * Close the physical connection. The lane can not be used afterwards.
+     */
+    synchronized void close() {
+        closed = true;
+        if (!inUse) {
+            discardConnection();
+        }
+    }
+
+    /**
+     * Make the lane available to its owner thread again. A transaction left open is rolled back so that the next user
+     * of the lane does not see its work or its read snapshot.
+     */
+    private synchronized void release() {
+        if (!inUse) {
+            return;
+        }
+        inUse = false;
+
+        for (CachedStatement cachedStatement : statementCache.values().toArray(new CachedStatement[0])) {
+            // Statements left open by the user of the lane
+            cachedStatement.reset();
+        }
+
+        try {
+            if (!broken && !physicalConnection.getAutoCommit() && pendingTransaction) {
+                physicalConnection.rollback();
+            }
+            if (!broken && physicalConnection.getAutoCommit() != initialAutoCommit) {
+                physicalConnection.setAutoCommit(initialAutoCommit);
+            }
+            pendingTransaction = false;
+        } catch (SQLException e) {
+            logger.warn("Discarding database connection since it could not be reset after use", e);
+            broken = true;
+        }
+
+        if (broken || closed) {
+            discardConnection();
+        }
+    }
+
+    /**
+     * Close cached statements and return the physical connection to the pool
+     */
+    private void discardConnection() {
+        for (CachedStatement cachedStatement : statementCache.values()) {
+            try {
+                cachedStatement.statement.close();
+            } catch (SQLException e) {
+                logger.debug("Error while closing cached prepared statement", e);
+            }
+        }
+        statementCache.clear();
+
+        if (null != physicalConnection) {
+            try {
+                physicalConnection.close();
+            } catch (SQLException e) {
+                logger.warn("Error while closing database connection", e);
+            }
+        }
+        physicalConnection = null;
+        connectionProxy = null;
+    }
+
+    /**
+     * Prepare a statement for the given query, reusing a cached statement if possible
+     */
+    private PreparedStatement prepareStatement(String sql) throws SQLException {
+        if (!CACHEABLE_STATEMENTS.contains(sql)) {
+            // Executions of statements which are not cached are not tracked
+            pendingTransaction = true;
+            statementPrepareCounter.inc();
+            return physicalConnection.prepareStatement(sql);
+        }
+
+        CachedStatement cachedStatement = statementCache.get(sql);
+        if (null != cachedStatement) {
+            if (cachedStatement.inUse) {
+                // The same query is run twice at once. Prepare a statement which is not cached.
+                pendingTransaction = true;
+                statementPrepareCounter.inc();
+                return physicalConnection.prepareStatement(sql);
+            }
+            cachedStatement.inUse = true;
+            statementReuseCounter.inc();
+            return cachedStatement.statementProxy;
+        }
+
+        statementPrepareCounter.inc();
+        cachedStatement = new CachedStatement(sql, physicalConnection.prepareStatement(sql));
+        statementCache.put(sql, cachedStatement);
+        cachedStatement.inUse = true;
+        return cachedStatement.statementProxy;
+    }
+
+    /**
+     * Mark the lane broken if the error is a connection error
+     */
+    private void checkConnectionError(Throwable throwable) {
+        if (throwable instanceof SQLException) {
+            String sqlState = ((SQLException) throwable).getSQLState();
+            if (null != sqlState && sqlState.startsWith(CONNECTION_EXCEPTION_SQL_STATE_CLASS)) {
+                broken = true;
+            }
+        }
+    }
+
+    /**
+     * Invoke a method on a JDBC object, unwrapping exceptions thrown by it
+     */
+    private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            checkConnectionError(e.getCause());
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Read the queries of {@link RDBMSConstants} which are fixed at class load
+     */
+    private static Set<String> collectCacheableStatements() {
+        Set<String> statements = new HashSet<>();
+        for (Field field : RDBMSConstants.class.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (field.getName().startsWith("PS_") && Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers)
+                    && String.class.equals(field.getType())) {
+                try {
+                    field.setAccessible(true);
+                    statements.add((String) field.get(null));
+                } catch (IllegalAccessException e) {
+                    logger.warn("Statement " + field.getName() + " will not be cached", e);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(statements);
+    }
+
+    /**
+     * Handles calls to the connection handed out by the lane
+     */
+    private class ConnectionHandler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            synchronized (ConnectionLane.this) {
+                String methodName = method.getName();
+
+                if ("close".equals(methodName)) {
+                    release();
+                    return null;
+                } else if ("isClosed".equals(methodName)) {
+                    return !inUse || physicalConnection.isClosed();
+                } else if ("equals".equals(methodName)) {
+                    return proxy == args[0];
+                } else if ("hashCode".equals(methodName)) {
+                    return System.identityHashCode(proxy);
+                } else if ("toString".equals(methodName)) {
+                    return "ConnectionLane[" + physicalConnection + "]";
+                }
+
+                if (!inUse) {
+                    throw new SQLException("Connection is closed");
+                }
+
+                if ("prepareStatement".equals(methodName) && 1 == args.length) {
+                    try {
+                        return prepareStatement((String) args[0]);
+                    } catch (SQLException e) {
+                        checkConnectionError(e);
+                        throw e;
+                    }
+                }
+
+                Object result = ConnectionLane.this.invoke(physicalConnection, method, args);
+                if ("commit".equals(methodName) || "rollback".equals(methodName)) {
+                    pendingTransaction = false;
+                } else if (methodName.startsWith("prepare") || "createStatement".equals(methodName)) {
+                    pendingTransaction = true;
+                }
+                return result;
+            }
+        }
+    }
+
+    /**
+     * A cached prepared statement. Closing the statement handed out makes it available for reuse.
+     */
+    private class CachedStatement implements InvocationHandler {
+
+        private final String sql;
+
+        private final PreparedStatement statement;
+
+        private final PreparedStatement statementProxy;
+
+        private boolean inUse;
+
+        private CachedStatement(String sql, PreparedStatement statement) {
+            this.sql = sql;
+            this.statement = statement;
+            statementProxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            synchronized (ConnectionLane.this) {
+                String methodName = method.getName();
+
+                if ("close".equals(methodName)) {
+                    reset();
+                    return null;
+                } else if ("isClosed".equals(methodName)) {
+                    return !inUse || statement.isClosed();
+                } else if ("getConnection".equals(methodName)) {
+                    return connectionProxy;
+                } else if ("equals".equals(methodName)) {
+                    return proxy == args[0];
+                } else if ("hashCode".equals(methodName)) {
+                    return System.identityHashCode(proxy);
+                } else if ("toString".equals(methodName)) {
+                    return statement.toString();
+                }
+
+                if (!inUse) {
+                    throw new SQLException("Statement is closed");
+                }
+                if (methodName.startsWith("execute")) {
+                    pendingTransaction = true;
+                }
+                return ConnectionLane.this.invoke(statement, method, args);
+            }
+        }
+
+        /**
+         * Clear parameters and batch of the statement so that it can be reused
+         */
+        private void reset() {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+
+            if (statementCache.get(sql) != this) {
+                // The connection was discarded while the statement was in use
+                return;
+            }
+
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                logger.debug("Removing prepared statement from cache since it could not be reset", e);
+                checkConnectionError(e);
+                statementCache.remove(sql);
+                try {
+                    statement.close();
+                } catch (SQLException closeException) {
+                    logger.debug("Error while closing prepared statement", closeException);
+                }
+            }
+        }
+    }
+}
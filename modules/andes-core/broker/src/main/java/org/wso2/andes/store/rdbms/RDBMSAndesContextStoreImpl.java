@@ -18,7 +18,10 @@
 
 package org.wso2.andes.store.rdbms;
 
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
 import org.apache.log4j.Logger;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.configuration.util.ConfigurationProperties;
 import org.wso2.andes.kernel.AndesBinding;
 import org.wso2.andes.kernel.AndesContextStore;
@@ -26,7 +29,9 @@ import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.AndesExchange;
 import org.wso2.andes.kernel.AndesQueue;
 import org.wso2.andes.kernel.AndesSubscription;
+import org.wso2.andes.kernel.ContextChange;
 import org.wso2.andes.kernel.DurableStoreConnection;
+import org.wso2.andes.kernel.slot.MessageIdRanges;
 import org.wso2.andes.kernel.slot.Slot;
 import org.wso2.andes.kernel.slot.SlotState;
 import org.wso2.andes.metrics.MetricsConstants;
@@ -35,6 +40,7 @@ import org.wso2.andes.server.cluster.coordination.rdbms.MembershipEvent;
 import org.wso2.andes.server.cluster.coordination.rdbms.MembershipEventType;
 import org.wso2.andes.server.cluster.coordination.ClusterNotification;
 import org.wso2.andes.store.AndesDataIntegrityViolationException;
+import org.wso2.andes.store.AndesStoreUnavailableException;
 import org.wso2.carbon.metrics.manager.Level;
 import org.wso2.carbon.metrics.manager.MetricManager;
 import org.wso2.carbon.metrics.manager.Timer.Context;
@@ -44,13 +50,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import javax.sql.DataSource;
 
 /**
  * ANSI SQL based Andes Context Store implementation. This is used to persist information of
@@ -62,9 +69,25 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
     private static final Logger logger = Logger.getLogger(RDBMSAndesContextStoreImpl.class);
 
     /**
-     * Connection pooled sql data source object. Used to create connections in method scope
+     * Number of latest context changes kept in the store. Nodes which have not read older changes reload all
+     * exchanges, queues, bindings and durable subscriptions.
      */
-    private DataSource datasource;
+    private static final int CONTEXT_CHANGES_RETAINED = 10000;
+
+    /**
+     * Older context changes are removed each time the context version passes a multiple of this
+     */
+    private static final int CONTEXT_CHANGE_PRUNE_INTERVAL = 1000;
+
+    /**
+     * Context version returned when context changes are not recorded
+     */
+    private static final long UNKNOWN_CONTEXT_VERSION = -1;
+
+    /**
+     * Connection to the database. Used to create connections in method scope
+     */
+    private RDBMSConnection rdbmsConnection;
 
     
     /**
@@ -72,8 +95,17 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
      */
     private RDBMSStoreUtils rdbmsStoreUtils;
 
-    
-    
+    /**
+     * True if slot message ids of a queue are stored as one encoded value in the slot message id range table, false
+     * if they are stored one row per message id
+     */
+    private boolean compactSlotMessageIds;
+
+    /**
+     * True if changes to exchanges, queues, bindings and durable subscriptions are recorded with a context version
+     */
+    private boolean recordContextChanges;
+
     /**
      * {@inheritDoc}
      */
@@ -81,12 +113,20 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
     public DurableStoreConnection init(ConfigurationProperties connectionProperties) throws
             AndesException {
 
-        RDBMSConnection rdbmsConnection = new RDBMSConnection();
+        rdbmsConnection = new RDBMSConnection();
         rdbmsConnection.initialize(connectionProperties);
         
         rdbmsStoreUtils = new RDBMSStoreUtils(connectionProperties);
-        
-        datasource = rdbmsConnection.getDataSource();
+        Boolean contextChangesEnabled = AndesConfigurationManager.readValue(
+                AndesConfiguration.RECOVERY_CONTEXT_CHANGES);
+        recordContextChanges = contextChangesEnabled && initContextVersion();
+
+        compactSlotMessageIds = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_SLOTS_COMPACT_MESSAGE_IDS);
+        if (compactSlotMessageIds) {
+            moveSlotMessageIdsToRanges();
+        }
+
         logger.info("Andes Context Store initialised");
         return rdbmsConnection;
     }
@@ -220,6 +260,8 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
             preparedStatement.setString(3, subscription.encodeAsStr());
             preparedStatement.executeUpdate();
 
+            recordContextChange(connection, ContextChange.EntityType.SUBSCRIPTION, ContextChange.ChangeType.STORED,
+                    subscriptionID, null, subscription.encodeAsStr());
             connection.commit();
 
         } catch (SQLException e) {
@@ -256,6 +298,10 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
             preparedStatement.setString(3, subscriptionID);
 
             int updateCount = preparedStatement.executeUpdate();
+            if (updateCount > 0) {
+                recordContextChange(connection, ContextChange.EntityType.SUBSCRIPTION,
+                        ContextChange.ChangeType.STORED, subscriptionID, null, subscription.encodeAsStr());
+            }
             connection.commit();
             return updateCount;
 
@@ -293,12 +339,22 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
         try {
             connection = getConnection();
             preparedStatement = connection.prepareStatement(RDBMSConstants.PS_UPDATE_DURABLE_SUBSCRIPTION_BY_ID);
-            for (Map.Entry<String, String> entry : subscriptions.entrySet()) {
+            List<Map.Entry<String, String>> entries = new ArrayList<>(subscriptions.entrySet());
+            for (Map.Entry<String, String> entry : entries) {
                 preparedStatement.setString(1, entry.getValue());
                 preparedStatement.setString(2, entry.getKey());
                 preparedStatement.addBatch();
             }
-            preparedStatement.executeBatch();
+            int[] updateCounts = preparedStatement.executeBatch();
+
+            // Subscriptions which are not stored are not changed
+            Map<String, String> updatedSubscriptions = new LinkedHashMap<>();
+            for (int i = 0; i < entries.size(); i++) {
+                if (updateCounts[i] > 0 || Statement.SUCCESS_NO_INFO == updateCounts[i]) {
+                    updatedSubscriptions.put(entries.get(i).getKey(), entries.get(i).getValue());
+                }
+            }
+            recordSubscriptionChanges(connection, updatedSubscriptions);
             connection.commit();
 
         } catch (SQLException e) {
@@ -336,6 +392,8 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
             preparedStatement.setString(2, subscriptionID);
             preparedStatement.executeUpdate();
 
+            recordContextChange(connection, ContextChange.EntityType.SUBSCRIPTION, ContextChange.ChangeType.DELETED,
+                    subscriptionID, null, subscription.encodeAsStr());
             connection.commit();
 
         } catch (SQLException e) {
@@ -698,6 +756,8 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
                 preparedStatement.setString(2, exchangeInfo);
                 preparedStatement.executeUpdate();
 
+                recordContextChange(connection, ContextChange.EntityType.EXCHANGE, ContextChange.ChangeType.STORED,
+                        exchangeName, null, exchangeInfo);
                 connection.commit();
             }
         } catch (SQLException e) {
@@ -792,6 +852,8 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
             preparedStatement.setString(1, exchangeName);
             preparedStatement.executeUpdate();
 
+            recordContextChange(connection, ContextChange.EntityType.EXCHANGE, ContextChange.ChangeType.DELETED,
+                    exchangeName, null, null);
             connection.commit();
 
         } catch (SQLException e) {
@@ -823,6 +885,8 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
             preparedStatement.setString(2, queueInfo);
             preparedStatement.executeUpdate();
 
+            recordContextChange(connection, ContextChange.EntityType.QUEUE, ContextChange.ChangeType.STORED,
+                    queueName, null, queueInfo);
             connection.commit();
         } catch (SQLException e) {
             AndesException andesException =
@@ -897,6 +961,8 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
             preparedStatement.setString(1, queueName);
             preparedStatement.executeUpdate();
 
+            recordContextChange(connection, ContextChange.EntityType.QUEUE, ContextChange.ChangeType.DELETED,
+                    queueName, null, null);
             connection.commit();
 
         } catch (SQLException e) {
@@ -930,6 +996,8 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
             preparedStatement.setString(3, bindingInfo);
             preparedStatement.executeUpdate();
 
+            recordContextChange(connection, ContextChange.EntityType.BINDING, ContextChange.ChangeType.STORED,
+                    exchange, boundQueueName, bindingInfo);
             connection.commit();
 
         } catch (SQLException e) {
@@ -1001,6 +1069,8 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
             preparedStatement.setString(2, boundQueueName);
             preparedStatement.executeUpdate();
 
+            recordContextChange(connection, ContextChange.EntityType.BINDING, ContextChange.ChangeType.DELETED,
+                    exchangeName, boundQueueName, null);
             connection.commit();
         } catch (SQLException e) {
             String errMsg =
@@ -1015,22 +1085,280 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getContextVersion() throws AndesException {
+        if (!recordContextChanges) {
+            return UNKNOWN_CONTEXT_VERSION;
+        }
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_CONTEXT_VERSION);
+            preparedStatement.setInt(1, RDBMSConstants.CONTEXT_VERSION_ANCHOR);
+            resultSet = preparedStatement.executeQuery();
+
+            if (resultSet.next()) {
+                return resultSet.getLong(RDBMSConstants.CONTEXT_VERSION);
+            }
+            return 0;
+        } catch (SQLException e) {
+            throw rdbmsStoreUtils.convertSQLException(
+                    "Error occurred while " + RDBMSConstants.TASK_GET_CONTEXT_VERSION, e);
+        } finally {
+            contextRead.stop();
+            close(resultSet, RDBMSConstants.TASK_GET_CONTEXT_VERSION);
+            close(preparedStatement, RDBMSConstants.TASK_GET_CONTEXT_VERSION);
+            close(connection, RDBMSConstants.TASK_GET_CONTEXT_VERSION);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ContextChange> getContextChanges(long version) throws AndesException {
+        if (!recordContextChanges) {
+            return new ArrayList<>();
+        }
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_CONTEXT_CHANGES);
+            preparedStatement.setLong(1, version);
+            resultSet = preparedStatement.executeQuery();
+
+            List<ContextChange> changes = new ArrayList<>();
+            while (resultSet.next()) {
+                changes.add(new ContextChange(
+                        resultSet.getLong(RDBMSConstants.CHANGE_VERSION),
+                        ContextChange.EntityType.valueOf(resultSet.getString(RDBMSConstants.ENTITY_TYPE)),
+                        ContextChange.ChangeType.valueOf(resultSet.getString(RDBMSConstants.CONTEXT_CHANGE_TYPE)),
+                        resultSet.getString(RDBMSConstants.ENTITY_NAME),
+                        resultSet.getString(RDBMSConstants.ENTITY_QUEUE_NAME),
+                        resultSet.getString(RDBMSConstants.ENTITY_DATA)));
+            }
+            return changes;
+        } catch (SQLException e) {
+            throw rdbmsStoreUtils.convertSQLException(
+                    "Error occurred while " + RDBMSConstants.TASK_GET_CONTEXT_CHANGES, e);
+        } finally {
+            contextRead.stop();
+            close(resultSet, RDBMSConstants.TASK_GET_CONTEXT_CHANGES);
+            close(preparedStatement, RDBMSConstants.TASK_GET_CONTEXT_CHANGES);
+            close(connection, RDBMSConstants.TASK_GET_CONTEXT_CHANGES);
+        }
+    }
+
+    /**
+     * Insert the context version row if it does not exist yet. Context changes are not recorded if the context
+     * version or context change table cannot be read, for instance in a database created before they were added.
+     *
+     * @return true if context changes can be recorded
+     * @throws AndesException if the database is not reachable
+     */
+    private boolean initContextVersion() throws AndesException {
+        Connection connection = null;
+        PreparedStatement selectStatement = null;
+        PreparedStatement insertStatement = null;
+        PreparedStatement changesStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            // Fails if the context change table does not exist
+            changesStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_CONTEXT_CHANGES);
+            changesStatement.setLong(1, Long.MAX_VALUE);
+            changesStatement.executeQuery().close();
+
+            selectStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_CONTEXT_VERSION);
+            selectStatement.setInt(1, RDBMSConstants.CONTEXT_VERSION_ANCHOR);
+            resultSet = selectStatement.executeQuery();
+
+            if (!resultSet.next()) {
+                insertStatement = connection.prepareStatement(RDBMSConstants.PS_INSERT_CONTEXT_VERSION);
+                insertStatement.setInt(1, RDBMSConstants.CONTEXT_VERSION_ANCHOR);
+                insertStatement.setLong(2, 0);
+                insertStatement.executeUpdate();
+                connection.commit();
+            }
+            return true;
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_INIT_CONTEXT_VERSION);
+            AndesException andesException = rdbmsStoreUtils.convertSQLException(
+                    "Error occurred while " + RDBMSConstants.TASK_INIT_CONTEXT_VERSION, e);
+            if (andesException instanceof AndesDataIntegrityViolationException) {
+                // Another node inserted the row in parallel
+                return true;
+            } else if (andesException instanceof AndesStoreUnavailableException) {
+                throw andesException;
+            }
+            logger.warn("Context changes will not be recorded since the " + RDBMSConstants.CONTEXT_VERSION_TABLE
+                    + " and " + RDBMSConstants.CONTEXT_CHANGE_TABLE + " tables could not be read. Exchanges, "
+                    + "queues, bindings and subscriptions will be reloaded fully on each sync.", andesException);
+            return false;
+        } finally {
+            close(resultSet, RDBMSConstants.TASK_INIT_CONTEXT_VERSION);
+            close(insertStatement, RDBMSConstants.TASK_INIT_CONTEXT_VERSION);
+            close(selectStatement, RDBMSConstants.TASK_INIT_CONTEXT_VERSION);
+            close(changesStatement, RDBMSConstants.TASK_INIT_CONTEXT_VERSION);
+            close(connection, RDBMSConstants.TASK_INIT_CONTEXT_VERSION);
+        }
+    }
+
+    /**
+     * Record a change of an exchange, queue, binding or durable subscription within the transaction making the
+     * change. Should be called after the change is made, since the context version row stays locked until the
+     * transaction ends.
+     *
+     * @param connection connection of the transaction making the change
+     * @param entityType kind of entity changed
+     * @param changeType whether the entity was stored or deleted
+     * @param entityName exchange name, queue name, exchange name of a binding or subscription id
+     * @param queueName  bound queue name of a binding, null for other entities
+     * @param entityData entity encoded as a string, null for deleted exchanges, queues and bindings
+     * @throws SQLException
+     */
+    private void recordContextChange(Connection connection, ContextChange.EntityType entityType,
+                                     ContextChange.ChangeType changeType, String entityName, String queueName,
+                                     String entityData) throws SQLException {
+        if (!recordContextChanges) {
+            return;
+        }
+        long version = incrementContextVersion(connection, 1);
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_INSERT_CONTEXT_CHANGE);
+            setContextChange(preparedStatement, version, entityType, changeType, entityName, queueName, entityData);
+            preparedStatement.executeUpdate();
+        } finally {
+            close(preparedStatement, RDBMSConstants.TASK_INSERT_CONTEXT_CHANGE);
+        }
+    }
+
+    /**
+     * Record updates of durable subscriptions within the transaction making the updates
+     *
+     * @param connection    connection of the transaction making the updates
+     * @param subscriptions encoded subscriptions by subscription id
+     * @throws SQLException
+     */
+    private void recordSubscriptionChanges(Connection connection, Map<String, String> subscriptions)
+            throws SQLException {
+        if (!recordContextChanges || subscriptions.isEmpty()) {
+            return;
+        }
+        long version = incrementContextVersion(connection, subscriptions.size()) - subscriptions.size();
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_INSERT_CONTEXT_CHANGE);
+            for (Map.Entry<String, String> entry : subscriptions.entrySet()) {
+                version++;
+                setContextChange(preparedStatement, version, ContextChange.EntityType.SUBSCRIPTION,
+                        ContextChange.ChangeType.STORED, entry.getKey(), null, entry.getValue());
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        } finally {
+            close(preparedStatement, RDBMSConstants.TASK_INSERT_CONTEXT_CHANGE);
+        }
+    }
+
+    /**
+     * Reserve versions for context changes. Changes older than the retained number of changes are removed
+     * periodically.
+     *
+     * @param connection  connection of the transaction making the changes
+     * @param changeCount number of changes to reserve versions for
+     * @return version of the last reserved change
+     * @throws SQLException
+     */
+    private long incrementContextVersion(Connection connection, int changeCount) throws SQLException {
+        PreparedStatement incrementStatement = null;
+        PreparedStatement selectStatement = null;
+        PreparedStatement deleteStatement = null;
+        ResultSet resultSet = null;
+        try {
+            incrementStatement = connection.prepareStatement(RDBMSConstants.PS_INCREMENT_CONTEXT_VERSION);
+            incrementStatement.setInt(1, changeCount);
+            incrementStatement.setInt(2, RDBMSConstants.CONTEXT_VERSION_ANCHOR);
+            incrementStatement.executeUpdate();
+
+            selectStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_CONTEXT_VERSION);
+            selectStatement.setInt(1, RDBMSConstants.CONTEXT_VERSION_ANCHOR);
+            resultSet = selectStatement.executeQuery();
+            if (!resultSet.next()) {
+                throw new SQLException("Context version row not found in " + RDBMSConstants.CONTEXT_VERSION_TABLE);
+            }
+            long version = resultSet.getLong(RDBMSConstants.CONTEXT_VERSION);
+
+            if (version / CONTEXT_CHANGE_PRUNE_INTERVAL != (version - changeCount) / CONTEXT_CHANGE_PRUNE_INTERVAL) {
+                deleteStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_CONTEXT_CHANGES);
+                deleteStatement.setLong(1, version - CONTEXT_CHANGES_RETAINED);
+                deleteStatement.executeUpdate();
+            }
+            return version;
+        } finally {
+            close(resultSet, RDBMSConstants.TASK_INCREMENT_CONTEXT_VERSION);
+            close(deleteStatement, RDBMSConstants.TASK_INCREMENT_CONTEXT_VERSION);
+            close(selectStatement, RDBMSConstants.TASK_INCREMENT_CONTEXT_VERSION);
+            close(incrementStatement, RDBMSConstants.TASK_INCREMENT_CONTEXT_VERSION);
+        }
+    }
+
+    /**
+     * Set parameters of the context change insert statement
+     *
+     * @param preparedStatement context change insert statement
+     * @param version           version of the change
+     * @param entityType        kind of entity changed
+     * @param changeType        whether the entity was stored or deleted
+     * @param entityName        name or id of the entity
+     * @param queueName         bound queue name of a binding
+     * @param entityData        entity encoded as a string
+     * @throws SQLException
+     */
+    private static void setContextChange(PreparedStatement preparedStatement, long version,
+                                         ContextChange.EntityType entityType, ContextChange.ChangeType changeType,
+                                         String entityName, String queueName, String entityData)
+            throws SQLException {
+        preparedStatement.setLong(1, version);
+        preparedStatement.setString(2, entityType.name());
+        preparedStatement.setString(3, changeType.name());
+        preparedStatement.setString(4, entityName);
+        preparedStatement.setString(5, queueName);
+        preparedStatement.setString(6, entityData);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void close() {
-        // nothing to do here.
+        rdbmsConnection.close();
     }
 
     /**
-     * Creates a connection using a thread pooled data source object and returns the connection
+     * Creates a connection using a thread pooled data source object and returns the connection, or the connection
+     * kept by the current thread if it is a dedicated connection thread.
      *
      * @return Connection
      * @throws SQLException
      */
     protected Connection getConnection() throws SQLException {
-        return datasource.getConnection();
+        return rdbmsConnection.acquireConnection();
     }
 
     /**
@@ -1232,8 +1560,9 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
 
             connection = getConnection();
 
-            preparedStatement =
-                    connection.prepareStatement(RDBMSConstants.PS_DELETE_MESSAGE_IDS_BY_QUEUE_NAME);
+            preparedStatement = connection.prepareStatement(compactSlotMessageIds
+                    ? RDBMSConstants.PS_DELETE_MESSAGE_ID_RANGES_BY_QUEUE_NAME
+                    : RDBMSConstants.PS_DELETE_MESSAGE_IDS_BY_QUEUE_NAME);
             preparedStatement.setString(1, queueName);
 
             preparedStatement.executeUpdate();
@@ -1677,7 +2006,30 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
     /**
      * {@inheritDoc}
      */
-    public void addMessageId(String queueName, long messageId) throws AndesException {
+    public void addMessageIds(String queueName, LongArrayList messageIds) throws AndesException {
+        if (compactSlotMessageIds) {
+            updateMessageIds(queueName, messageIds, true, RDBMSConstants.TASK_ADD_MESSAGE_ID);
+            return;
+        }
+
+        for (int i = 0; i < messageIds.size(); i++) {
+            try {
+                addMessageId(queueName, messageIds.get(i));
+            } catch (AndesDataIntegrityViolationException ignore) {
+                // Same message id can be added when slots are overlapped. Composite primary key of queue name and
+                // message id keeps a single row for it.
+            }
+        }
+    }
+
+    /**
+     * Add a message id of a queue as a row of its own
+     *
+     * @param queueName name of the queue
+     * @param messageId message id
+     * @throws AndesException
+     */
+    private void addMessageId(String queueName, long messageId) throws AndesException {
         Connection connection = null;
         PreparedStatement preparedStatement = null;
 
@@ -1707,23 +2059,27 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
     /**
      * {@inheritDoc}
      */
-    public TreeSet<Long> getMessageIds(String queueName) throws AndesException {
+    public MessageIdRanges getMessageIds(String queueName) throws AndesException {
         Connection connection = null;
         PreparedStatement preparedStatement = null;
         ResultSet resultSet = null;
-        TreeSet<Long> messageIdSet = new TreeSet<>();
 
         try {
             connection = getConnection();
+            if (compactSlotMessageIds) {
+                MessageIdRanges messageIds = getMessageIdRanges(connection, queueName);
+                return (null != messageIds) ? messageIds : new MessageIdRanges();
+            }
 
+            MessageIdRanges messageIds = new MessageIdRanges();
             preparedStatement = connection.prepareStatement(RDBMSConstants.PS_GET_MESSAGE_IDS);
             preparedStatement.setString(1, queueName);
             resultSet = preparedStatement.executeQuery();
 
             while (resultSet.next()) {
-                messageIdSet.add(resultSet.getLong(RDBMSConstants.MESSAGE_ID));
+                messageIds.add(resultSet.getLong(RDBMSConstants.MESSAGE_ID));
             }
-            return messageIdSet;
+            return messageIds;
         } catch (SQLException e) {
             String errMsg =
                     RDBMSConstants.TASK_GET_MESSAGE_IDS + " queueName: " + queueName;
@@ -1738,7 +2094,13 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
     /**
      * {@inheritDoc}
      */
-    public void deleteMessageId(long messageId) throws AndesException {
+    public void deleteMessageId(String queueName, long messageId) throws AndesException {
+        if (compactSlotMessageIds) {
+            updateMessageIds(queueName, LongArrayList.newListWith(messageId), false,
+                    RDBMSConstants.TASK_DELETE_MESSAGE_ID);
+            return;
+        }
+
         Connection connection = null;
         PreparedStatement preparedStatement = null;
 
@@ -1748,13 +2110,14 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
 
             preparedStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_MESSAGE_ID);
 
-            preparedStatement.setLong(1, messageId);
+            preparedStatement.setString(1, queueName);
+            preparedStatement.setLong(2, messageId);
 
             preparedStatement.executeUpdate();
             connection.commit();
         } catch (SQLException e) {
             String errMsg =
-                    RDBMSConstants.TASK_DELETE_MESSAGE_ID + " messageId: " + messageId;
+                    RDBMSConstants.TASK_DELETE_MESSAGE_ID + " queueName: " + queueName + " messageId: " + messageId;
             rollback(connection, RDBMSConstants.TASK_DELETE_MESSAGE_ID);
             throw rdbmsStoreUtils.convertSQLException("Error occurred while " + errMsg, e);
         } finally {
@@ -1763,6 +2126,178 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
         }
     }
 
+    /**
+     * Add or remove message ids of a queue. Message ids of a queue are stored as a single encoded value, which is
+     * read and written back once for all given message ids within one transaction. Only the slot coordinator updates
+     * message ids, while holding the lock of the queue.
+     *
+     * @param queueName  name of the queue
+     * @param messageIds message ids to add or remove
+     * @param add        true to add the message ids, false to remove them
+     * @param task       task description used in errors
+     * @throws AndesException
+     */
+    private void updateMessageIds(String queueName, LongArrayList messageIds, boolean add, String task)
+            throws AndesException {
+        Connection connection = null;
+
+        try {
+            connection = getConnection();
+
+            MessageIdRanges storedMessageIds = getMessageIdRanges(connection, queueName);
+            boolean isNewQueue = (null == storedMessageIds);
+            if (isNewQueue) {
+                storedMessageIds = new MessageIdRanges();
+            }
+
+            boolean isChanged = false;
+            for (int i = 0; i < messageIds.size(); i++) {
+                long messageId = messageIds.get(i);
+                isChanged |= add ? storedMessageIds.add(messageId) : storedMessageIds.remove(messageId);
+            }
+            if (isChanged) {
+                writeMessageIdRanges(connection, queueName, storedMessageIds, isNewQueue, task);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            String errMsg = task + " queueName: " + queueName + " messageIds: " + messageIds;
+            rollback(connection, task);
+            throw rdbmsStoreUtils.convertSQLException("Error occurred while " + errMsg, e);
+        } finally {
+            close(connection, task);
+        }
+    }
+
+    /**
+     * Write message ids of a queue as one encoded value using the given connection
+     *
+     * @param connection connection to the database
+     * @param queueName  name of the queue
+     * @param messageIds message ids of the queue
+     * @param isNewQueue true if no message ids were stored for the queue
+     * @param task       task description used in errors
+     * @throws SQLException
+     */
+    private void writeMessageIdRanges(Connection connection, String queueName, MessageIdRanges messageIds,
+                                      boolean isNewQueue, String task) throws SQLException {
+        PreparedStatement preparedStatement = null;
+
+        try {
+            if (isNewQueue) {
+                preparedStatement = connection.prepareStatement(RDBMSConstants.PS_INSERT_SLOT_MESSAGE_ID_RANGES);
+                preparedStatement.setString(1, queueName);
+                preparedStatement.setBytes(2, messageIds.toBytes());
+            } else {
+                preparedStatement = connection.prepareStatement(RDBMSConstants.PS_UPDATE_SLOT_MESSAGE_ID_RANGES);
+                preparedStatement.setBytes(1, messageIds.toBytes());
+                preparedStatement.setString(2, queueName);
+            }
+            preparedStatement.executeUpdate();
+        } finally {
+            close(preparedStatement, task);
+        }
+    }
+
+    /**
+     * Move slot message ids stored one row per message id to the slot message id range table. This keeps the slots
+     * submitted before compact message id storage was enabled. The moved ids are merged with the ids already stored
+     * for the queue. Nothing is moved if the slot message id table cannot be read.
+     */
+    private void moveSlotMessageIdsToRanges() {
+        Connection connection = null;
+        PreparedStatement selectStatement = null;
+        PreparedStatement clearStatement = null;
+        ResultSet resultSet = null;
+        Map<String, LongArrayList> messageIdsByQueue = new HashMap<>();
+        String task = RDBMSConstants.TASK_MIGRATE_MESSAGE_IDS;
+
+        try {
+            connection = getConnection();
+
+            try {
+                selectStatement = connection.prepareStatement(RDBMSConstants.PS_GET_ALL_MESSAGE_IDS);
+                resultSet = selectStatement.executeQuery();
+                while (resultSet.next()) {
+                    String queueName = resultSet.getString(RDBMSConstants.QUEUE_NAME);
+                    LongArrayList messageIds = messageIdsByQueue.get(queueName);
+                    if (null == messageIds) {
+                        messageIds = new LongArrayList();
+                        messageIdsByQueue.put(queueName, messageIds);
+                    }
+                    messageIds.add(resultSet.getLong(RDBMSConstants.MESSAGE_ID));
+                }
+            } catch (SQLException e) {
+                logger.info("Slot message ids were not moved since " + RDBMSConstants.SLOT_MESSAGE_ID_TABLE
+                        + " could not be read. " + e.getMessage());
+                rollback(connection, task);
+                return;
+            }
+
+            if (messageIdsByQueue.isEmpty()) {
+                connection.commit();
+                return;
+            }
+
+            int movedCount = 0;
+            for (Map.Entry<String, LongArrayList> entry : messageIdsByQueue.entrySet()) {
+                MessageIdRanges messageIds = getMessageIdRanges(connection, entry.getKey());
+                boolean isNewQueue = (null == messageIds);
+                if (isNewQueue) {
+                    messageIds = new MessageIdRanges();
+                }
+                LongArrayList legacyMessageIds = entry.getValue();
+                for (int i = 0; i < legacyMessageIds.size(); i++) {
+                    messageIds.add(legacyMessageIds.get(i));
+                }
+                writeMessageIdRanges(connection, entry.getKey(), messageIds, isNewQueue, task);
+                movedCount = movedCount + legacyMessageIds.size();
+            }
+
+            clearStatement = connection.prepareStatement(RDBMSConstants.PS_CLEAR_SLOT_MESSAGE_ID_TABLE);
+            clearStatement.executeUpdate();
+            connection.commit();
+            logger.info("Moved " + movedCount + " slot message ids of " + messageIdsByQueue.size() + " queue(s) to "
+                    + RDBMSConstants.SLOT_MESSAGE_ID_RANGE_TABLE);
+        } catch (SQLException e) {
+            // Another node may have moved the same message ids concurrently. Message ids which were not moved are
+            // moved on the next start.
+            rollback(connection, task);
+            logger.error("Error occurred while " + task, e);
+        } finally {
+            close(resultSet, task);
+            close(selectStatement, task);
+            close(clearStatement, task);
+            close(connection, task);
+        }
+    }
+
+    /**
+     * Read message ids of a queue stored as one encoded value using the given connection
+     *
+     * @param connection connection to the database
+     * @param queueName  name of the queue
+     * @return message ids of the queue or null if none were stored for the queue
+     * @throws SQLException
+     */
+    private MessageIdRanges getMessageIdRanges(Connection connection, String queueName) throws SQLException {
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        try {
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_GET_MESSAGE_ID_RANGES);
+            preparedStatement.setString(1, queueName);
+            resultSet = preparedStatement.executeQuery();
+
+            if (resultSet.next()) {
+                return MessageIdRanges.fromBytes(resultSet.getBytes(RDBMSConstants.MESSAGE_ID_RANGES));
+            }
+            return null;
+        } finally {
+            close(resultSet, RDBMSConstants.TASK_GET_MESSAGE_IDS);
+            close(preparedStatement, RDBMSConstants.TASK_GET_MESSAGE_IDS);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1883,8 +2418,9 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
         try {
             connection = getConnection();
 
-            preparedStatement =
-                    connection.prepareStatement(RDBMSConstants.PS_GET_ALL_QUEUES_IN_SUBMITTED_SLOTS);
+            preparedStatement = connection.prepareStatement(compactSlotMessageIds
+                    ? RDBMSConstants.PS_GET_ALL_QUEUES_IN_SUBMITTED_SLOT_RANGES
+                    : RDBMSConstants.PS_GET_ALL_QUEUES_IN_SUBMITTED_SLOTS);
             resultSet = preparedStatement.executeQuery();
 
             while (resultSet.next()) {
@@ -1918,7 +2454,9 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
             connection = getConnection();
             clearSlotTablePS = connection.prepareStatement(RDBMSConstants.PS_CLEAR_SLOT_TABLE);
             clearSlotTablePS.executeUpdate();
-            clearSlotMessageIdTablePS = connection.prepareStatement(RDBMSConstants.PS_CLEAR_SLOT_MESSAGE_ID_TABLE);
+            clearSlotMessageIdTablePS = connection.prepareStatement(compactSlotMessageIds
+                    ? RDBMSConstants.PS_CLEAR_SLOT_MESSAGE_ID_RANGE_TABLE
+                    : RDBMSConstants.PS_CLEAR_SLOT_MESSAGE_ID_TABLE);
             clearSlotMessageIdTablePS.executeUpdate();
             clearNodeToLastPublisherIdPS = connection.prepareStatement(RDBMSConstants.PS_CLEAR_NODE_TO_LAST_PUBLISHED_ID);
             clearNodeToLastPublisherIdPS.executeUpdate();
@@ -1938,6 +2476,157 @@ public class RDBMSAndesContextStoreImpl implements AndesContextStore {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addSlotCheckpoints(Map<String, LongArrayList> slotCheckpoints) throws AndesException {
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        AndesException queueError = null;
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_INSERT_SLOT_CHECKPOINT);
+            // Checkpoints of each queue are committed separately so that a failure does not drop checkpoints of
+            // the other queues
+            for (Map.Entry<String, LongArrayList> queueCheckpoints : slotCheckpoints.entrySet()) {
+                try {
+                    addSlotCheckpoints(connection, preparedStatement, queueCheckpoints.getKey(),
+                            queueCheckpoints.getValue());
+                } catch (AndesException e) {
+                    logger.error("Error occurred while adding slot checkpoints of queue "
+                            + queueCheckpoints.getKey(), e);
+                    queueError = e;
+                }
+            }
+        } catch (SQLException e) {
+            throw rdbmsStoreUtils.convertSQLException("Error occurred while "
+                    + RDBMSConstants.TASK_ADD_SLOT_CHECKPOINTS, e);
+        } finally {
+            contextWrite.stop();
+            close(preparedStatement, RDBMSConstants.TASK_ADD_SLOT_CHECKPOINTS);
+            close(connection, RDBMSConstants.TASK_ADD_SLOT_CHECKPOINTS);
+        }
+
+        if (null != queueError) {
+            throw queueError;
+        }
+    }
+
+    /**
+     * Add slot checkpoints of a queue in one transaction. If that fails, for instance because a slot was submitted
+     * again with the same last message id, checkpoints are added one by one skipping existing ones.
+     *
+     * @param connection        connection to the store
+     * @param preparedStatement statement inserting a checkpoint
+     * @param queueName         name of the storage queue
+     * @param endMessageIds     last message ids of the slots of the queue
+     * @throws AndesException if the checkpoints could not be added
+     */
+    private void addSlotCheckpoints(Connection connection, PreparedStatement preparedStatement, String queueName,
+                                    LongArrayList endMessageIds) throws AndesException {
+        String task = RDBMSConstants.TASK_ADD_SLOT_CHECKPOINTS + " queue name: " + queueName;
+        try {
+            for (int i = 0; i < endMessageIds.size(); i++) {
+                preparedStatement.setString(1, queueName);
+                preparedStatement.setLong(2, endMessageIds.get(i));
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            connection.commit();
+            return;
+        } catch (SQLException e) {
+            // Drivers do not report a duplicate key within a batch consistently, hence the cause is found by
+            // adding the checkpoints one by one
+            rollback(connection, task);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Error occurred while " + task + ". Adding checkpoints one by one.", e);
+            }
+        }
+
+        for (int i = 0; i < endMessageIds.size(); i++) {
+            try {
+                preparedStatement.clearBatch();
+                preparedStatement.setString(1, queueName);
+                preparedStatement.setLong(2, endMessageIds.get(i));
+                preparedStatement.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                rollback(connection, task);
+                AndesException andesException =
+                        rdbmsStoreUtils.convertSQLException("Error occurred while " + task, e);
+                if (!(andesException instanceof AndesDataIntegrityViolationException)) {
+                    throw andesException;
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Slot checkpoint " + endMessageIds.get(i) + " of queue " + queueName
+                            + " already exists");
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LongArrayList getSlotCheckpoints(String queueName) throws AndesException {
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_SELECT_SLOT_CHECKPOINTS);
+            preparedStatement.setString(1, queueName);
+            resultSet = preparedStatement.executeQuery();
+
+            LongArrayList endMessageIds = new LongArrayList();
+            while (resultSet.next()) {
+                endMessageIds.add(resultSet.getLong(RDBMSConstants.END_MESSAGE_ID));
+            }
+            return endMessageIds;
+        } catch (SQLException e) {
+            throw rdbmsStoreUtils.convertSQLException("Error occurred while "
+                    + RDBMSConstants.TASK_GET_SLOT_CHECKPOINTS + " of queue " + queueName, e);
+        } finally {
+            contextRead.stop();
+            close(resultSet, RDBMSConstants.TASK_GET_SLOT_CHECKPOINTS);
+            close(preparedStatement, RDBMSConstants.TASK_GET_SLOT_CHECKPOINTS);
+            close(connection, RDBMSConstants.TASK_GET_SLOT_CHECKPOINTS);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteSlotCheckpoints(String queueName, long messageId) throws AndesException {
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_SLOT_CHECKPOINTS);
+            preparedStatement.setString(1, queueName);
+            preparedStatement.setLong(2, messageId);
+            preparedStatement.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_DELETE_SLOT_CHECKPOINTS);
+            throw rdbmsStoreUtils.convertSQLException("Error occurred while "
+                    + RDBMSConstants.TASK_DELETE_SLOT_CHECKPOINTS + " of queue " + queueName, e);
+        } finally {
+            contextWrite.stop();
+            close(preparedStatement, RDBMSConstants.TASK_DELETE_SLOT_CHECKPOINTS);
+            close(connection, RDBMSConstants.TASK_DELETE_SLOT_CHECKPOINTS);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
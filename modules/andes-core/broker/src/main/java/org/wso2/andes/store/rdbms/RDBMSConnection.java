@@ -23,22 +23,51 @@ import org.apache.log4j.Logger;
 import org.wso2.andes.configuration.util.ConfigurationProperties;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.DurableStoreConnection;
+import org.wso2.andes.metrics.MetricsConstants;
+import org.wso2.andes.store.DedicatedConnectionThreadFactory;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+import org.wso2.carbon.metrics.manager.Timer.Context;
 
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JDBC connection class. Connection is made using the jndi lookup name provided and connection
- * pooled data source is used to create new connections
+ * pooled data source is used to create new connections.
+ * <p>
+ * Threads created by a {@link DedicatedConnectionThreadFactory} keep a connection of their own across calls, which
+ * caches prepared statements of the fixed queries. Other threads take a connection from the pool for each call.
  */
 public class RDBMSConnection extends DurableStoreConnection {
 
     private static final Logger logger = Logger.getLogger(RDBMSConnection.class);
     private DataSource datasource;
 
+    /**
+     * Connection lane of the current thread
+     */
+    private final ThreadLocal<ConnectionLane> connectionLane = new ThreadLocal<>();
+
+    /**
+     * All connection lanes created, to be closed with the store
+     */
+    private final Set<ConnectionLane> connectionLanes =
+            Collections.newSetFromMap(new ConcurrentHashMap<ConnectionLane, Boolean>());
+
+    /**
+     * Maximum number of connections kept by threads. Rest of the pool is left for other threads.
+     */
+    private int maxConnectionLanes = Integer.MAX_VALUE;
+
+    private volatile boolean closed;
+
     @Override
     public void initialize(ConfigurationProperties connectionProperties) throws AndesException {
         
@@ -58,6 +87,8 @@ public class RDBMSConnection extends DurableStoreConnection {
                 if (StringUtils.isNotBlank(tcDataSource.getUsername())) {
                     dataSourceUserName = tcDataSource.getUsername();
                 }
+                // Message store and context store may share the pool
+                maxConnectionLanes = tcDataSource.getMaxActive() / 4;
             }
 
             connection = datasource.getConnection();
@@ -86,9 +117,70 @@ public class RDBMSConnection extends DurableStoreConnection {
         return datasource;
     }
 
+    /**
+     * Get a connection for a store call. Threads created by a {@link DedicatedConnectionThreadFactory} get their own
+     * connection, unless they already hold it, while other threads get a connection from the pool. The connection
+     * must be closed after use as usual.
+     *
+     * @return Connection
+     * @throws SQLException if a connection could not be taken from the pool
+     */
+    public Connection acquireConnection() throws SQLException {
+        if (DedicatedConnectionThreadFactory.isDedicatedConnectionThread()) {
+            ConnectionLane lane = getConnectionLane();
+            if (null != lane) {
+                Connection connection = lane.acquire();
+                if (null != connection) {
+                    return connection;
+                }
+            }
+        }
+        return borrowConnection();
+    }
+
+    /**
+     * Take a connection from the pool
+     *
+     * @return Connection
+     * @throws SQLException if a connection could not be taken from the pool
+     */
+    Connection borrowConnection() throws SQLException {
+        Context connectionWaitContext = MetricManager.timer(Level.INFO, MetricsConstants.DB_CONNECTION_WAIT).start();
+        try {
+            return datasource.getConnection();
+        } finally {
+            connectionWaitContext.stop();
+        }
+    }
+
+    /**
+     * Get the connection lane of the current thread, creating one if the lane limit is not reached
+     *
+     * @return connection lane or null if the thread can not have a lane
+     */
+    private ConnectionLane getConnectionLane() {
+        ConnectionLane lane = connectionLane.get();
+        if (null == lane && !closed && connectionLanes.size() < maxConnectionLanes) {
+            lane = new ConnectionLane(this);
+            connectionLanes.add(lane);
+            connectionLane.set(lane);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Dedicated database connection created for " + Thread.currentThread().getName());
+            }
+        }
+        return lane;
+    }
+
+    /**
+     * Close connections kept by threads. Connections in use are closed when they are released.
+     */
     @Override
     public void close() {
-        // nothing to do.
+        closed = true;
+        for (ConnectionLane lane : connectionLanes) {
+            lane.close();
+        }
+        connectionLanes.clear();
     }
 
     @Override
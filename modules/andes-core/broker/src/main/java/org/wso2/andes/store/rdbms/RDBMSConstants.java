@@ -89,9 +89,22 @@ public class RDBMSConstants {
     protected static final String RETAINED_METADATA_TABLE = "MB_RETAINED_METADATA";
     protected static final String RETAINED_CONTENT_TABLE = "MB_RETAINED_CONTENT";
 
+    /**
+     * Content stored once for all the storage queues a topic message is routed to. Keyed by the id of the original
+     * message, with the same columns as {@link #CONTENT_TABLE} but without a foreign key to the metadata table.
+     */
+    protected static final String SHARED_CONTENT_TABLE = "MB_SHARED_CONTENT";
+
+    /**
+     * Maps the id of each copy of a topic message to the id its content is stored under in
+     * {@link #SHARED_CONTENT_TABLE}. {@link #MESSAGE_ID} references the metadata table with delete cascade.
+     */
+    protected static final String SHARED_CONTENT_REF_TABLE = "MB_SHARED_CONTENT_REF";
+
 
     // Message Store table columns
     protected static final String MESSAGE_ID = "MESSAGE_ID";
+    protected static final String CONTENT_ID = "CONTENT_ID";
     protected static final String QUEUE_ID = "QUEUE_ID";
     protected static final String DLC_QUEUE_ID = "DLC_QUEUE_ID";
     protected static final String QUEUE_NAME = "QUEUE_NAME";
@@ -113,7 +126,12 @@ public class RDBMSConstants {
     // Slot related tables
     protected static final String SLOT_TABLE = "MB_SLOT";
     protected static final String SLOT_MESSAGE_ID_TABLE = "MB_SLOT_MESSAGE_ID";
+    protected static final String SLOT_MESSAGE_ID_RANGE_TABLE = "MB_SLOT_MESSAGE_ID_RANGE";
     protected static final String QUEUE_TO_LAST_ASSIGNED_ID = "MB_QUEUE_TO_LAST_ASSIGNED_ID";
+    protected static final String SLOT_CHECKPOINT_TABLE = "MB_SLOT_CHECKPOINT";
+    // Context change tables
+    protected static final String CONTEXT_VERSION_TABLE = "MB_CONTEXT_VERSION";
+    protected static final String CONTEXT_CHANGE_TABLE = "MB_CONTEXT_CHANGE";
     // Coordination related tables
     protected static final String CLUSTER_COORDINATOR_HEARTBEAT_TABLE = "MB_CLUSTER_COORDINATOR_HEARTBEAT";
     protected static final String CLUSTER_NODE_HEARTBEAT_TABLE = "MB_CLUSTER_NODE_HEARTBEAT";
@@ -147,6 +165,15 @@ public class RDBMSConstants {
     protected static final String THRIFT_HOST = "THRIFT_HOST";
     protected static final String THRIFT_PORT = "THRIFT_PORT";
 
+    //Context change table columns
+    protected static final String CONTEXT_VERSION = "CONTEXT_VERSION";
+    protected static final String CHANGE_VERSION = "CHANGE_VERSION";
+    protected static final String ENTITY_TYPE = "ENTITY_TYPE";
+    protected static final String CONTEXT_CHANGE_TYPE = "CHANGE_TYPE";
+    protected static final String ENTITY_NAME = "ENTITY_NAME";
+    protected static final String ENTITY_QUEUE_NAME = "QUEUE_NAME";
+    protected static final String ENTITY_DATA = "ENTITY_DATA";
+
     //Slot table columns
     protected static final String SLOT_ID = "SLOT_ID";
     protected static final String START_MESSAGE_ID = "START_MESSAGE_ID";
@@ -156,8 +183,12 @@ public class RDBMSConstants {
     protected static final String ASSIGNED_NODE_ID = "ASSIGNED_NODE_ID";
     protected static final String ASSIGNED_QUEUE_NAME = "ASSIGNED_QUEUE_NAME";
 
+    //Slot message id table columns
+    protected static final String MESSAGE_ID_RANGES = "MESSAGE_ID_RANGES";
+
     // Constants
     protected static final int COORDINATOR_ANCHOR = 1;
+    protected static final int CONTEXT_VERSION_ANCHOR = 1;
 
     //columns for cluster membership communication
     protected static final String MEMBERSHIP_CHANGE_TYPE = "CHANGE_TYPE";
@@ -182,6 +213,40 @@ public class RDBMSConstants {
             + " WHERE " + MESSAGE_ID + "=?"
             + " AND " + MSG_OFFSET + "=?";
 
+    /**
+     * Prepared statement to retrieve a message part stored either for the message itself or shared with other
+     * copies of the same topic message
+     */
+    protected static final String PS_RETRIEVE_MESSAGE_PART_WITH_SHARED =
+            PS_RETRIEVE_MESSAGE_PART
+            + " UNION ALL"
+            + " SELECT " + SHARED_CONTENT_TABLE + "." + MESSAGE_CONTENT
+            + " FROM " + SHARED_CONTENT_REF_TABLE + " INNER JOIN " + SHARED_CONTENT_TABLE
+            + " ON " + SHARED_CONTENT_REF_TABLE + "." + CONTENT_ID + "=" + SHARED_CONTENT_TABLE + "." + MESSAGE_ID
+            + " WHERE " + SHARED_CONTENT_REF_TABLE + "." + MESSAGE_ID + "=?"
+            + " AND " + SHARED_CONTENT_TABLE + "." + MSG_OFFSET + "=?";
+
+    protected static final String PS_INSERT_SHARED_MESSAGE_PART =
+            "INSERT INTO " + SHARED_CONTENT_TABLE + "("
+            + MESSAGE_ID + ","
+            + MSG_OFFSET + ","
+            + MESSAGE_CONTENT + ") VALUES (?, ?, ?)";
+
+    protected static final String PS_INSERT_SHARED_CONTENT_REF =
+            "INSERT INTO " + SHARED_CONTENT_REF_TABLE + "("
+            + MESSAGE_ID + ","
+            + CONTENT_ID + ") VALUES (?, ?)";
+
+    /**
+     * Prepared statement to delete shared content no longer referred by any copy of the message. References are
+     * removed along with the metadata of each copy.
+     */
+    protected static final String PS_DELETE_UNREFERENCED_SHARED_CONTENT =
+            "DELETE FROM " + SHARED_CONTENT_TABLE
+            + " WHERE NOT EXISTS (SELECT 1 FROM " + SHARED_CONTENT_REF_TABLE
+            + " WHERE " + SHARED_CONTENT_REF_TABLE + "." + CONTENT_ID + "=" + SHARED_CONTENT_TABLE + "." + MESSAGE_ID
+            + ")";
+
     /**
      * We need to select rows that have the DLC_QUEUE_ID = -1 indicating that the message is not moved
      * into the dead letter channel
@@ -564,6 +629,9 @@ public class RDBMSConstants {
     protected static final String PS_CLEAR_SLOT_MESSAGE_ID_TABLE =
             "DELETE FROM " + SLOT_MESSAGE_ID_TABLE;
 
+    protected static final String PS_CLEAR_SLOT_MESSAGE_ID_RANGE_TABLE =
+            "DELETE FROM " + SLOT_MESSAGE_ID_RANGE_TABLE;
+
     protected static final String PS_CLEAR_QUEUE_TO_LAST_ASSIGNED_ID =
             "DELETE FROM " + QUEUE_TO_LAST_ASSIGNED_ID;
 
@@ -757,6 +825,23 @@ public class RDBMSConstants {
             + MESSAGE_ID + ")"
             + " VALUES (?,?)";
 
+    /**
+     * Prepared statement to insert slot message ids of a queue as one encoded value
+     */
+    protected static final String PS_INSERT_SLOT_MESSAGE_ID_RANGES =
+            "INSERT INTO " + SLOT_MESSAGE_ID_RANGE_TABLE
+            + "(" + QUEUE_NAME + ","
+            + MESSAGE_ID_RANGES + ")"
+            + " VALUES (?,?)";
+
+    /**
+     * Prepared statement to update slot message ids of a queue stored as one encoded value
+     */
+    protected static final String PS_UPDATE_SLOT_MESSAGE_ID_RANGES =
+            "UPDATE " + SLOT_MESSAGE_ID_RANGE_TABLE
+            + " SET " + MESSAGE_ID_RANGES + "=?"
+            + " WHERE " + QUEUE_NAME + "=?";
+
     /**
      * Prepared statement to insert coordinator row
      */
@@ -852,12 +937,28 @@ public class RDBMSConstants {
             + " WHERE " + QUEUE_NAME + "=?"
             + " ORDER BY " + MESSAGE_ID;
 
+    /**
+     * Prepared statement to get all slot message ids. Used to move them to the slot message id range table.
+     */
+    protected static final String PS_GET_ALL_MESSAGE_IDS =
+            "SELECT " + QUEUE_NAME + "," + MESSAGE_ID
+            + " FROM " + SLOT_MESSAGE_ID_TABLE;
+
+    /**
+     * Prepared statement to get slot message ids of a queue stored as one encoded value
+     */
+    protected static final String PS_GET_MESSAGE_ID_RANGES =
+            "SELECT " + MESSAGE_ID_RANGES
+            + " FROM " + SLOT_MESSAGE_ID_RANGE_TABLE
+            + " WHERE " + QUEUE_NAME + "=?";
+
     /**
      * Prepared statement to delete slot message ids
      */
     protected static final String PS_DELETE_MESSAGE_ID =
             "DELETE FROM " + SLOT_MESSAGE_ID_TABLE
-            + " WHERE " + MESSAGE_ID + "=?";
+            + " WHERE " + QUEUE_NAME + "=?"
+            + " AND " + MESSAGE_ID + "=?";
 
     /**
      * Prepared statement to delete message ids by queue name
@@ -866,6 +967,13 @@ public class RDBMSConstants {
             "DELETE FROM " + SLOT_MESSAGE_ID_TABLE
             + " WHERE " + QUEUE_NAME + "=?";
 
+    /**
+     * Prepared statement to delete message ids stored as one encoded value by queue name
+     */
+    protected static final String PS_DELETE_MESSAGE_ID_RANGES_BY_QUEUE_NAME =
+            "DELETE FROM " + SLOT_MESSAGE_ID_RANGE_TABLE
+            + " WHERE " + QUEUE_NAME + "=?";
+
     /**
      * Prepared statement to get all queues
      */
@@ -880,6 +988,95 @@ public class RDBMSConstants {
             "SELECT DISTINCT " + QUEUE_NAME
             + " FROM " + SLOT_MESSAGE_ID_TABLE;
 
+    /**
+     * Prepared statement to get all queues in submitted slots when message ids are stored as one encoded value
+     */
+    protected static final String PS_GET_ALL_QUEUES_IN_SUBMITTED_SLOT_RANGES =
+            "SELECT " + QUEUE_NAME
+            + " FROM " + SLOT_MESSAGE_ID_RANGE_TABLE;
+
+    /**
+     * Prepared statement to insert a slot checkpoint
+     */
+    protected static final String PS_INSERT_SLOT_CHECKPOINT =
+            "INSERT INTO " + SLOT_CHECKPOINT_TABLE + " ("
+            + QUEUE_NAME + ","
+            + END_MESSAGE_ID + ")"
+            + " VALUES (?,?)";
+
+    /**
+     * Prepared statement to get slot checkpoints of a queue
+     */
+    protected static final String PS_SELECT_SLOT_CHECKPOINTS =
+            "SELECT " + END_MESSAGE_ID
+            + " FROM " + SLOT_CHECKPOINT_TABLE
+            + " WHERE " + QUEUE_NAME + "=?"
+            + " ORDER BY " + END_MESSAGE_ID;
+
+    /**
+     * Prepared statement to delete slot checkpoints of a queue lower than a message id
+     */
+    protected static final String PS_DELETE_SLOT_CHECKPOINTS =
+            "DELETE FROM " + SLOT_CHECKPOINT_TABLE
+            + " WHERE " + QUEUE_NAME + "=?"
+            + " AND " + END_MESSAGE_ID + "<?";
+
+    /**
+     * Prepared statement to insert the context version row
+     */
+    protected static final String PS_INSERT_CONTEXT_VERSION =
+            "INSERT INTO " + CONTEXT_VERSION_TABLE + " ("
+            + ANCHOR + ","
+            + CONTEXT_VERSION + ")"
+            + " VALUES (?,?)";
+
+    /**
+     * Prepared statement to increment the context version. The row stays locked until the transaction ends, hence
+     * changes are committed in the order of their versions.
+     */
+    protected static final String PS_INCREMENT_CONTEXT_VERSION =
+            "UPDATE " + CONTEXT_VERSION_TABLE
+            + " SET " + CONTEXT_VERSION + "=" + CONTEXT_VERSION + "+?"
+            + " WHERE " + ANCHOR + "=?";
+
+    /**
+     * Prepared statement to get the context version
+     */
+    protected static final String PS_SELECT_CONTEXT_VERSION =
+            "SELECT " + CONTEXT_VERSION
+            + " FROM " + CONTEXT_VERSION_TABLE
+            + " WHERE " + ANCHOR + "=?";
+
+    /**
+     * Prepared statement to insert a context change
+     */
+    protected static final String PS_INSERT_CONTEXT_CHANGE =
+            "INSERT INTO " + CONTEXT_CHANGE_TABLE + " ("
+            + CHANGE_VERSION + ","
+            + ENTITY_TYPE + ","
+            + CONTEXT_CHANGE_TYPE + ","
+            + ENTITY_NAME + ","
+            + ENTITY_QUEUE_NAME + ","
+            + ENTITY_DATA + ")"
+            + " VALUES (?,?,?,?,?,?)";
+
+    /**
+     * Prepared statement to get context changes after a version
+     */
+    protected static final String PS_SELECT_CONTEXT_CHANGES =
+            "SELECT " + CHANGE_VERSION + "," + ENTITY_TYPE + "," + CONTEXT_CHANGE_TYPE + ","
+            + ENTITY_NAME + "," + ENTITY_QUEUE_NAME + "," + ENTITY_DATA
+            + " FROM " + CONTEXT_CHANGE_TABLE
+            + " WHERE " + CHANGE_VERSION + ">?"
+            + " ORDER BY " + CHANGE_VERSION;
+
+    /**
+     * Prepared statement to delete context changes up to a version
+     */
+    protected static final String PS_DELETE_CONTEXT_CHANGES =
+            "DELETE FROM " + CONTEXT_CHANGE_TABLE
+            + " WHERE " + CHANGE_VERSION + "<=?";
+
     /**
      * Prepared Statement to test deletes are working for message store
      */
@@ -1024,6 +1221,7 @@ public class RDBMSConstants {
     protected static final String TASK_STORING_MESSAGE_PARTS = "storing message parts.";
     protected static final String TASK_DELETING_MESSAGE_PARTS = "deleting message parts.";
     protected static final String TASK_RETRIEVING_MESSAGE_PARTS = "retrieving message parts.";
+    protected static final String TASK_DELETING_SHARED_CONTENT = "deleting unreferenced shared content.";
     protected static final String TASK_RETRIEVING_CONTENT_FOR_MESSAGES = "retrieving content for multiple messages";
     protected static final String TASK_ADDING_METADATA_LIST = "adding metadata list.";
     protected static final String TASK_ADDING_METADATA = "adding metadata.";
@@ -1042,6 +1240,8 @@ public class RDBMSConstants {
     protected static final String TASK_RETRIEVING_METADATA = "retrieving metadata for message id. ";
     protected static final String TASK_RETRIEVING_METADATA_RANGE_FROM_QUEUE = "retrieving metadata within a range "
                                                                               + "from queue. ";
+    protected static final String TASK_RETRIEVING_METADATA_RANGES_OF_SLOTS = "retrieving metadata of several "
+                                                                             + "slots. ";
     protected static final String TASK_RETRIEVING_METADATA_RANGE_IN_DLC_FROM_QUEUE = "retrieving metadata in dlc "
                                                                                      + "within a range from queue. ";
     protected static final String TASK_RETRIEVING_METADATA_RANGE_IN_DLC = "retrieving metadata in dlc within a range. ";
@@ -1119,12 +1319,21 @@ public class RDBMSConstants {
     protected static final String TASK_ADD_MESSAGE_ID = "adding message id";
     protected static final String TASK_DELETE_MESSAGE_ID = "deleting message ids";
     protected static final String TASK_GET_MESSAGE_IDS = "getting message ids";
+    protected static final String TASK_MIGRATE_MESSAGE_IDS = "moving slot message ids to the range table";
     protected static final String TASK_GET_ASSIGNED_SLOTS_BY_NODE_ID = "getting assigned slots by node id";
     protected static final String TASK_GET_ALL_SLOTS_BY_QUEUE_NAME = "getting all slots by queue name";
     protected static final String TASK_GET_OVERLAPPED_SLOT = "getting overlapped slot";
     protected static final String TASK_GET_ALL_QUEUES = "getting all queues";
     protected static final String TASK_GET_ALL_QUEUES_IN_SUBMITTED_SLOTS = "getting all queues in submitted slots";
     protected static final String TASK_CLEAR_SLOT_TABLES = "clearing slot tables";
+    protected static final String TASK_ADD_SLOT_CHECKPOINTS = "adding slot checkpoints";
+    protected static final String TASK_GET_SLOT_CHECKPOINTS = "getting slot checkpoints";
+    protected static final String TASK_DELETE_SLOT_CHECKPOINTS = "deleting slot checkpoints";
+    protected static final String TASK_INIT_CONTEXT_VERSION = "initializing context version";
+    protected static final String TASK_GET_CONTEXT_VERSION = "getting context version";
+    protected static final String TASK_GET_CONTEXT_CHANGES = "getting context changes";
+    protected static final String TASK_INCREMENT_CONTEXT_VERSION = "incrementing context version";
+    protected static final String TASK_INSERT_CONTEXT_CHANGE = "inserting context change";
     protected static final String TASK_ADD_COORDINATOR_ROW = "adding coordinator row";
     protected static final String TASK_GET_COORDINATOR_INFORMATION = "reading coordinator information";
     protected static final String TASK_CHECK_COORDINATOR_VALIDITY = "checking coordinator validity";
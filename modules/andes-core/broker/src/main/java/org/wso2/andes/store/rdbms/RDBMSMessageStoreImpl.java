@@ -22,9 +22,12 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
 import com.gs.collections.impl.map.mutable.primitive.LongObjectHashMap;
 import org.apache.log4j.Logger;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.configuration.util.ConfigurationProperties;
 import org.wso2.andes.kernel.AndesContextStore;
 import org.wso2.andes.kernel.AndesException;
@@ -55,14 +58,24 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import static org.wso2.andes.store.rdbms.RDBMSConstants.CONTENT_ID;
 import static org.wso2.andes.store.rdbms.RDBMSConstants.CONTENT_TABLE;
+import static org.wso2.andes.store.rdbms.RDBMSConstants.DLC_QUEUE_ID;
 import static org.wso2.andes.store.rdbms.RDBMSConstants.MESSAGE_CONTENT;
 import static org.wso2.andes.store.rdbms.RDBMSConstants.MESSAGE_ID;
+import static org.wso2.andes.store.rdbms.RDBMSConstants.METADATA;
+import static org.wso2.andes.store.rdbms.RDBMSConstants.METADATA_TABLE;
 import static org.wso2.andes.store.rdbms.RDBMSConstants.MSG_OFFSET;
 import static org.wso2.andes.store.rdbms.RDBMSConstants.PS_INSERT_EXPIRY_DATA;
 import static org.wso2.andes.store.rdbms.RDBMSConstants.PS_INSERT_MESSAGE_PART;
 import static org.wso2.andes.store.rdbms.RDBMSConstants.PS_INSERT_METADATA;
+import static org.wso2.andes.store.rdbms.RDBMSConstants.QUEUE_ID;
+import static org.wso2.andes.store.rdbms.RDBMSConstants.SHARED_CONTENT_REF_TABLE;
+import static org.wso2.andes.store.rdbms.RDBMSConstants.SHARED_CONTENT_TABLE;
 import static org.wso2.andes.store.rdbms.RDBMSConstants.TASK_RETRIEVING_CONTENT_FOR_MESSAGES;
 
 /**
@@ -91,19 +104,71 @@ public class RDBMSMessageStoreImpl implements MessageStore {
 
     /**
      * Partially created prepared statement to retrieve content of multiple messages using IN operator
-     * this will be completed on the fly when the request comes
+     * this will be completed with {@link #CONTENT_READ_CHUNK_SIZE} parameters
      */
     private static final String PS_SELECT_CONTENT_PART =
             "SELECT " + MESSAGE_CONTENT + ", " + MESSAGE_ID + ", " + MSG_OFFSET +
                     " FROM " + CONTENT_TABLE +
                     " WHERE " + MESSAGE_ID + " IN (";
 
+    /**
+     * Number of message ids read with a single content query. Content of a larger list of messages is read in chunks
+     * of this size, so that the SQL text stays the same and the prepared statement can be reused by the driver and
+     * the database
+     */
+    private static final int CONTENT_READ_CHUNK_SIZE = 32;
+
+    /**
+     * Prepared statement to retrieve content of {@link #CONTENT_READ_CHUNK_SIZE} messages
+     */
+    private static final String PS_SELECT_CONTENT_CHUNK = getSelectContentPreparedStmt(CONTENT_READ_CHUNK_SIZE);
+
+    /**
+     * Prepared statement to retrieve content of {@link #CONTENT_READ_CHUNK_SIZE} messages, including content shared
+     * between copies of a topic message. Message ids are set twice, once for each part of the union.
+     */
+    private static final String PS_SELECT_CONTENT_CHUNK_WITH_SHARED = PS_SELECT_CONTENT_CHUNK
+            + " UNION ALL"
+            + " SELECT " + SHARED_CONTENT_TABLE + "." + MESSAGE_CONTENT + ", "
+            + SHARED_CONTENT_REF_TABLE + "." + MESSAGE_ID + ", " + SHARED_CONTENT_TABLE + "." + MSG_OFFSET
+            + " FROM " + SHARED_CONTENT_REF_TABLE + " INNER JOIN " + SHARED_CONTENT_TABLE
+            + " ON " + SHARED_CONTENT_REF_TABLE + "." + CONTENT_ID + "=" + SHARED_CONTENT_TABLE + "." + MESSAGE_ID
+            + " WHERE " + SHARED_CONTENT_REF_TABLE + "." + MESSAGE_ID + " IN ("
+            + getParameterList(CONTENT_READ_CHUNK_SIZE);
+
+    /**
+     * Delay between two runs removing shared content no longer referred by any message
+     */
+    private static final long SHARED_CONTENT_CLEANUP_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Partial prepared statement to read metadata of several slots. One
+     * {@link #PS_SELECT_METADATA_RANGES_CONDITION} is appended per slot
+     */
+    private static final String PS_SELECT_METADATA_RANGES_FROM_QUEUES =
+            "SELECT " + QUEUE_ID + "," + MESSAGE_ID + "," + METADATA +
+                    " FROM " + METADATA_TABLE +
+                    " WHERE " + DLC_QUEUE_ID + "=-1 AND (";
+
+    private static final String PS_SELECT_METADATA_RANGES_CONDITION =
+            "(" + QUEUE_ID + "=? AND " + MESSAGE_ID + " BETWEEN ? AND ?)";
+
     /**
      * The cache which holds the queue mappings(queue name to queue id) in memory
      * In the absence of a queried queue name in the cache, the queue id is loaded from the database
      */
     private LoadingCache<String, Integer> queueMappings;
 
+    /**
+     * Whether content of a topic message routed to several storage queues is stored once for all its copies
+     */
+    private boolean sharedContentEnabled;
+
+    /**
+     * Periodically removes shared content no longer referred by any message, off the message delete path
+     */
+    private ScheduledExecutorService sharedContentCleanupExecutor;
+
     /**
      * {@inheritDoc}
      */
@@ -119,6 +184,21 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         this.messageCache = (new MessageCacheFactory()).create();
         initializeQueueMappingCache();
 
+        sharedContentEnabled = AndesConfigurationManager.readValue(
+                AndesConfiguration.PERFORMANCE_TUNING_TOPIC_SHARED_CONTENT_ENABLED);
+        if (sharedContentEnabled) {
+            // Content whose last reference was removed before the previous shutdown is left behind
+            deleteUnreferencedSharedContent();
+            sharedContentCleanupExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("SharedContentCleanup-%d").setDaemon(true).build());
+            sharedContentCleanupExecutor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    deleteUnreferencedSharedContent();
+                }
+            }, SHARED_CONTENT_CLEANUP_INTERVAL, SHARED_CONTENT_CLEANUP_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+
         log.info("Message Store initialised");
         return rdbmsConnection;
     }
@@ -246,7 +326,13 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
         try {
             connection = getConnection();
-            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_RETRIEVE_MESSAGE_PART);
+            if (sharedContentEnabled) {
+                preparedStatement = connection.prepareStatement(RDBMSConstants.PS_RETRIEVE_MESSAGE_PART_WITH_SHARED);
+                preparedStatement.setLong(3, messageId);
+                preparedStatement.setInt(4, offsetValue);
+            } else {
+                preparedStatement = connection.prepareStatement(RDBMSConstants.PS_RETRIEVE_MESSAGE_PART);
+            }
             preparedStatement.setLong(1, messageId);
             preparedStatement.setInt(2, offsetValue);
             results = preparedStatement.executeQuery();
@@ -293,7 +379,9 @@ public class RDBMSMessageStoreImpl implements MessageStore {
     }
 
     /**
-     * Utility method to retrieve content given the list of messages Ids.
+     * Utility method to retrieve content given the list of messages Ids. Ids are read in chunks of
+     * {@link #CONTENT_READ_CHUNK_SIZE} using the same prepared statement. The last chunk is padded by repeating its
+     * last id. Content shared between copies of a topic message is read with the same query when enabled.
      *
      * @param messageIDList message ids
      * @param contentList   this list will be filled with content retrieved from database
@@ -305,25 +393,40 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         PreparedStatement preparedStatement = null;
         ResultSet resultSet = null;
         Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+        MetricManager.histogram(Level.INFO, MetricsConstants.STORE_CONTENT_BATCH_SIZE).update(messageIDList.size());
 
         try {
             connection = getConnection();
-            preparedStatement = connection.prepareStatement(getSelectContentPreparedStmt(messageIDList.size()));
-            for (int mesageIDCounter = 0; mesageIDCounter < messageIDList.size(); mesageIDCounter++) {
-                preparedStatement.setLong(mesageIDCounter + 1, messageIDList.get(mesageIDCounter));
+            if (sharedContentEnabled) {
+                preparedStatement = connection.prepareStatement(PS_SELECT_CONTENT_CHUNK_WITH_SHARED);
+            } else {
+                preparedStatement = connection.prepareStatement(PS_SELECT_CONTENT_CHUNK);
             }
 
-            resultSet = preparedStatement.executeQuery();
-            while (resultSet.next()) {
-                long messageID = resultSet.getLong(MESSAGE_ID);
-                int offset = resultSet.getInt(MSG_OFFSET);
-                List<AndesMessagePart> partList = contentList.get(messageID);
-                if (null == partList) {
-                    partList = new ArrayList<>();
-                    contentList.put(messageID, partList);
+            for (int chunkStart = 0; chunkStart < messageIDList.size(); chunkStart += CONTENT_READ_CHUNK_SIZE) {
+                int chunkEnd = Math.min(chunkStart + CONTENT_READ_CHUNK_SIZE, messageIDList.size());
+                for (int parameterIndex = 0; parameterIndex < CONTENT_READ_CHUNK_SIZE; parameterIndex++) {
+                    int messageIndex = Math.min(chunkStart + parameterIndex, chunkEnd - 1);
+                    preparedStatement.setLong(parameterIndex + 1, messageIDList.get(messageIndex));
+                    if (sharedContentEnabled) {
+                        preparedStatement.setLong(CONTENT_READ_CHUNK_SIZE + parameterIndex + 1,
+                                messageIDList.get(messageIndex));
+                    }
+                }
+
+                resultSet = preparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    long messageID = resultSet.getLong(MESSAGE_ID);
+                    int offset = resultSet.getInt(MSG_OFFSET);
+                    List<AndesMessagePart> partList = contentList.get(messageID);
+                    if (null == partList) {
+                        partList = new ArrayList<>();
+                        contentList.put(messageID, partList);
+                    }
+                    AndesMessagePart msgPart = createMessagePart(resultSet, messageID, offset);
+                    partList.add(msgPart);
                 }
-                AndesMessagePart msgPart = createMessagePart(resultSet, messageID, offset);
-                partList.add(msgPart);
+                resultSet.close();
             }
 
         } catch (SQLException e) {
@@ -353,10 +456,20 @@ public class RDBMSMessageStoreImpl implements MessageStore {
      *                     CONDITION: messageCount > 0
      * @return Prepared Statement
      */
-    private String getSelectContentPreparedStmt(int messageCount) {
+    private static String getSelectContentPreparedStmt(int messageCount) {
+        return PS_SELECT_CONTENT_PART + getParameterList(messageCount);
+    }
 
-        StringBuilder stmtBuilder = new StringBuilder(PS_SELECT_CONTENT_PART);
-        for (int i = 0; i < messageCount - 1; i++) {
+    /**
+     * Create the given number of comma separated ? values closed with a parenthesis
+     *
+     * @param parameterCount number of parameters. CONDITION: parameterCount > 0
+     * @return parameter list
+     */
+    private static String getParameterList(int parameterCount) {
+
+        StringBuilder stmtBuilder = new StringBuilder();
+        for (int i = 0; i < parameterCount - 1; i++) {
             stmtBuilder.append("?,");
         }
 
@@ -373,6 +486,8 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         PreparedStatement storeMetadataPS = null;
         PreparedStatement storeContentPS = null;
         PreparedStatement storeExpiryMetadataPS = null;
+        PreparedStatement storeSharedContentPS = null;
+        PreparedStatement storeSharedContentRefPS = null;
 
         try {
 
@@ -380,6 +495,10 @@ public class RDBMSMessageStoreImpl implements MessageStore {
             storeMetadataPS = connection.prepareStatement(PS_INSERT_METADATA);
             storeContentPS = connection.prepareStatement(PS_INSERT_MESSAGE_PART);
             storeExpiryMetadataPS = connection.prepareStatement(PS_INSERT_EXPIRY_DATA);
+            if (sharedContentEnabled) {
+                storeSharedContentPS = connection.prepareStatement(RDBMSConstants.PS_INSERT_SHARED_MESSAGE_PART);
+                storeSharedContentRefPS = connection.prepareStatement(RDBMSConstants.PS_INSERT_SHARED_CONTENT_REF);
+            }
 
             for (AndesMessage message : messageList) {
 
@@ -389,14 +508,23 @@ public class RDBMSMessageStoreImpl implements MessageStore {
                     addExpiryTableEntryToBatch(storeExpiryMetadataPS, message.getMetadata());
                 }
 
-                for (AndesMessagePart messagePart : message.getContentChunkList()) {
-                    addContentToBatch(storeContentPS, messagePart);
+                if (sharedContentEnabled && message.isContentShared()) {
+                    addSharedContentToBatch(storeSharedContentPS, storeSharedContentRefPS, message);
+                } else {
+                    for (AndesMessagePart messagePart : message.getContentChunkList()) {
+                        addContentToBatch(storeContentPS, messagePart);
+                    }
                 }
             }
 
             storeMetadataPS.executeBatch();
             storeContentPS.executeBatch();
             storeExpiryMetadataPS.executeBatch();
+            if (sharedContentEnabled) {
+                // References are inserted after the metadata they refer to
+                storeSharedContentPS.executeBatch();
+                storeSharedContentRefPS.executeBatch();
+            }
             connection.commit();
 
             // Add messages to cache after adding them to the database
@@ -415,6 +543,8 @@ public class RDBMSMessageStoreImpl implements MessageStore {
             rollback(connection, RDBMSConstants.TASK_ADDING_METADATA);
             throw rdbmsStoreUtils.convertSQLException("Error occurred while inserting messages to queue ", e);
         } finally {
+            close(storeSharedContentRefPS, RDBMSConstants.TASK_ADDING_MESSAGES);
+            close(storeSharedContentPS, RDBMSConstants.TASK_ADDING_MESSAGES);
             close(storeExpiryMetadataPS, RDBMSConstants.TASK_ADDING_MESSAGES);
             close(storeMetadataPS, RDBMSConstants.TASK_ADDING_MESSAGES);
             close(storeContentPS, RDBMSConstants.TASK_ADDING_MESSAGES);
@@ -423,7 +553,33 @@ public class RDBMSMessageStoreImpl implements MessageStore {
     }
 
     /**
-     * Store a given Andes message to the database and the cache
+     * Adds the content reference of a copy of a topic message to the provided batch. The copy owning the content
+     * also adds the content under the shared content id.
+     *
+     * @param storeSharedContentPS    prepared statement for storing shared content
+     * @param storeSharedContentRefPS prepared statement for storing content references
+     * @param message                 copy of the topic message
+     * @throws SQLException
+     */
+    private void addSharedContentToBatch(PreparedStatement storeSharedContentPS,
+            PreparedStatement storeSharedContentRefPS, AndesMessage message) throws SQLException {
+        long sharedContentID = message.getSharedContentID();
+        if (message.isSharedContentOwner()) {
+            for (AndesMessagePart messagePart : message.getContentChunkList()) {
+                storeSharedContentPS.setLong(1, sharedContentID);
+                storeSharedContentPS.setInt(2, messagePart.getOffset());
+                storeSharedContentPS.setBytes(3, messagePart.getData());
+                storeSharedContentPS.addBatch();
+            }
+        }
+        storeSharedContentRefPS.setLong(1, message.getMetadata().getMessageID());
+        storeSharedContentRefPS.setLong(2, sharedContentID);
+        storeSharedContentRefPS.addBatch();
+    }
+
+    /**
+     * Store a given Andes message to the database and the cache. Content is stored for the message itself even if it
+     * is shared with other copies, since the copy owning the shared content may fail to be stored.
      *
      * @param message
      * @throws AndesException
@@ -880,6 +1036,99 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         return metadataList;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All slots are read with a single query having one message id range condition per slot.
+     */
+    @Override
+    public Map<Slot, List<DeliverableAndesMetadata>> getMetadataListForSlots(List<Slot> slots)
+            throws AndesException {
+
+        Map<Slot, List<DeliverableAndesMetadata>> metadataOfSlots = new HashMap<>(slots.size());
+        if (slots.size() == 1) {
+            Slot slot = slots.get(0);
+            metadataOfSlots.put(slot, getMetadataList(slot, slot.getStorageQueueName(), slot.getStartMessageId(),
+                    slot.getEndMessageId()));
+            return metadataOfSlots;
+        }
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+
+        Context metaListRetrievalContext = MetricManager.timer(Level.INFO, MetricsConstants.GET_META_DATA_LIST).start();
+        Context contextRead = MetricManager.timer(Level.INFO, MetricsConstants.DB_READ).start();
+
+        try {
+            int[] queueIds = new int[slots.size()];
+            for (int i = 0; i < slots.size(); i++) {
+                Slot slot = slots.get(i);
+                queueIds[i] = getCachedQueueID(slot.getStorageQueueName());
+                metadataOfSlots.put(slot, new ArrayList<DeliverableAndesMetadata>());
+            }
+
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(getSelectMetadataRangesPreparedStmt(slots.size()));
+            int parameterIndex = 1;
+            for (int i = 0; i < slots.size(); i++) {
+                preparedStatement.setInt(parameterIndex++, queueIds[i]);
+                preparedStatement.setLong(parameterIndex++, slots.get(i).getStartMessageId());
+                preparedStatement.setLong(parameterIndex++, slots.get(i).getEndMessageId());
+            }
+
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                int queueId = resultSet.getInt(QUEUE_ID);
+                long messageId = resultSet.getLong(MESSAGE_ID);
+                byte[] metadata = resultSet.getBytes(METADATA);
+
+                for (int i = 0; i < slots.size(); i++) {
+                    Slot slot = slots.get(i);
+                    if (queueIds[i] == queueId && messageId >= slot.getStartMessageId()
+                            && messageId <= slot.getEndMessageId()) {
+                        DeliverableAndesMetadata md = new DeliverableAndesMetadata(slot, messageId, metadata, true);
+                        md.setStorageQueueName(slot.getStorageQueueName());
+                        metadataOfSlots.get(slot).add(md);
+                        //Tracing message
+                        MessageTracer.trace(md, MessageTracer.METADATA_READ_FROM_DB + " slot = " + slot.getId());
+                    }
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("request: metadata of " + slots.size() + " slots, response: " + metadataOfSlots.size()
+                        + " metadata lists");
+            }
+        } catch (SQLException e) {
+            throw rdbmsStoreUtils.convertSQLException(
+                    "Error occurred while retrieving messages of " + slots.size() + " slots", e);
+        } finally {
+            metaListRetrievalContext.stop();
+            contextRead.stop();
+            close(connection, preparedStatement, resultSet, RDBMSConstants.TASK_RETRIEVING_METADATA_RANGES_OF_SLOTS);
+        }
+        return metadataOfSlots;
+    }
+
+    /**
+     * Build the prepared statement to read metadata of the given number of slots
+     *
+     * @param slotCount number of slots
+     * @return prepared statement string with a range condition for each slot
+     */
+    private String getSelectMetadataRangesPreparedStmt(int slotCount) {
+
+        StringBuilder stmtBuilder = new StringBuilder(PS_SELECT_METADATA_RANGES_FROM_QUEUES);
+        for (int i = 0; i < slotCount; i++) {
+            if (i > 0) {
+                stmtBuilder.append(" OR ");
+            }
+            stmtBuilder.append(PS_SELECT_METADATA_RANGES_CONDITION);
+        }
+        stmtBuilder.append(") ORDER BY ").append(MESSAGE_ID);
+        return stmtBuilder.toString();
+    }
+
     /**
      * Get number of messages in the queue withing the message id range
      *
@@ -1165,6 +1414,7 @@ public class RDBMSMessageStoreImpl implements MessageStore {
 
             //Since referential integrity is imposed on the two tables: message content and metadata,
             //deleting message metadata will cause message content to be automatically deleted
+            //and the references to shared content. Shared content is deleted once it is no longer referred
             metadataRemovalPreparedStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_METADATA);
 
             for (AndesMessageMetadata message : messagesToRemove) {
@@ -1216,6 +1466,7 @@ public class RDBMSMessageStoreImpl implements MessageStore {
 
             //Since referential integrity is imposed on the two tables: message content and metadata,
             //deleting message metadata will cause message content to be automatically deleted
+            //and the references to shared content. Shared content is deleted once it is no longer referred
             metadataRemovalPreparedStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_METADATA);
 
             for (long messageID : messagesToRemove) {
@@ -1260,6 +1511,7 @@ public class RDBMSMessageStoreImpl implements MessageStore {
 
             //Since referential integrity is imposed on the two tables: message content and metadata,
             //deleting message metadata will cause message content to be automatically deleted
+            //and the references to shared content. Shared content is deleted once it is no longer referred
             metadataRemovalPreparedStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_METADATA_IN_DLC);
 
             for (AndesMessageMetadata message : messagesToRemove) {
@@ -1284,6 +1536,37 @@ public class RDBMSMessageStoreImpl implements MessageStore {
         }
     }
 
+    /**
+     * Delete shared content no longer referred by any copy of a topic message. Runs every
+     * {@link #SHARED_CONTENT_CLEANUP_INTERVAL}, hence content may outlive the last copy of its message by this
+     * interval. Failures are logged and the content is deleted in a later run, since the messages referring to it are
+     * already deleted.
+     */
+    private void deleteUnreferencedSharedContent() {
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        Context contextWrite = MetricManager.timer(Level.INFO, MetricsConstants.DB_WRITE).start();
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(RDBMSConstants.PS_DELETE_UNREFERENCED_SHARED_CONTENT);
+            int deletedPartCount = preparedStatement.executeUpdate();
+            connection.commit();
+
+            if (log.isDebugEnabled()) {
+                log.debug("Deleted " + deletedPartCount + " unreferenced shared content parts");
+            }
+        } catch (SQLException e) {
+            rollback(connection, RDBMSConstants.TASK_DELETING_SHARED_CONTENT);
+            log.error("Error occurred while deleting unreferenced shared content", e);
+        } catch (RuntimeException e) {
+            // Keeps the scheduled cleanup running
+            log.error("Error occurred while deleting unreferenced shared content", e);
+        } finally {
+            contextWrite.stop();
+            close(connection, preparedStatement, RDBMSConstants.TASK_DELETING_SHARED_CONTENT);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1354,7 +1637,10 @@ public class RDBMSMessageStoreImpl implements MessageStore {
      */
     @Override
     public void close() {
-
+        if (null != sharedContentCleanupExecutor) {
+            sharedContentCleanupExecutor.shutdownNow();
+        }
+        rdbmsConnection.close();
     }
 
     /**
@@ -1474,13 +1760,14 @@ public class RDBMSMessageStoreImpl implements MessageStore {
     }
 
     /**
-     * Returns SQL Connection object from connection pooled data source.
+     * Returns SQL Connection object from connection pooled data source, or the connection kept by the current
+     * thread if it is a dedicated connection thread.
      *
      * @return Connection
      * @throws SQLException
      */
     protected Connection getConnection() throws SQLException {
-        return rdbmsConnection.getDataSource().getConnection();
+        return rdbmsConnection.acquireConnection();
     }
 
     /**
@@ -18,6 +18,8 @@
 
 package org.wso2.andes.subscription;
 
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.DestinationType;
 import org.wso2.andes.kernel.ProtocolType;
@@ -27,6 +29,11 @@ import org.wso2.andes.kernel.ProtocolType;
  */
 public class SubscriptionProcessorBuilder {
 
+    /**
+     * Matching store configuration value to use {@link TopicSubscriptionTrieStore} for wildcard topic subscriptions
+     */
+    public static final String TRIE_MATCHING_STORE = "trie";
+
     /**
      * Build cluster subscription processor with relevant classes for processing cluster subscriptions.
      *
@@ -39,19 +46,38 @@ public class SubscriptionProcessorBuilder {
         // Add handles for AMQP
         subscriptionProcessor.addHandler(ProtocolType.AMQP, DestinationType.QUEUE, new QueueSubscriptionStore());
         subscriptionProcessor.addHandler(ProtocolType.AMQP, DestinationType.TOPIC,
-                new TopicSubscriptionBitMapStore(ProtocolType.AMQP));
+                createTopicSubscriptionStore(ProtocolType.AMQP));
         subscriptionProcessor.addHandler(ProtocolType.AMQP, DestinationType.DURABLE_TOPIC,
-                new TopicSubscriptionBitMapStore(ProtocolType.AMQP));
+                createTopicSubscriptionStore(ProtocolType.AMQP));
 
         // Add handles for MQTT
         subscriptionProcessor.addHandler(ProtocolType.MQTT, DestinationType.TOPIC,
-                new TopicSubscriptionBitMapStore(ProtocolType.MQTT));
+                createTopicSubscriptionStore(ProtocolType.MQTT));
         subscriptionProcessor.addHandler(ProtocolType.MQTT, DestinationType.DURABLE_TOPIC,
-                new TopicSubscriptionBitMapStore(ProtocolType.MQTT));
+                createTopicSubscriptionStore(ProtocolType.MQTT));
 
         return subscriptionProcessor;
     }
 
+    /**
+     * Create the configured store for cluster topic subscriptions which does wildcard matching.
+     *
+     * @param protocolType The protocol type the store handles
+     * @return Subscription store for topic subscriptions
+     * @throws AndesException
+     */
+    private static AndesSubscriptionStore createTopicSubscriptionStore(ProtocolType protocolType)
+            throws AndesException {
+        String matchingStore = AndesConfigurationManager
+                .readValue(AndesConfiguration.PERFORMANCE_TUNING_TOPIC_SUBSCRIPTION_MATCHING_STORE);
+
+        if (TRIE_MATCHING_STORE.equalsIgnoreCase(matchingStore)) {
+            return new TopicSubscriptionTrieStore(protocolType);
+        } else {
+            return new TopicSubscriptionBitMapStore(protocolType);
+        }
+    }
+
     /**
      * Build loca subscription processor with relevant classes for processing local subscriptions.
      *
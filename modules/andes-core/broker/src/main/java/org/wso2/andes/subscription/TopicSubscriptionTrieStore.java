@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.subscription;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.amqp.AMQPUtils;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesSubscription;
+import org.wso2.andes.kernel.DestinationType;
+import org.wso2.andes.kernel.ProtocolType;
+import org.wso2.andes.mqtt.utils.MQTTUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Store subscriptions according to the respective protocol in a trie of destination constituents. Each node of the
+ * trie represents a constituent of a subscribed destination and wildcard constituents are kept as separate children
+ * of a node. Matching a destination walks only the branches its constituents can match, hence the cost does not grow
+ * with the number of unrelated subscriptions.
+ * <p/>
+ * Modifications are serialized. Children of a node are kept in concurrent maps and subscriptions of a node are kept in
+ * an array that is replaced on each change, hence matching a destination does not take any lock.
+ */
+public class TopicSubscriptionTrieStore implements AndesSubscriptionStore {
+
+    private static Log log = LogFactory.getLog(TopicSubscriptionTrieStore.class);
+
+    /**
+     * The topic delimiter to differentiate each constituent according to the current subscription type.
+     */
+    private final String constituentsDelimiter;
+
+    /**
+     * The multi level matching wildcard according to the current subscription type.
+     */
+    private final String multiLevelWildCard;
+
+    /**
+     * The single level matching wildcard according to the current subscription type.
+     */
+    private final String singleLevelWildCard;
+
+    /**
+     * Root of the trie. Represents the position before the first constituent.
+     */
+    private final TrieNode root = new TrieNode(null, null);
+
+    /**
+     * Keeps all the subscriptions against themselves to find the stored instance of an equal subscription
+     */
+    private final Map<AndesSubscription, AndesSubscription> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize the store with the subscription type.
+     *
+     * @param protocolType The protocol type to handle
+     * @throws AndesException
+     */
+    public TopicSubscriptionTrieStore(ProtocolType protocolType) throws AndesException {
+        if (ProtocolType.AMQP == protocolType) {
+            constituentsDelimiter = ".";
+            multiLevelWildCard = AMQPUtils.TOPIC_AND_CHILDREN_WILDCARD;
+            singleLevelWildCard = AMQPUtils.IMMEDIATE_CHILDREN_WILDCARD;
+        } else if (ProtocolType.MQTT == protocolType) {
+            constituentsDelimiter = "/";
+            multiLevelWildCard = MQTTUtils.MULTI_LEVEL_WILDCARD;
+            singleLevelWildCard = MQTTUtils.SINGLE_LEVEL_WILDCARD;
+        } else {
+            throw new AndesException("Subscription type " + protocolType + " is not recognized.");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void addSubscription(AndesSubscription subscription) throws AndesException {
+        String destination = subscription.getSubscribedDestination();
+
+        if (StringUtils.isEmpty(destination)) {
+            throw new AndesException("Error adding a new subscription. Subscribed destination is empty.");
+        }
+
+        if (subscriptions.containsKey(subscription)) {
+            updateSubscription(subscription);
+        } else {
+            getOrCreateNode(destination).addSubscription(subscription);
+            subscriptions.put(subscription, subscription);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void updateSubscription(AndesSubscription subscription) {
+        AndesSubscription existingSubscription = subscriptions.get(subscription);
+
+        if (null != existingSubscription) {
+            if (existingSubscription.getSubscribedDestination().equals(subscription.getSubscribedDestination())) {
+                findNode(subscription.getSubscribedDestination()).replaceSubscription(subscription);
+            } else {
+                removeFromNode(existingSubscription);
+                getOrCreateNode(subscription.getSubscribedDestination()).addSubscription(subscription);
+            }
+            subscriptions.put(subscription, subscription);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSubscriptionAvailable(AndesSubscription subscription) {
+        return subscriptions.containsKey(subscription);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void removeSubscription(AndesSubscription subscription) {
+        AndesSubscription existingSubscription = subscriptions.remove(subscription);
+
+        if (null != existingSubscription) {
+            removeFromNode(existingSubscription);
+        } else {
+            log.warn("Subscription for destination : " + subscription.getSubscribedDestination() + " is not found to " +
+                    "remove");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<AndesSubscription> getMatchingSubscriptions(String destination, DestinationType destinationType) {
+        Set<AndesSubscription> matchingSubscriptions = new HashSet<>();
+
+        if (StringUtils.isNotEmpty(destination)) {
+            // constituentDelimiter is quoted to avoid making the delimiter a regex symbol
+            String[] constituents = destination.split(Pattern.quote(constituentsDelimiter), -1);
+            collectMatchingSubscriptions(root, constituents, 0, matchingSubscriptions);
+        } else {
+            log.warn("Cannot retrieve subscriptions via trie store since destination to match is empty");
+        }
+
+        return matchingSubscriptions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AndesSubscription> getAllSubscriptions() {
+        return new ArrayList<>(subscriptions.values());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getAllDestinations(DestinationType destinationType) {
+        Set<String> topics = new HashSet<>();
+
+        for (AndesSubscription subscription : subscriptions.values()) {
+            StringBuilder topic = new StringBuilder();
+            String[] constituents = subscription.getSubscribedDestination().split(Pattern.quote
+                    (constituentsDelimiter));
+
+            for (int i = 0; i < constituents.length; i++) {
+                String constituent = constituents[i];
+                // if this is a wildcard constituent, we provide it as 'ANY' in it's place for readability
+                if (multiLevelWildCard.equals(constituent) || singleLevelWildCard.equals(constituent)) {
+                    topic.append("ANY");
+                } else {
+                    topic.append(constituent);
+                }
+
+                // append the delimiter if there are more constituents to come
+                if ((constituents.length - 1) > i) {
+                    topic.append(constituentsDelimiter);
+                }
+            }
+
+            topics.add(topic.toString());
+        }
+
+        return topics;
+    }
+
+    /**
+     * Walk the trie for the constituents of a destination starting from the given node and collect subscriptions of
+     * every node the destination reaches.
+     *
+     * @param node                  node matched by the constituents before constituentIndex
+     * @param constituents          constituents of the destination
+     * @param constituentIndex      index of the next constituent to match
+     * @param matchingSubscriptions set to add the matching subscriptions to
+     */
+    private void collectMatchingSubscriptions(TrieNode node, String[] constituents, int constituentIndex,
+                                              Set<AndesSubscription> matchingSubscriptions) {
+
+        // A multi level wildcard matches zero or more of the remaining constituents
+        TrieNode multiLevelChild = node.multiLevelChild;
+        if (null != multiLevelChild) {
+            for (int nextIndex = constituentIndex; nextIndex <= constituents.length; nextIndex++) {
+                collectMatchingSubscriptions(multiLevelChild, constituents, nextIndex, matchingSubscriptions);
+            }
+        }
+
+        if (constituentIndex == constituents.length) {
+            matchingSubscriptions.addAll(Arrays.asList(node.subscriptions));
+            return;
+        }
+
+        TrieNode child = node.children.get(constituents[constituentIndex]);
+        if (null != child) {
+            collectMatchingSubscriptions(child, constituents, constituentIndex + 1, matchingSubscriptions);
+        }
+
+        TrieNode singleLevelChild = node.singleLevelChild;
+        if (null != singleLevelChild) {
+            collectMatchingSubscriptions(singleLevelChild, constituents, constituentIndex + 1, matchingSubscriptions);
+        }
+    }
+
+    /**
+     * Find the node of a subscribed destination creating the missing nodes of the path.
+     *
+     * @param destination subscribed destination
+     * @return node of the destination
+     */
+    private TrieNode getOrCreateNode(String destination) {
+        TrieNode node = root;
+
+        for (String constituent : destination.split(Pattern.quote(constituentsDelimiter), -1)) {
+            TrieNode child = node.getChild(constituent);
+            if (null == child) {
+                child = new TrieNode(node, constituent);
+                if (multiLevelWildCard.equals(constituent)) {
+                    node.multiLevelChild = child;
+                } else if (singleLevelWildCard.equals(constituent)) {
+                    node.singleLevelChild = child;
+                } else {
+                    node.children.put(constituent, child);
+                }
+            }
+            node = child;
+        }
+
+        return node;
+    }
+
+    /**
+     * Find the node of a subscribed destination.
+     *
+     * @param destination subscribed destination
+     * @return node of the destination or null if no subscription was made to the destination
+     */
+    private TrieNode findNode(String destination) {
+        TrieNode node = root;
+
+        for (String constituent : destination.split(Pattern.quote(constituentsDelimiter), -1)) {
+            node = node.getChild(constituent);
+            if (null == node) {
+                break;
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Remove a stored subscription from the node of its destination and remove the nodes that are no longer needed.
+     *
+     * @param subscription the stored subscription instance
+     */
+    private void removeFromNode(AndesSubscription subscription) {
+        TrieNode node = findNode(subscription.getSubscribedDestination());
+
+        if (null != node) {
+            node.removeSubscription(subscription);
+
+            // Unlink nodes without subscriptions and children towards the root
+            while (node != root && node.isEmpty()) {
+                TrieNode parent = node.parent;
+                if (multiLevelWildCard.equals(node.constituent)) {
+                    parent.multiLevelChild = null;
+                } else if (singleLevelWildCard.equals(node.constituent)) {
+                    parent.singleLevelChild = null;
+                } else {
+                    parent.children.remove(node.constituent);
+                }
+                node = parent;
+            }
+        }
+    }
+
+    /**
+     * A node of the trie representing a constituent of subscribed destinations
+     */
+    private final class TrieNode {
+
+        /**
+         * Parent node. Null for the root.
+         */
+        private final TrieNode parent;
+
+        /**
+         * Constituent this node represents. Null for the root.
+         */
+        private final String constituent;
+
+        /**
+         * Children for non wildcard constituents
+         */
+        private final Map<String, TrieNode> children = new ConcurrentHashMap<>();
+
+        /**
+         * Child for the single level wildcard
+         */
+        private volatile TrieNode singleLevelChild;
+
+        /**
+         * Child for the multi level wildcard
+         */
+        private volatile TrieNode multiLevelChild;
+
+        /**
+         * Subscriptions made to the destination ending at this node. Replaced as a whole on each modification.
+         */
+        private volatile AndesSubscription[] subscriptions = new AndesSubscription[0];
+
+        private TrieNode(TrieNode parent, String constituent) {
+            this.parent = parent;
+            this.constituent = constituent;
+        }
+
+        private TrieNode getChild(String childConstituent) {
+            if (multiLevelWildCard.equals(childConstituent)) {
+                return multiLevelChild;
+            } else if (singleLevelWildCard.equals(childConstituent)) {
+                return singleLevelChild;
+            } else {
+                return children.get(childConstituent);
+            }
+        }
+
+        private void addSubscription(AndesSubscription subscription) {
+            AndesSubscription[] newSubscriptions = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+            newSubscriptions[subscriptions.length] = subscription;
+            subscriptions = newSubscriptions;
+        }
+
+        private void replaceSubscription(AndesSubscription subscription) {
+            AndesSubscription[] newSubscriptions = subscriptions.clone();
+            for (int i = 0; i < newSubscriptions.length; i++) {
+                if (newSubscriptions[i].equals(subscription)) {
+                    newSubscriptions[i] = subscription;
+                }
+            }
+            subscriptions = newSubscriptions;
+        }
+
+        private void removeSubscription(AndesSubscription subscription) {
+            List<AndesSubscription> remaining = new ArrayList<>(subscriptions.length);
+            for (AndesSubscription existing : subscriptions) {
+                if (!existing.equals(subscription)) {
+                    remaining.add(existing);
+                }
+            }
+            subscriptions = remaining.toArray(new AndesSubscription[remaining.size()]);
+        }
+
+        private boolean isEmpty() {
+            return 0 == subscriptions.length && children.isEmpty() && null == singleLevelChild
+                    && null == multiLevelChild;
+        }
+    }
+}
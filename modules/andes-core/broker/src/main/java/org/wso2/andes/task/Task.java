@@ -22,7 +22,9 @@ import java.util.concurrent.Callable;
 
 /**
  *
- * This task will be processed by {@link TaskExecutorService} using {@link TaskProcessor} in a round robin manner
+ * This task will be processed by {@link TaskExecutorService} using {@link TaskProcessor}s. A task reporting
+ * {@link TaskHint#IDLE} is not processed again until it is signalled through {@link TaskExecutorService#signal(String)}
+ * or the idle task delay elapses
  *
  */
 public abstract class Task implements Callable<Task.TaskHint> {
@@ -61,6 +63,17 @@ public abstract class Task implements Callable<Task.TaskHint> {
      */
     public abstract String getId();
 
+    /**
+     * Number of times the {@link Task} is run in a row by a {@link TaskProcessor} while it reports
+     * {@link TaskHint#ACTIVE}, before the other tasks of the processor get a turn. A task with a higher weight gets a
+     * larger share of the processing time when processors are busy.
+     *
+     * @return weight of the task, at least 1
+     */
+    public int getWeight() {
+        return 1;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -21,18 +21,31 @@ package org.wso2.andes.task;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.ArrayDeque;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Manage processing of {@link Task}. Holds the {@link TaskHolder} ring and the {@link TaskProcessor} list that
- * process the {@link Task}
+ * Manage processing of {@link Task}. Holds the {@link TaskProcessor} list that process the {@link Task}s.
+ * <p>
+ * Active tasks stay in the queue of a {@link TaskProcessor} and idle processors steal them. A task reporting idle is
+ * parked and not processed again until it is signalled through {@link #signal(String)}, or until the idle task delay
+ * elapses in case a source of work does not signal. Signalled tasks are taken before the tasks of a processor queue,
+ * while tasks woken after the idle task delay are taken only when there is nothing else to do or once every
+ * {@link #IDLE_TASK_TAKE_INTERVAL} takes. Hence the number of idle tasks has little effect on how often active tasks
+ * are processed.
  */
 public final class TaskExecutorService<T extends Task> {
 
@@ -42,9 +55,19 @@ public final class TaskExecutorService<T extends Task> {
     private static Log log = LogFactory.getLog(TaskExecutorService.class);
 
     /**
-     * {@link DelayQueue} used by processors to schedule tasks. Idle task will be processed after a delay
+     * A processor with active tasks takes a task woken after the idle task delay once every this many takes
      */
-    private final DelayQueue<TaskHolder> taskHolderDelayQueue;
+    private static final int IDLE_TASK_TAKE_INTERVAL = 8;
+
+    /**
+     * Tasks signalled while parked, and newly added tasks
+     */
+    private final Queue<TaskHolder> signalledTaskQueue;
+
+    /**
+     * Tasks woken after being parked for the idle task delay
+     */
+    private final Queue<TaskHolder> idleTaskQueue;
 
     /**
      * Mapping of registered tasks with its task id
@@ -62,14 +85,29 @@ public final class TaskExecutorService<T extends Task> {
     private final ExecutorService taskExecutorPool;
 
     /**
-     * Queue containing the current running {@link TaskProcessor}s
+     * Current running {@link TaskProcessor}s. Processors steal tasks from each other.
+     */
+    private final List<TaskProcessor> taskProcessors;
+
+    /**
+     * Executor service to process add remove requests and to wake up parked tasks after the idle task delay
+     */
+    private final ScheduledExecutorService taskUpdateExecutorService;
+
+    /**
+     * Lock idle processors wait on
      */
-    private final Queue<TaskProcessor> taskProcessorQueue;
+    private final Lock idleProcessorLock = new ReentrantLock();
 
     /**
-     * Executor service to process add remove requests from the editRequestQueue
+     * Condition signalled when a task is queued while processors are idle
      */
-    private final ExecutorService taskUpdateExecutorService;
+    private final Condition taskQueuedCondition = idleProcessorLock.newCondition();
+
+    /**
+     * Number of processors waiting for tasks
+     */
+    private final AtomicInteger idleProcessorCount = new AtomicInteger(0);
 
     /**
      * Exception handler implementation defining how to handle the exceptions
@@ -77,7 +115,7 @@ public final class TaskExecutorService<T extends Task> {
     private TaskExceptionHandler taskExceptionHandler;
 
     /**
-     * Delay for processing IDLE tasks in the next iteration
+     * Delay for processing IDLE tasks in the next iteration if they are not signalled
      */
     private long idleTaskDelayMillis;
 
@@ -86,22 +124,25 @@ public final class TaskExecutorService<T extends Task> {
      *
      * @param workerCount maximum number of threads spawned to process the tasks
      * @param idleTaskDelayMillis delay set for processing a task with IDLE {@link org.wso2.andes.task.Task.TaskHint}
+     *                            if the task is not signalled before
      * @param threadFactory  thread factory to be used for processing the tasks
      */
     public TaskExecutorService(int workerCount, long idleTaskDelayMillis, ThreadFactory threadFactory) {
 
         taskExecutorPool = Executors.newFixedThreadPool(workerCount, threadFactory);
         this.workerCount = workerCount;
-        taskProcessorQueue = new ArrayDeque<>(workerCount);
-        taskUpdateExecutorService = Executors.newSingleThreadExecutor(threadFactory);
+        taskProcessors = new CopyOnWriteArrayList<>();
+        taskUpdateExecutorService = Executors.newSingleThreadScheduledExecutor(threadFactory);
         taskExceptionHandler = new DefaultExceptionHandler();
-        taskHolderDelayQueue = new DelayQueue<>();
+        signalledTaskQueue = new ConcurrentLinkedQueue<>();
+        idleTaskQueue = new ConcurrentLinkedQueue<>();
         taskHolderRegistry = new ConcurrentHashMap<>();
         this.idleTaskDelayMillis = idleTaskDelayMillis;
     }
 
     /**
-     * Add a new task. If the task is already added (same id) task add request will be ignored.
+     * Add a new task. If the task is already added (same id) task add request will be ignored and the existing task
+     * is signalled.
      * <p>
      * This add {@link Task} request is processed asynchronously
      *
@@ -126,6 +167,20 @@ public final class TaskExecutorService<T extends Task> {
         taskUpdateExecutorService.submit(new RemoveRequest(id));
     }
 
+    /**
+     * Notify that the {@link Task} with the given id may have work to do. A parked task is queued to be processed
+     * right away, and a running task is processed again even if it reports idle. Signalling an unknown task has no
+     * effect.
+     *
+     * @param id ID of the {@link Task} to be signalled
+     */
+    public void signal(String id) {
+        TaskHolder<T> taskHolder = taskHolderRegistry.get(id);
+        if (null != taskHolder && taskHolder.signal()) {
+            queueTask(signalledTaskQueue, taskHolder);
+        }
+    }
+
     /**
      * Returns the {@link Task} implementation relevant to the task id
      *
@@ -144,23 +199,29 @@ public final class TaskExecutorService<T extends Task> {
      * Stop processing the tasks
      */
     public synchronized void stop() {
-        log.info("Stopping task manager. Task count " + taskHolderDelayQueue.size());
-        for (TaskProcessor taskProcessor : taskProcessorQueue) {
+        log.info("Stopping task manager. Task count " + taskHolderRegistry.size());
+        for (TaskProcessor taskProcessor : taskProcessors) {
             taskProcessor.deactivate();
         }
-        taskProcessorQueue.clear();
+        taskProcessors.clear();
+        wakeUpAllIdleProcessors();
     }
 
     /**
-     * Start processing the tasks
+     * Start processing the tasks. Has no effect if the tasks are already being processed.
      */
     public synchronized void start() {
-        log.info("Starting task manager. Task count " + taskHolderDelayQueue.size());
+        if (!taskProcessors.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Task manager is already started");
+            }
+            return;
+        }
+        log.info("Starting task manager. Task count " + taskHolderRegistry.size());
 
         for (int i = 0; i < workerCount; i++) {
-            TaskProcessor taskProcessor =
-                    new TaskProcessor(taskHolderDelayQueue, taskExceptionHandler, idleTaskDelayMillis);
-            taskProcessorQueue.add(taskProcessor);
+            TaskProcessor taskProcessor = new TaskProcessor(this, taskExceptionHandler);
+            taskProcessors.add(taskProcessor);
             taskExecutorPool.submit(taskProcessor);
         }
     }
@@ -174,6 +235,137 @@ public final class TaskExecutorService<T extends Task> {
         this.taskExceptionHandler = exceptionHandler;
     }
 
+    /**
+     * Take the next task for a processor. Waits for a while if there is no task to process.
+     *
+     * @param taskProcessor processor taking the task
+     * @param takeCount     number of tasks taken by the processor so far
+     * @return {@link TaskHolder} or null if there was no task to process
+     * @throws InterruptedException if interrupted while waiting for a task
+     */
+    TaskHolder takeTask(TaskProcessor taskProcessor, long takeCount) throws InterruptedException {
+        TaskHolder taskHolder = null;
+        if (0 == takeCount % IDLE_TASK_TAKE_INTERVAL) {
+            taskHolder = idleTaskQueue.poll();
+        }
+        if (null == taskHolder) {
+            taskHolder = signalledTaskQueue.poll();
+        }
+        if (null == taskHolder) {
+            taskHolder = taskProcessor.pollOwnTask();
+        }
+        if (null == taskHolder) {
+            taskHolder = pollOtherTask(taskProcessor);
+        }
+        if (null == taskHolder) {
+            awaitTask(taskProcessor);
+        }
+        return taskHolder;
+    }
+
+    /**
+     * Take a task stolen from another processor or woken after the idle task delay
+     */
+    private TaskHolder pollOtherTask(TaskProcessor taskProcessor) {
+        TaskHolder taskHolder = null;
+        for (TaskProcessor victim : taskProcessors) {
+            if (victim != taskProcessor) {
+                taskHolder = victim.stealTask();
+                if (null != taskHolder) {
+                    break;
+                }
+            }
+        }
+        if (null == taskHolder) {
+            taskHolder = idleTaskQueue.poll();
+        }
+        return taskHolder;
+    }
+
+    /**
+     * Wait until a task is queued. A processor checks the queues again after registering as idle so that a task
+     * queued in between is not missed.
+     */
+    private void awaitTask(TaskProcessor taskProcessor) throws InterruptedException {
+        idleProcessorLock.lock();
+        idleProcessorCount.incrementAndGet();
+        try {
+            if (taskProcessor.isActive() && signalledTaskQueue.isEmpty() && idleTaskQueue.isEmpty()
+                    && !hasTasksToSteal(taskProcessor)) {
+                taskQueuedCondition.await(idleTaskDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            idleProcessorCount.decrementAndGet();
+            idleProcessorLock.unlock();
+        }
+    }
+
+    private boolean hasTasksToSteal(TaskProcessor taskProcessor) {
+        for (TaskProcessor victim : taskProcessors) {
+            if (victim != taskProcessor && victim.hasTasks()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queue a task to one of the shared queues and wake up a processor to take it
+     */
+    private void queueTask(Queue<TaskHolder> taskQueue, TaskHolder taskHolder) {
+        taskQueue.offer(taskHolder);
+        wakeUpIdleProcessor();
+    }
+
+    /**
+     * Wake up a processor waiting for tasks, if any
+     */
+    void wakeUpIdleProcessor() {
+        if (idleProcessorCount.get() > 0) {
+            idleProcessorLock.lock();
+            try {
+                taskQueuedCondition.signal();
+            } finally {
+                idleProcessorLock.unlock();
+            }
+        }
+    }
+
+    private void wakeUpAllIdleProcessors() {
+        idleProcessorLock.lock();
+        try {
+            taskQueuedCondition.signalAll();
+        } finally {
+            idleProcessorLock.unlock();
+        }
+    }
+
+    /**
+     * Queue a parked task again after the idle task delay unless it is signalled before
+     *
+     * @param taskHolder {@link TaskHolder} of the parked task
+     * @param parkCount  park count of the task when parked
+     */
+    void scheduleWakeUp(TaskHolder taskHolder, int parkCount) {
+        taskUpdateExecutorService.schedule(new WakeUpRequest(taskHolder, parkCount),
+                idleTaskDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hand over the tasks of a stopped processor
+     *
+     * @param taskProcessor stopped processor
+     */
+    void onProcessorStopped(TaskProcessor taskProcessor) {
+        // A processor may stop due to an error without being deactivated
+        taskProcessors.remove(taskProcessor);
+        TaskHolder taskHolder;
+        while (null != (taskHolder = taskProcessor.pollOwnTask())) {
+            signalledTaskQueue.offer(taskHolder);
+        }
+        wakeUpIdleProcessor();
+    }
+
     /**
      * Task add request
      */
@@ -189,15 +381,16 @@ public final class TaskExecutorService<T extends Task> {
         public void run() {
             try {
                 if (taskHolderRegistry.containsKey(task.getId())) {
+                    // Existing task may have work for the new subscriber
+                    signal(task.getId());
                     return;
                 }
                 TaskHolder<T> taskHolder = new TaskHolder<>(task);
-                task.onAdd(); // Invoke task callback before adding the task to the taskHolderDelayQueue
-                              // to be processed
+                task.onAdd(); // Invoke task callback before adding the task to be processed
                 taskHolderRegistry.put(task.getId(), taskHolder);
-                taskHolderDelayQueue.add(taskHolder);
+                queueTask(signalledTaskQueue, taskHolder);
                 if (log.isDebugEnabled()) {
-                    log.debug("Task added. ID " + task.getId() + " Total Tasks " + taskHolderDelayQueue.size());
+                    log.debug("Task added. ID " + task.getId() + " Total Tasks " + taskHolderRegistry.size());
                 }
             } catch (Throwable e) {
                 log.error("Error occurred while adding Task " + task, e);
@@ -221,8 +414,12 @@ public final class TaskExecutorService<T extends Task> {
             try {
                 TaskHolder taskHolder = taskHolderRegistry.remove(id);
                 taskHolder.disableProcessing(); // disable processors from processing the task
+                // A parked task is queued so that a processor invokes the remove callback
+                if (taskHolder.signal()) {
+                    queueTask(signalledTaskQueue, taskHolder);
+                }
                 if (log.isDebugEnabled()) {
-                    log.debug("Task removed. ID " + taskHolder.getId() + " Total tasks " + taskHolderDelayQueue.size());
+                    log.debug("Task removed. ID " + taskHolder.getId() + " Total tasks " + taskHolderRegistry.size());
                 }
             } catch (Throwable e) {
                 log.error("Error occurred while removing task. Task id " + id, e);
@@ -230,6 +427,28 @@ public final class TaskExecutorService<T extends Task> {
         }
     }
 
+    /**
+     * Queues a parked task after the idle task delay
+     */
+    private class WakeUpRequest implements Runnable {
+
+        private final TaskHolder taskHolder;
+
+        private final int parkCount;
+
+        WakeUpRequest(TaskHolder taskHolder, int parkCount) {
+            this.taskHolder = taskHolder;
+            this.parkCount = parkCount;
+        }
+
+        @Override
+        public void run() {
+            if (taskHolder.wakeUp(parkCount)) {
+                queueTask(idleTaskQueue, taskHolder);
+            }
+        }
+    }
+
     /**
      * Default exception handler that throws a runtime exception and logs the event
      */
@@ -18,15 +18,35 @@
 
 package org.wso2.andes.task;
 
-import java.util.concurrent.Delayed;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Holds a single {@link Task}. Has references to the next and previous {@link TaskHolder} of the {@link TaskHolder}
- * ring
+ * Holds a single {@link Task} and tracks its scheduling state. A holder is queued at most once at a time, either in a
+ * {@link TaskProcessor} queue or in one of the shared queues of the {@link TaskExecutorService}, or parked until it is
+ * signalled.
  */
-final class TaskHolder<T extends Task> implements Delayed {
+final class TaskHolder<T extends Task> {
+
+    /**
+     * Task is idle and not queued. It is queued again when signalled or when the idle task delay elapses.
+     */
+    private static final int PARKED = 0;
+
+    /**
+     * Task is queued to be processed
+     */
+    private static final int QUEUED = 1;
+
+    /**
+     * Task is being processed by a {@link TaskProcessor}
+     */
+    private static final int RUNNING = 2;
+
+    /**
+     * Task is being processed and was signalled meanwhile. It is queued again even if it reports idle.
+     */
+    private static final int RUNNING_SIGNALLED = 3;
 
     /**
      * {@link Task} implementation related to this {@link TaskHolder}
@@ -44,20 +64,32 @@ final class TaskHolder<T extends Task> implements Delayed {
     private AtomicBoolean isProcessing;
 
     /**
-     * Task expiry time in milliseconds. Expired messages will be picked from the
-     * {@link java.util.concurrent.DelayQueue} by the {@link TaskProcessor}s
+     * Whether the remove callback of the task was invoked
      */
-    private long expiryTime;
+    private final AtomicBoolean isRemoved;
 
     /**
-     * Create a {@link TaskHolder} instance with a {@link Task} implementation
+     * Scheduling state of the task
+     */
+    private final AtomicInteger state;
+
+    /**
+     * Number of times the task was parked. Used to ignore idle delay wake ups of a previous park.
+     */
+    private volatile int parkCount;
+
+    /**
+     * Create a {@link TaskHolder} instance with a {@link Task} implementation. The holder is in queued state and
+     * should be queued for processing.
+     *
      * @param task {@link Task} implementation
      */
     TaskHolder(T task) {
         this.task = task;
         this.isDisabled = new AtomicBoolean(false);
         this.isProcessing = new AtomicBoolean(false);
-        expiryTime = System.currentTimeMillis();
+        this.isRemoved = new AtomicBoolean(false);
+        this.state = new AtomicInteger(QUEUED);
     }
 
     /**
@@ -128,52 +160,80 @@ final class TaskHolder<T extends Task> implements Delayed {
     }
 
     /**
-     * {@inheritDoc}
+     * Weight of the underlying {@link Task}
+     *
+     * @return number of consecutive runs the task gets while active
      */
-    @Override
-    public long getDelay(TimeUnit unit) {
-        return unit.convert(expiryTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    int getWeight() {
+        return Math.max(1, task.getWeight());
+    }
+
+    /**
+     * Mark the queued task as running. A holder taken from a queue must not be processed if this fails.
+     *
+     * @return true if the task was queued and is now running
+     */
+    boolean startProcessing() {
+        return state.compareAndSet(QUEUED, RUNNING);
     }
 
     /**
-     * Set the expiry time for the {@link Delayed}
-     * @param delay delay
-     * @param timeUnit {@link TimeUnit}
+     * Mark the running task as queued again
      */
-    void setDelay(long delay, TimeUnit timeUnit) {
-        this.expiryTime = System.currentTimeMillis() + TimeUnit.MILLISECONDS.convert(delay, timeUnit);
+    void requeue() {
+        state.set(QUEUED);
     }
 
     /**
-     * <p>
-     * Note: this class has a natural ordering that is inconsistent with equals.
-     * </p>
-     * <p>
-     * For the Delayed queue we need the ordering according to the delay. But to remove {@link TaskHolder} from the
-     * queue we need to have the equals method according to the id of the {@link Task}
-     * </p>
+     * Park the running task after it reported idle. If the task was signalled while running it is marked queued
+     * instead.
      *
-     * {@inheritDoc}
+     * @return park count of the task if parked, or -1 if the task should be queued again
      */
-    @Override
-    public int compareTo(Delayed delayedObject) {
+    int park() {
+        int currentParkCount = parkCount + 1;
+        parkCount = currentParkCount;
+        if (state.compareAndSet(RUNNING, PARKED)) {
+            return currentParkCount;
+        }
+        state.set(QUEUED);
+        return -1;
+    }
 
-        int order = Long.compare(expiryTime, ((TaskHolder)delayedObject).expiryTime); // order by expiryTime
-        if (order == 0 ) {
-            order = getId().compareTo(((TaskHolder) delayedObject).getId()); // order by string id
+    /**
+     * Signal that the task may have work to do
+     *
+     * @return true if the task was parked and is now marked queued. Caller should queue the holder.
+     */
+    boolean signal() {
+        while (true) {
+            int currentState = state.get();
+            if (PARKED == currentState) {
+                if (state.compareAndSet(PARKED, QUEUED)) {
+                    return true;
+                }
+            } else if (RUNNING == currentState) {
+                if (state.compareAndSet(RUNNING, RUNNING_SIGNALLED)) {
+                    return false;
+                }
+            } else {
+                // Already queued or signalled
+                return false;
+            }
         }
-        return order;
     }
 
     /**
-     * <p>
-     * Note: this class has a natural ordering that is inconsistent with equals.
-     * </p>
-     * <p>
-     * For the Delayed queue we need the ordering according to the delay. But to remove {@link TaskHolder} from the
-     * queue we need to have the equals method according to the id of the {@link Task}
-     * </p>
+     * Wake up the task after the idle task delay
      *
+     * @param wakeUpParkCount park count returned when the task was parked
+     * @return true if the task is still in the same park and is now marked queued. Caller should queue the holder.
+     */
+    boolean wakeUp(int wakeUpParkCount) {
+        return wakeUpParkCount == parkCount && state.compareAndSet(PARKED, QUEUED);
+    }
+
+    /**
      * {@inheritDoc}
      */
     @Override
@@ -182,15 +242,25 @@ final class TaskHolder<T extends Task> implements Delayed {
         if ( obj instanceof TaskHolder) {
             isEqual = ((TaskHolder) obj).getId().compareTo(getId()) == 0;
         } else {
-            isEqual = this.equals(obj);
+            isEqual = false;
         }
         return isEqual;
     }
 
     /**
-     * Ready to remove task. Invoke the {@link Task} callback #onRemove
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return getId().hashCode();
+    }
+
+    /**
+     * Ready to remove task. Invoke the {@link Task} callback #onRemove. The callback is invoked only once.
      */
     void onRemoveTask() {
-        task.onRemove();
+        if (isRemoved.compareAndSet(false, true)) {
+            task.onRemove();
+        }
     }
 }
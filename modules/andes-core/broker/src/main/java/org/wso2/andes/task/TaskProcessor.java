@@ -21,13 +21,15 @@ package org.wso2.andes.task;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.Deque;
 import java.util.concurrent.Callable;
-import java.util.concurrent.DelayQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Process {@link Task} by going through each {@link TaskHolder} in the {@link TaskHolder} ring
+ * Process {@link Task}s. Active tasks are kept in the queue of the processor that ran them last and are processed in
+ * a round robin manner. A processor without tasks takes signalled tasks from the {@link TaskExecutorService} or steals
+ * tasks from the tail of the queue of another processor.
  */
 final class TaskProcessor implements Callable<Boolean> {
 
@@ -37,9 +39,14 @@ final class TaskProcessor implements Callable<Boolean> {
     private static Log log = LogFactory.getLog(TaskProcessor.class);
 
     /**
-     * Reference to {@link TaskHolder} queue
+     * Tasks owned by this processor. Owner takes from the head and other processors steal from the tail.
      */
-    private DelayQueue<TaskHolder> taskHolderQueue;
+    private final Deque<TaskHolder> taskHolderQueue;
+
+    /**
+     * Reference to the executor service providing shared queues
+     */
+    private final TaskExecutorService<?> taskExecutorService;
 
     /**
      * Whether the processor is active or not
@@ -52,15 +59,15 @@ final class TaskProcessor implements Callable<Boolean> {
     private TaskExceptionHandler taskExceptionHandler;
 
     /**
-     * Delay to be set for the IDLE tasks
+     * Number of tasks taken by the processor. Used to give idle tasks a share of processing time.
      */
-    private final long idleWaitTimeMillis;
+    private long takeCount;
 
-    TaskProcessor(DelayQueue<TaskHolder> taskQueue, TaskExceptionHandler exceptionHandler, long idleWaitTimeMillis) {
+    TaskProcessor(TaskExecutorService<?> taskExecutorService, TaskExceptionHandler exceptionHandler) {
         isActive = new AtomicBoolean(false);
         this.taskExceptionHandler = exceptionHandler;
-        this.taskHolderQueue = taskQueue;
-        this.idleWaitTimeMillis = idleWaitTimeMillis;
+        this.taskExecutorService = taskExecutorService;
+        this.taskHolderQueue = new ConcurrentLinkedDeque<>();
     }
 
     /**
@@ -70,6 +77,15 @@ final class TaskProcessor implements Callable<Boolean> {
         isActive.set(false);
     }
 
+    /**
+     * Whether the processor is active or not
+     *
+     * @return true if active
+     */
+    boolean isActive() {
+        return isActive.get();
+    }
+
     @Override
     public Boolean call() throws Exception {
 
@@ -77,43 +93,98 @@ final class TaskProcessor implements Callable<Boolean> {
             if (log.isDebugEnabled()) {
                 log.debug("Task processor started");
             }
-            while (isActive.get()) {
-                TaskHolder taskHolder = null;
-                long delay = 0; // No delay
-                try {
-                    taskHolder = taskHolderQueue.take(); // Wait if queue is empty
-                    Task.TaskHint hint = taskHolder.executeTask();
-                    if (hint == Task.TaskHint.IDLE) {
-                        delay = idleWaitTimeMillis;
-                    }
-                } catch (Throwable throwable) {
-                    String id;
-                    if(null != taskHolder) {
-                        id = taskHolder.getId();
-                    } else {
-                        id = "";
-                    }
-                    taskExceptionHandler.handleException(throwable, id);
-                } finally {
-                    // Disabled Tasks will get removed from the queue
-                    // Put to map if not disabled
-                    if(null != taskHolder) {
-                        if (taskHolder.isDisabled() ) {
-                            taskHolder.onRemoveTask();
-                        } else {
-                            // Add a delay when adding back to the queue. This ensures the TaskHolder is added to the
-                            // end of the queue. If not TaskHolder will be added to front of the queue
-                            taskHolder.setDelay(delay, TimeUnit.MILLISECONDS);
-                            taskHolderQueue.put(taskHolder);
-                        }
+            try {
+                while (isActive.get()) {
+                    takeCount++;
+                    TaskHolder taskHolder = taskExecutorService.takeTask(this, takeCount);
+                    if (null != taskHolder) {
+                        process(taskHolder);
                     }
                 }
+            } finally {
+                // Tasks of this processor are picked up by the other processors or the next processors started
+                taskExecutorService.onProcessorStopped(this);
             }
-            log.info("Task processor stopped. Task queue size " + taskHolderQueue.size());
+            log.info("Task processor stopped");
         } else {
             log.error("Task processor is already running ");
             throw new IllegalStateException("Task processor is already running");
         }
         return true;
     }
+
+    /**
+     * Process a task taken from a queue
+     *
+     * @param taskHolder {@link TaskHolder} of the task
+     */
+    private void process(TaskHolder taskHolder) {
+        if (taskHolder.isDisabled()) {
+            // Disabled Tasks will get removed from the queue
+            taskHolder.onRemoveTask();
+            return;
+        }
+        if (!taskHolder.startProcessing()) {
+            // Task is processed through another queue entry
+            return;
+        }
+
+        // Task is queued again after an error, as it would if active
+        Task.TaskHint hint = Task.TaskHint.ACTIVE;
+        try {
+            int weight = taskHolder.getWeight();
+            for (int run = 0; run < weight && Task.TaskHint.ACTIVE == hint && isActive.get(); run++) {
+                hint = taskHolder.executeTask();
+            }
+        } catch (Throwable throwable) {
+            taskExceptionHandler.handleException(throwable, taskHolder.getId());
+        } finally {
+            if (taskHolder.isDisabled()) {
+                taskHolder.onRemoveTask();
+            } else if (Task.TaskHint.ACTIVE == hint) {
+                taskHolder.requeue();
+                taskHolderQueue.addLast(taskHolder);
+                if (taskHolderQueue.peekFirst() != taskHolder) {
+                    // Other tasks are waiting. Let an idle processor steal one.
+                    taskExecutorService.wakeUpIdleProcessor();
+                }
+            } else {
+                int parkCount = taskHolder.park();
+                if (parkCount < 0) {
+                    // Signalled while running
+                    taskHolderQueue.addLast(taskHolder);
+                } else {
+                    taskExecutorService.scheduleWakeUp(taskHolder, parkCount);
+                }
+            }
+        }
+    }
+
+    /**
+     * Take a task from the head of the queue of this processor
+     *
+     * @return {@link TaskHolder} or null if there are no tasks
+     */
+    TaskHolder pollOwnTask() {
+        return taskHolderQueue.pollFirst();
+    }
+
+    /**
+     * Take a task from the tail of the queue of this processor for another processor. Tasks in the queue are waiting
+     * while this processor works on another task.
+     *
+     * @return {@link TaskHolder} or null if there is nothing to steal
+     */
+    TaskHolder stealTask() {
+        return taskHolderQueue.pollLast();
+    }
+
+    /**
+     * Whether there are tasks waiting in the queue of this processor
+     *
+     * @return true if the queue is not empty
+     */
+    boolean hasTasks() {
+        return !taskHolderQueue.isEmpty();
+    }
 }
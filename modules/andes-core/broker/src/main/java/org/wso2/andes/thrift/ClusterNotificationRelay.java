@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.thrift;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.andes.thrift.slot.gen.ClusterNotificationInfo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays cluster notification publications through the coordinator. A node storing cluster notifications in the
+ * database tells the coordinator, which advances the notification version and wakes up the nodes waiting for a
+ * version change, so that they read their notifications right away instead of waiting for the next database poll.
+ * <p>
+ * Only the version is relayed. Notifications are still read from the database, hence a missed wake up only delays a
+ * notification until the fallback poll.
+ */
+public class ClusterNotificationRelay {
+
+    private static Log log = LogFactory.getLog(ClusterNotificationRelay.class);
+
+    private static ClusterNotificationRelay instance = new ClusterNotificationRelay();
+
+    /**
+     * Incremented each time a node publishes cluster notifications. Guarded by this.
+     */
+    private long version;
+
+    /**
+     * Time the latest notifications were published at the originating node. Guarded by this.
+     */
+    private long lastPublishedTime;
+
+    private ClusterNotificationRelay() {
+    }
+
+    /**
+     * @return ClusterNotificationRelay instance
+     */
+    public static ClusterNotificationRelay getInstance() {
+        return instance;
+    }
+
+    /**
+     * Advance the notification version and wake up the waiting nodes
+     *
+     * @param nodeId        node which published the notifications
+     * @param publishedTime time the notifications were published at the originating node
+     */
+    public synchronized void notificationsPublished(String nodeId, long publishedTime) {
+        version++;
+        lastPublishedTime = publishedTime;
+        notifyAll();
+        if (log.isDebugEnabled()) {
+            log.debug("Cluster notifications published by node " + nodeId + ". Notification version " + version);
+        }
+    }
+
+    /**
+     * Wait until the notification version differs from the last version seen by the caller or the timeout elapses.
+     * The version is compared for inequality rather than order since a newly elected coordinator starts counting
+     * from zero.
+     *
+     * @param lastSeenVersion version last seen by the caller
+     * @param timeout         maximum time to wait in milliseconds
+     * @return current notification version and the time of the latest publication
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized ClusterNotificationInfo awaitNotifications(long lastSeenVersion, long timeout)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        long remainingNanos = deadline - System.nanoTime();
+        while (version == lastSeenVersion && remainingNanos > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+            remainingNanos = deadline - System.nanoTime();
+        }
+        return new ClusterNotificationInfo(version, lastPublishedTime);
+    }
+}
@@ -21,31 +21,36 @@ package org.wso2.andes.thrift;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.thrift.TException;
-import org.apache.thrift.protocol.TBinaryProtocol;
-import org.apache.thrift.protocol.TProtocol;
-import org.apache.thrift.transport.TSocket;
-import org.apache.thrift.transport.TTransport;
 import org.apache.thrift.transport.TTransportException;
 import org.wso2.andes.configuration.AndesConfigurationManager;
 import org.wso2.andes.configuration.enums.AndesConfiguration;
 import org.wso2.andes.kernel.AndesContext;
 import org.wso2.andes.kernel.slot.ConnectionException;
 import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.kernel.slot.SlotSubmission;
 import org.wso2.andes.server.cluster.ClusterAgent;
 import org.wso2.andes.thrift.exception.ThriftClientException;
 import org.wso2.andes.thrift.slot.gen.SlotInfo;
 import org.wso2.andes.thrift.slot.gen.SlotManagementService;
+import org.wso2.andes.thrift.slot.gen.SlotSubmissionInfo;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * A wrapper client for the native thrift client. All the public methods in this class are
- * synchronized in order to avoid out of sequence response exception from thrift server. Only one
- * method should be triggered at a time in order to get the responses from the server in order.
+ * A wrapper client for the native thrift client. A thrift client can only have one call in flight, hence calls are
+ * made over a pool of connections to the coordinator so that threads calling the coordinator do not wait behind each
+ * other's calls. Slot requests made by different threads while a slot request call is in flight are sent together in
+ * the next call.
  */
 
 public class MBThriftClient {
@@ -54,11 +59,12 @@ public class MBThriftClient {
      * A state variable to indicate whether the reconnecting  to the thrift server is started or
      * not
      */
-    private static boolean reconnectingStarted = false;
+    private static volatile boolean reconnectingStarted = false;
 
-    private static TTransport transport;
-
-    private static SlotManagementService.Client client = null;
+    /**
+     * Maximum number of slot requests sent to the coordinator in one call
+     */
+    private static final int MAX_SLOT_REQUESTS_PER_CALL = 100;
 
     private static final Log log = LogFactory.getLog(MBThriftClient.class);
 
@@ -66,6 +72,19 @@ public class MBThriftClient {
 
     private static AtomicBoolean isConnected = new AtomicBoolean(false);
 
+    private static final ThriftClientPool clientPool = new ThriftClientPool(
+            AndesConfigurationManager.<Integer>readValue(AndesConfiguration.COORDINATION_THRIFT_CLIENT_POOL_SIZE));
+
+    /**
+     * Slot requests waiting to be sent to the coordinator
+     */
+    private static final Queue<SlotRequest> pendingSlotRequests = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Held by the thread sending the pending slot requests
+     */
+    private static final Lock slotRequestLock = new ReentrantLock();
+
     /**
      * getSlot method. Returns Slot Object, when the
      * queue name is given
@@ -75,25 +94,87 @@ public class MBThriftClient {
      * @return slot object
      * @throws ConnectionException
      */
-    public static synchronized Slot getSlot(String queueName, String nodeId) throws ConnectionException {
-        SlotInfo slotInfo;
+    public static Slot getSlot(String queueName, String nodeId) throws ConnectionException {
+        SlotRequest slotRequest = new SlotRequest(queueName, nodeId);
+        pendingSlotRequests.add(slotRequest);
+
+        slotRequestLock.lock();
         try {
-            client = getServiceClient();
-            slotInfo = client.getSlotInfo(queueName, nodeId);
-            return convertSlotInforToSlot(slotInfo);
-        } catch (TException e) {
-            try {
-                //retry once
-                reConnectToServer();
-                slotInfo = client.getSlotInfo(queueName, nodeId);
-                return convertSlotInforToSlot(slotInfo);
-            } catch (TException e1) {
-                handleCoordinatorChanges();
-                throw new ConnectionException("Coordinator has changed", e);
+            // The request may have been sent by the thread which held the lock before
+            while (!slotRequest.completed) {
+                sendPendingSlotRequests();
+            }
+        } finally {
+            slotRequestLock.unlock();
+        }
+
+        if (null != slotRequest.error) {
+            throw slotRequest.error;
+        }
+        return slotRequest.slot;
+    }
+
+    /**
+     * Send pending slot requests to the coordinator. Requests of each node are sent in one call.
+     */
+    private static void sendPendingSlotRequests() {
+        Map<String, List<SlotRequest>> slotRequestsByNode = new LinkedHashMap<>();
+        for (int i = 0; i < MAX_SLOT_REQUESTS_PER_CALL; i++) {
+            SlotRequest slotRequest = pendingSlotRequests.poll();
+            if (null == slotRequest) {
+                break;
+            }
+            List<SlotRequest> slotRequests = slotRequestsByNode.get(slotRequest.nodeId);
+            if (null == slotRequests) {
+                slotRequests = new ArrayList<>();
+                slotRequestsByNode.put(slotRequest.nodeId, slotRequests);
+            }
+            slotRequests.add(slotRequest);
+        }
+
+        for (Map.Entry<String, List<SlotRequest>> nodeSlotRequests : slotRequestsByNode.entrySet()) {
+            sendSlotRequests(nodeSlotRequests.getKey(), nodeSlotRequests.getValue());
+        }
+    }
+
+    /**
+     * Get slots for the given requests of a node from the coordinator and complete the requests
+     *
+     * @param nodeId       id of the node requesting the slots
+     * @param slotRequests slot requests
+     */
+    private static void sendSlotRequests(final String nodeId, List<SlotRequest> slotRequests) {
+        final List<String> queueNames = new ArrayList<>(slotRequests.size());
+        for (SlotRequest slotRequest : slotRequests) {
+            queueNames.add(slotRequest.queueName);
+        }
+
+        try {
+            List<SlotInfo> slotInfoList = execute(new ClientCall<List<SlotInfo>>() {
+                @Override
+                public List<SlotInfo> call(SlotManagementService.Client client) throws TException {
+                    if (1 == queueNames.size()) {
+                        List<SlotInfo> slotInfoList = new ArrayList<>(1);
+                        slotInfoList.add(client.getSlotInfo(queueNames.get(0), nodeId));
+                        return slotInfoList;
+                    }
+                    return client.getSlotInfos(queueNames, nodeId);
+                }
+            });
+            for (int i = 0; i < slotRequests.size(); i++) {
+                slotRequests.get(i).complete(convertSlotInforToSlot(slotInfoList.get(i)), null);
+            }
+        } catch (ConnectionException e) {
+            for (SlotRequest slotRequest : slotRequests) {
+                slotRequest.complete(null, e);
             }
         } catch (ThriftClientException e) {
             handleCoordinatorChanges();
-            throw new ConnectionException("Error occurred in thrift client " + e.getMessage(), e);
+            ConnectionException connectionException =
+                    new ConnectionException("Error occurred in thrift client " + e.getMessage(), e);
+            for (SlotRequest slotRequest : slotRequests) {
+                slotRequest.complete(null, connectionException);
+            }
         }
     }
 
@@ -133,21 +214,46 @@ public class MBThriftClient {
      * @param localSafeZone Minimum message ID of the node that is deemed safe.
      * @throws TException in case of an connection error
      */
-    public static synchronized void updateMessageId(String queueName, String nodeId,
-                                                    long startMessageId, long endMessageId, long localSafeZone) throws ConnectionException {
+    public static void updateMessageId(final String queueName, final String nodeId, final long startMessageId,
+                                       final long endMessageId, final long localSafeZone) throws ConnectionException {
         try {
-            client = getServiceClient();
-            client.updateMessageId(queueName, nodeId, startMessageId, endMessageId, localSafeZone);
-        } catch (TException e) {
-            try {
-                //retry once
-                reConnectToServer();
-                client.updateMessageId(queueName, nodeId, startMessageId, endMessageId, localSafeZone);
-            } catch (TException e1) {
-                handleCoordinatorChanges();
-                throw new ConnectionException("Coordinator has changed", e);
-            }
+            execute(new ClientCall<Void>() {
+                @Override
+                public Void call(SlotManagementService.Client client) throws TException {
+                    client.updateMessageId(queueName, nodeId, startMessageId, endMessageId, localSafeZone);
+                    return null;
+                }
+            });
+        } catch (ThriftClientException e) {
+            log.error("Error occurred while receiving coordinator details from map", e);
+            handleCoordinatorChanges();
+        }
+    }
 
+    /**
+     * Pass slot ranges of several queues chosen locally to the SlotManagerClusterMode in one call
+     *
+     * @param nodeId          unique hazelcast identifier of node.
+     * @param slotSubmissions slot ranges in the order they were chosen
+     * @throws ConnectionException in case of an connection error
+     */
+    public static void updateMessageIds(final String nodeId, List<SlotSubmission> slotSubmissions)
+            throws ConnectionException {
+        final List<SlotSubmissionInfo> slotSubmissionInfoList = new ArrayList<>(slotSubmissions.size());
+        for (SlotSubmission slotSubmission : slotSubmissions) {
+            slotSubmissionInfoList.add(new SlotSubmissionInfo(slotSubmission.getQueueName(),
+                    slotSubmission.getStartMessageId(), slotSubmission.getEndMessageId(),
+                    slotSubmission.getLocalSafeZone()));
+        }
+
+        try {
+            execute(new ClientCall<Void>() {
+                @Override
+                public Void call(SlotManagementService.Client client) throws TException {
+                    client.updateMessageIds(nodeId, slotSubmissionInfoList);
+                    return null;
+                }
+            });
         } catch (ThriftClientException e) {
             log.error("Error occurred while receiving coordinator details from map", e);
             handleCoordinatorChanges();
@@ -162,23 +268,18 @@ public class MBThriftClient {
      * @param slot      to be deleted
      * @throws TException
      */
-    public static synchronized boolean deleteSlot(String queueName, Slot slot,
-                                               String nodeId) throws ConnectionException {
-        SlotInfo slotInfo = new SlotInfo(slot.getStartMessageId(), slot.getEndMessageId(),
+    public static boolean deleteSlot(final String queueName, Slot slot, final String nodeId)
+            throws ConnectionException {
+        final SlotInfo slotInfo = new SlotInfo(slot.getStartMessageId(), slot.getEndMessageId(),
                 slot.getStorageQueueName(),nodeId,slot.isAnOverlappingSlot());
         boolean deleteSuccess = false;
         try {
-            client = getServiceClient();
-            deleteSuccess = client.deleteSlot(queueName, slotInfo, nodeId);
-        } catch (TException e) {
-            try {
-                //retry to connect once
-                reConnectToServer();
-                deleteSuccess = client.deleteSlot(queueName, slotInfo, nodeId);
-            } catch (TException e1) {
-                handleCoordinatorChanges();
-                throw new ConnectionException("Coordinator has changed", e);
-            }
+            deleteSuccess = execute(new ClientCall<Boolean>() {
+                @Override
+                public Boolean call(SlotManagementService.Client client) throws TException {
+                    return client.deleteSlot(queueName, slotInfo, nodeId);
+                }
+            });
         } catch (ThriftClientException e) {
             log.error("Error occurred while receiving coordinator details from map", e);
             handleCoordinatorChanges();
@@ -194,20 +295,16 @@ public class MBThriftClient {
      * @param queueName name of the queue
      * @throws TException
      */
-    public static synchronized void reAssignSlotWhenNoSubscribers(String nodeId,
-                                                                  String queueName) throws ConnectionException {
+    public static void reAssignSlotWhenNoSubscribers(final String nodeId, final String queueName)
+            throws ConnectionException {
         try {
-            client = getServiceClient();
-            client.reAssignSlotWhenNoSubscribers(nodeId, queueName);
-        } catch (TException e) {
-            try {
-                //retry to do the operation once
-                reConnectToServer();
-                client.reAssignSlotWhenNoSubscribers(nodeId, queueName);
-            } catch (TException e1) {
-                handleCoordinatorChanges();
-                throw new ConnectionException("Coordinator has changed", e);
-            }
+            execute(new ClientCall<Void>() {
+                @Override
+                public Void call(SlotManagementService.Client client) throws TException {
+                    client.reAssignSlotWhenNoSubscribers(nodeId, queueName);
+                    return null;
+                }
+            });
         } catch (ThriftClientException e) {
             log.error("Error occurred while receiving coordinator details from map", e);
             handleCoordinatorChanges();
@@ -220,20 +317,16 @@ public class MBThriftClient {
      * @param queueName name of destination queue
      * @throws ConnectionException
      */
-    public static synchronized void clearAllActiveSlotRelationsToQueue(String queueName) throws ConnectionException {
+    public static void clearAllActiveSlotRelationsToQueue(final String queueName) throws ConnectionException {
 
         try {
-            client = getServiceClient();
-            client.clearAllActiveSlotRelationsToQueue(queueName);
-        } catch (TException e) {
-            try {
-                //retry to do the operation once
-                reConnectToServer();
-                client.clearAllActiveSlotRelationsToQueue(queueName);
-            } catch (TException e1) {
-                handleCoordinatorChanges();
-                throw new ConnectionException("Coordinator has changed", e);
-            }
+            execute(new ClientCall<Void>() {
+                @Override
+                public Void call(SlotManagementService.Client client) throws TException {
+                    client.clearAllActiveSlotRelationsToQueue(queueName);
+                    return null;
+                }
+            });
         } catch (ThriftClientException e) {
             log.error("Could not initialize the Thrift client." + e.getMessage(), e);
             handleCoordinatorChanges();
@@ -241,36 +334,68 @@ public class MBThriftClient {
     }
 
     /**
-     * Returns an instance of Slot Management service client which is used to communicate to the
-     * thrift server. If it does not succeed in connecting to the server, it throws a  TTransportException
+     * Notify the coordinator that this node stored cluster notifications so that the other nodes read them without
+     * waiting for the next database poll.
      *
-     * @return a SlotManagementService client
+     * @param nodeId        id of this node
+     * @param publishedTime time the notifications were stored
+     * @throws ConnectionException
      */
-    private static SlotManagementService.Client getServiceClient() throws TTransportException, ThriftClientException {
-
-        if (client == null) {
-            ClusterAgent clusterAgent =  AndesContext.getInstance().getClusterAgent();
-            InetSocketAddress thriftAddressOfCoordinator = clusterAgent.getThriftAddressOfCoordinator();
-
-            if (null == thriftAddressOfCoordinator) {
-                throw new ThriftClientException("Thrift coordinator details are not updated in the map yet");
-            }
-
-            int soTimeout = AndesConfigurationManager.readValue(AndesConfiguration.COORDINATION_THRIFT_SO_TIMEOUT);
+    public static void clusterNotificationsPublished(final String nodeId, final long publishedTime)
+            throws ConnectionException {
+        try {
+            execute(new ClientCall<Void>() {
+                @Override
+                public Void call(SlotManagementService.Client client) throws TException {
+                    client.clusterNotificationsPublished(nodeId, publishedTime);
+                    return null;
+                }
+            });
+        } catch (ThriftClientException e) {
+            log.error("Could not initialize the Thrift client." + e.getMessage(), e);
+            handleCoordinatorChanges();
+        }
+    }
 
-            transport = new TSocket(thriftAddressOfCoordinator.getHostName(), thriftAddressOfCoordinator.getPort(),
-                    soTimeout);
+    /**
+     * Make a call to the coordinator with a pooled client. The call is retried once with a new connection if it
+     * fails.
+     *
+     * @param clientCall call to be made
+     * @param <T>        result type of the call
+     * @return result of the call
+     * @throws ConnectionException   if the call failed after the retry
+     * @throws ThriftClientException if the thrift address of the coordinator is not known yet
+     */
+    private static <T> T execute(ClientCall<T> clientCall) throws ConnectionException, ThriftClientException {
+        try {
+            return call(clientPool.borrow(), clientCall);
+        } catch (TException e) {
             try {
-                transport.open();
-                TProtocol protocol = new TBinaryProtocol(transport);
-                return new SlotManagementService.Client(protocol);
-            } catch (TTransportException e) {
-                log.error("Could not initialize the Thrift client", e);
-                throw new TTransportException("Could not initialize the Thrift client", e);
+                //retry once
+                return call(reConnectToServer(), clientCall);
+            } catch (TException e1) {
+                handleCoordinatorChanges();
+                throw new ConnectionException("Coordinator has changed", e);
             }
         }
+    }
 
-        return client;
+    /**
+     * Make a call with the given client. The client is returned to the pool if the call succeeded and discarded
+     * otherwise.
+     */
+    private static <T> T call(ThriftClientPool.PooledClient pooledClient, ClientCall<T> clientCall)
+            throws TException {
+        T result;
+        try {
+            result = clientCall.call(pooledClient.getClient());
+        } catch (TException | RuntimeException e) {
+            clientPool.discard(pooledClient);
+            throw e;
+        }
+        clientPool.release(pooledClient);
+        return result;
     }
 
     /**
@@ -279,7 +404,7 @@ public class MBThriftClient {
     private static void handleCoordinatorChanges() {
 
         notifyDisconnection();
-        resetServiceClient();
+        clientPool.reset();
         if (!isReconnectingStarted()) {
             setReconnectingFlag(true);
             startServerReconnectingThread();
@@ -297,48 +422,42 @@ public class MBThriftClient {
         }
     }
 
-    /**
-     * Set mbThriftClient to null
-     */
-    private static void resetServiceClient() {
-        client = null;
-        transport.close();
-    }
-
     /**
      * Try to reconnect to server by taking latest values in the hazelcalst thrift server details
-     * map
+     * map. Connections made to the server before are not reused.
      *
+     * @return client connected to the server, to be returned to the pool after use
      * @throws TTransportException when connecting to thrift server is unsuccessful
      */
-    private static void reConnectToServer() throws TTransportException {
+    private static ThriftClientPool.PooledClient reConnectToServer() throws TTransportException {
         Long reconnectTimeout = (Long) AndesConfigurationManager.readValue
                 (AndesConfiguration.COORDINATOR_THRIFT_RECONNECT_TIMEOUT) * 1000;
         try {
             //Reconnect timeout set because Hazelcast coordinator may still not elected in failover scenario
             Thread.sleep(reconnectTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
-            ClusterAgent clusterAgent =  AndesContext.getInstance().getClusterAgent();
-            InetSocketAddress thriftAddressOfCoordinator = clusterAgent.getThriftAddressOfCoordinator();
+        clientPool.reset();
 
-            if (null == thriftAddressOfCoordinator) {
-                throw new TTransportException("Thrift coordinator details are not updated in the map yet");
-            }
+        ClusterAgent clusterAgent =  AndesContext.getInstance().getClusterAgent();
+        InetSocketAddress thriftAddressOfCoordinator = clusterAgent.getThriftAddressOfCoordinator();
 
-            int soTimeout = AndesConfigurationManager.readValue(AndesConfiguration.COORDINATION_THRIFT_SO_TIMEOUT);
-
-            transport = new TSocket(thriftAddressOfCoordinator.getHostName(), thriftAddressOfCoordinator.getPort(),
-                    soTimeout);
-            log.info("Reconnecting to Slot Coordinator " + thriftAddressOfCoordinator.toString());
+        if (null == thriftAddressOfCoordinator) {
+            throw new TTransportException("Thrift coordinator details are not updated in the map yet");
+        }
 
-            transport.open();
-            TProtocol protocol = new TBinaryProtocol(transport);
-            client = new SlotManagementService.Client(protocol);
+        log.info("Reconnecting to Slot Coordinator " + thriftAddressOfCoordinator.toString());
+        try {
+            ThriftClientPool.PooledClient pooledClient = clientPool.borrow();
             notifyConnection();
+            return pooledClient;
         } catch (TTransportException e) {
             log.error("Could not connect to the Thrift Server" , e);
             throw new TTransportException("Could not connect to the Thrift Server", e);
-        } catch (InterruptedException ignore) {
+        } catch (ThriftClientException e) {
+            throw new TTransportException(e.getMessage(), e);
         }
     }
 
@@ -367,7 +486,7 @@ public class MBThriftClient {
                 while (reconnectingStarted) {
 
                     try {
-                        reConnectToServer();
+                        clientPool.release(reConnectToServer());
                         // If re connect to server is successful, following code segment will be executed
                         reconnectingStarted = false;
                     } catch (Throwable e) {
@@ -411,21 +530,16 @@ public class MBThriftClient {
      * @return global safeZone
      * @throws ConnectionException when MB thrift server is down
      */
-    public static synchronized long updateSlotDeletionSafeZone(long safeZoneMessageID, String nodeID) throws ConnectionException {
+    public static long updateSlotDeletionSafeZone(final long safeZoneMessageID, final String nodeID)
+            throws ConnectionException {
         long globalSafeZone = 0;
         try {
-            client = getServiceClient();
-            globalSafeZone = client.updateCurrentMessageIdForSafeZone(safeZoneMessageID, nodeID);
-        } catch (TException e) {
-            try {
-                //retry once
-                reConnectToServer();
-                globalSafeZone = client.updateCurrentMessageIdForSafeZone(safeZoneMessageID, nodeID);
-                return globalSafeZone;
-            } catch (TException e1) {
-                handleCoordinatorChanges();
-                throw new ConnectionException("Coordinator has changed", e);
-            }
+            globalSafeZone = execute(new ClientCall<Long>() {
+                @Override
+                public Long call(SlotManagementService.Client client) throws TException {
+                    return client.updateCurrentMessageIdForSafeZone(safeZoneMessageID, nodeID);
+                }
+            });
         } catch (ThriftClientException e) {
             log.error("Error occurred while receiving coordinator details from map", e);
             handleCoordinatorChanges();
@@ -433,4 +547,41 @@ public class MBThriftClient {
 
         return globalSafeZone;
     }
+
+    /**
+     * A call made to the coordinator
+     *
+     * @param <T> result type of the call
+     */
+    private interface ClientCall<T> {
+
+        T call(SlotManagementService.Client client) throws TException;
+    }
+
+    /**
+     * A request for a slot waiting to be sent to the coordinator. Completed while holding the slot request lock.
+     */
+    private static final class SlotRequest {
+
+        private final String queueName;
+
+        private final String nodeId;
+
+        private boolean completed;
+
+        private Slot slot;
+
+        private ConnectionException error;
+
+        private SlotRequest(String queueName, String nodeId) {
+            this.queueName = queueName;
+            this.nodeId = nodeId;
+        }
+
+        private void complete(Slot slot, ConnectionException error) {
+            this.slot = slot;
+            this.error = error;
+            completed = true;
+        }
+    }
 }
@@ -18,13 +18,21 @@
 
 package org.wso2.andes.thrift;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.thrift.TException;
 import org.wso2.andes.kernel.AndesContext;
 import org.wso2.andes.kernel.AndesException;
 import org.wso2.andes.kernel.slot.Slot;
 import org.wso2.andes.kernel.slot.SlotManagerClusterMode;
+import org.wso2.andes.kernel.slot.SlotSubmission;
+import org.wso2.andes.thrift.slot.gen.ClusterNotificationInfo;
 import org.wso2.andes.thrift.slot.gen.SlotInfo;
 import org.wso2.andes.thrift.slot.gen.SlotManagementService;
+import org.wso2.andes.thrift.slot.gen.SlotSubmissionInfo;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This is the implementation of SlotManagementService interface. This class contains operations
@@ -34,6 +42,8 @@ import org.wso2.andes.thrift.slot.gen.SlotManagementService;
 
 public class SlotManagementServiceImpl implements SlotManagementService.Iface {
 
+    private static final Log log = LogFactory.getLog(SlotManagementServiceImpl.class);
+
     private static SlotManagerClusterMode slotManager = SlotManagerClusterMode.getInstance();
 
     @Override
@@ -59,7 +69,7 @@ public class SlotManagementServiceImpl implements SlotManagementService.Iface {
     public void updateMessageId(String queueName, String nodeId, long startMessageId, long endMessageId, long localSafeZone) throws TException {
         if (AndesContext.getInstance().getClusterAgent().isCoordinator()) {
             try {
-                slotManager.updateMessageID(queueName, nodeId, startMessageId, endMessageId, localSafeZone);
+                slotManager.updateSubmittedMessageID(queueName, nodeId, startMessageId, endMessageId, localSafeZone);
             } catch (AndesException e) {
                 throw new TException("Failed to update message id for queue: " + queueName + " nodeId: " + nodeId, e);
             }
@@ -125,4 +135,72 @@ public class SlotManagementServiceImpl implements SlotManagementService.Iface {
         }
     }
 
+    @Override
+    public void clusterNotificationsPublished(String nodeId, long publishedTime) throws TException {
+        if (AndesContext.getInstance().getClusterAgent().isCoordinator()) {
+            ClusterNotificationRelay.getInstance().notificationsPublished(nodeId, publishedTime);
+        } else {
+            throw new TException("This node is not the slot coordinator right now");
+        }
+    }
+
+    @Override
+    public ClusterNotificationInfo waitForClusterNotifications(String nodeId, long lastSeenVersion, long timeout)
+            throws TException {
+        if (AndesContext.getInstance().getClusterAgent().isCoordinator()) {
+            try {
+                return ClusterNotificationRelay.getInstance().awaitNotifications(lastSeenVersion, timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TException("Interrupted while waiting for cluster notifications for nodeId: " + nodeId, e);
+            }
+        } else {
+            throw new TException("This node is not the slot coordinator right now");
+        }
+    }
+
+    @Override
+    public void updateMessageIds(String nodeId, List<SlotSubmissionInfo> slotSubmissions) throws TException {
+        if (AndesContext.getInstance().getClusterAgent().isCoordinator()) {
+            List<SlotSubmission> submissions = new ArrayList<>(slotSubmissions.size());
+            for (SlotSubmissionInfo slotSubmission : slotSubmissions) {
+                submissions.add(new SlotSubmission(slotSubmission.getQueueName(), slotSubmission.getStartMessageId(),
+                        slotSubmission.getEndMessageId(), slotSubmission.getLocalSafeZone()));
+            }
+            try {
+                // Entries applied before a failure are skipped when the node retries the call
+                slotManager.updateSubmittedMessageIDs(nodeId, submissions);
+            } catch (AndesException e) {
+                throw new TException("Failed to update message ids for nodeId: " + nodeId, e);
+            }
+        } else {
+            throw new TException("This node is not the slot coordinator right now");
+        }
+    }
+
+    @Override
+    public List<SlotInfo> getSlotInfos(List<String> queueNames, String nodeId) throws TException {
+        if (AndesContext.getInstance().getClusterAgent().isCoordinator()) {
+            List<SlotInfo> slotInfoList = new ArrayList<>(queueNames.size());
+            for (String queueName : queueNames) {
+                SlotInfo slotInfo = new SlotInfo();
+                try {
+                    Slot slot = slotManager.getSlot(queueName, nodeId);
+                    if (null != slot) {
+                        slotInfo = new SlotInfo(slot.getStartMessageId(), slot.getEndMessageId(),
+                                slot.getStorageQueueName(), nodeId, slot.isAnOverlappingSlot());
+                    }
+                } catch (AndesException e) {
+                    // Failing the whole call would leave slots already assigned in this call with no owner. The
+                    // node asks for a slot of this queue again later.
+                    log.error("Failed to get slot info for queue: " + queueName + " nodeId: " + nodeId, e);
+                }
+                slotInfoList.add(slotInfo);
+            }
+            return slotInfoList;
+        } else {
+            throw new TException("This node is not the slot coordinator right now");
+        }
+    }
+
 }
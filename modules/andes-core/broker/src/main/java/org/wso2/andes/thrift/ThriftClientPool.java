@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.thrift;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+import org.wso2.andes.configuration.AndesConfigurationManager;
+import org.wso2.andes.configuration.enums.AndesConfiguration;
+import org.wso2.andes.kernel.AndesContext;
+import org.wso2.andes.server.cluster.ClusterAgent;
+import org.wso2.andes.thrift.exception.ThriftClientException;
+import org.wso2.andes.thrift.slot.gen.SlotManagementService;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of connections to the thrift server of the slot coordinator. A thrift client can only have one call in flight,
+ * hence each thread calling the coordinator borrows a client of its own. The number of open connections is bounded by
+ * the pool size and threads wait for a client when all of them are in use.
+ * <p>
+ * When the coordinator changes the pool is reset. Clients borrowed before the reset are closed when they are returned.
+ */
+class ThriftClientPool {
+
+    private static final Log log = LogFactory.getLog(ThriftClientPool.class);
+
+    /**
+     * Permits for clients in use or idle
+     */
+    private final Semaphore clientPermits;
+
+    /**
+     * Idle clients. Most recently used clients are reused first so that the others can time out at the server.
+     */
+    private final ConcurrentLinkedDeque<PooledClient> idleClients = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Incremented on each reset. Clients connected before the last reset are not reused.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * Create a pool
+     *
+     * @param poolSize maximum number of clients connected at once
+     */
+    ThriftClientPool(int poolSize) {
+        clientPermits = new Semaphore(Math.max(1, poolSize));
+    }
+
+    /**
+     * Borrow a client. An idle client is reused if there is one, otherwise a new connection is made to the current
+     * coordinator. Waits if the maximum number of clients are in use.
+     *
+     * @return client to be returned through {@link #release(PooledClient)} or {@link #discard(PooledClient)}
+     * @throws TTransportException   if connecting to the coordinator failed
+     * @throws ThriftClientException if the thrift address of the coordinator is not known yet
+     */
+    PooledClient borrow() throws TTransportException, ThriftClientException {
+        clientPermits.acquireUninterruptibly();
+        try {
+            int currentGeneration = generation.get();
+            PooledClient pooledClient = idleClients.pollFirst();
+            while (null != pooledClient) {
+                if (pooledClient.generation == currentGeneration) {
+                    return pooledClient;
+                }
+                pooledClient.close();
+                pooledClient = idleClients.pollFirst();
+            }
+            return connect(currentGeneration);
+        } catch (TTransportException | ThriftClientException | RuntimeException e) {
+            clientPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a client after a successful call so that it can be reused
+     *
+     * @param pooledClient borrowed client
+     */
+    void release(PooledClient pooledClient) {
+        if (pooledClient.generation == generation.get()) {
+            idleClients.offerFirst(pooledClient);
+        } else {
+            pooledClient.close();
+        }
+        clientPermits.release();
+    }
+
+    /**
+     * Close a client after a failed call
+     *
+     * @param pooledClient borrowed client
+     */
+    void discard(PooledClient pooledClient) {
+        pooledClient.close();
+        clientPermits.release();
+    }
+
+    /**
+     * Close idle clients and stop reusing clients in use. Called when the connection to the coordinator is lost.
+     */
+    void reset() {
+        generation.incrementAndGet();
+        PooledClient pooledClient = idleClients.pollFirst();
+        while (null != pooledClient) {
+            pooledClient.close();
+            pooledClient = idleClients.pollFirst();
+        }
+    }
+
+    /**
+     * Connect to the thrift server of the current coordinator
+     *
+     * @param clientGeneration generation of the pool the client belongs to
+     * @return connected client
+     */
+    private PooledClient connect(int clientGeneration) throws TTransportException, ThriftClientException {
+        ClusterAgent clusterAgent = AndesContext.getInstance().getClusterAgent();
+        InetSocketAddress thriftAddressOfCoordinator = clusterAgent.getThriftAddressOfCoordinator();
+
+        if (null == thriftAddressOfCoordinator) {
+            throw new ThriftClientException("Thrift coordinator details are not updated in the map yet");
+        }
+
+        int soTimeout = AndesConfigurationManager.readValue(AndesConfiguration.COORDINATION_THRIFT_SO_TIMEOUT);
+
+        TTransport transport = new TSocket(thriftAddressOfCoordinator.getHostName(),
+                thriftAddressOfCoordinator.getPort(), soTimeout);
+        try {
+            transport.open();
+        } catch (TTransportException e) {
+            log.error("Could not initialize the Thrift client", e);
+            throw new TTransportException("Could not initialize the Thrift client", e);
+        }
+        return new PooledClient(transport, clientGeneration);
+    }
+
+    /**
+     * A thrift client with its connection
+     */
+    static final class PooledClient {
+
+        private final TTransport transport;
+
+        private final SlotManagementService.Client client;
+
+        private final int generation;
+
+        private PooledClient(TTransport transport, int generation) {
+            this.transport = transport;
+            this.generation = generation;
+            client = new SlotManagementService.Client(new TBinaryProtocol(transport));
+        }
+
+        SlotManagementService.Client getClient() {
+            return client;
+        }
+
+        private void close() {
+            transport.close();
+        }
+    }
+}
@@ -43,6 +43,14 @@ public class SlotManagementService {
      */
     public void clearAllActiveSlotRelationsToQueue(String queueName) throws org.apache.thrift.TException;
 
+    public void clusterNotificationsPublished(String nodeId, long publishedTime) throws org.apache.thrift.TException;
+
+    public ClusterNotificationInfo waitForClusterNotifications(String nodeId, long lastSeenVersion, long timeout) throws org.apache.thrift.TException;
+
+    public void updateMessageIds(String nodeId, List<SlotSubmissionInfo> slotSubmissions) throws org.apache.thrift.TException;
+
+    public List<SlotInfo> getSlotInfos(List<String> queueNames, String nodeId) throws org.apache.thrift.TException;
+
   }
 
   public interface AsyncIface {
@@ -59,6 +67,14 @@ public class SlotManagementService {
 
     public void clearAllActiveSlotRelationsToQueue(String queueName, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.clearAllActiveSlotRelationsToQueue_call> resultHandler) throws org.apache.thrift.TException;
 
+    public void clusterNotificationsPublished(String nodeId, long publishedTime, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.clusterNotificationsPublished_call> resultHandler) throws org.apache.thrift.TException;
+
+    public void waitForClusterNotifications(String nodeId, long lastSeenVersion, long timeout, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.waitForClusterNotifications_call> resultHandler) throws org.apache.thrift.TException;
+
+    public void updateMessageIds(String nodeId, List<SlotSubmissionInfo> slotSubmissions, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.updateMessageIds_call> resultHandler) throws org.apache.thrift.TException;
+
+    public void getSlotInfos(List<String> queueNames, String nodeId, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.getSlotInfos_call> resultHandler) throws org.apache.thrift.TException;
+
   }
 
   public static class Client extends org.apache.thrift.TServiceClient implements Iface {
@@ -219,6 +235,97 @@ public class SlotManagementService {
       return;
     }
 
+    public void clusterNotificationsPublished(String nodeId, long publishedTime) throws org.apache.thrift.TException
+    {
+      send_clusterNotificationsPublished(nodeId, publishedTime);
+      recv_clusterNotificationsPublished();
+    }
+
+    public void send_clusterNotificationsPublished(String nodeId, long publishedTime) throws org.apache.thrift.TException
+    {
+      clusterNotificationsPublished_args args = new clusterNotificationsPublished_args();
+      args.setNodeId(nodeId);
+      args.setPublishedTime(publishedTime);
+      sendBase("clusterNotificationsPublished", args);
+    }
+
+    public void recv_clusterNotificationsPublished() throws org.apache.thrift.TException
+    {
+      clusterNotificationsPublished_result result = new clusterNotificationsPublished_result();
+      receiveBase(result, "clusterNotificationsPublished");
+      return;
+    }
+
+    public ClusterNotificationInfo waitForClusterNotifications(String nodeId, long lastSeenVersion, long timeout) throws org.apache.thrift.TException
+    {
+      send_waitForClusterNotifications(nodeId, lastSeenVersion, timeout);
+      return recv_waitForClusterNotifications();
+    }
+
+    public void send_waitForClusterNotifications(String nodeId, long lastSeenVersion, long timeout) throws org.apache.thrift.TException
+    {
+      waitForClusterNotifications_args args = new waitForClusterNotifications_args();
+      args.setNodeId(nodeId);
+      args.setLastSeenVersion(lastSeenVersion);
+      args.setTimeout(timeout);
+      sendBase("waitForClusterNotifications", args);
+    }
+
+    public ClusterNotificationInfo recv_waitForClusterNotifications() throws org.apache.thrift.TException
+    {
+      waitForClusterNotifications_result result = new waitForClusterNotifications_result();
+      receiveBase(result, "waitForClusterNotifications");
+      if (result.isSetSuccess()) {
+        return result.success;
+      }
+      throw new org.apache.thrift.TApplicationException(org.apache.thrift.TApplicationException.MISSING_RESULT, "waitForClusterNotifications failed: unknown result");
+    }
+
+    public void updateMessageIds(String nodeId, List<SlotSubmissionInfo> slotSubmissions) throws org.apache.thrift.TException
+    {
+      send_updateMessageIds(nodeId, slotSubmissions);
+      recv_updateMessageIds();
+    }
+
+    public void send_updateMessageIds(String nodeId, List<SlotSubmissionInfo> slotSubmissions) throws org.apache.thrift.TException
+    {
+      updateMessageIds_args args = new updateMessageIds_args();
+      args.setNodeId(nodeId);
+      args.setSlotSubmissions(slotSubmissions);
+      sendBase("updateMessageIds", args);
+    }
+
+    public void recv_updateMessageIds() throws org.apache.thrift.TException
+    {
+      updateMessageIds_result result = new updateMessageIds_result();
+      receiveBase(result, "updateMessageIds");
+      return;
+    }
+
+    public List<SlotInfo> getSlotInfos(List<String> queueNames, String nodeId) throws org.apache.thrift.TException
+    {
+      send_getSlotInfos(queueNames, nodeId);
+      return recv_getSlotInfos();
+    }
+
+    public void send_getSlotInfos(List<String> queueNames, String nodeId) throws org.apache.thrift.TException
+    {
+      getSlotInfos_args args = new getSlotInfos_args();
+      args.setQueueNames(queueNames);
+      args.setNodeId(nodeId);
+      sendBase("getSlotInfos", args);
+    }
+
+    public List<SlotInfo> recv_getSlotInfos() throws org.apache.thrift.TException
+    {
+      getSlotInfos_result result = new getSlotInfos_result();
+      receiveBase(result, "getSlotInfos");
+      if (result.isSetSuccess()) {
+        return result.success;
+      }
+      throw new org.apache.thrift.TApplicationException(org.apache.thrift.TApplicationException.MISSING_RESULT, "getSlotInfos failed: unknown result");
+    }
+
   }
   public static class AsyncClient extends org.apache.thrift.async.TAsyncClient implements AsyncIface {
     public static class Factory implements org.apache.thrift.async.TAsyncClientFactory<AsyncClient> {
@@ -456,6 +563,149 @@ public class SlotManagementService {
       }
     }
 
+    public void clusterNotificationsPublished(String nodeId, long publishedTime, org.apache.thrift.async.AsyncMethodCallback<clusterNotificationsPublished_call> resultHandler) throws org.apache.thrift.TException {
+      checkReady();
+      clusterNotificationsPublished_call method_call = new clusterNotificationsPublished_call(nodeId, publishedTime, resultHandler, this, ___protocolFactory, ___transport);
+      this.___currentMethod = method_call;
+      ___manager.call(method_call);
+    }
+
+    public static class clusterNotificationsPublished_call extends org.apache.thrift.async.TAsyncMethodCall {
+      private String nodeId;
+      private long publishedTime;
+      public clusterNotificationsPublished_call(String nodeId, long publishedTime, org.apache.thrift.async.AsyncMethodCallback<clusterNotificationsPublished_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
+        super(client, protocolFactory, transport, resultHandler, false);
+        this.nodeId = nodeId;
+        this.publishedTime = publishedTime;
+      }
+
+      public void write_args(org.apache.thrift.protocol.TProtocol prot) throws org.apache.thrift.TException {
+        prot.writeMessageBegin(new org.apache.thrift.protocol.TMessage("clusterNotificationsPublished", org.apache.thrift.protocol.TMessageType.CALL, 0));
+        clusterNotificationsPublished_args args = new clusterNotificationsPublished_args();
+        args.setNodeId(nodeId);
+        args.setPublishedTime(publishedTime);
+        args.write(prot);
+        prot.writeMessageEnd();
+      }
+
+      public void getResult() throws org.apache.thrift.TException {
+        if (getState() != org.apache.thrift.async.TAsyncMethodCall.State.RESPONSE_READ) {
+          throw new IllegalStateException("Method call not finished!");
+        }
+        org.apache.thrift.transport.TMemoryInputTransport memoryTransport = new org.apache.thrift.transport.TMemoryInputTransport(getFrameBuffer().array());
+        org.apache.thrift.protocol.TProtocol prot = client.getProtocolFactory().getProtocol(memoryTransport);
+        (new Client(prot)).recv_clusterNotificationsPublished();
+      }
+    }
+
+    public void waitForClusterNotifications(String nodeId, long lastSeenVersion, long timeout, org.apache.thrift.async.AsyncMethodCallback<waitForClusterNotifications_call> resultHandler) throws org.apache.thrift.TException {
+      checkReady();
+      waitForClusterNotifications_call method_call = new waitForClusterNotifications_call(nodeId, lastSeenVersion, timeout, resultHandler, this, ___protocolFactory, ___transport);
+      this.___currentMethod = method_call;
+      ___manager.call(method_call);
+    }
+
+    public static class waitForClusterNotifications_call extends org.apache.thrift.async.TAsyncMethodCall {
+      private String nodeId;
+      private long lastSeenVersion;
+      private long timeout;
+      public waitForClusterNotifications_call(String nodeId, long lastSeenVersion, long timeout, org.apache.thrift.async.AsyncMethodCallback<waitForClusterNotifications_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
+        super(client, protocolFactory, transport, resultHandler, false);
+        this.nodeId = nodeId;
+        this.lastSeenVersion = lastSeenVersion;
+        this.timeout = timeout;
+      }
+
+      public void write_args(org.apache.thrift.protocol.TProtocol prot) throws org.apache.thrift.TException {
+        prot.writeMessageBegin(new org.apache.thrift.protocol.TMessage("waitForClusterNotifications", org.apache.thrift.protocol.TMessageType.CALL, 0));
+        waitForClusterNotifications_args args = new waitForClusterNotifications_args();
+        args.setNodeId(nodeId);
+        args.setLastSeenVersion(lastSeenVersion);
+        args.setTimeout(timeout);
+        args.write(prot);
+        prot.writeMessageEnd();
+      }
+
+      public ClusterNotificationInfo getResult() throws org.apache.thrift.TException {
+        if (getState() != org.apache.thrift.async.TAsyncMethodCall.State.RESPONSE_READ) {
+          throw new IllegalStateException("Method call not finished!");
+        }
+        org.apache.thrift.transport.TMemoryInputTransport memoryTransport = new org.apache.thrift.transport.TMemoryInputTransport(getFrameBuffer().array());
+        org.apache.thrift.protocol.TProtocol prot = client.getProtocolFactory().getProtocol(memoryTransport);
+        return (new Client(prot)).recv_waitForClusterNotifications();
+      }
+    }
+
+    public void updateMessageIds(String nodeId, List<SlotSubmissionInfo> slotSubmissions, org.apache.thrift.async.AsyncMethodCallback<updateMessageIds_call> resultHandler) throws org.apache.thrift.TException {
+      checkReady();
+      updateMessageIds_call method_call = new updateMessageIds_call(nodeId, slotSubmissions, resultHandler, this, ___protocolFactory, ___transport);
+      this.___currentMethod = method_call;
+      ___manager.call(method_call);
+    }
+
+    public static class updateMessageIds_call extends org.apache.thrift.async.TAsyncMethodCall {
+      private String nodeId;
+      private List<SlotSubmissionInfo> slotSubmissions;
+      public updateMessageIds_call(String nodeId, List<SlotSubmissionInfo> slotSubmissions, org.apache.thrift.async.AsyncMethodCallback<updateMessageIds_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
+        super(client, protocolFactory, transport, resultHandler, false);
+        this.nodeId = nodeId;
+        this.slotSubmissions = slotSubmissions;
+      }
+
+      public void write_args(org.apache.thrift.protocol.TProtocol prot) throws org.apache.thrift.TException {
+        prot.writeMessageBegin(new org.apache.thrift.protocol.TMessage("updateMessageIds", org.apache.thrift.protocol.TMessageType.CALL, 0));
+        updateMessageIds_args args = new updateMessageIds_args();
+        args.setNodeId(nodeId);
+        args.setSlotSubmissions(slotSubmissions);
+        args.write(prot);
+        prot.writeMessageEnd();
+      }
+
+      public void getResult() throws org.apache.thrift.TException {
+        if (getState() != org.apache.thrift.async.TAsyncMethodCall.State.RESPONSE_READ) {
+          throw new IllegalStateException("Method call not finished!");
+        }
+        org.apache.thrift.transport.TMemoryInputTransport memoryTransport = new org.apache.thrift.transport.TMemoryInputTransport(getFrameBuffer().array());
+        org.apache.thrift.protocol.TProtocol prot = client.getProtocolFactory().getProtocol(memoryTransport);
+        (new Client(prot)).recv_updateMessageIds();
+      }
+    }
+
+    public void getSlotInfos(List<String> queueNames, String nodeId, org.apache.thrift.async.AsyncMethodCallback<getSlotInfos_call> resultHandler) throws org.apache.thrift.TException {
+      checkReady();
+      getSlotInfos_call method_call = new getSlotInfos_call(queueNames, nodeId, resultHandler, this, ___protocolFactory, ___transport);
+      this.___currentMethod = method_call;
+      ___manager.call(method_call);
+    }
+
+    public static class getSlotInfos_call extends org.apache.thrift.async.TAsyncMethodCall {
+      private List<String> queueNames;
+      private String nodeId;
+      public getSlotInfos_call(List<String> queueNames, String nodeId, org.apache.thrift.async.AsyncMethodCallback<getSlotInfos_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
+        super(client, protocolFactory, transport, resultHandler, false);
+        this.queueNames = queueNames;
+        this.nodeId = nodeId;
+      }
+
+      public void write_args(org.apache.thrift.protocol.TProtocol prot) throws org.apache.thrift.TException {
+        prot.writeMessageBegin(new org.apache.thrift.protocol.TMessage("getSlotInfos", org.apache.thrift.protocol.TMessageType.CALL, 0));
+        getSlotInfos_args args = new getSlotInfos_args();
+        args.setQueueNames(queueNames);
+        args.setNodeId(nodeId);
+        args.write(prot);
+        prot.writeMessageEnd();
+      }
+
+      public List<SlotInfo> getResult() throws org.apache.thrift.TException {
+        if (getState() != org.apache.thrift.async.TAsyncMethodCall.State.RESPONSE_READ) {
+          throw new IllegalStateException("Method call not finished!");
+        }
+        org.apache.thrift.transport.TMemoryInputTransport memoryTransport = new org.apache.thrift.transport.TMemoryInputTransport(getFrameBuffer().array());
+        org.apache.thrift.protocol.TProtocol prot = client.getProtocolFactory().getProtocol(memoryTransport);
+        return (new Client(prot)).recv_getSlotInfos();
+      }
+    }
+
   }
 
   public static class Processor<I extends Iface> extends org.apache.thrift.TBaseProcessor implements org.apache.thrift.TProcessor {
@@ -475,6 +725,10 @@ public class SlotManagementService {
       processMap.put("reAssignSlotWhenNoSubscribers", new reAssignSlotWhenNoSubscribers());
       processMap.put("updateCurrentMessageIdForSafeZone", new updateCurrentMessageIdForSafeZone());
       processMap.put("clearAllActiveSlotRelationsToQueue", new clearAllActiveSlotRelationsToQueue());
+      processMap.put("clusterNotificationsPublished", new clusterNotificationsPublished());
+      processMap.put("waitForClusterNotifications", new waitForClusterNotifications());
+      processMap.put("updateMessageIds", new updateMessageIds());
+      processMap.put("getSlotInfos", new getSlotInfos());
       return processMap;
     }
 
@@ -607,6 +861,90 @@ public class SlotManagementService {
       }
     }
 
+    private static class clusterNotificationsPublished<I extends Iface> extends org.apache.thrift.ProcessFunction<I, clusterNotificationsPublished_args> {
+      public clusterNotificationsPublished() {
+        super("clusterNotificationsPublished");
+      }
+
+      public clusterNotificationsPublished_args getEmptyArgsInstance() {
+        return new clusterNotificationsPublished_args();
+      }
+
+        @Override
+        protected boolean isOneway() {
+            return false;
+        }
+
+      public clusterNotificationsPublished_result getResult(I iface, clusterNotificationsPublished_args args) throws org.apache.thrift.TException {
+        clusterNotificationsPublished_result result = new clusterNotificationsPublished_result();
+        iface.clusterNotificationsPublished(args.nodeId, args.publishedTime);
+        return result;
+      }
+    }
+
+    private static class waitForClusterNotifications<I extends Iface> extends org.apache.thrift.ProcessFunction<I, waitForClusterNotifications_args> {
+      public waitForClusterNotifications() {
+        super("waitForClusterNotifications");
+      }
+
+      public waitForClusterNotifications_args getEmptyArgsInstance() {
+        return new waitForClusterNotifications_args();
+      }
+
+        @Override
+        protected boolean isOneway() {
+            return false;
+        }
+
+      public waitForClusterNotifications_result getResult(I iface, waitForClusterNotifications_args args) throws org.apache.thrift.TException {
+        waitForClusterNotifications_result result = new waitForClusterNotifications_result();
+        result.success = iface.waitForClusterNotifications(args.nodeId, args.lastSeenVersion, args.timeout);
+        return result;
+      }
+    }
+
+    private static class updateMessageIds<I extends Iface> extends org.apache.thrift.ProcessFunction<I, updateMessageIds_args> {
+      public updateMessageIds() {
+        super("updateMessageIds");
+      }
+
+      public updateMessageIds_args getEmptyArgsInstance() {
+        return new updateMessageIds_args();
+      }
+
+        @Override
+        protected boolean isOneway() {
+            return false;
+        }
+
+      public updateMessageIds_result getResult(I iface, updateMessageIds_args args) throws org.apache.thrift.TException {
+        updateMessageIds_result result = new updateMessageIds_result();
+        iface.updateMessageIds(args.nodeId, args.slotSubmissions);
+        return result;
+      }
+    }
+
+    private static class getSlotInfos<I extends Iface> extends org.apache.thrift.ProcessFunction<I, getSlotInfos_args> {
+      public getSlotInfos() {
+        super("getSlotInfos");
+      }
+
+      public getSlotInfos_args getEmptyArgsInstance() {
+        return new getSlotInfos_args();
+      }
+
+        @Override
+        protected boolean isOneway() {
+            return false;
+        }
+
+      public getSlotInfos_result getResult(I iface, getSlotInfos_args args) throws org.apache.thrift.TException {
+        getSlotInfos_result result = new getSlotInfos_result();
+        result.success = iface.getSlotInfos(args.queueNames, args.nodeId);
+        return result;
+      }
+    }
+
   }
 
   public static class getSlotInfo_args implements org.apache.thrift.TBase<getSlotInfo_args, getSlotInfo_args._Fields>, java.io.Serializable, Cloneable   {
@@ -4675,4 +5013,2740 @@ public class SlotManagementService {
 
   }
 
+  public static class clusterNotificationsPublished_args implements org.apache.thrift.TBase<clusterNotificationsPublished_args, clusterNotificationsPublished_args._Fields>, java.io.Serializable, Cloneable   {
+    private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("clusterNotificationsPublished_args");
+
+    private static final org.apache.thrift.protocol.TField NODE_ID_FIELD_DESC = new org.apache.thrift.protocol.TField("nodeId", org.apache.thrift.protocol.TType.STRING, (short)1);
+    private static final org.apache.thrift.protocol.TField PUBLISHED_TIME_FIELD_DESC = new org.apache.thrift.protocol.TField("publishedTime", org.apache.thrift.protocol.TType.I64, (short)2);
+
+    public String nodeId; // required
+    public long publishedTime; // required
+
+    /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
+    public enum _Fields implements org.apache.thrift.TFieldIdEnum {
+      NODE_ID((short)1, "nodeId"),
+      PUBLISHED_TIME((short)2, "publishedTime");
+
+      private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
+
+      static {
+        for (_Fields field : EnumSet.allOf(_Fields.class)) {
+          byName.put(field.getFieldName(), field);
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, or null if its not found.
+       */
+      public static _Fields findByThriftId(int fieldId) {
+        switch(fieldId) {
+          case 1: // NODE_ID
+            return NODE_ID;
+          case 2: // PUBLISHED_TIME
+            return PUBLISHED_TIME;
+          default:
+            return null;
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, throwing an exception
+       * if it is not found.
+       */
+      public static _Fields findByThriftIdOrThrow(int fieldId) {
+        _Fields fields = findByThriftId(fieldId);
+        if (fields == null) throw new IllegalArgumentException("Field " + fieldId + " doesn't exist!");
+        return fields;
+      }
+
+      /**
+       * Find the _Fields constant that matches name, or null if its not found.
+       */
+      public static _Fields findByName(String name) {
+        return byName.get(name);
+      }
+
+      private final short _thriftId;
+      private final String _fieldName;
+
+      _Fields(short thriftId, String fieldName) {
+        _thriftId = thriftId;
+        _fieldName = fieldName;
+      }
+
+      public short getThriftFieldId() {
+        return _thriftId;
+      }
+
+      public String getFieldName() {
+        return _fieldName;
+      }
+    }
+
+    // isset id assignments
+    private static final int __PUBLISHEDTIME_ISSET_ID = 0;
+    private BitSet __isset_bit_vector = new BitSet(1);
+
+    public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
+    static {
+      Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
+      tmpMap.put(_Fields.NODE_ID, new org.apache.thrift.meta_data.FieldMetaData("nodeId", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+      tmpMap.put(_Fields.PUBLISHED_TIME, new org.apache.thrift.meta_data.FieldMetaData("publishedTime", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
+      metaDataMap = Collections.unmodifiableMap(tmpMap);
+      org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(clusterNotificationsPublished_args.class, metaDataMap);
+    }
+
+    public clusterNotificationsPublished_args() {
+    }
+
+    public clusterNotificationsPublished_args(
+      String nodeId,
+      long publishedTime)
+    {
+      this();
+      this.nodeId = nodeId;
+      this.publishedTime = publishedTime;
+      setPublishedTimeIsSet(true);
+    }
+
+    /**
+     * Performs a deep copy on <i>other</i>.
+     */
+    public clusterNotificationsPublished_args(clusterNotificationsPublished_args other) {
+      __isset_bit_vector.clear();
+      __isset_bit_vector.or(other.__isset_bit_vector);
+      if (other.isSetNodeId()) {
+        this.nodeId = other.nodeId;
+      }
+      this.publishedTime = other.publishedTime;
+    }
+
+    public clusterNotificationsPublished_args deepCopy() {
+      return new clusterNotificationsPublished_args(this);
+    }
+
+    @Override
+    public void clear() {
+      this.nodeId = null;
+      setPublishedTimeIsSet(false);
+      this.publishedTime = 0;
+    }
+
+    public String getNodeId() {
+      return this.nodeId;
+    }
+
+    public clusterNotificationsPublished_args setNodeId(String nodeId) {
+      this.nodeId = nodeId;
+      return this;
+    }
+
+    public void unsetNodeId() {
+      this.nodeId = null;
+    }
+
+    /** Returns true if field nodeId is set (has been assigned a value) and false otherwise */
+    public boolean isSetNodeId() {
+      return this.nodeId != null;
+    }
+
+    public void setNodeIdIsSet(boolean value) {
+      if (!value) {
+        this.nodeId = null;
+      }
+    }
+
+    public long getPublishedTime() {
+      return this.publishedTime;
+    }
+
+    public clusterNotificationsPublished_args setPublishedTime(long publishedTime) {
+      this.publishedTime = publishedTime;
+      setPublishedTimeIsSet(true);
+      return this;
+    }
+
+    public void unsetPublishedTime() {
+      __isset_bit_vector.clear(__PUBLISHEDTIME_ISSET_ID);
+    }
+
+    /** Returns true if field publishedTime is set (has been assigned a value) and false otherwise */
+    public boolean isSetPublishedTime() {
+      return __isset_bit_vector.get(__PUBLISHEDTIME_ISSET_ID);
+    }
+
+    public void setPublishedTimeIsSet(boolean value) {
+      __isset_bit_vector.set(__PUBLISHEDTIME_ISSET_ID, value);
+    }
+
+    public void setFieldValue(_Fields field, Object value) {
+      switch (field) {
+      case NODE_ID:
+        if (value == null) {
+          unsetNodeId();
+        } else {
+          setNodeId((String)value);
+        }
+        break;
+
+      case PUBLISHED_TIME:
+        if (value == null) {
+          unsetPublishedTime();
+        } else {
+          setPublishedTime((Long)value);
+        }
+        break;
+
+      }
+    }
+
+    public Object getFieldValue(_Fields field) {
+      switch (field) {
+      case NODE_ID:
+        return getNodeId();
+
+      case PUBLISHED_TIME:
+        return Long.valueOf(getPublishedTime());
+
+      }
+      throw new IllegalStateException();
+    }
+
+    /** Returns true if field corresponding to fieldID is set (has been assigned a value) and false otherwise */
+    public boolean isSet(_Fields field) {
+      if (field == null) {
+        throw new IllegalArgumentException();
+      }
+
+      switch (field) {
+      case NODE_ID:
+        return isSetNodeId();
+      case PUBLISHED_TIME:
+        return isSetPublishedTime();
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      if (that == null)
+        return false;
+      if (that instanceof clusterNotificationsPublished_args)
+        return this.equals((clusterNotificationsPublished_args)that);
+      return false;
+    }
+
+    public boolean equals(clusterNotificationsPublished_args that) {
+      if (that == null)
+        return false;
+
+      boolean this_present_nodeId = true && this.isSetNodeId();
+      boolean that_present_nodeId = true && that.isSetNodeId();
+      if (this_present_nodeId || that_present_nodeId) {
+        if (!(this_present_nodeId && that_present_nodeId))
+          return false;
+        if (!this.nodeId.equals(that.nodeId))
+          return false;
+      }
+
+      boolean this_present_publishedTime = true;
+      boolean that_present_publishedTime = true;
+      if (this_present_publishedTime || that_present_publishedTime) {
+        if (!(this_present_publishedTime && that_present_publishedTime))
+          return false;
+        if (this.publishedTime != that.publishedTime)
+          return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+
+    public int compareTo(clusterNotificationsPublished_args other) {
+      if (!getClass().equals(other.getClass())) {
+        return getClass().getName().compareTo(other.getClass().getName());
+      }
+
+      int lastComparison = 0;
+      clusterNotificationsPublished_args typedOther = (clusterNotificationsPublished_args)other;
+
+      lastComparison = Boolean.valueOf(isSetNodeId()).compareTo(typedOther.isSetNodeId());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetNodeId()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.nodeId, typedOther.nodeId);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      lastComparison = Boolean.valueOf(isSetPublishedTime()).compareTo(typedOther.isSetPublishedTime());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetPublishedTime()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.publishedTime, typedOther.publishedTime);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      return 0;
+    }
+
+    public _Fields fieldForId(int fieldId) {
+      return _Fields.findByThriftId(fieldId);
+    }
+
+    public void read(org.apache.thrift.protocol.TProtocol iprot) throws org.apache.thrift.TException {
+      org.apache.thrift.protocol.TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == org.apache.thrift.protocol.TType.STOP) { 
+          break;
+        }
+        switch (field.id) {
+          case 1: // NODE_ID
+            if (field.type == org.apache.thrift.protocol.TType.STRING) {
+              this.nodeId = iprot.readString();
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 2: // PUBLISHED_TIME
+            if (field.type == org.apache.thrift.protocol.TType.I64) {
+              this.publishedTime = iprot.readI64();
+              setPublishedTimeIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+
+      // check for required fields of primitive type, which can't be checked in the validate method
+      validate();
+    }
+
+    public void write(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
+      validate();
+
+      oprot.writeStructBegin(STRUCT_DESC);
+      if (this.nodeId != null) {
+        oprot.writeFieldBegin(NODE_ID_FIELD_DESC);
+        oprot.writeString(this.nodeId);
+        oprot.writeFieldEnd();
+      }
+      oprot.writeFieldBegin(PUBLISHED_TIME_FIELD_DESC);
+      oprot.writeI64(this.publishedTime);
+      oprot.writeFieldEnd();
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("clusterNotificationsPublished_args(");
+      boolean first = true;
+
+      sb.append("nodeId:");
+      if (this.nodeId == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.nodeId);
+      }
+      first = false;
+      if (!first) sb.append(", ");
+      sb.append("publishedTime:");
+      sb.append(this.publishedTime);
+      first = false;
+      sb.append(")");
+      return sb.toString();
+    }
+
+    public void validate() throws org.apache.thrift.TException {
+      // check for required fields
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+      try {
+        write(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(out)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+      try {
+        // it doesn't seem like you should have to do this, but java serialization is wacky, and doesn't call the default constructor.
+        __isset_bit_vector = new BitSet(1);
+        read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+  }
+
+  public static class clusterNotificationsPublished_result implements org.apache.thrift.TBase<clusterNotificationsPublished_result, clusterNotificationsPublished_result._Fields>, java.io.Serializable, Cloneable   {
+    private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("clusterNotificationsPublished_result");
+
+
+
+    /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
+    public enum _Fields implements org.apache.thrift.TFieldIdEnum {
+;
+
+      private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
+
+      static {
+        for (_Fields field : EnumSet.allOf(_Fields.class)) {
+          byName.put(field.getFieldName(), field);
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, or null if its not found.
+       */
+      public static _Fields findByThriftId(int fieldId) {
+        switch(fieldId) {
+          default:
+            return null;
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, throwing an exception
+       * if it is not found.
+       */
+      public static _Fields findByThriftIdOrThrow(int fieldId) {
+        _Fields fields = findByThriftId(fieldId);
+        if (fields == null) throw new IllegalArgumentException("Field " + fieldId + " doesn't exist!");
+        return fields;
+      }
+
+      /**
+       * Find the _Fields constant that matches name, or null if its not found.
+       */
+      public static _Fields findByName(String name) {
+        return byName.get(name);
+      }
+
+      private final short _thriftId;
+      private final String _fieldName;
+
+      _Fields(short thriftId, String fieldName) {
+        _thriftId = thriftId;
+        _fieldName = fieldName;
+      }
+
+      public short getThriftFieldId() {
+        return _thriftId;
+      }
+
+      public String getFieldName() {
+        return _fieldName;
+      }
+    }
+    public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
+    static {
+      Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
+      metaDataMap = Collections.unmodifiableMap(tmpMap);
+      org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(clusterNotificationsPublished_result.class, metaDataMap);
+    }
+
+    public clusterNotificationsPublished_result() {
+    }
+
+    /**
+     * Performs a deep copy on <i>other</i>.
+     */
+    public clusterNotificationsPublished_result(clusterNotificationsPublished_result other) {
+    }
+
+    public clusterNotificationsPublished_result deepCopy() {
+      return new clusterNotificationsPublished_result(this);
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    public void setFieldValue(_Fields field, Object value) {
+      switch (field) {
+      }
+    }
+
+    public Object getFieldValue(_Fields field) {
+      switch (field) {
+      }
+      throw new IllegalStateException();
+    }
+
+    /** Returns true if field corresponding to fieldID is set (has been assigned a value) and false otherwise */
+    public boolean isSet(_Fields field) {
+      if (field == null) {
+        throw new IllegalArgumentException();
+      }
+
+      switch (field) {
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      if (that == null)
+        return false;
+      if (that instanceof clusterNotificationsPublished_result)
+        return this.equals((clusterNotificationsPublished_result)that);
+      return false;
+    }
+
+    public boolean equals(clusterNotificationsPublished_result that) {
+      if (that == null)
+        return false;
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+
+    public int compareTo(clusterNotificationsPublished_result other) {
+      if (!getClass().equals(other.getClass())) {
+        return getClass().getName().compareTo(other.getClass().getName());
+      }
+
+      int lastComparison = 0;
+      clusterNotificationsPublished_result typedOther = (clusterNotificationsPublished_result)other;
+
+      return 0;
+    }
+
+    public _Fields fieldForId(int fieldId) {
+      return _Fields.findByThriftId(fieldId);
+    }
+
+    public void read(org.apache.thrift.protocol.TProtocol iprot) throws org.apache.thrift.TException {
+      org.apache.thrift.protocol.TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == org.apache.thrift.protocol.TType.STOP) { 
+          break;
+        }
+        switch (field.id) {
+          default:
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+
+      // check for required fields of primitive type, which can't be checked in the validate method
+      validate();
+    }
+
+    public void write(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
+      oprot.writeStructBegin(STRUCT_DESC);
+
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("clusterNotificationsPublished_result(");
+      boolean first = true;
+
+      sb.append(")");
+      return sb.toString();
+    }
+
+    public void validate() throws org.apache.thrift.TException {
+      // check for required fields
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+      try {
+        write(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(out)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+      try {
+        read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+  }
+
+  public static class waitForClusterNotifications_args implements org.apache.thrift.TBase<waitForClusterNotifications_args, waitForClusterNotifications_args._Fields>, java.io.Serializable, Cloneable   {
+    private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("waitForClusterNotifications_args");
+
+    private static final org.apache.thrift.protocol.TField NODE_ID_FIELD_DESC = new org.apache.thrift.protocol.TField("nodeId", org.apache.thrift.protocol.TType.STRING, (short)1);
+    private static final org.apache.thrift.protocol.TField LAST_SEEN_VERSION_FIELD_DESC = new org.apache.thrift.protocol.TField("lastSeenVersion", org.apache.thrift.protocol.TType.I64, (short)2);
+    private static final org.apache.thrift.protocol.TField TIMEOUT_FIELD_DESC = new org.apache.thrift.protocol.TField("timeout", org.apache.thrift.protocol.TType.I64, (short)3);
+
+    public String nodeId; // required
+    public long lastSeenVersion; // required
+    public long timeout; // required
+
+    /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
+    public enum _Fields implements org.apache.thrift.TFieldIdEnum {
+      NODE_ID((short)1, "nodeId"),
+      LAST_SEEN_VERSION((short)2, "lastSeenVersion"),
+      TIMEOUT((short)3, "timeout");
+
+      private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
+
+      static {
+        for (_Fields field : EnumSet.allOf(_Fields.class)) {
+          byName.put(field.getFieldName(), field);
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, or null if its not found.
+       */
+      public static _Fields findByThriftId(int fieldId) {
+        switch(fieldId) {
+          case 1: // NODE_ID
+            return NODE_ID;
+          case 2: // LAST_SEEN_VERSION
+            return LAST_SEEN_VERSION;
+          case 3: // TIMEOUT
+            return TIMEOUT;
+          default:
+            return null;
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, throwing an exception
+       * if it is not found.
+       */
+      public static _Fields findByThriftIdOrThrow(int fieldId) {
+        _Fields fields = findByThriftId(fieldId);
+        if (fields == null) throw new IllegalArgumentException("Field " + fieldId + " doesn't exist!");
+        return fields;
+      }
+
+      /**
+       * Find the _Fields constant that matches name, or null if its not found.
+       */
+      public static _Fields findByName(String name) {
+        return byName.get(name);
+      }
+
+      private final short _thriftId;
+      private final String _fieldName;
+
+      _Fields(short thriftId, String fieldName) {
+        _thriftId = thriftId;
+        _fieldName = fieldName;
+      }
+
+      public short getThriftFieldId() {
+        return _thriftId;
+      }
+
+      public String getFieldName() {
+        return _fieldName;
+      }
+    }
+
+    // isset id assignments
+    private static final int __LASTSEENVERSION_ISSET_ID = 0;
+    private static final int __TIMEOUT_ISSET_ID = 1;
+    private BitSet __isset_bit_vector = new BitSet(2);
+
+    public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
+    static {
+      Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
+      tmpMap.put(_Fields.NODE_ID, new org.apache.thrift.meta_data.FieldMetaData("nodeId", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+      tmpMap.put(_Fields.LAST_SEEN_VERSION, new org.apache.thrift.meta_data.FieldMetaData("lastSeenVersion", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
+      tmpMap.put(_Fields.TIMEOUT, new org.apache.thrift.meta_data.FieldMetaData("timeout", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
+      metaDataMap = Collections.unmodifiableMap(tmpMap);
+      org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(waitForClusterNotifications_args.class, metaDataMap);
+    }
+
+    public waitForClusterNotifications_args() {
+    }
+
+    public waitForClusterNotifications_args(
+      String nodeId,
+      long lastSeenVersion,
+      long timeout)
+    {
+      this();
+      this.nodeId = nodeId;
+      this.lastSeenVersion = lastSeenVersion;
+      setLastSeenVersionIsSet(true);
+      this.timeout = timeout;
+      setTimeoutIsSet(true);
+    }
+
+    /**
+     * Performs a deep copy on <i>other</i>.
+     */
+    public waitForClusterNotifications_args(waitForClusterNotifications_args other) {
+      __isset_bit_vector.clear();
+      __isset_bit_vector.or(other.__isset_bit_vector);
+      if (other.isSetNodeId()) {
+        this.nodeId = other.nodeId;
+      }
+      this.lastSeenVersion = other.lastSeenVersion;
+      this.timeout = other.timeout;
+    }
+
+    public waitForClusterNotifications_args deepCopy() {
+      return new waitForClusterNotifications_args(this);
+    }
+
+    @Override
+    public void clear() {
+      this.nodeId = null;
+      setLastSeenVersionIsSet(false);
+      this.lastSeenVersion = 0;
+      setTimeoutIsSet(false);
+      this.timeout = 0;
+    }
+
+    public String getNodeId() {
+      return this.nodeId;
+    }
+
+    public waitForClusterNotifications_args setNodeId(String nodeId) {
+      this.nodeId = nodeId;
+      return this;
+    }
+
+    public void unsetNodeId() {
+      this.nodeId = null;
+    }
+
+    /** Returns true if field nodeId is set (has been assigned a value) and false otherwise */
+    public boolean isSetNodeId() {
+      return this.nodeId != null;
+    }
+
+    public void setNodeIdIsSet(boolean value) {
+      if (!value) {
+        this.nodeId = null;
+      }
+    }
+
+    public long getLastSeenVersion() {
+      return this.lastSeenVersion;
+    }
+
+    public waitForClusterNotifications_args setLastSeenVersion(long lastSeenVersion) {
+      this.lastSeenVersion = lastSeenVersion;
+      setLastSeenVersionIsSet(true);
+      return this;
+    }
+
+    public void unsetLastSeenVersion() {
+      __isset_bit_vector.clear(__LASTSEENVERSION_ISSET_ID);
+    }
+
+    /** Returns true if field lastSeenVersion is set (has been assigned a value) and false otherwise */
+    public boolean isSetLastSeenVersion() {
+      return __isset_bit_vector.get(__LASTSEENVERSION_ISSET_ID);
+    }
+
+    public void setLastSeenVersionIsSet(boolean value) {
+      __isset_bit_vector.set(__LASTSEENVERSION_ISSET_ID, value);
+    }
+
+    public long getTimeout() {
+      return this.timeout;
+    }
+
+    public waitForClusterNotifications_args setTimeout(long timeout) {
+      this.timeout = timeout;
+      setTimeoutIsSet(true);
+      return this;
+    }
+
+    public void unsetTimeout() {
+      __isset_bit_vector.clear(__TIMEOUT_ISSET_ID);
+    }
+
+    /** Returns true if field timeout is set (has been assigned a value) and false otherwise */
+    public boolean isSetTimeout() {
+      return __isset_bit_vector.get(__TIMEOUT_ISSET_ID);
+    }
+
+    public void setTimeoutIsSet(boolean value) {
+      __isset_bit_vector.set(__TIMEOUT_ISSET_ID, value);
+    }
+
+    public void setFieldValue(_Fields field, Object value) {
+      switch (field) {
+      case NODE_ID:
+        if (value == null) {
+          unsetNodeId();
+        } else {
+          setNodeId((String)value);
+        }
+        break;
+
+      case LAST_SEEN_VERSION:
+        if (value == null) {
+          unsetLastSeenVersion();
+        } else {
+          setLastSeenVersion((Long)value);
+        }
+        break;
+
+      case TIMEOUT:
+        if (value == null) {
+          unsetTimeout();
+        } else {
+          setTimeout((Long)value);
+        }
+        break;
+
+      }
+    }
+
+    public Object getFieldValue(_Fields field) {
+      switch (field) {
+      case NODE_ID:
+        return getNodeId();
+
+      case LAST_SEEN_VERSION:
+        return Long.valueOf(getLastSeenVersion());
+
+      case TIMEOUT:
+        return Long.valueOf(getTimeout());
+
+      }
+      throw new IllegalStateException();
+    }
+
+    /** Returns true if field corresponding to fieldID is set (has been assigned a value) and false otherwise */
+    public boolean isSet(_Fields field) {
+      if (field == null) {
+        throw new IllegalArgumentException();
+      }
+
+      switch (field) {
+      case NODE_ID:
+        return isSetNodeId();
+      case LAST_SEEN_VERSION:
+        return isSetLastSeenVersion();
+      case TIMEOUT:
+        return isSetTimeout();
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      if (that == null)
+        return false;
+      if (that instanceof waitForClusterNotifications_args)
+        return this.equals((waitForClusterNotifications_args)that);
+      return false;
+    }
+
+    public boolean equals(waitForClusterNotifications_args that) {
+      if (that == null)
+        return false;
+
+      boolean this_present_nodeId = true && this.isSetNodeId();
+      boolean that_present_nodeId = true && that.isSetNodeId();
+      if (this_present_nodeId || that_present_nodeId) {
+        if (!(this_present_nodeId && that_present_nodeId))
+          return false;
+        if (!this.nodeId.equals(that.nodeId))
+          return false;
+      }
+
+      boolean this_present_lastSeenVersion = true;
+      boolean that_present_lastSeenVersion = true;
+      if (this_present_lastSeenVersion || that_present_lastSeenVersion) {
+        if (!(this_present_lastSeenVersion && that_present_lastSeenVersion))
+          return false;
+        if (this.lastSeenVersion != that.lastSeenVersion)
+          return false;
+      }
+
+      boolean this_present_timeout = true;
+      boolean that_present_timeout = true;
+      if (this_present_timeout || that_present_timeout) {
+        if (!(this_present_timeout && that_present_timeout))
+          return false;
+        if (this.timeout != that.timeout)
+          return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+
+    public int compareTo(waitForClusterNotifications_args other) {
+      if (!getClass().equals(other.getClass())) {
+        return getClass().getName().compareTo(other.getClass().getName());
+      }
+
+      int lastComparison = 0;
+      waitForClusterNotifications_args typedOther = (waitForClusterNotifications_args)other;
+
+      lastComparison = Boolean.valueOf(isSetNodeId()).compareTo(typedOther.isSetNodeId());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetNodeId()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.nodeId, typedOther.nodeId);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      lastComparison = Boolean.valueOf(isSetLastSeenVersion()).compareTo(typedOther.isSetLastSeenVersion());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetLastSeenVersion()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.lastSeenVersion, typedOther.lastSeenVersion);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      lastComparison = Boolean.valueOf(isSetTimeout()).compareTo(typedOther.isSetTimeout());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetTimeout()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.timeout, typedOther.timeout);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      return 0;
+    }
+
+    public _Fields fieldForId(int fieldId) {
+      return _Fields.findByThriftId(fieldId);
+    }
+
+    public void read(org.apache.thrift.protocol.TProtocol iprot) throws org.apache.thrift.TException {
+      org.apache.thrift.protocol.TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == org.apache.thrift.protocol.TType.STOP) { 
+          break;
+        }
+        switch (field.id) {
+          case 1: // NODE_ID
+            if (field.type == org.apache.thrift.protocol.TType.STRING) {
+              this.nodeId = iprot.readString();
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 2: // LAST_SEEN_VERSION
+            if (field.type == org.apache.thrift.protocol.TType.I64) {
+              this.lastSeenVersion = iprot.readI64();
+              setLastSeenVersionIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 3: // TIMEOUT
+            if (field.type == org.apache.thrift.protocol.TType.I64) {
+              this.timeout = iprot.readI64();
+              setTimeoutIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+
+      // check for required fields of primitive type, which can't be checked in the validate method
+      validate();
+    }
+
+    public void write(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
+      validate();
+
+      oprot.writeStructBegin(STRUCT_DESC);
+      if (this.nodeId != null) {
+        oprot.writeFieldBegin(NODE_ID_FIELD_DESC);
+        oprot.writeString(this.nodeId);
+        oprot.writeFieldEnd();
+      }
+      oprot.writeFieldBegin(LAST_SEEN_VERSION_FIELD_DESC);
+      oprot.writeI64(this.lastSeenVersion);
+      oprot.writeFieldEnd();
+      oprot.writeFieldBegin(TIMEOUT_FIELD_DESC);
+      oprot.writeI64(this.timeout);
+      oprot.writeFieldEnd();
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("waitForClusterNotifications_args(");
+      boolean first = true;
+
+      sb.append("nodeId:");
+      if (this.nodeId == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.nodeId);
+      }
+      first = false;
+      if (!first) sb.append(", ");
+      sb.append("lastSeenVersion:");
+      sb.append(this.lastSeenVersion);
+      first = false;
+      if (!first) sb.append(", ");
+      sb.append("timeout:");
+      sb.append(this.timeout);
+      first = false;
+      sb.append(")");
+      return sb.toString();
+    }
+
+    public void validate() throws org.apache.thrift.TException {
+      // check for required fields
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+      try {
+        write(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(out)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+      try {
+        // it doesn't seem like you should have to do this, but java serialization is wacky, and doesn't call the default constructor.
+        __isset_bit_vector = new BitSet(1);
+        read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+  }
+
+  public static class waitForClusterNotifications_result implements org.apache.thrift.TBase<waitForClusterNotifications_result, waitForClusterNotifications_result._Fields>, java.io.Serializable, Cloneable   {
+    private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("waitForClusterNotifications_result");
+
+    private static final org.apache.thrift.protocol.TField SUCCESS_FIELD_DESC = new org.apache.thrift.protocol.TField("success", org.apache.thrift.protocol.TType.STRUCT, (short)0);
+
+    public ClusterNotificationInfo success; // required
+
+    /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
+    public enum _Fields implements org.apache.thrift.TFieldIdEnum {
+      SUCCESS((short)0, "success");
+
+      private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
+
+      static {
+        for (_Fields field : EnumSet.allOf(_Fields.class)) {
+          byName.put(field.getFieldName(), field);
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, or null if its not found.
+       */
+      public static _Fields findByThriftId(int fieldId) {
+        switch(fieldId) {
+          case 0: // SUCCESS
+            return SUCCESS;
+          default:
+            return null;
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, throwing an exception
+       * if it is not found.
+       */
+      public static _Fields findByThriftIdOrThrow(int fieldId) {
+        _Fields fields = findByThriftId(fieldId);
+        if (fields == null) throw new IllegalArgumentException("Field " + fieldId + " doesn't exist!");
+        return fields;
+      }
+
+      /**
+       * Find the _Fields constant that matches name, or null if its not found.
+       */
+      public static _Fields findByName(String name) {
+        return byName.get(name);
+      }
+
+      private final short _thriftId;
+      private final String _fieldName;
+
+      _Fields(short thriftId, String fieldName) {
+        _thriftId = thriftId;
+        _fieldName = fieldName;
+      }
+
+      public short getThriftFieldId() {
+        return _thriftId;
+      }
+
+      public String getFieldName() {
+        return _fieldName;
+      }
+    }
+
+    // isset id assignments
+
+    public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
+    static {
+      Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
+      tmpMap.put(_Fields.SUCCESS, new org.apache.thrift.meta_data.FieldMetaData("success", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, ClusterNotificationInfo.class)));
+      metaDataMap = Collections.unmodifiableMap(tmpMap);
+      org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(waitForClusterNotifications_result.class, metaDataMap);
+    }
+
+    public waitForClusterNotifications_result() {
+    }
+
+    public waitForClusterNotifications_result(
+      ClusterNotificationInfo success)
+    {
+      this();
+      this.success = success;
+    }
+
+    /**
+     * Performs a deep copy on <i>other</i>.
+     */
+    public waitForClusterNotifications_result(waitForClusterNotifications_result other) {
+      if (other.isSetSuccess()) {
+        this.success = new ClusterNotificationInfo(other.success);
+      }
+    }
+
+    public waitForClusterNotifications_result deepCopy() {
+      return new waitForClusterNotifications_result(this);
+    }
+
+    @Override
+    public void clear() {
+      this.success = null;
+    }
+
+    public ClusterNotificationInfo getSuccess() {
+      return this.success;
+    }
+
+    public waitForClusterNotifications_result setSuccess(ClusterNotificationInfo success) {
+      this.success = success;
+      return this;
+    }
+
+    public void unsetSuccess() {
+      this.success = null;
+    }
+
+    /** Returns true if field success is set (has been assigned a value) and false otherwise */
+    public boolean isSetSuccess() {
+      return this.success != null;
+    }
+
+    public void setSuccessIsSet(boolean value) {
+      if (!value) {
+        this.success = null;
+      }
+    }
+
+    public void setFieldValue(_Fields field, Object value) {
+      switch (field) {
+      case SUCCESS:
+        if (value == null) {
+          unsetSuccess();
+        } else {
+          setSuccess((ClusterNotificationInfo)value);
+        }
+        break;
+
+      }
+    }
+
+    public Object getFieldValue(_Fields field) {
+      switch (field) {
+      case SUCCESS:
+        return getSuccess();
+
+      }
+      throw new IllegalStateException();
+    }
+
+    /** Returns true if field corresponding to fieldID is set (has been assigned a value) and false otherwise */
+    public boolean isSet(_Fields field) {
+      if (field == null) {
+        throw new IllegalArgumentException();
+      }
+
+      switch (field) {
+      case SUCCESS:
+        return isSetSuccess();
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      if (that == null)
+        return false;
+      if (that instanceof waitForClusterNotifications_result)
+        return this.equals((waitForClusterNotifications_result)that);
+      return false;
+    }
+
+    public boolean equals(waitForClusterNotifications_result that) {
+      if (that == null)
+        return false;
+
+      boolean this_present_success = true && this.isSetSuccess();
+      boolean that_present_success = true && that.isSetSuccess();
+      if (this_present_success || that_present_success) {
+        if (!(this_present_success && that_present_success))
+          return false;
+        if (!this.success.equals(that.success))
+          return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+
+    public int compareTo(waitForClusterNotifications_result other) {
+      if (!getClass().equals(other.getClass())) {
+        return getClass().getName().compareTo(other.getClass().getName());
+      }
+
+      int lastComparison = 0;
+      waitForClusterNotifications_result typedOther = (waitForClusterNotifications_result)other;
+
+      lastComparison = Boolean.valueOf(isSetSuccess()).compareTo(typedOther.isSetSuccess());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetSuccess()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.success, typedOther.success);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      return 0;
+    }
+
+    public _Fields fieldForId(int fieldId) {
+      return _Fields.findByThriftId(fieldId);
+    }
+
+    public void read(org.apache.thrift.protocol.TProtocol iprot) throws org.apache.thrift.TException {
+      org.apache.thrift.protocol.TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == org.apache.thrift.protocol.TType.STOP) { 
+          break;
+        }
+        switch (field.id) {
+          case 0: // SUCCESS
+            if (field.type == org.apache.thrift.protocol.TType.STRUCT) {
+              this.success = new ClusterNotificationInfo();
+              this.success.read(iprot);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+
+      // check for required fields of primitive type, which can't be checked in the validate method
+      validate();
+    }
+
+    public void write(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
+      oprot.writeStructBegin(STRUCT_DESC);
+
+      if (this.isSetSuccess()) {
+        oprot.writeFieldBegin(SUCCESS_FIELD_DESC);
+        this.success.write(oprot);
+        oprot.writeFieldEnd();
+      }
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("waitForClusterNotifications_result(");
+      boolean first = true;
+
+      sb.append("success:");
+      if (this.success == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.success);
+      }
+      first = false;
+      sb.append(")");
+      return sb.toString();
+    }
+
+    public void validate() throws org.apache.thrift.TException {
+      // check for required fields
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+      try {
+        write(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(out)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+      try {
+        read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+  }
+
+  public static class updateMessageIds_args implements org.apache.thrift.TBase<updateMessageIds_args, updateMessageIds_args._Fields>, java.io.Serializable, Cloneable   {
+    private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("updateMessageIds_args");
+
+    private static final org.apache.thrift.protocol.TField NODE_ID_FIELD_DESC = new org.apache.thrift.protocol.TField("nodeId", org.apache.thrift.protocol.TType.STRING, (short)1);
+    private static final org.apache.thrift.protocol.TField SLOT_SUBMISSIONS_FIELD_DESC = new org.apache.thrift.protocol.TField("slotSubmissions", org.apache.thrift.protocol.TType.LIST, (short)2);
+
+    public String nodeId; // required
+    public List<SlotSubmissionInfo> slotSubmissions; // required
+
+    /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
+    public enum _Fields implements org.apache.thrift.TFieldIdEnum {
+      NODE_ID((short)1, "nodeId"),
+      SLOT_SUBMISSIONS((short)2, "slotSubmissions");
+
+      private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
+
+      static {
+        for (_Fields field : EnumSet.allOf(_Fields.class)) {
+          byName.put(field.getFieldName(), field);
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, or null if its not found.
+       */
+      public static _Fields findByThriftId(int fieldId) {
+        switch(fieldId) {
+          case 1: // NODE_ID
+            return NODE_ID;
+          case 2: // SLOT_SUBMISSIONS
+            return SLOT_SUBMISSIONS;
+          default:
+            return null;
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, throwing an exception
+       * if it is not found.
+       */
+      public static _Fields findByThriftIdOrThrow(int fieldId) {
+        _Fields fields = findByThriftId(fieldId);
+        if (fields == null) throw new IllegalArgumentException("Field " + fieldId + " doesn't exist!");
+        return fields;
+      }
+
+      /**
+       * Find the _Fields constant that matches name, or null if its not found.
+       */
+      public static _Fields findByName(String name) {
+        return byName.get(name);
+      }
+
+      private final short _thriftId;
+      private final String _fieldName;
+
+      _Fields(short thriftId, String fieldName) {
+        _thriftId = thriftId;
+        _fieldName = fieldName;
+      }
+
+      public short getThriftFieldId() {
+        return _thriftId;
+      }
+
+      public String getFieldName() {
+        return _fieldName;
+      }
+    }
+
+    // isset id assignments
+
+    public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
+    static {
+      Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
+      tmpMap.put(_Fields.NODE_ID, new org.apache.thrift.meta_data.FieldMetaData("nodeId", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+      tmpMap.put(_Fields.SLOT_SUBMISSIONS, new org.apache.thrift.meta_data.FieldMetaData("slotSubmissions", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
+              new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, SlotSubmissionInfo.class))));
+      metaDataMap = Collections.unmodifiableMap(tmpMap);
+      org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(updateMessageIds_args.class, metaDataMap);
+    }
+
+    public updateMessageIds_args() {
+    }
+
+    public updateMessageIds_args(
+      String nodeId,
+      List<SlotSubmissionInfo> slotSubmissions)
+    {
+      this();
+      this.nodeId = nodeId;
+      this.slotSubmissions = slotSubmissions;
+    }
+
+    /**
+     * Performs a deep copy on <i>other</i>.
+     */
+    public updateMessageIds_args(updateMessageIds_args other) {
+      if (other.isSetNodeId()) {
+        this.nodeId = other.nodeId;
+      }
+      if (other.isSetSlotSubmissions()) {
+        List<SlotSubmissionInfo> __this__slotSubmissions = new ArrayList<SlotSubmissionInfo>();
+        for (SlotSubmissionInfo other_element : other.slotSubmissions) {
+          __this__slotSubmissions.add(new SlotSubmissionInfo(other_element));
+        }
+        this.slotSubmissions = __this__slotSubmissions;
+      }
+    }
+
+    public updateMessageIds_args deepCopy() {
+      return new updateMessageIds_args(this);
+    }
+
+    @Override
+    public void clear() {
+      this.nodeId = null;
+      this.slotSubmissions = null;
+    }
+
+    public String getNodeId() {
+      return this.nodeId;
+    }
+
+    public updateMessageIds_args setNodeId(String nodeId) {
+      this.nodeId = nodeId;
+      return this;
+    }
+
+    public void unsetNodeId() {
+      this.nodeId = null;
+    }
+
+    /** Returns true if field nodeId is set (has been assigned a value) and false otherwise */
+    public boolean isSetNodeId() {
+      return this.nodeId != null;
+    }
+
+    public void setNodeIdIsSet(boolean value) {
+      if (!value) {
+        this.nodeId = null;
+      }
+    }
+
+    public int getSlotSubmissionsSize() {
+      return (this.slotSubmissions == null) ? 0 : this.slotSubmissions.size();
+    }
+
+    public java.util.Iterator<SlotSubmissionInfo> getSlotSubmissionsIterator() {
+      return (this.slotSubmissions == null) ? null : this.slotSubmissions.iterator();
+    }
+
+    public void addToSlotSubmissions(SlotSubmissionInfo elem) {
+      if (this.slotSubmissions == null) {
+        this.slotSubmissions = new ArrayList<SlotSubmissionInfo>();
+      }
+      this.slotSubmissions.add(elem);
+    }
+
+    public List<SlotSubmissionInfo> getSlotSubmissions() {
+      return this.slotSubmissions;
+    }
+
+    public updateMessageIds_args setSlotSubmissions(List<SlotSubmissionInfo> slotSubmissions) {
+      this.slotSubmissions = slotSubmissions;
+      return this;
+    }
+
+    public void unsetSlotSubmissions() {
+      this.slotSubmissions = null;
+    }
+
+    /** Returns true if field slotSubmissions is set (has been assigned a value) and false otherwise */
+    public boolean isSetSlotSubmissions() {
+      return this.slotSubmissions != null;
+    }
+
+    public void setSlotSubmissionsIsSet(boolean value) {
+      if (!value) {
+        this.slotSubmissions = null;
+      }
+    }
+
+    public void setFieldValue(_Fields field, Object value) {
+      switch (field) {
+      case NODE_ID:
+        if (value == null) {
+          unsetNodeId();
+        } else {
+          setNodeId((String)value);
+        }
+        break;
+
+      case SLOT_SUBMISSIONS:
+        if (value == null) {
+          unsetSlotSubmissions();
+        } else {
+          setSlotSubmissions((List<SlotSubmissionInfo>)value);
+        }
+        break;
+
+      }
+    }
+
+    public Object getFieldValue(_Fields field) {
+      switch (field) {
+      case NODE_ID:
+        return getNodeId();
+
+      case SLOT_SUBMISSIONS:
+        return getSlotSubmissions();
+
+      }
+      throw new IllegalStateException();
+    }
+
+    /** Returns true if field corresponding to fieldID is set (has been assigned a value) and false otherwise */
+    public boolean isSet(_Fields field) {
+      if (field == null) {
+        throw new IllegalArgumentException();
+      }
+
+      switch (field) {
+      case NODE_ID:
+        return isSetNodeId();
+      case SLOT_SUBMISSIONS:
+        return isSetSlotSubmissions();
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      if (that == null)
+        return false;
+      if (that instanceof updateMessageIds_args)
+        return this.equals((updateMessageIds_args)that);
+      return false;
+    }
+
+    public boolean equals(updateMessageIds_args that) {
+      if (that == null)
+        return false;
+
+      boolean this_present_nodeId = true && this.isSetNodeId();
+      boolean that_present_nodeId = true && that.isSetNodeId();
+      if (this_present_nodeId || that_present_nodeId) {
+        if (!(this_present_nodeId && that_present_nodeId))
+          return false;
+        if (!this.nodeId.equals(that.nodeId))
+          return false;
+      }
+
+      boolean this_present_slotSubmissions = true && this.isSetSlotSubmissions();
+      boolean that_present_slotSubmissions = true && that.isSetSlotSubmissions();
+      if (this_present_slotSubmissions || that_present_slotSubmissions) {
+        if (!(this_present_slotSubmissions && that_present_slotSubmissions))
+          return false;
+        if (!this.slotSubmissions.equals(that.slotSubmissions))
+          return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+
+    public int compareTo(updateMessageIds_args other) {
+      if (!getClass().equals(other.getClass())) {
+        return getClass().getName().compareTo(other.getClass().getName());
+      }
+
+      int lastComparison = 0;
+      updateMessageIds_args typedOther = (updateMessageIds_args)other;
+
+      lastComparison = Boolean.valueOf(isSetNodeId()).compareTo(typedOther.isSetNodeId());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetNodeId()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.nodeId, typedOther.nodeId);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      lastComparison = Boolean.valueOf(isSetSlotSubmissions()).compareTo(typedOther.isSetSlotSubmissions());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetSlotSubmissions()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.slotSubmissions, typedOther.slotSubmissions);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      return 0;
+    }
+
+    public _Fields fieldForId(int fieldId) {
+      return _Fields.findByThriftId(fieldId);
+    }
+
+    public void read(org.apache.thrift.protocol.TProtocol iprot) throws org.apache.thrift.TException {
+      org.apache.thrift.protocol.TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == org.apache.thrift.protocol.TType.STOP) { 
+          break;
+        }
+        switch (field.id) {
+          case 1: // NODE_ID
+            if (field.type == org.apache.thrift.protocol.TType.STRING) {
+              this.nodeId = iprot.readString();
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 2: // SLOT_SUBMISSIONS
+            if (field.type == org.apache.thrift.protocol.TType.LIST) {
+              {
+                org.apache.thrift.protocol.TList _list0 = iprot.readListBegin();
+                this.slotSubmissions = new ArrayList<SlotSubmissionInfo>(_list0.size);
+                for (int _i1 = 0; _i1 < _list0.size; ++_i1)
+                {
+                  SlotSubmissionInfo _elem2; // required
+                  _elem2 = new SlotSubmissionInfo();
+                  _elem2.read(iprot);
+                  this.slotSubmissions.add(_elem2);
+                }
+                iprot.readListEnd();
+              }
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+
+      // check for required fields of primitive type, which can't be checked in the validate method
+      validate();
+    }
+
+    public void write(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
+      validate();
+
+      oprot.writeStructBegin(STRUCT_DESC);
+      if (this.nodeId != null) {
+        oprot.writeFieldBegin(NODE_ID_FIELD_DESC);
+        oprot.writeString(this.nodeId);
+        oprot.writeFieldEnd();
+      }
+      if (this.slotSubmissions != null) {
+        oprot.writeFieldBegin(SLOT_SUBMISSIONS_FIELD_DESC);
+        {
+          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, this.slotSubmissions.size()));
+          for (SlotSubmissionInfo _iter3 : this.slotSubmissions)
+          {
+            _iter3.write(oprot);
+          }
+          oprot.writeListEnd();
+        }
+        oprot.writeFieldEnd();
+      }
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("updateMessageIds_args(");
+      boolean first = true;
+
+      sb.append("nodeId:");
+      if (this.nodeId == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.nodeId);
+      }
+      first = false;
+      if (!first) sb.append(", ");
+      sb.append("slotSubmissions:");
+      if (this.slotSubmissions == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.slotSubmissions);
+      }
+      first = false;
+      sb.append(")");
+      return sb.toString();
+    }
+
+    public void validate() throws org.apache.thrift.TException {
+      // check for required fields
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+      try {
+        write(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(out)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+      try {
+        read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+  }
+
+  public static class updateMessageIds_result implements org.apache.thrift.TBase<updateMessageIds_result, updateMessageIds_result._Fields>, java.io.Serializable, Cloneable   {
+    private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("updateMessageIds_result");
+
+
+
+    /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
+    public enum _Fields implements org.apache.thrift.TFieldIdEnum {
+;
+
+      private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
+
+      static {
+        for (_Fields field : EnumSet.allOf(_Fields.class)) {
+          byName.put(field.getFieldName(), field);
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, or null if its not found.
+       */
+      public static _Fields findByThriftId(int fieldId) {
+        switch(fieldId) {
+          default:
+            return null;
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, throwing an exception
+       * if it is not found.
+       */
+      public static _Fields findByThriftIdOrThrow(int fieldId) {
+        _Fields fields = findByThriftId(fieldId);
+        if (fields == null) throw new IllegalArgumentException("Field " + fieldId + " doesn't exist!");
+        return fields;
+      }
+
+      /**
+       * Find the _Fields constant that matches name, or null if its not found.
+       */
+      public static _Fields findByName(String name) {
+        return byName.get(name);
+      }
+
+      private final short _thriftId;
+      private final String _fieldName;
+
+      _Fields(short thriftId, String fieldName) {
+        _thriftId = thriftId;
+        _fieldName = fieldName;
+      }
+
+      public short getThriftFieldId() {
+        return _thriftId;
+      }
+
+      public String getFieldName() {
+        return _fieldName;
+      }
+    }
+    public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
+    static {
+      Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
+      metaDataMap = Collections.unmodifiableMap(tmpMap);
+      org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(updateMessageIds_result.class, metaDataMap);
+    }
+
+    public updateMessageIds_result() {
+    }
+
+    /**
+     * Performs a deep copy on <i>other</i>.
+     */
+    public updateMessageIds_result(updateMessageIds_result other) {
+    }
+
+    public updateMessageIds_result deepCopy() {
+      return new updateMessageIds_result(this);
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    public void setFieldValue(_Fields field, Object value) {
+      switch (field) {
+      }
+    }
+
+    public Object getFieldValue(_Fields field) {
+      switch (field) {
+      }
+      throw new IllegalStateException();
+    }
+
+    /** Returns true if field corresponding to fieldID is set (has been assigned a value) and false otherwise */
+    public boolean isSet(_Fields field) {
+      if (field == null) {
+        throw new IllegalArgumentException();
+      }
+
+      switch (field) {
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      if (that == null)
+        return false;
+      if (that instanceof updateMessageIds_result)
+        return this.equals((updateMessageIds_result)that);
+      return false;
+    }
+
+    public boolean equals(updateMessageIds_result that) {
+      if (that == null)
+        return false;
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+
+    public int compareTo(updateMessageIds_result other) {
+      if (!getClass().equals(other.getClass())) {
+        return getClass().getName().compareTo(other.getClass().getName());
+      }
+
+      int lastComparison = 0;
+      updateMessageIds_result typedOther = (updateMessageIds_result)other;
+
+      return 0;
+    }
+
+    public _Fields fieldForId(int fieldId) {
+      return _Fields.findByThriftId(fieldId);
+    }
+
+    public void read(org.apache.thrift.protocol.TProtocol iprot) throws org.apache.thrift.TException {
+      org.apache.thrift.protocol.TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == org.apache.thrift.protocol.TType.STOP) { 
+          break;
+        }
+        switch (field.id) {
+          default:
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+
+      // check for required fields of primitive type, which can't be checked in the validate method
+      validate();
+    }
+
+    public void write(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
+      oprot.writeStructBegin(STRUCT_DESC);
+
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("updateMessageIds_result(");
+      boolean first = true;
+
+      sb.append(")");
+      return sb.toString();
+    }
+
+    public void validate() throws org.apache.thrift.TException {
+      // check for required fields
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+      try {
+        write(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(out)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+      try {
+        read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+  }
+
+  public static class getSlotInfos_args implements org.apache.thrift.TBase<getSlotInfos_args, getSlotInfos_args._Fields>, java.io.Serializable, Cloneable   {
+    private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("getSlotInfos_args");
+
+    private static final org.apache.thrift.protocol.TField QUEUE_NAMES_FIELD_DESC = new org.apache.thrift.protocol.TField("queueNames", org.apache.thrift.protocol.TType.LIST, (short)1);
+    private static final org.apache.thrift.protocol.TField NODE_ID_FIELD_DESC = new org.apache.thrift.protocol.TField("nodeId", org.apache.thrift.protocol.TType.STRING, (short)2);
+
+    public List<String> queueNames; // required
+    public String nodeId; // required
+
+    /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
+    public enum _Fields implements org.apache.thrift.TFieldIdEnum {
+      QUEUE_NAMES((short)1, "queueNames"),
+      NODE_ID((short)2, "nodeId");
+
+      private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
+
+      static {
+        for (_Fields field : EnumSet.allOf(_Fields.class)) {
+          byName.put(field.getFieldName(), field);
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, or null if its not found.
+       */
+      public static _Fields findByThriftId(int fieldId) {
+        switch(fieldId) {
+          case 1: // QUEUE_NAMES
+            return QUEUE_NAMES;
+          case 2: // NODE_ID
+            return NODE_ID;
+          default:
+            return null;
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, throwing an exception
+       * if it is not found.
+       */
+      public static _Fields findByThriftIdOrThrow(int fieldId) {
+        _Fields fields = findByThriftId(fieldId);
+        if (fields == null) throw new IllegalArgumentException("Field " + fieldId + " doesn't exist!");
+        return fields;
+      }
+
+      /**
+       * Find the _Fields constant that matches name, or null if its not found.
+       */
+      public static _Fields findByName(String name) {
+        return byName.get(name);
+      }
+
+      private final short _thriftId;
+      private final String _fieldName;
+
+      _Fields(short thriftId, String fieldName) {
+        _thriftId = thriftId;
+        _fieldName = fieldName;
+      }
+
+      public short getThriftFieldId() {
+        return _thriftId;
+      }
+
+      public String getFieldName() {
+        return _fieldName;
+      }
+    }
+
+    // isset id assignments
+
+    public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
+    static {
+      Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
+      tmpMap.put(_Fields.QUEUE_NAMES, new org.apache.thrift.meta_data.FieldMetaData("queueNames", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
+              new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING))));
+      tmpMap.put(_Fields.NODE_ID, new org.apache.thrift.meta_data.FieldMetaData("nodeId", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+      metaDataMap = Collections.unmodifiableMap(tmpMap);
+      org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(getSlotInfos_args.class, metaDataMap);
+    }
+
+    public getSlotInfos_args() {
+    }
+
+    public getSlotInfos_args(
+      List<String> queueNames,
+      String nodeId)
+    {
+      this();
+      this.queueNames = queueNames;
+      this.nodeId = nodeId;
+    }
+
+    /**
+     * Performs a deep copy on <i>other</i>.
+     */
+    public getSlotInfos_args(getSlotInfos_args other) {
+      if (other.isSetQueueNames()) {
+        List<String> __this__queueNames = new ArrayList<String>();
+        for (String other_element : other.queueNames) {
+          __this__queueNames.add(other_element);
+        }
+        this.queueNames = __this__queueNames;
+      }
+      if (other.isSetNodeId()) {
+        this.nodeId = other.nodeId;
+      }
+    }
+
+    public getSlotInfos_args deepCopy() {
+      return new getSlotInfos_args(this);
+    }
+
+    @Override
+    public void clear() {
+      this.queueNames = null;
+      this.nodeId = null;
+    }
+
+    public int getQueueNamesSize() {
+      return (this.queueNames == null) ? 0 : this.queueNames.size();
+    }
+
+    public java.util.Iterator<String> getQueueNamesIterator() {
+      return (this.queueNames == null) ? null : this.queueNames.iterator();
+    }
+
+    public void addToQueueNames(String elem) {
+      if (this.queueNames == null) {
+        this.queueNames = new ArrayList<String>();
+      }
+      this.queueNames.add(elem);
+    }
+
+    public List<String> getQueueNames() {
+      return this.queueNames;
+    }
+
+    public getSlotInfos_args setQueueNames(List<String> queueNames) {
+      this.queueNames = queueNames;
+      return this;
+    }
+
+    public void unsetQueueNames() {
+      this.queueNames = null;
+    }
+
+    /** Returns true if field queueNames is set (has been assigned a value) and false otherwise */
+    public boolean isSetQueueNames() {
+      return this.queueNames != null;
+    }
+
+    public void setQueueNamesIsSet(boolean value) {
+      if (!value) {
+        this.queueNames = null;
+      }
+    }
+
+    public String getNodeId() {
+      return this.nodeId;
+    }
+
+    public getSlotInfos_args setNodeId(String nodeId) {
+      this.nodeId = nodeId;
+      return this;
+    }
+
+    public void unsetNodeId() {
+      this.nodeId = null;
+    }
+
+    /** Returns true if field nodeId is set (has been assigned a value) and false otherwise */
+    public boolean isSetNodeId() {
+      return this.nodeId != null;
+    }
+
+    public void setNodeIdIsSet(boolean value) {
+      if (!value) {
+        this.nodeId = null;
+      }
+    }
+
+    public void setFieldValue(_Fields field, Object value) {
+      switch (field) {
+      case QUEUE_NAMES:
+        if (value == null) {
+          unsetQueueNames();
+        } else {
+          setQueueNames((List<String>)value);
+        }
+        break;
+
+      case NODE_ID:
+        if (value == null) {
+          unsetNodeId();
+        } else {
+          setNodeId((String)value);
+        }
+        break;
+
+      }
+    }
+
+    public Object getFieldValue(_Fields field) {
+      switch (field) {
+      case QUEUE_NAMES:
+        return getQueueNames();
+
+      case NODE_ID:
+        return getNodeId();
+
+      }
+      throw new IllegalStateException();
+    }
+
+    /** Returns true if field corresponding to fieldID is set (has been assigned a value) and false otherwise */
+    public boolean isSet(_Fields field) {
+      if (field == null) {
+        throw new IllegalArgumentException();
+      }
+
+      switch (field) {
+      case QUEUE_NAMES:
+        return isSetQueueNames();
+      case NODE_ID:
+        return isSetNodeId();
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      if (that == null)
+        return false;
+      if (that instanceof getSlotInfos_args)
+        return this.equals((getSlotInfos_args)that);
+      return false;
+    }
+
+    public boolean equals(getSlotInfos_args that) {
+      if (that == null)
+        return false;
+
+      boolean this_present_queueNames = true && this.isSetQueueNames();
+      boolean that_present_queueNames = true && that.isSetQueueNames();
+      if (this_present_queueNames || that_present_queueNames) {
+        if (!(this_present_queueNames && that_present_queueNames))
+          return false;
+        if (!this.queueNames.equals(that.queueNames))
+          return false;
+      }
+
+      boolean this_present_nodeId = true && this.isSetNodeId();
+      boolean that_present_nodeId = true && that.isSetNodeId();
+      if (this_present_nodeId || that_present_nodeId) {
+        if (!(this_present_nodeId && that_present_nodeId))
+          return false;
+        if (!this.nodeId.equals(that.nodeId))
+          return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+
+    public int compareTo(getSlotInfos_args other) {
+      if (!getClass().equals(other.getClass())) {
+        return getClass().getName().compareTo(other.getClass().getName());
+      }
+
+      int lastComparison = 0;
+      getSlotInfos_args typedOther = (getSlotInfos_args)other;
+
+      lastComparison = Boolean.valueOf(isSetQueueNames()).compareTo(typedOther.isSetQueueNames());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetQueueNames()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.queueNames, typedOther.queueNames);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      lastComparison = Boolean.valueOf(isSetNodeId()).compareTo(typedOther.isSetNodeId());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetNodeId()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.nodeId, typedOther.nodeId);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      return 0;
+    }
+
+    public _Fields fieldForId(int fieldId) {
+      return _Fields.findByThriftId(fieldId);
+    }
+
+    public void read(org.apache.thrift.protocol.TProtocol iprot) throws org.apache.thrift.TException {
+      org.apache.thrift.protocol.TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == org.apache.thrift.protocol.TType.STOP) { 
+          break;
+        }
+        switch (field.id) {
+          case 1: // QUEUE_NAMES
+            if (field.type == org.apache.thrift.protocol.TType.LIST) {
+              {
+                org.apache.thrift.protocol.TList _list4 = iprot.readListBegin();
+                this.queueNames = new ArrayList<String>(_list4.size);
+                for (int _i5 = 0; _i5 < _list4.size; ++_i5)
+                {
+                  String _elem6; // required
+                  _elem6 = iprot.readString();
+                  this.queueNames.add(_elem6);
+                }
+                iprot.readListEnd();
+              }
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 2: // NODE_ID
+            if (field.type == org.apache.thrift.protocol.TType.STRING) {
+              this.nodeId = iprot.readString();
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+
+      // check for required fields of primitive type, which can't be checked in the validate method
+      validate();
+    }
+
+    public void write(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
+      validate();
+
+      oprot.writeStructBegin(STRUCT_DESC);
+      if (this.queueNames != null) {
+        oprot.writeFieldBegin(QUEUE_NAMES_FIELD_DESC);
+        {
+          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRING, this.queueNames.size()));
+          for (String _iter7 : this.queueNames)
+          {
+            oprot.writeString(_iter7);
+          }
+          oprot.writeListEnd();
+        }
+        oprot.writeFieldEnd();
+      }
+      if (this.nodeId != null) {
+        oprot.writeFieldBegin(NODE_ID_FIELD_DESC);
+        oprot.writeString(this.nodeId);
+        oprot.writeFieldEnd();
+      }
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("getSlotInfos_args(");
+      boolean first = true;
+
+      sb.append("queueNames:");
+      if (this.queueNames == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.queueNames);
+      }
+      first = false;
+      if (!first) sb.append(", ");
+      sb.append("nodeId:");
+      if (this.nodeId == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.nodeId);
+      }
+      first = false;
+      sb.append(")");
+      return sb.toString();
+    }
+
+    public void validate() throws org.apache.thrift.TException {
+      // check for required fields
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+      try {
+        write(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(out)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+      try {
+        read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+  }
+
+  public static class getSlotInfos_result implements org.apache.thrift.TBase<getSlotInfos_result, getSlotInfos_result._Fields>, java.io.Serializable, Cloneable   {
+    private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("getSlotInfos_result");
+
+    private static final org.apache.thrift.protocol.TField SUCCESS_FIELD_DESC = new org.apache.thrift.protocol.TField("success", org.apache.thrift.protocol.TType.LIST, (short)0);
+
+    public List<SlotInfo> success; // required
+
+    /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
+    public enum _Fields implements org.apache.thrift.TFieldIdEnum {
+      SUCCESS((short)0, "success");
+
+      private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
+
+      static {
+        for (_Fields field : EnumSet.allOf(_Fields.class)) {
+          byName.put(field.getFieldName(), field);
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, or null if its not found.
+       */
+      public static _Fields findByThriftId(int fieldId) {
+        switch(fieldId) {
+          case 0: // SUCCESS
+            return SUCCESS;
+          default:
+            return null;
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, throwing an exception
+       * if it is not found.
+       */
+      public static _Fields findByThriftIdOrThrow(int fieldId) {
+        _Fields fields = findByThriftId(fieldId);
+        if (fields == null) throw new IllegalArgumentException("Field " + fieldId + " doesn't exist!");
+        return fields;
+      }
+
+      /**
+       * Find the _Fields constant that matches name, or null if its not found.
+       */
+      public static _Fields findByName(String name) {
+        return byName.get(name);
+      }
+
+      private final short _thriftId;
+      private final String _fieldName;
+
+      _Fields(short thriftId, String fieldName) {
+        _thriftId = thriftId;
+        _fieldName = fieldName;
+      }
+
+      public short getThriftFieldId() {
+        return _thriftId;
+      }
+
+      public String getFieldName() {
+        return _fieldName;
+      }
+    }
+
+    // isset id assignments
+
+    public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
+    static {
+      Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
+      tmpMap.put(_Fields.SUCCESS, new org.apache.thrift.meta_data.FieldMetaData("success", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
+              new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, SlotInfo.class))));
+      metaDataMap = Collections.unmodifiableMap(tmpMap);
+      org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(getSlotInfos_result.class, metaDataMap);
+    }
+
+    public getSlotInfos_result() {
+    }
+
+    public getSlotInfos_result(
+      List<SlotInfo> success)
+    {
+      this();
+      this.success = success;
+    }
+
+    /**
+     * Performs a deep copy on <i>other</i>.
+     */
+    public getSlotInfos_result(getSlotInfos_result other) {
+      if (other.isSetSuccess()) {
+        List<SlotInfo> __this__success = new ArrayList<SlotInfo>();
+        for (SlotInfo other_element : other.success) {
+          __this__success.add(new SlotInfo(other_element));
+        }
+        this.success = __this__success;
+      }
+    }
+
+    public getSlotInfos_result deepCopy() {
+      return new getSlotInfos_result(this);
+    }
+
+    @Override
+    public void clear() {
+      this.success = null;
+    }
+
+    public int getSuccessSize() {
+      return (this.success == null) ? 0 : this.success.size();
+    }
+
+    public java.util.Iterator<SlotInfo> getSuccessIterator() {
+      return (this.success == null) ? null : this.success.iterator();
+    }
+
+    public void addToSuccess(SlotInfo elem) {
+      if (this.success == null) {
+        this.success = new ArrayList<SlotInfo>();
+      }
+      this.success.add(elem);
+    }
+
+    public List<SlotInfo> getSuccess() {
+      return this.success;
+    }
+
+    public getSlotInfos_result setSuccess(List<SlotInfo> success) {
+      this.success = success;
+      return this;
+    }
+
+    public void unsetSuccess() {
+      this.success = null;
+    }
+
+    /** Returns true if field success is set (has been assigned a value) and false otherwise */
+    public boolean isSetSuccess() {
+      return this.success != null;
+    }
+
+    public void setSuccessIsSet(boolean value) {
+      if (!value) {
+        this.success = null;
+      }
+    }
+
+    public void setFieldValue(_Fields field, Object value) {
+      switch (field) {
+      case SUCCESS:
+        if (value == null) {
+          unsetSuccess();
+        } else {
+          setSuccess((List<SlotInfo>)value);
+        }
+        break;
+
+      }
+    }
+
+    public Object getFieldValue(_Fields field) {
+      switch (field) {
+      case SUCCESS:
+        return getSuccess();
+
+      }
+      throw new IllegalStateException();
+    }
+
+    /** Returns true if field corresponding to fieldID is set (has been assigned a value) and false otherwise */
+    public boolean isSet(_Fields field) {
+      if (field == null) {
+        throw new IllegalArgumentException();
+      }
+
+      switch (field) {
+      case SUCCESS:
+        return isSetSuccess();
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      if (that == null)
+        return false;
+      if (that instanceof getSlotInfos_result)
+        return this.equals((getSlotInfos_result)that);
+      return false;
+    }
+
+    public boolean equals(getSlotInfos_result that) {
+      if (that == null)
+        return false;
+
+      boolean this_present_success = true && this.isSetSuccess();
+      boolean that_present_success = true && that.isSetSuccess();
+      if (this_present_success || that_present_success) {
+        if (!(this_present_success && that_present_success))
+          return false;
+        if (!this.success.equals(that.success))
+          return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+
+    public int compareTo(getSlotInfos_result other) {
+      if (!getClass().equals(other.getClass())) {
+        return getClass().getName().compareTo(other.getClass().getName());
+      }
+
+      int lastComparison = 0;
+      getSlotInfos_result typedOther = (getSlotInfos_result)other;
+
+      lastComparison = Boolean.valueOf(isSetSuccess()).compareTo(typedOther.isSetSuccess());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetSuccess()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.success, typedOther.success);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      return 0;
+    }
+
+    public _Fields fieldForId(int fieldId) {
+      return _Fields.findByThriftId(fieldId);
+    }
+
+    public void read(org.apache.thrift.protocol.TProtocol iprot) throws org.apache.thrift.TException {
+      org.apache.thrift.protocol.TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == org.apache.thrift.protocol.TType.STOP) { 
+          break;
+        }
+        switch (field.id) {
+          case 0: // SUCCESS
+            if (field.type == org.apache.thrift.protocol.TType.LIST) {
+              {
+                org.apache.thrift.protocol.TList _list8 = iprot.readListBegin();
+                this.success = new ArrayList<SlotInfo>(_list8.size);
+                for (int _i9 = 0; _i9 < _list8.size; ++_i9)
+                {
+                  SlotInfo _elem10; // required
+                  _elem10 = new SlotInfo();
+                  _elem10.read(iprot);
+                  this.success.add(_elem10);
+                }
+                iprot.readListEnd();
+              }
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+
+      // check for required fields of primitive type, which can't be checked in the validate method
+      validate();
+    }
+
+    public void write(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
+      oprot.writeStructBegin(STRUCT_DESC);
+
+      if (this.isSetSuccess()) {
+        oprot.writeFieldBegin(SUCCESS_FIELD_DESC);
+        {
+          oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRUCT, this.success.size()));
+          for (SlotInfo _iter11 : this.success)
+          {
+            _iter11.write(oprot);
+          }
+          oprot.writeListEnd();
+        }
+        oprot.writeFieldEnd();
+      }
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("getSlotInfos_result(");
+      boolean first = true;
+
+      sb.append("success:");
+      if (this.success == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.success);
+      }
+      first = false;
+      sb.append(")");
+      return sb.toString();
+    }
+
+    public void validate() throws org.apache.thrift.TException {
+      // check for required fields
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+      try {
+        write(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(out)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+      try {
+        read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+  }
+
 }
@@ -18,6 +18,24 @@ struct SlotInfo {
     
 }
 
+/*
+    Version of the cluster notifications published through the coordinator
+*/
+struct ClusterNotificationInfo {
+    1: i64 version;
+    2: i64 lastPublishedTime;
+}
+
+/*
+    A slot submitted by a node. Used to submit slots of several queues in one call
+*/
+struct SlotSubmissionInfo {
+    1: string queueName;
+    2: i64 startMessageId;
+    3: i64 endMessageId;
+    4: i64 localSafeZone;
+}
+
 /*
     the services provided to update and get information of slots in slotImp manager
 */
@@ -50,6 +68,25 @@ service SlotManagementService {
      *
      * @param queueName name of destination queue
      */
-    void clearAllActiveSlotRelationsToQueue(1: string queueName)
+    void clearAllActiveSlotRelationsToQueue(1: string queueName),
+
+    /* Notify the coordinator that a node stored cluster notifications, so that nodes waiting on
+    *  waitForClusterNotifications read them without waiting for the next poll.
+    */
+    void clusterNotificationsPublished(1: string nodeId, 2: i64 publishedTime),
+
+    /* Wait until cluster notifications are published after the given version or the timeout in milliseconds
+    *  elapses, and return the current version.
+    */
+    ClusterNotificationInfo waitForClusterNotifications(1: string nodeId, 2: i64 lastSeenVersion, 3: i64 timeout),
+
+    /* The updateMessageId operation for slots of several queues submitted at once
+    */
+    void updateMessageIds(1: string nodeId, 2: list<SlotSubmissionInfo> slotSubmissions),
+
+    /* The getSlot operation for several queues at once. Slots are returned in the order of the queue names. An empty
+    *  slot is returned for a queue which has no slot to be assigned.
+    */
+    list<SlotInfo> getSlotInfos(1: list<string> queueNames, 2: string nodeId)
 
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+package org.dna.mqtt.moquette.messaging.spi.impl.subscriptions;
+
+import org.dna.mqtt.moquette.messaging.spi.IPersistentSubscriptionStore;
+import org.dna.mqtt.moquette.proto.messages.AbstractMessage.QOSType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for {@link SubscriptionsStore}
+ */
+public class SubscriptionsStoreTest {
+
+    /**
+     * Number of threads using the store at once, as the MQTT protocol processors do
+     */
+    private static final int PROCESSOR_COUNT = 4;
+
+    private static final int TOPIC_COUNT = 200;
+
+    private SubscriptionsStore subscriptionsStore;
+
+    @Before
+    public void setUp() {
+        subscriptionsStore = new SubscriptionsStore();
+        subscriptionsStore.init(mock(IPersistentSubscriptionStore.class));
+    }
+
+    /**
+     * Clients of different processors subscribing to the same new topics while messages are matched do not lose
+     * subscriptions, and matching does not fail
+     */
+    @Test
+    public void testConcurrentSubscribeAndMatch() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(PROCESSOR_COUNT * 2);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int processor = 0; processor < PROCESSOR_COUNT; processor++) {
+                final String clientId = "client" + processor;
+                futures.add(executorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        await(startLatch);
+                        for (int i = 0; i < TOPIC_COUNT; i++) {
+                            subscriptionsStore.add(new Subscription(clientId, "sensors/" + i + "/temperature",
+                                    QOSType.MOST_ONE, true));
+                        }
+                    }
+                }));
+                futures.add(executorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        await(startLatch);
+                        for (int i = 0; i < TOPIC_COUNT; i++) {
+                            subscriptionsStore.matches("sensors/" + i + "/temperature");
+                        }
+                    }
+                }));
+            }
+
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(PROCESSOR_COUNT * TOPIC_COUNT, subscriptionsStore.size());
+        for (int i = 0; i < TOPIC_COUNT; i++) {
+            assertEquals(PROCESSOR_COUNT, subscriptionsStore.matches("sensors/" + i + "/temperature").size());
+        }
+    }
+
+    /**
+     * Subscriptions removed for a client while messages are matched are no longer matched
+     */
+    @Test
+    public void testConcurrentRemoveAndMatch() throws Exception {
+        for (int i = 0; i < TOPIC_COUNT; i++) {
+            subscriptionsStore.add(new Subscription("client", "sensors/" + i, QOSType.MOST_ONE, true));
+        }
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> matcher = executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < TOPIC_COUNT; i++) {
+                        subscriptionsStore.matches("sensors/+");
+                    }
+                }
+            });
+            for (int i = 0; i < TOPIC_COUNT; i++) {
+                subscriptionsStore.removeSubscription("sensors/" + i, "client");
+            }
+            matcher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertTrue(subscriptionsStore.matches("sensors/1").isEmpty());
+        assertEquals(0, subscriptionsStore.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.amqp;
+
+import org.junit.Test;
+import org.wso2.andes.framing.AMQShortString;
+import org.wso2.andes.framing.BasicContentHeaderProperties;
+import org.wso2.andes.framing.ContentHeaderBody;
+import org.wso2.andes.framing.FieldTable;
+import org.wso2.andes.framing.abstraction.MessagePublishInfoImpl;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.server.filter.JMSSelectorFilter;
+import org.wso2.andes.server.message.MessageMetaData;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link MetadataFilterable} and selector filters shared between subscriptions
+ */
+public class MetadataFilterableTest {
+
+    /**
+     * Selectors read headers and properties from Andes metadata
+     */
+    @Test
+    public void testSelectorMatchesMetadata() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("region", "north");
+        properties.put("level", 5);
+        MetadataFilterable message = new MetadataFilterable(createMetadata(1, properties, "reading"));
+
+        assertEquals("north", message.getMessageHeader().getHeader("region"));
+        assertTrue(message.isPersistent());
+        assertFalse(message.isRedelivered());
+
+        assertTrue(new JMSSelectorFilter("region = 'north' AND level > 3").matches(message));
+        assertFalse(new JMSSelectorFilter("region = 'south' OR level > 5").matches(message));
+        assertTrue(new JMSSelectorFilter("JMSType = 'reading' AND JMSDeliveryMode = 'PERSISTENT'")
+                .matches(message));
+    }
+
+    /**
+     * Subscriptions with the same selector share one filter
+     */
+    @Test
+    public void testSharedFilter() throws Exception {
+        JMSSelectorFilter filter = JMSSelectorFilter.getSharedFilter("region = 'east'");
+
+        assertSame(filter, JMSSelectorFilter.getSharedFilter("region = 'east'"));
+        assertNotSame(filter, JMSSelectorFilter.getSharedFilter("region = 'west'"));
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("region", "east");
+        MetadataFilterable eastMessage = new MetadataFilterable(createMetadata(1, properties, null));
+        properties.put("region", "west");
+        MetadataFilterable westMessage = new MetadataFilterable(createMetadata(2, properties, null));
+
+        // A shared filter keeps no state of the messages it evaluated
+        assertTrue(filter.matches(eastMessage));
+        assertFalse(filter.matches(westMessage));
+        assertTrue(filter.matches(eastMessage));
+    }
+
+    /**
+     * Create metadata of an AMQP message with the given properties
+     *
+     * @param messageId  message id
+     * @param properties message properties
+     * @param type       JMS type of the message
+     * @return message metadata
+     */
+    static AndesMessageMetadata createMetadata(long messageId, Map<String, Object> properties, String type) {
+        BasicContentHeaderProperties headerProperties = new BasicContentHeaderProperties();
+        headerProperties.setHeaders(FieldTable.convertToFieldTable(properties));
+        headerProperties.setDeliveryMode((byte) BasicContentHeaderProperties.PERSISTENT);
+        if (null != type) {
+            headerProperties.setType(type);
+        }
+        MessageMetaData messageMetaData = new MessageMetaData(
+                new MessagePublishInfoImpl(new AMQShortString("amq.direct"), false, false,
+                        new AMQShortString("queue1")),
+                new ContentHeaderBody(headerProperties, 60), 1);
+
+        byte[] underlying = new byte[1 + messageMetaData.getStorableSize()];
+        underlying[0] = (byte) messageMetaData.getType().ordinal();
+        ByteBuffer buffer = ByteBuffer.wrap(underlying);
+        buffer.position(1);
+        messageMetaData.writeToBuffer(0, buffer.slice());
+        return new AndesMessageMetadata(messageId, underlying, false);
+    }
+}
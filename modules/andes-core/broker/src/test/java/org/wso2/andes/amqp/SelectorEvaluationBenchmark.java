@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.amqp;
+
+import org.wso2.andes.AMQInvalidArgumentException;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.server.filter.JMSSelectorFilter;
+import org.wso2.andes.server.message.AMQMessage;
+import org.wso2.andes.server.message.AMQMessageHeader;
+import org.wso2.andes.server.queue.Filterable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Benchmark of offering messages of one queue to subscriptions with selectors. Not run as part of the unit tests.
+ * <p/>
+ * Compares converting the metadata for each subscription and evaluating a filter per subscription, as done before
+ * selectors were evaluated on metadata, with evaluating shared filters against metadata parsed once per message.
+ * Subscriptions select on one of a given number of distinct regions.
+ * <p/>
+ * Usage: SelectorEvaluationBenchmark [subscriptionCount] [distinctSelectors] [messageCount]
+ */
+public class SelectorEvaluationBenchmark {
+
+    public static void main(String[] args) throws AMQInvalidArgumentException {
+        int subscriptionCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int distinctSelectors = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int messageCount = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+
+        JMSSelectorFilter[] perSubscriptionFilters = new JMSSelectorFilter[subscriptionCount];
+        JMSSelectorFilter[] sharedFilters = new JMSSelectorFilter[subscriptionCount];
+        for (int i = 0; i < subscriptionCount; i++) {
+            String selector = "region = 'region" + (i % distinctSelectors) + "' AND level > 2";
+            perSubscriptionFilters[i] = new JMSSelectorFilter(selector);
+            sharedFilters[i] = JMSSelectorFilter.getSharedFilter(selector);
+        }
+
+        AndesMessageMetadata[] messages = new AndesMessageMetadata[messageCount];
+        for (int i = 0; i < messageCount; i++) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("region", "region" + (i % distinctSelectors));
+            properties.put("level", i % 5);
+            properties.put("source", "sensor" + i);
+            messages[i] = MetadataFilterableTest.createMetadata(i, properties, "reading");
+        }
+
+        // Warm up both paths before measuring
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            long accepted = runPerSubscriptionConversion(perSubscriptionFilters, messages);
+            long perSubscriptionTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long sharedAccepted = runSharedEvaluation(sharedFilters, messages);
+            long sharedTime = System.nanoTime() - start;
+
+            if (round > 0) {
+                System.out.println(subscriptionCount + " subscriptions, " + distinctSelectors + " distinct selectors, "
+                        + messageCount + " messages");
+                print("per subscription conversion", perSubscriptionTime, accepted, messageCount);
+                print("shared evaluation on metadata", sharedTime, sharedAccepted, messageCount);
+            }
+        }
+    }
+
+    private static long runPerSubscriptionConversion(JMSSelectorFilter[] filters, AndesMessageMetadata[] messages) {
+        long accepted = 0;
+        for (AndesMessageMetadata message : messages) {
+            for (JMSSelectorFilter filter : filters) {
+                final AMQMessage amqMessage = AMQPUtils.getAMQMessageFromAndesMetaData(message);
+                Filterable filterable = new Filterable() {
+                    @Override
+                    public AMQMessageHeader getMessageHeader() {
+                        return amqMessage.getMessageHeader();
+                    }
+
+                    @Override
+                    public boolean isPersistent() {
+                        return amqMessage.isPersistent();
+                    }
+
+                    @Override
+                    public boolean isRedelivered() {
+                        return false;
+                    }
+                };
+                if (filter.matches(filterable)) {
+                    accepted++;
+                }
+            }
+        }
+        return accepted;
+    }
+
+    private static long runSharedEvaluation(JMSSelectorFilter[] filters, AndesMessageMetadata[] messages) {
+        long accepted = 0;
+        for (AndesMessageMetadata message : messages) {
+            MetadataFilterable filterable = new MetadataFilterable(message);
+            for (JMSSelectorFilter filter : filters) {
+                if (filter.matches(filterable)) {
+                    accepted++;
+                }
+            }
+        }
+        return accepted;
+    }
+
+    private static void print(String name, long timeInNanos, long accepted, int messageCount) {
+        System.out.println(String.format("%-32s %10.3f us/message, %d deliveries", name,
+                timeInNanos / 1000.0 / messageCount, accepted));
+    }
+}
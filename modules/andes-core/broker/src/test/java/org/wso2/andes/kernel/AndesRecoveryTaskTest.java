@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.andes.server.cluster.coordination.EventListenerCreator;
+import org.wso2.andes.subscription.SubscriptionEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the incremental sync of {@link AndesRecoveryTask}
+ */
+public class AndesRecoveryTaskTest {
+
+    private static final int FULL_RELOAD_INTERVAL = 5;
+
+    private AndesContextStore contextStore;
+
+    private AndesSubscriptionManager subscriptionManager;
+
+    private AndesRecoveryTask recoveryTask;
+
+    @Before
+    public void setUp() {
+        contextStore = mock(AndesContextStore.class);
+        subscriptionManager = mock(AndesSubscriptionManager.class);
+        recoveryTask = new AndesRecoveryTask(mock(EventListenerCreator.class), contextStore,
+                mock(AMQPConstructStore.class), mock(SubscriptionEngine.class), subscriptionManager,
+                FULL_RELOAD_INTERVAL);
+    }
+
+    /**
+     * Changes are continuous only if they start right after the applied version without gaps
+     */
+    @Test
+    public void testIsContinuous() {
+        assertTrue(AndesRecoveryTask.isContinuous(Arrays.asList(queueChange(11, "q1"), queueChange(12, "q2")), 10));
+        assertFalse(AndesRecoveryTask.isContinuous(Collections.<ContextChange>emptyList(), 10));
+        assertFalse(AndesRecoveryTask.isContinuous(Arrays.asList(queueChange(12, "q1")), 10));
+        assertFalse(AndesRecoveryTask.isContinuous(Arrays.asList(queueChange(11, "q1"), queueChange(13, "q2")), 10));
+    }
+
+    /**
+     * Only the last change of each entity is kept, in the order of those changes
+     */
+    @Test
+    public void testLastChangePerEntity() {
+        ContextChange firstOfQueue1 = queueChange(1, "q1");
+        ContextChange queue2 = queueChange(2, "q2");
+        ContextChange lastOfQueue1 = queueChange(3, "q1");
+
+        List<ContextChange> lastChanges = new ArrayList<>(
+                AndesRecoveryTask.getLastChangePerEntity(Arrays.asList(firstOfQueue1, queue2, lastOfQueue1)));
+
+        assertEquals(Arrays.asList(queue2, lastOfQueue1), lastChanges);
+    }
+
+    /**
+     * Continuous changes are applied without a full reload, and local subscriptions are reconciled on each sync
+     */
+    @Test
+    public void testApplyChanges() throws AndesException {
+        when(contextStore.getContextVersion()).thenReturn(10L, 12L, 12L);
+        when(contextStore.getContextChanges(10L)).thenReturn(Arrays.asList(queueChange(11, "q1"),
+                queueChange(12, "q2")));
+
+        recoveryTask.syncWithContextStore();
+        recoveryTask.syncWithContextStore();
+        recoveryTask.syncWithContextStore();
+
+        verify(contextStore, times(1)).getAllQueuesStored();
+        verify(contextStore, times(1)).getContextChanges(anyLong());
+        verify(subscriptionManager, times(2)).removeInvalidLocalSubscriptionsFromStorage();
+    }
+
+    /**
+     * Everything is reloaded when the context version goes back
+     */
+    @Test
+    public void testReloadWhenVersionGoesBack() throws AndesException {
+        when(contextStore.getContextVersion()).thenReturn(10L, 5L);
+
+        recoveryTask.syncWithContextStore();
+        recoveryTask.syncWithContextStore();
+
+        verify(contextStore, times(2)).getAllQueuesStored();
+        verify(contextStore, never()).getContextChanges(anyLong());
+    }
+
+    /**
+     * Everything is reloaded when a change is missing
+     */
+    @Test
+    public void testReloadWhenChangeMissing() throws AndesException {
+        when(contextStore.getContextVersion()).thenReturn(10L, 12L, 13L);
+        when(contextStore.getContextChanges(10L)).thenReturn(Arrays.asList(queueChange(12, "q1")));
+        when(contextStore.getContextChanges(12L)).thenReturn(Arrays.asList(queueChange(13, "q1")));
+
+        recoveryTask.syncWithContextStore();
+        recoveryTask.syncWithContextStore();
+        // Changes are applied from the version read before the reload
+        recoveryTask.syncWithContextStore();
+
+        verify(contextStore, times(2)).getAllQueuesStored();
+        verify(contextStore).getContextChanges(12L);
+    }
+
+    /**
+     * Everything is reloaded every few syncs even if changes could be applied
+     */
+    @Test
+    public void testPeriodicFullReload() throws AndesException {
+        when(contextStore.getContextVersion()).thenReturn(10L);
+
+        for (int i = 0; i <= FULL_RELOAD_INTERVAL; i++) {
+            recoveryTask.syncWithContextStore();
+        }
+
+        verify(contextStore, times(2)).getAllQueuesStored();
+        verify(subscriptionManager, times(FULL_RELOAD_INTERVAL - 1)).removeInvalidLocalSubscriptionsFromStorage();
+    }
+
+    private static ContextChange queueChange(long version, String queueName) {
+        return new ContextChange(version, ContextChange.EntityType.QUEUE, ContextChange.ChangeType.DELETED,
+                queueName, null, null);
+    }
+}
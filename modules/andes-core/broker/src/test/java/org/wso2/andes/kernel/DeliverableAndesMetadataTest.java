@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.subscription.LocalSubscription;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the delivery state tracking of {@link DeliverableAndesMetadata}
+ */
+public class DeliverableAndesMetadataTest {
+
+    private DeliverableAndesMetadata metadata;
+
+    private UUID firstChannel;
+
+    private UUID secondChannel;
+
+    @Before
+    public void setUp() {
+        Slot slot = new Slot(1, 100, "queue1");
+        slot.setStorageQueueName("queue1");
+        metadata = new DeliverableAndesMetadata(slot, 10L, null, false);
+        firstChannel = UUID.randomUUID();
+        secondChannel = UUID.randomUUID();
+    }
+
+    /**
+     * Message is acknowledged by all once every scheduled channel acknowledged it
+     */
+    @Test
+    public void testAcknowledgedByAllChannels() {
+        assertEquals(MessageStatus.READ, metadata.getLatestState());
+        metadata.markAsBuffered();
+        metadata.markAsScheduledToDeliver(Arrays.asList(createSubscription(firstChannel),
+                createSubscription(secondChannel)));
+        assertEquals(MessageStatus.SCHEDULED_TO_SEND, metadata.getLatestState());
+        assertEquals(2, metadata.getAllDeliveredChannels().size());
+
+        metadata.markAsDispatchedToDeliver(firstChannel);
+        metadata.markAsDispatchedToDeliver(secondChannel);
+        assertTrue(metadata.isRedelivered(firstChannel));
+
+        assertFalse(metadata.markAsAcknowledgedByChannel(firstChannel));
+        assertTrue(metadata.markAsAcknowledgedByChannel(secondChannel));
+        assertTrue(metadata.isAknowledgedByAll());
+        assertFalse(metadata.isOKToDispose());
+
+        metadata.markAsSlotRemoved();
+        assertEquals(MessageStatus.ACKED_BY_ALL, metadata.getLatestState());
+        metadata.markAsSlotReturned();
+        assertTrue(metadata.isOKToDispose());
+    }
+
+    /**
+     * Delivery count follows dispatches and send failures. Rejected and closed channels are not waited for an
+     * acknowledgement.
+     */
+    @Test
+    public void testDeliveryCountAndRejection() {
+        metadata.markAsBuffered();
+        metadata.markAsScheduledToDeliver(createSubscription(firstChannel));
+        metadata.markAsScheduledToDeliver(createSubscription(secondChannel));
+        assertEquals(0, metadata.getNumOfDeliveries4Channel(firstChannel));
+
+        metadata.markAsDispatchedToDeliver(firstChannel);
+        metadata.markAsNackedByClient(firstChannel);
+        metadata.markAsDispatchedToDeliver(firstChannel);
+        assertEquals(2, metadata.getNumOfDeliveries4Channel(firstChannel));
+        assertEquals(1, metadata.markDeliveryFailureOfASentMessage(firstChannel));
+        metadata.markAsRejectedByClient(firstChannel);
+
+        metadata.markAsDispatchedToDeliver(secondChannel);
+        metadata.markDeliveredChannelAsClosed(secondChannel);
+        metadata.evaluateMessageAcknowledgement();
+        assertTrue(metadata.isAknowledgedByAll());
+        assertEquals(0, metadata.getNumOfDeliveries4Channel(UUID.randomUUID()));
+    }
+
+    /**
+     * Invalid transitions are ignored and statuses the message passed decide whether it can be disposed
+     */
+    @Test
+    public void testInvalidTransitionsAndDisposal() {
+        assertFalse(metadata.addMessageStatus(MessageStatus.ACKED_BY_ALL));
+        assertEquals(MessageStatus.READ, metadata.getLatestState());
+
+        metadata.markAsBuffered();
+        metadata.markAsScheduledToDeliver(createSubscription(firstChannel));
+        metadata.markAsDLCMessage();
+        assertTrue(metadata.isDLCMessage());
+        assertTrue(metadata.isOKToDispose());
+
+        // Message stays disposable after being buffered again
+        metadata.markAsBuffered();
+        assertTrue(metadata.isOKToDispose());
+        assertEquals(MessageStatus.BUFFERED, metadata.getStatusHistory().get(
+                metadata.getStatusHistory().size() - 1));
+    }
+
+    private LocalSubscription createSubscription(UUID channelID) {
+        LocalSubscription subscription = mock(LocalSubscription.class);
+        when(subscription.getChannelID()).thenReturn(channelID);
+        return subscription;
+    }
+}
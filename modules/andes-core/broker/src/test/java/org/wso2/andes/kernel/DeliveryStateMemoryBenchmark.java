@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+import com.gs.collections.impl.map.mutable.ConcurrentHashMap;
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.subscription.LocalSubscription;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+/**
+ * Memory benchmark for the delivery state kept per in flight message by {@link DeliverableAndesMetadata}. Reports
+ * retained bytes per message for the compact state and for the status history lists and channel map that were kept
+ * earlier, after driving each message through buffering, scheduling, dispatch and acknowledgement. Not run as part
+ * of the unit tests. Run with a fixed heap (e.g. -Xms2g -Xmx2g) for stable numbers.
+ * <p>
+ * Usage: DeliveryStateMemoryBenchmark [messages] [channelsPerMessage]
+ */
+public class DeliveryStateMemoryBenchmark {
+
+    public static void main(String[] args) {
+        int messageCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int channelsPerMessage = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        Slot slot = new Slot(0, Long.MAX_VALUE, "benchmarkQueue");
+        slot.setStorageQueueName("benchmarkQueue");
+        List<LocalSubscription> subscriptions = new ArrayList<>(channelsPerMessage);
+        for (int i = 0; i < channelsPerMessage; i++) {
+            subscriptions.add(mock(LocalSubscription.class));
+        }
+        List<UUID> channelIDs = new ArrayList<>(channelsPerMessage);
+        for (int i = 0; i < channelsPerMessage; i++) {
+            channelIDs.add(UUID.randomUUID());
+        }
+
+        // Base metadata is allocated in both cases so that only the delivery state differs
+        long baseBytes = measure(new BaseMetadataAllocator(), messageCount, subscriptions, channelIDs);
+        long legacyBytes = measure(new LegacyStateAllocator(subscriptions), messageCount, subscriptions, channelIDs);
+        long compactBytes = measure(new CompactStateAllocator(slot, subscriptions), messageCount, subscriptions,
+                channelIDs);
+
+        System.out.println("messages=" + messageCount + " channels/message=" + channelsPerMessage);
+        System.out.println("status history lists : " + (legacyBytes - baseBytes) / messageCount
+                + " bytes of delivery state per message");
+        System.out.println("compact state        : " + (compactBytes - baseBytes) / messageCount
+                + " bytes of delivery state per message");
+    }
+
+    private static long measure(Allocator allocator, int messageCount, List<LocalSubscription> subscriptions,
+                                List<UUID> channelIDs) {
+        stubSubscriptions(subscriptions, channelIDs);
+        Object[] retained = new Object[messageCount];
+        long before = usedMemory();
+        for (int i = 0; i < messageCount; i++) {
+            retained[i] = allocator.allocate(i);
+        }
+        // Mocks record every invocation. Drop them so that they are not counted as delivery state
+        stubSubscriptions(subscriptions, channelIDs);
+        long after = usedMemory();
+        if (retained[messageCount - 1] == null) {
+            throw new IllegalStateException("Allocation failed");
+        }
+        return after - before;
+    }
+
+    private static void stubSubscriptions(List<LocalSubscription> subscriptions, List<UUID> channelIDs) {
+        for (int i = 0; i < subscriptions.size(); i++) {
+            reset(subscriptions.get(i));
+            when(subscriptions.get(i).getChannelID()).thenReturn(channelIDs.get(i));
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private interface Allocator {
+        Object allocate(long messageId);
+    }
+
+    private static class BaseMetadataAllocator implements Allocator {
+        @Override
+        public Object allocate(long messageId) {
+            return new AndesMessageMetadata(messageId, null, false);
+        }
+    }
+
+    private static class CompactStateAllocator implements Allocator {
+
+        private final Slot slot;
+
+        private final List<LocalSubscription> subscriptions;
+
+        CompactStateAllocator(Slot slot, List<LocalSubscription> subscriptions) {
+            this.slot = slot;
+            this.subscriptions = subscriptions;
+        }
+
+        @Override
+        public Object allocate(long messageId) {
+            DeliverableAndesMetadata metadata = new DeliverableAndesMetadata(slot, messageId, null, false);
+            metadata.markAsBuffered();
+            metadata.markAsScheduledToDeliver(subscriptions);
+            for (LocalSubscription subscription : subscriptions) {
+                metadata.markAsDispatchedToDeliver(subscription.getChannelID());
+                metadata.markAsAcknowledgedByChannel(subscription.getChannelID());
+            }
+            return metadata;
+        }
+    }
+
+    /**
+     * Replicates the structures previously kept by {@link DeliverableAndesMetadata}: a synchronized status list,
+     * a channel map and a status list and boxed delivery count per channel
+     */
+    private static class LegacyStateAllocator implements Allocator {
+
+        private final List<LocalSubscription> subscriptions;
+
+        LegacyStateAllocator(List<LocalSubscription> subscriptions) {
+            this.subscriptions = subscriptions;
+        }
+
+        @Override
+        public Object allocate(long messageId) {
+            LegacyState state = new LegacyState(new AndesMessageMetadata(messageId, null, false));
+            state.messageStatus.add(MessageStatus.BUFFERED);
+            for (LocalSubscription subscription : subscriptions) {
+                state.channelDeliveryInfo.put(subscription.getChannelID(), new LegacyChannelInformation());
+            }
+            state.messageStatus.add(MessageStatus.SCHEDULED_TO_SEND);
+            for (LegacyChannelInformation channelInformation : state.channelDeliveryInfo.values()) {
+                channelInformation.statuses.add(ChannelMessageStatus.DISPATCHED);
+                channelInformation.deliveryCount = channelInformation.deliveryCount + 1;
+                channelInformation.statuses.add(ChannelMessageStatus.ACKED);
+            }
+            state.messageStatus.add(MessageStatus.ACKED_BY_ALL);
+            return state;
+        }
+    }
+
+    private static class LegacyState {
+
+        private final AndesMessageMetadata metadata;
+
+        private final Map<UUID, LegacyChannelInformation> channelDeliveryInfo = new ConcurrentHashMap<>();
+
+        private final List<MessageStatus> messageStatus =
+                Collections.synchronizedList(new ArrayList<MessageStatus>());
+
+        LegacyState(AndesMessageMetadata metadata) {
+            this.metadata = metadata;
+            messageStatus.add(MessageStatus.READ);
+        }
+    }
+
+    private static class LegacyChannelInformation {
+
+        private Integer deliveryCount = 0;
+
+        private final List<ChannelMessageStatus> statuses = new ArrayList<>(5);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test class for {@link DisruptorCachedContent}
+ */
+public class DisruptorCachedContentTest {
+
+    private static final int CHUNK_SIZE = 10;
+
+    private static final int CONTENT_LENGTH = 35;
+
+    /**
+     * Slices spanning several chunks hold the same bytes as copied content and share the chunk arrays
+     */
+    @Test
+    public void testContentSlices() throws AndesException {
+        Map<Integer, AndesMessagePart> parts = new HashMap<>();
+        for (int offset = 0; offset < CONTENT_LENGTH; offset += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, CONTENT_LENGTH - offset);
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++) {
+                data[i] = (byte) (offset + i);
+            }
+            AndesMessagePart part = new AndesMessagePart();
+            part.setOffSet(offset);
+            part.setData(data);
+            part.setDataLength(length);
+            parts.put(offset, part);
+        }
+        DisruptorCachedContent content = new DisruptorCachedContent(parts, CONTENT_LENGTH, CHUNK_SIZE);
+
+        List<ByteBuffer> slices = new ArrayList<>();
+        content.addContentSlices(5, 30, slices);
+        assertEquals(4, slices.size());
+        assertSame(parts.get(0).getData(), slices.get(0).array());
+
+        ByteBuffer sliced = ByteBuffer.allocate(30);
+        for (ByteBuffer slice : slices) {
+            sliced.put(slice);
+        }
+        ByteBuffer copied = ByteBuffer.allocate(30);
+        content.putContent(5, copied);
+        assertArrayEquals(copied.array(), sliced.array());
+
+        // Ranges beyond the content are cut at the content length
+        slices.clear();
+        content.addContentSlices(30, 100, slices);
+        assertEquals(1, slices.size());
+        assertEquals(5, slices.get(0).remaining());
+    }
+}
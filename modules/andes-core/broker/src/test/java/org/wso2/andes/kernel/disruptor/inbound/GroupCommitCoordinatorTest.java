@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.inbound;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.MessagingEngine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for {@link GroupCommitCoordinator}
+ */
+public class GroupCommitCoordinatorTest {
+
+    /**
+     * Writers committing together are stored with a single store call
+     */
+    @Test
+    public void testWritersCommittedTogether() throws Exception {
+        List<Integer> storedBatchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        // A long wait time makes sure the leader waits for the other writers
+        GroupCommitCoordinator coordinator = new GroupCommitCoordinator(createMessagingEngine(storedBatchSizes), 3,
+                10000000);
+
+        List<Future<Void>> results = commitConcurrently(coordinator, 3);
+        for (Future<Void> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, storedBatchSizes.size());
+        assertEquals(Integer.valueOf(3), storedBatchSizes.get(0));
+    }
+
+    /**
+     * A single writer is not held back beyond the wait time
+     */
+    @Test
+    public void testSingleWriterCommitsAfterWaitTime() throws Exception {
+        List<Integer> storedBatchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        GroupCommitCoordinator coordinator = new GroupCommitCoordinator(createMessagingEngine(storedBatchSizes), 2,
+                1000);
+
+        coordinator.commit(Collections.singletonList(mock(AndesMessage.class)));
+        coordinator.commit(Collections.singletonList(mock(AndesMessage.class)));
+
+        assertEquals(2, storedBatchSizes.size());
+    }
+
+    /**
+     * Every writer of a group gets the store failure
+     */
+    @Test
+    public void testFailureReportedToAllWriters() throws Exception {
+        MessagingEngine messagingEngine = mock(MessagingEngine.class);
+        doThrow(new AndesException("Store failure")).when(messagingEngine)
+                .messagesReceived(anyListOf(AndesMessage.class));
+        GroupCommitCoordinator coordinator = new GroupCommitCoordinator(messagingEngine, 2, 10000000);
+
+        for (Future<Void> result : commitConcurrently(coordinator, 2)) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                fail("Store failure should be reported to each writer");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof AndesException);
+            }
+        }
+        verify(messagingEngine, times(1)).messagesReceived(anyListOf(AndesMessage.class));
+    }
+
+    private List<Future<Void>> commitConcurrently(final GroupCommitCoordinator coordinator, int writerCount) {
+        ExecutorService executor = Executors.newFixedThreadPool(writerCount);
+        List<Future<Void>> results = new ArrayList<>(writerCount);
+        for (int i = 0; i < writerCount; i++) {
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    coordinator.commit(Collections.singletonList(mock(AndesMessage.class)));
+                    return null;
+                }
+            }));
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    /**
+     * Create a messaging engine which records the size of each batch stored
+     */
+    private MessagingEngine createMessagingEngine(final List<Integer> storedBatchSizes) throws AndesException {
+        MessagingEngine messagingEngine = mock(MessagingEngine.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                storedBatchSizes.add(((List<?>) invocation.getArguments()[0]).size());
+                return null;
+            }
+        }).when(messagingEngine).messagesReceived(anyListOf(AndesMessage.class));
+        return messagingEngine;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.disruptor.waitStrategy;
+
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.andes.kernel.disruptor.HandlerLagGauge;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link AdaptiveWaitStrategy}
+ */
+public class AdaptiveWaitStrategyTest {
+
+    private static final int RING_SIZE = 1024;
+
+    private ExecutorService executor;
+
+    private Disruptor<long[]> disruptor;
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private volatile CountDownLatch processed;
+
+    private volatile CountDownLatch releaseSecondStage = new CountDownLatch(0);
+
+    private EventHandlerGroup<long[]> secondStage;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        disruptor = new Disruptor<>(new EventFactory<long[]>() {
+            @Override
+            public long[] newInstance() {
+                return new long[1];
+            }
+        }, RING_SIZE, executor, ProducerType.MULTI, new AdaptiveWaitStrategy(10, 10));
+
+        EventHandler<long[]> firstStage = new EventHandler<long[]>() {
+            @Override
+            public void onEvent(long[] event, long sequence, boolean endOfBatch) {
+                event[0] = event[0] * 2;
+            }
+        };
+        secondStage = disruptor.handleEventsWith(firstStage).then(new EventHandler<long[]>() {
+            @Override
+            public void onEvent(long[] event, long sequence, boolean endOfBatch) throws InterruptedException {
+                releaseSecondStage.await();
+                sum.addAndGet(event[0]);
+                processed.countDown();
+            }
+        });
+        disruptor.start();
+    }
+
+    @After
+    public void tearDown() {
+        disruptor.shutdown();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Events published in a burst, after the processors blocked and from several publishers are all processed by
+     * both stages
+     */
+    @Test
+    public void testEventsProcessed() throws InterruptedException {
+        processed = new CountDownLatch(100);
+        publish(1, 100);
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+        assertEquals(2 * 5050, sum.get());
+
+        // Processors are blocked by now and need a signal to continue
+        Thread.sleep(100);
+        sum.set(0);
+        processed = new CountDownLatch(1);
+        publish(21, 21);
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+        assertEquals(42, sum.get());
+
+        sum.set(0);
+        processed = new CountDownLatch(4 * 1000);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    publish(1, 1000);
+                }
+            });
+        }
+        assertTrue(processed.await(10, TimeUnit.SECONDS));
+        assertEquals(4 * 2 * 500500L, sum.get());
+    }
+
+    /**
+     * Lag of a stage is the number of events it has not processed yet
+     */
+    @Test
+    public void testHandlerLag() throws InterruptedException {
+        HandlerLagGauge lagGauge = new HandlerLagGauge(disruptor.getRingBuffer(), secondStage);
+        assertEquals(0L, (long) lagGauge.getValue());
+
+        releaseSecondStage = new CountDownLatch(1);
+        processed = new CountDownLatch(10);
+        publish(1, 10);
+        Thread.sleep(100);
+        assertTrue(lagGauge.getValue() > 0);
+
+        releaseSecondStage.countDown();
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(0L, (long) lagGauge.getValue());
+    }
+
+    private void publish(long from, long to) {
+        RingBuffer<long[]> ringBuffer = disruptor.getRingBuffer();
+        for (long value = from; value <= to; value++) {
+            long sequence = ringBuffer.next();
+            ringBuffer.get(sequence)[0] = value;
+            ringBuffer.publish(sequence);
+        }
+    }
+}
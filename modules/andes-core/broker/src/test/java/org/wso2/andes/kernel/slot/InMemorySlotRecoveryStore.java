@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+import org.wso2.andes.kernel.AndesContextStore;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.MessageStore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Message ids and slot checkpoints of a single storage queue held in memory, exposed through the {@link MessageStore}
+ * and {@link AndesContextStore} methods used by {@link SlotCreator}. Other store methods are not supported.
+ */
+class InMemorySlotRecoveryStore {
+
+    /**
+     * Message ids of the queue in ascending order
+     */
+    private final long[] messageIds;
+
+    private final LongArrayList slotCheckpoints = new LongArrayList();
+
+    /**
+     * Time added to each read of message ids to stand in for a database round trip
+     */
+    private final long readLatencyNanos;
+
+    private boolean checkpointsAvailable = true;
+
+    private int messageIdReads;
+
+    InMemorySlotRecoveryStore(long[] messageIds, long readLatencyMicros) {
+        this.messageIds = messageIds;
+        this.readLatencyNanos = TimeUnit.MICROSECONDS.toNanos(readLatencyMicros);
+    }
+
+    void addSlotCheckpoint(long endMessageId) {
+        slotCheckpoints.add(endMessageId);
+    }
+
+    LongArrayList getSlotCheckpoints() {
+        return slotCheckpoints;
+    }
+
+    /**
+     * Make reads of slot checkpoints fail as if the checkpoint table did not exist
+     */
+    void setCheckpointsAvailable(boolean checkpointsAvailable) {
+        this.checkpointsAvailable = checkpointsAvailable;
+    }
+
+    int getMessageIdReads() {
+        return messageIdReads;
+    }
+
+    MessageStore messageStore() {
+        return (MessageStore) Proxy.newProxyInstance(MessageStore.class.getClassLoader(),
+                new Class<?>[] { MessageStore.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                        case "getNextNMessageIdsFromQueue":
+                            return getNextNMessageIds((Long) args[1], (Integer) args[2]);
+                        case "getMessageCountForQueue":
+                            return (long) messageIds.length;
+                        case "getMessageCountForQueueInRange":
+                            return getMessageCountInRange((Long) args[1], (Long) args[2]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    AndesContextStore contextStore() {
+        return (AndesContextStore) Proxy.newProxyInstance(AndesContextStore.class.getClassLoader(),
+                new Class<?>[] { AndesContextStore.class }, new InvocationHandler() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object invoke(Object proxy, Method method, Object[] args) throws AndesException {
+                        switch (method.getName()) {
+                        case "getSlotCheckpoints":
+                            if (!checkpointsAvailable) {
+                                throw new AndesException("Slot checkpoints are not available");
+                            }
+                            return new LongArrayList(slotCheckpoints.toArray());
+                        case "deleteSlotCheckpoints":
+                            if (!checkpointsAvailable) {
+                                throw new AndesException("Slot checkpoints are not available");
+                            }
+                            deleteSlotCheckpoints((Long) args[1]);
+                            return null;
+                        case "addSlotCheckpoints":
+                            for (LongArrayList endMessageIds
+                                    : ((Map<String, LongArrayList>) args[0]).values()) {
+                                slotCheckpoints.addAll(endMessageIds);
+                            }
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    private LongArrayList getNextNMessageIds(long firstMessageId, int count) {
+        messageIdReads++;
+        if (readLatencyNanos > 0) {
+            LockSupport.parkNanos(readLatencyNanos);
+        }
+        int index = Arrays.binarySearch(messageIds, firstMessageId);
+        if (index < 0) {
+            index = -(index + 1);
+        }
+        int end = Math.min(messageIds.length, index + count);
+        return new LongArrayList(Arrays.copyOfRange(messageIds, index, end));
+    }
+
+    private long getMessageCountInRange(long firstMessageId, long lastMessageId) {
+        long count = 0;
+        for (long messageId : messageIds) {
+            if (messageId >= firstMessageId && messageId <= lastMessageId) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void deleteSlotCheckpoints(long messageId) {
+        LongArrayList remaining = new LongArrayList();
+        for (int i = 0; i < slotCheckpoints.size(); i++) {
+            if (slotCheckpoints.get(i) >= messageId) {
+                remaining.add(slotCheckpoints.get(i));
+            }
+        }
+        slotCheckpoints.clear();
+        slotCheckpoints.addAll(remaining);
+    }
+}
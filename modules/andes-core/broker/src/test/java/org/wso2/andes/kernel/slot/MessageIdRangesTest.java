@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link MessageIdRanges}
+ */
+public class MessageIdRangesTest {
+
+    /**
+     * Message ids are kept sorted without duplicates
+     */
+    @Test
+    public void testAddAndRemove() {
+        MessageIdRanges messageIds = new MessageIdRanges();
+        for (long messageId = 100; messageId > 0; messageId -= 3) {
+            assertTrue(messageIds.add(messageId));
+        }
+        assertFalse(messageIds.add(52));
+        assertEquals(34, messageIds.size());
+        assertEquals(1, messageIds.first());
+        assertEquals(4, messageIds.get(1));
+
+        assertTrue(messageIds.remove(4));
+        assertFalse(messageIds.remove(5));
+        assertEquals(7, messageIds.get(1));
+
+        assertEquals(1, messageIds.pollFirst());
+        assertEquals(7, messageIds.first());
+        assertEquals(32, messageIds.size());
+    }
+
+    /**
+     * Message ids are restored from their encoded form
+     */
+    @Test
+    public void testEncoding() {
+        MessageIdRanges messageIds = new MessageIdRanges();
+        long messageId = 1468937261745000000L;
+        for (int i = 0; i < 1000; i++) {
+            messageIds.add(messageId);
+            messageId += 1 + (i * 7919L) % 100000;
+        }
+        byte[] bytes = messageIds.toBytes();
+
+        // Deltas within a few bytes instead of eight bytes per message id
+        assertTrue(bytes.length < 4 * 1000);
+
+        MessageIdRanges decoded = MessageIdRanges.fromBytes(bytes);
+        assertEquals(messageIds.size(), decoded.size());
+        for (int i = 0; i < messageIds.size(); i++) {
+            assertEquals(messageIds.get(i), decoded.get(i));
+        }
+        assertTrue(MessageIdRanges.fromBytes(new MessageIdRanges().toBytes()).isEmpty());
+        assertTrue(MessageIdRanges.fromBytes(null).isEmpty());
+    }
+
+    /**
+     * No message id is returned when empty
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testPollFirstWhenEmpty() {
+        new MessageIdRanges().pollFirst();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link SlotCreator}
+ */
+public class SlotCreatorTest {
+
+    private static final String QUEUE_NAME = "recoveryQueue";
+
+    private static final int SLOT_SIZE = 10;
+
+    /**
+     * Slots end at the stored checkpoints and only message ids after the last checkpoint are read
+     */
+    @Test
+    public void testRecoverFromCheckpoints() {
+        InMemorySlotRecoveryStore store = new InMemorySlotRecoveryStore(messageIds(5, 25), 0);
+        store.addSlotCheckpoint(3);
+        store.addSlotCheckpoint(12);
+        store.addSlotCheckpoint(20);
+
+        LongArrayList slots = recover(store, true);
+
+        assertEquals(LongArrayList.newListWith(5, 12, 13, 20, 21, 25), slots);
+        // Checkpoint of consumed messages is removed and the slot read from the store is added
+        assertEquals(LongArrayList.newListWith(12, 20, 25), store.getSlotCheckpoints());
+        // One read for the first message id, one for the tail and one which finds no more messages
+        assertEquals(3, store.getMessageIdReads());
+    }
+
+    /**
+     * A range between checkpoints holding more messages than a slot is split into slots by reading its message ids,
+     * and checkpoints are added for the new slots
+     */
+    @Test
+    public void testRecoverRangeLargerThanSlot() {
+        InMemorySlotRecoveryStore store = new InMemorySlotRecoveryStore(messageIds(5, 40), 0);
+        store.addSlotCheckpoint(12);
+        store.addSlotCheckpoint(40);
+
+        LongArrayList slots = recover(store, true);
+
+        assertEquals(LongArrayList.newListWith(5, 12, 13, 22, 23, 32, 33, 40), slots);
+        assertEquals(LongArrayList.newListWith(12, 40, 22, 32), store.getSlotCheckpoints());
+        // One read for the first message id, three for the large range and one which finds no more messages
+        assertEquals(5, store.getMessageIdReads());
+    }
+
+    /**
+     * All message ids are read when slot checkpoints are disabled
+     */
+    @Test
+    public void testRecoverWithoutCheckpoints() {
+        InMemorySlotRecoveryStore store = new InMemorySlotRecoveryStore(messageIds(5, 25), 0);
+        store.addSlotCheckpoint(12);
+
+        LongArrayList slots = recover(store, false);
+
+        assertEquals(LongArrayList.newListWith(5, 14, 15, 24, 25, 25), slots);
+        assertEquals(LongArrayList.newListWith(12), store.getSlotCheckpoints());
+    }
+
+    /**
+     * All message ids are read when slot checkpoints cannot be read
+     */
+    @Test
+    public void testRecoverWhenCheckpointsUnavailable() {
+        InMemorySlotRecoveryStore store = new InMemorySlotRecoveryStore(messageIds(5, 25), 0);
+        store.addSlotCheckpoint(12);
+        store.setCheckpointsAvailable(false);
+
+        LongArrayList slots = recover(store, true);
+
+        assertEquals(LongArrayList.newListWith(5, 14, 15, 24, 25, 25), slots);
+    }
+
+    /**
+     * Checkpoints of an empty queue are removed
+     */
+    @Test
+    public void testRecoverEmptyQueue() {
+        InMemorySlotRecoveryStore store = new InMemorySlotRecoveryStore(new long[0], 0);
+        store.addSlotCheckpoint(12);
+
+        LongArrayList slots = recover(store, true);
+
+        assertEquals(0, slots.size());
+        assertEquals(0, store.getSlotCheckpoints().size());
+    }
+
+    /**
+     * Recover slots of the test queue
+     *
+     * @param store           store holding message ids and checkpoints of the queue
+     * @param fromCheckpoints true to recover from slot checkpoints
+     * @return first and last message id of each submitted slot
+     */
+    private static LongArrayList recover(InMemorySlotRecoveryStore store, boolean fromCheckpoints) {
+        final LongArrayList slots = new LongArrayList();
+        new SlotCreator(store.messageStore(), store.contextStore(), QUEUE_NAME, SLOT_SIZE, fromCheckpoints) {
+            @Override
+            void submitSlot(long firstMessageId, long lastMessageId) {
+                slots.add(firstMessageId);
+                slots.add(lastMessageId);
+            }
+        }.run();
+        return slots;
+    }
+
+    /**
+     * Create consecutive message ids
+     *
+     * @param first first message id
+     * @param last  last message id
+     * @return message ids
+     */
+    private static long[] messageIds(long first, long last) {
+        long[] messageIds = new long[(int) (last - first + 1)];
+        for (int i = 0; i < messageIds.length; i++) {
+            messageIds[i] = first + i;
+        }
+        return messageIds;
+    }
+}
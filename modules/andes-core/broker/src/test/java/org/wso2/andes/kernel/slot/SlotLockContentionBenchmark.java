@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import com.google.common.util.concurrent.Striped;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Contention benchmark for the per queue locking used by {@link SlotManagerClusterMode}. Compares synchronizing on
+ * interned "queue name + class" strings with the striped locks now used, with many threads working on thousands of
+ * queues. Not run as part of the unit tests.
+ * <p>
+ * Usage: SlotLockContentionBenchmark [threads] [queues] [operationsPerThread]
+ */
+public class SlotLockContentionBenchmark {
+
+    private static final Striped<Lock> queueLocks = Striped.lock(1024);
+
+    public static void main(String[] args) throws InterruptedException {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int queueCount = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+
+        String[] queueNames = new String[queueCount];
+        for (int i = 0; i < queueCount; i++) {
+            queueNames[i] = "benchmarkQueue" + i;
+        }
+
+        // Warm up both variants before measuring
+        run(false, threadCount, queueNames, operations / 10);
+        run(true, threadCount, queueNames, operations / 10);
+
+        long internedTime = run(false, threadCount, queueNames, operations);
+        long stripedTime = run(true, threadCount, queueNames, operations);
+
+        System.out.println("threads=" + threadCount + " queues=" + queueCount + " operations/thread=" + operations);
+        System.out.println("interned string locks : " + (internedTime / 1000000) + " ms");
+        System.out.println("striped locks         : " + (stripedTime / 1000000) + " ms");
+    }
+
+    private static long run(final boolean striped, int threadCount, final String[] queueNames,
+                            final int operations) throws InterruptedException {
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        final AtomicLong sink = new AtomicLong();
+
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long localState = 0;
+                    try {
+                        startLatch.await();
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int j = 0; j < operations; j++) {
+                            String queueName = queueNames[random.nextInt(queueNames.length)];
+                            if (striped) {
+                                Lock lock = queueLocks.get(queueName);
+                                lock.lock();
+                                try {
+                                    localState++;
+                                } finally {
+                                    lock.unlock();
+                                }
+                            } else {
+                                String lockKey = queueName + SlotManagerClusterMode.class;
+                                synchronized (lockKey.intern()) {
+                                    localState++;
+                                }
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        sink.addAndGet(localState);
+                        doneLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        long start = System.nanoTime();
+        startLatch.countDown();
+        doneLatch.await();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import org.junit.After;
+import org.junit.Test;
+import org.wso2.andes.framing.AMQShortString;
+import org.wso2.andes.framing.BasicContentHeaderProperties;
+import org.wso2.andes.framing.ContentHeaderBody;
+import org.wso2.andes.framing.abstraction.MessagePublishInfoImpl;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.DeliverableAndesMetadata;
+import org.wso2.andes.server.message.MessageMetaData;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test class for {@link SlotMetadataHandoff}
+ */
+public class SlotMetadataHandoffTest {
+
+    private static final String QUEUE = "handoffQueue";
+
+    private final SlotMetadataHandoff slotMetadataHandoff = SlotMetadataHandoff.getInstance();
+
+    @After
+    public void tearDown() {
+        slotMetadataHandoff.clear(QUEUE);
+    }
+
+    /**
+     * Metadata collected for a slot is handed over once, for the slot ending with the submitted message id
+     */
+    @Test
+    public void testTakeSubmittedSlot() {
+        slotMetadataHandoff.startSlot(QUEUE);
+        slotMetadataHandoff.record(createMetadata(10));
+        slotMetadataHandoff.record(createMetadata(12));
+        slotMetadataHandoff.submitSlot(QUEUE, 12, 2);
+
+        // Message ids between slots belong to other queues
+        Slot slot = new Slot(5, 12, QUEUE);
+        List<DeliverableAndesMetadata> metadataList = slotMetadataHandoff.take(QUEUE, slot);
+        assertEquals(2, metadataList.size());
+        assertEquals(10, metadataList.get(0).getMessageID());
+        assertEquals(12, metadataList.get(1).getMessageID());
+        assertSame(slot, metadataList.get(0).getSlot());
+        assertEquals(QUEUE, metadataList.get(0).getStorageQueueName());
+
+        assertNull(slotMetadataHandoff.take(QUEUE, slot));
+    }
+
+    /**
+     * Slots not started through the handoff are read from the store
+     */
+    @Test
+    public void testSlotNotCollected() {
+        slotMetadataHandoff.record(createMetadata(10));
+        slotMetadataHandoff.submitSlot(QUEUE, 10, 1);
+        assertNull(slotMetadataHandoff.take(QUEUE, new Slot(0, 10, QUEUE)));
+    }
+
+    /**
+     * A slot which does not cover all the collected messages is read from the store, and earlier slots are dropped
+     */
+    @Test
+    public void testPartialSlot() {
+        slotMetadataHandoff.startSlot(QUEUE);
+        slotMetadataHandoff.record(createMetadata(10));
+        slotMetadataHandoff.submitSlot(QUEUE, 10, 1);
+        slotMetadataHandoff.startSlot(QUEUE);
+        slotMetadataHandoff.record(createMetadata(20));
+        slotMetadataHandoff.record(createMetadata(22));
+        slotMetadataHandoff.submitSlot(QUEUE, 22, 2);
+
+        assertNull(slotMetadataHandoff.take(QUEUE, new Slot(21, 22, QUEUE)));
+        assertNull(slotMetadataHandoff.take(QUEUE, new Slot(0, 10, QUEUE)));
+    }
+
+    /**
+     * Metadata which does not hold every message of the slot is not handed over
+     */
+    @Test
+    public void testIncompleteSlot() {
+        slotMetadataHandoff.startSlot(QUEUE);
+        slotMetadataHandoff.record(createMetadata(10));
+        slotMetadataHandoff.submitSlot(QUEUE, 12, 2);
+        assertNull(slotMetadataHandoff.take(QUEUE, new Slot(0, 12, QUEUE)));
+
+        slotMetadataHandoff.startSlot(QUEUE);
+        slotMetadataHandoff.record(createMetadata(20));
+        slotMetadataHandoff.record(createMetadata(21));
+        slotMetadataHandoff.submitSlot(QUEUE, 22, 2);
+        assertNull(slotMetadataHandoff.take(QUEUE, new Slot(13, 22, QUEUE)));
+
+        slotMetadataHandoff.startSlot(QUEUE);
+        slotMetadataHandoff.record(createMetadata(30));
+        slotMetadataHandoff.submitSlot(QUEUE, 30, 1);
+        Slot slot = new Slot(23, 30, QUEUE);
+        slot.setMessageCount(2);
+        assertNull(slotMetadataHandoff.take(QUEUE, slot));
+    }
+
+    /**
+     * Cleared metadata is not handed over, including messages of the slot being filled
+     */
+    @Test
+    public void testClear() {
+        slotMetadataHandoff.startSlot(QUEUE);
+        slotMetadataHandoff.record(createMetadata(10));
+        slotMetadataHandoff.submitSlot(QUEUE, 10, 1);
+        slotMetadataHandoff.startSlot(QUEUE);
+        slotMetadataHandoff.record(createMetadata(20));
+
+        slotMetadataHandoff.clear(QUEUE);
+        slotMetadataHandoff.record(createMetadata(21));
+        slotMetadataHandoff.submitSlot(QUEUE, 21, 1);
+
+        assertNull(slotMetadataHandoff.take(QUEUE, new Slot(0, 10, QUEUE)));
+        assertNull(slotMetadataHandoff.take(QUEUE, new Slot(11, 21, QUEUE)));
+    }
+
+    /**
+     * Create metadata of an AMQP message addressed to the test queue
+     *
+     * @param messageId message id
+     * @return message metadata
+     */
+    private static AndesMessageMetadata createMetadata(long messageId) {
+        MessageMetaData messageMetaData = new MessageMetaData(
+                new MessagePublishInfoImpl(new AMQShortString("amq.direct"), false, false,
+                        new AMQShortString(QUEUE)),
+                new ContentHeaderBody(new BasicContentHeaderProperties(), 10), 1);
+
+        byte[] underlying = new byte[1 + messageMetaData.getStorableSize()];
+        underlying[0] = (byte) messageMetaData.getType().ordinal();
+        ByteBuffer buffer = ByteBuffer.wrap(underlying);
+        buffer.position(1);
+        messageMetaData.writeToBuffer(0, buffer.slice());
+        AndesMessageMetadata metadata = new AndesMessageMetadata(messageId, underlying, false);
+        metadata.setStorageQueueName(QUEUE);
+        return metadata;
+    }
+}
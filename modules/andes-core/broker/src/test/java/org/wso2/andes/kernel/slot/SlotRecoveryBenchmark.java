@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.kernel.slot;
+
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+
+/**
+ * Startup recovery benchmark for {@link SlotCreator}. Measures the time to recover the slots of a storage queue by
+ * reading all message ids, and by reading slot checkpoints followed by the message ids published after the last
+ * checkpoint, for growing backlogs. Each read of message ids waits for a fixed latency to stand in for a database
+ * round trip. Not run as part of the unit tests.
+ * <p>
+ * Usage: SlotRecoveryBenchmark [slotSize] [readLatencyMicros] [messagesAfterLastCheckpoint] [backlog...]
+ */
+public class SlotRecoveryBenchmark {
+
+    private static final String QUEUE_NAME = "benchmarkQueue";
+
+    public static void main(String[] args) throws Exception {
+        int slotSize = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long readLatencyMicros = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        int tailSize = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        long[] backlogs = { 100000, 1000000, 10000000 };
+        if (args.length > 3) {
+            backlogs = new long[args.length - 3];
+            for (int i = 3; i < args.length; i++) {
+                backlogs[i - 3] = Long.parseLong(args[i]);
+            }
+        }
+
+        System.out.println("slotSize=" + slotSize + " readLatency=" + readLatencyMicros + "us"
+                + " messagesAfterLastCheckpoint=" + tailSize);
+        System.out.println("backlog      full scan (ms)  reads   checkpoints (ms)  reads");
+
+        for (long backlog : backlogs) {
+            long[] messageIds = new long[(int) backlog];
+            for (int i = 0; i < messageIds.length; i++) {
+                // Ids of other queues are interleaved in the message id space
+                messageIds[i] = 1000L + i * 3L;
+            }
+
+            InMemorySlotRecoveryStore fullScanStore = new InMemorySlotRecoveryStore(messageIds, readLatencyMicros);
+            long fullScanTime = recover(fullScanStore, slotSize, false);
+
+            InMemorySlotRecoveryStore checkpointStore = new InMemorySlotRecoveryStore(messageIds, readLatencyMicros);
+            int checkpointedMessages = Math.max(0, messageIds.length - tailSize);
+            for (int i = slotSize - 1; i < checkpointedMessages; i += slotSize) {
+                checkpointStore.addSlotCheckpoint(messageIds[i]);
+            }
+            long checkpointTime = recover(checkpointStore, slotSize, true);
+
+            System.out.println(String.format("%-12d %14d %6d %18d %6d", backlog, fullScanTime / 1000000,
+                    fullScanStore.getMessageIdReads(), checkpointTime / 1000000,
+                    checkpointStore.getMessageIdReads()));
+        }
+    }
+
+    private static long recover(InMemorySlotRecoveryStore store, int slotSize, boolean fromCheckpoints) {
+        final LongArrayList slotEnds = new LongArrayList();
+        SlotCreator slotCreator = new SlotCreator(store.messageStore(), store.contextStore(), QUEUE_NAME, slotSize,
+                fromCheckpoints) {
+            @Override
+            void submitSlot(long firstMessageId, long lastMessageId) {
+                slotEnds.add(lastMessageId);
+            }
+        };
+
+        long start = System.nanoTime();
+        slotCreator.run();
+        return System.nanoTime() - start;
+    }
+}
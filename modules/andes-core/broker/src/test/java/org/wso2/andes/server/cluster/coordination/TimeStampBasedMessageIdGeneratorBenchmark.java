@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmark for id generation throughput of {@link TimeStampBasedMessageIdGenerator} with increasing number of
+ * threads. Compares the synchronized generation used earlier, generating ids one by one and generating ids from
+ * reserved blocks. Not run as part of the unit tests.
+ * <p/>
+ * The synchronized generation is measured without its 1024 ids per millisecond limit, hence it shows lock cost only.
+ * <p/>
+ * Usage: TimeStampBasedMessageIdGeneratorBenchmark [maxThreads] [idsPerThread]
+ */
+public class TimeStampBasedMessageIdGeneratorBenchmark {
+
+    private static final int ID_BLOCK_SIZE = 128;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int idsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+
+        final TimeStampBasedMessageIdGenerator generator = new TimeStampBasedMessageIdGenerator(1);
+        final SynchronizedGenerator synchronizedGenerator = new SynchronizedGenerator();
+
+        for (int threads = 1; threads <= maxThreads; threads = threads * 2) {
+            double synchronizedRate = run(threads, idsPerThread, new IdSource() {
+                @Override
+                public void generate(int count) {
+                    for (int i = 0; i < count; i++) {
+                        synchronizedGenerator.getNextId();
+                    }
+                }
+            });
+            double casRate = run(threads, idsPerThread, new IdSource() {
+                @Override
+                public void generate(int count) {
+                    for (int i = 0; i < count; i++) {
+                        generator.getNextId();
+                    }
+                }
+            });
+            double blockRate = run(threads, idsPerThread, new IdSource() {
+                @Override
+                public void generate(int count) {
+                    TimeStampBasedMessageIdGenerator.IdBlock idBlock = null;
+                    for (int i = 0; i < count; i++) {
+                        if (null == idBlock || !idBlock.hasNext()) {
+                            idBlock = generator.reserveIdBlock(ID_BLOCK_SIZE);
+                        }
+                        idBlock.next();
+                    }
+                }
+            });
+            System.out.println(String.format("threads=%-2d synchronized=%8.2f M ids/s  cas=%8.2f M ids/s"
+                    + "  blocks=%8.2f M ids/s", threads, synchronizedRate, casRate, blockRate));
+        }
+    }
+
+    private static double run(int threadCount, final int idsPerThread, final IdSource idSource)
+            throws InterruptedException {
+        // Warm up
+        idSource.generate(idsPerThread / 10);
+
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        final AtomicInteger errors = new AtomicInteger();
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        idSource.generate(idsPerThread);
+                    } catch (InterruptedException e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        long start = System.nanoTime();
+        startLatch.countDown();
+        doneLatch.await();
+        long time = System.nanoTime() - start;
+        if (errors.get() > 0) {
+            throw new IllegalStateException("Benchmark threads interrupted");
+        }
+        return (double) threadCount * idsPerThread * 1000 / time;
+    }
+
+    private interface IdSource {
+        void generate(int count);
+    }
+
+    /**
+     * Replicates the synchronized id generation used earlier
+     */
+    private static class SynchronizedGenerator {
+
+        private static final long REFERENCE_START = 41L * 365L * 24L * 60L * 60L * 1000L;
+
+        private long lastTimestamp;
+
+        private int offset;
+
+        synchronized long getNextId() {
+            long ts = System.currentTimeMillis();
+            if (ts == lastTimestamp) {
+                offset++;
+            } else {
+                offset = 0;
+            }
+            lastTimestamp = ts;
+            return (ts - REFERENCE_START) * 256 * 1024 + 1024 + offset;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link TimeStampBasedMessageIdGenerator}
+ */
+public class TimeStampBasedMessageIdGeneratorTest {
+
+    private static final int NODE_ID = 42;
+
+    /**
+     * Ids generated concurrently are unique and carry the node id. More than 1024 ids within a millisecond do not
+     * fail.
+     */
+    @Test
+    public void testConcurrentIdsAreUnique() throws Exception {
+        final TimeStampBasedMessageIdGenerator generator = new TimeStampBasedMessageIdGenerator(NODE_ID);
+        final int idsPerThread = 50000;
+        int threadCount = 4;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<long[]>> results = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            results.add(executor.submit(new Callable<long[]>() {
+                @Override
+                public long[] call() {
+                    long[] ids = new long[idsPerThread];
+                    for (int j = 0; j < idsPerThread; j++) {
+                        ids[j] = generator.getNextId();
+                    }
+                    return ids;
+                }
+            }));
+        }
+        executor.shutdown();
+
+        Set<Long> allIds = new HashSet<>(idsPerThread * threadCount);
+        for (Future<long[]> result : results) {
+            long[] ids = result.get();
+            for (int j = 0; j < ids.length; j++) {
+                if (j > 0) {
+                    assertTrue("Ids of a thread should increase", ids[j] > ids[j - 1]);
+                }
+                assertEquals(NODE_ID, (ids[j] >>> 10) & 0xFF);
+                allIds.add(ids[j]);
+            }
+        }
+        assertEquals(idsPerThread * threadCount, allIds.size());
+    }
+
+    /**
+     * Ids of a reserved block increase and are not handed out by the generator. A block is not used after the
+     * clock moves to the next millisecond.
+     */
+    @Test
+    public void testIdBlock() {
+        TimeStampBasedMessageIdGenerator generator = new TimeStampBasedMessageIdGenerator(NODE_ID);
+        TimeStampBasedMessageIdGenerator.IdBlock idBlock = generator.reserveIdBlock(2000);
+
+        long lastId = 0;
+        while (idBlock.hasNext()) {
+            long id = idBlock.next();
+            assertTrue(id > lastId);
+            lastId = id;
+        }
+        assertTrue(generator.getNextId() > lastId);
+    }
+}
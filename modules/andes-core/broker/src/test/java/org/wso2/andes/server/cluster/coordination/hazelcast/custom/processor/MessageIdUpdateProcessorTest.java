@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import org.junit.Test;
+import org.wso2.andes.kernel.slot.MessageIdRanges;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.TreeSetLongWrapper;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link MessageIdUpdateProcessor}
+ */
+public class MessageIdUpdateProcessorTest {
+
+    private static final String QUEUE = "slotQueue";
+
+    /**
+     * Message ids are kept in a {@link TreeSetLongWrapper} unless they are compact
+     */
+    @Test
+    public void testAddMessageIds() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>(QUEUE, null);
+        new MessageIdUpdateProcessor(new long[] {30, 10}, true, false).process(entry);
+        new MessageIdUpdateProcessor(new long[] {20, 10}, true, false).process(entry);
+
+        assertTrue(entry.getValue() instanceof TreeSetLongWrapper);
+        assertEquals(new TreeSet<>(Arrays.asList(10L, 20L, 30L)),
+                ((TreeSetLongWrapper) entry.getValue()).getLongTreeSet());
+    }
+
+    /**
+     * Compact message ids are kept encoded
+     */
+    @Test
+    public void testAddCompactMessageIds() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>(QUEUE, null);
+        new MessageIdUpdateProcessor(new long[] {30, 10, 20}, true, true).process(entry);
+        new MessageIdUpdateProcessor(new long[] {20}, false, true).process(entry);
+
+        assertTrue(entry.getValue() instanceof byte[]);
+        MessageIdRanges messageIds = MessageIdRanges.fromBytes((byte[]) entry.getValue());
+        assertEquals(2, messageIds.size());
+        assertEquals(10, messageIds.get(0));
+        assertEquals(30, messageIds.get(1));
+    }
+
+    /**
+     * A value written in the other format is read and written back in the format of the processor
+     */
+    @Test
+    public void testConvertValue() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>(QUEUE,
+                MessageIdUpdateProcessor.toMapValue(MessageIdUpdateProcessor.toMessageIdRanges(null), false));
+        new MessageIdUpdateProcessor(new long[] {10, 20}, true, false).process(entry);
+        new MessageIdUpdateProcessor(new long[] {10}, false, true).process(entry);
+
+        assertTrue(entry.getValue() instanceof byte[]);
+        MessageIdRanges messageIds = MessageIdUpdateProcessor.toMessageIdRanges(entry.getValue());
+        assertEquals(1, messageIds.size());
+        assertEquals(20, messageIds.first());
+    }
+}
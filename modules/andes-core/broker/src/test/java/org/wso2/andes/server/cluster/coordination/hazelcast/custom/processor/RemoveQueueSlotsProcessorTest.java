@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.server.cluster.coordination.hazelcast.custom.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.andes.kernel.slot.Slot;
+import org.wso2.andes.kernel.slot.SlotState;
+import org.wso2.andes.server.cluster.coordination.hazelcast.custom.serializer.wrapper.HashmapStringTreeSetWrapper;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link RemoveQueueSlotsProcessor}
+ */
+public class RemoveQueueSlotsProcessorTest {
+
+    private static final String NODE_ID = "node1";
+
+    private static final String QUEUE = "slotQueue";
+
+    private static final String OTHER_QUEUE = "otherSlotQueue";
+
+    private Map.Entry<String, HashmapStringTreeSetWrapper> entry;
+
+    @Before
+    public void setUp() {
+        entry = new AbstractMap.SimpleEntry<>(NODE_ID, null);
+        new AddQueueSlotsProcessor(QUEUE, Arrays.asList(createSlot(QUEUE, 1, 10), createSlot(QUEUE, 11, 20)))
+                .process(entry);
+        new AddQueueSlotsProcessor(OTHER_QUEUE, Collections.singleton(createSlot(OTHER_QUEUE, 21, 30)))
+                .process(entry);
+    }
+
+    /**
+     * Only the given slots of the queue are removed and returned as kept for the node
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRemoveGivenSlots() {
+        Slot overlappedSlot = createSlot(QUEUE, 11, 20);
+        Slot unknownSlot = createSlot(QUEUE, 31, 40);
+        TreeSet<Slot> removedSlots = (TreeSet<Slot>) new RemoveQueueSlotsProcessor(QUEUE,
+                Arrays.asList(overlappedSlot, unknownSlot)).process(entry);
+
+        assertEquals(1, removedSlots.size());
+        assertEquals(11, removedSlots.first().getStartMessageId());
+        assertNotSame(overlappedSlot, removedSlots.first());
+        assertEquals(1, entry.getValue().getStringListHashMap().get(QUEUE).size());
+        assertEquals(1, entry.getValue().getStringListHashMap().get(OTHER_QUEUE).size());
+    }
+
+    /**
+     * All slots of the queue are removed without touching slots of other queues
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRemoveAllSlotsOfQueue() {
+        TreeSet<Slot> removedSlots = (TreeSet<Slot>) new RemoveQueueSlotsProcessor(QUEUE).process(entry);
+
+        assertEquals(2, removedSlots.size());
+        assertFalse(entry.getValue().getStringListHashMap().containsKey(QUEUE));
+        assertEquals(1, entry.getValue().getStringListHashMap().get(OTHER_QUEUE).size());
+    }
+
+    /**
+     * Nothing is removed from a node without slots
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRemoveFromMissingEntry() {
+        Map.Entry<String, HashmapStringTreeSetWrapper> missingEntry = new AbstractMap.SimpleEntry<>(NODE_ID, null);
+        TreeSet<Slot> removedSlots = (TreeSet<Slot>) new RemoveQueueSlotsProcessor(QUEUE).process(missingEntry);
+
+        assertTrue(removedSlots.isEmpty());
+        assertEquals(null, missingEntry.getValue());
+    }
+
+    /**
+     * Slots deleted through {@link DeleteQueueSlotProcessor} are not returned afterwards
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRemoveAfterDelete() {
+        assertTrue((Boolean) new DeleteQueueSlotProcessor(QUEUE, 1).process(entry));
+        TreeSet<Slot> removedSlots = (TreeSet<Slot>) new RemoveQueueSlotsProcessor(QUEUE).process(entry);
+
+        assertEquals(1, removedSlots.size());
+        assertEquals(11, removedSlots.first().getStartMessageId());
+    }
+
+    /**
+     * Create a slot assigned to a node
+     *
+     * @param queueName      storage queue of the slot
+     * @param startMessageId start message id
+     * @param endMessageId   end message id
+     * @return slot
+     */
+    private static Slot createSlot(String queueName, long startMessageId, long endMessageId) {
+        Slot slot = new Slot(startMessageId, endMessageId, queueName);
+        slot.setStorageQueueName(queueName);
+        slot.addState(SlotState.ASSIGNED);
+        return slot;
+    }
+}
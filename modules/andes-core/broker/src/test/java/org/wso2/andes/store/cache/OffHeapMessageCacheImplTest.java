@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.cache;
+
+import com.gs.collections.impl.list.mutable.primitive.LongArrayList;
+import com.gs.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.junit.Test;
+import org.wso2.andes.kernel.AndesMessage;
+import org.wso2.andes.kernel.AndesMessageMetadata;
+import org.wso2.andes.kernel.AndesMessagePart;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link OffHeapMessageCacheImpl}. Covers reading content back from direct memory, removal and
+ * CLOCK based eviction of slabs.
+ */
+public class OffHeapMessageCacheImplTest {
+
+    private static final int SLAB_SIZE = 100;
+
+    /**
+     * Cached content is returned chunk by chunk and as a whole
+     */
+    @Test
+    public void testReadContent() {
+        OffHeapMessageCacheImpl cache = new OffHeapMessageCacheImpl(4 * SLAB_SIZE, SLAB_SIZE);
+        cache.addToCache(createMessage(1L, "first chunk", "second chunk"));
+
+        AndesMessagePart part = cache.getContentFromCache(1L, "first chunk".length());
+        assertNotNull(part);
+        assertEquals("second chunk", new String(part.getData()));
+        assertEquals("second chunk".length(), part.getDataLength());
+
+        LongArrayList messageIds = LongArrayList.newListWith(1L, 2L);
+        LongObjectHashMap<List<AndesMessagePart>> contentList = new LongObjectHashMap<>();
+        cache.fillContentFromCache(messageIds, contentList);
+        assertEquals(1, contentList.size());
+        assertEquals(2, contentList.get(1L).size());
+        assertEquals("first chunk", new String(contentList.get(1L).get(0).getData()));
+        // Found messages are removed from the requested list
+        assertEquals(LongArrayList.newListWith(2L), messageIds);
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Removed messages and messages larger than a slab are not served
+     */
+    @Test
+    public void testRemoveAndOversizedMessages() {
+        OffHeapMessageCacheImpl cache = new OffHeapMessageCacheImpl(4 * SLAB_SIZE, SLAB_SIZE);
+        cache.addToCache(createMessage(1L, "content"));
+        cache.addToCache(createMessage(2L, new String(new byte[SLAB_SIZE + 1])));
+
+        assertNotNull(cache.getMessageFromCache(1L));
+        assertNull(cache.getMessageFromCache(2L));
+
+        cache.removeFromCache(1L);
+        assertNull(cache.getMessageFromCache(1L));
+    }
+
+    /**
+     * Slabs that were read recently get a second chance before being reused
+     */
+    @Test
+    public void testClockEviction() {
+        OffHeapMessageCacheImpl cache = new OffHeapMessageCacheImpl(3 * SLAB_SIZE, SLAB_SIZE);
+        String slabContent = new String(new byte[SLAB_SIZE]);
+        // One message per slab
+        cache.addToCache(createMessage(1L, slabContent));
+        cache.addToCache(createMessage(2L, slabContent));
+        cache.addToCache(createMessage(3L, slabContent));
+
+        // Reading message 2 marks its slab as referenced
+        assertNotNull(cache.getMessageFromCache(2L));
+        cache.addToCache(createMessage(4L, slabContent));
+        cache.addToCache(createMessage(5L, slabContent));
+
+        assertNotNull(cache.getMessageFromCache(2L));
+        assertNotNull(cache.getMessageFromCache(4L));
+        assertNotNull(cache.getMessageFromCache(5L));
+        assertNull(cache.getMessageFromCache(1L));
+        assertNull(cache.getMessageFromCache(3L));
+        assertTrue(cache.getEvictionCount() >= 2);
+    }
+
+    private AndesMessage createMessage(long messageId, String... chunks) {
+        AndesMessage message = new AndesMessage(new AndesMessageMetadata(messageId, null, false));
+        int offset = 0;
+        for (String chunk : chunks) {
+            AndesMessagePart part = new AndesMessagePart();
+            part.setMessageID(messageId);
+            part.setOffSet(offset);
+            part.setData(chunk.getBytes());
+            part.setDataLength(chunk.length());
+            message.addMessagePart(part);
+            offset = offset + chunk.length();
+        }
+        return message;
+    }
+}
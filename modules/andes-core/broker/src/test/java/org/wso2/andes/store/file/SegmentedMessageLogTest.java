@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.file;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.andes.kernel.AndesMessagePart;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link SegmentedMessageLog}. Covers append, replay on reopen, recovery from a partially written
+ * batch and removal of segments without live records.
+ */
+public class SegmentedMessageLogTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("message-log", "");
+        assertTrue(directory.delete());
+        assertTrue(directory.mkdirs());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (null != files) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Records appended before closing the log are replayed in order and can be read through their pointers
+     */
+    @Test
+    public void testAppendAndReplay() throws IOException {
+        SegmentedMessageLog messageLog = new SegmentedMessageLog(directory, 1024 * 1024, true);
+        messageLog.open(new CollectingVisitor());
+
+        LogBatch batch = new LogBatch();
+        int metadataRecord = batch.addMetadata(1L, "queue1", 0, new byte[]{1, 2, 3});
+        int contentRecord = batch.addContent(createPart(1L, 0, "content"));
+        messageLog.commit(messageLog.append(batch));
+
+        ByteBuffer content = messageLog.read(batch.getPointer(contentRecord));
+        LogRecordReader reader = new LogRecordReader(content);
+        assertEquals(1L, reader.readLong());
+        assertEquals(0, reader.readInt());
+        assertEquals("content", new String(reader.readBytes()));
+        messageLog.close();
+
+        CollectingVisitor visitor = new CollectingVisitor();
+        SegmentedMessageLog reopenedLog = new SegmentedMessageLog(directory, 1024 * 1024, true);
+        reopenedLog.open(visitor);
+
+        assertEquals(2, visitor.recordTypes.size());
+        assertEquals(FileStoreConstants.RECORD_METADATA, (byte) visitor.recordTypes.get(0));
+        assertEquals(FileStoreConstants.RECORD_CONTENT, (byte) visitor.recordTypes.get(1));
+        assertEquals(batch.getPointer(metadataRecord).getPosition(), visitor.pointers.get(0).getPosition());
+        reopenedLog.close();
+    }
+
+    /**
+     * A partially written batch at the end of the active segment is dropped on replay
+     */
+    @Test
+    public void testTornWriteIsTruncated() throws IOException {
+        SegmentedMessageLog messageLog = new SegmentedMessageLog(directory, 1024 * 1024, true);
+        messageLog.open(new CollectingVisitor());
+
+        LogBatch batch = new LogBatch();
+        batch.addDelete(5L);
+        messageLog.commit(messageLog.append(batch));
+        messageLog.close();
+
+        File segmentFile = directory.listFiles()[0];
+        long validLength = segmentFile.length();
+        RandomAccessFile file = new RandomAccessFile(segmentFile, "rw");
+        try {
+            file.seek(validLength);
+            // Header of a record claiming a body longer than what was written
+            file.writeInt(100);
+            file.writeInt(0);
+            file.write(new byte[]{FileStoreConstants.RECORD_DELETE, 0, 0});
+        } finally {
+            file.close();
+        }
+
+        CollectingVisitor visitor = new CollectingVisitor();
+        SegmentedMessageLog reopenedLog = new SegmentedMessageLog(directory, 1024 * 1024, true);
+        reopenedLog.open(visitor);
+        reopenedLog.close();
+
+        assertEquals(1, visitor.recordTypes.size());
+        assertEquals(validLength, segmentFile.length());
+    }
+
+    /**
+     * Sealed segments are removed once they hold no live records and the segments referenced by their deletion
+     * records are gone
+     */
+    @Test
+    public void testReclaimSegments() throws IOException {
+        SegmentedMessageLog messageLog = new SegmentedMessageLog(directory, 64, false);
+        messageLog.open(new CollectingVisitor());
+
+        LogBatch firstBatch = new LogBatch();
+        firstBatch.addMetadata(1L, "queue1", 0, new byte[64]);
+        messageLog.append(firstBatch);
+        LogSegment firstSegment = messageLog.getSegment(firstBatch.getPointer(0).getSegmentId());
+        firstSegment.incrementLiveRecords();
+
+        // Exceeds the segment size, hence rolls over to a new segment
+        LogBatch deleteBatch = new LogBatch();
+        deleteBatch.addDelete(1L);
+        messageLog.append(deleteBatch);
+        LogSegment secondSegment = messageLog.getSegment(deleteBatch.getPointer(0).getSegmentId());
+        secondSegment.addTombstoneTarget(firstSegment.getSegmentId());
+        assertEquals(2, messageLog.getSegmentCount());
+
+        // First segment still has a live record
+        assertEquals(0, messageLog.reclaimSegments());
+
+        firstSegment.decrementLiveRecords();
+        assertEquals(1, messageLog.reclaimSegments());
+        assertNull(messageLog.getSegment(firstSegment.getSegmentId()));
+        assertNull(messageLog.read(firstBatch.getPointer(0)));
+        messageLog.close();
+    }
+
+    /**
+     * Deletion records which allowed a segment to be removed survive a crash even if the log does not sync on
+     * commit. A crash is simulated by dropping everything after the flushed position of each segment.
+     */
+    @Test
+    public void testTombstonesSurviveCrashAfterReclaim() throws IOException {
+        SegmentedMessageLog messageLog = new SegmentedMessageLog(directory, 64, false);
+        messageLog.open(new CollectingVisitor());
+
+        LogBatch firstBatch = new LogBatch();
+        firstBatch.addMetadata(1L, "queue1", 0, new byte[64]);
+        messageLog.append(firstBatch);
+        LogSegment firstSegment = messageLog.getSegment(firstBatch.getPointer(0).getSegmentId());
+        firstSegment.incrementLiveRecords();
+
+        LogBatch deleteBatch = new LogBatch();
+        deleteBatch.addDelete(1L);
+        messageLog.append(deleteBatch);
+        LogSegment secondSegment = messageLog.getSegment(deleteBatch.getPointer(0).getSegmentId());
+        secondSegment.addTombstoneTarget(firstSegment.getSegmentId());
+        firstSegment.decrementLiveRecords();
+
+        assertEquals(1, messageLog.reclaimSegments());
+
+        // Crash without closing the log
+        long syncedSize = secondSegment.getSyncedSize();
+        secondSegment.close();
+        RandomAccessFile file = new RandomAccessFile(secondSegment.getFile(), "rw");
+        try {
+            file.setLength(syncedSize);
+        } finally {
+            file.close();
+        }
+
+        CollectingVisitor visitor = new CollectingVisitor();
+        SegmentedMessageLog reopenedLog = new SegmentedMessageLog(directory, 64, false);
+        reopenedLog.open(visitor);
+        reopenedLog.close();
+
+        assertEquals(1, visitor.recordTypes.size());
+        assertEquals(FileStoreConstants.RECORD_DELETE, (byte) visitor.recordTypes.get(0));
+    }
+
+    private AndesMessagePart createPart(long messageId, int offset, String data) {
+        AndesMessagePart part = new AndesMessagePart();
+        part.setMessageID(messageId);
+        part.setOffSet(offset);
+        part.setData(data.getBytes());
+        part.setDataLength(data.length());
+        return part;
+    }
+
+    /**
+     * Keeps the type and location of every replayed record
+     */
+    private static class CollectingVisitor implements SegmentedMessageLog.RecordVisitor {
+
+        private final List<Byte> recordTypes = new ArrayList<>();
+
+        private final List<RecordPointer> pointers = new ArrayList<>();
+
+        @Override
+        public void visit(byte recordType, ByteBuffer body, RecordPointer pointer) {
+            recordTypes.add(recordType);
+            pointers.add(pointer);
+        }
+    }
+}
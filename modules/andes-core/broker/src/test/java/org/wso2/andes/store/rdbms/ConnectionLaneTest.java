@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.store.rdbms;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link ConnectionLane}
+ */
+public class ConnectionLaneTest {
+
+    private static final String CACHED_QUERY = RDBMSConstants.PS_SELECT_METADATA_RANGE_FROM_QUEUE;
+
+    private static final String RUNTIME_QUERY = "SELECT 1";
+
+    /**
+     * Physical connections taken from the pool
+     */
+    private final List<Connection> borrowedConnections = new ArrayList<>();
+
+    private ConnectionLane connectionLane;
+
+    @Before
+    public void setUp() {
+        borrowedConnections.clear();
+        connectionLane = new ConnectionLane(new RDBMSConnection() {
+            @Override
+            Connection borrowConnection() throws SQLException {
+                Connection connection = mock(Connection.class);
+                when(connection.prepareStatement(anyString())).thenAnswer(
+                        new Answer<PreparedStatement>() {
+                            @Override
+                            public PreparedStatement answer(InvocationOnMock invocation) {
+                                return mock(PreparedStatement.class);
+                            }
+                        });
+                borrowedConnections.add(connection);
+                return connection;
+            }
+        });
+    }
+
+    /**
+     * Statements of fixed queries are prepared once on the physical connection, which is kept across calls
+     */
+    @Test
+    public void testStatementReuse() throws SQLException {
+        Connection connection = connectionLane.acquire();
+        PreparedStatement statement = connection.prepareStatement(CACHED_QUERY);
+        statement.setLong(1, 5);
+        statement.close();
+        connection.close();
+        assertTrue(connection.isClosed());
+
+        Connection secondConnection = connectionLane.acquire();
+        PreparedStatement secondStatement = secondConnection.prepareStatement(CACHED_QUERY);
+        secondConnection.prepareStatement(RUNTIME_QUERY).close();
+        secondStatement.close();
+        secondConnection.close();
+
+        assertEquals(1, borrowedConnections.size());
+        Connection physicalConnection = borrowedConnections.get(0);
+        verify(physicalConnection, times(1)).prepareStatement(CACHED_QUERY);
+        verify(physicalConnection, times(1)).prepareStatement(RUNTIME_QUERY);
+        verify(physicalConnection, never()).close();
+    }
+
+    /**
+     * A thread asking for a connection while it holds the lane connection is sent to the pool, and a cached statement
+     * in use is not handed out twice
+     */
+    @Test
+    public void testNestedUse() throws SQLException {
+        Connection connection = connectionLane.acquire();
+        assertNull(connectionLane.acquire());
+
+        PreparedStatement statement = connection.prepareStatement(CACHED_QUERY);
+        PreparedStatement nestedStatement = connection.prepareStatement(CACHED_QUERY);
+        assertFalse(statement == nestedStatement);
+        nestedStatement.close();
+        statement.close();
+        connection.close();
+
+        assertNotNull(connectionLane.acquire());
+        verify(borrowedConnections.get(0), times(2)).prepareStatement(CACHED_QUERY);
+    }
+
+    /**
+     * Writes left uncommitted are rolled back when the lane is released, while committed work does not cost a
+     * rollback
+     */
+    @Test
+    public void testUncommittedWorkRolledBack() throws SQLException {
+        Connection connection = connectionLane.acquire();
+        Connection physicalConnection = borrowedConnections.get(0);
+        PreparedStatement statement = connection.prepareStatement(CACHED_QUERY);
+        statement.executeBatch();
+        connection.commit();
+        statement.close();
+        connection.close();
+        verify(physicalConnection, never()).rollback();
+
+        connection = connectionLane.acquire();
+        statement = connection.prepareStatement(CACHED_QUERY);
+        statement.executeUpdate();
+        statement.close();
+        connection.close();
+        verify(physicalConnection, times(1)).rollback();
+    }
+
+    /**
+     * A read only use of the lane ends its transaction on release so that the read snapshot is not kept by the
+     * pinned connection
+     */
+    @Test
+    public void testReadOnlyTransactionEnded() throws SQLException {
+        Connection connection = connectionLane.acquire();
+        Connection physicalConnection = borrowedConnections.get(0);
+        connection.setAutoCommit(false);
+        PreparedStatement statement = connection.prepareStatement(CACHED_QUERY);
+        statement.executeQuery();
+        statement.close();
+        connection.close();
+        verify(physicalConnection, times(1)).rollback();
+
+        // Reusing the cached statement for another read ends that transaction as well
+        connection = connectionLane.acquire();
+        statement = connection.prepareStatement(CACHED_QUERY);
+        statement.executeQuery();
+        statement.close();
+        connection.close();
+        verify(physicalConnection, times(2)).rollback();
+    }
+
+    /**
+     * The physical connection is replaced after a connection error
+     */
+    @Test
+    public void testBrokenConnectionReplaced() throws SQLException {
+        Connection connection = connectionLane.acquire();
+        Connection physicalConnection = borrowedConnections.get(0);
+        when(physicalConnection.createStatement()).thenThrow(new SQLException("Connection reset", "08S01"));
+        try {
+            connection.createStatement();
+        } catch (SQLException e) {
+            assertEquals("08S01", e.getSQLState());
+        }
+        connection.close();
+        verify(physicalConnection, times(1)).close();
+
+        assertNotNull(connectionLane.acquire());
+        assertEquals(2, borrowedConnections.size());
+    }
+
+    /**
+     * Closing the lane returns the physical connection once it is released
+     */
+    @Test
+    public void testClose() throws SQLException {
+        Connection connection = connectionLane.acquire();
+        Connection physicalConnection = borrowedConnections.get(0);
+        connectionLane.close();
+        verify(physicalConnection, never()).close();
+
+        connection.close();
+        verify(physicalConnection, times(1)).close();
+        assertNull(connectionLane.acquire());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.subscription;
+
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.DestinationType;
+import org.wso2.andes.kernel.ProtocolType;
+
+import java.util.Random;
+
+/**
+ * Benchmark comparing {@link TopicSubscriptionBitMapStore} and {@link TopicSubscriptionTrieStore} for adding
+ * subscriptions and matching published destinations. Not run as part of the unit tests.
+ * <p/>
+ * Subscriptions are made to three level AMQP destinations of the form region.device.metric and one in ten uses a
+ * wildcard. The bitmap store is skipped above the given subscription count since adding subscriptions to it takes
+ * quadratic time.
+ * <p/>
+ * Usage: TopicSubscriptionStoreBenchmark [subscriptionCounts, comma separated] [maxBitMapSubscriptions]
+ * [matchCount]
+ */
+public class TopicSubscriptionStoreBenchmark {
+
+    private static final int REGIONS = 100;
+
+    private static final int METRICS = 20;
+
+    public static void main(String[] args) throws AndesException {
+        String[] subscriptionCounts = (args.length > 0 ? args[0] : "10000,100000,1000000").split(",");
+        int maxBitMapSubscriptions = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int matchCount = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+
+        for (String subscriptionCountValue : subscriptionCounts) {
+            int subscriptionCount = Integer.parseInt(subscriptionCountValue.trim());
+
+            if (subscriptionCount <= maxBitMapSubscriptions) {
+                run("bitmap", new TopicSubscriptionBitMapStore(ProtocolType.AMQP), subscriptionCount, matchCount);
+            }
+            run("trie", new TopicSubscriptionTrieStore(ProtocolType.AMQP), subscriptionCount, matchCount);
+        }
+    }
+
+    private static void run(String storeName, AndesSubscriptionStore store, int subscriptionCount, int matchCount)
+            throws AndesException {
+        int devices = Math.max(1, subscriptionCount / (REGIONS * METRICS));
+
+        long addStart = System.nanoTime();
+        Random random = new Random(1);
+        for (int i = 0; i < subscriptionCount; i++) {
+            store.addSubscription(TopicSubscriptionTrieStoreTest.createSubscription(Integer.toString(i),
+                    subscribedDestination(random, devices)));
+        }
+        long addTime = System.nanoTime() - addStart;
+
+        // Warm up before measuring matching
+        random = new Random(2);
+        long matched = 0;
+        for (int i = 0; i < matchCount / 10; i++) {
+            matched += store.getMatchingSubscriptions(publishedDestination(random, devices), DestinationType.TOPIC)
+                    .size();
+        }
+
+        random = new Random(3);
+        long matchStart = System.nanoTime();
+        for (int i = 0; i < matchCount; i++) {
+            matched += store.getMatchingSubscriptions(publishedDestination(random, devices), DestinationType.TOPIC)
+                    .size();
+        }
+        long matchTime = System.nanoTime() - matchStart;
+
+        System.out.println(String.format("%-6s subscriptions=%-8d add=%8.3f us/subscription match=%10.3f us/message"
+                        + " (matched %d)", storeName, subscriptionCount, addTime / 1000.0 / subscriptionCount,
+                matchTime / 1000.0 / matchCount, matched));
+    }
+
+    private static String subscribedDestination(Random random, int devices) {
+        String region = "region" + random.nextInt(REGIONS);
+        String device = "device" + random.nextInt(devices);
+        String metric = "metric" + random.nextInt(METRICS);
+
+        switch (random.nextInt(30)) {
+            case 0:
+                return region + ".*." + metric;
+            case 1:
+                return region + "." + device + ".*";
+            case 2:
+                return region + ".#";
+            default:
+                return region + "." + device + "." + metric;
+        }
+    }
+
+    private static String publishedDestination(Random random, int devices) {
+        return "region" + random.nextInt(REGIONS) + ".device" + random.nextInt(devices) + ".metric"
+                + random.nextInt(METRICS);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.subscription;
+
+import org.junit.Test;
+import org.wso2.andes.kernel.AndesException;
+import org.wso2.andes.kernel.AndesSubscription;
+import org.wso2.andes.kernel.DestinationType;
+import org.wso2.andes.kernel.ProtocolType;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for wildcard matching of {@link TopicSubscriptionTrieStore}
+ */
+public class TopicSubscriptionTrieStoreTest {
+
+    /**
+     * AMQP '*' matches exactly one constituent and '#' matches zero or more constituents
+     */
+    @Test
+    public void testAMQPWildcardMatching() throws AndesException {
+        TopicSubscriptionTrieStore store = new TopicSubscriptionTrieStore(ProtocolType.AMQP);
+        store.addSubscription(createSubscription("1", "sports.cricket"));
+        store.addSubscription(createSubscription("2", "sports.*"));
+        store.addSubscription(createSubscription("3", "sports.#"));
+        store.addSubscription(createSubscription("4", "#"));
+        store.addSubscription(createSubscription("5", "*.cricket.*"));
+
+        assertMatches(store, "sports.cricket", "1", "2", "3", "4");
+        assertMatches(store, "sports", "3", "4");
+        assertMatches(store, "sports.cricket.score", "3", "4", "5");
+        assertMatches(store, "news", "4");
+    }
+
+    /**
+     * MQTT '+' matches exactly one level and '#' matches the parent and any number of child levels
+     */
+    @Test
+    public void testMQTTWildcardMatching() throws AndesException {
+        TopicSubscriptionTrieStore store = new TopicSubscriptionTrieStore(ProtocolType.MQTT);
+        store.addSubscription(createSubscription("1", "home/kitchen/temperature"));
+        store.addSubscription(createSubscription("2", "home/+/temperature"));
+        store.addSubscription(createSubscription("3", "home/#"));
+        store.addSubscription(createSubscription("4", "+/+"));
+
+        assertMatches(store, "home/kitchen/temperature", "1", "2", "3");
+        assertMatches(store, "home/kitchen", "3", "4");
+        assertMatches(store, "home", "3");
+        assertMatches(store, "office/kitchen/temperature");
+    }
+
+    /**
+     * Removed subscriptions are not matched and their unused nodes do not affect remaining subscriptions
+     */
+    @Test
+    public void testRemoveAndUpdateSubscription() throws AndesException {
+        TopicSubscriptionTrieStore store = new TopicSubscriptionTrieStore(ProtocolType.AMQP);
+        AndesSubscription wildcardSubscription = createSubscription("1", "sports.#");
+        store.addSubscription(wildcardSubscription);
+        store.addSubscription(createSubscription("2", "sports.cricket.score"));
+        store.addSubscription(createSubscription("3", "sports.cricket.score"));
+
+        store.removeSubscription(createSubscription("2", "sports.cricket.score"));
+        assertMatches(store, "sports.cricket.score", "1", "3");
+        assertFalse(store.isSubscriptionAvailable(createSubscription("2", "sports.cricket.score")));
+
+        store.removeSubscription(wildcardSubscription);
+        assertMatches(store, "sports.cricket.score", "3");
+        assertMatches(store, "sports");
+        assertEquals(1, store.getAllSubscriptions().size());
+
+        // Adding an existing subscription again replaces the stored instance
+        AndesSubscription updatedSubscription = createSubscription("3", "sports.cricket.score");
+        store.addSubscription(updatedSubscription);
+        assertEquals(1, store.getAllSubscriptions().size());
+        assertTrue(store.getAllSubscriptions().get(0) == updatedSubscription);
+        assertTrue(store.getMatchingSubscriptions("sports.cricket.score", DestinationType.TOPIC).iterator().next()
+                == updatedSubscription);
+    }
+
+    /**
+     * Trie store matches the same subscriptions as the bitmap store
+     */
+    @Test
+    public void testMatchesSameAsBitMapStore() throws AndesException {
+        String[] subscribedDestinations = {"a", "a.b", "a.*", "a.#", "*.b", "#", "a.b.c", "*.*.c", "a.*.#", "b.#"};
+        String[] publishedDestinations = {"a", "b", "a.b", "a.c", "b.b", "a.b.c", "a.b.d", "b.b.c", "a.b.c.d", "c"};
+
+        TopicSubscriptionTrieStore trieStore = new TopicSubscriptionTrieStore(ProtocolType.AMQP);
+        TopicSubscriptionBitMapStore bitMapStore = new TopicSubscriptionBitMapStore(ProtocolType.AMQP);
+        for (int i = 0; i < subscribedDestinations.length; i++) {
+            trieStore.addSubscription(createSubscription(Integer.toString(i), subscribedDestinations[i]));
+            bitMapStore.addSubscription(createSubscription(Integer.toString(i), subscribedDestinations[i]));
+        }
+
+        for (String destination : publishedDestinations) {
+            assertEquals("Matching subscriptions differ for " + destination,
+                    bitMapStore.getMatchingSubscriptions(destination, DestinationType.TOPIC),
+                    trieStore.getMatchingSubscriptions(destination, DestinationType.TOPIC));
+        }
+        assertEquals(bitMapStore.getAllDestinations(DestinationType.TOPIC),
+                trieStore.getAllDestinations(DestinationType.TOPIC));
+    }
+
+    private void assertMatches(TopicSubscriptionTrieStore store, String destination, String... subscriptionIDs) {
+        Set<String> matchedIDs = new HashSet<>();
+        for (AndesSubscription subscription : store.getMatchingSubscriptions(destination, DestinationType.TOPIC)) {
+            matchedIDs.add(subscription.getSubscriptionID());
+        }
+        Set<String> expectedIDs = new HashSet<>();
+        for (String subscriptionID : subscriptionIDs) {
+            expectedIDs.add(subscriptionID);
+        }
+        assertEquals("Matching subscriptions for " + destination, expectedIDs, matchedIDs);
+    }
+
+    static AndesSubscription createSubscription(String subscriptionID, String destination) {
+        return new BasicSubscription(subscriptionID, destination, false, false, "node1", 0, "queue" + subscriptionID,
+                "owner", "amq.topic", "topic", (short) 0, true, DestinationType.TOPIC);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.task;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link TaskExecutorService}
+ */
+public class TaskExecutorServiceTest {
+
+    private static final long LONG_IDLE_DELAY_MILLIS = 60000;
+
+    private TaskExecutorService<TestTask> taskExecutorService;
+
+    @After
+    public void tearDown() {
+        taskExecutorService.stop();
+    }
+
+    /**
+     * An idle task is not processed again until it is signalled
+     */
+    @Test
+    public void testIdleTaskParkedUntilSignalled() throws InterruptedException {
+        createExecutorService(2, LONG_IDLE_DELAY_MILLIS);
+        TestTask task = new TestTask("queue", 0);
+        taskExecutorService.add(task);
+        waitForRuns(task, 1);
+
+        Thread.sleep(200);
+        assertEquals(1, task.runCount.get());
+
+        task.remainingActiveRuns.set(2);
+        taskExecutorService.signal(task.getId());
+        waitForRuns(task, 4);
+
+        Thread.sleep(200);
+        assertEquals(4, task.runCount.get());
+    }
+
+    /**
+     * An idle task not signalled is processed again after the idle task delay
+     */
+    @Test
+    public void testIdleTaskWokenAfterDelay() throws InterruptedException {
+        createExecutorService(1, 10);
+        TestTask task = new TestTask("queue", 0);
+        taskExecutorService.add(task);
+        waitForRuns(task, 5);
+    }
+
+    /**
+     * Active tasks are spread over the processors, and many idle tasks do not stop them from being processed
+     */
+    @Test
+    public void testActiveTasksStolenByIdleProcessors() throws InterruptedException {
+        createExecutorService(4, 1);
+        for (int i = 0; i < 1000; i++) {
+            taskExecutorService.add(new TestTask("idle-" + i, 0));
+        }
+
+        final AtomicInteger concurrentRuns = new AtomicInteger();
+        final AtomicInteger maxConcurrentRuns = new AtomicInteger();
+        TestTask[] activeTasks = new TestTask[4];
+        for (int i = 0; i < activeTasks.length; i++) {
+            activeTasks[i] = new TestTask("active-" + i, Integer.MAX_VALUE) {
+                @Override
+                public TaskHint call() throws Exception {
+                    int running = concurrentRuns.incrementAndGet();
+                    if (running > maxConcurrentRuns.get()) {
+                        maxConcurrentRuns.set(running);
+                    }
+                    Thread.sleep(1);
+                    concurrentRuns.decrementAndGet();
+                    return super.call();
+                }
+            };
+            taskExecutorService.add(activeTasks[i]);
+        }
+
+        for (TestTask activeTask : activeTasks) {
+            waitForRuns(activeTask, 200);
+        }
+        assertTrue("Active tasks were not processed in parallel", maxConcurrentRuns.get() > 1);
+    }
+
+    /**
+     * A task runs as many times in a row as its weight while active
+     */
+    @Test
+    public void testWeight() throws InterruptedException {
+        taskExecutorService = new TaskExecutorService<>(1, LONG_IDLE_DELAY_MILLIS, Executors.defaultThreadFactory());
+        final StringBuffer runOrder = new StringBuffer();
+        TestTask heavyTask = new TestTask("heavy", 5) {
+            @Override
+            public TaskHint call() throws Exception {
+                runOrder.append('h');
+                return super.call();
+            }
+
+            @Override
+            public int getWeight() {
+                return 3;
+            }
+        };
+        TestTask lightTask = new TestTask("light", 5) {
+            @Override
+            public TaskHint call() throws Exception {
+                runOrder.append('l');
+                return super.call();
+            }
+        };
+        taskExecutorService.add(heavyTask);
+        taskExecutorService.add(lightTask);
+        // Tasks are added asynchronously
+        Thread.sleep(100);
+        taskExecutorService.start();
+        waitForRuns(heavyTask, 6);
+        waitForRuns(lightTask, 6);
+
+        assertEquals("hhhlhhhlllll", runOrder.toString());
+    }
+
+    /**
+     * A removed task is not processed any more and its remove callback is invoked once
+     */
+    @Test
+    public void testRemove() throws InterruptedException {
+        createExecutorService(2, LONG_IDLE_DELAY_MILLIS);
+        TestTask parkedTask = new TestTask("parked", 0);
+        TestTask activeTask = new TestTask("active", Integer.MAX_VALUE);
+        taskExecutorService.add(parkedTask);
+        taskExecutorService.add(activeTask);
+        waitForRuns(parkedTask, 1);
+        waitForRuns(activeTask, 10);
+
+        taskExecutorService.remove(parkedTask.getId());
+        taskExecutorService.remove(activeTask.getId());
+        waitForRemoval(parkedTask);
+        waitForRemoval(activeTask);
+
+        int activeRunCount = activeTask.runCount.get();
+        Thread.sleep(200);
+        assertEquals(activeRunCount, activeTask.runCount.get());
+        assertEquals(1, parkedTask.runCount.get());
+        assertEquals(1, parkedTask.removeCount.get());
+        assertEquals(1, activeTask.removeCount.get());
+    }
+
+    /**
+     * Tasks are processed again after the executor service is stopped and started
+     */
+    @Test
+    public void testRestart() throws InterruptedException {
+        createExecutorService(2, LONG_IDLE_DELAY_MILLIS);
+        TestTask activeTask = new TestTask("active", Integer.MAX_VALUE);
+        taskExecutorService.add(activeTask);
+        waitForRuns(activeTask, 10);
+
+        taskExecutorService.stop();
+        Thread.sleep(100);
+        int runCount = activeTask.runCount.get();
+        Thread.sleep(100);
+        assertEquals(runCount, activeTask.runCount.get());
+
+        taskExecutorService.start();
+        taskExecutorService.start();
+        waitForRuns(activeTask, runCount + 10);
+    }
+
+    private void createExecutorService(int workerCount, long idleTaskDelayMillis) {
+        taskExecutorService = new TaskExecutorService<>(workerCount, idleTaskDelayMillis,
+                Executors.defaultThreadFactory());
+        taskExecutorService.start();
+    }
+
+    private static void waitForRuns(TestTask task, int runCount) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (task.runCount.get() < runCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue("Task " + task.getId() + " ran " + task.runCount.get() + " times", task.runCount.get() >= runCount);
+    }
+
+    private static void waitForRemoval(TestTask task) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (task.removeCount.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Task reporting active for a given number of runs and idle afterwards
+     */
+    private static class TestTask extends Task {
+
+        private final String id;
+
+        final AtomicInteger remainingActiveRuns;
+
+        final AtomicInteger runCount = new AtomicInteger();
+
+        final AtomicInteger removeCount = new AtomicInteger();
+
+        TestTask(String id, int activeRuns) {
+            this.id = id;
+            this.remainingActiveRuns = new AtomicInteger(activeRuns);
+        }
+
+        @Override
+        public TaskHint call() throws Exception {
+            runCount.incrementAndGet();
+            if (remainingActiveRuns.getAndDecrement() > 0) {
+                return TaskHint.ACTIVE;
+            }
+            return TaskHint.IDLE;
+        }
+
+        @Override
+        public void onAdd() {
+        }
+
+        @Override
+        public void onRemove() {
+            removeCount.incrementAndGet();
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.thrift;
+
+import org.junit.Test;
+import org.wso2.andes.thrift.slot.gen.ClusterNotificationInfo;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link ClusterNotificationRelay}
+ */
+public class ClusterNotificationRelayTest {
+
+    /**
+     * A waiting node is woken up when notifications are published
+     */
+    @Test
+    public void testWaitingNodeWokenUpOnPublish() throws Exception {
+        final ClusterNotificationRelay relay = ClusterNotificationRelay.getInstance();
+        final long lastSeenVersion = relay.awaitNotifications(-1, 0).getVersion();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<ClusterNotificationInfo> result = executor.submit(new Callable<ClusterNotificationInfo>() {
+            @Override
+            public ClusterNotificationInfo call() throws Exception {
+                return relay.awaitNotifications(lastSeenVersion, TimeUnit.SECONDS.toMillis(30));
+            }
+        });
+        executor.shutdown();
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertFalse(result.isDone());
+        relay.notificationsPublished("node1", 1234);
+
+        ClusterNotificationInfo notificationInfo = result.get(10, TimeUnit.SECONDS);
+        assertEquals(lastSeenVersion + 1, notificationInfo.getVersion());
+        assertEquals(1234, notificationInfo.getLastPublishedTime());
+    }
+
+    /**
+     * A node which has not seen the current version returns without waiting, including when the version it saw was
+     * given by a previous coordinator
+     */
+    @Test
+    public void testUnseenVersionReturnedImmediately() throws Exception {
+        ClusterNotificationRelay relay = ClusterNotificationRelay.getInstance();
+        relay.notificationsPublished("node1", System.currentTimeMillis());
+        long currentVersion = relay.awaitNotifications(-1, 0).getVersion();
+
+        long start = System.nanoTime();
+        assertEquals(currentVersion, relay.awaitNotifications(currentVersion - 1, 30000).getVersion());
+        assertEquals(currentVersion, relay.awaitNotifications(currentVersion + 100, 30000).getVersion());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+
+        // Times out when nothing new is published
+        assertEquals(currentVersion, relay.awaitNotifications(currentVersion, 50).getVersion());
+    }
+}
@@ -60,4 +60,14 @@ public abstract class AMQDataBlock implements EncodableAMQDataBlock
         return buffer;
     }
 
+    /**
+     * Get the byte representation of this data block as a sequence of buffers. Blocks referring to data held
+     * elsewhere return views of that data instead of copying it into a single buffer.
+     * @return buffers to be written in order
+     */
+    public java.nio.ByteBuffer[] toNioByteBuffers()
+    {
+        return new java.nio.ByteBuffer[] { toNioByteBuffer() };
+    }
+
 }
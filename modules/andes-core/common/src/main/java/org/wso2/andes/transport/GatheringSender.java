@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.andes.transport;
+
+/**
+ * Sender able to write a sequence of buffers without first copying them into one
+ */
+public interface GatheringSender<T> extends Sender<T>
+{
+    /**
+     * Send the given buffers in order without data of any other send in between. The sender keeps references to the
+     * buffers until they are written, so they must not be modified after this call.
+     *
+     * @param msgs buffers to send
+     */
+    void send(T[] msgs);
+}
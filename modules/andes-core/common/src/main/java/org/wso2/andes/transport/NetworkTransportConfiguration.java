@@ -43,4 +43,7 @@ public interface NetworkTransportConfiguration
     String getTransport();
 
     Integer getConnectorProcessors();
+
+    // Network transport implementation to use: "mina", "nio" or a class name. Null for the default implementation
+    String getTransportImplementation();
 }
@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.wso2.andes.framing.ProtocolVersion;
+import org.wso2.andes.transport.NetworkTransportConfiguration;
 import org.wso2.andes.transport.TransportException;
 
 public class Transport
@@ -39,6 +40,10 @@ public class Transport
     // Can't reference the class directly here, as this would preclude the ability to bundle transports separately.
     private static final String MINA_TRANSPORT_CLASSNAME = "org.wso2.andes.transport.network.mina.MinaNetworkTransport";
     private static final String IO_TRANSPORT_CLASSNAME = "org.wso2.andes.transport.network.io.IoNetworkTransport";
+    private static final String NIO_TRANSPORT_CLASSNAME = "org.wso2.andes.transport.network.nio.NioNetworkTransport";
+
+    public static final String MINA_TRANSPORT = "mina";
+    public static final String NIO_TRANSPORT = "nio";
 
     public static final String TCP = "tcp";
 
@@ -61,6 +66,28 @@ public class Transport
                 System.getProperty(QPID_BROKER_TRANSPORT_PROPNAME, MINA_TRANSPORT_CLASSNAME));
     }
 
+    /**
+     * Get the incoming transport implementation named by the given configuration, falling back to the one set
+     * through the {@value #QPID_BROKER_TRANSPORT_PROPNAME} system property when the configuration names none.
+     */
+    public static IncomingNetworkTransport getIncomingTransportInstance(final NetworkTransportConfiguration config)
+    {
+        final String implementation = config.getTransportImplementation();
+        if (implementation == null || implementation.isEmpty())
+        {
+            return getIncomingTransportInstance();
+        }
+        else if (MINA_TRANSPORT.equalsIgnoreCase(implementation))
+        {
+            return (IncomingNetworkTransport) loadTransportClass(MINA_TRANSPORT_CLASSNAME);
+        }
+        else if (NIO_TRANSPORT.equalsIgnoreCase(implementation))
+        {
+            return (IncomingNetworkTransport) loadTransportClass(NIO_TRANSPORT_CLASSNAME);
+        }
+        return (IncomingNetworkTransport) loadTransportClass(implementation);
+    }
+
     public static OutgoingNetworkTransport getOutgoingTransportInstance(
             final ProtocolVersion protocolVersion)
     {
@@ -24,14 +24,14 @@ import org.apache.mina.common.ByteBuffer;
 import org.apache.mina.common.CloseFuture;
 import org.apache.mina.common.IoSession;
 import org.apache.mina.common.WriteFuture;
-import org.wso2.andes.transport.Sender;
+import org.wso2.andes.transport.GatheringSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * MinaSender
  */
-public class MinaSender implements Sender<java.nio.ByteBuffer>
+public class MinaSender implements GatheringSender<java.nio.ByteBuffer>
 {
     private static final Logger _log = LoggerFactory.getLogger(MinaSender.class);
     
@@ -53,6 +53,18 @@ public class MinaSender implements Sender<java.nio.ByteBuffer>
         _log.debug("sent data:");
     }
 
+    /**
+     * Writes the buffers as they are. MINA keeps writes of a session in order and this method holds the sender lock
+     * while queueing them, so no other data is written in between.
+     */
+    public synchronized void send(java.nio.ByteBuffer[] msgs)
+    {
+        for (java.nio.ByteBuffer msg : msgs)
+        {
+            _lastWrite = _session.write(ByteBuffer.wrap(msg));
+        }
+    }
+
     public synchronized void flush()
     {
         if (_lastWrite != null)
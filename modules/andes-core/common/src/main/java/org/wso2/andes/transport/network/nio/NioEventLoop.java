@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.transport.network.nio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.andes.thread.Threading;
+import org.wso2.andes.transport.TransportException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A thread multiplexing the channels of many connections over a single selector. All reads, writes and interest
+ * changes of a channel happen on the thread of the event loop it is registered with. Other threads hand work over
+ * to the event loop through {@link #execute(Runnable)}.
+ */
+final class NioEventLoop implements Runnable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioEventLoop.class);
+
+    /**
+     * Maximum time in milliseconds a select call blocks, which is also the resolution of idle checks
+     */
+    private static final long SELECT_TIMEOUT = 1000;
+
+    /**
+     * Handles the readiness of a channel registered with an event loop
+     */
+    interface Handler
+    {
+        /**
+         * Called on the event loop thread when the channel is ready for one of its interest operations
+         */
+        void ready(SelectionKey key) throws IOException;
+
+        /**
+         * Called on the event loop thread periodically to detect idle connections
+         *
+         * @param now current time in milliseconds
+         */
+        void checkIdle(long now);
+
+        /**
+         * Called on the event loop thread when the event loop is closed or the handler failed
+         *
+         * @param cause cause of the close, null if the close was not due to an error
+         */
+        void close(Throwable cause);
+    }
+
+    private final Selector _selector;
+    private final Thread _thread;
+    private final Queue<Runnable> _tasks = new ConcurrentLinkedQueue<Runnable>();
+    private final AtomicBoolean _wakeupPending = new AtomicBoolean(false);
+    private volatile boolean _closed = false;
+
+    /**
+     * Buffer data is read into before it is handed to a connection. Shared by all connections of the event loop.
+     */
+    private final ByteBuffer _readBuffer;
+
+    NioEventLoop(String name, int readBufferSize)
+    {
+        try
+        {
+            _selector = Selector.open();
+        }
+        catch (IOException e)
+        {
+            throw new TransportException("Error opening selector", e);
+        }
+
+        try
+        {
+            //Create but deliberately don't start the thread.
+            _thread = Threading.getThreadFactory().createThread(this);
+        }
+        catch (Exception e)
+        {
+            throw new TransportException("Error creating event loop thread", e);
+        }
+        _thread.setDaemon(true);
+        _thread.setName(name);
+
+        _readBuffer = ByteBuffer.allocateDirect(readBufferSize);
+    }
+
+    void start()
+    {
+        _thread.start();
+    }
+
+    boolean inEventLoop()
+    {
+        return Thread.currentThread() == _thread;
+    }
+
+    /**
+     * Run a task on the event loop thread. Tasks submitted from other threads run in submission order.
+     *
+     * @param task task to run
+     */
+    void execute(Runnable task)
+    {
+        if (inEventLoop())
+        {
+            task.run();
+        }
+        else
+        {
+            _tasks.add(task);
+            if (_wakeupPending.compareAndSet(false, true))
+            {
+                _selector.wakeup();
+            }
+        }
+    }
+
+    /**
+     * Register a channel with the selector of this event loop. Must be called on the event loop thread.
+     *
+     * @param channel non blocking channel
+     * @param ops     interest operations
+     * @param handler handler of the channel
+     * @return selection key of the channel
+     */
+    SelectionKey register(SelectableChannel channel, int ops, Handler handler) throws ClosedChannelException
+    {
+        return channel.register(_selector, ops, handler);
+    }
+
+    ByteBuffer getReadBuffer()
+    {
+        return _readBuffer;
+    }
+
+    public void run()
+    {
+        long lastIdleCheck = System.currentTimeMillis();
+        while (!_closed)
+        {
+            try
+            {
+                _selector.select(SELECT_TIMEOUT);
+                _wakeupPending.set(false);
+                runTasks();
+
+                Iterator<SelectionKey> selectedKeys = _selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext())
+                {
+                    SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    handle(key);
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastIdleCheck >= SELECT_TIMEOUT)
+                {
+                    lastIdleCheck = now;
+                    for (SelectionKey key : _selector.keys())
+                    {
+                        if (key.isValid())
+                        {
+                            ((Handler) key.attachment()).checkIdle(now);
+                        }
+                    }
+                }
+            }
+            catch (Throwable t)
+            {
+                LOGGER.error("Error in event loop " + _thread.getName(), t);
+            }
+        }
+
+        runTasks();
+        closeHandlers();
+    }
+
+    /**
+     * Close the event loop along with all channels registered with it
+     */
+    void close()
+    {
+        _closed = true;
+        _selector.wakeup();
+    }
+
+    private void handle(SelectionKey key)
+    {
+        Handler handler = (Handler) key.attachment();
+        try
+        {
+            if (key.isValid())
+            {
+                handler.ready(key);
+            }
+        }
+        catch (CancelledKeyException e)
+        {
+            // Closed while handling the event
+        }
+        catch (Throwable t)
+        {
+            handler.close(t);
+        }
+    }
+
+    private void runTasks()
+    {
+        Runnable task;
+        while ((task = _tasks.poll()) != null)
+        {
+            try
+            {
+                task.run();
+            }
+            catch (Throwable t)
+            {
+                LOGGER.error("Error running task in event loop " + _thread.getName(), t);
+            }
+        }
+    }
+
+    private void closeHandlers()
+    {
+        List<Handler> handlers = new ArrayList<Handler>();
+        for (SelectionKey key : _selector.keys())
+        {
+            handlers.add((Handler) key.attachment());
+        }
+        for (Handler handler : handlers)
+        {
+            try
+            {
+                handler.close(null);
+            }
+            catch (Throwable t)
+            {
+                LOGGER.error("Error closing channel of event loop " + _thread.getName(), t);
+            }
+        }
+
+        try
+        {
+            _selector.close();
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Error closing selector of event loop " + _thread.getName(), e);
+        }
+    }
+}
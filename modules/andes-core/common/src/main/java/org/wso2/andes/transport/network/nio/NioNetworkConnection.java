@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.transport.network.nio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.andes.protocol.ProtocolEngine;
+import org.wso2.andes.transport.Receiver;
+import org.wso2.andes.transport.Sender;
+import org.wso2.andes.transport.network.NetworkConnection;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Network connection over a non blocking socket channel served by a {@link NioEventLoop}. Received data, idle and
+ * close notifications are handed to the receiver in order on a receiver executor, so a receiver may block without
+ * stalling the other connections of the event loop. Reading is suspended while the receiver is more than a read
+ * buffer behind.
+ */
+public class NioNetworkConnection implements NetworkConnection, NioEventLoop.Handler
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioNetworkConnection.class);
+
+    private final SocketChannel _channel;
+    private final NioEventLoop _eventLoop;
+    private final Executor _receiverExecutor;
+    private final NioSender _sender;
+    private final long _timeout;
+    private final SocketAddress _remoteAddress;
+    private final SocketAddress _localAddress;
+    private final Runnable _closeListener;
+
+    /**
+     * Receiver notifications not yet run by the receiver executor
+     */
+    private final Queue<Runnable> _receiverTasks = new ConcurrentLinkedQueue<Runnable>();
+
+    /**
+     * Whether the receiver tasks are scheduled on the receiver executor
+     */
+    private final AtomicBoolean _receiverScheduled = new AtomicBoolean(false);
+
+    /**
+     * Bytes read but not yet handed to the receiver
+     */
+    private final AtomicInteger _pendingReceivedBytes = new AtomicInteger(0);
+    private final int _maxPendingReceivedBytes;
+
+    private final Runnable _receiverTask = new Runnable()
+    {
+        public void run()
+        {
+            Runnable task;
+            while ((task = _receiverTasks.poll()) != null)
+            {
+                try
+                {
+                    task.run();
+                }
+                catch (Throwable t)
+                {
+                    LOGGER.error("Error in receiver of " + _remoteAddress, t);
+                }
+            }
+            _receiverScheduled.set(false);
+            // Tasks added after the last poll and before the flag was cleared
+            if (!_receiverTasks.isEmpty())
+            {
+                scheduleReceiver();
+            }
+        }
+    };
+
+    private Receiver<ByteBuffer> _receiver;
+    private SelectionKey _key;
+
+    private final AtomicBoolean _closed = new AtomicBoolean(false);
+    private final CountDownLatch _closedLatch = new CountDownLatch(1);
+    private volatile Throwable _closeCause;
+    private volatile boolean _blocked = false;
+
+    private volatile long _maxReadIdle = 0;
+    private volatile long _maxWriteIdle = 0;
+    private long _lastRead;
+    private long _lastWrite;
+
+    /**
+     * Create a connection
+     *
+     * @param channel          connected non blocking channel
+     * @param eventLoop        event loop serving the channel
+     * @param receiverExecutor executor running the receiver
+     * @param sendBufferSize   send buffer size of the socket. Senders wait while twice as much data is not written.
+     * @param timeout          time in milliseconds to wait for pending writes and for the connection to close
+     * @param closeListener    run on the event loop once the connection is closed, may be null
+     */
+    NioNetworkConnection(SocketChannel channel, NioEventLoop eventLoop, Executor receiverExecutor, int sendBufferSize,
+                         long timeout, Runnable closeListener)
+    {
+        _channel = channel;
+        _eventLoop = eventLoop;
+        _receiverExecutor = receiverExecutor;
+        _timeout = timeout;
+        _closeListener = closeListener;
+        _sender = new NioSender(this, channel, 2 * sendBufferSize, timeout);
+        _remoteAddress = channel.socket().getRemoteSocketAddress();
+        _localAddress = channel.socket().getLocalSocketAddress();
+        _maxPendingReceivedBytes = eventLoop.getReadBuffer().capacity();
+    }
+
+    /**
+     * Start reading from the channel
+     *
+     * @param receiver receiver of the data read
+     */
+    void start(Receiver<ByteBuffer> receiver)
+    {
+        _receiver = receiver;
+        _eventLoop.execute(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    _lastRead = _lastWrite = System.currentTimeMillis();
+                    _key = _eventLoop.register(_channel, isReading() ? SelectionKey.OP_READ : 0,
+                                               NioNetworkConnection.this);
+                    if (_sender.hasPendingWrites())
+                    {
+                        _sender.write();
+                    }
+                }
+                catch (IOException e)
+                {
+                    close(e);
+                }
+            }
+        });
+    }
+
+    public Sender<ByteBuffer> getSender()
+    {
+        return _sender;
+    }
+
+    /**
+     * Close the connection once the data already sent is written. Waits for the channel to close unless called on
+     * the event loop.
+     */
+    public void close()
+    {
+        if (_closed.get())
+        {
+            return;
+        }
+
+        _eventLoop.execute(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    if (!_closed.get() && _sender.hasPendingWrites())
+                    {
+                        _sender.write();
+                    }
+                }
+                catch (IOException e)
+                {
+                    LOGGER.debug("Error writing pending data of " + _remoteAddress + " before close", e);
+                }
+                close(null);
+            }
+        });
+
+        if (!_eventLoop.inEventLoop())
+        {
+            try
+            {
+                if (!_closedLatch.await(_timeout, TimeUnit.MILLISECONDS))
+                {
+                    LOGGER.warn("Timed out waiting for connection " + _remoteAddress + " to close");
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void ready(SelectionKey key) throws IOException
+    {
+        if (key.isReadable())
+        {
+            read();
+        }
+        if (key.isValid() && key.isWritable())
+        {
+            _sender.write();
+        }
+    }
+
+    public void checkIdle(long now)
+    {
+        if (!(_receiver instanceof ProtocolEngine))
+        {
+            return;
+        }
+        final ProtocolEngine engine = (ProtocolEngine) _receiver;
+        if (_maxReadIdle > 0 && now - _lastRead >= _maxReadIdle)
+        {
+            _lastRead = now;
+            dispatch(new Runnable()
+            {
+                public void run()
+                {
+                    engine.readerIdle();
+                }
+            });
+        }
+        if (_maxWriteIdle > 0 && now - _lastWrite >= _maxWriteIdle)
+        {
+            _lastWrite = now;
+            dispatch(new Runnable()
+            {
+                public void run()
+                {
+                    engine.writerIdle();
+                }
+            });
+        }
+    }
+
+    public void close(final Throwable cause)
+    {
+        if (_closed.getAndSet(true))
+        {
+            return;
+        }
+        _closeCause = cause;
+
+        try
+        {
+            if (null != _key)
+            {
+                _key.cancel();
+            }
+            _channel.close();
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Error closing channel of " + _remoteAddress, e);
+        }
+        finally
+        {
+            _closedLatch.countDown();
+            _sender.closed();
+        }
+
+        // Runs after the data already received is handed to the receiver
+        dispatch(new Runnable()
+        {
+            public void run()
+            {
+                if (null != cause)
+                {
+                    _receiver.exception(cause);
+                }
+                _receiver.closed();
+            }
+        });
+
+        if (null != _closeListener)
+        {
+            _closeListener.run();
+        }
+    }
+
+    public SocketAddress getRemoteAddress()
+    {
+        return _remoteAddress;
+    }
+
+    public SocketAddress getLocalAddress()
+    {
+        return _localAddress;
+    }
+
+    public void setMaxWriteIdle(int sec)
+    {
+        _maxWriteIdle = TimeUnit.SECONDS.toMillis(sec);
+    }
+
+    public void setMaxReadIdle(int sec)
+    {
+        _maxReadIdle = TimeUnit.SECONDS.toMillis(sec);
+    }
+
+    @Override
+    public void block()
+    {
+        _blocked = true;
+        scheduleReadInterestUpdate();
+    }
+
+    @Override
+    public boolean isBlocked()
+    {
+        return _blocked;
+    }
+
+    @Override
+    public void unblock()
+    {
+        _blocked = false;
+        scheduleReadInterestUpdate();
+    }
+
+    NioEventLoop getEventLoop()
+    {
+        return _eventLoop;
+    }
+
+    boolean isClosed()
+    {
+        return _closed.get();
+    }
+
+    Throwable getCloseCause()
+    {
+        return _closeCause;
+    }
+
+    /**
+     * Record that data was written to the channel. Called on the event loop.
+     */
+    void written()
+    {
+        _lastWrite = System.currentTimeMillis();
+    }
+
+    /**
+     * Set whether the event loop should notify when the channel becomes writable. Called on the event loop.
+     *
+     * @param enabled true to be notified
+     */
+    void setWriteInterest(boolean enabled)
+    {
+        if (null != _key && _key.isValid())
+        {
+            int ops = _key.interestOps();
+            _key.interestOps(enabled ? (ops | SelectionKey.OP_WRITE) : (ops & ~SelectionKey.OP_WRITE));
+        }
+    }
+
+    private boolean isReading()
+    {
+        return !_blocked && _pendingReceivedBytes.get() <= _maxPendingReceivedBytes;
+    }
+
+    private void scheduleReadInterestUpdate()
+    {
+        _eventLoop.execute(new Runnable()
+        {
+            public void run()
+            {
+                updateReadInterest();
+            }
+        });
+    }
+
+    /**
+     * Read while neither blocked nor too far ahead of the receiver. Called on the event loop.
+     */
+    private void updateReadInterest()
+    {
+        if (null != _key && _key.isValid())
+        {
+            int ops = _key.interestOps();
+            _key.interestOps(isReading() ? (ops | SelectionKey.OP_READ) : (ops & ~SelectionKey.OP_READ));
+        }
+    }
+
+    /**
+     * Run a receiver notification on the receiver executor after the notifications dispatched before it
+     *
+     * @param task notification to run
+     */
+    private void dispatch(Runnable task)
+    {
+        _receiverTasks.add(task);
+        scheduleReceiver();
+    }
+
+    private void scheduleReceiver()
+    {
+        if (_receiverScheduled.compareAndSet(false, true))
+        {
+            try
+            {
+                _receiverExecutor.execute(_receiverTask);
+            }
+            catch (RejectedExecutionException e)
+            {
+                _receiverScheduled.set(false);
+                LOGGER.warn("Receiver executor of " + _remoteAddress + " is shut down. Dropping "
+                            + _receiverTasks.size() + " receiver notifications.", e);
+            }
+        }
+    }
+
+    private void read() throws IOException
+    {
+        ByteBuffer readBuffer = _eventLoop.getReadBuffer();
+        readBuffer.clear();
+        int read = _channel.read(readBuffer);
+        if (read < 0)
+        {
+            close(null);
+            return;
+        }
+
+        if (read > 0)
+        {
+            _lastRead = System.currentTimeMillis();
+            readBuffer.flip();
+            // The read buffer is shared by the connections of the event loop, while receivers may keep the data
+            final ByteBuffer data = ByteBuffer.allocate(read);
+            data.put(readBuffer);
+            data.flip();
+            final int size = read;
+            if (_pendingReceivedBytes.addAndGet(size) > _maxPendingReceivedBytes)
+            {
+                updateReadInterest();
+            }
+            dispatch(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        _receiver.received(data);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        _receiver.exception(e);
+                    }
+                    finally
+                    {
+                        int pending = _pendingReceivedBytes.addAndGet(-size);
+                        if (pending <= _maxPendingReceivedBytes && pending + size > _maxPendingReceivedBytes)
+                        {
+                            scheduleReadInterestUpdate();
+                        }
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.transport.network.nio;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.andes.protocol.ProtocolEngine;
+import org.wso2.andes.protocol.ProtocolEngineFactory;
+import org.wso2.andes.ssl.SSLContextFactory;
+import org.wso2.andes.transport.ConnectionSettings;
+import org.wso2.andes.transport.NetworkTransportConfiguration;
+import org.wso2.andes.transport.Receiver;
+import org.wso2.andes.transport.TransportException;
+import org.wso2.andes.transport.network.IncomingNetworkTransport;
+import org.wso2.andes.transport.network.NetworkConnection;
+import org.wso2.andes.transport.network.OutgoingNetworkTransport;
+import org.wso2.andes.transport.network.Transport;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.wso2.andes.transport.ConnectionSettings.WILDCARD_ADDRESS;
+
+/**
+ * Network transport serving all connections from a small, fixed set of {@link NioEventLoop}s instead of dedicating
+ * reader and writer threads to each connection. Accepted connections are spread over the event loops of the
+ * transport round robin. Outgoing connections share a set of event loops sized by the number of processors, which is
+ * shut down when the last outgoing connection closes.
+ * <p/>
+ * As with the executor thread model of the MINA transport, received data is processed by a pool of receiver threads
+ * rather than on the event loops.
+ * <p/>
+ * SSL is not supported by this transport.
+ */
+public class NioNetworkTransport implements OutgoingNetworkTransport, IncomingNetworkTransport
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioNetworkTransport.class);
+
+    private static final long TIMEOUT = 60000;
+
+    private static final int CLIENT_BUFFER_SIZE = 32 * 1024;
+
+    private static final AtomicInteger EVENT_LOOP_SEQUENCE = new AtomicInteger(0);
+
+    /**
+     * Event loops and receiver executor shared by outgoing connections. Guarded by the class lock.
+     */
+    private static NioEventLoop[] _clientEventLoops;
+    private static ExecutorService _clientReceiverExecutor;
+    private static int _clientConnectionCount = 0;
+    private static final AtomicInteger _nextClientEventLoop = new AtomicInteger(0);
+
+    private static final Runnable CLIENT_CLOSE_LISTENER = new Runnable()
+    {
+        public void run()
+        {
+            releaseClientEventLoops();
+        }
+    };
+
+    private NioNetworkConnection _connection;
+    private ServerSocketChannel _serverChannel;
+    private NioEventLoop[] _eventLoops;
+    private ExecutorService _receiverExecutor;
+    private final AtomicInteger _nextEventLoop = new AtomicInteger(0);
+
+    public NetworkConnection connect(ConnectionSettings settings, Receiver<ByteBuffer> delegate,
+                                     SSLContextFactory sslFactory)
+    {
+        if (settings.isUseSSL())
+        {
+            throw new TransportException("SSL is not supported by the NIO transport");
+        }
+        if (!Transport.TCP.equalsIgnoreCase(settings.getProtocol()))
+        {
+            throw new TransportException("Unknown protocol: " + settings.getProtocol());
+        }
+
+        SocketChannel channel = null;
+        try
+        {
+            channel = SocketChannel.open();
+            channel.socket().setReuseAddress(true);
+            channel.socket().setTcpNoDelay(settings.isTcpNodelay());
+            channel.socket().setSendBufferSize(settings.getWriteBufferSize());
+            channel.socket().setReceiveBufferSize(settings.getReadBufferSize());
+            channel.connect(new InetSocketAddress(InetAddress.getByName(settings.getHost()), settings.getPort()));
+            channel.configureBlocking(false);
+        }
+        catch (IOException e)
+        {
+            closeChannel(channel);
+            throw new TransportException("Error connecting to broker", e);
+        }
+
+        synchronized (NioNetworkTransport.class)
+        {
+            NioEventLoop[] eventLoops = acquireClientEventLoops();
+            NioEventLoop eventLoop = eventLoops[next(_nextClientEventLoop, eventLoops.length)];
+            _connection = new NioNetworkConnection(channel, eventLoop, _clientReceiverExecutor,
+                                                   settings.getWriteBufferSize(), TIMEOUT, CLIENT_CLOSE_LISTENER);
+        }
+        _connection.start(delegate);
+        return _connection;
+    }
+
+    public void accept(NetworkTransportConfiguration config, ProtocolEngineFactory factory,
+                       SSLContextFactory sslFactory)
+    {
+        if (null != sslFactory)
+        {
+            throw new TransportException("SSL is not supported by the NIO transport");
+        }
+        if (!Transport.TCP.equalsIgnoreCase(config.getTransport()))
+        {
+            throw new TransportException("Unknown transport: " + config.getTransport());
+        }
+
+        InetSocketAddress address;
+        if (config.getHost().equals(WILDCARD_ADDRESS))
+        {
+            address = new InetSocketAddress(config.getPort());
+        }
+        else
+        {
+            address = new InetSocketAddress(config.getHost(), config.getPort());
+        }
+
+        String name = "NioNetworkTransport(" + config.getPort() + ")";
+        _eventLoops = createEventLoops(config.getConnectorProcessors(), config.getReceiveBufferSize(), name);
+        _receiverExecutor = createReceiverExecutor(name);
+        try
+        {
+            _serverChannel = ServerSocketChannel.open();
+            _serverChannel.socket().setReuseAddress(true);
+            _serverChannel.socket().setReceiveBufferSize(config.getReceiveBufferSize());
+            _serverChannel.socket().bind(address);
+            _serverChannel.configureBlocking(false);
+        }
+        catch (IOException e)
+        {
+            closeChannel(_serverChannel);
+            closeEventLoops(_eventLoops);
+            _receiverExecutor.shutdown();
+            throw new TransportException("Could not bind to " + address, e);
+        }
+
+        final Acceptor acceptor = new Acceptor(config, factory);
+        _eventLoops[0].execute(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    _eventLoops[0].register(_serverChannel, SelectionKey.OP_ACCEPT, acceptor);
+                }
+                catch (IOException e)
+                {
+                    acceptor.close(e);
+                }
+            }
+        });
+    }
+
+    public void close()
+    {
+        if (null != _connection)
+        {
+            _connection.close();
+        }
+        if (null != _serverChannel)
+        {
+            closeChannel(_serverChannel);
+            closeEventLoops(_eventLoops);
+            // Lets the close notifications of the connections run
+            _receiverExecutor.shutdown();
+        }
+    }
+
+    public NetworkConnection getConnection()
+    {
+        return _connection;
+    }
+
+    /**
+     * Get the event loops of outgoing connections, creating them for the first connection. Each call must be matched
+     * by a {@link #releaseClientEventLoops()} when the connection closes.
+     *
+     * @return event loops of outgoing connections
+     */
+    private static synchronized NioEventLoop[] acquireClientEventLoops()
+    {
+        if (_clientConnectionCount++ == 0)
+        {
+            String name = "NioNetworkTransport(Client)";
+            _clientEventLoops = createEventLoops(Runtime.getRuntime().availableProcessors(), CLIENT_BUFFER_SIZE, name);
+            _clientReceiverExecutor = createReceiverExecutor(name);
+        }
+        return _clientEventLoops;
+    }
+
+    /**
+     * Shut down the event loops of outgoing connections once the last outgoing connection is closed
+     */
+    private static synchronized void releaseClientEventLoops()
+    {
+        if (--_clientConnectionCount == 0)
+        {
+            closeEventLoops(_clientEventLoops);
+            _clientReceiverExecutor.shutdown();
+            _clientEventLoops = null;
+            _clientReceiverExecutor = null;
+        }
+    }
+
+    private static ExecutorService createReceiverExecutor(String name)
+    {
+        return Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat(name + "-Receiver-%d").setDaemon(true).build());
+    }
+
+    private static NioEventLoop[] createEventLoops(int count, int readBufferSize, String name)
+    {
+        NioEventLoop[] eventLoops = new NioEventLoop[Math.max(1, count)];
+        for (int i = 0; i < eventLoops.length; i++)
+        {
+            eventLoops[i] = new NioEventLoop(name + "-" + EVENT_LOOP_SEQUENCE.incrementAndGet(), readBufferSize);
+            eventLoops[i].start();
+        }
+        return eventLoops;
+    }
+
+    private static void closeEventLoops(NioEventLoop[] eventLoops)
+    {
+        for (NioEventLoop eventLoop : eventLoops)
+        {
+            eventLoop.close();
+        }
+    }
+
+    private static int next(AtomicInteger counter, int size)
+    {
+        return (counter.getAndIncrement() & Integer.MAX_VALUE) % size;
+    }
+
+    private static void closeChannel(Channel channel)
+    {
+        if (null != channel)
+        {
+            try
+            {
+                channel.close();
+            }
+            catch (IOException e)
+            {
+                LOGGER.warn("Error closing channel", e);
+            }
+        }
+    }
+
+    /**
+     * Accepts incoming connections and hands each of them to an event loop of the transport
+     */
+    private class Acceptor implements NioEventLoop.Handler
+    {
+        private final NetworkTransportConfiguration _config;
+        private final ProtocolEngineFactory _factory;
+
+        Acceptor(NetworkTransportConfiguration config, ProtocolEngineFactory factory)
+        {
+            _config = config;
+            _factory = factory;
+        }
+
+        public void ready(SelectionKey key)
+        {
+            SocketChannel channel;
+            while ((channel = acceptChannel()) != null)
+            {
+                try
+                {
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(_config.getTcpNoDelay());
+                    channel.socket().setSendBufferSize(_config.getSendBufferSize());
+                    channel.socket().setReceiveBufferSize(_config.getReceiveBufferSize());
+
+                    if (LOGGER.isDebugEnabled())
+                    {
+                        LOGGER.debug("Accepted connection: " + channel.socket().getRemoteSocketAddress());
+                    }
+
+                    NioEventLoop eventLoop = _eventLoops[next(_nextEventLoop, _eventLoops.length)];
+                    NioNetworkConnection connection = new NioNetworkConnection(channel, eventLoop, _receiverExecutor,
+                                                                               _config.getSendBufferSize(), TIMEOUT,
+                                                                               null);
+                    ProtocolEngine engine = _factory.newProtocolEngine(connection);
+                    connection.start(engine);
+                }
+                catch (RuntimeException e)
+                {
+                    LOGGER.error("Error creating connection for " + channel.socket().getRemoteSocketAddress(), e);
+                    closeChannel(channel);
+                }
+                catch (IOException e)
+                {
+                    LOGGER.error("Error configuring connection for " + channel.socket().getRemoteSocketAddress(), e);
+                    closeChannel(channel);
+                }
+            }
+        }
+
+        /**
+         * Accept a pending connection. Failing to accept, for instance when out of file descriptors, does not close
+         * the listening socket.
+         *
+         * @return accepted channel or null if there is none
+         */
+        private SocketChannel acceptChannel()
+        {
+            try
+            {
+                return _serverChannel.accept();
+            }
+            catch (IOException e)
+            {
+                LOGGER.error("Error accepting connection on port " + _config.getPort(), e);
+                return null;
+            }
+        }
+
+        public void checkIdle(long now)
+        {
+            // Nothing to do for the listening socket
+        }
+
+        public void close(Throwable cause)
+        {
+            if (null != cause)
+            {
+                LOGGER.error("Error accepting connections on port " + _config.getPort(), cause);
+            }
+            closeChannel(_serverChannel);
+        }
+    }
+}
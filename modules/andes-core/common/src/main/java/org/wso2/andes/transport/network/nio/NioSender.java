@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.transport.network.nio;
+
+import org.wso2.andes.transport.GatheringSender;
+import org.wso2.andes.transport.SenderException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sender queueing outgoing data of a {@link NioNetworkConnection}. Data sent by any thread is written by the event
+ * loop of the connection. All data queued by the time the event loop gets to write is written with a single
+ * gathering write, so frames sent in a burst do not need a system call each.
+ * <p/>
+ * Like {@link org.wso2.andes.transport.network.io.IoSender}, a send waits while the data not yet written exceeds a
+ * limit, and fails if the peer does not read it within the timeout.
+ */
+final class NioSender implements GatheringSender<ByteBuffer>
+{
+    /**
+     * Maximum number of buffers passed to a single gathering write
+     */
+    private static final int MAX_GATHERED_BUFFERS = 64;
+
+    private final NioNetworkConnection _connection;
+    private final SocketChannel _channel;
+    private final int _maxPendingBytes;
+    private final long _timeout;
+
+    /**
+     * Bytes sent but not yet written to the channel
+     */
+    private final AtomicLong _pendingBytes = new AtomicLong(0);
+    private final Object _notFull = new Object();
+
+    /**
+     * Data sent but not yet taken by the event loop
+     */
+    private final Queue<ByteBuffer> _pending = new ConcurrentLinkedQueue<ByteBuffer>();
+
+    /**
+     * Whether a write is scheduled on the event loop
+     */
+    private final AtomicBoolean _writeScheduled = new AtomicBoolean(false);
+
+    /**
+     * Data taken by the event loop and not yet fully written. Only accessed by the event loop.
+     */
+    private final ArrayDeque<ByteBuffer> _inFlight = new ArrayDeque<ByteBuffer>();
+    private final ByteBuffer[] _gathered = new ByteBuffer[MAX_GATHERED_BUFFERS];
+
+    private final Runnable _writeTask = new Runnable()
+    {
+        public void run()
+        {
+            try
+            {
+                write();
+            }
+            catch (IOException e)
+            {
+                _connection.close(e);
+            }
+        }
+    };
+
+    /**
+     * Create a sender
+     *
+     * @param connection      connection of the sender
+     * @param channel         channel of the connection
+     * @param maxPendingBytes bytes not yet written above which a send waits
+     * @param timeout         time in milliseconds a send waits before failing
+     */
+    NioSender(NioNetworkConnection connection, SocketChannel channel, int maxPendingBytes, long timeout)
+    {
+        _connection = connection;
+        _channel = channel;
+        _maxPendingBytes = maxPendingBytes;
+        _timeout = timeout;
+    }
+
+    public void send(ByteBuffer msg)
+    {
+        checkNotClosed();
+        awaitNotFull();
+
+        // Callers may reuse the buffer once send returns
+        ByteBuffer copy = ByteBuffer.allocate(msg.remaining());
+        copy.put(msg);
+        copy.flip();
+        synchronized (_pending)
+        {
+            _pending.add(copy);
+        }
+        _pendingBytes.addAndGet(copy.remaining());
+        scheduleWrite();
+    }
+
+    /**
+     * Queues the buffers without copying them
+     */
+    public void send(ByteBuffer[] msgs)
+    {
+        checkNotClosed();
+        awaitNotFull();
+
+        // Buffers of a single send are queued together so that they are not interleaved with other sends
+        long size = 0;
+        synchronized (_pending)
+        {
+            for (ByteBuffer msg : msgs)
+            {
+                _pending.add(msg);
+                size += msg.remaining();
+            }
+        }
+        _pendingBytes.addAndGet(size);
+        scheduleWrite();
+    }
+
+    public void flush()
+    {
+        scheduleWrite();
+    }
+
+    public void close()
+    {
+        _connection.close();
+    }
+
+    public void setIdleTimeout(int i)
+    {
+        //We are instead using the setMax[Read|Write]IdleTime methods in
+        //NioNetworkConnection for this.
+    }
+
+    boolean hasPendingWrites()
+    {
+        return !_inFlight.isEmpty() || !_pending.isEmpty();
+    }
+
+    /**
+     * Wake up sends waiting for data to be written. Called when the connection is closed.
+     */
+    void closed()
+    {
+        synchronized (_notFull)
+        {
+            _notFull.notifyAll();
+        }
+    }
+
+    private void checkNotClosed()
+    {
+        if (_connection.isClosed())
+        {
+            throw new SenderException("sender is closed", _connection.getCloseCause());
+        }
+    }
+
+    /**
+     * Wait until the data not yet written is below the limit. Sends on the event loop do not wait, since only the
+     * event loop writes.
+     */
+    private void awaitNotFull()
+    {
+        if (_pendingBytes.get() < _maxPendingBytes || _connection.getEventLoop().inEventLoop())
+        {
+            return;
+        }
+
+        scheduleWrite();
+        synchronized (_notFull)
+        {
+            long start = System.currentTimeMillis();
+            long elapsed = 0;
+            while (!_connection.isClosed() && _pendingBytes.get() >= _maxPendingBytes && elapsed < _timeout)
+            {
+                try
+                {
+                    _notFull.wait(_timeout - elapsed);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new SenderException(e);
+                }
+                elapsed = System.currentTimeMillis() - start;
+            }
+        }
+
+        checkNotClosed();
+        if (_pendingBytes.get() >= _maxPendingBytes)
+        {
+            throw new SenderException("write timed out: " + _pendingBytes.get() + " bytes pending");
+        }
+    }
+
+    private void scheduleWrite()
+    {
+        if (_writeScheduled.compareAndSet(false, true))
+        {
+            _connection.getEventLoop().execute(_writeTask);
+        }
+    }
+
+    /**
+     * Write queued data until the socket buffer is full or no data is left. Called on the event loop either as a
+     * scheduled write or when the channel becomes writable again.
+     */
+    void write() throws IOException
+    {
+        // Data sent after this point schedules another write
+        _writeScheduled.set(false);
+
+        while (true)
+        {
+            ByteBuffer next;
+            while (_inFlight.size() < MAX_GATHERED_BUFFERS && (next = _pending.poll()) != null)
+            {
+                _inFlight.add(next);
+            }
+
+            if (_inFlight.isEmpty())
+            {
+                _connection.setWriteInterest(false);
+                return;
+            }
+
+            int count = 0;
+            for (ByteBuffer buffer : _inFlight)
+            {
+                _gathered[count++] = buffer;
+            }
+
+            long written = _channel.write(_gathered, 0, count);
+            Arrays.fill(_gathered, 0, count, null);
+            if (written > 0)
+            {
+                _connection.written();
+                long pending = _pendingBytes.addAndGet(-written);
+                if (pending < _maxPendingBytes && pending + written >= _maxPendingBytes)
+                {
+                    synchronized (_notFull)
+                    {
+                        _notFull.notifyAll();
+                    }
+                }
+            }
+
+            while (!_inFlight.isEmpty() && !_inFlight.peekFirst().hasRemaining())
+            {
+                _inFlight.pollFirst();
+            }
+
+            if (!_inFlight.isEmpty())
+            {
+                // Socket buffer is full. Continue when the channel becomes writable.
+                _connection.setWriteInterest(true);
+                return;
+            }
+        }
+    }
+}
@@ -529,6 +529,11 @@ public class MinaNetworkHandlerTest extends QpidTestCase
         {
             return 4;
         }
+
+        public String getTransportImplementation()
+        {
+            return Transport.MINA_TRANSPORT;
+        }
         
     }
 }
\ No newline at end of file
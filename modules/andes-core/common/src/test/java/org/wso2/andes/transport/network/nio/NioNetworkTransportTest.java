@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.andes.transport.network.nio;
+
+import org.wso2.andes.protocol.ProtocolEngine;
+import org.wso2.andes.protocol.ProtocolEngineFactory;
+import org.wso2.andes.test.utils.QpidTestCase;
+import org.wso2.andes.transport.ConnectionSettings;
+import org.wso2.andes.transport.NetworkTransportConfiguration;
+import org.wso2.andes.transport.Receiver;
+import org.wso2.andes.transport.SenderException;
+import org.wso2.andes.transport.TransportException;
+import org.wso2.andes.transport.network.NetworkConnection;
+import org.wso2.andes.transport.network.Transport;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class NioNetworkTransportTest extends QpidTestCase
+{
+    private static final int MESSAGE_COUNT = 10000;
+
+    private int _testPort;
+    private NioNetworkTransport _server;
+    private NioNetworkTransport _client;
+    private ConnectionSettings _clientSettings;
+    private TestNetworkTransportConfiguration _brokerSettings;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        String host = InetAddress.getLocalHost().getHostName();
+        _testPort = findFreePort();
+
+        _clientSettings = new ConnectionSettings();
+        _clientSettings.setHost(host);
+        _clientSettings.setPort(_testPort);
+
+        _brokerSettings = new TestNetworkTransportConfiguration(_testPort, host);
+
+        _server = new NioNetworkTransport();
+        _client = new NioNetworkTransport();
+    }
+
+    @Override
+    public void tearDown()
+    {
+        _client.close();
+        _server.close();
+    }
+
+    /**
+     * Tests that the transport is selected by its name
+     */
+    public void testTransportSelection()
+    {
+        assertTrue(Transport.getIncomingTransportInstance(_brokerSettings) instanceof NioNetworkTransport);
+    }
+
+    /**
+     * Tests that a connection can't be opened before the transport is bound
+     */
+    public void testConnectWithoutListener()
+    {
+        try
+        {
+            _client.connect(_clientSettings, new CollectingReceiver(0), null);
+            fail("Open should have failed since no engine bound");
+        }
+        catch (TransportException e)
+        {
+            // Expected
+        }
+    }
+
+    /**
+     * Tests that many small messages sent in a burst are echoed back complete and in order
+     */
+    public void testEcho() throws Exception
+    {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            expected.write(("message-" + i + ";").getBytes());
+        }
+
+        _server.accept(_brokerSettings, new EchoProtocolEngineFactory(), null);
+        CollectingReceiver receiver = new CollectingReceiver(expected.size());
+        NetworkConnection connection = _client.connect(_clientSettings, receiver, null);
+
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            connection.getSender().send(ByteBuffer.wrap(("message-" + i + ";").getBytes()));
+        }
+        connection.getSender().flush();
+
+        assertTrue("Echo not received in time", receiver.awaitBytes(10, TimeUnit.SECONDS));
+        assertEquals(new String(expected.toByteArray()), new String(receiver.getReceived()));
+    }
+
+    /**
+     * Tests that the client is notified when the server closes the connection
+     */
+    public void testServerClose() throws Exception
+    {
+        _server.accept(_brokerSettings, new EchoProtocolEngineFactory(), null);
+        CollectingReceiver receiver = new CollectingReceiver(0);
+        _client.connect(_clientSettings, receiver, null);
+
+        _server.close();
+        assertTrue("Client should have been closed", receiver.awaitClosed(2, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that received data is processed by a receiver thread rather than by the event loop
+     */
+    public void testReceivedOffEventLoop() throws Exception
+    {
+        _server.accept(_brokerSettings, new EchoProtocolEngineFactory(), null);
+        CollectingReceiver receiver = new CollectingReceiver(1);
+        NetworkConnection connection = _client.connect(_clientSettings, receiver, null);
+
+        connection.getSender().send(ByteBuffer.wrap(new byte[] { 1 }));
+        connection.getSender().flush();
+
+        assertTrue("Echo not received in time", receiver.awaitBytes(10, TimeUnit.SECONDS));
+        assertTrue("Received on " + receiver.getReceivingThread(),
+                   receiver.getReceivingThread().startsWith("NioNetworkTransport(Client)-Receiver-"));
+    }
+
+    /**
+     * Tests that a send waits while the peer does not read, and fails once the connection is closed
+     */
+    public void testSendWaitsForPeer() throws Exception
+    {
+        _server.accept(_brokerSettings, new ProtocolEngineFactory()
+        {
+            public ProtocolEngine newProtocolEngine(NetworkConnection network)
+            {
+                network.block();
+                return new EchoProtocolEngine(network);
+            }
+        }, null);
+        final NetworkConnection connection = _client.connect(_clientSettings, new CollectingReceiver(0), null);
+
+        final AtomicReference<Throwable> sendFailure = new AtomicReference<Throwable>();
+        Thread sender = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    while (true)
+                    {
+                        connection.getSender().send(ByteBuffer.allocate(64 * 1024));
+                    }
+                }
+                catch (Throwable t)
+                {
+                    sendFailure.set(t);
+                }
+            }
+        });
+        sender.start();
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (sender.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(50);
+        }
+        assertEquals("Sender should wait for the peer", Thread.State.TIMED_WAITING, sender.getState());
+
+        connection.close();
+        sender.join(5000);
+        assertFalse("Sender should stop once the connection is closed", sender.isAlive());
+        assertTrue("Unexpected failure " + sendFailure.get(), sendFailure.get() instanceof SenderException);
+    }
+
+    /**
+     * Tests that the event loops of outgoing connections stop once the last outgoing connection is closed
+     */
+    public void testClientEventLoopsShutDown() throws Exception
+    {
+        _server.accept(_brokerSettings, new EchoProtocolEngineFactory(), null);
+        NetworkConnection connection = _client.connect(_clientSettings, new CollectingReceiver(0), null);
+        assertTrue("Client event loops should be running", clientThreadsRunning());
+
+        connection.close();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (clientThreadsRunning() && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(50);
+        }
+        assertFalse("Client event loops should have stopped", clientThreadsRunning());
+    }
+
+    private static boolean clientThreadsRunning()
+    {
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+        {
+            if (thread.isAlive() && thread.getName().startsWith("NioNetworkTransport(Client)-")
+                && !thread.getName().contains("-Receiver-"))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class EchoProtocolEngineFactory implements ProtocolEngineFactory
+    {
+        public ProtocolEngine newProtocolEngine(NetworkConnection network)
+        {
+            return new EchoProtocolEngine(network);
+        }
+    }
+
+    private static class EchoProtocolEngine implements ProtocolEngine
+    {
+        private final NetworkConnection _network;
+
+        EchoProtocolEngine(NetworkConnection network)
+        {
+            _network = network;
+        }
+
+        public SocketAddress getRemoteAddress()
+        {
+            return _network.getRemoteAddress();
+        }
+
+        public SocketAddress getLocalAddress()
+        {
+            return _network.getLocalAddress();
+        }
+
+        public long getWrittenBytes()
+        {
+            return 0;
+        }
+
+        public long getReadBytes()
+        {
+            return 0;
+        }
+
+        public void closed()
+        {
+        }
+
+        public void writerIdle()
+        {
+        }
+
+        public void readerIdle()
+        {
+        }
+
+        public void received(ByteBuffer msg)
+        {
+            _network.getSender().send(msg);
+        }
+
+        public void exception(Throwable t)
+        {
+        }
+    }
+
+    private static class CollectingReceiver implements Receiver<ByteBuffer>
+    {
+        private final ByteArrayOutputStream _received = new ByteArrayOutputStream();
+        private final CountDownLatch _bytesLatch;
+        private final CountDownLatch _closedLatch = new CountDownLatch(1);
+        private final int _expectedBytes;
+        private volatile String _receivingThread;
+
+        CollectingReceiver(int expectedBytes)
+        {
+            _expectedBytes = expectedBytes;
+            _bytesLatch = new CountDownLatch(1);
+        }
+
+        public synchronized void received(ByteBuffer msg)
+        {
+            _receivingThread = Thread.currentThread().getName();
+            byte[] bytes = new byte[msg.remaining()];
+            msg.get(bytes);
+            _received.write(bytes, 0, bytes.length);
+            if (_received.size() >= _expectedBytes)
+            {
+                _bytesLatch.countDown();
+            }
+        }
+
+        public void exception(Throwable t)
+        {
+        }
+
+        public void closed()
+        {
+            _closedLatch.countDown();
+        }
+
+        String getReceivingThread()
+        {
+            return _receivingThread;
+        }
+
+        synchronized byte[] getReceived()
+        {
+            return _received.toByteArray();
+        }
+
+        boolean awaitBytes(long timeout, TimeUnit unit) throws InterruptedException
+        {
+            return _bytesLatch.await(timeout, unit);
+        }
+
+        boolean awaitClosed(long timeout, TimeUnit unit) throws InterruptedException
+        {
+            return _closedLatch.await(timeout, unit);
+        }
+    }
+
+    private static class TestNetworkTransportConfiguration implements NetworkTransportConfiguration
+    {
+        private int _port;
+        private String _host;
+
+        public TestNetworkTransportConfiguration(final int port, final String host)
+        {
+            _port = port;
+            _host = host;
+        }
+
+        public Boolean getTcpNoDelay()
+        {
+            return true;
+        }
+
+        public Integer getReceiveBufferSize()
+        {
+            return 32768;
+        }
+
+        public Integer getSendBufferSize()
+        {
+            return 32768;
+        }
+
+        public Integer getPort()
+        {
+            return _port;
+        }
+
+        public String getHost()
+        {
+            return _host;
+        }
+
+        public String getTransport()
+        {
+            return Transport.TCP;
+        }
+
+        public Integer getConnectorProcessors()
+        {
+            return 2;
+        }
+
+        public String getTransportImplementation()
+        {
+            return Transport.NIO_TRANSPORT;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+-- Tables storing the content of a topic message once for all the storage queues it is routed to.
+-- Needed when performanceTuning/topicSubscriptions/sharedContent/@enabled is true. Run against the message
+-- store database after the MB_METADATA table is created.
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[MB_SHARED_CONTENT]') AND TYPE IN (N'U'))
+CREATE TABLE MB_SHARED_CONTENT (
+                        MESSAGE_ID BIGINT,
+                        CONTENT_OFFSET INT,
+                        MESSAGE_CONTENT VARBINARY(MAX) NOT NULL,
+                        PRIMARY KEY (MESSAGE_ID, CONTENT_OFFSET)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[MB_SHARED_CONTENT_REF]') AND TYPE IN (N'U'))
+CREATE TABLE MB_SHARED_CONTENT_REF (
+                        MESSAGE_ID BIGINT,
+                        CONTENT_ID BIGINT NOT NULL,
+                        PRIMARY KEY (MESSAGE_ID),
+                        FOREIGN KEY (MESSAGE_ID) REFERENCES MB_METADATA (MESSAGE_ID) ON DELETE CASCADE
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.INDEXES WHERE NAME = 'MB_SHARED_CONTENT_REF_CONTENT_ID')
+CREATE INDEX MB_SHARED_CONTENT_REF_CONTENT_ID ON MB_SHARED_CONTENT_REF (CONTENT_ID);
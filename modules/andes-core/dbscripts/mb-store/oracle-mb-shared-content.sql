@@ -0,0 +1,23 @@
+-- Tables storing the content of a topic message once for all the storage queues it is routed to.
+-- Needed when performanceTuning/topicSubscriptions/sharedContent/@enabled is true. Run against the message
+-- store database after the MB_METADATA table is created.
+
+CREATE TABLE MB_SHARED_CONTENT (
+                        MESSAGE_ID NUMBER(19),
+                        CONTENT_OFFSET NUMBER(10),
+                        MESSAGE_CONTENT BLOB NOT NULL,
+                        CONSTRAINT PK_MB_SHARED_CONTENT PRIMARY KEY (MESSAGE_ID, CONTENT_OFFSET)
+)
+/
+
+CREATE TABLE MB_SHARED_CONTENT_REF (
+                        MESSAGE_ID NUMBER(19),
+                        CONTENT_ID NUMBER(19) NOT NULL,
+                        CONSTRAINT PK_MB_SHARED_CONTENT_REF PRIMARY KEY (MESSAGE_ID),
+                        CONSTRAINT FK_MB_SHARED_CONTENT_REF FOREIGN KEY (MESSAGE_ID)
+                        REFERENCES MB_METADATA (MESSAGE_ID) ON DELETE CASCADE
+)
+/
+
+CREATE INDEX MB_SHARED_CONTENT_REF_CONTENT ON MB_SHARED_CONTENT_REF (CONTENT_ID)
+/
@@ -0,0 +1,19 @@
+-- Tables storing the content of a topic message once for all the storage queues it is routed to.
+-- Needed when performanceTuning/topicSubscriptions/sharedContent/@enabled is true. Run against the message
+-- store database after the MB_METADATA table is created.
+
+CREATE TABLE IF NOT EXISTS MB_SHARED_CONTENT (
+                        MESSAGE_ID BIGINT,
+                        CONTENT_OFFSET INTEGER,
+                        MESSAGE_CONTENT BYTEA NOT NULL,
+                        PRIMARY KEY (MESSAGE_ID, CONTENT_OFFSET)
+);
+
+CREATE TABLE IF NOT EXISTS MB_SHARED_CONTENT_REF (
+                        MESSAGE_ID BIGINT,
+                        CONTENT_ID BIGINT NOT NULL,
+                        PRIMARY KEY (MESSAGE_ID),
+                        FOREIGN KEY (MESSAGE_ID) REFERENCES MB_METADATA (MESSAGE_ID) ON DELETE CASCADE
+);
+
+CREATE INDEX MB_SHARED_CONTENT_REF_CONTENT_ID ON MB_SHARED_CONTENT_REF (CONTENT_ID);